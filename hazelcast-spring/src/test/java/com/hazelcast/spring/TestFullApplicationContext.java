@@ -1403,6 +1403,9 @@ public class TestFullApplicationContext extends HazelcastTestSupport {
         assertEquals(250, raftAlgorithmConfig.getCommitIndexAdvanceCountToSnapshot());
         assertEquals(75, raftAlgorithmConfig.getUncommittedEntryCountToRejectNewAppends());
         assertEquals(50, raftAlgorithmConfig.getAppendRequestBackoffTimeoutInMillis());
+        assertEquals(8, raftAlgorithmConfig.getAppendRequestMaxInFlightCount());
+        assertTrue(raftAlgorithmConfig.isLeaderLeaseEnabled());
+        assertEquals(250, raftAlgorithmConfig.getLeaderLeaseClockDriftToleranceInMillis());
         SemaphoreConfig semaphoreConfig1 = cpSubsystemConfig.findSemaphoreConfig("sem1");
         SemaphoreConfig semaphoreConfig2 = cpSubsystemConfig.findSemaphoreConfig("sem2");
         assertNotNull(semaphoreConfig1);
@@ -80,6 +80,14 @@ public abstract class AbstractAggregator<I, E, R> implements Aggregator<I, R> {
         }
     }
 
+    /**
+     * @return the path of the attribute to accumulate or {@code null} if the
+     * values of the entries are accumulated
+     */
+    public String getAttributePath() {
+        return attributePath;
+    }
+
     /**
      * Extract the value of the given attributePath from the given entry.
      */
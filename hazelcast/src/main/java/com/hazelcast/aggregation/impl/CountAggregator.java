@@ -40,6 +40,13 @@ public final class CountAggregator<I> extends AbstractAggregator<I, Object, Long
         count++;
     }
 
+    /**
+     * Accumulates the given number of the values at once.
+     */
+    public void accumulateCount(long count) {
+        this.count += count;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         CountAggregator countAggregator = (CountAggregator) aggregator;
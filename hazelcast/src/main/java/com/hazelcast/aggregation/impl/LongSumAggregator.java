@@ -42,6 +42,13 @@ public final class LongSumAggregator<I> extends AbstractAggregator<I, Number, Lo
         sum += Numbers.asLongExactly(value);
     }
 
+    /**
+     * Accumulates the given sum of the values at once.
+     */
+    public void accumulateSum(long sum) {
+        this.sum += sum;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         LongSumAggregator longSumAggregator = (LongSumAggregator) aggregator;
@@ -40,6 +40,7 @@ import com.hazelcast.internal.eviction.EvictionChecker;
 import com.hazelcast.internal.eviction.EvictionListener;
 import com.hazelcast.internal.eviction.EvictionPolicyEvaluatorProvider;
 import com.hazelcast.internal.eviction.ExpiredKey;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLfuEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
 import com.hazelcast.internal.eviction.impl.strategy.sampling.SamplingEvictionStrategy;
 import com.hazelcast.internal.nearcache.impl.invalidation.InvalidationQueue;
@@ -130,6 +131,10 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
     protected final ClearExpiredRecordsTask clearExpiredRecordsTask;
     protected final SamplingEvictionStrategy<Data, R, CRM> evictionStrategy;
     protected final EvictionPolicyEvaluator<Data, R> evictionPolicyEvaluator;
+    /**
+     * Tracks the access frequencies if the eviction policy is TinyLFU, otherwise {@code null}.
+     */
+    protected final TinyLfuEvictionPolicyComparator tinyLfu;
     protected final Map<CacheEventType, Set<CacheEventData>> batchEvent = new HashMap<CacheEventType, Set<CacheEventData>>();
 
     protected boolean primary;
@@ -195,6 +200,7 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
         this.evictionChecker = createCacheEvictionChecker(evictionConfig.getSize(), evictionConfig.getMaxSizePolicy());
         this.evictionPolicyEvaluator = createEvictionPolicyEvaluator(evictionConfig);
         this.evictionStrategy = createEvictionStrategy(evictionConfig);
+        this.tinyLfu = createTinyLfu(evictionConfig);
         this.objectNamespace = CacheService.getObjectNamespace(cacheNameWithPrefix);
         this.persistWanReplicatedData = canPersistWanReplicatedData(cacheConfig, nodeEngine);
         this.cacheRecordFactory = new CacheRecordFactory(cacheConfig.getInMemoryFormat(), ss);
@@ -341,6 +347,19 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
         }
     }
 
+    private TinyLfuEvictionPolicyComparator createTinyLfu(EvictionConfig evictionConfig) {
+        if (!(evictionPolicyEvaluator.getEvictionPolicyComparator() instanceof TinyLfuEvictionPolicyComparator)) {
+            return null;
+        }
+        TinyLfuEvictionPolicyComparator tinyLfu
+                = (TinyLfuEvictionPolicyComparator) evictionPolicyEvaluator.getEvictionPolicyComparator();
+        if (evictionConfig.getMaxSizePolicy() == MaxSizePolicy.ENTRY_COUNT) {
+            tinyLfu.setMaximumSize(
+                    EntryCountCacheEvictionChecker.calculateMaxPartitionSize(evictionConfig.getSize(), partitionCount));
+        }
+        return tinyLfu;
+    }
+
     protected SamplingEvictionStrategy<Data, R, CRM> createEvictionStrategy(EvictionConfig cacheEvictionConfig) {
         return SamplingEvictionStrategy.INSTANCE;
     }
@@ -588,6 +607,9 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
     }
 
     protected long onRecordAccess(Data key, R record, ExpiryPolicy expiryPolicy, long now) {
+        if (tinyLfu != null) {
+            tinyLfu.recordAccess(key);
+        }
         record.setLastAccessTime(now);
         record.incrementHits();
         return updateAccessDuration(key, record, expiryPolicy, now);
@@ -670,6 +692,10 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
 
     protected R createRecord(Data key, Object value, long expiryTime, long now,
                              boolean disableWriteThrough, int completionId, UUID origin) {
+        if (tinyLfu != null) {
+            tinyLfu.ensureCapacity(records.size() + 1);
+            tinyLfu.recordAccess(key);
+        }
         R record = createRecord(value, now, expiryTime);
         try {
             doPutRecord(key, record, origin, true);
@@ -222,6 +222,7 @@ public abstract class AbstractCacheService implements ICacheService, PreJoinAwar
             cacheEventHandler.shutdown();
             reset(true);
         }
+        eventJournal.shutdown();
     }
 
     @Override
@@ -23,6 +23,7 @@ import com.hazelcast.config.CacheConfig;
 import com.hazelcast.config.EventJournalConfig;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.RingbufferConfig;
+import com.hazelcast.internal.journal.MappedEventJournalStore;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.serialization.Data;
@@ -55,10 +56,12 @@ public class RingbufferCacheEventJournalImpl implements CacheEventJournal {
 
     private final NodeEngineImpl nodeEngine;
     private final ILogger logger;
+    private final MappedEventJournalStore mappedStore;
 
     public RingbufferCacheEventJournalImpl(NodeEngine engine) {
         this.nodeEngine = (NodeEngineImpl) engine;
         this.logger = this.nodeEngine.getLogger(RingbufferCacheEventJournalImpl.class);
+        this.mappedStore = MappedEventJournalStore.create(engine, CacheService.SERVICE_NAME);
     }
 
     @Override
@@ -98,7 +101,8 @@ public class RingbufferCacheEventJournalImpl implements CacheEventJournal {
 
     @Override
     public long oldestSequence(ObjectNamespace namespace, int partitionId) {
-        return getRingbufferOrFail(namespace, partitionId).headSequence();
+        long headSequence = getRingbufferOrFail(namespace, partitionId).headSequence();
+        return mappedStore == null ? headSequence : mappedStore.oldestSequence(namespace, partitionId, headSequence);
     }
 
     @Override
@@ -118,16 +122,30 @@ public class RingbufferCacheEventJournalImpl implements CacheEventJournal {
             return;
         }
         service.destroyContainer(partitionId, namespace);
+        if (mappedStore != null) {
+            mappedStore.destroy(namespace, partitionId);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (mappedStore != null) {
+            mappedStore.shutdown();
+        }
     }
 
     @Override
     public void isAvailableOrNextSequence(ObjectNamespace namespace, int partitionId, long sequence) {
-        getRingbufferOrFail(namespace, partitionId).checkBlockableReadSequence(sequence);
+        RingbufferContainer<InternalEventJournalCacheEvent, Object> ringbuffer = getRingbufferOrFail(namespace, partitionId);
+        if (!isMapped(namespace, partitionId, ringbuffer, sequence)) {
+            ringbuffer.checkBlockableReadSequence(sequence);
+        }
     }
 
     @Override
     public boolean isNextAvailableSequence(ObjectNamespace namespace, int partitionId, long sequence) {
-        return getRingbufferOrFail(namespace, partitionId).shouldWait(sequence);
+        RingbufferContainer<InternalEventJournalCacheEvent, Object> ringbuffer = getRingbufferOrFail(namespace, partitionId);
+        return !isMapped(namespace, partitionId, ringbuffer, sequence) && ringbuffer.shouldWait(sequence);
     }
 
     @Override
@@ -138,12 +156,31 @@ public class RingbufferCacheEventJournalImpl implements CacheEventJournal {
     @Override
     public <T> long readMany(ObjectNamespace namespace, int partitionId, long beginSequence,
                              ReadResultSetImpl<InternalEventJournalCacheEvent, T> resultSet) {
-        return getRingbufferOrFail(namespace, partitionId).readMany(beginSequence, resultSet);
+        RingbufferContainer<InternalEventJournalCacheEvent, Object> ringbuffer = getRingbufferOrFail(namespace, partitionId);
+        long sequence = beginSequence;
+        if (isMapped(namespace, partitionId, ringbuffer, sequence)) {
+            sequence = mappedStore.readMany(namespace, partitionId, sequence, ringbuffer.headSequence(), resultSet);
+            if (resultSet.isMaxSizeReached() || sequence > ringbuffer.tailSequence()) {
+                return sequence;
+            }
+        }
+        return ringbuffer.readMany(sequence, resultSet);
+    }
+
+    /**
+     * @return {@code true} if the sequence was overwritten in the ringbuffer
+     * but is still readable from the memory-mapped journal segments
+     */
+    private boolean isMapped(ObjectNamespace namespace, int partitionId, RingbufferContainer<?, ?> ringbuffer, long sequence) {
+        return mappedStore != null && mappedStore.contains(namespace, partitionId, sequence, ringbuffer.headSequence());
     }
 
     @Override
     public void cleanup(ObjectNamespace namespace, int partitionId) {
         getRingbufferOrFail(namespace, partitionId).cleanup();
+        if (mappedStore != null) {
+            mappedStore.cleanup(namespace, partitionId);
+        }
     }
 
     /**
@@ -214,7 +251,10 @@ public class RingbufferCacheEventJournalImpl implements CacheEventJournal {
         }
         InternalEventJournalCacheEvent event
                 = new InternalEventJournalCacheEvent(toData(key), toData(newValue), toData(oldValue), eventType.getType());
-        eventContainer.add(event);
+        long sequence = eventContainer.add(event);
+        if (mappedStore != null) {
+            mappedStore.append(namespace, partitionId, sequence, event);
+        }
         getOperationParker().unpark(eventContainer);
     }
 
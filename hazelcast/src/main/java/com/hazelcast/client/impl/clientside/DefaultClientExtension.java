@@ -26,6 +26,7 @@ import com.hazelcast.client.impl.proxy.ClientMapProxy;
 import com.hazelcast.client.impl.proxy.NearCachedClientMapProxy;
 import com.hazelcast.client.impl.spi.ClientExecutionService;
 import com.hazelcast.client.impl.spi.ClientProxyFactory;
+import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.config.SSLConfig;
 import com.hazelcast.config.SerializationConfig;
@@ -34,10 +35,12 @@ import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.instance.BuildInfoProvider;
 import com.hazelcast.internal.memory.DefaultMemoryStats;
 import com.hazelcast.internal.memory.MemoryStats;
+import com.hazelcast.internal.memory.impl.UnsafeMemoryManager;
 import com.hazelcast.internal.nearcache.NearCacheManager;
 import com.hazelcast.internal.nearcache.impl.DefaultNearCacheManager;
 import com.hazelcast.internal.networking.ChannelInitializer;
 import com.hazelcast.internal.nio.ClassLoaderUtil;
+import com.hazelcast.internal.nio.compression.CompressionNegotiation;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.internal.serialization.SerializationServiceBuilder;
@@ -51,6 +54,8 @@ import com.hazelcast.partition.strategy.DefaultPartitioningStrategy;
 import com.hazelcast.spi.properties.ClusterProperty;
 import com.hazelcast.spi.properties.HazelcastProperties;
 
+import static com.hazelcast.client.properties.ClientProperty.IO_COMPRESSION_ENABLED;
+import static com.hazelcast.client.properties.ClientProperty.IO_COMPRESSION_THRESHOLD;
 import static com.hazelcast.config.NearCacheConfigAccessor.initDefaultMaxSizeForOnHeapMaps;
 import static com.hazelcast.internal.config.ConfigValidator.checkNearCacheConfig;
 import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
@@ -64,10 +69,17 @@ public class DefaultClientExtension implements ClientExtension {
     protected volatile HazelcastClientInstanceImpl client;
 
     private final MemoryStats memoryStats = new DefaultMemoryStats();
+    private final Object nativeMemoryManagerMutex = new Object();
+
+    private volatile UnsafeMemoryManager nativeMemoryManager;
+    private volatile CompressionNegotiation compressionNegotiation;
 
     @Override
     public void beforeStart(HazelcastClientInstanceImpl client) {
         this.client = client;
+        // shared by the connections to remember the members not supporting the compression
+        this.compressionNegotiation = new CompressionNegotiation(client.getProperties().getBoolean(IO_COMPRESSION_ENABLED),
+                client.getLoggingService().getLogger(ClientPlainChannelInitializer.class));
     }
 
     @Override
@@ -144,7 +156,8 @@ public class DefaultClientExtension implements ClientExtension {
 
         HazelcastProperties properties = client.getProperties();
         boolean directBuffer = properties.getBoolean(SOCKET_CLIENT_BUFFER_DIRECT);
-        return new ClientPlainChannelInitializer(socketOptions, directBuffer);
+        return new ClientPlainChannelInitializer(socketOptions, directBuffer,
+                compressionNegotiation, properties.getInteger(IO_COMPRESSION_THRESHOLD));
     }
 
     @Override
@@ -181,6 +194,29 @@ public class DefaultClientExtension implements ClientExtension {
         ClassLoader classLoader = client.getClientConfig().getClassLoader();
         HazelcastProperties properties = client.getProperties();
 
-        return new DefaultNearCacheManager(ss, es, classLoader, properties);
+        return new DefaultNearCacheManager(ss, es, classLoader, properties, this::getNativeMemoryManager);
+    }
+
+    /**
+     * Returns the memory manager of the {@code NATIVE} in-memory-format Near
+     * Caches, created on the first call.
+     *
+     * @throws IllegalStateException if native memory is not enabled in the client config
+     */
+    protected UnsafeMemoryManager getNativeMemoryManager() {
+        UnsafeMemoryManager memoryManager = nativeMemoryManager;
+        if (memoryManager != null) {
+            return memoryManager;
+        }
+        synchronized (nativeMemoryManagerMutex) {
+            if (nativeMemoryManager == null) {
+                NativeMemoryConfig nativeMemoryConfig = client.getClientConfig().getNativeMemoryConfig();
+                if (!nativeMemoryConfig.isEnabled()) {
+                    throw new IllegalStateException("Native memory must be enabled to use NATIVE in-memory-format");
+                }
+                nativeMemoryManager = new UnsafeMemoryManager(nativeMemoryConfig.getSize().bytes());
+            }
+            return nativeMemoryManager;
+        }
     }
 }
@@ -113,6 +113,10 @@ public class ClientConnection implements Connection {
         return closedTime.get() == 0;
     }
 
+    public Channel getChannel() {
+        return channel;
+    }
+
     @Override
     public long lastReadTimeMillis() {
         return channel.lastReadTimeMillis();
@@ -103,6 +103,8 @@ import static com.hazelcast.client.impl.management.ManagementCenterService.MC_CL
 import static com.hazelcast.client.properties.ClientProperty.IO_BALANCER_INTERVAL_SECONDS;
 import static com.hazelcast.client.properties.ClientProperty.IO_INPUT_THREAD_COUNT;
 import static com.hazelcast.client.properties.ClientProperty.IO_OUTPUT_THREAD_COUNT;
+import static com.hazelcast.client.properties.ClientProperty.IO_WRITE_BATCHING_DELAY_MICROS;
+import static com.hazelcast.client.properties.ClientProperty.IO_WRITE_BATCHING_MAX_SIZE;
 import static com.hazelcast.client.properties.ClientProperty.IO_WRITE_THROUGH_ENABLED;
 import static com.hazelcast.client.properties.ClientProperty.SHUFFLE_MEMBER_LIST;
 import static com.hazelcast.internal.nio.IOUtil.closeResource;
@@ -222,6 +224,10 @@ public class ClientConnectionManagerImpl implements ClientConnectionManager {
             outputThreads = configuredOutputThreads;
         }
 
+        // the requests are batched by the output threads, so the write through is disabled with the batching
+        long writeBatchingDelayNanos = properties.getNanos(IO_WRITE_BATCHING_DELAY_MICROS);
+        boolean writeThroughEnabled = properties.getBoolean(IO_WRITE_THROUGH_ENABLED) && writeBatchingDelayNanos <= 0;
+
         return new NioNetworking(
                 new NioNetworking.Context()
                         .loggingService(client.getLoggingService())
@@ -231,7 +237,9 @@ public class ClientConnectionManagerImpl implements ClientConnectionManager {
                         .inputThreadCount(inputThreads)
                         .outputThreadCount(outputThreads)
                         .balancerIntervalSeconds(properties.getInteger(IO_BALANCER_INTERVAL_SECONDS))
-                        .writeThroughEnabled(properties.getBoolean(IO_WRITE_THROUGH_ENABLED))
+                        .writeThroughEnabled(writeThroughEnabled)
+                        .writeCoalescingWindowNanos(writeBatchingDelayNanos)
+                        .writeCoalescingMaxFrames(properties.getInteger(IO_WRITE_BATCHING_MAX_SIZE))
                         .concurrencyDetection(client.getConcurrencyDetection()));
     }
 
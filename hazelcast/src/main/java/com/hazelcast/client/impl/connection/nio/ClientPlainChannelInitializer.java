@@ -22,6 +22,7 @@ import com.hazelcast.client.impl.protocol.util.ClientMessageDecoder;
 import com.hazelcast.client.impl.protocol.util.ClientMessageEncoder;
 import com.hazelcast.internal.networking.Channel;
 import com.hazelcast.internal.networking.ChannelInitializer;
+import com.hazelcast.internal.nio.compression.CompressionNegotiation;
 
 import java.util.function.Consumer;
 
@@ -41,15 +42,26 @@ import static com.hazelcast.internal.networking.ChannelOption.TCP_NODELAY;
  * case is a real client using client protocol etc.
  *
  * It will automatically send the Client Protocol to the server and configure the
- * correct buffers/handlers.
+ * correct buffers/handlers. When the compression is enabled, the client asks for
+ * it with the protocol bytes and the streams in both directions get compressed if
+ * the member agrees, see {@link CompressionNegotiation}.
  */
 public class ClientPlainChannelInitializer implements ChannelInitializer {
     private final boolean directBuffer;
     private final SocketOptions socketOptions;
+    private final CompressionNegotiation compressionNegotiation;
+    private final int compressionThreshold;
 
     public ClientPlainChannelInitializer(SocketOptions socketOptions, boolean directBuffer) {
+        this(socketOptions, directBuffer, null, 0);
+    }
+
+    public ClientPlainChannelInitializer(SocketOptions socketOptions, boolean directBuffer,
+                                         CompressionNegotiation compressionNegotiation, int compressionThreshold) {
         this.socketOptions = socketOptions;
         this.directBuffer = directBuffer;
+        this.compressionNegotiation = compressionNegotiation;
+        this.compressionThreshold = compressionThreshold;
     }
 
     @Override
@@ -72,11 +84,16 @@ public class ClientPlainChannelInitializer implements ChannelInitializer {
                 connection.handleClientMessage(message);
             }
         }, null);
-        channel.inboundPipeline().addLast(decoder);
-
-        channel.outboundPipeline().addLast(new ClientMessageEncoder());
+        boolean askCompression = compressionNegotiation != null && compressionNegotiation.shouldAsk(channel);
         // before a client sends any data, it first needs to send the protocol.
         // so the protocol encoder is actually the last handler in the outbound pipeline.
-        channel.outboundPipeline().addLast(new ClientProtocolEncoder());
+        ClientProtocolEncoder protocolEncoder = new ClientProtocolEncoder(askCompression, compressionThreshold);
+        if (askCompression) {
+            channel.inboundPipeline().addLast(new ClientProtocolAnswerDecoder(decoder, protocolEncoder));
+        } else {
+            channel.inboundPipeline().addLast(decoder);
+        }
+
+        channel.outboundPipeline().addLast(new ClientMessageEncoder(), protocolEncoder);
     }
 }
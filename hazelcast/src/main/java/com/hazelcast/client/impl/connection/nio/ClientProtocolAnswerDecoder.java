@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl.connection.nio;
+
+import com.hazelcast.internal.networking.HandlerStatus;
+import com.hazelcast.internal.networking.InboundHandler;
+import com.hazelcast.internal.nio.compression.CompressionDecoder;
+import com.hazelcast.internal.nio.compression.CompressionNegotiation;
+
+import java.nio.ByteBuffer;
+
+import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
+import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
+import static com.hazelcast.internal.nio.Protocols.CLIENT_BINARY;
+import static com.hazelcast.internal.nio.Protocols.CLIENT_BINARY_COMPRESSED;
+import static com.hazelcast.internal.nio.Protocols.PROTOCOL_LENGTH;
+import static com.hazelcast.internal.util.StringUtil.bytesToString;
+
+/**
+ * A {@link InboundHandler} that reads the protocol bytes the member answers
+ * the compression request of the client with.
+ *
+ * Once the answer is known, it notifies the {@link ClientProtocolEncoder}
+ * and replaces itself with the next handler, preceded by a {@link
+ * CompressionDecoder} if the member agreed to compress the streams.
+ */
+public class ClientProtocolAnswerDecoder extends InboundHandler<ByteBuffer, Void> {
+
+    private final InboundHandler next;
+    private final ClientProtocolEncoder encoder;
+
+    public ClientProtocolAnswerDecoder(InboundHandler next, ClientProtocolEncoder encoder) {
+        this.next = next;
+        this.encoder = encoder;
+    }
+
+    @Override
+    public void handlerAdded() {
+        initSrcBuffer(PROTOCOL_LENGTH);
+    }
+
+    @Override
+    public HandlerStatus onRead() {
+        src.flip();
+
+        try {
+            if (src.remaining() < PROTOCOL_LENGTH) {
+                // The protocol has not yet been fully received.
+                return CLEAN;
+            }
+
+            byte[] protocolBytes = new byte[PROTOCOL_LENGTH];
+            src.get(protocolBytes);
+            String protocol = bytesToString(protocolBytes);
+            boolean compressed = CLIENT_BINARY_COMPRESSED.equals(protocol);
+            if (!compressed && !CLIENT_BINARY.equals(protocol)) {
+                throw new IllegalStateException("Unsupported protocol exchange detected, expected protocol: CLIENT");
+            }
+
+            CompressionNegotiation.answered(channel);
+            if (compressed) {
+                channel.inboundPipeline().replace(this, new CompressionDecoder(), next);
+            } else {
+                channel.inboundPipeline().replace(this, next);
+            }
+            encoder.signalAnswered(compressed);
+
+            return CLEAN;
+        } finally {
+            compactOrClear(src);
+        }
+    }
+}
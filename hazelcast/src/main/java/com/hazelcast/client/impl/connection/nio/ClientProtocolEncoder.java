@@ -18,12 +18,14 @@ package com.hazelcast.client.impl.connection.nio;
 
 import com.hazelcast.internal.networking.OutboundHandler;
 import com.hazelcast.internal.networking.HandlerStatus;
+import com.hazelcast.internal.nio.compression.CompressionEncoder;
 
 import java.nio.ByteBuffer;
 
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
 import static com.hazelcast.internal.nio.Protocols.CLIENT_BINARY;
+import static com.hazelcast.internal.nio.Protocols.CLIENT_BINARY_COMPRESSED;
 import static com.hazelcast.internal.nio.Protocols.PROTOCOL_LENGTH;
 import static com.hazelcast.internal.util.StringUtil.stringToBytes;
 
@@ -35,21 +37,66 @@ import static com.hazelcast.internal.util.StringUtil.stringToBytes;
  *
  * Even though the ClientProtocolEncoder has a ByteBuffer as src, it will
  * never consume bytes from this source.
+ *
+ * When the client asks for the compression, the encoder holds back the
+ * messages till the member answers with its protocol bytes, then replaces
+ * itself with a {@link CompressionEncoder} if the member agreed.
  */
 public class ClientProtocolEncoder extends OutboundHandler<ByteBuffer, ByteBuffer> {
 
+    private final String protocol;
+    private final int compressionThreshold;
+
+    // written before the answered
+    private boolean compress;
+    private volatile boolean answered;
+
+    public ClientProtocolEncoder() {
+        this(false, 0);
+    }
+
+    /**
+     * @param askCompression       if the client asks the member for the compression
+     * @param compressionThreshold the minimum size of the compressed batches
+     */
+    public ClientProtocolEncoder(boolean askCompression, int compressionThreshold) {
+        this.protocol = askCompression ? CLIENT_BINARY_COMPRESSED : CLIENT_BINARY;
+        this.compressionThreshold = compressionThreshold;
+        this.answered = !askCompression;
+    }
+
     @Override
     public void handlerAdded() {
-        initDstBuffer(PROTOCOL_LENGTH, stringToBytes(CLIENT_BINARY));
+        initDstBuffer(PROTOCOL_LENGTH, stringToBytes(protocol));
+    }
+
+    /**
+     * Signals the encoder that the member answered the compression request.
+     *
+     * @param compressed if the member agreed to compress the streams.
+     */
+    public void signalAnswered(boolean compressed) {
+        compress = compressed;
+        answered = true;
+        channel.outboundPipeline().wakeup();
     }
 
     @Override
     public HandlerStatus onWrite() {
-        if (dst.remaining() == 0) {
-            channel.outboundPipeline().remove(this);
+        if (dst.remaining() != 0) {
+            return DIRTY;
+        }
+
+        if (!answered) {
+            // deal with spurious calls; it isn't known yet if the messages get compressed.
             return CLEAN;
+        }
+
+        if (compress) {
+            channel.outboundPipeline().replace(this, new CompressionEncoder(compressionThreshold));
         } else {
-            return DIRTY;
+            channel.outboundPipeline().remove(this);
         }
+        return CLEAN;
     }
 }
@@ -29,6 +29,8 @@ import static com.hazelcast.client.impl.protocol.ClientMessage.SIZE_OF_FRAME_LEN
 public final class ClientMessageReader {
 
     private static final int INT_MASK = 0xffff;
+    // the content of the frames without content, e.g. the begin, end and null frames
+    private static final byte[] EMPTY_CONTENT = new byte[0];
     private int readOffset = -1;
     private ClientMessage clientMessage;
     private int sumUntrustedMessageLength;
@@ -56,19 +58,22 @@ public final class ClientMessageReader {
         return clientMessage;
     }
 
+    /**
+     * Resets this reader so that it can read the next message. The message
+     * read so far is not affected.
+     */
     public void reset() {
         readOffset = -1;
         clientMessage = null;
+        sumUntrustedMessageLength = 0;
     }
 
     private boolean readFrame(ByteBuffer src, boolean trusted) {
-        // init internal buffer
-        int remaining = src.remaining();
-        if (remaining < SIZE_OF_FRAME_LENGTH_AND_FLAGS) {
-            // we don't have even the frame length and flags ready
-            return false;
-        }
         if (readOffset == -1) {
+            if (src.remaining() < SIZE_OF_FRAME_LENGTH_AND_FLAGS) {
+                // we don't have even the frame length and flags ready
+                return false;
+            }
             int frameLength = Bits.readIntL(src, src.position());
             if (frameLength < SIZE_OF_FRAME_LENGTH_AND_FLAGS) {
                 throw new IllegalArgumentException(format(
@@ -92,7 +97,7 @@ public final class ClientMessageReader {
             src.position(src.position() + Bits.SHORT_SIZE_IN_BYTES);
 
             int size = frameLength - SIZE_OF_FRAME_LENGTH_AND_FLAGS;
-            byte[] bytes = new byte[size];
+            byte[] bytes = size == 0 ? EMPTY_CONTENT : new byte[size];
             ClientMessage.Frame frame = new ClientMessage.Frame(bytes, flags);
             if (clientMessage == null) {
                 clientMessage = ClientMessage.createForDecode(frame);
@@ -49,7 +49,7 @@ public class ClientMessageDecoder extends InboundHandlerWithCounters<ByteBuffer,
 
     private final Connection connection;
     private final Long2ObjectHashMap<ClientMessage> builderBySessionIdMap = new Long2ObjectHashMap<>();
-    private ClientMessageReader activeReader;
+    private final ClientMessageReader activeReader;
 
     private boolean clientIsTrusted;
     private final int maxMessageLength;
@@ -99,13 +99,14 @@ public class ClientMessageDecoder extends InboundHandlerWithCounters<ByteBuffer,
                         builderBySessionIdMap.put(fragmentationId, ClientMessage.createForDecode(startFrame));
                     } else if (ClientMessage.isFlagSet(flags, END_FRAGMENT_FLAG)) {
                         ClientMessage clientMessage = mergeIntoExistingClientMessage(fragmentationId);
+                        builderBySessionIdMap.remove(fragmentationId);
                         handleMessage(clientMessage);
                     } else {
                         mergeIntoExistingClientMessage(fragmentationId);
                     }
                 }
 
-                activeReader = new ClientMessageReader(maxMessageLength);
+                activeReader.reset();
             }
 
             return CLEAN;
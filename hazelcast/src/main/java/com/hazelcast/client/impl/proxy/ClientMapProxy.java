@@ -125,6 +125,7 @@ import com.hazelcast.map.impl.DataAwareEntryEvent;
 import com.hazelcast.map.impl.LazyMapEntry;
 import com.hazelcast.map.impl.ListenerAdapter;
 import com.hazelcast.map.impl.SimpleEntryView;
+import com.hazelcast.map.impl.iterator.MapQueryIterator;
 import com.hazelcast.map.impl.querycache.subscriber.QueryCacheEndToEndProvider;
 import com.hazelcast.map.impl.querycache.subscriber.QueryCacheRequest;
 import com.hazelcast.map.impl.querycache.subscriber.SubscriberContext;
@@ -132,6 +133,7 @@ import com.hazelcast.map.listener.MapListener;
 import com.hazelcast.map.listener.MapPartitionLostListener;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.projection.Projection;
+import com.hazelcast.projection.Projections;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.PartitionPredicate;
 import com.hazelcast.query.Predicate;
@@ -162,6 +164,7 @@ import java.util.function.BiConsumer;
 import static com.hazelcast.internal.util.CollectionUtil.objectToDataCollection;
 import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
 import static com.hazelcast.internal.util.MapUtil.createHashMap;
+import static com.hazelcast.internal.util.Preconditions.checkNoNullInside;
 import static com.hazelcast.internal.util.Preconditions.checkNotInstanceOf;
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
 import static com.hazelcast.internal.util.Preconditions.checkPositive;
@@ -169,6 +172,8 @@ import static com.hazelcast.internal.util.SortingUtil.getSortedQueryResultSet;
 import static com.hazelcast.internal.util.ThreadUtil.getThreadId;
 import static com.hazelcast.internal.util.TimeUtil.timeInMsOrOneIfResultIsZero;
 import static com.hazelcast.internal.util.TimeUtil.timeInMsOrTimeIfNullUnit;
+import static com.hazelcast.map.impl.EntryRemovingProcessor.ENTRY_REMOVING_PROCESSOR;
+import static com.hazelcast.map.impl.EntryRemovingReturningProcessor.ENTRY_REMOVING_RETURNING_PROCESSOR;
 import static com.hazelcast.map.impl.ListenerAdapters.createListenerAdapter;
 import static com.hazelcast.map.impl.MapListenerFlagOperator.setAndGetListenerFlags;
 import static com.hazelcast.map.impl.querycache.subscriber.QueryCacheRequest.newQueryCacheRequest;
@@ -189,6 +194,7 @@ public class ClientMapProxy<K, V> extends ClientProxy
 
     protected static final String NULL_LISTENER_IS_NOT_ALLOWED = "Null listener is not allowed!";
     protected static final String NULL_KEY_IS_NOT_ALLOWED = "Null key is not allowed!";
+    protected static final String NULL_KEYS_ARE_NOT_ALLOWED = "Null keys collection is not allowed!";
     protected static final String NULL_VALUE_IS_NOT_ALLOWED = "Null value is not allowed!";
     protected static final String NULL_PREDICATE_IS_NOT_ALLOWED = "Predicate should not be null!";
     protected static final String NULL_AGGREGATOR_IS_NOT_ALLOWED = "Aggregator should not be null!";
@@ -315,6 +321,24 @@ public class ClientMapProxy<K, V> extends ClientProxy
         removeAllInternal(predicate);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<K, V> removeAllKeys(@Nonnull Set<K> keys) {
+        checkNotNull(keys, NULL_KEYS_ARE_NOT_ALLOWED);
+        checkNoNullInside(keys, NULL_KEY_IS_NOT_ALLOWED);
+
+        return (Map<K, V>) executeOnKeys(keys, ENTRY_REMOVING_RETURNING_PROCESSOR);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void deleteAll(@Nonnull Set<K> keys) {
+        checkNotNull(keys, NULL_KEYS_ARE_NOT_ALLOWED);
+        checkNoNullInside(keys, NULL_KEY_IS_NOT_ALLOWED);
+
+        executeOnKeys(keys, ENTRY_REMOVING_PROCESSOR);
+    }
+
     protected void removeAllInternal(Predicate predicate) {
         ClientMessage request = MapRemoveAllCodec.encodeRequest(name, toData(predicate));
         invokeWithPredicate(request, predicate);
@@ -1813,6 +1837,58 @@ public class ClientMapProxy<K, V> extends ClientProxy
                 predicate, projection);
     }
 
+    /**
+     * Returns an iterator for iterating the result of the projection on all the entries of the map which
+     * satisfy the {@code predicate}.
+     * <p>
+     * Unlike {@link #entrySet(Predicate)} and {@link #project(Projection, Predicate)}, the results are streamed:
+     * the partitions are queried one after another and the results of a partition are fetched in batches, the
+     * next batch is fetched only once the previous one is consumed. Neither the caller nor the members ever
+     * hold more than a single batch of the results, so the iteration is not subject to the query result size
+     * limit and it's suitable for the queries matching large portions of the map.
+     * <p>
+     * You may control the size of the batch by changing the {@code fetchSize} parameter.
+     * A too small {@code fetchSize} can affect performance since more data will have to be sent to and from the partition owner.
+     * A too high {@code fetchSize} means that more data will be sent which can block other operations from being sent,
+     * including internal operations.
+     * Predicates of type {@link PagingPredicate} are not supported.
+     * <p>
+     * <b>NOTE</b>
+     * Iterating the map should be done only when the {@link IMap} is not being
+     * mutated and the cluster is stable (there are no migrations or membership changes).
+     * In other cases, the iterator may not return some entries or may return an entry twice.
+     *
+     * @param fetchSize  the size of the batches which will be sent when iterating the data
+     * @param projection the projection to apply before returning the value. {@code null} value is not allowed
+     * @param predicate  the predicate which the entries must match. {@code null} value is not allowed
+     * @param <R>        the return type
+     * @return the iterator for the projected entries
+     * @throws IllegalArgumentException if the predicate is of type {@link PagingPredicate}
+     */
+    public <R> Iterator<R> iterator(int fetchSize,
+                                    Projection<? super Map.Entry<K, V>, R> projection,
+                                    Predicate<K, V> predicate) {
+        checkNotNull(projection, NULL_PROJECTION_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        checkNotPagingPredicate(predicate, "iterator");
+        return new MapQueryIterator<>(getContext().getPartitionService().getPartitionCount(),
+                partitionId -> new ClientMapQueryPartitionIterator<>(this, getContext(), fetchSize, partitionId,
+                        predicate, projection));
+    }
+
+    /**
+     * Returns an iterator for iterating all the entries of the map which satisfy the {@code predicate}, the
+     * results are streamed in batches of {@code fetchSize}, see {@link #iterator(int, Projection, Predicate)}.
+     *
+     * @param fetchSize the size of the batches which will be sent when iterating the data
+     * @param predicate the predicate which the entries must match. {@code null} value is not allowed
+     * @return the iterator for the matching entries
+     * @throws IllegalArgumentException if the predicate is of type {@link PagingPredicate}
+     */
+    public Iterator<Entry<K, V>> iterator(int fetchSize, Predicate<K, V> predicate) {
+        return iterator(fetchSize, Projections.identity(), predicate);
+    }
+
     @Override
     public InternalCompletableFuture<EventJournalInitialSubscriberState> subscribeToEventJournal(int partitionId) {
         final ClientMessage request = MapEventJournalSubscribeCodec.encodeRequest(name);
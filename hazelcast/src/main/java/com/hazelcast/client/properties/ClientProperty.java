@@ -21,6 +21,7 @@ import com.hazelcast.config.MetricsJmxConfig;
 import com.hazelcast.core.IndeterminateOperationStateException;
 import com.hazelcast.spi.properties.HazelcastProperty;
 
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -159,6 +160,50 @@ public final class ClientProperty {
     public static final HazelcastProperty IO_WRITE_THROUGH_ENABLED
             = new HazelcastProperty("hazelcast.client.io.write.through", true);
 
+    /**
+     * The maximum time in microseconds a request may be delayed to share a
+     * socket write with the requests issued shortly after it to the same
+     * member. Under a high rate of small concurrent requests, such as many
+     * asynchronous gets, this batches the requests into fewer and larger
+     * writes at the cost of the added latency. Setting it disables the
+     * {@link #IO_WRITE_THROUGH_ENABLED write through}, since only the output
+     * threads batch the requests. An output thread doesn't block while a
+     * batch waits; it keeps writing to its other connections. When it has
+     * nothing else to do, it polls its selector without blocking for the
+     * last, partial millisecond of the delay, so the delay is kept to the
+     * microsecond rather than rounded up to a millisecond.
+     *
+     * The default is 0, which disables the batching.
+     */
+    public static final HazelcastProperty IO_WRITE_BATCHING_DELAY_MICROS
+            = new HazelcastProperty("hazelcast.client.io.write.batching.delay.micros", 0, MICROSECONDS);
+
+    /**
+     * The maximum number of requests batched into a single socket write when
+     * the {@link #IO_WRITE_BATCHING_DELAY_MICROS write batching} is enabled.
+     * The batch is written as soon as it is full, without waiting for the
+     * rest of the delay.
+     */
+    public static final HazelcastProperty IO_WRITE_BATCHING_MAX_SIZE
+            = new HazelcastProperty("hazelcast.client.io.write.batching.max.size", 64);
+
+    /**
+     * If the connections of the client should compress the streams in both
+     * directions. The client asks the member for the compression when the
+     * connection is established; the streams get compressed only if the
+     * member enables the {@code hazelcast.socket.compression.enabled}
+     * property as well.
+     */
+    public static final HazelcastProperty IO_COMPRESSION_ENABLED
+            = new HazelcastProperty("hazelcast.client.io.compression.enabled", false);
+
+    /**
+     * The minimum number of bytes a batch of the outbound messages needs to
+     * have to get compressed on a compressed connection.
+     */
+    public static final HazelcastProperty IO_COMPRESSION_THRESHOLD
+            = new HazelcastProperty("hazelcast.client.io.compression.threshold", 1024);
+
     /**
      * Property needed for concurrency detection so that write through and dynamic response handling
      * can be done correctly. This property sets the window the concurrency detection will signalling
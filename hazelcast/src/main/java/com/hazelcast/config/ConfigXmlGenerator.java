@@ -1524,6 +1524,10 @@ public class ConfigXmlGenerator {
                 .node("uncommitted-entry-count-to-reject-new-appends",
                         raftAlgorithmConfig.getUncommittedEntryCountToRejectNewAppends())
                 .node("append-request-backoff-timeout-in-millis", raftAlgorithmConfig.getAppendRequestBackoffTimeoutInMillis())
+                .node("append-request-max-in-flight-count", raftAlgorithmConfig.getAppendRequestMaxInFlightCount())
+                .node("leader-lease-enabled", raftAlgorithmConfig.isLeaderLeaseEnabled())
+                .node("leader-lease-clock-drift-tolerance-in-millis",
+                        raftAlgorithmConfig.getLeaderLeaseClockDriftToleranceInMillis())
                 .close();
 
         gen.open("semaphores");
@@ -35,7 +35,16 @@ public enum EvictionPolicy {
     /**
      * Randomly
      */
-    RANDOM(3);
+    RANDOM(3),
+    /**
+     * Least Frequently Used, with the access frequencies estimated over
+     * a recent window of accesses including the ones to keys which are not
+     * stored (TinyLFU). Where supported, a new key is only added to a full
+     * data structure if it is accessed more frequently than the entry it
+     * would replace, which protects the frequently accessed entries from
+     * being flushed out by scans.
+     */
+    TINY_LFU(4);
 
     private static final EvictionPolicy[] VALUES = values();
 
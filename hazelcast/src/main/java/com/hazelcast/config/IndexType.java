@@ -24,7 +24,16 @@ public enum IndexType {
     SORTED(0),
 
     /** Hash index. Can be used with equality predicates. */
-    HASH(1);
+    HASH(1),
+
+    /**
+     * Bitmap index. Can be used with equality predicates on attributes
+     * having a low number of distinct values. The AND, OR and NOT predicates
+     * over bitmap indexed attributes are evaluated as operations on the
+     * bitmaps before any entry is accessed. Composite and collection
+     * attributes are not supported.
+     */
+    BITMAP(2);
 
     private final int id;
 
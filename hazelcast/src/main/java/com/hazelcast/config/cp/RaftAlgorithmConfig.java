@@ -16,6 +16,7 @@
 
 package com.hazelcast.config.cp;
 
+import static com.hazelcast.internal.util.Preconditions.checkNotNegative;
 import static com.hazelcast.internal.util.Preconditions.checkPositive;
 
 /**
@@ -63,6 +64,17 @@ public class RaftAlgorithmConfig {
      */
     public static final long DEFAULT_APPEND_REQUEST_BACKOFF_TIMEOUT_IN_MILLIS = 100;
 
+    /**
+     * Default maximum number of append requests in flight to a follower.
+     */
+    public static final int DEFAULT_APPEND_REQUEST_MAX_IN_FLIGHT_COUNT = 4;
+
+    /**
+     * Default clock drift tolerance in millis for leader leases.
+     * See {@link #leaderLeaseClockDriftToleranceInMillis}.
+     */
+    public static final long DEFAULT_LEADER_LEASE_CLOCK_DRIFT_TOLERANCE_IN_MILLIS = 500;
+
 
     /**
      * Leader election timeout in milliseconds. If a candidate cannot win
@@ -139,6 +151,36 @@ public class RaftAlgorithmConfig {
      */
     private long appendRequestBackoffTimeoutInMillis = DEFAULT_APPEND_REQUEST_BACKOFF_TIMEOUT_IN_MILLIS;
 
+    /**
+     * Maximum number of append entries requests a Raft leader sends to
+     * a follower without waiting for their responses. Once the leader learns
+     * where its log matches the follower's log, it pipelines new batches of
+     * log entries to the follower instead of waiting for one round trip per
+     * batch. If it is set to 1, the leader sends a new batch only after
+     * the follower acknowledges the previous one.
+     */
+    private int appendRequestMaxInFlightCount = DEFAULT_APPEND_REQUEST_MAX_IN_FLIGHT_COUNT;
+
+    /**
+     * Enables leader leases for linearizable queries. While a Raft leader
+     * holds a lease, i.e., a majority of the group acknowledged one of its
+     * append entries requests within the lease duration, it answers
+     * linearizable queries from its local state without a heartbeat round
+     * with followers. The lease duration is the leader election timeout minus
+     * {@link #leaderLeaseClockDriftToleranceInMillis}. Leases rely on bounded
+     * clock drift between CP members, therefore they are disabled by default.
+     */
+    private boolean leaderLeaseEnabled;
+
+    /**
+     * Duration in milliseconds subtracted from the leader election timeout
+     * to compute the duration of a leader lease. It must cover the maximum
+     * clock rate difference between CP members over a leader election timeout
+     * period. If it is not smaller than the leader election timeout, leases
+     * are never granted.
+     */
+    private long leaderLeaseClockDriftToleranceInMillis = DEFAULT_LEADER_LEASE_CLOCK_DRIFT_TOLERANCE_IN_MILLIS;
+
     public RaftAlgorithmConfig() {
     }
 
@@ -150,6 +192,9 @@ public class RaftAlgorithmConfig {
         this.uncommittedEntryCountToRejectNewAppends = config.uncommittedEntryCountToRejectNewAppends;
         this.maxMissedLeaderHeartbeatCount = config.maxMissedLeaderHeartbeatCount;
         this.appendRequestBackoffTimeoutInMillis = config.appendRequestBackoffTimeoutInMillis;
+        this.appendRequestMaxInFlightCount = config.appendRequestMaxInFlightCount;
+        this.leaderLeaseEnabled = config.leaderLeaseEnabled;
+        this.leaderLeaseClockDriftToleranceInMillis = config.leaderLeaseClockDriftToleranceInMillis;
     }
 
     public long getLeaderElectionTimeoutInMillis() {
@@ -227,6 +272,37 @@ public class RaftAlgorithmConfig {
         return this;
     }
 
+    public int getAppendRequestMaxInFlightCount() {
+        return appendRequestMaxInFlightCount;
+    }
+
+    public RaftAlgorithmConfig setAppendRequestMaxInFlightCount(int appendRequestMaxInFlightCount) {
+        checkPositive(appendRequestMaxInFlightCount, "append request max in-flight count: " + appendRequestMaxInFlightCount
+                + " must be positive!");
+        this.appendRequestMaxInFlightCount = appendRequestMaxInFlightCount;
+        return this;
+    }
+
+    public boolean isLeaderLeaseEnabled() {
+        return leaderLeaseEnabled;
+    }
+
+    public RaftAlgorithmConfig setLeaderLeaseEnabled(boolean leaderLeaseEnabled) {
+        this.leaderLeaseEnabled = leaderLeaseEnabled;
+        return this;
+    }
+
+    public long getLeaderLeaseClockDriftToleranceInMillis() {
+        return leaderLeaseClockDriftToleranceInMillis;
+    }
+
+    public RaftAlgorithmConfig setLeaderLeaseClockDriftToleranceInMillis(long leaderLeaseClockDriftToleranceInMillis) {
+        checkNotNegative(leaderLeaseClockDriftToleranceInMillis, "leader lease clock drift tolerance in millis: "
+                + leaderLeaseClockDriftToleranceInMillis + " cannot be negative!");
+        this.leaderLeaseClockDriftToleranceInMillis = leaderLeaseClockDriftToleranceInMillis;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "RaftAlgorithmConfig{" + "leaderElectionTimeoutInMillis=" + leaderElectionTimeoutInMillis
@@ -234,6 +310,9 @@ public class RaftAlgorithmConfig {
                 + maxMissedLeaderHeartbeatCount + ", appendRequestMaxEntryCount=" + appendRequestMaxEntryCount
                 + ", commitIndexAdvanceCountToSnapshot=" + commitIndexAdvanceCountToSnapshot
                 + ", uncommittedEntryCountToRejectNewAppends=" + uncommittedEntryCountToRejectNewAppends
-                + ", appendRequestBackoffTimeoutInMillis=" + appendRequestBackoffTimeoutInMillis + '}';
+                + ", appendRequestBackoffTimeoutInMillis=" + appendRequestBackoffTimeoutInMillis
+                + ", appendRequestMaxInFlightCount=" + appendRequestMaxInFlightCount
+                + ", leaderLeaseEnabled=" + leaderLeaseEnabled
+                + ", leaderLeaseClockDriftToleranceInMillis=" + leaderLeaseClockDriftToleranceInMillis + '}';
     }
 }
@@ -85,6 +85,7 @@ final class NodeEngineRaftIntegration implements RaftIntegration {
     private final Address localAddress;
     private final OperationServiceImpl operationService;
     private final RaftInvocationManager invocationManager;
+    private final RaftTransport transport;
     private final TaskScheduler taskScheduler;
     private final int partitionId;
     private final int threadId;
@@ -96,7 +97,9 @@ final class NodeEngineRaftIntegration implements RaftIntegration {
         this.localCPMember = localCPMember;
         this.localAddress = nodeEngine.getThisAddress();
         this.operationService = nodeEngine.getOperationService();
-        this.invocationManager = ((RaftService) nodeEngine.getService(RaftService.SERVICE_NAME)).getInvocationManager();
+        RaftService raftService = nodeEngine.getService(RaftService.SERVICE_NAME);
+        this.invocationManager = raftService.getInvocationManager();
+        this.transport = raftService.getTransport();
         this.partitionId = partitionId;
         OperationExecutorImpl operationExecutor = (OperationExecutorImpl) operationService.getOperationExecutor();
         this.threadId = operationExecutor.toPartitionThreadIndex(partitionId);
@@ -190,6 +193,11 @@ final class NodeEngineRaftIntegration implements RaftIntegration {
         return send(new AppendRequestOp(groupId, request), target);
     }
 
+    @Override
+    public boolean sendHeartbeat(AppendRequest request, RaftEndpoint target) {
+        return send(new AppendRequestOp(groupId, request), target, true);
+    }
+
     @Override
     public boolean send(AppendSuccessResponse response, RaftEndpoint target) {
         return send(new AppendSuccessResponseOp(groupId, response), target);
@@ -252,6 +260,10 @@ final class NodeEngineRaftIntegration implements RaftIntegration {
     }
 
     private boolean send(AsyncRaftOp operation, RaftEndpoint target) {
+        return send(operation, target, false);
+    }
+
+    private boolean send(AsyncRaftOp operation, RaftEndpoint target, boolean heartbeat) {
         CPMember targetMember = getCPMember(target);
         if (targetMember == null || localAddress.equals(targetMember.getAddress())) {
             if (localCPMember.getUuid().equals(target.getUuid())) {
@@ -263,7 +275,8 @@ final class NodeEngineRaftIntegration implements RaftIntegration {
         }
 
         operation.setTargetEndpoint(target).setPartitionId(partitionId);
-        return operationService.send(operation, targetMember.getAddress());
+        Address address = targetMember.getAddress();
+        return heartbeat ? transport.sendHeartbeat(operation, address) : transport.send(operation, address);
     }
 
     @Override
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal;
+
+import com.hazelcast.cp.internal.raft.impl.state.FollowerState;
+import com.hazelcast.internal.metrics.Probe;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import static com.hazelcast.internal.metrics.ProbeUnit.MS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Container object for the replication metrics of a single follower,
+ * published by the leader RaftNode.
+ */
+@SuppressWarnings("checkstyle:visibilitymodifier")
+@SuppressFBWarnings("URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD")
+public class RaftFollowerMetrics {
+
+    @Probe
+    public volatile long matchIndex;
+
+    @Probe
+    public volatile long nextIndex;
+
+    @Probe
+    public volatile long inFlightAppendRequests;
+
+    @Probe
+    public volatile long inFlightEntries;
+
+    @Probe
+    public volatile long ackedAppendRequests;
+
+    @Probe(unit = MS)
+    public volatile long totalAppendLatency;
+
+    @Probe(unit = MS)
+    public volatile long maxAppendLatency;
+
+    void update(FollowerState followerState) {
+        this.matchIndex = followerState.matchIndex();
+        this.nextIndex = followerState.nextIndex();
+        this.inFlightAppendRequests = followerState.inFlightAppendRequestCount();
+        this.inFlightEntries = followerState.inFlightEntryCount();
+        this.ackedAppendRequests = followerState.ackedAppendRequestCount();
+        this.totalAppendLatency = NANOSECONDS.toMillis(followerState.totalAppendLatencyNanos());
+        this.maxAppendLatency = NANOSECONDS.toMillis(followerState.getAndResetMaxAppendLatencyNanos());
+    }
+}
@@ -19,6 +19,7 @@ package com.hazelcast.cp.internal;
 import com.hazelcast.core.HazelcastException;
 import com.hazelcast.cp.CPGroupId;
 import com.hazelcast.cp.CPMember;
+import com.hazelcast.cp.exception.CPSubsystemException;
 import com.hazelcast.cp.internal.exception.CannotCreateRaftGroupException;
 import com.hazelcast.cp.internal.operation.ChangeRaftGroupMembershipOp;
 import com.hazelcast.cp.internal.operation.DefaultRaftReplicateOp;
@@ -50,9 +51,12 @@ import com.hazelcast.spi.properties.ClusterProperty;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 import static com.hazelcast.cp.internal.RaftService.CP_SUBSYSTEM_EXECUTOR;
+import static com.hazelcast.cp.internal.raft.QueryPolicy.ANY_READ_INDEX;
 import static com.hazelcast.cp.internal.raft.QueryPolicy.LINEARIZABLE;
+import static com.hazelcast.internal.util.InvocationUtil.CALLER_RUNS_EXECUTOR;
 import static java.util.Collections.shuffle;
 
 /**
@@ -209,6 +213,10 @@ public class RaftInvocationManager {
 
     public <T> InternalCompletableFuture<T> query(CPGroupId groupId, RaftOp raftOp, QueryPolicy queryPolicy) {
         if (cpSubsystemEnabled) {
+            if (queryPolicy == ANY_READ_INDEX && raftService.getRaftNode(groupId) != null) {
+                return queryLocallyOrOnLeader(groupId, raftOp);
+            }
+
             RaftQueryOp operation = new RaftQueryOp(groupId, raftOp, queryPolicy);
             Invocation invocation = new RaftInvocation(operationService.getInvocationContext(), raftInvocationContext,
                     groupId, operation, invocationMaxRetryCount, invocationRetryPauseMillis, operationCallTimeout);
@@ -217,6 +225,40 @@ public class RaftInvocationManager {
         return invokeOnPartition(new UnsafeRaftQueryOp(groupId, raftOp));
     }
 
+    /**
+     * Runs the query on the local Raft node of the group, so that queries
+     * are spread over the members of the group. If the local Raft node cannot
+     * run the query, e.g., it does not know the leader, the query is sent
+     * to the leader.
+     */
+    private <T> InternalCompletableFuture<T> queryLocallyOrOnLeader(CPGroupId groupId, RaftOp raftOp) {
+        InternalCompletableFuture<T> resultFuture = new InternalCompletableFuture<>();
+        InternalCompletableFuture<T> localFuture = queryLocally(groupId, raftOp, ANY_READ_INDEX);
+        localFuture.whenCompleteAsync((response, t) -> {
+            Throwable cause = t instanceof CompletionException ? t.getCause() : t;
+            if (!(cause instanceof CPSubsystemException)) {
+                complete(resultFuture, response, cause);
+                return;
+            }
+
+            RaftQueryOp operation = new RaftQueryOp(groupId, raftOp, ANY_READ_INDEX);
+            Invocation invocation = new RaftInvocation(operationService.getInvocationContext(), raftInvocationContext,
+                    groupId, operation, invocationMaxRetryCount, invocationRetryPauseMillis, operationCallTimeout);
+            InternalCompletableFuture<T> leaderFuture = invocation.invoke();
+            leaderFuture.whenCompleteAsync((r, t2) -> complete(resultFuture, r, t2), CALLER_RUNS_EXECUTOR);
+        }, CALLER_RUNS_EXECUTOR);
+
+        return resultFuture;
+    }
+
+    private static <T> void complete(InternalCompletableFuture<T> future, T response, Throwable t) {
+        if (t == null) {
+            future.complete(response);
+        } else {
+            future.completeExceptionally(t);
+        }
+    }
+
     public <T> InternalCompletableFuture<T> queryLocally(CPGroupId groupId, RaftOp raftOp, QueryPolicy queryPolicy) {
         Operation operation;
         if (cpSubsystemEnabled) {
@@ -16,9 +16,18 @@
 
 package com.hazelcast.cp.internal;
 
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.state.FollowerState;
+import com.hazelcast.cp.internal.raft.impl.state.LeaderState;
 import com.hazelcast.internal.metrics.Probe;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Container object for single RaftNode metrics.
  */
@@ -47,6 +56,8 @@ public class RaftNodeMetrics {
     @Probe
     public volatile long availableLogCapacity;
 
+    final ConcurrentMap<UUID, RaftFollowerMetrics> followers = new ConcurrentHashMap<>();
+
     void update(int term, long commitIndex, long lastApplied, long lastLogTerm, long snapshotIndex,
             long lastLogIndex, long availableLogCapacity) {
         this.term = term;
@@ -57,4 +68,21 @@ public class RaftNodeMetrics {
         this.lastLogIndex = lastLogIndex;
         this.availableLogCapacity = availableLogCapacity;
     }
+
+    /**
+     * Updates the metrics of the followers if the RaftNode is the leader,
+     * clears them otherwise.
+     */
+    void updateFollowers(LeaderState leaderState) {
+        if (leaderState == null) {
+            followers.clear();
+            return;
+        }
+
+        Map<RaftEndpoint, FollowerState> followerStates = leaderState.getFollowerStates();
+        followers.keySet().removeIf(uuid -> followerStates.keySet().stream().noneMatch(e -> e.getUuid().equals(uuid)));
+        for (Entry<RaftEndpoint, FollowerState> entry : followerStates.entrySet()) {
+            followers.computeIfAbsent(entry.getKey().getUuid(), uuid -> new RaftFollowerMetrics()).update(entry.getValue());
+        }
+    }
 }
@@ -159,6 +159,7 @@ public class RaftService implements ManagedService, SnapshotAwareService<Metadat
     private final Set<CPGroupId> terminatedRaftNodeGroupIds = newSetFromMap(new ConcurrentHashMap<>());
     private final CPSubsystemConfig config;
     private final RaftInvocationManager invocationManager;
+    private final RaftTransport transport;
     private final MetadataRaftGroupManager metadataGroupManager;
     @Probe
     private final ConcurrentMap<CPMemberInfo, Long> missingMembers = new ConcurrentHashMap<>();
@@ -174,6 +175,7 @@ public class RaftService implements ManagedService, SnapshotAwareService<Metadat
         checkCPSubsystemConfig(config);
         this.cpSubsystemEnabled = config.getCPMemberCount() > 0;
         this.invocationManager = new RaftInvocationManager(nodeEngine, this);
+        this.transport = new RaftTransport(nodeEngine.getOperationService(), nodeEngine.getProperties());
         this.metadataGroupManager = new MetadataRaftGroupManager(this.nodeEngine, this, config);
 
         if (cpSubsystemEnabled) {
@@ -188,6 +190,7 @@ public class RaftService implements ManagedService, SnapshotAwareService<Metadat
         MetricsRegistry metricsRegistry = this.nodeEngine.getMetricsRegistry();
         metricsRegistry.registerStaticMetrics(this, "raft");
         metricsRegistry.registerStaticMetrics(metadataGroupManager, "raft.metadata");
+        metricsRegistry.registerStaticMetrics(transport, "raft.transport");
         metricsRegistry.registerDynamicMetricsProvider(this);
         this.metricsPeriod = nodeEngine.getProperties().getInteger(MetricsPlugin.PERIOD_SECONDS);
     }
@@ -204,6 +207,11 @@ public class RaftService implements ManagedService, SnapshotAwareService<Metadat
                     REMOVE_MISSING_MEMBER_TASK_PERIOD_SECONDS, REMOVE_MISSING_MEMBER_TASK_PERIOD_SECONDS, SECONDS);
         }
 
+        if (transport.isBatchingEnabled()) {
+            long tickMillis = transport.getTickMillis();
+            nodeEngine.getExecutionService().scheduleWithRepetition(transport::flush, tickMillis, tickMillis, MILLISECONDS);
+        }
+
         MetricsRegistry metricsRegistry = this.nodeEngine.getMetricsRegistry();
         metricsRegistry.scheduleAtFixedRate(new PublishNodeMetricsTask(), metricsPeriod, SECONDS, ProbeLevel.INFO);
     }
@@ -558,6 +566,7 @@ public class RaftService implements ManagedService, SnapshotAwareService<Metadat
 
     @Override
     public void memberRemoved(MembershipServiceEvent event) {
+        transport.onMemberRemoved(event.getMember().getAddress());
         updateMissingMembers();
     }
 
@@ -601,6 +610,10 @@ public class RaftService implements ManagedService, SnapshotAwareService<Metadat
         return invocationManager;
     }
 
+    RaftTransport getTransport() {
+        return transport;
+    }
+
     public void handlePreVoteRequest(CPGroupId groupId, PreVoteRequest request, RaftEndpoint target) {
         RaftNode node = getOrInitRaftNodeIfTargetLocalCPMember(groupId, request, target);
         if (node != null) {
@@ -817,6 +830,16 @@ public class RaftService implements ManagedService, SnapshotAwareService<Metadat
                     .withDiscriminator("groupId", String.valueOf(groupId.getId()))
                     .withTag("name", groupId.getName());
             context.collect(groupDescriptor, entry.getValue());
+
+            for (Entry<UUID, RaftFollowerMetrics> followerEntry : entry.getValue().followers.entrySet()) {
+                MetricDescriptor followerDescriptor = descriptor
+                        .copy()
+                        .withPrefix("raft.group.follower")
+                        .withDiscriminator("groupId", String.valueOf(groupId.getId()))
+                        .withTag("name", groupId.getName())
+                        .withTag("follower", followerEntry.getKey().toString());
+                context.collect(followerDescriptor, followerEntry.getValue());
+            }
         }
     }
 
@@ -1429,6 +1452,7 @@ public class RaftService implements ManagedService, SnapshotAwareService<Metadat
                     metrics.update(state.term(), state.commitIndex(), state.lastApplied(),
                             log.lastLogOrSnapshotTerm(), log.snapshotIndex(),
                             log.lastLogOrSnapshotIndex(), log.availableCapacity());
+                    metrics.updateFollowers(state.leaderState());
                 });
             }
         }
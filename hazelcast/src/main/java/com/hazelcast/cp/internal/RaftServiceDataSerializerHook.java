@@ -34,6 +34,7 @@ import com.hazelcast.cp.internal.operation.integration.AppendSuccessResponseOp;
 import com.hazelcast.cp.internal.operation.integration.InstallSnapshotOp;
 import com.hazelcast.cp.internal.operation.integration.PreVoteRequestOp;
 import com.hazelcast.cp.internal.operation.integration.PreVoteResponseOp;
+import com.hazelcast.cp.internal.operation.integration.RaftMessageBatchOp;
 import com.hazelcast.cp.internal.operation.integration.TriggerLeaderElectionOp;
 import com.hazelcast.cp.internal.operation.integration.VoteRequestOp;
 import com.hazelcast.cp.internal.operation.integration.VoteResponseOp;
@@ -124,6 +125,7 @@ public final class RaftServiceDataSerializerHook implements DataSerializerHook {
     public static final int TRIGGER_LEADER_ELECTION_OP = 50;
     public static final int UNSAFE_MODE_PARTITION_STATE = 51;
     public static final int UNSAFE_STATE_REPLICATE_OP = 52;
+    public static final int RAFT_MESSAGE_BATCH_OP = 53;
 
     @Override
     public int getFactoryId() {
@@ -238,6 +240,8 @@ public final class RaftServiceDataSerializerHook implements DataSerializerHook {
                     return new UnsafeModePartitionState();
                 case UNSAFE_STATE_REPLICATE_OP:
                     return new UnsafeStateReplicationOp();
+                case RAFT_MESSAGE_BATCH_OP:
+                    return new RaftMessageBatchOp();
                 default:
                     throw new IllegalArgumentException("Undefined type: " + typeId);
             }
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.cp.CPGroupId;
+import com.hazelcast.cp.internal.operation.integration.AppendRequestOp;
+import com.hazelcast.cp.internal.operation.integration.AsyncRaftOp;
+import com.hazelcast.cp.internal.operation.integration.RaftMessageBatchOp;
+import com.hazelcast.cp.internal.raft.impl.dto.AppendRequest;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+import com.hazelcast.spi.impl.operationservice.OperationService;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.spi.properties.HazelcastProperty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Member-level transport of the Raft RPCs sent by the Raft nodes running
+ * on this member. Raft RPCs of all Raft groups destined for the same CP
+ * member are put into a single outbound queue and the queue is drained
+ * into a single {@link RaftMessageBatchOp} packet.
+ * <p>
+ * Heartbeats, i.e., empty append requests sent only to maintain
+ * the leadership, are not sent right away. They wait in the outbound queue
+ * until the next tick or until another Raft RPC is sent to the same member,
+ * whichever comes first. Only the latest heartbeat of a Raft group is kept,
+ * and it is dropped if the same batch already contains an append request
+ * of its Raft group with at least the same term, commit index and query
+ * round. All other Raft RPCs are sent without
+ * waiting for the tick. Raft RPCs enqueued while a queue is being drained
+ * by another thread go out together in the next batch.
+ */
+final class RaftTransport {
+
+    /**
+     * !!! ONLY FOR INTERNAL USAGE AND TESTING !!!
+     * Enables / disables batching Raft RPCs of multiple Raft groups
+     * destined for the same CP member.
+     */
+    public static final HazelcastProperty RAFT_MESSAGE_BATCHING_ENABLED
+            = new HazelcastProperty("raft.message.batching.enabled", true);
+
+    /**
+     * !!! ONLY FOR INTERNAL USAGE AND TESTING !!!
+     * Period of the task that sends the heartbeats waiting in the outbound
+     * queues of the CP members.
+     */
+    public static final HazelcastProperty RAFT_MESSAGE_BATCHING_TICK_MILLIS
+            = new HazelcastProperty("raft.message.batching.tick.millis", 10, MILLISECONDS);
+
+    private final OperationService operationService;
+    private final boolean batchingEnabled;
+    private final long tickMillis;
+    private final ConcurrentMap<Address, OutboundQueue> queues = new ConcurrentHashMap<>();
+
+    @Probe
+    private final MwCounter sentPacketCount = newMwCounter();
+    @Probe
+    private final MwCounter sentBatchCount = newMwCounter();
+    @Probe
+    private final MwCounter sentMessageCount = newMwCounter();
+    @Probe
+    private final MwCounter suppressedHeartbeatCount = newMwCounter();
+
+    RaftTransport(OperationService operationService, HazelcastProperties properties) {
+        this.operationService = operationService;
+        this.batchingEnabled = properties.getBoolean(RAFT_MESSAGE_BATCHING_ENABLED);
+        this.tickMillis = properties.getMillis(RAFT_MESSAGE_BATCHING_TICK_MILLIS);
+    }
+
+    boolean isBatchingEnabled() {
+        return batchingEnabled;
+    }
+
+    long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Sends the given Raft RPC to the target member along with the other
+     * Raft RPCs waiting in the outbound queue of the target.
+     */
+    boolean send(AsyncRaftOp operation, Address target) {
+        if (!batchingEnabled) {
+            sentPacketCount.inc();
+            sentMessageCount.inc();
+            return operationService.send(operation, target);
+        }
+
+        OutboundQueue queue = getOrCreateQueue(target);
+        queue.messages.offer(operation);
+        flush(queue);
+        return true;
+    }
+
+    /**
+     * Puts the given heartbeat of a Raft group into the outbound queue
+     * of the target member. It replaces the previous heartbeat of the same
+     * Raft group that is not sent yet.
+     */
+    boolean sendHeartbeat(AsyncRaftOp operation, Address target) {
+        if (!batchingEnabled) {
+            return send(operation, target);
+        }
+
+        OutboundQueue queue = getOrCreateQueue(target);
+        if (queue.heartbeats.put(operation.getGroupId(), operation) != null) {
+            suppressedHeartbeatCount.inc();
+        }
+
+        return true;
+    }
+
+    /**
+     * Sends the Raft RPCs waiting in all outbound queues.
+     * Called periodically with the {@link #RAFT_MESSAGE_BATCHING_TICK_MILLIS}
+     * period.
+     */
+    void flush() {
+        for (OutboundQueue queue : queues.values()) {
+            flush(queue);
+        }
+    }
+
+    void onMemberRemoved(Address address) {
+        queues.remove(address);
+    }
+
+    private OutboundQueue getOrCreateQueue(Address target) {
+        OutboundQueue queue = queues.get(target);
+        if (queue == null) {
+            OutboundQueue newQueue = new OutboundQueue(target);
+            queue = queues.putIfAbsent(target, newQueue);
+            if (queue == null) {
+                queue = newQueue;
+            }
+        }
+
+        return queue;
+    }
+
+    private void flush(OutboundQueue queue) {
+        // a Raft RPC enqueued right before the flushing thread releases
+        // the queue is sent by the same thread in the next round
+        while (queue.hasPending() && queue.flushing.compareAndSet(false, true)) {
+            try {
+                sendPending(queue);
+            } finally {
+                queue.flushing.set(false);
+            }
+        }
+    }
+
+    private void sendPending(OutboundQueue queue) {
+        List<AsyncRaftOp> batch = new ArrayList<>();
+        Map<CPGroupId, AppendRequest> appendRequests = new HashMap<>();
+        AsyncRaftOp operation;
+        while ((operation = queue.messages.poll()) != null) {
+            batch.add(operation);
+            if (operation instanceof AppendRequestOp) {
+                appendRequests.put(operation.getGroupId(), ((AppendRequestOp) operation).getAppendRequest());
+            }
+        }
+
+        for (CPGroupId groupId : queue.heartbeats.keySet()) {
+            AsyncRaftOp heartbeat = queue.heartbeats.remove(groupId);
+            if (heartbeat == null) {
+                continue;
+            }
+
+            AppendRequest appendRequest = appendRequests.get(groupId);
+            if (appendRequest != null && covers(appendRequest, ((AppendRequestOp) heartbeat).getAppendRequest())) {
+                // the follower learns the leader's liveness from the append request
+                suppressedHeartbeatCount.inc();
+            } else {
+                batch.add(heartbeat);
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        sentPacketCount.inc();
+        sentMessageCount.inc(batch.size());
+        if (batch.size() == 1) {
+            operationService.send(batch.get(0), queue.target);
+        } else {
+            sentBatchCount.inc();
+            operationService.send(new RaftMessageBatchOp(batch), queue.target);
+        }
+    }
+
+    /**
+     * Returns true if the append request carries everything the heartbeat
+     * tells the follower: the heartbeat can be created after the append
+     * request with a higher term, commit index or query round.
+     */
+    private static boolean covers(AppendRequest appendRequest, AppendRequest heartbeat) {
+        return appendRequest.term() >= heartbeat.term()
+                && appendRequest.leaderCommitIndex() >= heartbeat.leaderCommitIndex()
+                && appendRequest.queryRound() >= heartbeat.queryRound();
+    }
+
+    long sentPacketCount() {
+        return sentPacketCount.get();
+    }
+
+    long sentBatchCount() {
+        return sentBatchCount.get();
+    }
+
+    long sentMessageCount() {
+        return sentMessageCount.get();
+    }
+
+    long suppressedHeartbeatCount() {
+        return suppressedHeartbeatCount.get();
+    }
+
+    private static final class OutboundQueue {
+        final Address target;
+        final Queue<AsyncRaftOp> messages = new ConcurrentLinkedQueue<>();
+        final ConcurrentMap<CPGroupId, AsyncRaftOp> heartbeats = new ConcurrentHashMap<>();
+        final AtomicBoolean flushing = new AtomicBoolean();
+
+        OutboundQueue(Address target) {
+            this.target = target;
+        }
+
+        boolean hasPending() {
+            return !messages.isEmpty() || !heartbeats.isEmpty();
+        }
+    }
+}
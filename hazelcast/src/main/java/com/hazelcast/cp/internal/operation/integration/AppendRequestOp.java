@@ -40,6 +40,10 @@ public class AppendRequestOp extends AsyncRaftOp {
         this.appendRequest = appendRequest;
     }
 
+    public AppendRequest getAppendRequest() {
+        return appendRequest;
+    }
+
     @Override
     public void run() {
         RaftService service = getService();
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.operation.integration;
+
+import com.hazelcast.cp.internal.RaftService;
+import com.hazelcast.cp.internal.RaftServiceDataSerializerHook;
+import com.hazelcast.cp.internal.RaftSystemOperation;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.impl.operationservice.OperationService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.spi.impl.operationservice.OperationAccessor.setCallerAddress;
+import static com.hazelcast.spi.impl.operationservice.OperationAccessor.setConnection;
+
+/**
+ * Carries Raft RPCs of multiple Raft groups from a CP member to another
+ * CP member in a single packet. It runs on a generic operation thread and
+ * hands over each carried {@link AsyncRaftOp} to the partition thread of
+ * its Raft group, as if it had been sent individually.
+ */
+public class RaftMessageBatchOp extends Operation implements IdentifiedDataSerializable, RaftSystemOperation {
+
+    private List<AsyncRaftOp> operations;
+
+    public RaftMessageBatchOp() {
+    }
+
+    public RaftMessageBatchOp(List<AsyncRaftOp> operations) {
+        this.operations = operations;
+    }
+
+    @Override
+    public void run() {
+        NodeEngine nodeEngine = getNodeEngine();
+        OperationService operationService = nodeEngine.getOperationService();
+        for (AsyncRaftOp operation : operations) {
+            operation.setNodeEngine(nodeEngine);
+            setCallerAddress(operation, getCallerAddress());
+            setConnection(operation, getConnection());
+            operation.setCallerUuid(getCallerUuid());
+            operationService.execute(operation);
+        }
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    @Override
+    public Object getResponse() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getServiceName() {
+        return RaftService.SERVICE_NAME;
+    }
+
+    @Override
+    public boolean validatesTarget() {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeInt(operations.size());
+        for (AsyncRaftOp operation : operations) {
+            out.writeObject(operation);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        int count = in.readInt();
+        operations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AsyncRaftOp operation = in.readObject();
+            operations.add(operation);
+        }
+    }
+
+    @Override
+    public int getFactoryId() {
+        return RaftServiceDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return RaftServiceDataSerializerHook.RAFT_MESSAGE_BATCH_OP;
+    }
+
+    @Override
+    protected void toString(StringBuilder sb) {
+        super.toString(sb);
+        sb.append(", operationCount=").append(operations.size());
+    }
+}
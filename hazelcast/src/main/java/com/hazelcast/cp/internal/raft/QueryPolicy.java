@@ -44,11 +44,32 @@ public enum QueryPolicy {
      */
     ANY_LOCAL,
 
+    /**
+     * Query committed Raft state on any Raft group member, after the member
+     * applies the commit index that the leader reported in its latest
+     * append request, i.e., the read index.
+     * <p>
+     * Unlike {@link #ANY_LOCAL}, a member rejects the query if it does not
+     * know a leader or has not heard from its leader within the leader
+     * heartbeat timeout, and reads reflect all writes committed before the
+     * leader's latest append request. A query can still miss writes
+     * committed after that append request, therefore this policy is
+     * suitable for reads that tolerate bounded staleness. The leader runs
+     * such queries as in {@link #LEADER_LOCAL}.
+     */
+    ANY_READ_INDEX,
+
     /**
      * Query Raft state in a linearizable manner, either by appending
      * a log entry to Raft log or using the algorithm defined in
      * <i>6.4 Processing read-only queries more efficiently</i>
      * section of Raft dissertation.
+     * <p>
+     * If leader leases are enabled, the leader runs the query locally while
+     * a majority of the group acknowledged one of its append requests
+     * within the lease duration.
+     *
+     * @see com.hazelcast.config.cp.RaftAlgorithmConfig#isLeaderLeaseEnabled()
      */
     LINEARIZABLE
 }
@@ -109,6 +109,19 @@ public interface RaftIntegration {
      */
     boolean send(AppendRequest request, RaftEndpoint target);
 
+    /**
+     * Sends the given {@link AppendRequest} DTO, which is an empty append
+     * request sent only to maintain the leadership, to target endpoint
+     * to be handled via {@link RaftNode#handleAppendRequest(AppendRequest)}.
+     * Sending of the heartbeat can be delayed to coalesce it with other
+     * Raft RPCs sent to the same target, and it can be dropped if another
+     * append request of the same Raft group is sent to the target meanwhile.
+     *
+     * @return true if request is sent or scheduled to be sent to target,
+     *         false otherwise
+     */
+    boolean sendHeartbeat(AppendRequest request, RaftEndpoint target);
+
     /**
      * Sends the given {@link AppendSuccessResponse} DTO to target endpoint
      * to be handled via {@link RaftNode#handleAppendResponse(AppendSuccessResponse)}.
@@ -20,6 +20,7 @@ import com.hazelcast.config.cp.RaftAlgorithmConfig;
 import com.hazelcast.cp.CPGroupId;
 import com.hazelcast.cp.CPMember;
 import com.hazelcast.cp.exception.LeaderDemotedException;
+import com.hazelcast.cp.exception.NotLeaderException;
 import com.hazelcast.cp.exception.StaleAppendRequestException;
 import com.hazelcast.cp.internal.raft.MembershipChangeMode;
 import com.hazelcast.cp.internal.raft.QueryPolicy;
@@ -55,6 +56,7 @@ import com.hazelcast.cp.internal.raft.impl.state.LeaderState;
 import com.hazelcast.cp.internal.raft.impl.state.QueryState;
 import com.hazelcast.cp.internal.raft.impl.state.RaftGroupMembers;
 import com.hazelcast.cp.internal.raft.impl.state.RaftState;
+import com.hazelcast.cp.internal.raft.impl.state.ReadIndexState;
 import com.hazelcast.cp.internal.raft.impl.task.InitLeadershipTransferTask;
 import com.hazelcast.cp.internal.raft.impl.task.MembershipChangeTask;
 import com.hazelcast.cp.internal.raft.impl.task.PreVoteTask;
@@ -89,6 +91,7 @@ import static com.hazelcast.cp.internal.raft.impl.log.SnapshotEntry.isNonInitial
 import static com.hazelcast.cp.internal.raft.impl.state.RaftState.newRaftState;
 import static com.hazelcast.cp.internal.raft.impl.state.RaftState.restoreRaftState;
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.util.Arrays.sort;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -113,16 +116,25 @@ public final class RaftNodeImpl implements RaftNode {
     private final int leaderElectionTimeout;
     private final int maxUncommittedEntryCount;
     private final int appendRequestMaxEntryCount;
+    private final int appendRequestMaxInFlightCount;
     private final int commitIndexAdvanceCountToSnapshot;
     private final int maxMissedLeaderHeartbeatCount;
     private final long appendRequestBackoffTimeoutInMillis;
+    private final long leaderLeaseDurationNanos;
     private final int maxNumberOfLogsToKeepAfterSnapshot;
     private final Runnable appendRequestBackoffResetTask;
     private final Runnable flushTask;
+    private final Runnable broadcastAppendRequestTask;
 
     private long lastAppendEntriesTimestamp;
+    // System.nanoTime() of the last append request, 0 if there is none yet.
+    // The leader stickiness is measured with it, like the leader lease relying on it.
+    private long lastAppendEntriesNanos;
+    // System.nanoTime() of the last lease renewal, 0 if there is none yet
+    private long leaderLeaseRenewalNanos;
     private boolean appendRequestBackoffResetTaskScheduled;
     private boolean flushTaskSubmitted;
+    private boolean broadcastAppendRequestTaskSubmitted;
     private volatile RaftNodeStatus status = INITIAL;
 
     @SuppressWarnings("checkstyle:executablestatementcount")
@@ -138,16 +150,19 @@ public final class RaftNodeImpl implements RaftNode {
         this.raftIntegration = raftIntegration;
         this.maxUncommittedEntryCount = raftAlgorithmConfig.getUncommittedEntryCountToRejectNewAppends();
         this.appendRequestMaxEntryCount = raftAlgorithmConfig.getAppendRequestMaxEntryCount();
+        this.appendRequestMaxInFlightCount = raftAlgorithmConfig.getAppendRequestMaxInFlightCount();
         this.commitIndexAdvanceCountToSnapshot = raftAlgorithmConfig.getCommitIndexAdvanceCountToSnapshot();
         this.leaderElectionTimeout = (int) raftAlgorithmConfig.getLeaderElectionTimeoutInMillis();
         this.heartbeatPeriodInMillis = raftAlgorithmConfig.getLeaderHeartbeatPeriodInMillis();
         this.maxMissedLeaderHeartbeatCount = raftAlgorithmConfig.getMaxMissedLeaderHeartbeatCount();
         this.maxNumberOfLogsToKeepAfterSnapshot = (int) (commitIndexAdvanceCountToSnapshot * RATIO_TO_KEEP_LOGS_AFTER_SNAPSHOT);
         this.appendRequestBackoffTimeoutInMillis = raftAlgorithmConfig.getAppendRequestBackoffTimeoutInMillis();
+        this.leaderLeaseDurationNanos = getLeaderLeaseDurationNanos(raftAlgorithmConfig);
         int logCapacity = commitIndexAdvanceCountToSnapshot + maxUncommittedEntryCount + maxNumberOfLogsToKeepAfterSnapshot;
         this.state = newRaftState(groupId, localMember, members, logCapacity, stateStore);
         this.logger = getLogger(RaftNode.class);
         this.appendRequestBackoffResetTask = new AppendRequestBackoffResetTask();
+        this.broadcastAppendRequestTask = new BroadcastAppendRequestTask();
         if (stateStore instanceof NopRaftStateStore) {
            this.flushTask = null;
            this.flushTaskSubmitted = true;
@@ -167,16 +182,19 @@ public final class RaftNodeImpl implements RaftNode {
         this.raftIntegration = raftIntegration;
         this.maxUncommittedEntryCount = config.getUncommittedEntryCountToRejectNewAppends();
         this.appendRequestMaxEntryCount = config.getAppendRequestMaxEntryCount();
+        this.appendRequestMaxInFlightCount = config.getAppendRequestMaxInFlightCount();
         this.commitIndexAdvanceCountToSnapshot = config.getCommitIndexAdvanceCountToSnapshot();
         this.leaderElectionTimeout = (int) config.getLeaderElectionTimeoutInMillis();
         this.heartbeatPeriodInMillis = config.getLeaderHeartbeatPeriodInMillis();
         this.maxMissedLeaderHeartbeatCount = config.getMaxMissedLeaderHeartbeatCount();
         this.maxNumberOfLogsToKeepAfterSnapshot = (int) (commitIndexAdvanceCountToSnapshot * RATIO_TO_KEEP_LOGS_AFTER_SNAPSHOT);
         this.appendRequestBackoffTimeoutInMillis = config.getAppendRequestBackoffTimeoutInMillis();
+        this.leaderLeaseDurationNanos = getLeaderLeaseDurationNanos(config);
         int logCapacity = commitIndexAdvanceCountToSnapshot + maxUncommittedEntryCount + maxNumberOfLogsToKeepAfterSnapshot;
         this.state = restoreRaftState(groupId, restoredState, logCapacity, stateStore);
         this.logger = getLogger(RaftNode.class);
         this.appendRequestBackoffResetTask = new AppendRequestBackoffResetTask();
+        this.broadcastAppendRequestTask = new BroadcastAppendRequestTask();
         if (stateStore instanceof NopRaftStateStore) {
             this.flushTask = null;
             this.flushTaskSubmitted = true;
@@ -185,6 +203,15 @@ public final class RaftNodeImpl implements RaftNode {
         }
     }
 
+    private static long getLeaderLeaseDurationNanos(RaftAlgorithmConfig config) {
+        if (!config.isLeaderLeaseEnabled()) {
+            return 0;
+        }
+
+        long durationMillis = config.getLeaderElectionTimeoutInMillis() - config.getLeaderLeaseClockDriftToleranceInMillis();
+        return MILLISECONDS.toNanos(max(durationMillis, 0));
+    }
+
     /**
      * Creates a new Raft node with an empty initial state.
      */
@@ -293,6 +320,7 @@ public final class RaftNodeImpl implements RaftNode {
                 state.completeLeadershipTransfer(new LeaderDemotedException(state.localEndpoint(), null));
                 closeStateStore();
                 setStatus(TERMINATED);
+                tryRunReadIndexQueries();
                 resultFuture.complete(null);
             } catch (Exception e) {
                 logger.severe("Failure during force-termination", e);
@@ -547,23 +575,105 @@ public final class RaftNodeImpl implements RaftNode {
             return false;
         }
 
+        // If the leader has not yet marked an entry from its current term committed, it waits until it has done so. (§6.4)
+        if (!isLastCommittedEntryInCurrentTerm()) {
+            return false;
+        }
+
+        // We can execute multiple queries at one-shot without appending to the Raft log,
+        // and we use the maxUncommittedEntryCount configuration parameter to upper-bound
+        // the number of queries that are collected until the heartbeat round is done.
+        QueryState queryState = state.leaderState().queryState();
+        return queryState.queryCount() < maxUncommittedEntryCount;
+    }
+
+    private boolean isLastCommittedEntryInCurrentTerm() {
         long commitIndex = state.commitIndex();
         RaftLog log = state.log();
 
-        // If the leader has not yet marked an entry from its current term committed, it waits until it has done so. (§6.4)
         // last committed entry is either in the last snapshot or still in the log
         LogEntry lastCommittedEntry = commitIndex == log.snapshotIndex() ? log.snapshot() : log.getLogEntry(commitIndex);
         assert lastCommittedEntry != null;
 
-        if (lastCommittedEntry.term() != state.term()) {
+        return lastCommittedEntry.term() == state.term();
+    }
+
+    /**
+     * Returns true if the leader can run a linearizable query locally
+     * without a heartbeat round, when;
+     * <ul>
+     * <li>Leader leases are enabled and the node is {@link RaftNodeStatus#ACTIVE}
+     * leader, which is not transferring its leadership.</li>
+     * <li>The leader has marked an entry from its current term committed.</li>
+     * <li>The majority acknowledged an append request the leader sent
+     * within the lease duration, i.e., the leader election timeout minus
+     * {@link RaftAlgorithmConfig#getLeaderLeaseClockDriftToleranceInMillis()}.
+     * Followers do not vote for another candidate within the leader election
+     * timeout after they accept an append request (leader stickiness), hence
+     * no other leader can commit a new entry until the lease expires.</li>
+     * </ul>
+     * Once half of the lease duration passes, a new heartbeat round is started
+     * to renew the lease before it expires.
+     */
+    public boolean isLeaderLeaseValid() {
+        if (leaderLeaseDurationNanos == 0 || status != ACTIVE || state.role() != LEADER
+                || state.leadershipTransferState() != null || !isLastCommittedEntryInCurrentTerm()) {
             return false;
         }
 
-        // We can execute multiple queries at one-shot without appending to the Raft log,
-        // and we use the maxUncommittedEntryCount configuration parameter to upper-bound
-        // the number of queries that are collected until the heartbeat round is done.
-        QueryState queryState = state.leaderState().queryState();
-        return queryState.queryCount() < maxUncommittedEntryCount;
+        long now = System.nanoTime();
+        long leaseAge = state.leaderState().leaseAgeNanos(state.majority(), now);
+        if (leaseAge >= leaderLeaseDurationNanos) {
+            return false;
+        }
+
+        long renewalPeriod = leaderLeaseDurationNanos / 2;
+        if (leaseAge >= renewalPeriod && (leaderLeaseRenewalNanos == 0 || now - leaderLeaseRenewalNanos >= renewalPeriod)) {
+            leaderLeaseRenewalNanos = now;
+            broadcastAppendRequest();
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true if a query with {@link QueryPolicy#ANY_READ_INDEX} can be
+     * executed on this node, i.e., it knows the leader and has received
+     * an append request from the leader within the leader heartbeat timeout.
+     */
+    public boolean canQueryReadIndex() {
+        return state.leader() != null && !isHeartbeatTimedOut(lastAppendEntriesTimestamp);
+    }
+
+    /**
+     * Returns true if a new query can wait in {@link ReadIndexState} for its
+     * read index to be applied. We use the maxUncommittedEntryCount
+     * configuration parameter to upper-bound the number of waiting queries.
+     */
+    public boolean canAddReadIndexQuery() {
+        return state.readIndexState().queryCount() < maxUncommittedEntryCount;
+    }
+
+    /**
+     * Runs the queries waiting in {@link ReadIndexState} whose read indices
+     * have been applied. If the node is terminated or stepped down, the
+     * remaining queries are failed with {@link NotLeaderException}.
+     */
+    public void tryRunReadIndexQueries() {
+        ReadIndexState readIndexState = state.readIndexState();
+        if (readIndexState.queryCount() == 0) {
+            return;
+        }
+
+        for (BiTuple<Object, InternalCompletableFuture> t : readIndexState.pollQueries(state.lastApplied())) {
+            runQuery(t.element1, t.element2);
+        }
+
+        if (isTerminatedOrSteppedDown()) {
+            for (BiTuple<Object, InternalCompletableFuture> t : readIndexState.pollAllQueries()) {
+                t.element2.completeExceptionally(new NotLeaderException(groupId, state.localEndpoint(), null));
+            }
+        }
     }
 
     /**
@@ -626,19 +736,63 @@ public final class RaftNodeImpl implements RaftNode {
         updateLastAppendEntriesTimestamp();
     }
 
+    /**
+     * Broadcasts append-entries request to all group members to maintain
+     * the leadership. Empty append requests sent to the followers that have
+     * caught up with the leader are sent as heartbeats.
+     *
+     * @see RaftIntegration#sendHeartbeat(AppendRequest, RaftEndpoint)
+     */
+    private void broadcastHeartbeat() {
+        for (RaftEndpoint follower : state.remoteMembers()) {
+            sendAppendRequest(follower, true);
+        }
+        updateLastAppendEntriesTimestamp();
+    }
+
+    /**
+     * Broadcasts append-entries request to all group members after the tasks
+     * already waiting to be executed by this Raft node. It lets the entries
+     * appended by queued {@link ReplicateTask}s go out in the same append
+     * requests. Under low load, the broadcast runs right away.
+     */
+    public void submitBroadcastAppendRequest() {
+        if (broadcastAppendRequestTaskSubmitted) {
+            return;
+        }
+
+        broadcastAppendRequestTaskSubmitted = true;
+        raftIntegration.submit(broadcastAppendRequestTask);
+    }
+
     /**
      * Sends an append-entries request to the follower member.
      * <p>
      * Log entries between follower's known nextIndex and latest appended entry index are sent in a batch.
      * Batch size can be {@link RaftAlgorithmConfig#getAppendRequestMaxEntryCount()} at most.
      * <p>
+     * Once the leader knows the follower's matchIndex, it does not wait for the response before sending
+     * the next batch. Up to {@link RaftAlgorithmConfig#getAppendRequestMaxInFlightCount()} append requests
+     * can be in flight to the follower.
+     * <p>
      * If follower's nextIndex is behind the latest snapshot index, then {@link InstallSnapshot} request is sent.
      * <p>
      * If leader doesn't know follower's matchIndex (if {@code matchIndex == 0}), then an empty append-entries is sent
      * to save bandwidth until leader learns the matchIndex of the follower.
      */
-    @SuppressWarnings({"checkstyle:npathcomplexity", "checkstyle:cyclomaticcomplexity", "checkstyle:methodlength"})
     public void sendAppendRequest(RaftEndpoint follower) {
+        sendAppendRequest(follower, false);
+    }
+
+    /**
+     * Sends an append-entries request to the follower member as described in
+     * {@link #sendAppendRequest(RaftEndpoint)}. If {@code heartbeat} is true
+     * and the follower has caught up with the leader, the empty append request
+     * is sent via {@link RaftIntegration#sendHeartbeat(AppendRequest, RaftEndpoint)}
+     * so that it can be coalesced with the Raft RPCs of the other Raft groups.
+     */
+    @SuppressWarnings({"checkstyle:npathcomplexity", "checkstyle:cyclomaticcomplexity", "checkstyle:methodlength"})
+    private void sendAppendRequest(RaftEndpoint follower, boolean heartbeat) {
         if (!raftIntegration.isReachable(follower)) {
             return;
         }
@@ -653,6 +807,14 @@ public final class RaftNodeImpl implements RaftNode {
             return;
         }
 
+        if (followerState.inFlightAppendRequestCount() >= appendRequestMaxInFlightCount) {
+            // The pipeline to the follower is full. We will send a new append request
+            // either when the follower acknowledges an in-flight one or a back-off timeout occurs.
+            followerState.setAppendRequestBackoff();
+            scheduleAppendAckResetTask();
+            return;
+        }
+
         long nextIndex = followerState.nextIndex();
 
         // if the first log entry to be sent is put into the snapshot, check if we still keep it in the log
@@ -661,7 +823,7 @@ public final class RaftNodeImpl implements RaftNode {
         if (nextIndex <= raftLog.snapshotIndex()
                 && (!raftLog.containsLogEntry(nextIndex) || (nextIndex > 1 && !raftLog.containsLogEntry(nextIndex - 1)))) {
             InstallSnapshot installSnapshot = new InstallSnapshot(state.localEndpoint(), state.term(), raftLog.snapshot(),
-                    leaderState.queryRound());
+                    leaderState.queryRound(), System.nanoTime());
             if (logger.isFineEnabled()) {
                 logger.fine("Sending " + installSnapshot + " to " + follower + " since next index: " + nextIndex
                         + " <= snapshot index: " + raftLog.snapshotIndex());
@@ -714,13 +876,23 @@ public final class RaftNodeImpl implements RaftNode {
         }
 
         AppendRequest request = new AppendRequest(getLocalMember(), state.term(), prevEntryTerm, prevEntryIndex,
-                state.commitIndex(), entries, leaderState.queryRound());
+                state.commitIndex(), entries, leaderState.queryRound(), System.nanoTime());
 
         if (logger.isFineEnabled()) {
             logger.fine("Sending " + request + " to " + follower + " with next index: " + nextIndex);
         }
 
-        raftIntegration.send(request, follower);
+        if (heartbeat && !shouldBackoff) {
+            raftIntegration.sendHeartbeat(request, follower);
+        } else {
+            raftIntegration.send(request, follower);
+        }
+
+        if (entries.length > 0 && followerState.matchIndex() > 0) {
+            // The logs are known to match, so the next batch can be sent without waiting for this one
+            followerState.appendRequestSent(entries[0].index(), entries[entries.length - 1].index());
+            shouldBackoff = followerState.inFlightAppendRequestCount() >= appendRequestMaxInFlightCount;
+        }
 
         if (entries.length > 0 && entries[entries.length - 1].index() > leaderState.flushedLogIndex()) {
             // if I am sending any non-flushed entry to the follower, I should trigger the flush task.
@@ -775,6 +947,8 @@ public final class RaftNodeImpl implements RaftNode {
         assert status != TERMINATED || commitIndex == raftLog.lastLogOrSnapshotIndex()
                 : "commit index: " + commitIndex + " must be equal to " + raftLog.lastLogOrSnapshotIndex() + " on termination.";
 
+        tryRunReadIndexQueries();
+
         if (state.role() == LEADER || state.role() == FOLLOWER) {
             takeSnapshotIfCommitIndexAdvanced();
         }
@@ -837,10 +1011,19 @@ public final class RaftNodeImpl implements RaftNode {
 
     public void updateLastAppendEntriesTimestamp() {
         lastAppendEntriesTimestamp = Clock.currentTimeMillis();
+        lastAppendEntriesNanos = System.nanoTime();
     }
 
-    public long lastAppendEntriesTimestamp() {
-        return lastAppendEntriesTimestamp;
+    /**
+     * Returns true if an append request was received or sent within the
+     * leader election timeout, hence this node must not vote for another
+     * candidate (leader stickiness). The leader lease relies on it, so it is
+     * measured with {@link System#nanoTime()}, which a wall clock adjustment
+     * cannot shorten.
+     */
+    public boolean receivedAppendEntriesRecently() {
+        return lastAppendEntriesNanos != 0
+                && System.nanoTime() - lastAppendEntriesNanos < MILLISECONDS.toNanos(getLeaderElectionTimeoutInMillis());
     }
 
     public RaftState state() {
@@ -1042,6 +1225,7 @@ public final class RaftNodeImpl implements RaftNode {
 
         state.lastApplied(snapshot.index());
         invalidateFuturesUntil(snapshot.index(), new StaleAppendRequestException(state.leader()));
+        tryRunReadIndexQueries();
         logger.info(snapshot + " is installed.");
 
         return true;
@@ -1345,7 +1529,7 @@ public final class RaftNodeImpl implements RaftNode {
                 }
 
                 if (lastAppendEntriesTimestamp < Clock.currentTimeMillis() - heartbeatPeriodInMillis) {
-                    broadcastAppendRequest();
+                    broadcastHeartbeat();
                 }
 
                 scheduleHeartbeat();
@@ -1427,7 +1611,10 @@ public final class RaftNodeImpl implements RaftNode {
                     }
                     if (followerState.completeAppendRequestBackoffRound()) {
                         // This follower has not sent a response to the last append request.
-                        // Send another append request
+                        // Send another append request, starting over from the in-flight entries if any
+                        if (followerState.inFlightAppendRequestCount() > 0) {
+                            followerState.resetInFlightAppendRequests();
+                        }
                         sendAppendRequest(entry.getKey());
                     }
                     // Schedule the task again, we still have backoff flag set followers
@@ -1437,6 +1624,20 @@ public final class RaftNodeImpl implements RaftNode {
         }
     }
 
+    private class BroadcastAppendRequestTask extends RaftNodeStatusAwareTask {
+        BroadcastAppendRequestTask() {
+            super(RaftNodeImpl.this);
+        }
+
+        @Override
+        protected void innerRun() {
+            broadcastAppendRequestTaskSubmitted = false;
+            if (state.role() == LEADER) {
+                broadcastAppendRequest();
+            }
+        }
+    }
+
     private class FlushTask extends RaftNodeStatusAwareTask {
         FlushTask() {
             super(RaftNodeImpl.this);
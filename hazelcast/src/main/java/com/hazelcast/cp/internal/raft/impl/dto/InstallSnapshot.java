@@ -41,15 +41,17 @@ public class InstallSnapshot implements IdentifiedDataSerializable {
     private int term;
     private SnapshotEntry snapshot;
     private long queryRound;
+    private long timestamp;
 
     public InstallSnapshot() {
     }
 
-    public InstallSnapshot(RaftEndpoint leader, int term, SnapshotEntry snapshot, long queryRound) {
+    public InstallSnapshot(RaftEndpoint leader, int term, SnapshotEntry snapshot, long queryRound, long timestamp) {
         this.leader = leader;
         this.term = term;
         this.snapshot = snapshot;
         this.queryRound = queryRound;
+        this.timestamp = timestamp;
     }
 
     public RaftEndpoint leader() {
@@ -68,6 +70,15 @@ public class InstallSnapshot implements IdentifiedDataSerializable {
         return queryRound;
     }
 
+    /**
+     * Returns the {@link System#nanoTime()} of the leader when it sent this request.
+     *
+     * @see AppendRequest#timestamp()
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
     @Override
     public int getFactoryId() {
         return RaftDataSerializerHook.F_ID;
@@ -84,6 +95,7 @@ public class InstallSnapshot implements IdentifiedDataSerializable {
         out.writeInt(term);
         out.writeObject(snapshot);
         out.writeLong(queryRound);
+        out.writeLong(timestamp);
     }
 
     @Override
@@ -92,12 +104,13 @@ public class InstallSnapshot implements IdentifiedDataSerializable {
         term = in.readInt();
         snapshot = in.readObject();
         queryRound = in.readLong();
+        timestamp = in.readLong();
     }
 
     @Override
     public String toString() {
         return "InstallSnapshot{" + "leader=" + leader + ", term=" + term + ", snapshot=" + snapshot + ", queryRound="
-                + queryRound + '}';
+                + queryRound + ", timestamp=" + timestamp + '}';
     }
 
 }
@@ -83,6 +83,22 @@ public class AppendFailureResponseHandlerTask extends AbstractResponseHandlerTas
         long nextIndex = followerState.nextIndex();
         long matchIndex = followerState.matchIndex();
 
+        if (followerState.inFlightAppendRequestCount() > 0) {
+            if (resp.expectedNextIndex() <= matchIndex) {
+                // this is a stale response, the follower has acknowledged a later append request
+                return false;
+            }
+
+            // One of the pipelined append requests is rejected, so the ones after it are rejected as well.
+            // Sending the entries again starting from the match index...
+            followerState.appendRequestAckReceived();
+            followerState.resetInFlightAppendRequests();
+            if (logger.isFineEnabled()) {
+                logger.fine("Resetting next index: " + followerState.nextIndex() + " for follower: " + resp.follower());
+            }
+            return true;
+        }
+
         if (resp.expectedNextIndex() == nextIndex) {
             // Received a response for the last append request. Resetting the flag...
             followerState.appendRequestAckReceived();
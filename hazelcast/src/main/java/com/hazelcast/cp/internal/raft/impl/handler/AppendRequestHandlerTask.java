@@ -202,9 +202,11 @@ public class AppendRequestHandlerTask extends RaftNodeStatusAwareTask implements
         }
 
         raftNode.updateLastAppendEntriesTimestamp();
+        state.readIndexState().readIndex(req.leaderCommitIndex());
 
         try {
-            AppendSuccessResponse resp = new AppendSuccessResponse(localMember(), state.term(), lastLogIndex, req.queryRound());
+            AppendSuccessResponse resp = new AppendSuccessResponse(localMember(), state.term(), lastLogIndex, req.queryRound(),
+                    req.timestamp());
             raftNode.send(resp, req.leader());
         } finally {
             if (state.commitIndex() > oldCommitIndex) {
@@ -27,6 +27,7 @@ import com.hazelcast.cp.internal.raft.impl.state.QueryState;
 import com.hazelcast.cp.internal.raft.impl.state.RaftState;
 
 import static com.hazelcast.cp.internal.raft.impl.RaftRole.LEADER;
+import static java.lang.Math.max;
 
 /**
  * Handles {@link AppendSuccessResponse} sent by
@@ -86,6 +87,10 @@ public class AppendSuccessResponseHandlerTask extends AbstractResponseHandlerTas
         FollowerState followerState = leaderState.getFollowerState(follower);
         QueryState queryState = leaderState.queryState();
 
+        if (resp.term() == state.term()) {
+            followerState.leaseAckReceived(resp.requestTimestamp());
+        }
+
         if (queryState.tryAck(resp.queryRound(), follower)) {
             if (logger.isFineEnabled()) {
                 logger.fine("Ack from " + follower + " for query round: " + resp.queryRound());
@@ -99,9 +104,11 @@ public class AppendSuccessResponseHandlerTask extends AbstractResponseHandlerTas
             // Received a response for the last append request. Resetting the flag...
             followerState.appendRequestAckReceived();
 
-            long newNextIndex = followerLastLogIndex + 1;
+            // The next index may be already ahead if there are other append requests in flight
+            long newNextIndex = max(followerState.nextIndex(), followerLastLogIndex + 1);
             followerState.matchIndex(followerLastLogIndex);
             followerState.nextIndex(newNextIndex);
+            followerState.completeInFlightAppendRequests(followerLastLogIndex);
 
             if (logger.isFineEnabled()) {
                 logger.fine("Updated match index: " + followerLastLogIndex + " and next index: " + newNextIndex
@@ -83,9 +83,11 @@ public class InstallSnapshotHandlerTask extends RaftNodeStatusAwareTask implemen
         }
 
         raftNode.updateLastAppendEntriesTimestamp();
+        state.readIndexState().readIndex(snapshot.index());
 
         if (raftNode.installSnapshot(snapshot)) {
-            raftNode.send(new AppendSuccessResponse(localMember(), req.term(), snapshot.index(), req.queryRound()), req.leader());
+            raftNode.send(new AppendSuccessResponse(localMember(), req.term(), snapshot.index(), req.queryRound(),
+                    req.timestamp()), req.leader());
         }
     }
 }
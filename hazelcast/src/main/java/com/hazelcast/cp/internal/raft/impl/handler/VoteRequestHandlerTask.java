@@ -24,7 +24,6 @@ import com.hazelcast.cp.internal.raft.impl.log.RaftLog;
 import com.hazelcast.cp.internal.raft.impl.state.RaftState;
 import com.hazelcast.cp.internal.raft.impl.task.LeaderElectionTask;
 import com.hazelcast.cp.internal.raft.impl.task.RaftNodeStatusAwareTask;
-import com.hazelcast.internal.util.Clock;
 
 import static com.hazelcast.cp.internal.raft.impl.RaftRole.FOLLOWER;
 
@@ -62,9 +61,7 @@ public class VoteRequestHandlerTask extends RaftNodeStatusAwareTask implements R
         // Those VoteRequest objects are marked with a special flag ("disruptive") to bypass leader stickiness.
         // Also if request comes from the current leader, then stickiness check is skipped.
         // Since current leader may have restarted by recovering its persistent state.
-        long leaderElectionTimeoutDeadline = Clock.currentTimeMillis() - raftNode.getLeaderElectionTimeoutInMillis();
-        if (!req.isDisruptive() && raftNode.lastAppendEntriesTimestamp() > leaderElectionTimeoutDeadline
-                && !req.candidate().equals(state.leader())) {
+        if (!req.isDisruptive() && raftNode.receivedAppendEntriesRecently() && !req.candidate().equals(state.leader())) {
             logger.info("Rejecting " + req + " since received append entries recently.");
             raftNode.send(new VoteResponse(localMember, state.term(), false), req.candidate());
             return;
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.log.LogEntry;
+import com.hazelcast.cp.internal.raft.impl.log.SnapshotEntry;
+import com.hazelcast.internal.nio.BufferObjectDataInput;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.MEMBERS_FILE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.SEGMENT_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.SEGMENT_SUFFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.SNAPSHOT_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.SNAPSHOT_SUFFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.TERM_FILE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.indexOf;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.listFiles;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.readSingleRecord;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.scan;
+
+/**
+ * Restores the Raft state persisted by {@link FileRaftStateStore}.
+ * <p>
+ * The entries are restored from the log segments starting after the newest
+ * snapshot. The records of the torn tail of the newest segment are ignored.
+ * After {@link #load()}, {@link #logFileStructure()} describes the newest
+ * segment so that a {@link FileRaftStateStore} created with it resumes
+ * appending without scanning the segment again.
+ */
+public final class FileRaftStateLoader implements RaftStateLoader {
+
+    private final File directory;
+    private final InternalSerializationService serializationService;
+    private LogFileStructure logFileStructure;
+
+    public FileRaftStateLoader(@Nonnull File directory, @Nonnull InternalSerializationService serializationService) {
+        this.directory = directory;
+        this.serializationService = serializationService;
+    }
+
+    @Nonnull
+    @Override
+    public RestoredRaftState load() throws IOException {
+        byte[] members = readSingleRecord(new File(directory, MEMBERS_FILE));
+        if (members == null) {
+            throw new IOException("No persisted Raft state in " + directory);
+        }
+        BufferObjectDataInput in = serializationService.createObjectDataInput(members);
+        RaftEndpoint localEndpoint = in.readObject();
+        int memberCount = in.readInt();
+        List<RaftEndpoint> initialMembers = new ArrayList<>(memberCount);
+        for (int i = 0; i < memberCount; i++) {
+            initialMembers.add(in.readObject());
+        }
+
+        int term = 0;
+        RaftEndpoint votedFor = null;
+        byte[] termRecord = readSingleRecord(new File(directory, TERM_FILE));
+        if (termRecord != null) {
+            in = serializationService.createObjectDataInput(termRecord);
+            term = in.readInt();
+            votedFor = in.readObject();
+        }
+
+        SnapshotEntry snapshot = loadSnapshot();
+        LogEntry[] entries = loadEntries(snapshot != null ? snapshot.index() : 0);
+        return new RestoredRaftState(localEndpoint, initialMembers, term, votedFor, snapshot, entries);
+    }
+
+    /**
+     * @return the structure of the newest log segment, known after
+     * {@link #load()}, or {@code null} if there is no segment
+     */
+    @Nullable
+    public LogFileStructure logFileStructure() {
+        return logFileStructure;
+    }
+
+    private SnapshotEntry loadSnapshot() throws IOException {
+        List<File> files = listFiles(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        // a newer snapshot may have failed to become durable before the crash
+        for (int i = files.size() - 1; i >= 0; i--) {
+            byte[] payload = readSingleRecord(files.get(i));
+            if (payload != null) {
+                return serializationService.toObject(new HeapData(payload));
+            }
+        }
+        return null;
+    }
+
+    private LogEntry[] loadEntries(long snapshotIndex) throws IOException {
+        List<LogEntry> entries = new ArrayList<>();
+        List<File> segments = listFiles(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i < segments.size(); i++) {
+            File segment = segments.get(i);
+            long firstIndex = indexOf(segment, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            if (!entries.isEmpty() && entries.get(entries.size() - 1).index() + 1 != firstIndex) {
+                // the older entries precede a snapshot installed from the leader
+                entries.clear();
+            }
+            List<Long> offsets = new ArrayList<>();
+            scan(segment, (offset, payload) -> {
+                offsets.add(offset);
+                entries.add(serializationService.toObject(new HeapData(payload)));
+            });
+            if (i == segments.size() - 1) {
+                long[] tailEntryOffsets = new long[offsets.size()];
+                for (int j = 0; j < tailEntryOffsets.length; j++) {
+                    tailEntryOffsets[j] = offsets.get(j);
+                }
+                logFileStructure = new LogFileStructure(segment.getName(), tailEntryOffsets, firstIndex);
+            }
+        }
+
+        int from = 0;
+        while (from < entries.size() && entries.get(from).index() <= snapshotIndex) {
+            from++;
+        }
+        List<LogEntry> restored = entries.subList(from, entries.size());
+        if (!restored.isEmpty() && restored.get(0).index() != snapshotIndex + 1) {
+            throw new IOException("Raft log in " + directory + " starts at index " + restored.get(0).index()
+                    + " but the snapshot index is " + snapshotIndex);
+        }
+        return restored.toArray(new LogEntry[0]);
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.log.LogEntry;
+import com.hazelcast.cp.internal.raft.impl.log.SnapshotEntry;
+import com.hazelcast.internal.nio.BufferObjectDataOutput;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.MEMBERS_FILE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.RECORD_HEADER_SIZE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.SEGMENT_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.SEGMENT_SUFFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.SNAPSHOT_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.SNAPSHOT_SUFFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.TERM_FILE;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.deleteFile;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.indexOf;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.listFiles;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.recordSize;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.scan;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.segmentFileName;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.snapshotFileName;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.syncDirectory;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.writeRecord;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.writeSingleRecordAtomically;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Persists the Raft state into the files of a directory, as described in
+ * {@link RaftLogFiles}. The persisted state is restored by
+ * {@link FileRaftStateLoader}.
+ * <p>
+ * The log entries are appended to segment files through a write buffer and
+ * become durable on {@link #flushLogs()}. Concurrent {@link #flushLogs()}
+ * calls are group committed: a single {@code fsync} makes the entries of all
+ * callers durable, and the callers whose entries were covered by an
+ * {@code fsync} in progress don't issue their own. With a positive group
+ * commit window the {@code fsync} is delayed by the window, so that more
+ * entries share it, trading latency for throughput.
+ * <p>
+ * A new segment is started once the current one exceeds the maximum segment
+ * size or the appended entry doesn't follow the last one, which happens
+ * after a snapshot was installed. The segments whose entries are all covered
+ * by a persisted snapshot are deleted, as are the older snapshots.
+ * {@link #deleteEntriesFrom(long)} deletes the newer segments and truncates
+ * the segment of the first deleted entry.
+ * <p>
+ * The term, the vote and the members are rare changes and each is durable
+ * when its method returns, as is a persisted snapshot.
+ */
+public final class FileRaftStateStore implements RaftStateStore {
+
+    /**
+     * Default maximum size of a log segment file
+     */
+    public static final int DEFAULT_MAX_SEGMENT_SIZE = 64 << 20;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final int INITIAL_OFFSETS_CAPACITY = 1024;
+
+    private final File directory;
+    private final InternalSerializationService serializationService;
+    private final LogFileStructure logFileStructure;
+    private final int maxSegmentSize;
+    private final long groupCommitWindowNanos;
+    private final Object syncMutex = new Object();
+
+    // the fields below are guarded by this
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    private final List<Segment> segments = new ArrayList<>();
+    private FileChannel channel;
+    private long position;
+    private long writeCount;
+
+    private volatile long syncedWriteCount;
+
+    public FileRaftStateStore(@Nonnull File directory, @Nonnull InternalSerializationService serializationService,
+                              @Nullable LogFileStructure logFileStructure) {
+        this(directory, serializationService, logFileStructure, DEFAULT_MAX_SEGMENT_SIZE, 0);
+    }
+
+    /**
+     * @param directory              the directory of the Raft state files
+     * @param serializationService   serializes the entries and the endpoints
+     * @param logFileStructure       the structure of the newest segment, as
+     *                               restored by {@link FileRaftStateLoader},
+     *                               to resume appending without scanning it
+     * @param maxSegmentSize         the size after which a new segment is started
+     * @param groupCommitWindowNanos the time to delay an {@code fsync} by to
+     *                               let concurrent appends join it, or 0 to
+     *                               {@code fsync} immediately
+     */
+    public FileRaftStateStore(@Nonnull File directory, @Nonnull InternalSerializationService serializationService,
+                              @Nullable LogFileStructure logFileStructure, int maxSegmentSize,
+                              long groupCommitWindowNanos) {
+        this.directory = directory;
+        this.serializationService = serializationService;
+        this.logFileStructure = logFileStructure;
+        this.maxSegmentSize = maxSegmentSize;
+        this.groupCommitWindowNanos = groupCommitWindowNanos;
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IOException("Could not create the Raft state directory " + directory);
+        }
+        for (File file : listFiles(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            segments.add(new Segment(file, indexOf(file, SEGMENT_PREFIX, SEGMENT_SUFFIX)));
+        }
+        if (!segments.isEmpty()) {
+            openLastSegment(logFileStructure);
+        }
+    }
+
+    @Override
+    public void persistInitialMembers(@Nonnull RaftEndpoint localMember, @Nonnull Collection<RaftEndpoint> initialMembers)
+            throws IOException {
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput();
+        out.writeObject(localMember);
+        out.writeInt(initialMembers.size());
+        for (RaftEndpoint member : initialMembers) {
+            out.writeObject(member);
+        }
+        writeSingleRecordAtomically(directory, MEMBERS_FILE, out.toByteArray());
+    }
+
+    @Override
+    public void persistTerm(int term, @Nullable RaftEndpoint votedFor) throws IOException {
+        BufferObjectDataOutput out = serializationService.createObjectDataOutput();
+        out.writeInt(term);
+        out.writeObject(votedFor);
+        writeSingleRecordAtomically(directory, TERM_FILE, out.toByteArray());
+    }
+
+    @Override
+    public synchronized void persistEntry(@Nonnull LogEntry entry) throws IOException {
+        byte[] payload = serializationService.toData(entry).toByteArray();
+        Segment segment = lastSegment();
+        if (segment == null || entry.index() != segment.nextIndex() || position >= maxSegmentSize) {
+            segment = startSegment(entry.index());
+        }
+        segment.addOffset(position);
+        append(payload);
+    }
+
+    @Override
+    public void persistSnapshot(@Nonnull SnapshotEntry entry) throws IOException {
+        byte[] payload = serializationService.toData(entry).toByteArray();
+        writeSingleRecordAtomically(directory, snapshotFileName(entry.index()), payload);
+        for (File file : listFiles(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (indexOf(file, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) != entry.index()) {
+                deleteFile(file);
+            }
+        }
+        deleteSegmentsCoveredBy(entry.index());
+    }
+
+    @Override
+    public synchronized void deleteEntriesFrom(long startIndexInclusive) throws IOException {
+        drainWriteBuffer();
+        while (!segments.isEmpty() && lastSegment().firstIndex >= startIndexInclusive) {
+            closeChannel();
+            deleteFile(segments.remove(segments.size() - 1).file);
+        }
+        if (!segments.isEmpty()) {
+            if (channel == null) {
+                openLastSegment(null);
+            }
+            Segment segment = lastSegment();
+            if (startIndexInclusive < segment.nextIndex()) {
+                int count = (int) (startIndexInclusive - segment.firstIndex);
+                position = segment.offsets[count];
+                segment.count = count;
+                channel.truncate(position);
+                channel.position(position);
+            }
+            channel.force(true);
+        }
+        syncDirectory(directory);
+        writeCount++;
+    }
+
+    @Override
+    public void flushLogs() throws IOException {
+        long target;
+        synchronized (this) {
+            target = writeCount;
+        }
+        if (syncedWriteCount >= target) {
+            return;
+        }
+        synchronized (syncMutex) {
+            if (syncedWriteCount >= target) {
+                // covered by the fsync of a concurrent caller
+                return;
+            }
+            if (groupCommitWindowNanos > 0) {
+                LockSupport.parkNanos(groupCommitWindowNanos);
+            }
+            FileChannel syncedChannel;
+            long synced;
+            synchronized (this) {
+                drainWriteBuffer();
+                syncedChannel = channel;
+                synced = writeCount;
+            }
+            if (syncedChannel != null) {
+                try {
+                    syncedChannel.force(false);
+                } catch (ClosedChannelException e) {
+                    // the segment was made durable before it was closed
+                    assert !syncedChannel.isOpen();
+                }
+            }
+            syncedWriteCount = synced;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            drainWriteBuffer();
+            channel.force(false);
+            closeChannel();
+        }
+    }
+
+    private Segment lastSegment() {
+        return segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    }
+
+    private Segment startSegment(long firstIndex) throws IOException {
+        if (channel != null) {
+            drainWriteBuffer();
+            channel.force(false);
+            closeChannel();
+        }
+        File file = new File(directory, segmentFileName(firstIndex));
+        channel = FileChannel.open(file.toPath(), CREATE, READ, WRITE, TRUNCATE_EXISTING);
+        position = 0;
+        Segment segment = new Segment(file, firstIndex);
+        segment.offsets = new long[INITIAL_OFFSETS_CAPACITY];
+        segments.add(segment);
+        syncDirectory(directory);
+        return segment;
+    }
+
+    /**
+     * Opens the newest segment for appending. Its structure is either taken
+     * from the given restored structure or rebuilt by scanning the segment.
+     * The torn tail of the segment, if any, is truncated.
+     */
+    private void openLastSegment(LogFileStructure structure) throws IOException {
+        Segment segment = lastSegment();
+        channel = FileChannel.open(segment.file.toPath(), READ, WRITE);
+        long end;
+        if (structure != null && segment.file.getName().equals(structure.filename())
+                && segment.firstIndex == structure.indexOfFirstTailEntry()) {
+            long[] offsets = structure.tailEntryOffsets();
+            segment.offsets = Arrays.copyOf(offsets, Math.max(offsets.length, INITIAL_OFFSETS_CAPACITY));
+            segment.count = offsets.length;
+            end = offsets.length == 0 ? 0 : endOfRecordAt(offsets[offsets.length - 1]);
+        } else {
+            segment.offsets = new long[INITIAL_OFFSETS_CAPACITY];
+            segment.count = 0;
+            end = scan(segment.file, (offset, payload) -> segment.addOffset(offset));
+        }
+        if (channel.size() > end) {
+            channel.truncate(end);
+        }
+        channel.position(end);
+        position = end;
+    }
+
+    private long endOfRecordAt(long offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        while (length.hasRemaining()) {
+            if (channel.read(length, offset + length.position()) < 0) {
+                throw new IOException("Raft log segment " + lastSegment().file + " ends within a record");
+            }
+        }
+        return offset + RECORD_HEADER_SIZE + length.getInt(0);
+    }
+
+    /**
+     * Deletes the segments of which all entries are covered by the snapshot
+     * with the given index.
+     */
+    private synchronized void deleteSegmentsCoveredBy(long snapshotIndex) throws IOException {
+        while (segments.size() > 1 && segments.get(1).firstIndex - 1 <= snapshotIndex) {
+            deleteFile(segments.remove(0).file);
+        }
+        Segment segment = lastSegment();
+        if (segment != null && segments.size() == 1 && segment.offsets != null
+                && segment.nextIndex() - 1 <= snapshotIndex) {
+            writeBuffer.clear();
+            closeChannel();
+            deleteFile(segments.remove(0).file);
+            position = 0;
+        }
+    }
+
+    private void append(byte[] payload) throws IOException {
+        int recordSize = recordSize(payload);
+        if (recordSize > writeBuffer.remaining()) {
+            drainWriteBuffer();
+        }
+        if (recordSize > writeBuffer.capacity()) {
+            ByteBuffer buffer = ByteBuffer.allocate(recordSize);
+            writeRecord(buffer, payload);
+            buffer.flip();
+            writeFully(buffer);
+        } else {
+            writeRecord(writeBuffer, payload);
+        }
+        position += recordSize;
+        writeCount++;
+    }
+
+    private void drainWriteBuffer() throws IOException {
+        if (writeBuffer.position() == 0) {
+            return;
+        }
+        writeBuffer.flip();
+        writeFully(writeBuffer);
+        writeBuffer.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * A log segment file. Only the offsets of the records of the newest
+     * segment are known, the older segments are only deleted as a whole.
+     */
+    private static final class Segment {
+        final File file;
+        final long firstIndex;
+        long[] offsets;
+        int count;
+
+        Segment(File file, long firstIndex) {
+            this.file = file;
+            this.firstIndex = firstIndex;
+        }
+
+        long nextIndex() {
+            return firstIndex + count;
+        }
+
+        void addOffset(long offset) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = offset;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import com.hazelcast.internal.util.EmptyStatement;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * File layout and record format shared by {@link FileRaftStateStore} and
+ * {@link FileRaftStateLoader}.
+ * <p>
+ * The Raft state of a node is kept in its own directory:
+ * <ul>
+ * <li>{@code members}: the local endpoint and the initial group members,</li>
+ * <li>{@code term}: the current term and the endpoint voted for,</li>
+ * <li>{@code snapshot-<index>.snapshot}: the newest snapshot entry,</li>
+ * <li>{@code log-<first index>.segment}: the append-only segments of the
+ * log entries with sequential indices.</li>
+ * </ul>
+ * Every file is a sequence of records, each made of the payload length, the
+ * CRC32 checksum of the payload and the payload. A record which is cut short
+ * or fails its checksum ends the file; it is the tail of a write that was
+ * not made durable.
+ */
+final class RaftLogFiles {
+
+    static final String MEMBERS_FILE = "members";
+    static final String TERM_FILE = "term";
+    static final String SEGMENT_PREFIX = "log-";
+    static final String SEGMENT_SUFFIX = ".segment";
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".snapshot";
+    static final int RECORD_HEADER_SIZE = 8;
+
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String INDEX_FORMAT = "%020d";
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Visits the valid records of a file.
+     */
+    interface RecordVisitor {
+        void visit(long offset, byte[] payload) throws IOException;
+    }
+
+    private RaftLogFiles() {
+    }
+
+    static String segmentFileName(long firstIndex) {
+        return SEGMENT_PREFIX + String.format(INDEX_FORMAT, firstIndex) + SEGMENT_SUFFIX;
+    }
+
+    static String snapshotFileName(long index) {
+        return SNAPSHOT_PREFIX + String.format(INDEX_FORMAT, index) + SNAPSHOT_SUFFIX;
+    }
+
+    /**
+     * @return the index in the name of the given segment or snapshot file
+     */
+    static long indexOf(File file, String prefix, String suffix) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    /**
+     * @return the files with the given prefix and suffix, in the ascending
+     * order of their indices
+     */
+    static List<File> listFiles(File directory, String prefix, String suffix) {
+        List<File> files = new ArrayList<>();
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return files;
+        }
+        for (File child : children) {
+            String name = child.getName();
+            if (name.startsWith(prefix) && name.endsWith(suffix)) {
+                files.add(child);
+            }
+        }
+        // the indices are zero-padded
+        files.sort((f1, f2) -> f1.getName().compareTo(f2.getName()));
+        return files;
+    }
+
+    static int recordSize(byte[] payload) {
+        return RECORD_HEADER_SIZE + payload.length;
+    }
+
+    static void writeRecord(ByteBuffer buffer, byte[] payload) {
+        buffer.putInt(payload.length);
+        buffer.putInt(checksum(payload));
+        buffer.put(payload);
+    }
+
+    /**
+     * Visits the valid records of the given file, in order.
+     *
+     * @return the end offset of the last valid record
+     */
+    static long scan(File file, RecordVisitor visitor) throws IOException {
+        long offset = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file),
+                READ_BUFFER_SIZE))) {
+            long size = file.length();
+            while (offset + RECORD_HEADER_SIZE <= size) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || offset + RECORD_HEADER_SIZE + length > size) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                if (!readFully(in, payload) || checksum(payload) != checksum) {
+                    break;
+                }
+                visitor.visit(offset, payload);
+                offset += RECORD_HEADER_SIZE + length;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * @return the payload of the first record of the given file or
+     * {@code null} if the file doesn't exist or has no valid record
+     */
+    static byte[] readSingleRecord(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        byte[][] result = new byte[1][];
+        scan(file, (offset, payload) -> {
+            if (result[0] == null) {
+                result[0] = payload;
+            }
+        });
+        return result[0];
+    }
+
+    /**
+     * Writes the given payload as the only record of the given file. The
+     * record is written to a temporary file which replaces the file once it
+     * is durable, so a crash leaves either the old or the new file.
+     */
+    static void writeSingleRecordAtomically(File directory, String fileName, byte[] payload) throws IOException {
+        File tmp = new File(directory, fileName + TMP_SUFFIX);
+        ByteBuffer buffer = ByteBuffer.allocate(recordSize(payload));
+        writeRecord(buffer, payload);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(tmp.toPath(), CREATE, WRITE, TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp.toPath(), new File(directory, fileName).toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+        syncDirectory(directory);
+    }
+
+    /**
+     * Makes the creation, removal and renaming of the files of the given
+     * directory durable, where the platform allows it.
+     */
+    static void syncDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not supported on every platform
+            EmptyStatement.ignore(e);
+        }
+    }
+
+    static void deleteFile(File file) throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    private static boolean readFully(DataInputStream in, byte[] payload) throws IOException {
+        try {
+            in.readFully(payload);
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+}
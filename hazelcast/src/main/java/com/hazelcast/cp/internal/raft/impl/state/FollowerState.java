@@ -18,6 +18,10 @@ package com.hazelcast.cp.internal.raft.impl.state;
 
 import com.hazelcast.internal.util.Clock;
 
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 /**
@@ -31,6 +35,13 @@ import static java.lang.Math.min;
  * <li>{@code appendRequestBackoff}: a boolean flag indicating that leader is still
  * waiting for a response to the last sent append request</li>
  * </ul>
+ * Once the leader learns the follower's {@code matchIndex}, it can pipeline
+ * append requests, i.e. advance {@code nextIndex} as soon as it sends a batch
+ * of entries instead of waiting for the response. The append requests sent
+ * this way are tracked as in-flight until they are acknowledged.
+ * <p>
+ * The leader also keeps the send time of the latest append request
+ * the follower acknowledged, in order to maintain its leader lease.
  */
 public class FollowerState {
 
@@ -46,6 +57,20 @@ public class FollowerState {
 
     private long appendRequestAckTimestamp;
 
+    private final Queue<InFlightAppendRequest> inFlightAppendRequests = new ArrayDeque<>();
+
+    private long inFlightEntryCount;
+
+    private long ackedAppendRequestCount;
+
+    private long totalAppendLatencyNanos;
+
+    private long maxAppendLatencyNanos;
+
+    private boolean leaseAcked;
+
+    private long leaseAckRequestTimestamp;
+
     FollowerState(long matchIndex, long nextIndex) {
         this.matchIndex = matchIndex;
         this.nextIndex = nextIndex;
@@ -133,9 +158,123 @@ public class FollowerState {
         return appendRequestAckTimestamp;
     }
 
+    /**
+     * Registers an append request that carries the entries between
+     * {@code firstIndex} and {@code lastIndex}, both inclusive, and advances
+     * {@code nextIndex} beyond them without waiting for the response.
+     */
+    public void appendRequestSent(long firstIndex, long lastIndex) {
+        inFlightAppendRequests.offer(new InFlightAppendRequest(lastIndex, lastIndex - firstIndex + 1, System.nanoTime()));
+        inFlightEntryCount += lastIndex - firstIndex + 1;
+        nextIndex = max(nextIndex, lastIndex + 1);
+    }
+
+    /**
+     * Completes the in-flight append requests whose entries are covered
+     * by the given match index, and records their latencies.
+     */
+    public void completeInFlightAppendRequests(long matchIndex) {
+        long now = System.nanoTime();
+        InFlightAppendRequest request;
+        while ((request = inFlightAppendRequests.peek()) != null && request.lastIndex <= matchIndex) {
+            inFlightAppendRequests.poll();
+            inFlightEntryCount -= request.entryCount;
+            long latency = now - request.sendTimeNanos;
+            ackedAppendRequestCount++;
+            totalAppendLatencyNanos += latency;
+            maxAppendLatencyNanos = max(maxAppendLatencyNanos, latency);
+        }
+    }
+
+    /**
+     * Drops the in-flight append requests, which are either lost or rejected
+     * by the follower, and moves {@code nextIndex} back to the entry after
+     * {@code matchIndex} so that their entries are sent again.
+     */
+    public void resetInFlightAppendRequests() {
+        inFlightAppendRequests.clear();
+        inFlightEntryCount = 0;
+        nextIndex = matchIndex + 1;
+    }
+
+    /**
+     * Returns the number of append requests sent to the follower
+     * but not acknowledged yet.
+     */
+    public int inFlightAppendRequestCount() {
+        return inFlightAppendRequests.size();
+    }
+
+    /**
+     * Returns the number of entries sent to the follower
+     * but not acknowledged yet.
+     */
+    public long inFlightEntryCount() {
+        return inFlightEntryCount;
+    }
+
+    /**
+     * Returns the number of append requests acknowledged by the follower.
+     */
+    public long ackedAppendRequestCount() {
+        return ackedAppendRequestCount;
+    }
+
+    /**
+     * Returns the sum of the round trip times of the append requests
+     * acknowledged by the follower.
+     */
+    public long totalAppendLatencyNanos() {
+        return totalAppendLatencyNanos;
+    }
+
+    /**
+     * Returns the maximum round trip time of the append requests
+     * acknowledged by the follower since the last call, and resets it.
+     */
+    public long getAndResetMaxAppendLatencyNanos() {
+        long latency = maxAppendLatencyNanos;
+        maxAppendLatencyNanos = 0;
+        return latency;
+    }
+
+    /**
+     * Records that the follower acknowledged an append request sent
+     * at the given {@link System#nanoTime()} of the leader.
+     */
+    public void leaseAckReceived(long requestTimestamp) {
+        if (!leaseAcked || requestTimestamp - leaseAckRequestTimestamp > 0) {
+            leaseAcked = true;
+            leaseAckRequestTimestamp = requestTimestamp;
+        }
+    }
+
+    /**
+     * Returns the time elapsed since the leader sent the latest append
+     * request acknowledged by the follower, or {@link Long#MAX_VALUE}
+     * if the follower has not acknowledged any append request yet.
+     */
+    public long leaseAckAgeNanos(long nowNanos) {
+        return leaseAcked ? nowNanos - leaseAckRequestTimestamp : Long.MAX_VALUE;
+    }
+
     @Override
     public String toString() {
         return "FollowerState{" + "matchIndex=" + matchIndex + ", nextIndex=" + nextIndex + ", backoffRound=" + backoffRound
-                + ", nextBackoffPower=" + nextBackoffPower + ", appendRequestAckTime=" + appendRequestAckTimestamp + '}';
+                + ", nextBackoffPower=" + nextBackoffPower + ", appendRequestAckTime=" + appendRequestAckTimestamp
+                + ", inFlightAppendRequestCount=" + inFlightAppendRequests.size() + ", inFlightEntryCount=" + inFlightEntryCount
+                + '}';
+    }
+
+    private static final class InFlightAppendRequest {
+        final long lastIndex;
+        final long entryCount;
+        final long sendTimeNanos;
+
+        InFlightAppendRequest(long lastIndex, long entryCount, long sendTimeNanos) {
+            this.lastIndex = lastIndex;
+            this.entryCount = entryCount;
+            this.sendTimeNanos = sendTimeNanos;
+        }
     }
 }
@@ -104,6 +104,31 @@ public class LeaderState {
         return flushedLogIndex;
     }
 
+    /**
+     * Returns the age of the leader lease, i.e., the time elapsed since
+     * the leader sent the oldest of the latest append requests acknowledged
+     * by the majority nodes, including the leader itself. Returns
+     * {@link Long#MAX_VALUE} if the majority has not acknowledged
+     * any append request yet.
+     * <p>
+     * Once a follower acknowledges an append request, it does not grant
+     * its vote to another candidate for a leader election timeout. Hence,
+     * no other leader can be elected until the lease age exceeds the leader
+     * election timeout, minus the clock drift between the members.
+     */
+    public long leaseAgeNanos(int majority, long nowNanos) {
+        long[] ackAges = new long[followerStates.size() + 1];
+        int i = 0;
+        ackAges[i] = 0;
+        for (FollowerState followerState : followerStates.values()) {
+            ackAges[++i] = followerState.leaseAckAgeNanos(nowNanos);
+        }
+
+        Arrays.sort(ackAges);
+
+        return ackAges[majority - 1];
+    }
+
     /**
      * Returns the earliest append response ack timestamp of the majority nodes
      */
@@ -150,6 +150,12 @@ public final class RaftState {
      */
     private LeadershipTransferState leadershipTransferState;
 
+    /**
+     * State of the queries waiting for the read index learnt from the leader.
+     * Maintained regardless of the role of the local Raft node.
+     */
+    private final ReadIndexState readIndexState = new ReadIndexState();
+
     private RaftState(CPGroupId groupId, RaftEndpoint localEndpoint, Collection<RaftEndpoint> endpoints, int logCapacity,
                       RaftStateStore store) {
         this.groupId = groupId;
@@ -381,6 +387,13 @@ public final class RaftState {
         return leaderState;
     }
 
+    /**
+     * Returns the read index state
+     */
+    public ReadIndexState readIndexState() {
+        return readIndexState;
+    }
+
     /**
      * Returns the candidate state
      */
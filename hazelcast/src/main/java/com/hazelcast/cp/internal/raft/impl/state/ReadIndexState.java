@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.state;
+
+import com.hazelcast.internal.util.BiTuple;
+import com.hazelcast.spi.impl.InternalCompletableFuture;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+
+import static java.lang.Math.max;
+
+/**
+ * This class is used to keep the queries that are executed with
+ * {@link com.hazelcast.cp.internal.raft.QueryPolicy#ANY_READ_INDEX}
+ * until the local Raft node applies the log entries up to their read index.
+ * <p>
+ * The read index is the commit index the leader put into the latest append
+ * request accepted by the local Raft node. Hence, a query reflects all writes
+ * the leader committed before its latest heartbeat, without an extra round
+ * trip to the leader.
+ */
+public class ReadIndexState {
+
+    /**
+     * The maximum commit index known to be committed by a leader.
+     * It never decreases, since a committed log entry is never lost.
+     */
+    private long readIndex;
+
+    /**
+     * Queries waiting for the local Raft node to apply their read indices,
+     * in ascending order of their read indices.
+     */
+    private final Queue<ReadIndexQuery> queries = new ArrayDeque<>();
+
+    /**
+     * Updates the read index with the commit index of the leader.
+     */
+    public void readIndex(long leaderCommitIndex) {
+        readIndex = max(readIndex, leaderCommitIndex);
+    }
+
+    /**
+     * Returns the maximum commit index known to be committed by a leader.
+     */
+    public long readIndex() {
+        return readIndex;
+    }
+
+    /**
+     * Adds the given query to wait for the current read index
+     * and returns the number of queries waiting to be executed.
+     */
+    public int addQuery(Object operation, InternalCompletableFuture resultFuture) {
+        queries.offer(new ReadIndexQuery(readIndex, operation, resultFuture));
+        return queries.size();
+    }
+
+    /**
+     * Returns the number of queries waiting for execution.
+     */
+    public int queryCount() {
+        return queries.size();
+    }
+
+    /**
+     * Removes and returns the queries whose read indices
+     * are not greater than the given last applied index.
+     */
+    public Collection<BiTuple<Object, InternalCompletableFuture>> pollQueries(long lastApplied) {
+        List<BiTuple<Object, InternalCompletableFuture>> operations = new ArrayList<>();
+        ReadIndexQuery query;
+        while ((query = queries.peek()) != null && query.readIndex <= lastApplied) {
+            queries.poll();
+            operations.add(BiTuple.of(query.operation, query.resultFuture));
+        }
+
+        return operations;
+    }
+
+    /**
+     * Removes and returns all waiting queries.
+     */
+    public Collection<BiTuple<Object, InternalCompletableFuture>> pollAllQueries() {
+        return pollQueries(Long.MAX_VALUE);
+    }
+
+    @Override
+    public String toString() {
+        return "ReadIndexState{" + "readIndex=" + readIndex + ", queryCount=" + queries.size() + '}';
+    }
+
+    private static final class ReadIndexQuery {
+        final long readIndex;
+        final Object operation;
+        final InternalCompletableFuture resultFuture;
+
+        ReadIndexQuery(long readIndex, Object operation, InternalCompletableFuture resultFuture) {
+            this.readIndex = readIndex;
+            this.operation = operation;
+            this.resultFuture = resultFuture;
+        }
+    }
+}
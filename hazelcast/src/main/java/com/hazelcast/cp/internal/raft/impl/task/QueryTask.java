@@ -25,6 +25,7 @@ import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
 import com.hazelcast.cp.internal.raft.impl.RaftNodeImpl;
 import com.hazelcast.cp.internal.raft.impl.state.QueryState;
 import com.hazelcast.cp.internal.raft.impl.state.RaftState;
+import com.hazelcast.cp.internal.raft.impl.state.ReadIndexState;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.impl.InternalCompletableFuture;
 
@@ -71,6 +72,9 @@ public class QueryTask implements Runnable {
                 case ANY_LOCAL:
                     handleAnyLocalRead();
                     break;
+                case ANY_READ_INDEX:
+                    handleReadIndexRead();
+                    break;
                 case LINEARIZABLE:
                     handleLinearizableRead();
                     break;
@@ -109,6 +113,38 @@ public class QueryTask implements Runnable {
         raftNode.runQuery(operation, resultFuture);
     }
 
+    private void handleReadIndexRead() {
+        RaftState state = raftNode.state();
+        if (state.role() == LEADER) {
+            handleAnyLocalRead();
+            return;
+        }
+
+        if (!raftNode.canQueryReadIndex()) {
+            resultFuture.completeExceptionally(
+                    new NotLeaderException(raftNode.getGroupId(), raftNode.getLocalMember(), state.leader()));
+            return;
+        }
+
+        ReadIndexState readIndexState = state.readIndexState();
+        if (state.lastApplied() >= readIndexState.readIndex()) {
+            handleAnyLocalRead();
+            return;
+        }
+
+        if (!raftNode.canAddReadIndexQuery()) {
+            resultFuture.completeExceptionally(new CannotReplicateException(state.leader()));
+            return;
+        }
+
+        if (logger.isFineEnabled()) {
+            logger.fine("Adding query at read index: " + readIndexState.readIndex() + ", last applied: "
+                    + state.lastApplied());
+        }
+
+        readIndexState.addQuery(operation, resultFuture);
+    }
+
     private void handleLinearizableRead() {
         if (!raftNode.isLinearizableReadOptimizationEnabled()) {
             new ReplicateTask(raftNode, operation, resultFuture).run();
@@ -122,6 +158,15 @@ public class QueryTask implements Runnable {
             return;
         }
 
+        if (raftNode.isLeaderLeaseValid()) {
+            if (logger.isFineEnabled()) {
+                logger.fine("Querying: " + operation + " with leader lease at commit index: " + state.commitIndex());
+            }
+
+            raftNode.runQuery(operation, resultFuture);
+            return;
+        }
+
         if (!raftNode.canQueryLinearizable()) {
             resultFuture.completeExceptionally(new CannotReplicateException(state.leader()));
             return;
@@ -97,7 +97,7 @@ public class ReplicateTask implements Runnable {
 
             preApplyRaftGroupCmd(newEntryLogIndex, operation);
 
-            raftNode.broadcastAppendRequest();
+            raftNode.submitBroadcastAppendRequest();
         } catch (Throwable t) {
             logger.severe(operation + " could not be replicated to leader: " + raftNode.getLocalMember(), t);
             RaftEndpoint leader = raftNode.getLeader();
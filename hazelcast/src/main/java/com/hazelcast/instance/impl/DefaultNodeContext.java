@@ -41,9 +41,14 @@ import java.util.List;
 import java.util.Properties;
 
 import static com.hazelcast.config.ConfigAccessor.getActiveMemberNetworkConfig;
+import static com.hazelcast.internal.util.ThreadAffinity.newThreadAffinity;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_BALANCER_INTERVAL_SECONDS;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_INPUT_THREAD_AFFINITY;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_INPUT_THREAD_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_OUTPUT_THREAD_AFFINITY;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_OUTPUT_THREAD_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_COALESCING_MAX_FRAMES;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_COALESCING_WINDOW_MICROS;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_THROUGH_ENABLED;
 import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
@@ -178,6 +183,10 @@ public class DefaultNodeContext implements NodeContext {
                         .outputThreadCount(props.getInteger(IO_OUTPUT_THREAD_COUNT))
                         .balancerIntervalSeconds(props.getInteger(IO_BALANCER_INTERVAL_SECONDS))
                         .writeThroughEnabled(props.getBoolean(IO_WRITE_THROUGH_ENABLED))
+                        .writeCoalescingWindowNanos(props.getNanos(IO_WRITE_COALESCING_WINDOW_MICROS))
+                        .writeCoalescingMaxFrames(props.getInteger(IO_WRITE_COALESCING_MAX_FRAMES))
+                        .inputThreadAffinity(newThreadAffinity(props.getString(IO_INPUT_THREAD_AFFINITY)))
+                        .outputThreadAffinity(newThreadAffinity(props.getString(IO_OUTPUT_THREAD_AFFINITY)))
                         .concurrencyDetection(node.nodeEngine.getConcurrencyDetection()));
     }
 }
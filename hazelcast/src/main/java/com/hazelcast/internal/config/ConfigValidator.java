@@ -60,6 +60,7 @@ import static com.hazelcast.config.EvictionPolicy.LFU;
 import static com.hazelcast.config.EvictionPolicy.LRU;
 import static com.hazelcast.config.EvictionPolicy.NONE;
 import static com.hazelcast.config.EvictionPolicy.RANDOM;
+import static com.hazelcast.config.EvictionPolicy.TINY_LFU;
 import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.config.MaxSizePolicy.ENTRY_COUNT;
 import static com.hazelcast.config.MaxSizePolicy.FREE_HEAP_PERCENTAGE;
@@ -90,13 +91,13 @@ import static java.lang.String.format;
 @SuppressWarnings({"checkstyle:classfanoutcomplexity", "checkstyle:methodcount"})
 public final class ConfigValidator {
 
-    public static final EnumSet<EvictionPolicy> COMMONLY_SUPPORTED_EVICTION_POLICIES = EnumSet.of(LRU, LFU);
+    public static final EnumSet<EvictionPolicy> COMMONLY_SUPPORTED_EVICTION_POLICIES = EnumSet.of(LRU, LFU, TINY_LFU);
 
     private static final EnumSet<MaxSizePolicy> NEAR_CACHE_SUPPORTED_ON_HEAP_MAX_SIZE_POLICIES
             = EnumSet.of(MaxSizePolicy.ENTRY_COUNT);
 
     private static final EnumSet<EvictionPolicy> MAP_SUPPORTED_EVICTION_POLICIES
-            = EnumSet.of(LRU, LFU, RANDOM, NONE);
+            = EnumSet.of(LRU, LFU, RANDOM, NONE, TINY_LFU);
 
     private static final EnumSet<MaxSizePolicy> MAP_SUPPORTED_NATIVE_MAX_SIZE_POLICIES
             = EnumSet.of(PER_NODE, PER_PARTITION, USED_NATIVE_MEMORY_PERCENTAGE,
@@ -128,10 +129,9 @@ public final class ConfigValidator {
                                       SplitBrainMergePolicyProvider mergePolicyProvider,
                                       HazelcastProperties properties) {
 
-        checkNotNativeWhenOpenSource(mapConfig.getInMemoryFormat());
+        checkMapNativeConfig(mapConfig, nativeMemoryConfig);
 
         if (getBuildInfo().isEnterprise()) {
-            checkMapNativeConfig(mapConfig, nativeMemoryConfig);
             checkHotRestartSpecificConfig(mapConfig, properties);
         }
 
@@ -208,9 +208,10 @@ public final class ConfigValidator {
         if (NATIVE != mapConfig.getInMemoryFormat()) {
             return;
         }
-        checkTrue(nativeMemoryConfig.isEnabled(),
-                format("Enable native memory config to use NATIVE"
-                        + " in-memory-format for the map [%s]", mapConfig.getName()));
+        if (nativeMemoryConfig == null || !nativeMemoryConfig.isEnabled()) {
+            throw new InvalidConfigurationException(format("Enable native memory config to use NATIVE"
+                    + " in-memory-format for the map [%s]", mapConfig.getName()));
+        }
         checkMapNativeMaxSizePolicy(mapConfig);
     }
 
@@ -315,14 +316,12 @@ public final class ConfigValidator {
      */
     public static void checkNearCacheConfig(String mapName, NearCacheConfig nearCacheConfig,
                                             NativeMemoryConfig nativeMemoryConfig, boolean isClient) {
-        checkNotNativeWhenOpenSource(nearCacheConfig.getInMemoryFormat());
         checkLocalUpdatePolicy(mapName, nearCacheConfig.getLocalUpdatePolicy());
         EvictionConfig evictionConfig = nearCacheConfig.getEvictionConfig();
         checkNearCacheEvictionConfig(evictionConfig.getEvictionPolicy(),
                 evictionConfig.getComparatorClassName(), evictionConfig.getComparator());
         checkOnHeapNearCacheMaxSizePolicy(nearCacheConfig);
-        checkNearCacheNativeMemoryConfig(nearCacheConfig.getInMemoryFormat(),
-                nativeMemoryConfig, getBuildInfo().isEnterprise());
+        checkNearCacheNativeMemoryConfig(nearCacheConfig.getInMemoryFormat(), nativeMemoryConfig);
 
         if (isClient && nearCacheConfig.isCacheLocalEntries()) {
             throw new InvalidConfigurationException("The Near Cache option `cache-local-entries` is not supported in "
@@ -394,13 +393,8 @@ public final class ConfigValidator {
      *
      * @param inMemoryFormat     the {@link InMemoryFormat} of the Near Cache
      * @param nativeMemoryConfig the {@link NativeMemoryConfig} of the Hazelcast instance
-     * @param isEnterprise       {@code true} if the Hazelcast instance is EE, {@code false} otherwise
      */
-    static void checkNearCacheNativeMemoryConfig(InMemoryFormat inMemoryFormat, NativeMemoryConfig nativeMemoryConfig,
-                                                 boolean isEnterprise) {
-        if (!isEnterprise) {
-            return;
-        }
+    static void checkNearCacheNativeMemoryConfig(InMemoryFormat inMemoryFormat, NativeMemoryConfig nativeMemoryConfig) {
         if (inMemoryFormat != NATIVE) {
             return;
         }
@@ -2989,6 +2989,12 @@ public class MemberDomConfigProcessor extends AbstractDomConfigProcessor {
                 raftAlgorithmConfig.setUncommittedEntryCountToRejectNewAppends(Integer.parseInt(value));
             } else if ("append-request-backoff-timeout-in-millis".equals(nodeName)) {
                 raftAlgorithmConfig.setAppendRequestBackoffTimeoutInMillis(Long.parseLong(value));
+            } else if ("append-request-max-in-flight-count".equals(nodeName)) {
+                raftAlgorithmConfig.setAppendRequestMaxInFlightCount(Integer.parseInt(value));
+            } else if ("leader-lease-enabled".equals(nodeName)) {
+                raftAlgorithmConfig.setLeaderLeaseEnabled(getBooleanValue(value));
+            } else if ("leader-lease-clock-drift-tolerance-in-millis".equals(nodeName)) {
+                raftAlgorithmConfig.setLeaderLeaseClockDriftToleranceInMillis(Long.parseLong(value));
             }
         }
     }
@@ -138,6 +138,21 @@ class DynamicCPSubsystemConfig extends CPSubsystemConfig {
         public RaftAlgorithmConfig setUncommittedEntryCountToRejectNewAppends(int uncommittedEntryCountToRejectNewAppends) {
             throw new UnsupportedOperationException();
         }
+
+        @Override
+        public RaftAlgorithmConfig setAppendRequestMaxInFlightCount(int appendRequestMaxInFlightCount) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RaftAlgorithmConfig setLeaderLeaseEnabled(boolean leaderLeaseEnabled) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RaftAlgorithmConfig setLeaderLeaseClockDriftToleranceInMillis(long leaderLeaseClockDriftToleranceInMillis) {
+            throw new UnsupportedOperationException();
+        }
     }
 
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.comparator;
+
+import com.hazelcast.internal.eviction.impl.sketch.FrequencySketch;
+import com.hazelcast.internal.serialization.SerializableByConvention;
+import com.hazelcast.internal.util.SampleableConcurrentHashMap.SamplingEntry;
+import com.hazelcast.spi.eviction.EvictableEntryView;
+import com.hazelcast.spi.eviction.EvictionPolicyComparator;
+
+/**
+ * {@link com.hazelcast.config.EvictionPolicy#TINY_LFU}
+ * policy based {@link EvictionPolicyComparator}.
+ * <p>
+ * Unlike the other policies, which rank the entries by their own access
+ * statistics, TinyLFU ranks them by the access frequencies recorded in a
+ * {@link FrequencySketch}, which also remembers the keys which are not
+ * stored at the moment. The sampled entry with the lowest estimated
+ * frequency is evicted, the least recently accessed one breaks the ties.
+ * The stores using this policy report the accesses with {@link
+ * #recordAccess(Object)} and may consult {@link #admit(Object, Object)}
+ * before adding a new key when they are full, which makes them resistant
+ * to scans: a key read once does not displace a frequently read one.
+ * <p>
+ * Unlike the stateless comparators of the other policies, each instance
+ * has its own sketch and belongs to a single data structure.
+ */
+@SerializableByConvention
+public class TinyLfuEvictionPolicyComparator
+        implements EvictionPolicyComparator<Object, Object, EvictableEntryView<Object, Object>> {
+
+    private transient volatile FrequencySketch sketch = new FrequencySketch(0);
+    private transient volatile long maximumSize = Long.MAX_VALUE;
+
+    /**
+     * Limits the number of keys the sketch grows to track, usually to the
+     * maximum size of the store. Expected to be called when the store is
+     * set up.
+     *
+     * @param maximumSize the maximum number of entries of the store
+     */
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Grows the sketch to track the given number of keys, but not more than
+     * the maximum size. The sketch starts small and is grown by the store as
+     * its entries are added, so a store with a high or no size limit pays
+     * only for the entries it actually has. The recorded frequencies are
+     * kept when the sketch grows.
+     *
+     * @param entryCount the current number of entries of the store
+     */
+    public void ensureCapacity(long entryCount) {
+        FrequencySketch current = sketch;
+        long expectedSize = Math.min(entryCount, maximumSize);
+        if (expectedSize > current.capacity()) {
+            sketch = current.grow(expectedSize);
+        }
+    }
+
+    /**
+     * @return the number of 64-bit slots of the sketch
+     */
+    public int capacity() {
+        return sketch.capacity();
+    }
+
+    /**
+     * Records an access to the given key, which may or may not be stored.
+     *
+     * @param key the key as it is stored, see {@link #keyOf(EvictableEntryView)}
+     */
+    public void recordAccess(Object key) {
+        sketch.increment(key.hashCode());
+    }
+
+    /**
+     * @return the estimated number of recent accesses to the given key
+     */
+    public int frequency(Object key) {
+        return sketch.frequency(key.hashCode());
+    }
+
+    /**
+     * Decides whether a new key may replace the eviction victim.
+     *
+     * @param candidateKey the key about to be added
+     * @param victimKey    the key of the entry that would be evicted for it
+     * @return {@code true} if the candidate was accessed more frequently
+     * than the victim, {@code false} otherwise
+     */
+    public boolean admit(Object candidateKey, Object victimKey) {
+        return frequency(candidateKey) > frequency(victimKey);
+    }
+
+    /**
+     * Clears the recorded frequencies.
+     */
+    public void clear() {
+        sketch.clear();
+    }
+
+    @Override
+    public int compare(EvictableEntryView e1, EvictableEntryView e2) {
+        int result = Integer.compare(frequency(keyOf(e1)), frequency(keyOf(e2)));
+        if (result != 0) {
+            return result;
+        }
+        // if frequencies are same, we try to select least recently used entry to evict
+        result = Long.compare(e1.getLastAccessTime(), e2.getLastAccessTime());
+        return result == 0 ? Long.compare(e1.getCreationTime(), e2.getCreationTime()) : result;
+    }
+
+    /**
+     * Returns the key of the given entry in the form it is stored in, which
+     * is the form the stores record the accesses with, to avoid
+     * deserializing the sampled keys.
+     */
+    public static Object keyOf(EvictableEntryView entryView) {
+        if (entryView instanceof SamplingEntry) {
+            return ((SamplingEntry) entryView).getEntryKey();
+        }
+        return entryView.getKey();
+    }
+
+    @Override
+    public String toString() {
+        return "TinyLfuEvictionPolicyComparator{" + super.toString() + "} ";
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.sketch;
+
+import static com.hazelcast.internal.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * A count-min sketch estimating how often keys were accessed, as used by
+ * the TinyLFU admission and eviction policy.
+ * <p>
+ * Each key is mapped to four 4-bit counters chosen by independent hashes
+ * and its frequency is the minimum of them, saturating at 15. The counters
+ * are packed 16 to a {@code long}, so the sketch costs 8 bytes per tracked
+ * key and an update touches four slots of the table only. The counters
+ * are aged by halving all of them once the number of recorded accesses
+ * reaches ten times the table capacity, so that the sketch follows the
+ * changes in popularity and stale hot keys lose their advantage.
+ * <p>
+ * The sketch tolerates concurrent access without synchronization: the
+ * updates racing with each other or with the aging may be lost, which only
+ * makes the estimates a bit less precise.
+ */
+public final class FrequencySketch {
+
+    /**
+     * The maximum value of a counter.
+     */
+    public static final int MAX_FREQUENCY = 15;
+
+    static final int MIN_CAPACITY = 1 << 6;
+    static final int MAX_CAPACITY = 1 << 22;
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L,
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final long COUNTER_MASK = 0xfL;
+    private static final int SAMPLE_SIZE_MULTIPLIER = 10;
+    private static final int SPREAD_MULTIPLIER = 0x45d9f3b;
+    private static final int DEPTH = 4;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * @param expectedSize the expected number of distinct keys tracked at
+     *                     a time, usually the maximum size of the store
+     */
+    public FrequencySketch(long expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        this.table = new long[capacity];
+        this.tableMask = capacity - 1;
+        this.sampleSize = SAMPLE_SIZE_MULTIPLIER * capacity;
+    }
+
+    /**
+     * Records an access to the key with the given hash code.
+     */
+    public void increment(int hashCode) {
+        int hash = spread(hashCode);
+        int start = (hash & (DEPTH - 1)) << 2;
+
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * @return the estimated number of recent accesses to the key with the
+     * given hash code, at most {@link #MAX_FREQUENCY}
+     */
+    public int frequency(int hashCode) {
+        int hash = spread(hashCode);
+        int start = (hash & (DEPTH - 1)) << 2;
+
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < DEPTH; i++) {
+            int offset = (start + i) << 2;
+            int count = (int) ((table[indexOf(hash, i)] >>> offset) & COUNTER_MASK);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Returns a copy of this sketch with a table large enough to track the
+     * given number of keys. A slot of the larger table maps to the slot of
+     * this table with the same low bits, so repeating this table in it
+     * keeps the estimates of the keys recorded so far.
+     *
+     * @param expectedSize the expected number of distinct keys tracked at
+     *                     a time
+     * @return the grown copy, or this sketch if it is large enough already
+     */
+    public FrequencySketch grow(long expectedSize) {
+        if (capacityFor(expectedSize) <= table.length) {
+            return this;
+        }
+        FrequencySketch grown = new FrequencySketch(expectedSize);
+        for (int i = 0; i < grown.table.length; i++) {
+            grown.table[i] = table[i & tableMask];
+        }
+        grown.size = size;
+        return grown;
+    }
+
+    /**
+     * Clears all the counters.
+     */
+    public void clear() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = 0;
+        }
+        size = 0;
+    }
+
+    /**
+     * @return the number of 64-bit slots of the table
+     */
+    public int capacity() {
+        return table.length;
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = COUNTER_MASK << offset;
+        long slot = table[index];
+        if ((slot & mask) == mask) {
+            return false;
+        }
+        table[index] = slot + (1L << offset);
+        return true;
+    }
+
+    /**
+     * Halves all the counters. The rounding errors of the odd counters are
+     * subtracted from the size, so that the aging period stays regular.
+     */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = Math.max(0, (size >>> 1) - (odd >>> 2));
+    }
+
+    private static int capacityFor(long expectedSize) {
+        return (int) nextPowerOfTwo(Math.min(Math.max(expectedSize, MIN_CAPACITY), MAX_CAPACITY));
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> Integer.SIZE;
+        return (int) h & tableMask;
+    }
+
+    private static int spread(int hashCode) {
+        int h = ((hashCode >>> Short.SIZE) ^ hashCode) * SPREAD_MULTIPLIER;
+        h = ((h >>> Short.SIZE) ^ h) * SPREAD_MULTIPLIER;
+        return (h >>> Short.SIZE) ^ h;
+    }
+}
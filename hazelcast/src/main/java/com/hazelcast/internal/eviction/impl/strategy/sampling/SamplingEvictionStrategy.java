@@ -72,9 +72,23 @@ public final class SamplingEvictionStrategy<A, E extends Evictable, S extends Sa
     protected boolean evictInternal(S sampleableEvictableStore,
             EvictionPolicyEvaluator<A, E> evictionPolicyEvaluator,
             EvictionListener<A, E> evictionListener) {
-        final Iterable<EvictionCandidate<A, E>> samples = sampleableEvictableStore.sample(SAMPLE_COUNT);
-        final EvictionCandidate<A, E> evictionCandidate = evictionPolicyEvaluator.evaluate(samples);
+        final EvictionCandidate<A, E> evictionCandidate = selectCandidate(sampleableEvictableStore, evictionPolicyEvaluator);
         return sampleableEvictableStore.tryEvict(evictionCandidate, evictionListener);
     }
 
+    /**
+     * Samples the {@link SampleableEvictableStore} and selects the entry
+     * the eviction would evict, without evicting it.
+     *
+     * @param sampleableEvictableStore  {@link SampleableEvictableStore} that holds {@link Evictable} entries
+     * @param evictionPolicyEvaluator   {@link EvictionPolicyEvaluator} to evaluate
+     *
+     * @return the selected candidate or {@code null} if the store is empty
+     */
+    public EvictionCandidate<A, E> selectCandidate(S sampleableEvictableStore,
+            EvictionPolicyEvaluator<A, E> evictionPolicyEvaluator) {
+        final Iterable<EvictionCandidate<A, E>> samples = sampleableEvictableStore.sample(SAMPLE_COUNT);
+        return evictionPolicyEvaluator.evaluate(samples);
+    }
+
 }
@@ -77,6 +77,11 @@ public interface EventJournal<E> {
      */
     void destroy(ObjectNamespace namespace, int partitionId);
 
+    /**
+     * Releases the resources of all event journals on member shutdown.
+     */
+    void shutdown();
+
     /**
      * Checks if the sequence is of an item that can be read immediately
      * or is the sequence of the next item to be added into the event journal.
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.journal;
+
+import com.hazelcast.internal.serialization.DataType;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.services.ObjectNamespace;
+import com.hazelcast.internal.util.ConstructorFunction;
+import com.hazelcast.ringbuffer.impl.ReadResultSetImpl;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.properties.HazelcastProperties;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+
+import static com.hazelcast.internal.nio.IOUtil.deleteQuietly;
+import static com.hazelcast.internal.util.Clock.currentTimeMillis;
+import static com.hazelcast.internal.util.ConcurrencyUtil.getOrPutIfAbsent;
+import static com.hazelcast.spi.properties.ClusterProperty.EVENT_JOURNAL_MAPPED_DIRECTORY;
+import static com.hazelcast.spi.properties.ClusterProperty.EVENT_JOURNAL_MAPPED_MAX_SIZE_MB;
+import static com.hazelcast.spi.properties.ClusterProperty.EVENT_JOURNAL_MAPPED_RETENTION_SECONDS;
+import static com.hazelcast.spi.properties.ClusterProperty.EVENT_JOURNAL_MAPPED_SEGMENT_SIZE_MB;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Keeps the events of the event journals of a service in memory-mapped
+ * segment files, in addition to the ringbuffers which keep the newest
+ * events in memory. The journal implementations append every event to
+ * this store and read the events older than the ringbuffer head sequence
+ * from it.
+ * <p>
+ * The segments of each object and partition are kept in their own directory
+ * under the configured {@link com.hazelcast.spi.properties.ClusterProperty#EVENT_JOURNAL_MAPPED_DIRECTORY}.
+ * The segments are local to the member: they are deleted when the journal is
+ * destroyed or the member shuts down and they don't migrate with the
+ * partition. The new partition owner serves only the events kept in the
+ * migrated ringbuffer.
+ * <p>
+ * When a retention time is configured, a periodic task deletes the expired
+ * segments of all journals, including the ones which are neither appended
+ * to nor read.
+ */
+public final class MappedEventJournalStore {
+
+    private static final int MEGABYTE = 1 << 20;
+    private static final long RETENTION_TASK_PERIOD_MILLIS = 1000;
+
+    private final NodeEngine nodeEngine;
+    private final String serviceName;
+    private final File root;
+    private final int segmentSize;
+    private final long retentionMillis;
+    private final long maxSizeBytes;
+    private final ConcurrentMap<ObjectNamespace, MappedJournalLog>[] partitions;
+    private final ConstructorFunction<ObjectNamespace, MappedJournalLog>[] constructors;
+    private final ScheduledFuture<?> retentionTask;
+
+    @SuppressWarnings("unchecked")
+    private MappedEventJournalStore(NodeEngine nodeEngine, String serviceName, File root) {
+        HazelcastProperties properties = nodeEngine.getProperties();
+        this.nodeEngine = nodeEngine;
+        this.serviceName = serviceName;
+        this.root = root;
+        this.segmentSize = properties.getInteger(EVENT_JOURNAL_MAPPED_SEGMENT_SIZE_MB) * MEGABYTE;
+        this.retentionMillis = properties.getMillis(EVENT_JOURNAL_MAPPED_RETENTION_SECONDS);
+        this.maxSizeBytes = (long) properties.getInteger(EVENT_JOURNAL_MAPPED_MAX_SIZE_MB) * MEGABYTE;
+
+        int partitionCount = nodeEngine.getPartitionService().getPartitionCount();
+        this.partitions = new ConcurrentMap[partitionCount];
+        this.constructors = new ConstructorFunction[partitionCount];
+        for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            partitions[partitionId] = new ConcurrentHashMap<>();
+            int id = partitionId;
+            constructors[partitionId] = namespace -> new MappedJournalLog(directoryOf(namespace, id),
+                    nodeEngine.getSerializationService(), segmentSize, retentionMillis, maxSizeBytes);
+        }
+        this.retentionTask = retentionMillis > 0
+                ? nodeEngine.getExecutionService().scheduleWithRepetition(this::retainAll,
+                RETENTION_TASK_PERIOD_MILLIS, RETENTION_TASK_PERIOD_MILLIS, MILLISECONDS)
+                : null;
+    }
+
+    /**
+     * Creates the store of the event journals of the given service.
+     *
+     * @return the store or {@code null} if the memory-mapped event journal
+     * storage is not configured
+     */
+    public static MappedEventJournalStore create(NodeEngine nodeEngine, String serviceName) {
+        String directory = nodeEngine.getProperties().getString(EVENT_JOURNAL_MAPPED_DIRECTORY);
+        if (directory == null || directory.trim().isEmpty()) {
+            return null;
+        }
+        return new MappedEventJournalStore(nodeEngine, serviceName, new File(directory.trim()));
+    }
+
+    /**
+     * Appends the journal event which was added to the ringbuffer with the
+     * given sequence.
+     */
+    public void append(ObjectNamespace namespace, int partitionId, long sequence, Object event) {
+        InternalSerializationService serializationService
+                = (InternalSerializationService) nodeEngine.getSerializationService();
+        getOrPutIfAbsent(partitions[partitionId], namespace, constructors[partitionId])
+                .append(sequence, serializationService.toData(event, DataType.HEAP), currentTimeMillis());
+    }
+
+    /**
+     * @param headSequence the head sequence of the journal ringbuffer
+     * @return the sequence of the oldest event readable from the store or
+     * the ringbuffer
+     */
+    public long oldestSequence(ObjectNamespace namespace, int partitionId, long headSequence) {
+        MappedJournalLog log = partitions[partitionId].get(namespace);
+        return log == null ? headSequence : log.oldestSequence(headSequence, currentTimeMillis());
+    }
+
+    /**
+     * @param headSequence the head sequence of the journal ringbuffer
+     * @return {@code true} if the given sequence is older than the ringbuffer
+     * head sequence and readable from the store
+     */
+    public boolean contains(ObjectNamespace namespace, int partitionId, long sequence, long headSequence) {
+        return sequence < headSequence && sequence >= oldestSequence(namespace, partitionId, headSequence);
+    }
+
+    /**
+     * Reads the events older than the ringbuffer head sequence, starting
+     * with the given sequence.
+     *
+     * @param headSequence the head sequence of the journal ringbuffer
+     * @return the sequence of the next event to read
+     */
+    public long readMany(ObjectNamespace namespace, int partitionId, long beginSequence, long headSequence,
+                         ReadResultSetImpl resultSet) {
+        MappedJournalLog log = partitions[partitionId].get(namespace);
+        return log == null ? beginSequence : log.readMany(beginSequence, headSequence, resultSet, currentTimeMillis());
+    }
+
+    /**
+     * Deletes the segments which exceeded the retention time.
+     */
+    public void cleanup(ObjectNamespace namespace, int partitionId) {
+        MappedJournalLog log = partitions[partitionId].get(namespace);
+        if (log != null) {
+            log.retain(currentTimeMillis());
+        }
+    }
+
+    public void destroy(ObjectNamespace namespace, int partitionId) {
+        MappedJournalLog log = partitions[partitionId].remove(namespace);
+        if (log != null) {
+            log.destroy();
+        }
+    }
+
+    /**
+     * Deletes the segments of all journals.
+     */
+    public void shutdown() {
+        if (retentionTask != null) {
+            retentionTask.cancel(false);
+        }
+        for (ConcurrentMap<ObjectNamespace, MappedJournalLog> logs : partitions) {
+            for (MappedJournalLog log : logs.values()) {
+                log.destroy();
+            }
+            logs.clear();
+        }
+        deleteQuietly(serviceDirectory());
+    }
+
+    private void retainAll() {
+        long now = currentTimeMillis();
+        for (ConcurrentMap<ObjectNamespace, MappedJournalLog> logs : partitions) {
+            for (MappedJournalLog log : logs.values()) {
+                log.retain(now);
+            }
+        }
+    }
+
+    // for testing
+    int segmentCount(ObjectNamespace namespace, int partitionId) {
+        MappedJournalLog log = partitions[partitionId].get(namespace);
+        return log == null ? 0 : log.segmentCount();
+    }
+
+    private File directoryOf(ObjectNamespace namespace, int partitionId) {
+        return new File(new File(serviceDirectory(), encode(namespace.getObjectName())), Integer.toString(partitionId));
+    }
+
+    private File serviceDirectory() {
+        File member = new File(root, nodeEngine.getLocalMember().getUuid().toString());
+        return new File(member, serviceName);
+    }
+
+    private static String encode(String name) {
+        try {
+            return URLEncoder.encode(name, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.journal;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.ringbuffer.impl.ReadResultSetImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.internal.journal.MappedJournalSegment.RECORD_HEADER_SIZE;
+
+/**
+ * The memory-mapped segments of the event journal of a single object and
+ * partition. The segments keep a contiguous range of sequences ending with
+ * the newest appended event. Appending an event which doesn't continue the
+ * range, e.g. after the partition migrated away and back, discards the
+ * segments and starts a new range.
+ * <p>
+ * The oldest segments are deleted once they exceed the retention time or
+ * the maximum size. The retention is checked when a segment is created,
+ * before the segments are read and periodically by the owning store, so
+ * the segments of an idle journal expire too. The segment being appended
+ * to is never deleted, so the segments always cover the newest events kept
+ * in memory.
+ */
+final class MappedJournalLog {
+
+    private final File directory;
+    private final SerializationService serializationService;
+    private final int segmentSize;
+    private final long retentionMillis;
+    private final long maxSegmentCount;
+    private final List<MappedJournalSegment> segments = new ArrayList<>();
+
+    MappedJournalLog(File directory, SerializationService serializationService, int segmentSize,
+                     long retentionMillis, long maxSizeBytes) {
+        this.directory = directory;
+        this.serializationService = serializationService;
+        this.segmentSize = segmentSize;
+        this.retentionMillis = retentionMillis;
+        this.maxSegmentCount = Math.max(1, maxSizeBytes / segmentSize);
+    }
+
+    /**
+     * Appends the event with the given sequence to the newest segment or to
+     * a new segment if the newest one is full. An event which doesn't fit
+     * into a segment is not kept and discards the segments, as they would
+     * no longer be contiguous.
+     */
+    synchronized void append(long sequence, Data event, long now) {
+        byte[] bytes = event.toByteArray();
+        MappedJournalSegment active = activeSegment();
+        if (active != null && active.nextSequence() != sequence || RECORD_HEADER_SIZE + bytes.length > segmentSize) {
+            deleteSegments();
+            active = null;
+            if (RECORD_HEADER_SIZE + bytes.length > segmentSize) {
+                return;
+            }
+        }
+        if (active == null || !active.append(bytes, now)) {
+            newSegment(sequence).append(bytes, now);
+            retain(now);
+        }
+    }
+
+    /**
+     * @param headSequence the oldest sequence kept in memory
+     * @param now          the current time, used to delete the expired segments first
+     * @return the oldest sequence readable either from the segments or from
+     * the memory
+     */
+    synchronized long oldestSequence(long headSequence, long now) {
+        retain(now);
+        MappedJournalSegment active = activeSegment();
+        if (active == null || active.nextSequence() < headSequence) {
+            return headSequence;
+        }
+        return Math.min(segments.get(0).baseSequence(), headSequence);
+    }
+
+    /**
+     * Reads the events from the segments, starting with the given sequence
+     * up to the given head sequence, the oldest sequence kept in memory.
+     * The events are added to the result set deserialized, as the events
+     * read from the journal ringbuffers. The expired segments are deleted
+     * first, so no event older than the retention time is returned.
+     *
+     * @return the sequence of the next event to read
+     */
+    synchronized long readMany(long beginSequence, long headSequence, ReadResultSetImpl resultSet, long now) {
+        retain(now);
+        long sequence = beginSequence;
+        int index = indexOf(sequence);
+        if (index < 0) {
+            return sequence;
+        }
+        for (; index < segments.size(); index++) {
+            MappedJournalSegment segment = segments.get(index);
+            while (sequence < headSequence && segment.contains(sequence)) {
+                resultSet.addItem(sequence, serializationService.toObject(segment.read(sequence)));
+                sequence++;
+                if (resultSet.isMaxSizeReached()) {
+                    return sequence;
+                }
+            }
+            if (sequence >= headSequence) {
+                break;
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Deletes the oldest segments which exceeded the retention time or the
+     * maximum size.
+     */
+    synchronized void retain(long now) {
+        while (segments.size() > 1
+                && (segments.size() > maxSegmentCount
+                || retentionMillis > 0 && segments.get(0).newestTimestamp() < now - retentionMillis)) {
+            segments.remove(0).delete();
+        }
+    }
+
+    synchronized void destroy() {
+        deleteSegments();
+        if (!directory.delete() && directory.exists()) {
+            directory.deleteOnExit();
+        }
+    }
+
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    private int indexOf(long sequence) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            MappedJournalSegment segment = segments.get(middle);
+            if (sequence < segment.baseSequence()) {
+                high = middle - 1;
+            } else if (sequence >= segment.nextSequence()) {
+                low = middle + 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private MappedJournalSegment activeSegment() {
+        return segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    }
+
+    private MappedJournalSegment newSegment(long baseSequence) {
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new HazelcastException("Could not create the event journal directory " + directory);
+        }
+        try {
+            MappedJournalSegment segment = MappedJournalSegment.create(directory, baseSequence, segmentSize);
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new HazelcastException("Could not create the event journal segment in " + directory, e);
+        }
+    }
+
+    private void deleteSegments() {
+        for (MappedJournalSegment segment : segments) {
+            segment.delete();
+        }
+        segments.clear();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.journal;
+
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.nio.serialization.Data;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE;
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE_AVAILABLE;
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.internal.util.EmptyStatement.ignore;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * An append-only, memory-mapped file keeping a contiguous range of event
+ * journal sequences, starting with the {@link #baseSequence()} which is also
+ * the name of the file.
+ * <p>
+ * Each event is kept as a record of its length, its append time and its
+ * serialized bytes. The offsets of the records are indexed on heap, so
+ * an event is located by its sequence without scanning the file.
+ * <p>
+ * Not thread-safe, guarded by the owning {@link MappedJournalLog}.
+ */
+final class MappedJournalSegment {
+
+    static final int RECORD_HEADER_SIZE = INT_SIZE_IN_BYTES + LONG_SIZE_IN_BYTES;
+
+    private static final String FILE_SUFFIX = ".journal";
+    private static final int INITIAL_INDEX_CAPACITY = 256;
+    private static final Method INVOKE_CLEANER = findInvokeCleaner();
+
+    private final File file;
+    private final long baseSequence;
+    private final MappedByteBuffer buffer;
+
+    private int[] offsets = new int[INITIAL_INDEX_CAPACITY];
+    private int count;
+    private int position;
+    private long newestTimestamp;
+
+    private MappedJournalSegment(File file, long baseSequence, MappedByteBuffer buffer) {
+        this.file = file;
+        this.baseSequence = baseSequence;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates the file of a new segment in the given directory and maps it
+     * into memory.
+     *
+     * @param directory    the directory of the segment file
+     * @param baseSequence the sequence of the first event of the segment
+     * @param size         the size of the segment file in bytes
+     * @throws IOException if the file could not be created or mapped
+     */
+    static MappedJournalSegment create(File directory, long baseSequence, int size) throws IOException {
+        File file = new File(directory, String.format("%020d", baseSequence) + FILE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(file.toPath(), CREATE_NEW, READ, WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new MappedJournalSegment(file, baseSequence, buffer);
+        }
+    }
+
+    /**
+     * Appends the serialized event as the {@link #nextSequence()}.
+     *
+     * @return {@code true} if the event was appended, {@code false} if the
+     * segment has no room left for it
+     */
+    boolean append(byte[] event, long timestamp) {
+        int recordSize = RECORD_HEADER_SIZE + event.length;
+        if (position + recordSize > buffer.capacity()) {
+            return false;
+        }
+        buffer.putInt(position, event.length);
+        buffer.putLong(position + INT_SIZE_IN_BYTES, timestamp);
+        ByteBuffer target = buffer.duplicate();
+        target.position(position + RECORD_HEADER_SIZE);
+        target.put(event);
+
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        offsets[count++] = position;
+        position += recordSize;
+        newestTimestamp = timestamp;
+        return true;
+    }
+
+    /**
+     * @return the event with the given sequence, which must be kept by this
+     * segment
+     */
+    Data read(long sequence) {
+        assert contains(sequence) : "Sequence " + sequence + " is not in " + this;
+        int offset = offsets[(int) (sequence - baseSequence)];
+        byte[] event = new byte[buffer.getInt(offset)];
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset + RECORD_HEADER_SIZE);
+        source.get(event);
+        return new HeapData(event);
+    }
+
+    boolean contains(long sequence) {
+        return sequence >= baseSequence && sequence < nextSequence();
+    }
+
+    long baseSequence() {
+        return baseSequence;
+    }
+
+    /**
+     * @return the sequence of the next event appended to this segment
+     */
+    long nextSequence() {
+        return baseSequence + count;
+    }
+
+    /**
+     * @return the append time of the newest event of this segment
+     */
+    long newestTimestamp() {
+        return newestTimestamp;
+    }
+
+    /**
+     * Unmaps the segment and deletes its file.
+     */
+    void delete() {
+        unmap(buffer);
+        if (!file.delete() && file.exists()) {
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * Releases the mapping eagerly where the JVM allows it, otherwise the
+     * mapping is released once the buffer is garbage collected.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (Exception e) {
+            ignore(e);
+        }
+    }
+
+    private static Method findInvokeCleaner() {
+        if (!UNSAFE_AVAILABLE) {
+            return null;
+        }
+        try {
+            return UNSAFE.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (NoSuchMethodException e) {
+            // Java 8
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MappedJournalSegment{"
+                + "file=" + file
+                + ", baseSequence=" + baseSequence
+                + ", count=" + count
+                + '}';
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.GlobalMemoryAccessor;
+import com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry;
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE;
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE_AVAILABLE;
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
+
+/**
+ * {@link MemoryManager} which allocates native memory directly through
+ * {@link sun.misc.Unsafe#allocateMemory(long)} and accesses it through the
+ * platform-aware {@link GlobalMemoryAccessor}.
+ * <p>
+ * The total amount of allocated memory is bounded by the capacity given at
+ * construction time. An allocation request which would exceed the capacity
+ * fails with {@link NativeOutOfMemoryError}. All methods are thread-safe.
+ */
+public class UnsafeMemoryManager implements MemoryManager {
+
+    private final long maxMemory;
+    private final AtomicLong usedMemory = new AtomicLong();
+    private final GlobalMemoryAccessor mem;
+    private final Allocator malloc = new Allocator();
+
+    public UnsafeMemoryManager(long maxMemory) {
+        checkPositive(maxMemory, "maxMemory should be positive");
+        if (!UNSAFE_AVAILABLE || !GlobalMemoryAccessorRegistry.MEM_AVAILABLE) {
+            throw new IllegalStateException("Native memory cannot be allocated since sun.misc.Unsafe is not available");
+        }
+        this.maxMemory = maxMemory;
+        this.mem = GlobalMemoryAccessorRegistry.MEM;
+    }
+
+    @Override
+    public MemoryAllocator getAllocator() {
+        return malloc;
+    }
+
+    @Override
+    public MemoryAccessor getAccessor() {
+        return mem;
+    }
+
+    /**
+     * @return the number of bytes currently allocated from this memory manager
+     */
+    public long getUsedMemory() {
+        return usedMemory.get();
+    }
+
+    /**
+     * @return the maximum number of bytes which can be allocated from this memory manager
+     */
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * @return the number of bytes which can still be allocated from this memory manager
+     */
+    public long getFreeMemory() {
+        return Math.max(0, maxMemory - usedMemory.get());
+    }
+
+    @Override
+    public void dispose() {
+        malloc.dispose();
+    }
+
+    private void reserve(long size) {
+        for (; ; ) {
+            long used = usedMemory.get();
+            long newUsed = used + size;
+            if (newUsed > maxMemory) {
+                throw new NativeOutOfMemoryError("Not enough native memory to allocate " + size
+                        + " bytes. Used: " + used + ", max: " + maxMemory);
+            }
+            if (usedMemory.compareAndSet(used, newUsed)) {
+                return;
+            }
+        }
+    }
+
+    private final class Allocator implements MemoryAllocator {
+
+        @Override
+        public long allocate(long size) {
+            checkPositive(size, "size should be positive");
+            reserve(size);
+            long address;
+            try {
+                address = UNSAFE.allocateMemory(size);
+            } catch (OutOfMemoryError e) {
+                usedMemory.addAndGet(-size);
+                throw new NativeOutOfMemoryError("Cannot allocate " + size + " bytes of native memory", e);
+            }
+            mem.setMemory(address, size, (byte) 0);
+            return address;
+        }
+
+        @Override
+        public long reallocate(long address, long currentSize, long newSize) {
+            long newAddress = allocate(newSize);
+            mem.copyMemory(address, newAddress, Math.min(currentSize, newSize));
+            free(address, currentSize);
+            return newAddress;
+        }
+
+        @Override
+        public void free(long address, long size) {
+            assert address != NULL_ADDRESS : "Attempted to free NULL_ADDRESS";
+            UNSAFE.freeMemory(address);
+            usedMemory.addAndGet(-size);
+        }
+
+        @Override
+        public void dispose() {
+            // Blocks are owned and freed by the data structures which allocated them.
+        }
+    }
+}
@@ -43,6 +43,8 @@ public class NearCacheStatsImpl implements NearCacheStats, JsonSerializable {
             newUpdater(NearCacheStatsImpl.class, "misses");
     private static final AtomicLongFieldUpdater<NearCacheStatsImpl> EVICTIONS =
             newUpdater(NearCacheStatsImpl.class, "evictions");
+    private static final AtomicLongFieldUpdater<NearCacheStatsImpl> ADMISSION_REJECTIONS =
+            newUpdater(NearCacheStatsImpl.class, "admissionRejections");
     private static final AtomicLongFieldUpdater<NearCacheStatsImpl> EXPIRATIONS =
             newUpdater(NearCacheStatsImpl.class, "expirations");
     private static final AtomicLongFieldUpdater<NearCacheStatsImpl> INVALIDATIONS =
@@ -65,6 +67,8 @@ public class NearCacheStatsImpl implements NearCacheStats, JsonSerializable {
     @Probe
     private volatile long evictions;
     @Probe
+    private volatile long admissionRejections;
+    @Probe
     private volatile long expirations;
 
     @Probe
@@ -96,6 +100,7 @@ public class NearCacheStatsImpl implements NearCacheStats, JsonSerializable {
         hits = stats.hits;
         misses = stats.misses;
         evictions = stats.evictions;
+        admissionRejections = stats.admissionRejections;
         expirations = stats.expirations;
         invalidations = stats.invalidations;
         invalidationRequests = stats.invalidationRequests;
@@ -197,6 +202,18 @@ public class NearCacheStatsImpl implements NearCacheStats, JsonSerializable {
         EVICTIONS.incrementAndGet(this);
     }
 
+    /**
+     * @return the number of new entries which were not cached because the
+     * admission policy preferred the entries already cached
+     */
+    public long getAdmissionRejections() {
+        return admissionRejections;
+    }
+
+    public void incrementAdmissionRejections() {
+        ADMISSION_REJECTIONS.incrementAndGet(this);
+    }
+
     @Override
     public long getExpirations() {
         return expirations;
@@ -292,6 +309,7 @@ public class NearCacheStatsImpl implements NearCacheStats, JsonSerializable {
         root.add("hits", hits);
         root.add("misses", misses);
         root.add("evictions", evictions);
+        root.add("admissionRejections", admissionRejections);
         root.add("expirations", expirations);
         root.add("invalidations", invalidations);
         root.add("invalidationEvents", invalidationRequests);
@@ -312,6 +330,7 @@ public class NearCacheStatsImpl implements NearCacheStats, JsonSerializable {
         hits = getLong(json, "hits", -1L);
         misses = getLong(json, "misses", -1L);
         evictions = getLong(json, "evictions", -1L);
+        admissionRejections = getLong(json, "admissionRejections", -1L);
         expirations = getLong(json, "expirations", -1L);
         invalidations = getLong(json, "invalidations", -1L);
         invalidationRequests = getLong(json, "invalidationEvents", -1L);
@@ -333,6 +352,7 @@ public class NearCacheStatsImpl implements NearCacheStats, JsonSerializable {
                 + ", misses=" + misses
                 + ", ratio=" + format("%.1f%%", getRatio())
                 + ", evictions=" + evictions
+                + ", admissionRejections=" + admissionRejections
                 + ", expirations=" + expirations
                 + ", invalidations=" + invalidations
                 + ", invalidationRequests=" + invalidationRequests
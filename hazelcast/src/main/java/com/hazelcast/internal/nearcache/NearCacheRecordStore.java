@@ -130,6 +130,21 @@ public interface NearCacheRecordStore<K, V> extends InitializingObject {
      */
     void doEviction(boolean withoutMaxSizeCheck);
 
+    /**
+     * Applies the admission policy of this record store to a key which is
+     * about to be put. When the record store is full and its eviction
+     * policy supports admission, the key is admitted only if it is more
+     * valuable than the entry the eviction would select, which is then
+     * evicted to make room for it.
+     *
+     * @param key the key of the entry to be put
+     * @return {@code true} if the entry may be put, {@code false} if it
+     * should not be cached
+     */
+    default boolean admit(K key) {
+        return true;
+    }
+
     /**
      * Loads the keys into the Near Cache.
      */
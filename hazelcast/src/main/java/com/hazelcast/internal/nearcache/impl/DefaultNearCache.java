@@ -21,7 +21,9 @@ import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.internal.adapter.DataStructureAdapter;
 import com.hazelcast.internal.nearcache.NearCache;
 import com.hazelcast.internal.nearcache.NearCacheRecordStore;
+import com.hazelcast.internal.memory.impl.UnsafeMemoryManager;
 import com.hazelcast.internal.nearcache.impl.store.NearCacheDataRecordStore;
+import com.hazelcast.internal.nearcache.impl.store.NearCacheNativeRecordStore;
 import com.hazelcast.internal.nearcache.impl.store.NearCacheObjectRecordStore;
 import com.hazelcast.nearcache.NearCacheStats;
 import com.hazelcast.nio.serialization.Data;
@@ -32,8 +34,10 @@ import com.hazelcast.internal.serialization.SerializationService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import static com.hazelcast.config.NearCacheConfig.DEFAULT_MEMORY_FORMAT;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.NOT_RESERVED;
 import static com.hazelcast.internal.util.Preconditions.checkNotInstanceOf;
 
 public class DefaultNearCache<K, V> implements NearCache<K, V> {
@@ -49,6 +53,7 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
 
     private final boolean serializeKeys;
     private final HazelcastProperties properties;
+    private final Supplier<UnsafeMemoryManager> nativeMemoryManagerSupplier;
 
     private volatile boolean preloadDone;
 
@@ -63,6 +68,21 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
                             NearCacheRecordStore<K, V> nearCacheRecordStore,
                             SerializationService serializationService, TaskScheduler scheduler,
                             ClassLoader classLoader, HazelcastProperties properties) {
+        this(name, nearCacheConfig, nearCacheRecordStore, serializationService, scheduler, classLoader, properties,
+                DefaultNearCacheManager.NATIVE_MEMORY_NOT_AVAILABLE);
+    }
+
+    /**
+     * @param nativeMemoryManagerSupplier supplies the memory manager of the
+     *                                    Near Caches with {@link InMemoryFormat#NATIVE}
+     *                                    in-memory-format
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    public DefaultNearCache(String name, NearCacheConfig nearCacheConfig,
+                            NearCacheRecordStore<K, V> nearCacheRecordStore,
+                            SerializationService serializationService, TaskScheduler scheduler,
+                            ClassLoader classLoader, HazelcastProperties properties,
+                            Supplier<UnsafeMemoryManager> nativeMemoryManagerSupplier) {
         this.name = name;
         this.nearCacheConfig = nearCacheConfig;
         this.serializationService = serializationService;
@@ -71,6 +91,7 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
         this.nearCacheRecordStore = nearCacheRecordStore;
         this.serializeKeys = nearCacheConfig.isSerializeKeys();
         this.properties = properties;
+        this.nativeMemoryManagerSupplier = nativeMemoryManagerSupplier;
     }
 
     @Override
@@ -93,6 +114,9 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
                 return new NearCacheDataRecordStore<K, V>(name, nearCacheConfig, serializationService, classLoader);
             case OBJECT:
                 return new NearCacheObjectRecordStore<K, V>(name, nearCacheConfig, serializationService, classLoader);
+            case NATIVE:
+                return new NearCacheNativeRecordStore<K, V>(name, nearCacheConfig, nativeMemoryManagerSupplier.get(),
+                        serializationService, classLoader);
             default:
                 throw new IllegalArgumentException("Invalid in memory format: " + inMemoryFormat);
         }
@@ -122,6 +146,9 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
     public void put(K key, Data keyData, V value, Data valueData) {
         checkKeyFormat(key);
 
+        if (!nearCacheRecordStore.admit(key)) {
+            return;
+        }
         nearCacheRecordStore.doEviction(false);
 
         nearCacheRecordStore.put(key, keyData, value, valueData);
@@ -192,6 +219,9 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
 
     @Override
     public long tryReserveForUpdate(K key, Data keyData) {
+        if (!nearCacheRecordStore.admit(key)) {
+            return NOT_RESERVED;
+        }
         nearCacheRecordStore.doEviction(false);
 
         return nearCacheRecordStore.tryReserveForUpdate(key, keyData);
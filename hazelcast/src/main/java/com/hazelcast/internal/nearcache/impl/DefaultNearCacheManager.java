@@ -19,6 +19,7 @@ package com.hazelcast.internal.nearcache.impl;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.config.NearCachePreloaderConfig;
 import com.hazelcast.internal.adapter.DataStructureAdapter;
+import com.hazelcast.internal.memory.impl.UnsafeMemoryManager;
 import com.hazelcast.internal.nearcache.NearCache;
 import com.hazelcast.internal.nearcache.NearCacheManager;
 import com.hazelcast.nearcache.NearCacheStats;
@@ -33,16 +34,22 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.function.Supplier;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class DefaultNearCacheManager implements NearCacheManager {
 
+    static final Supplier<UnsafeMemoryManager> NATIVE_MEMORY_NOT_AVAILABLE = () -> {
+        throw new IllegalStateException("Native memory is not available for NATIVE in-memory-format Near Caches");
+    };
+
     protected final TaskScheduler scheduler;
     protected final ClassLoader classLoader;
     protected final HazelcastProperties properties;
     protected final SerializationService serializationService;
+    protected final Supplier<UnsafeMemoryManager> nativeMemoryManagerSupplier;
 
     private final Object mutex = new Object();
     private final Queue<ScheduledFuture> preloadTaskFutures = new ConcurrentLinkedQueue<ScheduledFuture>();
@@ -52,6 +59,17 @@ public class DefaultNearCacheManager implements NearCacheManager {
 
     public DefaultNearCacheManager(SerializationService ss, TaskScheduler es,
                                    ClassLoader classLoader, HazelcastProperties properties) {
+        this(ss, es, classLoader, properties, NATIVE_MEMORY_NOT_AVAILABLE);
+    }
+
+    /**
+     * @param nativeMemoryManagerSupplier supplies the memory manager of the Near Caches with
+     *                                    {@link com.hazelcast.config.InMemoryFormat#NATIVE} in-memory-format,
+     *                                    called when the first of them is created
+     */
+    public DefaultNearCacheManager(SerializationService ss, TaskScheduler es,
+                                   ClassLoader classLoader, HazelcastProperties properties,
+                                   Supplier<UnsafeMemoryManager> nativeMemoryManagerSupplier) {
         assert ss != null;
         assert es != null;
 
@@ -59,6 +77,7 @@ public class DefaultNearCacheManager implements NearCacheManager {
         this.scheduler = es;
         this.classLoader = classLoader;
         this.properties = properties;
+        this.nativeMemoryManagerSupplier = nativeMemoryManagerSupplier;
     }
 
     @Override
@@ -99,8 +118,8 @@ public class DefaultNearCacheManager implements NearCacheManager {
     }
 
     protected <K, V> NearCache<K, V> createNearCache(String name, NearCacheConfig nearCacheConfig) {
-        return new DefaultNearCache<K, V>(name, nearCacheConfig, serializationService,
-                scheduler, classLoader, properties);
+        return new DefaultNearCache<K, V>(name, nearCacheConfig, null, serializationService,
+                scheduler, classLoader, properties, nativeMemoryManagerSupplier);
     }
 
     @Override
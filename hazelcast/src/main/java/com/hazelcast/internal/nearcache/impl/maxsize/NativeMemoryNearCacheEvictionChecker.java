@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.maxsize;
+
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.internal.eviction.EvictionChecker;
+import com.hazelcast.internal.memory.impl.UnsafeMemoryManager;
+
+import java.util.function.LongSupplier;
+
+import static com.hazelcast.memory.MemoryUnit.MEGABYTES;
+
+/**
+ * Near Cache max-size policy implementation for the native memory based
+ * policies of {@link com.hazelcast.config.InMemoryFormat#NATIVE} Near Caches:
+ * <ul>
+ * <li>{@link MaxSizePolicy#USED_NATIVE_MEMORY_SIZE}: the native memory used
+ * by the Near Cache in megabytes</li>
+ * <li>{@link MaxSizePolicy#USED_NATIVE_MEMORY_PERCENTAGE}: the native memory
+ * used by the Near Cache as a percentage of the configured native memory</li>
+ * <li>{@link MaxSizePolicy#FREE_NATIVE_MEMORY_SIZE}: the free native memory
+ * in megabytes</li>
+ * <li>{@link MaxSizePolicy#FREE_NATIVE_MEMORY_PERCENTAGE}: the free native
+ * memory as a percentage of the configured native memory</li>
+ * </ul>
+ *
+ * @see EvictionChecker
+ */
+public class NativeMemoryNearCacheEvictionChecker
+        implements EvictionChecker {
+
+    private static final long ONE_HUNDRED = 100;
+
+    private final MaxSizePolicy maxSizePolicy;
+    private final long maxSize;
+    private final LongSupplier usedMemory;
+    private final UnsafeMemoryManager memoryManager;
+
+    /**
+     * @param maxSizePolicy the native memory based max-size policy
+     * @param size          the configured size for the max-size policy
+     * @param usedMemory    supplies the native memory used by the Near Cache in bytes
+     * @param memoryManager the memory manager the Near Cache allocates from
+     */
+    public NativeMemoryNearCacheEvictionChecker(MaxSizePolicy maxSizePolicy, int size, LongSupplier usedMemory,
+                                                UnsafeMemoryManager memoryManager) {
+        if (!isSupported(maxSizePolicy)) {
+            throw new IllegalArgumentException("Not a native memory max-size policy: " + maxSizePolicy);
+        }
+        this.maxSizePolicy = maxSizePolicy;
+        this.maxSize = size;
+        this.usedMemory = usedMemory;
+        this.memoryManager = memoryManager;
+    }
+
+    /**
+     * @return {@code true} if the given max-size policy is a native memory
+     * based policy, {@code false} otherwise.
+     */
+    public static boolean isSupported(MaxSizePolicy maxSizePolicy) {
+        switch (maxSizePolicy) {
+            case USED_NATIVE_MEMORY_SIZE:
+            case USED_NATIVE_MEMORY_PERCENTAGE:
+            case FREE_NATIVE_MEMORY_SIZE:
+            case FREE_NATIVE_MEMORY_PERCENTAGE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public boolean isEvictionRequired() {
+        long maxMemory = Math.max(memoryManager.getMaxMemory(), 1);
+        switch (maxSizePolicy) {
+            case USED_NATIVE_MEMORY_SIZE:
+                return usedMemory.getAsLong() >= MEGABYTES.toBytes(maxSize);
+            case USED_NATIVE_MEMORY_PERCENTAGE:
+                return usedMemory.getAsLong() * ONE_HUNDRED / maxMemory >= maxSize;
+            case FREE_NATIVE_MEMORY_SIZE:
+                return memoryManager.getFreeMemory() < MEGABYTES.toBytes(maxSize);
+            case FREE_NATIVE_MEMORY_PERCENTAGE:
+                return memoryManager.getFreeMemory() * ONE_HUNDRED / maxMemory < maxSize;
+            default:
+                throw new IllegalStateException("Unexpected max-size policy: " + maxSizePolicy);
+        }
+    }
+}
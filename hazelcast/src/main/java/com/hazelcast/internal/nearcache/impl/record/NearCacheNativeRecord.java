@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.record;
+
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.nearcache.NearCacheRecord;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM;
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+
+/**
+ * {@link NearCacheRecord} for Near Caches with
+ * {@link com.hazelcast.config.InMemoryFormat#NATIVE} in-memory-format.
+ * <p>
+ * The serialized value lives in a native memory block. The record itself
+ * is a flat object of primitive fields: it refers neither to the value nor
+ * to an {@link UUID}, so a Near Cache of large values keeps a small and
+ * constant number of objects per entry on the heap.
+ * <p>
+ * The value block is released once the record has been {@link #dispose()
+ * disposed} by its record store and no reader is copying the value anymore.
+ * Reading the value of a disposed record returns {@code null}, check
+ * {@link #isDisposed()} to tell it apart from a value cached as {@code null}.
+ * The value can only be set once, which is when a reserved record is
+ * published.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public class NearCacheNativeRecord implements NearCacheRecord<Data> {
+
+    // primitive long typed fields:
+    // "creationTime", "expirationTime", "accessTime", "recordState", "sequence",
+    // "uuidMostSigBits", "uuidLeastSigBits" and "valueAddress"
+    public static final int NUMBER_OF_LONG_FIELD_TYPES = 8;
+    // primitive int typed fields: "partitionId", "accessHit", "valueSize" and "refCount"
+    public static final int NUMBER_OF_INTEGER_FIELD_TYPES = 4;
+
+    private static final AtomicIntegerFieldUpdater<NearCacheNativeRecord> ACCESS_HIT =
+            AtomicIntegerFieldUpdater.newUpdater(NearCacheNativeRecord.class, "accessHit");
+    private static final AtomicIntegerFieldUpdater<NearCacheNativeRecord> REF_COUNT =
+            AtomicIntegerFieldUpdater.newUpdater(NearCacheNativeRecord.class, "refCount");
+    private static final AtomicLongFieldUpdater<NearCacheNativeRecord> RECORD_STATE =
+            AtomicLongFieldUpdater.newUpdater(NearCacheNativeRecord.class, "recordState");
+    private static final AtomicLongFieldUpdater<NearCacheNativeRecord> VALUE_ADDRESS =
+            AtomicLongFieldUpdater.newUpdater(NearCacheNativeRecord.class, "valueAddress");
+
+    // the reference owned by the record store
+    private static final int OWNER_REFERENCE = 1;
+    // set in the reference count once the record store gave up its reference
+    private static final int DISPOSED = 1 << 30;
+
+    private final MemoryAllocator malloc;
+
+    private long creationTime = TIME_NOT_SET;
+
+    private volatile int partitionId;
+    private volatile long sequence;
+    private volatile long uuidMostSigBits;
+    private volatile long uuidLeastSigBits;
+
+    private volatile long valueAddress = NULL_ADDRESS;
+    private volatile int valueSize;
+    private volatile long expirationTime = TIME_NOT_SET;
+    private volatile long accessTime = TIME_NOT_SET;
+    private volatile long recordState = READ_PERMITTED;
+    private volatile int accessHit;
+    private volatile int refCount = OWNER_REFERENCE;
+
+    public NearCacheNativeRecord(MemoryAllocator malloc, long creationTime, long expirationTime) {
+        this.malloc = malloc;
+        this.creationTime = creationTime;
+        this.expirationTime = expirationTime;
+    }
+
+    /**
+     * Returns an on-heap copy of the value.
+     *
+     * @return the value or {@code null} if the value is cached as
+     * {@code null} or if the record has been disposed.
+     */
+    @Override
+    public Data getValue() {
+        if (!retain()) {
+            return null;
+        }
+        try {
+            long address = valueAddress;
+            if (address == NULL_ADDRESS) {
+                return null;
+            }
+            byte[] bytes = new byte[valueSize];
+            MEM.copyToByteArray(address, bytes, 0, bytes.length);
+            return new HeapData(bytes);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Copies the value into a new native memory block.
+     *
+     * @throws IllegalStateException                       if the value has already been set
+     * @throws com.hazelcast.memory.NativeOutOfMemoryError if there is not enough native memory for the value
+     */
+    @Override
+    public void setValue(Data value) {
+        if (valueAddress != NULL_ADDRESS) {
+            throw new IllegalStateException("The value of a native Near Cache record can only be set once");
+        }
+        // the value of a disposed record would never be released
+        if (value == null || !retain()) {
+            return;
+        }
+        try {
+            byte[] bytes = value.toByteArray();
+            long address = malloc.allocate(bytes.length);
+            MEM.copyFromByteArray(bytes, 0, address, bytes.length);
+            valueSize = bytes.length;
+            valueAddress = address;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * @return the size of the native value block in bytes or {@code 0} if there is no value
+     */
+    public int getValueSize() {
+        return valueSize;
+    }
+
+    /**
+     * Gives up the reference of the record store. The value block is released
+     * immediately if no reader is copying the value, otherwise by the last
+     * reader. Subsequent calls have no effect.
+     */
+    public void dispose() {
+        for (; ; ) {
+            int count = refCount;
+            if ((count & DISPOSED) != 0) {
+                return;
+            }
+            if (REF_COUNT.compareAndSet(this, count, (count - OWNER_REFERENCE) | DISPOSED)) {
+                if (count == OWNER_REFERENCE) {
+                    freeValue();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the record has been disposed by its record store
+     */
+    public boolean isDisposed() {
+        return (refCount & DISPOSED) != 0;
+    }
+
+    private boolean retain() {
+        for (; ; ) {
+            int count = refCount;
+            if ((count & DISPOSED) != 0) {
+                return false;
+            }
+            if (REF_COUNT.compareAndSet(this, count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        if (REF_COUNT.decrementAndGet(this) == DISPOSED) {
+            freeValue();
+        }
+    }
+
+    private void freeValue() {
+        long address = VALUE_ADDRESS.getAndSet(this, NULL_ADDRESS);
+        if (address != NULL_ADDRESS) {
+            malloc.free(address, valueSize);
+        }
+    }
+
+    @Override
+    public long getExpirationTime() {
+        return expirationTime;
+    }
+
+    @Override
+    public void setExpirationTime(long expirationTime) {
+        this.expirationTime = expirationTime;
+    }
+
+    @Override
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    @Override
+    public void setCreationTime(long creationTime) {
+        this.creationTime = creationTime;
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return accessTime;
+    }
+
+    @Override
+    public void setAccessTime(long accessTime) {
+        this.accessTime = accessTime;
+    }
+
+    @Override
+    public long getHits() {
+        return accessHit;
+    }
+
+    @Override
+    public void setHits(int accessHit) {
+        ACCESS_HIT.set(this, accessHit);
+    }
+
+    @Override
+    public void incrementHits() {
+        ACCESS_HIT.addAndGet(this, 1);
+    }
+
+    @Override
+    public void resetHits() {
+        ACCESS_HIT.set(this, 0);
+    }
+
+    @Override
+    public boolean isExpiredAt(long now) {
+        return (expirationTime > TIME_NOT_SET) && (expirationTime <= now);
+    }
+
+    @Override
+    public boolean isIdleAt(long maxIdleMilliSeconds, long now) {
+        if (maxIdleMilliSeconds > 0) {
+            if (accessTime > TIME_NOT_SET) {
+                return accessTime + maxIdleMilliSeconds < now;
+            } else {
+                return creationTime + maxIdleMilliSeconds < now;
+            }
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public long getRecordState() {
+        return recordState;
+    }
+
+    @Override
+    public boolean casRecordState(long expect, long update) {
+        return RECORD_STATE.compareAndSet(this, expect, update);
+    }
+
+    @Override
+    public int getPartitionId() {
+        return partitionId;
+    }
+
+    @Override
+    public void setPartitionId(int partitionId) {
+        this.partitionId = partitionId;
+    }
+
+    @Override
+    public long getInvalidationSequence() {
+        return sequence;
+    }
+
+    @Override
+    public void setInvalidationSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    @Override
+    public void setUuid(UUID uuid) {
+        if (uuid == null) {
+            this.uuidMostSigBits = 0;
+            this.uuidLeastSigBits = 0;
+        } else {
+            this.uuidMostSigBits = uuid.getMostSignificantBits();
+            this.uuidLeastSigBits = uuid.getLeastSignificantBits();
+        }
+    }
+
+    @Override
+    public boolean hasSameUuid(UUID thatUuid) {
+        long mostSigBits = uuidMostSigBits;
+        long leastSigBits = uuidLeastSigBits;
+        return (mostSigBits != 0 || leastSigBits != 0) && thatUuid != null
+                && thatUuid.getMostSignificantBits() == mostSigBits
+                && thatUuid.getLeastSignificantBits() == leastSigBits;
+    }
+
+    @Override
+    public String toString() {
+        return "NearCacheNativeRecord{"
+                + "creationTime=" + creationTime
+                + ", sequence=" + sequence
+                + ", uuid=" + new UUID(uuidMostSigBits, uuidLeastSigBits)
+                + ", expirationTime=" + expirationTime
+                + ", accessTime=" + accessTime
+                + ", accessHit=" + accessHit
+                + ", recordState=" + recordState
+                + ", valueSize=" + valueSize
+                + ", disposed=" + isDisposed()
+                + '}';
+    }
+}
@@ -19,9 +19,12 @@ package com.hazelcast.internal.nearcache.impl.store;
 import com.hazelcast.config.EvictionConfig;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MaxSizePolicy;
 import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.eviction.EvictionCandidate;
 import com.hazelcast.internal.eviction.EvictionChecker;
 import com.hazelcast.internal.eviction.EvictionListener;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLfuEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
 import com.hazelcast.internal.eviction.impl.strategy.sampling.SamplingEvictionStrategy;
 import com.hazelcast.internal.monitor.impl.NearCacheStatsImpl;
@@ -93,6 +96,10 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
     protected EvictionChecker evictionChecker;
     protected SamplingEvictionStrategy<KS, R, NCRM> evictionStrategy;
     protected EvictionPolicyEvaluator<KS, R> evictionPolicyEvaluator;
+    /**
+     * The admission policy, set only if the eviction policy is TinyLFU.
+     */
+    protected TinyLfuEvictionPolicyComparator tinyLfu;
 
     protected volatile long reservationId;
     protected volatile StaleReadDetector staleReadDetector = ALWAYS_FRESH;
@@ -124,6 +131,12 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
         if (!evictionDisabled) {
             this.evictionStrategy = SamplingEvictionStrategy.INSTANCE;
             this.evictionPolicyEvaluator = getEvictionPolicyEvaluator(evictionConfig, classLoader);
+            if (evictionPolicyEvaluator.getEvictionPolicyComparator() instanceof TinyLfuEvictionPolicyComparator) {
+                this.tinyLfu = (TinyLfuEvictionPolicyComparator) evictionPolicyEvaluator.getEvictionPolicyComparator();
+                if (evictionConfig.getMaxSizePolicy() == MaxSizePolicy.ENTRY_COUNT) {
+                    tinyLfu.setMaximumSize(evictionConfig.getSize());
+                }
+            }
         }
     }
 
@@ -246,6 +259,10 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
         R record = null;
         V value = null;
         try {
+            if (tinyLfu != null) {
+                // misses are counted as well, so that the keys read often enough get admitted
+                tinyLfu.recordAccess(key);
+            }
             record = getRecord(key);
             if (record != null) {
                 if (record.getRecordState() != READ_PERMITTED) {
@@ -294,6 +311,9 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
             oldRecord = putRecord(key, record);
             if (oldRecord == null) {
                 nearCacheStats.incrementOwnedEntryCount();
+                if (tinyLfu != null) {
+                    tinyLfu.ensureCapacity(nearCacheStats.getOwnedEntryCount());
+                }
             }
             onPut(key, value, record, oldRecord);
         } catch (Throwable error) {
@@ -403,6 +423,27 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
         }
     }
 
+    @Override
+    public boolean admit(K key) {
+        checkAvailable();
+
+        if (tinyLfu == null || !evictionChecker.isEvictionRequired() || containsRecordKey(key)) {
+            return true;
+        }
+
+        EvictionCandidate<KS, R> victim = evictionStrategy.selectCandidate(records, evictionPolicyEvaluator);
+        if (victim == null) {
+            return true;
+        }
+        if (victim.getEvictable().isExpiredAt(Clock.currentTimeMillis()) || tinyLfu.admit(key, victim.getAccessor())) {
+            // make room for the new key by evicting the victim it won against
+            records.tryEvict(victim, this);
+            return true;
+        }
+        nearCacheStats.incrementAdmissionRejections();
+        return false;
+    }
+
     @Override
     public long tryReserveForUpdate(K key, Data keyData) {
         checkAvailable();
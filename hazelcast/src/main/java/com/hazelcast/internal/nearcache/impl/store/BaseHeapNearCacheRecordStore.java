@@ -34,7 +34,8 @@ import java.util.function.BiFunction;
 import static java.lang.String.format;
 
 /**
- * Base implementation of {@link AbstractNearCacheRecordStore} for on-heap Near Caches.
+ * Base implementation of {@link AbstractNearCacheRecordStore} for Near Caches which keep their records in an
+ * on-heap {@link HeapNearCacheRecordMap}.
  *
  * @param <K> the type of the key stored in Near Cache
  * @param <V> the type of the value stored in Near Cache
@@ -171,6 +172,7 @@ public abstract class BaseHeapNearCacheRecordStore<K, V, R extends NearCacheReco
                 nearCacheStats.decrementOwnedEntryMemoryCost(getTotalStorageMemoryCost(key, record));
                 nearCacheStats.incrementInvalidations();
             }
+            onRemove(key, record, true);
             return null;
         };
     }
@@ -96,7 +96,8 @@ public class HeapNearCacheRecordMap<K, V extends NearCacheRecord>
         if (evictionCandidate == null) {
             return false;
         }
-        if (remove(evictionCandidate.getAccessor()) == null) {
+        // the candidate might have been replaced since it was sampled
+        if (!remove(evictionCandidate.getAccessor(), evictionCandidate.getEvictable())) {
             return false;
         }
         if (evictionListener != null) {
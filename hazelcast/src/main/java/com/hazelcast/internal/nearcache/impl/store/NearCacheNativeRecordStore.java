@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.store;
+
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.eviction.EvictionChecker;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.impl.UnsafeMemoryManager;
+import com.hazelcast.internal.nearcache.impl.maxsize.NativeMemoryNearCacheEvictionChecker;
+import com.hazelcast.internal.nearcache.impl.record.NearCacheNativeRecord;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.nearcache.NearCache.CACHED_AS_NULL;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.TIME_NOT_SET;
+import static com.hazelcast.internal.nearcache.impl.record.NearCacheNativeRecord.NUMBER_OF_INTEGER_FIELD_TYPES;
+import static com.hazelcast.internal.nearcache.impl.record.NearCacheNativeRecord.NUMBER_OF_LONG_FIELD_TYPES;
+import static com.hazelcast.internal.util.Clock.currentTimeMillis;
+
+/**
+ * {@link com.hazelcast.internal.nearcache.NearCacheRecordStore} implementation for Near Caches
+ * with {@link com.hazelcast.config.InMemoryFormat#NATIVE} in-memory-format.
+ * <p>
+ * The values are stored in native memory allocated from the given
+ * {@link UnsafeMemoryManager}, see {@link NearCacheNativeRecord}. The keys
+ * stay on-heap in serialized form, so that the Near Cache pre-loader and
+ * the invalidations work on them as for the other formats.
+ * <p>
+ * When the native memory runs out, some entries are evicted to make room
+ * for the new value. Besides {@link MaxSizePolicy#ENTRY_COUNT}, the native
+ * memory based max-size policies are supported.
+ *
+ * @param <K> the type of the key stored in Near Cache
+ * @param <V> the type of the value stored in Near Cache
+ */
+public class NearCacheNativeRecordStore<K, V> extends BaseHeapNearCacheRecordStore<K, V, NearCacheNativeRecord> {
+
+    private static final int MAX_EVICTIONS_ON_NATIVE_OOME = 16;
+
+    private final UnsafeMemoryManager memoryManager;
+    private final AtomicLong usedNativeMemory = new AtomicLong();
+    private final MemoryAllocator malloc = new NearCacheMemoryAllocator();
+
+    public NearCacheNativeRecordStore(String name,
+                                      NearCacheConfig nearCacheConfig,
+                                      UnsafeMemoryManager memoryManager,
+                                      SerializationService serializationService,
+                                      ClassLoader classLoader) {
+        super(name, nearCacheConfig, serializationService, classLoader);
+        this.memoryManager = memoryManager;
+    }
+
+    @Override
+    protected EvictionChecker createNearCacheEvictionChecker(EvictionConfig evictionConfig,
+                                                             NearCacheConfig nearCacheConfig) {
+        MaxSizePolicy maxSizePolicy = evictionConfig.getMaxSizePolicy();
+        if (NativeMemoryNearCacheEvictionChecker.isSupported(maxSizePolicy)) {
+            return new NativeMemoryNearCacheEvictionChecker(maxSizePolicy, evictionConfig.getSize(),
+                    usedNativeMemory::get, memoryManager);
+        }
+        return super.createNearCacheEvictionChecker(evictionConfig, nearCacheConfig);
+    }
+
+    @Override
+    protected long getKeyStorageMemoryCost(K key) {
+        if (key instanceof Data) {
+            return
+                    // reference to this key data inside map ("store" field)
+                    REFERENCE_SIZE
+                            // heap cost of this key data
+                            + ((Data) key).getHeapCost();
+        } else {
+            // memory cost for non-data typed instance is not supported
+            return 0L;
+        }
+    }
+
+    @Override
+    protected long getRecordStorageMemoryCost(NearCacheNativeRecord record) {
+        if (record == null) {
+            return 0L;
+        }
+        // reference to this record inside map ("store" field)
+        return REFERENCE_SIZE
+                // reference to "malloc" field
+                + REFERENCE_SIZE
+                + NUMBER_OF_LONG_FIELD_TYPES * (Long.SIZE / Byte.SIZE)
+                + NUMBER_OF_INTEGER_FIELD_TYPES * (Integer.SIZE / Byte.SIZE)
+                // native memory cost of the value
+                + record.getValueSize();
+    }
+
+    @Override
+    protected NearCacheNativeRecord createRecord(V value) {
+        Data dataValue = toData(value);
+        long creationTime = currentTimeMillis();
+        NearCacheNativeRecord record;
+        if (timeToLiveMillis > 0) {
+            record = new NearCacheNativeRecord(malloc, creationTime, creationTime + timeToLiveMillis);
+        } else {
+            record = new NearCacheNativeRecord(malloc, creationTime, TIME_NOT_SET);
+        }
+        setRecordValue(record, dataValue);
+        return record;
+    }
+
+    @Override
+    protected void updateRecordValue(NearCacheNativeRecord record, V value) {
+        setRecordValue(record, toData(value));
+    }
+
+    private void setRecordValue(NearCacheNativeRecord record, Data value) {
+        for (int evictions = 0; ; evictions++) {
+            try {
+                record.setValue(value);
+                return;
+            } catch (NativeOutOfMemoryError error) {
+                if (evictionDisabled || evictions == MAX_EVICTIONS_ON_NATIVE_OOME || records.isEmpty()) {
+                    throw error;
+                }
+                doEviction(true);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected V recordToValue(NearCacheNativeRecord record) {
+        Data value = record.getValue();
+        if (value == null) {
+            // a disposed record is a miss, it has just been removed
+            return record.isDisposed() ? null : (V) CACHED_AS_NULL;
+        }
+        return toValue(value);
+    }
+
+    @Override
+    protected NearCacheNativeRecord putRecord(K key, NearCacheNativeRecord record) {
+        NearCacheNativeRecord oldRecord = super.putRecord(key, record);
+        if (oldRecord != null) {
+            oldRecord.dispose();
+        }
+        return oldRecord;
+    }
+
+    @Override
+    protected void onRemove(K key, NearCacheNativeRecord record, boolean removed) {
+        super.onRemove(key, record, removed);
+        if (removed) {
+            record.dispose();
+        }
+    }
+
+    @Override
+    public void onEvict(K key, NearCacheNativeRecord record, boolean wasExpired) {
+        super.onEvict(key, record, wasExpired);
+        record.dispose();
+    }
+
+    @Override
+    public void clear() {
+        checkAvailable();
+
+        int size = 0;
+        for (Map.Entry<K, NearCacheNativeRecord> entry : records.entrySet()) {
+            if (records.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().dispose();
+                size++;
+            }
+        }
+        nearCacheStats.setOwnedEntryCount(0);
+        nearCacheStats.setOwnedEntryMemoryCost(0L);
+        nearCacheStats.incrementInvalidations(size);
+        nearCacheStats.incrementInvalidationRequests();
+    }
+
+    /**
+     * @return the native memory allocated by this Near Cache in bytes
+     */
+    public long getUsedNativeMemory() {
+        return usedNativeMemory.get();
+    }
+
+    /**
+     * Allocates from the shared memory manager and keeps track of the memory
+     * used by this Near Cache for the native memory based max-size policies.
+     */
+    private final class NearCacheMemoryAllocator implements MemoryAllocator {
+
+        @Override
+        public long allocate(long size) {
+            long address = memoryManager.getAllocator().allocate(size);
+            usedNativeMemory.addAndGet(size);
+            return address;
+        }
+
+        @Override
+        public long reallocate(long address, long currentSize, long newSize) {
+            long newAddress = memoryManager.getAllocator().reallocate(address, currentSize, newSize);
+            usedNativeMemory.addAndGet(newSize - currentSize);
+            return newAddress;
+        }
+
+        @Override
+        public void free(long address, long size) {
+            memoryManager.getAllocator().free(address, size);
+            usedNativeMemory.addAndGet(-size);
+        }
+
+        @Override
+        public void dispose() {
+            // blocks are freed by the records which allocated them
+        }
+    }
+}
@@ -78,6 +78,14 @@ import java.util.concurrent.ConcurrentMap;
  */
 public interface Channel extends Closeable {
 
+    /**
+     * The {@link #attributeMap()} key of the object identifying the group of
+     * striped channels the channel belongs to. The channels of a group connect
+     * to the same remote endpoint, so they should be served by different
+     * threads.
+     */
+    String STRIPE_GROUP_ATTRIBUTE = "stripeGroup";
+
     /**
      * Returns the {@link ChannelOptions} of this Channel.
      *
@@ -272,4 +280,22 @@ public interface Channel extends Closeable {
      * @return count of written bytes
      */
     long bytesWritten();
+
+    /**
+     * Returns current count of frames written into the Channel.
+     * The read values might not reflect the most recent value.
+     *
+     * @return count of written frames
+     */
+    long framesWritten();
+
+    /**
+     * Returns current count of the writes to the socket of the Channel;
+     * together with the {@link #framesWritten()} it shows how well the
+     * frames are batched. The read values might not reflect the most
+     * recent value.
+     *
+     * @return count of socket writes
+     */
+    long socketWrites();
 }
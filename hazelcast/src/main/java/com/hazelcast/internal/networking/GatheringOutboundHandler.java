@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.networking;
+
+import java.io.IOException;
+import java.nio.channels.GatheringByteChannel;
+
+/**
+ * An {@link OutboundHandler} that can hand large payloads over to the socket
+ * without copying them into its dst first. The payloads are written together
+ * with the content of the dst using a single gathering write.
+ * <p>
+ * The gathering is only enabled when the handler is the last one of the
+ * pipeline, so its dst is what gets written to the socket.
+ */
+public interface GatheringOutboundHandler {
+
+    /**
+     * Enables or disables the gathering. Called by the pipeline every time
+     * the handlers change.
+     *
+     * @param enabled {@code true} if the handler is the last one of the pipeline.
+     */
+    void setGatheringEnabled(boolean enabled);
+
+    /**
+     * Writes the pending bytes of the handler to the given channel. Called
+     * instead of writing the dst of the handler to the socket.
+     *
+     * @param channel the channel to write to
+     * @return the number of bytes written
+     * @throws IOException if the write fails
+     */
+    long writeTo(GatheringByteChannel channel) throws IOException;
+
+    /**
+     * @return {@code true} if there are bytes left to be written to the
+     * channel, {@code false} otherwise.
+     */
+    boolean hasRemaining();
+}
@@ -22,7 +22,7 @@ import com.hazelcast.internal.nio.EndpointManager;
 /**
  * Stats per {@link EndpointManager} for both directions of network traffic (inbound or outbound).
  * <p>
- * Stores number of bytes sent and received. Used only when Advanced Networking is enabled.
+ * Stores number of bytes sent and received, and how the sent frames were batched into socket writes. Used only when Advanced Networking is enabled.
  *
  * @see EndpointManager#getNetworkStats()
  * @see AggregateEndpointManager#getNetworkStats()
@@ -47,4 +47,23 @@ public interface NetworkStats {
      */
     long getBytesSent();
 
+    /**
+     * Returns number of frames sent over all connections (active and closed) managed by
+     * the EndpointManager. Guaranteed to be monotonically increasing counter, but
+     * may not show the latest total.
+     *
+     * @return number of sent frames
+     */
+    long getFramesSent();
+
+    /**
+     * Returns number of writes to the sockets of all connections (active and closed)
+     * managed by the EndpointManager. Together with the {@link #getFramesSent()} it
+     * shows how many frames are sent with a single write. Guaranteed to be
+     * monotonically increasing counter, but may not show the latest total.
+     *
+     * @return number of socket writes
+     */
+    long getSocketWrites();
+
 }
@@ -51,4 +51,14 @@ public interface MigratablePipeline {
      * @return total load recorded by this pipeline
      */
     long load();
+
+    /**
+     * Returns the object identifying the group of striped channels the
+     * pipeline belongs to. The {@link com.hazelcast.internal.networking.nio.iobalancer.IOBalancer}
+     * doesn't move a pipeline to a {@link NioThread} already running a
+     * pipeline of the same group.
+     *
+     * @return the stripe group or {@code null} if the channel isn't striped
+     */
+    Object stripeGroup();
 }
@@ -146,6 +146,16 @@ public final class NioChannel extends AbstractChannel {
         return outboundPipeline.bytesWritten();
     }
 
+    @Override
+    public long framesWritten() {
+        return outboundPipeline.framesWritten();
+    }
+
+    @Override
+    public long socketWrites() {
+        return outboundPipeline.socketWrites();
+    }
+
     @Override
     public String toString() {
         return "NioChannel{" + localSocketAddress() + "->" + remoteSocketAddress() + '}';
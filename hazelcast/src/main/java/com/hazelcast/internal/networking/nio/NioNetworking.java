@@ -33,6 +33,7 @@ import com.hazelcast.internal.networking.Networking;
 import com.hazelcast.internal.networking.OutboundHandler;
 import com.hazelcast.internal.networking.nio.iobalancer.IOBalancer;
 import com.hazelcast.internal.util.ConcurrencyDetection;
+import com.hazelcast.internal.util.ThreadAffinity;
 import com.hazelcast.internal.util.concurrent.BackoffIdleStrategy;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.LoggingService;
@@ -106,6 +107,10 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
     private volatile ExecutorService closeListenerExecutor;
     private final ConcurrencyDetection concurrencyDetection;
     private final boolean writeThroughEnabled;
+    private final long writeCoalescingWindowNanos;
+    private final int writeCoalescingMaxFrames;
+    private final ThreadAffinity inputThreadAffinity;
+    private final ThreadAffinity outputThreadAffinity;
     private volatile IOBalancer ioBalancer;
     private volatile NioThread[] inputThreads;
     private volatile NioThread[] outputThreads;
@@ -138,6 +143,10 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
         this.concurrencyDetection = ctx.concurrencyDetection;
         this.writeThroughEnabled = ctx.writeThroughEnabled;
         this.selectionKeyWakeupEnabled = ctx.selectionKeyWakeupEnabled;
+        this.writeCoalescingWindowNanos = ctx.writeCoalescingWindowNanos;
+        this.writeCoalescingMaxFrames = ctx.writeCoalescingMaxFrames;
+        this.inputThreadAffinity = ctx.inputThreadAffinity;
+        this.outputThreadAffinity = ctx.outputThreadAffinity;
     }
 
     @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "used only for testing")
@@ -192,6 +201,7 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
                     idleStrategy);
             thread.id = i;
             thread.setSelectorWorkaroundTest(selectorWorkaroundTest);
+            thread.setThreadAffinity(inputThreadAffinity.getCpus(i));
             inThreads[i] = thread;
             thread.start();
         }
@@ -207,6 +217,7 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
                     idleStrategy);
             thread.id = i;
             thread.setSelectorWorkaroundTest(selectorWorkaroundTest);
+            thread.setThreadAffinity(outputThreadAffinity.getCpus(i));
             outThreads[i] = thread;
             thread.start();
         }
@@ -306,7 +317,9 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
                 ioBalancer,
                 concurrencyDetection,
                 writeThroughEnabled,
-                selectionKeyWakeupEnabled);
+                selectionKeyWakeupEnabled,
+                writeCoalescingWindowNanos,
+                writeCoalescingMaxFrames);
     }
 
     private NioInboundPipeline newInboundPipeline(NioChannel channel) {
@@ -327,7 +340,7 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
     @Override
     public void provideDynamicMetrics(MetricDescriptor descriptor,
                                       MetricsCollectionContext context) {
-        for (Channel channel : channels) {
+        for (NioChannel channel : channels) {
             String pipelineId = channel.localSocketAddress() + "->" + channel.remoteSocketAddress();
 
             MetricDescriptor descriptorIn = descriptor
@@ -341,6 +354,9 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
                     .withPrefix("tcp.connection.out")
                     .withDiscriminator("pipelineId", pipelineId);
             context.collect(descriptorOut, channel.outboundPipeline());
+
+            channel.inboundPipeline().provideHandlerMetrics(pipelineId, descriptor, context);
+            channel.outboundPipeline().provideHandlerMetrics(pipelineId, descriptor, context);
         }
 
         for (NioThread nioThread : inputThreads) {
@@ -458,6 +474,19 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
         // this is an optimization that can speed up low threaded setups
         private boolean writeThroughEnabled;
 
+        // the time the output thread waits for more frames before writing the
+        // pending bytes to the socket. 0 disables write coalescing.
+        private long writeCoalescingWindowNanos;
+        // the maximum number of frames sharing a socket write; once reached
+        // the output thread stops waiting for more frames.
+        private int writeCoalescingMaxFrames = Integer.MAX_VALUE;
+
+        // the CPUs the IO threads are pinned to, see ThreadAffinity for the syntax.
+        // Combined with the selectnow selector mode this dedicates cores to the
+        // busy spinning IO threads.
+        private ThreadAffinity inputThreadAffinity = ThreadAffinity.DISABLED;
+        private ThreadAffinity outputThreadAffinity = ThreadAffinity.DISABLED;
+
         public Context() {
             String selectorModeString = SelectorMode.getConfiguredString();
             if (selectorModeString.startsWith(SELECT_NOW_STRING + ",")) {
@@ -474,6 +503,26 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
             return this;
         }
 
+        public Context writeCoalescingWindowNanos(long writeCoalescingWindowNanos) {
+            this.writeCoalescingWindowNanos = writeCoalescingWindowNanos;
+            return this;
+        }
+
+        public Context writeCoalescingMaxFrames(int writeCoalescingMaxFrames) {
+            this.writeCoalescingMaxFrames = writeCoalescingMaxFrames;
+            return this;
+        }
+
+        public Context inputThreadAffinity(ThreadAffinity inputThreadAffinity) {
+            this.inputThreadAffinity = inputThreadAffinity;
+            return this;
+        }
+
+        public Context outputThreadAffinity(ThreadAffinity outputThreadAffinity) {
+            this.outputThreadAffinity = outputThreadAffinity;
+            return this;
+        }
+
         public Context concurrencyDetection(ConcurrencyDetection concurrencyDetection) {
             this.concurrencyDetection = concurrencyDetection;
             return this;
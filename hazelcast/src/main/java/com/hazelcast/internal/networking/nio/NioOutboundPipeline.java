@@ -19,6 +19,7 @@ package com.hazelcast.internal.networking.nio;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.networking.ChannelErrorHandler;
 import com.hazelcast.internal.networking.ChannelHandler;
+import com.hazelcast.internal.networking.GatheringOutboundHandler;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.networking.OutboundFrame;
 import com.hazelcast.internal.networking.OutboundHandler;
@@ -37,6 +38,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import static com.hazelcast.internal.metrics.ProbeLevel.DEBUG;
+import static com.hazelcast.internal.metrics.ProbeUnit.MS;
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
@@ -47,6 +49,7 @@ import static java.lang.Math.max;
 import static java.lang.System.currentTimeMillis;
 import static java.lang.Thread.currentThread;
 import static java.nio.channels.SelectionKey.OP_WRITE;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public final class NioOutboundPipeline
         extends NioPipeline
@@ -101,6 +104,8 @@ public final class NioOutboundPipeline
 
     private OutboundHandler[] handlers = new OutboundHandler[0];
     private ByteBuffer sendBuffer;
+    // the last handler if it writes its bytes to the socket itself
+    private GatheringOutboundHandler gatheringHandler;
 
     private final AtomicReference<State> scheduled = new AtomicReference<>(State.SCHEDULED);
     @Probe(name = "bytesWritten")
@@ -109,6 +114,17 @@ public final class NioOutboundPipeline
     private final SwCounter normalFramesWritten = newSwCounter();
     @Probe(name = "priorityFramesWritten")
     private final SwCounter priorityFramesWritten = newSwCounter();
+    @Probe(name = "socketWrites")
+    private final SwCounter socketWrites = newSwCounter();
+    @Probe(name = "coalescedWrites")
+    private final SwCounter coalescedWrites = newSwCounter();
+    private final SwCounter coalescingDelayNanos = newSwCounter();
+    @Probe(name = "maxFramesPerWrite")
+    private volatile long maxFramesPerWrite;
+    // the start of the current coalescing window, 0 if no write is deferred
+    private long coalescingStartNanos;
+    private long framesBeforeCoalescing;
+    private long framesBeforeWindow;
 
     private volatile long lastWriteTime;
 
@@ -119,6 +135,8 @@ public final class NioOutboundPipeline
     private final ConcurrencyDetection concurrencyDetection;
     private final boolean writeThroughEnabled;
     private final boolean selectionKeyWakeupEnabled;
+    private final long writeCoalescingWindowNanos;
+    private final int writeCoalescingMaxFrames;
 
     NioOutboundPipeline(NioChannel channel,
                         NioThread owner,
@@ -128,10 +146,27 @@ public final class NioOutboundPipeline
                         ConcurrencyDetection concurrencyDetection,
                         boolean writeThroughEnabled,
                         boolean selectionKeyWakeupEnabled) {
+        this(channel, owner, errorHandler, logger, balancer, concurrencyDetection, writeThroughEnabled,
+                selectionKeyWakeupEnabled, 0, Integer.MAX_VALUE);
+    }
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    NioOutboundPipeline(NioChannel channel,
+                        NioThread owner,
+                        ChannelErrorHandler errorHandler,
+                        ILogger logger,
+                        IOBalancer balancer,
+                        ConcurrencyDetection concurrencyDetection,
+                        boolean writeThroughEnabled,
+                        boolean selectionKeyWakeupEnabled,
+                        long writeCoalescingWindowNanos,
+                        int writeCoalescingMaxFrames) {
         super(channel, owner, errorHandler, OP_WRITE, logger, balancer);
         this.concurrencyDetection = concurrencyDetection;
         this.writeThroughEnabled = writeThroughEnabled;
         this.selectionKeyWakeupEnabled = selectionKeyWakeupEnabled;
+        this.writeCoalescingWindowNanos = writeCoalescingWindowNanos;
+        this.writeCoalescingMaxFrames = writeCoalescingMaxFrames;
     }
 
     @Override
@@ -279,24 +314,19 @@ public final class NioOutboundPipeline
     public void process() throws Exception {
         processCount.inc();
 
-        OutboundHandler[] localHandlers = handlers;
-        HandlerStatus pipelineStatus = CLEAN;
-        for (int handlerIndex = 0; handlerIndex < localHandlers.length; handlerIndex++) {
-            OutboundHandler handler = localHandlers[handlerIndex];
-
-            HandlerStatus handlerStatus = handler.onWrite();
-
-            if (localHandlers != handlers) {
-                // change in the pipeline detected, therefor the loop is restarted.
-                localHandlers = handlers;
-                pipelineStatus = CLEAN;
-                handlerIndex = -1;
-            } else if (handlerStatus != CLEAN) {
-                pipelineStatus = handlerStatus;
-            }
+        // a deferred write also carries the frames written before it got deferred
+        long framesBeforeWrite = coalescingStartNanos == 0 ? framesWritten() : framesBeforeCoalescing;
+        // the bytes left over by a partial socket write have waited already, so they aren't deferred again
+        boolean deferrable = writeCoalescingWindowNanos > 0 && (coalescingStartNanos != 0 || !hasPendingBytes());
+        HandlerStatus pipelineStatus = processHandlers();
+        if (pipelineStatus == CLEAN && deferrable && deferWrite(framesBeforeWrite)) {
+            // the pending bytes are written once the coalescing window has ended.
+            return;
         }
+        endCoalescing();
 
         flushToSocket();
+        updateMaxFramesPerWrite(framesWritten() - framesBeforeWrite);
 
         if (migrationRequested()) {
             startMigration();
@@ -305,7 +335,7 @@ public final class NioOutboundPipeline
             return;
         }
 
-        if (sendBuffer.remaining() > 0) {
+        if (hasPendingBytes()) {
             pipelineStatus = DIRTY;
         }
 
@@ -324,6 +354,87 @@ public final class NioOutboundPipeline
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private HandlerStatus processHandlers() throws Exception {
+        OutboundHandler[] localHandlers = handlers;
+        HandlerStatus pipelineStatus = CLEAN;
+        for (int handlerIndex = 0; handlerIndex < localHandlers.length; handlerIndex++) {
+            OutboundHandler handler = localHandlers[handlerIndex];
+
+            HandlerStatus handlerStatus = handler.onWrite();
+
+            if (localHandlers != handlers) {
+                // change in the pipeline detected, therefor the loop is restarted.
+                localHandlers = handlers;
+                pipelineStatus = CLEAN;
+                handlerIndex = -1;
+            } else if (handlerStatus != CLEAN) {
+                pipelineStatus = handlerStatus;
+            }
+        }
+        return pipelineStatus;
+    }
+
+    /**
+     * Gives the writers a short window to add more frames before the pending
+     * bytes are written to the socket, so they can share the same write.
+     * Instead of waiting for the frames, the pipeline remains scheduled and is
+     * handed back to its NioThread to be processed again once the window has
+     * ended; in the meantime the thread keeps serving its other channels. The
+     * window ends early once the write carries the maximum number of frames.
+     * Only done by the NIO thread; a write through thread never defers.
+     *
+     * @param framesBeforeWrite the number of frames written before this write.
+     * @return true if the write is deferred, false if the pending bytes need
+     * to be written now.
+     */
+    private boolean deferWrite(long framesBeforeWrite) {
+        NioThread localOwner = owner;
+        if (writeCoalescingWindowNanos <= 0 || currentThread() != localOwner || !hasPendingBytes()) {
+            return false;
+        }
+
+        long nowNanos = System.nanoTime();
+        if (coalescingStartNanos == 0) {
+            coalescingStartNanos = nowNanos;
+            framesBeforeCoalescing = framesBeforeWrite;
+            framesBeforeWindow = framesWritten();
+        } else if (nowNanos - coalescingStartNanos >= writeCoalescingWindowNanos) {
+            return false;
+        }
+
+        if (framesWritten() - framesBeforeWrite >= writeCoalescingMaxFrames) {
+            return false;
+        }
+
+        // a writable socket should not trigger a write of the deferred bytes.
+        unregisterOp(OP_WRITE);
+        localOwner.addDelayedTask(this, coalescingStartNanos + writeCoalescingWindowNanos);
+        return true;
+    }
+
+    private void endCoalescing() {
+        if (coalescingStartNanos == 0) {
+            return;
+        }
+
+        if (framesWritten() > framesBeforeWindow) {
+            coalescedWrites.inc();
+        }
+        coalescingDelayNanos.inc(System.nanoTime() - coalescingStartNanos);
+        coalescingStartNanos = 0;
+    }
+
+    private void updateMaxFramesPerWrite(long frames) {
+        if (frames > maxFramesPerWrite) {
+            maxFramesPerWrite = frames;
+        }
+    }
+
+    private boolean hasPendingBytes() {
+        return gatheringHandler != null ? gatheringHandler.hasRemaining() : sendBuffer.remaining() > 0;
+    }
+
     private void postProcessBlocked() throws IOException {
         // pipeline is blocked; no point in receiving OP_WRITE events.
         unregisterOp(OP_WRITE);
@@ -411,8 +522,9 @@ public final class NioOutboundPipeline
 
     private void flushToSocket() throws IOException {
         lastWriteTime = currentTimeMillis();
-        int written = socketChannel.write(sendBuffer);
+        long written = gatheringHandler != null ? gatheringHandler.writeTo(socketChannel) : socketChannel.write(sendBuffer);
         bytesWritten.inc(written);
+        socketWrites.inc();
         //System.out.println(channel + " bytes written:" + written);
     }
 
@@ -425,6 +537,33 @@ public final class NioOutboundPipeline
         return bytesWritten.get();
     }
 
+    long framesWritten() {
+        return normalFramesWritten.get() + priorityFramesWritten.get();
+    }
+
+    long socketWrites() {
+        return socketWrites.get();
+    }
+
+    /**
+     * Returns the average number of frames sent with a single write to the
+     * socket.
+     */
+    @Probe(name = "framesPerWrite")
+    private double framesPerWrite() {
+        long writes = socketWrites.get();
+        return writes == 0 ? 0 : (double) framesWritten() / writes;
+    }
+
+    /**
+     * Returns the time the writes have been delayed in total to coalesce
+     * frames, which is the latency added by the write coalescing.
+     */
+    @Probe(name = "coalescingDelay", unit = MS)
+    private long coalescingDelay() {
+        return NANOSECONDS.toMillis(coalescingDelayNanos.get());
+    }
+
     @Override
     protected void publishMetrics() {
         if (currentThread() != owner) {
@@ -488,6 +627,16 @@ public final class NioOutboundPipeline
     private void updatePipeline(OutboundHandler[] newHandlers) {
         this.handlers = newHandlers;
         this.sendBuffer = newHandlers.length == 0 ? null : (ByteBuffer) newHandlers[newHandlers.length - 1].dst();
+        this.gatheringHandler = null;
+        for (int k = 0; k < newHandlers.length; k++) {
+            if (newHandlers[k] instanceof GatheringOutboundHandler) {
+                boolean last = k == newHandlers.length - 1;
+                ((GatheringOutboundHandler) newHandlers[k]).setGatheringEnabled(last);
+                if (last) {
+                    gatheringHandler = (GatheringOutboundHandler) newHandlers[k];
+                }
+            }
+        }
 
         OutboundHandler prev = null;
         for (OutboundHandler handler : handlers) {
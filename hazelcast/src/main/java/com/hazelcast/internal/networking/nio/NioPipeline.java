@@ -16,6 +16,9 @@
 
 package com.hazelcast.internal.networking.nio;
 
+import com.hazelcast.internal.metrics.DynamicMetricsProvider;
+import com.hazelcast.internal.metrics.MetricDescriptor;
+import com.hazelcast.internal.metrics.MetricsCollectionContext;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.networking.Channel;
 import com.hazelcast.internal.networking.ChannelErrorHandler;
@@ -114,6 +117,11 @@ public abstract class NioPipeline implements MigratablePipeline, Runnable {
         return owner;
     }
 
+    @Override
+    public Object stripeGroup() {
+        return channel.attributeMap().get(Channel.STRIPE_GROUP_ATTRIBUTE);
+    }
+
     void start() {
         owner.addTaskAndWakeup(() -> {
             try {
@@ -281,6 +289,19 @@ public abstract class NioPipeline implements MigratablePipeline, Runnable {
      */
     protected abstract Iterable<? extends ChannelHandler> handlers();
 
+    /**
+     * Collects the metrics of the handlers of this pipeline which provide
+     * any, e.g. the compression ratio of a compressing handler.
+     */
+    void provideHandlerMetrics(String pipelineId, MetricDescriptor descriptor, MetricsCollectionContext context) {
+        for (ChannelHandler handler : handlers()) {
+            if (handler instanceof DynamicMetricsProvider) {
+                ((DynamicMetricsProvider) handler)
+                        .provideDynamicMetrics(descriptor.copy().withDiscriminator("pipelineId", pipelineId), context);
+            }
+        }
+    }
+
     /**
      * Migrates this pipeline to a different owner.
      * The migration logic is rather simple:
@@ -29,18 +29,26 @@ import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.util.BitSet;
 import java.util.Iterator;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static com.hazelcast.internal.metrics.ProbeLevel.INFO;
+import static com.hazelcast.internal.metrics.ProbeUnit.MS;
+import static com.hazelcast.internal.metrics.ProbeUnit.PERCENT;
 import static com.hazelcast.internal.networking.nio.SelectorMode.SELECT_NOW;
 import static com.hazelcast.internal.networking.nio.SelectorOptimizer.newSelector;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static com.hazelcast.internal.util.EmptyStatement.ignore;
+import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static com.hazelcast.internal.util.ThreadAffinity.pinCurrentThread;
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class NioThread extends Thread implements OperationHostileThread {
 
@@ -56,6 +64,7 @@ public class NioThread extends Thread implements OperationHostileThread {
     // when testing, we simulate the selector bug randomly with one out of TEST_SELECTOR_BUG_PROBABILITY
     private static final int TEST_SELECTOR_BUG_PROBABILITY = Integer.parseInt(
             System.getProperty("hazelcast.io.selector.bug.probability", "16"));
+    private static final double PERCENTAGE = 100d;
 
     @SuppressWarnings("checkstyle:visibilitymodifier")
     // this field is set during construction and is meant for the probes so that the NioPipeline can
@@ -74,6 +83,8 @@ public class NioThread extends Thread implements OperationHostileThread {
 
     @Probe(name = "taskQueueSize")
     private final Queue<Runnable> taskQueue = new ConcurrentLinkedQueue<Runnable>();
+    // the tasks waiting for their deadline; only accessed by this thread
+    private final Queue<DelayedTask> delayedTasks = new PriorityQueue<DelayedTask>();
     @Probe
     private final SwCounter eventCount = newSwCounter();
     @Probe
@@ -83,6 +94,15 @@ public class NioThread extends Thread implements OperationHostileThread {
     // count number of times the selector was rebuilt (if selectWorkaround is enabled)
     @Probe
     private final SwCounter selectorRebuildCount = newSwCounter();
+    // the time spent blocking on the selector or spinning without finding any work
+    private final SwCounter idleTimeNanos = newSwCounter();
+    // the start of the current idle period, 0 if the thread isn't idle
+    private volatile long idleStartNanos;
+
+    private volatile long startNanos;
+
+    // the CPUs this thread pins itself to, null if the thread isn't pinned
+    private BitSet threadAffinity;
 
     private final ILogger logger;
 
@@ -135,6 +155,15 @@ public class NioThread extends Thread implements OperationHostileThread {
         this.selectorWorkaroundTest = selectorWorkaroundTest;
     }
 
+    /**
+     * Sets the CPUs this thread pins itself to when it starts.
+     *
+     * @param threadAffinity the CPUs or {@code null} if the thread isn't pinned
+     */
+    public void setThreadAffinity(BitSet threadAffinity) {
+        this.threadAffinity = threadAffinity;
+    }
+
     public long bytesTransceived() {
         return bytesTransceived;
     }
@@ -187,6 +216,46 @@ public class NioThread extends Thread implements OperationHostileThread {
         return max(currentTimeMillis() - lastSelectTimeMs, 0);
     }
 
+    /**
+     * Returns the time this thread has spent processing tasks and selection keys.
+     *
+     * @return the busy time in ms.
+     */
+    @Probe(unit = MS)
+    private long busyTime() {
+        long startNanos = this.startNanos;
+        if (startNanos == 0) {
+            return 0;
+        }
+        long nowNanos = System.nanoTime();
+        return NANOSECONDS.toMillis(max(nowNanos - startNanos - idleTimeNanos(nowNanos), 0));
+    }
+
+    /**
+     * Returns the percentage of the time since this thread started that it has
+     * been busy processing tasks and selection keys. The time blocked on the
+     * selector or spinning without finding work is idle time.
+     *
+     * @return the utilization in percent.
+     */
+    @Probe(unit = PERCENT)
+    private double utilization() {
+        long startNanos = this.startNanos;
+        if (startNanos == 0) {
+            return 0;
+        }
+        long nowNanos = System.nanoTime();
+        long elapsedNanos = nowNanos - startNanos;
+        long busyNanos = elapsedNanos - idleTimeNanos(nowNanos);
+        return elapsedNanos <= 0 || busyNanos <= 0 ? 0 : Math.min(PERCENTAGE, PERCENTAGE * busyNanos / elapsedNanos);
+    }
+
+    private long idleTimeNanos(long nowNanos) {
+        // includes the idle period the thread is currently in
+        long idleStartNanos = this.idleStartNanos;
+        return idleTimeNanos.get() + (idleStartNanos == 0 ? 0 : max(nowNanos - idleStartNanos, 0));
+    }
+
     /**
      * Adds a task to this NioThread without notifying the thread.
      *
@@ -211,6 +280,22 @@ public class NioThread extends Thread implements OperationHostileThread {
         }
     }
 
+    /**
+     * Adds a task to be executed by this NioThread once the deadline has
+     * passed. Until then the thread keeps processing the other tasks and
+     * selection keys; the selector doesn't block beyond the deadline.
+     * <p>
+     * Can only be called by this NioThread.
+     *
+     * @param task          the task to add
+     * @param deadlineNanos the {@link System#nanoTime()} from which the task can run
+     * @throws NullPointerException if task is null
+     */
+    void addDelayedTask(Runnable task, long deadlineNanos) {
+        assert currentThread() == this : "delayed task added by " + currentThread();
+        delayedTasks.add(new DelayedTask(task, deadlineNanos));
+    }
+
     @Override
     public void run() {
         // This outer loop is a bit complex but it takes care of a lot of stuff:
@@ -220,6 +305,8 @@ public class NioThread extends Thread implements OperationHostileThread {
         //
         // The idea about this approach is that the runSelectNowLoop and runSelectLoop are
         // as clean as possible and don't contain any logic that isn't happening on the happy-path.
+        pinCurrentThread(threadAffinity, logger);
+        startNanos = System.nanoTime();
         try {
             for (; ; ) {
                 try {
@@ -272,9 +359,11 @@ public class NioThread extends Thread implements OperationHostileThread {
 
     private void selectLoop() throws IOException {
         while (!stop) {
+            // the delayed tasks go first, since the tasks they add are only run by the task queue
+            processDelayedTasks();
             processTaskQueue();
 
-            int selectedKeys = selector.select(SELECT_WAIT_TIME_MILLIS);
+            int selectedKeys = select();
             if (selectedKeys > 0) {
                 processSelectionKeys();
             }
@@ -284,14 +373,16 @@ public class NioThread extends Thread implements OperationHostileThread {
     private void selectLoopWithFix() throws IOException {
         int idleCount = 0;
         while (!stop) {
+            // the delayed tasks go first, since the tasks they add are only run by the task queue
+            processDelayedTasks();
             processTaskQueue();
 
             long before = currentTimeMillis();
-            int selectedKeys = selector.select(SELECT_WAIT_TIME_MILLIS);
+            int selectedKeys = select();
             if (selectedKeys > 0) {
                 idleCount = 0;
                 processSelectionKeys();
-            } else if (!taskQueue.isEmpty()) {
+            } else if (!taskQueue.isEmpty() || !delayedTasks.isEmpty()) {
                 idleCount = 0;
             } else {
                 // no keys were selected, not interrupted by wakeup therefore we hit an issue with JDK/network stack
@@ -306,6 +397,41 @@ public class NioThread extends Thread implements OperationHostileThread {
         }
     }
 
+    private int select() throws IOException {
+        long timeoutMillis = selectTimeoutMillis();
+        if (timeoutMillis == 0) {
+            return selector.selectNow();
+        }
+
+        idleStartNanos = System.nanoTime();
+        try {
+            return selector.select(timeoutMillis);
+        } finally {
+            endIdle();
+        }
+    }
+
+    // the selector blocks until the first delayed task is due. Since it can't
+    // block for less than a millisecond, the delay is rounded down and the
+    // rest of it, less than a millisecond, is spent polling the selector
+    // with selectNow, so the delayed tasks don't run late.
+    private long selectTimeoutMillis() {
+        DelayedTask delayedTask = delayedTasks.peek();
+        if (delayedTask == null) {
+            return SELECT_WAIT_TIME_MILLIS;
+        }
+        long remainingNanos = delayedTask.deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+            return 0;
+        }
+        return min(NANOSECONDS.toMillis(remainingNanos), SELECT_WAIT_TIME_MILLIS);
+    }
+
+    private void endIdle() {
+        idleTimeNanos.inc(System.nanoTime() - idleStartNanos);
+        idleStartNanos = 0;
+    }
+
     private boolean selectorBugDetected(int idleCount) {
         return idleCount > SELECT_IDLE_COUNT_THRESHOLD
                 || (selectorWorkaroundTest && RANDOM.nextInt(TEST_SELECTOR_BUG_PROBABILITY) == 1);
@@ -314,18 +440,28 @@ public class NioThread extends Thread implements OperationHostileThread {
     private void selectNowLoop() throws IOException {
         long idleRound = 0;
         while (!stop) {
-            boolean tasksProcessed = processTaskQueue();
+            boolean tasksProcessed = processDelayedTasks();
+            tasksProcessed |= processTaskQueue();
 
             int selectedKeys = selector.selectNow();
 
-            if (selectedKeys > 0) {
-                processSelectionKeys();
-                idleRound = 0;
-            } else if (tasksProcessed) {
+            if (selectedKeys > 0 || tasksProcessed) {
+                if (idleStartNanos != 0) {
+                    endIdle();
+                }
+                if (selectedKeys > 0) {
+                    processSelectionKeys();
+                }
                 idleRound = 0;
-            } else if (idleStrategy != null) {
+            } else {
+                // a run of rounds without any work is idle time
+                if (idleRound == 0) {
+                    idleStartNanos = System.nanoTime();
+                }
                 idleRound++;
-                idleStrategy.idle(idleRound);
+                if (idleStrategy != null) {
+                    idleStrategy.idle(idleRound);
+                }
             }
         }
     }
@@ -337,6 +473,10 @@ public class NioThread extends Thread implements OperationHostileThread {
             if (task == null) {
                 break;
             }
+            if (!tasksProcessed && idleStartNanos != 0) {
+                // the idle period of the selectNow loop ends with the first task
+                endIdle();
+            }
             task.run();
             completedTaskCount.inc();
             tasksProcessed = true;
@@ -344,6 +484,30 @@ public class NioThread extends Thread implements OperationHostileThread {
         return tasksProcessed;
     }
 
+    private boolean processDelayedTasks() {
+        if (delayedTasks.isEmpty()) {
+            return false;
+        }
+
+        // the tasks added while processing have a later deadline, so they wait for a next round
+        long nowNanos = System.nanoTime();
+        boolean tasksProcessed = false;
+        while (!stop) {
+            DelayedTask delayedTask = delayedTasks.peek();
+            if (delayedTask == null || delayedTask.deadlineNanos - nowNanos > 0) {
+                break;
+            }
+            delayedTasks.poll();
+            if (!tasksProcessed && idleStartNanos != 0) {
+                endIdle();
+            }
+            delayedTask.task.run();
+            completedTaskCount.inc();
+            tasksProcessed = true;
+        }
+        return tasksProcessed;
+    }
+
     private void processSelectionKeys() {
         lastSelectTimeMs = currentTimeMillis();
         Iterator<SelectionKey> it = selector.selectedKeys().iterator();
@@ -423,4 +587,29 @@ public class NioThread extends Thread implements OperationHostileThread {
     public String toString() {
         return getName();
     }
+
+    private static final class DelayedTask implements Comparable<DelayedTask> {
+        private final Runnable task;
+        private final long deadlineNanos;
+
+        DelayedTask(Runnable task, long deadlineNanos) {
+            this.task = checkNotNull(task, "task can't be null");
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public int compareTo(DelayedTask that) {
+            return Long.signum(deadlineNanos - that.deadlineNanos);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
 }
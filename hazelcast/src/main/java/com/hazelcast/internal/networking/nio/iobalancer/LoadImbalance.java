@@ -64,4 +64,27 @@ class LoadImbalance {
     long getLoad(MigratablePipeline pipeline) {
         return pipelineLoadCounter.get(pipeline);
     }
+
+    /**
+     * @param owner
+     * @param pipeline
+     * @return {@code true} if the owner runs a pipeline of the same stripe
+     * group as the given pipeline, {@code false} otherwise
+     */
+    boolean ownsStripeSibling(NioThread owner, MigratablePipeline pipeline) {
+        Object stripeGroup = pipeline.stripeGroup();
+        if (stripeGroup == null) {
+            return false;
+        }
+        Set<MigratablePipeline> pipelines = ownerToPipelines.get(owner);
+        if (pipelines == null) {
+            return false;
+        }
+        for (MigratablePipeline other : pipelines) {
+            if (other != pipeline && stripeGroup.equals(other.stripeGroup())) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -28,7 +28,9 @@ import java.util.Set;
  *
  * Once a migration is triggered it tries to find the busiest pipeline registered in
  * {@link LoadImbalance#srcOwner} which wouldn't cause overload of the
- * {@link LoadImbalance#dstOwner} after a migration.
+ * {@link LoadImbalance#dstOwner} after a migration. Pipelines of striped
+ * channels are not moved to a NioThread already running a pipeline of the
+ * same stripe group.
  */
 class LoadMigrationStrategy implements MigrationStrategy {
 
@@ -86,7 +88,8 @@ class LoadMigrationStrategy implements MigrationStrategy {
         for (MigratablePipeline pipeline : candidates) {
             long load = imbalance.getLoad(pipeline);
             if (load > loadInSelectedPipeline) {
-                if (load < migrationThreshold) {
+                // moving a stripe next to its sibling would serialize the stripes on a single thread
+                if (load < migrationThreshold && !imbalance.ownsStripeSibling(imbalance.dstOwner, pipeline)) {
                     loadInSelectedPipeline = load;
                     candidate = pipeline;
                 }
@@ -19,6 +19,8 @@ package com.hazelcast.internal.nio;
 import com.hazelcast.internal.networking.OutboundFrame;
 import com.hazelcast.internal.serialization.impl.HeapData;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 import static com.hazelcast.internal.nio.PacketIOHelper.HEADER_SIZE;
 
 /**
@@ -97,15 +99,35 @@ public final class Packet extends HeapData implements OutboundFrame {
     public static final int FLAG_JET_FLOW_CONTROL = 1 << 1;
 
 
+    // 3.c Bind packet flags
+
+    /**
+     * Marks a Bind packet as a fence of a member connection stripe
+     */
+    public static final int FLAG_BIND_STRIPE_FENCE = 1 << 1;
+    /**
+     * Marks a stripe fence Bind packet as the acknowledgement of the fence
+     */
+    public static final int FLAG_BIND_STRIPE_FENCE_ACK = 1 << 6;
+
+
     //            END OF HEADER FLAG SECTION
 
 
     // char is a 16-bit unsigned integer. Here we use it as a bitfield.
     private char flags;
 
+    private static final AtomicIntegerFieldUpdater<Packet> REF_COUNT
+            = AtomicIntegerFieldUpdater.newUpdater(Packet.class, "refCount");
+
     private int partitionId;
     private transient Connection conn;
 
+    // the pool the payload is returned to once the packet is released, null if the payload isn't pooled
+    private transient PacketPayloadPool payloadPool;
+    private transient PacketPayloadPool.LeakTracker leakTracker;
+    private transient volatile int refCount;
+
     public Packet() {
     }
 
@@ -118,6 +140,73 @@ public final class Packet extends HeapData implements OutboundFrame {
         this.partitionId = partitionId;
     }
 
+    Packet(byte[] payload, int partitionId, PacketPayloadPool payloadPool) {
+        super(payload);
+        this.partitionId = partitionId;
+        this.payloadPool = payloadPool;
+        this.refCount = 1;
+    }
+
+    void setLeakTracker(PacketPayloadPool.LeakTracker leakTracker) {
+        this.leakTracker = leakTracker;
+    }
+
+    /**
+     * Checks if the payload of this packet is taken from a
+     * {@link PacketPayloadPool} and needs to be {@link #release() released}.
+     *
+     * @return {@code true} if the payload is pooled, {@code false} otherwise.
+     */
+    public boolean isPooled() {
+        return payloadPool != null;
+    }
+
+    /**
+     * Increments the reference count of a pooled packet, so that its payload
+     * isn't returned to the pool before a matching {@link #release()}. Does
+     * nothing if the payload isn't pooled.
+     *
+     * @return {@code this} (for fluent interface)
+     * @throws IllegalStateException if the packet has already been released
+     */
+    public Packet retain() {
+        if (payloadPool != null) {
+            int count;
+            do {
+                count = refCount;
+                if (count <= 0) {
+                    throw new IllegalStateException("Can't retain a released packet: " + this);
+                }
+            } while (!REF_COUNT.compareAndSet(this, count, count + 1));
+        }
+        return this;
+    }
+
+    /**
+     * Decrements the reference count of a pooled packet and returns its
+     * payload to the pool once the count drops to zero. The packet must not
+     * be read after its last release. Does nothing if the payload isn't
+     * pooled.
+     *
+     * @throws IllegalStateException if the packet is released more often than
+     *                               it was retained
+     */
+    public void release() {
+        PacketPayloadPool pool = payloadPool;
+        if (pool == null) {
+            return;
+        }
+
+        int count = REF_COUNT.decrementAndGet(this);
+        if (count == 0) {
+            byte[] releasedPayload = payload;
+            payload = null;
+            pool.release(releasedPayload, leakTracker);
+        } else if (count < 0) {
+            throw new IllegalStateException("Packet is released more often than it was retained: " + this);
+        }
+    }
+
     /**
      * Gets the Connection this Packet was send with.
      *
@@ -306,7 +395,13 @@ public final class Packet extends HeapData implements OutboundFrame {
          * <p>
          * {@code ordinal = 4}
          */
-        BIND,
+        BIND {
+            @Override
+            public String describeFlags(char flags) {
+                return "[isStripeFence=" + isFlagRaised(flags, FLAG_BIND_STRIPE_FENCE)
+                        + ", isStripeFenceAck=" + isFlagRaised(flags, FLAG_BIND_STRIPE_FENCE_ACK) + ']';
+            }
+        },
         /**
          * Unused packet type. Available for future use.
          * <p>
@@ -34,9 +34,11 @@ import static com.hazelcast.internal.nio.Packet.VERSION;
  * write at the same time, you need to have 2 instances.
  *
  * A {@link PacketIOHelper} is designed to be reused.
+ *
+ * A {@link PacketIOHelper} used for reading can take the payloads of the packets from a {@link PacketPayloadPool}.
  */
 public class PacketIOHelper {
-    static final int HEADER_SIZE = BYTE_SIZE_IN_BYTES + SHORT_SIZE_IN_BYTES + INT_SIZE_IN_BYTES + INT_SIZE_IN_BYTES;
+    public static final int HEADER_SIZE = BYTE_SIZE_IN_BYTES + SHORT_SIZE_IN_BYTES + INT_SIZE_IN_BYTES + INT_SIZE_IN_BYTES;
 
     private int valueOffset;
     private int size;
@@ -44,6 +46,18 @@ public class PacketIOHelper {
     private char flags;
     private int partitionId;
     private byte[] payload;
+    private final PacketPayloadPool payloadPool;
+
+    public PacketIOHelper() {
+        this(null);
+    }
+
+    /**
+     * @param payloadPool the pool to take the payloads of the read packets from or {@code null} to allocate them
+     */
+    public PacketIOHelper(PacketPayloadPool payloadPool) {
+        this.payloadPool = payloadPool;
+    }
 
     /**
      * Writes the packet data to the supplied {@code ByteBuffer}, up to the buffer's limit. If it returns {@code false},
@@ -58,11 +72,8 @@ public class PacketIOHelper {
                 return false;
             }
 
-            dst.put(VERSION);
-            dst.putChar(packet.getFlags());
-            dst.putInt(packet.getPartitionId());
+            writeHeaderTo(packet, dst);
             size = packet.totalSize();
-            dst.putInt(size);
             headerComplete = true;
         }
 
@@ -74,6 +85,22 @@ public class PacketIOHelper {
         }
     }
 
+    /**
+     * Writes only the header of the packet to the supplied {@code ByteBuffer}.
+     * The caller is responsible for writing the payload of the packet right
+     * after the header and for making sure {@link #HEADER_SIZE} bytes are
+     * remaining in the buffer.
+     *
+     * @param packet the packet to write the header of
+     * @param dst    the destination byte buffer
+     */
+    public static void writeHeaderTo(Packet packet, ByteBuffer dst) {
+        dst.put(VERSION);
+        dst.putChar(packet.getFlags());
+        dst.putInt(packet.getPartitionId());
+        dst.putInt(packet.totalSize());
+    }
+
     private boolean writeValue(Packet packet, ByteBuffer dst) {
         if (size > 0) {
             // the number of bytes that can be written to the bb.
@@ -131,7 +158,9 @@ public class PacketIOHelper {
         }
 
         if (readValue(src)) {
-            Packet packet = new Packet(payload, partitionId).resetFlagsTo(flags);
+            Packet packet = payloadPool == null
+                    ? new Packet(payload, partitionId).resetFlagsTo(flags)
+                    : payloadPool.newPacket(payload, partitionId, flags);
             reset();
             return packet;
         } else {
@@ -147,7 +176,7 @@ public class PacketIOHelper {
 
     private boolean readValue(ByteBuffer src) {
         if (payload == null) {
-            payload = new byte[size];
+            payload = payloadPool == null ? new byte[size] : payloadPool.acquire(size, flags);
         }
 
         if (size > 0) {
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.nio;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+import com.hazelcast.logging.ILogger;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
+import static com.hazelcast.internal.nio.Packet.FLAG_OP_CONTROL;
+import static com.hazelcast.internal.nio.Packet.FLAG_OP_RESPONSE;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+
+/**
+ * A pool of byte arrays for the payloads of the inbound packets.
+ * <p>
+ * A {@link Packet} is a {@link com.hazelcast.internal.serialization.impl.HeapData}
+ * so its payload needs to be a byte array of exactly the packet size. The pool
+ * therefore keeps the released payloads in a bucket per payload size, up to
+ * {@link #MAX_POOLED_PAYLOAD_SIZE}, and the total number of pooled bytes is
+ * bounded by the capacity of the pool.
+ * <p>
+ * Only the payloads of operation packets, excluding the responses and the
+ * control packets, are pooled: these are released by the
+ * {@link com.hazelcast.spi.impl.operationexecutor.OperationRunner} once the
+ * operation has been deserialized. The other packets may be referenced for
+ * an unknown time, e.g. a normal response is deserialized by the thread
+ * waiting for the invocation, so their payloads are always allocated.
+ * <p>
+ * The pool counts the allocated and the reused payloads even if the pooling is
+ * disabled, so the allocation rate can be compared before and after enabling
+ * the pool.
+ * <p>
+ * With the leak detection enabled, every pooled packet is tracked by a phantom
+ * reference, and the pooled packets that are garbage collected without being
+ * released are logged and counted.
+ */
+public final class PacketPayloadPool {
+
+    /**
+     * The maximum size of the payloads kept in the pool.
+     */
+    public static final int MAX_POOLED_PAYLOAD_SIZE = 8192;
+
+    static final int BUCKET_CAPACITY = 64;
+
+    @Probe
+    private final MwCounter allocatedCount = newMwCounter();
+    @Probe(unit = BYTES)
+    private final MwCounter allocatedBytes = newMwCounter();
+    @Probe
+    private final MwCounter reusedCount = newMwCounter();
+    @Probe(unit = BYTES)
+    private final MwCounter reusedBytes = newMwCounter();
+    @Probe
+    private final MwCounter releasedCount = newMwCounter();
+    // the released payloads that didn't fit in the pool
+    @Probe
+    private final MwCounter discardedCount = newMwCounter();
+    @Probe
+    private final MwCounter leakCount = newMwCounter();
+
+    private final boolean enabled;
+    private final long capacity;
+    private final boolean leakDetection;
+    private final ILogger logger;
+    // the released payloads indexed by their size; created on demand
+    private final AtomicReferenceArray<ArrayBlockingQueue<byte[]>> buckets
+            = new AtomicReferenceArray<>(MAX_POOLED_PAYLOAD_SIZE + 1);
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final ReferenceQueue<Packet> leakQueue = new ReferenceQueue<>();
+    private final Set<LeakTracker> leakTrackers = ConcurrentHashMap.newKeySet();
+
+    public PacketPayloadPool(boolean enabled, long capacity, boolean leakDetection, ILogger logger) {
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.leakDetection = leakDetection;
+        this.logger = logger;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the number of bytes currently held by the pool.
+     */
+    @Probe(unit = BYTES)
+    public long pooledBytes() {
+        return pooledBytes.get();
+    }
+
+    /**
+     * Returns a byte array for the payload of a packet with the given size and
+     * header flags: a pooled array if the payload of the packet is pooled and
+     * a released array of this size is available, a new array otherwise.
+     *
+     * @param size  the payload size
+     * @param flags the header flags of the packet
+     * @return the byte array of exactly {@code size} bytes
+     */
+    public byte[] acquire(int size, char flags) {
+        if (isPooled(size, flags)) {
+            ArrayBlockingQueue<byte[]> bucket = buckets.get(size);
+            byte[] payload = bucket == null ? null : bucket.poll();
+            if (payload != null) {
+                pooledBytes.addAndGet(-size);
+                reusedCount.inc();
+                reusedBytes.inc(size);
+                return payload;
+            }
+        }
+
+        allocatedCount.inc();
+        allocatedBytes.inc(size);
+        return new byte[size];
+    }
+
+    /**
+     * Creates the packet for a payload acquired from this pool. The packet
+     * needs to be {@link Packet#release() released} if its payload is pooled.
+     *
+     * @param payload     the payload acquired by {@link #acquire(int, char)}
+     * @param partitionId the partition ID of the packet
+     * @param flags       the header flags of the packet
+     * @return the packet
+     */
+    public Packet newPacket(byte[] payload, int partitionId, char flags) {
+        if (!isPooled(payload.length, flags)) {
+            return new Packet(payload, partitionId).resetFlagsTo(flags);
+        }
+
+        Packet packet = new Packet(payload, partitionId, this).resetFlagsTo(flags);
+        if (leakDetection) {
+            detectLeaks();
+            LeakTracker leakTracker = new LeakTracker(packet, leakQueue);
+            leakTrackers.add(leakTracker);
+            packet.setLeakTracker(leakTracker);
+        }
+        return packet;
+    }
+
+    private boolean isPooled(int size, char flags) {
+        return enabled
+                && size > 0
+                && size <= MAX_POOLED_PAYLOAD_SIZE
+                && Packet.Type.fromFlags(flags) == Packet.Type.OPERATION
+                && (flags & (FLAG_OP_RESPONSE | FLAG_OP_CONTROL)) == 0;
+    }
+
+    void release(byte[] payload, LeakTracker leakTracker) {
+        releasedCount.inc();
+        if (leakTracker != null) {
+            leakTrackers.remove(leakTracker);
+            leakTracker.clear();
+        }
+
+        int size = payload.length;
+        if (pooledBytes.addAndGet(size) > capacity) {
+            pooledBytes.addAndGet(-size);
+            discardedCount.inc();
+            return;
+        }
+
+        if (!bucket(size).offer(payload)) {
+            pooledBytes.addAndGet(-size);
+            discardedCount.inc();
+        }
+    }
+
+    private ArrayBlockingQueue<byte[]> bucket(int size) {
+        ArrayBlockingQueue<byte[]> bucket = buckets.get(size);
+        if (bucket == null) {
+            buckets.compareAndSet(size, null, new ArrayBlockingQueue<>(BUCKET_CAPACITY));
+            bucket = buckets.get(size);
+        }
+        return bucket;
+    }
+
+    /**
+     * Logs and counts the pooled packets that have been garbage collected
+     * without being released. Does nothing if the leak detection is disabled.
+     */
+    public void detectLeaks() {
+        if (!leakDetection) {
+            return;
+        }
+
+        LeakTracker leakTracker;
+        while ((leakTracker = (LeakTracker) leakQueue.poll()) != null) {
+            if (leakTrackers.remove(leakTracker)) {
+                leakCount.inc();
+                logger.warning("A pooled packet was garbage collected without being released: " + leakTracker);
+            }
+        }
+    }
+
+    long allocatedCount() {
+        return allocatedCount.get();
+    }
+
+    long reusedCount() {
+        return reusedCount.get();
+    }
+
+    long discardedCount() {
+        return discardedCount.get();
+    }
+
+    long leakCount() {
+        return leakCount.get();
+    }
+
+    /**
+     * Tracks a pooled packet to detect if it is garbage collected without
+     * being released. Keeps the description of the packet since the packet
+     * itself can't be accessed anymore once it is collected.
+     */
+    static final class LeakTracker extends PhantomReference<Packet> {
+
+        private final int partitionId;
+        private final int size;
+        private final char flags;
+
+        LeakTracker(Packet packet, ReferenceQueue<Packet> queue) {
+            super(packet, queue);
+            this.partitionId = packet.getPartitionId();
+            this.size = packet.totalSize();
+            this.flags = packet.getFlags();
+        }
+
+        @Override
+        public String toString() {
+            return "Packet{partitionId=" + partitionId
+                    + ", size=" + size
+                    + ", rawFlags=" + Integer.toBinaryString(flags)
+                    + '}';
+        }
+    }
+}
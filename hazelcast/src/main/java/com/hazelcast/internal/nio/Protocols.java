@@ -31,11 +31,25 @@ public final class Protocols {
      */
     public static final String CLUSTER = "HZC";
 
+    /**
+     * Protocol that is used among nodes to ask for the compression of the
+     * streams in both directions; the accepting node answers with it if it
+     * agrees and with {@link #CLUSTER} otherwise
+     */
+    public static final String CLUSTER_COMPRESSED = "HZZ";
+
     /**
      * New Client Protocol that is used for clients (Java, c++, c# client)
      */
     public static final String CLIENT_BINARY = "CP2";
 
+    /**
+     * Client Protocol asking for the compression of the streams in both
+     * directions (Java client); the member answers with it if it agrees and
+     * with {@link #CLIENT_BINARY} otherwise
+     */
+    public static final String CLIENT_BINARY_COMPRESSED = "CPZ";
+
     /**
      * Protocol that is used by REST
      */
@@ -49,12 +63,28 @@ public final class Protocols {
     private Protocols() {
     }
 
-    public static String toUserFriendlyString(String protocol) {
+    /**
+     * Returns the variant of the given protocol announcing the compression
+     * of the stream or {@code null} if the protocol doesn't support it.
+     */
+    public static String toCompressed(String protocol) {
         if (CLUSTER.equals(protocol)) {
-            return "Cluster Protocol";
+            return CLUSTER_COMPRESSED;
         }
 
         if (CLIENT_BINARY.equals(protocol)) {
+            return CLIENT_BINARY_COMPRESSED;
+        }
+
+        return null;
+    }
+
+    public static String toUserFriendlyString(String protocol) {
+        if (CLUSTER.equals(protocol) || CLUSTER_COMPRESSED.equals(protocol)) {
+            return "Cluster Protocol";
+        }
+
+        if (CLIENT_BINARY.equals(protocol) || CLIENT_BINARY_COMPRESSED.equals(protocol)) {
             return "Client Open Binary Protocol";
         }
 
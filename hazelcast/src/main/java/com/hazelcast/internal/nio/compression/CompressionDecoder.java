@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.nio.compression;
+
+import com.hazelcast.internal.metrics.DynamicMetricsProvider;
+import com.hazelcast.internal.metrics.MetricDescriptor;
+import com.hazelcast.internal.metrics.MetricsCollectionContext;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.networking.HandlerStatus;
+import com.hazelcast.internal.networking.InboundHandler;
+import com.hazelcast.internal.util.counters.SwCounter;
+
+import java.nio.ByteBuffer;
+
+import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
+import static com.hazelcast.internal.metrics.ProbeUnit.MS;
+import static com.hazelcast.internal.networking.ChannelOption.SO_RCVBUF;
+import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
+import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
+import static com.hazelcast.internal.nio.compression.CompressionEncoder.HEADER_LENGTH;
+import static com.hazelcast.internal.nio.compression.CompressionEncoder.MAX_BLOCK_LENGTH;
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A {@link InboundHandler} that restores the bytes compressed by the
+ * {@link CompressionEncoder} of the peer and passes them to the next handler
+ * of the pipeline.
+ * <p>
+ * The counters of the handler are exposed with the metrics of the inbound
+ * pipeline of the channel.
+ */
+public class CompressionDecoder extends InboundHandler<ByteBuffer, ByteBuffer> implements DynamicMetricsProvider {
+
+    private final byte[] payload = new byte[MAX_BLOCK_LENGTH];
+    private final byte[] output = new byte[MAX_BLOCK_LENGTH];
+    private int outputOffset;
+    private int outputLength;
+
+    @Probe(unit = BYTES)
+    private final SwCounter bytesIn = newSwCounter();
+    @Probe(unit = BYTES)
+    private final SwCounter bytesOut = newSwCounter();
+    private final SwCounter decompressionTimeNanos = newSwCounter();
+
+    @Override
+    public void handlerAdded() {
+        // a whole block needs to fit into the src
+        initSrcBuffer(max(channel.options().getOption(SO_RCVBUF), HEADER_LENGTH + MAX_BLOCK_LENGTH));
+    }
+
+    @Override
+    public HandlerStatus onRead() {
+        src.flip();
+        try {
+            for (; ; ) {
+                if (outputOffset < outputLength) {
+                    int length = min(dst.remaining(), outputLength - outputOffset);
+                    dst.put(output, outputOffset, length);
+                    outputOffset += length;
+                    if (outputOffset < outputLength) {
+                        // the next handler needs to consume its src first
+                        return DIRTY;
+                    }
+                }
+
+                if (!decodeBlock()) {
+                    return CLEAN;
+                }
+            }
+        } finally {
+            compactOrClear(src);
+        }
+    }
+
+    /**
+     * Decodes the next block of the src if it has been received completely.
+     *
+     * @return {@code true} if a block was decoded, {@code false} otherwise.
+     */
+    private boolean decodeBlock() {
+        if (src.remaining() < HEADER_LENGTH) {
+            return false;
+        }
+
+        int position = src.position();
+        int rawLength = src.getInt(position);
+        int payloadLength = src.getInt(position + INT_SIZE_IN_BYTES);
+        if (rawLength < 0 || rawLength > MAX_BLOCK_LENGTH || payloadLength < 0 || payloadLength > rawLength) {
+            throw new IllegalStateException("Malformed compressed block header, length: " + rawLength
+                    + ", payload length: " + payloadLength);
+        }
+        if (src.remaining() < HEADER_LENGTH + payloadLength) {
+            return false;
+        }
+        src.position(position + HEADER_LENGTH);
+
+        if (payloadLength < rawLength) {
+            src.get(payload, 0, payloadLength);
+            long startNanos = System.nanoTime();
+            int length = LZ4Codec.decompress(payload, 0, payloadLength, output, 0, rawLength);
+            decompressionTimeNanos.inc(System.nanoTime() - startNanos);
+            if (length != rawLength) {
+                throw new IllegalStateException("Malformed compressed block, expected " + rawLength
+                        + " bytes, decompressed " + length);
+            }
+            outputOffset = 0;
+            outputLength = rawLength;
+        } else if (dst.remaining() >= rawLength) {
+            // the uncompressed block is passed on directly
+            int limit = src.limit();
+            src.limit(src.position() + rawLength);
+            dst.put(src);
+            src.limit(limit);
+        } else {
+            src.get(output, 0, rawLength);
+            outputOffset = 0;
+            outputLength = rawLength;
+        }
+
+        bytesIn.inc(HEADER_LENGTH + payloadLength);
+        bytesOut.inc(rawLength);
+        return true;
+    }
+
+    @Probe(unit = MS)
+    private long decompressionTime() {
+        return NANOSECONDS.toMillis(decompressionTimeNanos.get());
+    }
+
+    @Override
+    public void provideDynamicMetrics(MetricDescriptor descriptor, MetricsCollectionContext context) {
+        context.collect(descriptor.withPrefix("tcp.connection.in.compression"), this);
+    }
+}
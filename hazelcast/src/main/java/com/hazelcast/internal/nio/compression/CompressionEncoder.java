@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.nio.compression;
+
+import com.hazelcast.internal.metrics.DynamicMetricsProvider;
+import com.hazelcast.internal.metrics.MetricDescriptor;
+import com.hazelcast.internal.metrics.MetricsCollectionContext;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.networking.HandlerStatus;
+import com.hazelcast.internal.networking.OutboundHandler;
+import com.hazelcast.internal.util.counters.SwCounter;
+
+import java.nio.ByteBuffer;
+
+import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
+import static com.hazelcast.internal.metrics.ProbeUnit.MS;
+import static com.hazelcast.internal.metrics.ProbeUnit.PERCENT;
+import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
+import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A {@link OutboundHandler} that compresses the bytes produced by the
+ * previous handler of the pipeline, e.g. the {@link com.hazelcast.internal.nio.Packet}s
+ * written by the {@link com.hazelcast.internal.nio.tcp.PacketEncoder}.
+ * <p>
+ * Whatever is available in the src when the handler is called forms a batch;
+ * it is cut into blocks of at most {@link #MAX_BLOCK_LENGTH} bytes, each
+ * preceded by a header holding the uncompressed and the payload length. The
+ * blocks smaller than the threshold, or that don't shrink, are sent as they
+ * are, so the stream is readable by the {@link CompressionDecoder} whatever
+ * the outcome of the compression.
+ * <p>
+ * The counters of the handler are exposed with the metrics of the outbound
+ * pipeline of the channel.
+ */
+public class CompressionEncoder extends OutboundHandler<ByteBuffer, ByteBuffer> implements DynamicMetricsProvider {
+
+    /**
+     * The largest number of uncompressed bytes in a block; bounded by the
+     * window of the {@link LZ4Codec} back references.
+     */
+    public static final int MAX_BLOCK_LENGTH = 1 << 16;
+
+    static final int HEADER_LENGTH = 2 * INT_SIZE_IN_BYTES;
+
+    private static final double PERCENTAGE = 100d;
+
+    private final int threshold;
+    private final LZ4Codec codec = new LZ4Codec();
+    private final byte[] raw = new byte[MAX_BLOCK_LENGTH];
+    private final byte[] block = new byte[HEADER_LENGTH + LZ4Codec.maxCompressedLength(MAX_BLOCK_LENGTH)];
+    private final ByteBuffer header = ByteBuffer.wrap(block);
+    private int blockOffset;
+    private int blockLength;
+
+    @Probe(unit = BYTES)
+    private final SwCounter bytesIn = newSwCounter();
+    @Probe(unit = BYTES)
+    private final SwCounter bytesOut = newSwCounter();
+    @Probe
+    private final SwCounter compressedBlocks = newSwCounter();
+    @Probe
+    private final SwCounter uncompressedBlocks = newSwCounter();
+    private final SwCounter compressionTimeNanos = newSwCounter();
+
+    /**
+     * @param threshold the minimum number of bytes a batch needs to have to
+     *                  get compressed.
+     */
+    public CompressionEncoder(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void handlerAdded() {
+        initDstBuffer();
+    }
+
+    @Override
+    public HandlerStatus onWrite() {
+        compactOrClear(dst);
+        try {
+            for (; ; ) {
+                if (blockOffset < blockLength) {
+                    int length = min(dst.remaining(), blockLength - blockOffset);
+                    dst.put(block, blockOffset, length);
+                    blockOffset += length;
+                    if (blockOffset < blockLength) {
+                        // the block didn't get written completely, so we are done.
+                        return DIRTY;
+                    }
+                }
+
+                if (!src.hasRemaining()) {
+                    return CLEAN;
+                }
+
+                encodeBlock();
+            }
+        } finally {
+            dst.flip();
+        }
+    }
+
+    private void encodeBlock() {
+        int rawLength = min(src.remaining(), MAX_BLOCK_LENGTH);
+        int payloadLength = rawLength;
+        if (rawLength < threshold) {
+            src.get(block, HEADER_LENGTH, rawLength);
+            uncompressedBlocks.inc();
+        } else {
+            src.get(raw, 0, rawLength);
+            long startNanos = System.nanoTime();
+            int compressedLength = codec.compress(raw, 0, rawLength, block, HEADER_LENGTH);
+            compressionTimeNanos.inc(System.nanoTime() - startNanos);
+            if (compressedLength < rawLength) {
+                payloadLength = compressedLength;
+                compressedBlocks.inc();
+            } else {
+                System.arraycopy(raw, 0, block, HEADER_LENGTH, rawLength);
+                uncompressedBlocks.inc();
+            }
+        }
+        header.putInt(0, rawLength).putInt(INT_SIZE_IN_BYTES, payloadLength);
+
+        blockOffset = 0;
+        blockLength = HEADER_LENGTH + payloadLength;
+        bytesIn.inc(rawLength);
+        bytesOut.inc(blockLength);
+    }
+
+    @Probe(unit = MS)
+    private long compressionTime() {
+        return NANOSECONDS.toMillis(compressionTimeNanos.get());
+    }
+
+    /**
+     * Returns the size of the compressed output relative to the input,
+     * including the block headers.
+     */
+    @Probe(unit = PERCENT)
+    private double ratio() {
+        long in = bytesIn.get();
+        return in == 0 ? PERCENTAGE : PERCENTAGE * bytesOut.get() / in;
+    }
+
+    @Override
+    public void provideDynamicMetrics(MetricDescriptor descriptor, MetricsCollectionContext context) {
+        context.collect(descriptor.withPrefix("tcp.connection.out.compression"), this);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nio.compression;
+
+import com.hazelcast.internal.networking.Channel;
+import com.hazelcast.internal.util.Clock;
+import com.hazelcast.logging.ILogger;
+
+import java.net.SocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Keeps track of the compression negotiation of the connections opened by
+ * this side.
+ * <p>
+ * The opening side asks for the compression with the compressed variant of
+ * the protocol bytes, e.g. {@link com.hazelcast.internal.nio.Protocols#CLUSTER_COMPRESSED},
+ * and writes nothing else until the peer answers. The peer answers with the
+ * compressed variant if it compresses as well, or with the plain variant if
+ * its own configuration disables the compression. A peer which doesn't know
+ * the compressed protocol bytes, e.g. a member or a client of an older
+ * version, closes the connection without answering; for a while, the
+ * connections opened to that peer don't ask for the compression then.
+ */
+public final class CompressionNegotiation {
+
+    /**
+     * How long the peers which didn't answer are asked for no compression.
+     */
+    static final long PLAIN_PEER_EXPIRY_MILLIS = MINUTES.toMillis(5);
+
+    private static final String ANSWERED_ATTRIBUTE = CompressionNegotiation.class.getName() + ".answered";
+
+    private final boolean enabled;
+    private final ILogger logger;
+    private final ConcurrentMap<SocketAddress, Long> plainPeers = new ConcurrentHashMap<>();
+
+    /**
+     * @param enabled if the compression is enabled by the local configuration.
+     * @param logger  the logger to report the peers not supporting the compression.
+     */
+    public CompressionNegotiation(boolean enabled, ILogger logger) {
+        this.enabled = enabled;
+        this.logger = logger;
+    }
+
+    /**
+     * Returns if the compression is enabled by the local configuration.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Decides if a channel opened by this side should ask for the compression.
+     * If it should, the channel is watched for getting closed before the peer
+     * answers, see {@link #answered(Channel)}.
+     *
+     * @param channel the channel in client mode.
+     * @return {@code true} if the channel should ask for the compression.
+     */
+    public boolean shouldAsk(Channel channel) {
+        if (!enabled) {
+            return false;
+        }
+
+        final SocketAddress peer = channel.remoteSocketAddress();
+        if (peer == null) {
+            return false;
+        }
+
+        Long plainSince = plainPeers.get(peer);
+        if (plainSince != null) {
+            if (Clock.currentTimeMillis() - plainSince < PLAIN_PEER_EXPIRY_MILLIS) {
+                return false;
+            }
+            plainPeers.remove(peer, plainSince);
+        }
+
+        channel.addCloseListener(closed -> {
+            if (closed.attributeMap().get(ANSWERED_ATTRIBUTE) == null
+                    && plainPeers.put(peer, Clock.currentTimeMillis()) == null) {
+                logger.info(peer + " closed the connection asking for the compression without answering, "
+                        + "the connections to it don't ask for the compression for the next "
+                        + MILLISECONDS.toMinutes(PLAIN_PEER_EXPIRY_MILLIS) + " minutes");
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Marks that the peer answered the compression request of the channel.
+     *
+     * @param channel the channel in client mode.
+     */
+    @SuppressWarnings("unchecked")
+    public static void answered(Channel channel) {
+        channel.attributeMap().put(ANSWERED_ATTRIBUTE, Boolean.TRUE);
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.nio.compression;
+
+import java.util.Arrays;
+
+/**
+ * A fast block compressor producing the LZ4 block format: a sequence of
+ * literal runs each followed by a back reference of at least {@value #MIN_MATCH}
+ * bytes into the last 64 KB of the block.
+ * <p>
+ * The compressor uses a single hash probe per position, trading the ratio
+ * for the speed, which is what the wire compression needs. An instance is
+ * not thread-safe since it reuses its hash table between the calls; the
+ * decompression is stateless.
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+public final class LZ4Codec {
+
+    static final int MIN_MATCH = 4;
+
+    private static final int HASH_LOG = 12;
+    private static final int MAX_DISTANCE = (1 << 16) - 1;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int SKIP_TRIGGER = 6;
+    private static final int RUN_MASK = 15;
+    private static final int ML_BITS = 4;
+
+    private final int[] hashTable = new int[1 << HASH_LOG];
+
+    /**
+     * Returns the maximum length of the compressed form of {@code length}
+     * bytes; the destination of {@link #compress} should be at least this
+     * long.
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses the given range of the source into the destination.
+     *
+     * @return the length of the compressed data written to the destination.
+     */
+    public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+        int srcEnd = srcOff + srcLen;
+        int matchLimit = srcEnd - LAST_LITERALS;
+        int mfLimit = srcEnd - MF_LIMIT;
+
+        int sp = srcOff;
+        int anchor = srcOff;
+        int dp = dstOff;
+
+        if (srcLen > MF_LIMIT) {
+            Arrays.fill(hashTable, -1);
+            while (sp < mfLimit) {
+                int sequence = readInt(src, sp);
+                int h = hash(sequence);
+                int ref = hashTable[h];
+                hashTable[h] = sp;
+
+                if (ref < 0 || sp - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    // the longer we don't find a match, the faster we skip the incompressible data
+                    sp += 1 + ((sp - anchor) >>> SKIP_TRIGGER);
+                    continue;
+                }
+
+                while (sp > anchor && ref > srcOff && src[sp - 1] == src[ref - 1]) {
+                    sp--;
+                    ref--;
+                }
+
+                int matchLength = MIN_MATCH;
+                while (sp + matchLength < matchLimit && src[sp + matchLength] == src[ref + matchLength]) {
+                    matchLength++;
+                }
+
+                dp = writeSequence(src, anchor, sp - anchor, sp - ref, matchLength, dst, dp);
+                sp += matchLength;
+                anchor = sp;
+            }
+        }
+
+        dp = writeLiterals(src, anchor, srcEnd - anchor, dst, dp);
+        return dp - dstOff;
+    }
+
+    /**
+     * Decompresses the given range of the source into the destination.
+     *
+     * @return the length of the decompressed data written to the destination.
+     * @throws IllegalStateException if the source is malformed or it doesn't
+     *                               fit into {@code dstLen} bytes.
+     */
+    public static int decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+        int srcEnd = srcOff + srcLen;
+        int dstEnd = dstOff + dstLen;
+        int sp = srcOff;
+        int dp = dstOff;
+
+        try {
+            for (; ; ) {
+                int token = src[sp++] & 0xFF;
+
+                int literalLength = token >>> ML_BITS;
+                if (literalLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sp++] & 0xFF;
+                        literalLength += b;
+                    } while (b == 0xFF);
+                }
+                if (literalLength > srcEnd - sp || literalLength > dstEnd - dp) {
+                    throw malformed();
+                }
+                System.arraycopy(src, sp, dst, dp, literalLength);
+                sp += literalLength;
+                dp += literalLength;
+
+                if (sp == srcEnd) {
+                    // the last sequence has only literals
+                    return dp - dstOff;
+                }
+
+                int offset = (src[sp++] & 0xFF) | (src[sp++] & 0xFF) << 8;
+                int matchLength = token & RUN_MASK;
+                if (matchLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sp++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 0xFF);
+                }
+                matchLength += MIN_MATCH;
+
+                int ref = dp - offset;
+                if (offset == 0 || ref < dstOff || matchLength > dstEnd - dp) {
+                    throw malformed();
+                }
+                // the match may overlap with the bytes being written, so it is copied byte by byte
+                for (int i = 0; i < matchLength; i++) {
+                    dst[dp + i] = dst[ref + i];
+                }
+                dp += matchLength;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw malformed();
+        }
+    }
+
+    private static IllegalStateException malformed() {
+        return new IllegalStateException("Malformed compressed block");
+    }
+
+    private static int writeSequence(byte[] src, int literalOff, int literalLength, int offset, int matchLength,
+                                     byte[] dst, int dp) {
+        int tokenPos = dp++;
+        int token;
+        if (literalLength >= RUN_MASK) {
+            token = RUN_MASK << ML_BITS;
+            dp = writeLength(literalLength - RUN_MASK, dst, dp);
+        } else {
+            token = literalLength << ML_BITS;
+        }
+        System.arraycopy(src, literalOff, dst, dp, literalLength);
+        dp += literalLength;
+
+        dst[dp++] = (byte) offset;
+        dst[dp++] = (byte) (offset >>> 8);
+
+        int length = matchLength - MIN_MATCH;
+        if (length >= RUN_MASK) {
+            token |= RUN_MASK;
+            dp = writeLength(length - RUN_MASK, dst, dp);
+        } else {
+            token |= length;
+        }
+        dst[tokenPos] = (byte) token;
+        return dp;
+    }
+
+    private static int writeLiterals(byte[] src, int literalOff, int literalLength, byte[] dst, int dp) {
+        if (literalLength >= RUN_MASK) {
+            dst[dp++] = (byte) (RUN_MASK << ML_BITS);
+            dp = writeLength(literalLength - RUN_MASK, dst, dp);
+        } else {
+            dst[dp++] = (byte) (literalLength << ML_BITS);
+        }
+        System.arraycopy(src, literalOff, dst, dp, literalLength);
+        return dp + literalLength;
+    }
+
+    private static int writeLength(int length, byte[] dst, int dp) {
+        while (length >= 0xFF) {
+            dst[dp++] = (byte) 0xFF;
+            length -= 0xFF;
+        }
+        dst[dp++] = (byte) length;
+        return dp;
+    }
+
+    private static int readInt(byte[] buf, int pos) {
+        return (buf[pos] & 0xFF) | (buf[pos + 1] & 0xFF) << 8 | (buf[pos + 2] & 0xFF) << 16 | buf[pos + 3] << 24;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (Integer.SIZE - HASH_LOG);
+    }
+}
@@ -34,6 +34,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 
+import static com.hazelcast.internal.networking.Channel.STRIPE_GROUP_ATTRIBUTE;
+
 final class BindHandler {
 
     private final TcpIpEndpointManager tcpIpEndpointManager;
@@ -169,6 +171,11 @@ final class BindHandler {
         return returnValue;
     }
 
+    @SuppressWarnings("unchecked")
+    private static void markStripeGroup(Connection connection, Address remoteEndPoint) {
+        ((TcpIpConnection) connection).getChannel().attributeMap().putIfAbsent(STRIPE_GROUP_ATTRIBUTE, remoteEndPoint);
+    }
+
     private boolean checkAlreadyConnected(TcpIpConnection connection, Address remoteEndPoint) {
         final Connection existingConnection = tcpIpEndpointManager.getConnection(remoteEndPoint);
         if (existingConnection != null && existingConnection.isAlive()) {
@@ -178,6 +185,9 @@ final class BindHandler {
                 }
                 // todo probably it's already in activeConnections (ConnectTask , AcceptorIOThread)
                 tcpIpEndpointManager.activeConnections.add(connection);
+                // eg a stripe opened by the remote member, keep it apart from the existing connection
+                markStripeGroup(existingConnection, remoteEndPoint);
+                markStripeGroup(connection, remoteEndPoint);
             }
             return true;
         }
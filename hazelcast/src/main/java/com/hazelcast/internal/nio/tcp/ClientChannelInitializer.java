@@ -23,6 +23,8 @@ import com.hazelcast.internal.networking.Channel;
 import com.hazelcast.internal.nio.IOService;
 
 import static com.hazelcast.instance.ProtocolType.CLIENT;
+import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_COMPRESSION_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_COMPRESSION_THRESHOLD;
 
 public class ClientChannelInitializer
         extends AbstractChannelInitializer {
@@ -34,10 +36,15 @@ public class ClientChannelInitializer
     @Override
     public void initChannel(Channel channel) {
         TcpIpConnection connection = (TcpIpConnection) channel.attributeMap().get(TcpIpConnection.class);
+        // the answer encoder waits for the protocol bytes and answers the compression request of the client
+        ClientProtocolAnswerEncoder answerEncoder = new ClientProtocolAnswerEncoder(
+                ioService.properties().getBoolean(SOCKET_COMPRESSION_ENABLED),
+                ioService.properties().getInteger(SOCKET_COMPRESSION_THRESHOLD));
         SingleProtocolDecoder protocolDecoder = new SingleProtocolDecoder(CLIENT,
-                new ClientMessageDecoder(connection, ioService.getClientEngine(), ioService.properties()));
+                new ClientMessageDecoder(connection, ioService.getClientEngine(), ioService.properties()),
+                answerEncoder);
 
-        channel.outboundPipeline().addLast(new ClientMessageEncoder());
+        channel.outboundPipeline().addLast(new ClientMessageEncoder(), answerEncoder);
         channel.inboundPipeline().addLast(protocolDecoder);
     }
 }
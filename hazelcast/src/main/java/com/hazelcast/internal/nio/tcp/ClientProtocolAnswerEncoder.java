@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nio.tcp;
+
+import com.hazelcast.internal.networking.HandlerStatus;
+import com.hazelcast.internal.networking.OutboundHandler;
+import com.hazelcast.internal.nio.compression.CompressionEncoder;
+
+import java.nio.ByteBuffer;
+
+import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
+import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
+import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
+import static com.hazelcast.internal.nio.Protocols.CLIENT_BINARY;
+import static com.hazelcast.internal.nio.Protocols.CLIENT_BINARY_COMPRESSED;
+import static com.hazelcast.internal.nio.Protocols.PROTOCOL_LENGTH;
+import static com.hazelcast.internal.util.StringUtil.stringToBytes;
+
+/**
+ * A {@link OutboundHandler} on the server side of a client connection that
+ * answers the compression request of the client.
+ * <p>
+ * A client asking for the compression with the {@link
+ * com.hazelcast.internal.nio.Protocols#CLIENT_BINARY_COMPRESSED} protocol
+ * bytes doesn't write anything else till it gets the answer: the compressed
+ * protocol bytes if the streams get compressed, the plain ones if the local
+ * configuration disables the compression. The clients not asking for the
+ * compression get no answer.
+ * <p>
+ * The handler holds back the outbound client messages till the protocol
+ * bytes of the client are received. Then it replaces itself with a {@link
+ * CompressionEncoder} or removes itself from the pipeline.
+ */
+public class ClientProtocolAnswerEncoder extends OutboundHandler<ByteBuffer, ByteBuffer> {
+
+    private final boolean compressionEnabled;
+    private final int compressionThreshold;
+
+    // written before the protocolLoaded
+    private boolean compressionAsked;
+    private boolean compress;
+    private volatile boolean protocolLoaded;
+
+    private boolean answerBuffered;
+
+    /**
+     * @param compressionEnabled   if the compression is enabled by the local configuration
+     * @param compressionThreshold the minimum size of the compressed batches
+     */
+    public ClientProtocolAnswerEncoder(boolean compressionEnabled, int compressionThreshold) {
+        this.compressionEnabled = compressionEnabled;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public void handlerAdded() {
+        initDstBuffer(PROTOCOL_LENGTH);
+    }
+
+    /**
+     * Signals the encoder that the protocol bytes of the client have been
+     * received.
+     *
+     * @param compressed if the client asked for the compression.
+     * @return {@code true} if the streams of the connection get compressed.
+     */
+    public boolean signalProtocolLoaded(boolean compressed) {
+        compressionAsked = compressed;
+        compress = compressed && compressionEnabled;
+        protocolLoaded = true;
+        channel.outboundPipeline().wakeup();
+        return compress;
+    }
+
+    @Override
+    public HandlerStatus onWrite() {
+        compactOrClear(dst);
+
+        try {
+            if (!protocolLoaded) {
+                // deal with spurious calls; it isn't known yet if the messages get compressed.
+                return CLEAN;
+            }
+
+            if (compressionAsked) {
+                if (!answerBuffered) {
+                    answerBuffered = true;
+                    dst.put(stringToBytes(compress ? CLIENT_BINARY_COMPRESSED : CLIENT_BINARY));
+                    return DIRTY;
+                }
+
+                if (dst.position() != 0) {
+                    // the answer needs to be flushed before anything else
+                    return DIRTY;
+                }
+            }
+
+            if (compress) {
+                channel.outboundPipeline().replace(this, new CompressionEncoder(compressionThreshold));
+            } else {
+                channel.outboundPipeline().remove(this);
+            }
+            return CLEAN;
+        } finally {
+            dst.flip();
+        }
+    }
+}
@@ -23,12 +23,24 @@ import com.hazelcast.internal.networking.Channel;
 import com.hazelcast.internal.networking.InboundHandler;
 import com.hazelcast.internal.networking.OutboundHandler;
 import com.hazelcast.internal.nio.IOService;
+import com.hazelcast.internal.nio.compression.CompressionNegotiation;
+import com.hazelcast.spi.properties.HazelcastProperties;
+
+import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_COMPRESSION_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_COMPRESSION_THRESHOLD;
 
 public class MemberChannelInitializer
         extends AbstractChannelInitializer  {
 
+    private final CompressionNegotiation compressionNegotiation;
+    private final int compressionThreshold;
+
     MemberChannelInitializer(IOService ioService, EndpointConfig config) {
         super(ioService, config);
+        HazelcastProperties properties = ioService.properties();
+        this.compressionNegotiation = new CompressionNegotiation(properties.getBoolean(SOCKET_COMPRESSION_ENABLED),
+                ioService.getLoggingService().getLogger(MemberChannelInitializer.class));
+        this.compressionThreshold = properties.getInteger(SOCKET_COMPRESSION_THRESHOLD);
     }
 
     @Override
@@ -37,7 +49,9 @@ public class MemberChannelInitializer
         OutboundHandler[] outboundHandlers = ioService.createOutboundHandlers(EndpointQualifier.MEMBER, connection);
         InboundHandler[] inboundHandlers = ioService.createInboundHandlers(EndpointQualifier.MEMBER, connection);
 
-        MemberProtocolEncoder protocolEncoder = new MemberProtocolEncoder(outboundHandlers);
+        boolean askCompression = channel.isClientMode() && compressionNegotiation.shouldAsk(channel);
+        MemberProtocolEncoder protocolEncoder = new MemberProtocolEncoder(outboundHandlers,
+                compressionNegotiation.isEnabled(), askCompression, compressionThreshold);
         SingleProtocolDecoder protocolDecoder = new SingleProtocolDecoder(ProtocolType.MEMBER, inboundHandlers, protocolEncoder);
 
         channel.outboundPipeline().addLast(protocolEncoder);
@@ -19,6 +19,8 @@ package com.hazelcast.internal.nio.tcp;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.networking.OutboundHandler;
 import com.hazelcast.internal.nio.ConnectionType;
+import com.hazelcast.internal.nio.compression.CompressionEncoder;
+import com.hazelcast.internal.nio.compression.CompressionNegotiation;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.nio.ByteBuffer;
@@ -27,17 +29,35 @@ import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
 import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
 import static com.hazelcast.internal.nio.Protocols.CLUSTER;
+import static com.hazelcast.internal.nio.Protocols.CLUSTER_COMPRESSED;
 import static com.hazelcast.internal.nio.Protocols.PROTOCOL_LENGTH;
 import static com.hazelcast.internal.util.StringUtil.stringToBytes;
+import static com.hazelcast.internal.util.collection.ArrayUtils.append;
 
 public class MemberProtocolEncoder extends OutboundHandler<Void, ByteBuffer> {
 
     private final OutboundHandler[] outboundHandlers;
+    private final boolean compressionEnabled;
+    private final int compressionThreshold;
+    /**
+     * askCompression is true when the channel is in client mode and asks the server side for the
+     * compression; nothing but the protocol bytes is written until the server side answers
+     */
+    private final boolean askCompression;
+    /**
+     * compress is decided by the answer of the server side when the channel is in client mode and
+     * by the request of the client side and the configuration otherwise
+     */
+    private volatile boolean compress;
     /**
      * mustWriteProtocol is true when the channel is in client mode (-> write member protocol bytes immediately)
      * or when the protocol bytes have already been received (on the server side of the connection)
      */
     private volatile boolean mustWriteProtocol;
+    /**
+     * answered is true when the channel asking for the compression received the protocol bytes of the server side
+     */
+    private volatile boolean answered;
 
     private boolean clusterProtocolBuffered;
 
@@ -50,7 +70,23 @@ public class MemberProtocolEncoder extends OutboundHandler<Void, ByteBuffer> {
      */
     @SuppressFBWarnings("EI_EXPOSE_REP2")
     public MemberProtocolEncoder(OutboundHandler[] next) {
+        this(next, false, false, 0);
+    }
+
+    /**
+     * @param next                 the {@link OutboundHandler} to replace this one in the outbound pipeline
+     *                             upon match of protocol bytes
+     * @param compressionEnabled   if the compression is enabled by the local configuration
+     * @param askCompression       if the channel in client mode should ask the server side for the compression
+     * @param compressionThreshold the minimum size of the compressed batches
+     */
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    public MemberProtocolEncoder(OutboundHandler[] next, boolean compressionEnabled, boolean askCompression,
+                                 int compressionThreshold) {
         this.outboundHandlers = next;
+        this.compressionEnabled = compressionEnabled;
+        this.askCompression = askCompression;
+        this.compressionThreshold = compressionThreshold;
     }
 
     @Override
@@ -75,7 +111,7 @@ public class MemberProtocolEncoder extends OutboundHandler<Void, ByteBuffer> {
 
             if (!clusterProtocolBuffered) {
                 clusterProtocolBuffered = true;
-                dst.put(stringToBytes(CLUSTER));
+                dst.put(stringToBytes(askCompression || compress ? CLUSTER_COMPRESSED : CLUSTER));
                 // Return false because ProtocolEncoder is not ready yet; but first we need to flush protocol
                 return DIRTY;
             }
@@ -85,10 +121,20 @@ public class MemberProtocolEncoder extends OutboundHandler<Void, ByteBuffer> {
                 return DIRTY;
             }
 
+            if (askCompression && !answered) {
+                // deal with spurious calls; it isn't known yet if the packets get compressed.
+                return CLEAN;
+            }
+
             // replace!
             TcpIpConnection connection = (TcpIpConnection) channel.attributeMap().get(TcpIpConnection.class);
             connection.setConnectionType(ConnectionType.MEMBER);
-            channel.outboundPipeline().replace(this, outboundHandlers);
+            if (compress) {
+                channel.outboundPipeline().replace(this,
+                        append(outboundHandlers, new OutboundHandler[]{new CompressionEncoder(compressionThreshold)}));
+            } else {
+                channel.outboundPipeline().replace(this, outboundHandlers);
+            }
 
             return CLEAN;
         } finally {
@@ -97,9 +143,41 @@ public class MemberProtocolEncoder extends OutboundHandler<Void, ByteBuffer> {
     }
 
     public void signalProtocolLoaded() {
-        assert !channel.isClientMode() : "Signal protocol should only be made on channel in serverMode";
-        mustWriteProtocol = true;
-        channel.outboundPipeline().wakeup();
+        signalProtocolLoaded(false);
+    }
+
+    /**
+     * Signals the encoder that the protocol bytes of the peer have been
+     * received.
+     * <p>
+     * On the server side of a connection, the streams get compressed if the
+     * client side asked for it and the local configuration enables it; the
+     * encoder answers with the matching protocol bytes. On the client side,
+     * the answer of the server side decides.
+     *
+     * @param compressed if the peer sent the compressed variant of the
+     *                   protocol bytes.
+     * @return {@code true} if the streams of the connection get compressed.
+     * @throws IllegalStateException if the server side answered with the
+     *                               compression the client side didn't ask for.
+     */
+    public boolean signalProtocolLoaded(boolean compressed) {
+        if (channel.isClientMode()) {
+            if (compressed && !askCompression) {
+                throw new IllegalStateException("Compression wasn't asked for");
+            }
+            compress = compressed;
+            if (askCompression) {
+                CompressionNegotiation.answered(channel);
+                answered = true;
+                channel.outboundPipeline().wakeup();
+            }
+        } else {
+            compress = compressed && compressionEnabled;
+            mustWriteProtocol = true;
+            channel.outboundPipeline().wakeup();
+        }
+        return compress;
     }
 
     /**
@@ -21,6 +21,7 @@ import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.networking.nio.InboundHandlerWithCounters;
 import com.hazelcast.internal.nio.Packet;
 import com.hazelcast.internal.nio.PacketIOHelper;
+import com.hazelcast.internal.nio.PacketPayloadPool;
 
 import java.nio.ByteBuffer;
 import java.util.function.Consumer;
@@ -41,11 +42,16 @@ import static com.hazelcast.internal.nio.Packet.FLAG_URGENT;
 public class PacketDecoder extends InboundHandlerWithCounters<ByteBuffer, Consumer<Packet>> {
 
     protected final TcpIpConnection connection;
-    private final PacketIOHelper packetReader = new PacketIOHelper();
+    private final PacketIOHelper packetReader;
 
     public PacketDecoder(TcpIpConnection connection, Consumer<Packet> dst) {
+        this(connection, dst, null);
+    }
+
+    public PacketDecoder(TcpIpConnection connection, Consumer<Packet> dst, PacketPayloadPool payloadPool) {
         this.connection = connection;
         this.dst = dst;
+        this.packetReader = new PacketIOHelper(payloadPool);
     }
 
     @Override
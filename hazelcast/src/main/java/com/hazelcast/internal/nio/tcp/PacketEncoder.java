@@ -16,17 +16,21 @@
 
 package com.hazelcast.internal.nio.tcp;
 
+import com.hazelcast.internal.networking.GatheringOutboundHandler;
 import com.hazelcast.internal.networking.OutboundHandler;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.nio.Packet;
 import com.hazelcast.internal.nio.PacketIOHelper;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
 import java.util.function.Supplier;
 
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
 import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
+import static com.hazelcast.internal.nio.PacketIOHelper.HEADER_SIZE;
 
 /**
  * A {@link OutboundHandler} that for member to member communication.
@@ -37,22 +41,65 @@ import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
  * multiple connections. The flyweight contains the actual 'position' state of
  * what has been written.
  *
+ * If a gathering threshold is configured and the encoder is the last handler
+ * of the pipeline, the payloads of the packets of at least the threshold size
+ * aren't copied into the dst. Only their headers are written to the dst, and
+ * the payloads are written to the socket straight from the packets, together
+ * with the dst content, using a single gathering write.
+ *
  * @see PacketDecoder
  */
-public class PacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer> {
+public class PacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer> implements GatheringOutboundHandler {
+
+    // the maximum number of buffers written with a single gathering write
+    static final int MAX_GATHERED_BUFFERS = 64;
 
     private final PacketIOHelper packetWriter = new PacketIOHelper();
+    private final int gatheringThreshold;
 
     private Packet packet;
 
+    private boolean gatheringEnabled;
+    // the segments of the dst and the payloads waiting to be written. As long
+    // as there are any, the dst can't be compacted.
+    private ByteBuffer[] gathered;
+    private int gatheredCount;
+    private int gatheredIndex;
+    // the start of the dst segment that isn't gathered yet
+    private int segmentStart;
+
+    public PacketEncoder() {
+        this(-1);
+    }
+
+    /**
+     * @param gatheringThreshold the packet size from which the payload is
+     *                           written with a gathering write; a negative
+     *                           value disables the gathering writes.
+     */
+    public PacketEncoder(int gatheringThreshold) {
+        this.gatheringThreshold = gatheringThreshold;
+    }
+
     @Override
     public void handlerAdded() {
         initDstBuffer();
     }
 
+    @Override
+    public void setGatheringEnabled(boolean enabled) {
+        this.gatheringEnabled = enabled && gatheringThreshold >= 0;
+    }
+
     @Override
     public HandlerStatus onWrite() {
+        if (gatheredCount > 0) {
+            // the gathered buffers still refer to the dst
+            return DIRTY;
+        }
+
         compactOrClear(dst);
+        segmentStart = 0;
         try {
             for (; ; ) {
                 if (packet == null) {
@@ -62,6 +109,11 @@ public class PacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer>
                         // everything is processed, so we are done
                         return CLEAN;
                     }
+
+                    if (gather(packet)) {
+                        packet = null;
+                        continue;
+                    }
                 }
 
                 if (packetWriter.writeTo(packet, dst)) {
@@ -73,7 +125,60 @@ public class PacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer>
                 }
             }
         } finally {
+            if (gatheredCount > 0) {
+                addSegment();
+            }
             dst.flip();
         }
     }
+
+    private boolean gather(Packet packet) {
+        int size = packet.totalSize();
+        if (!gatheringEnabled || size == 0 || size < gatheringThreshold || dst.remaining() < HEADER_SIZE
+                // room for the segment before the payload, the payload and the trailing segment
+                || gatheredCount + 3 > MAX_GATHERED_BUFFERS) {
+            return false;
+        }
+
+        if (gathered == null) {
+            gathered = new ByteBuffer[MAX_GATHERED_BUFFERS];
+        }
+        PacketIOHelper.writeHeaderTo(packet, dst);
+        addSegment();
+        gathered[gatheredCount++] = ByteBuffer.wrap(packet.toByteArray());
+        return true;
+    }
+
+    private void addSegment() {
+        ByteBuffer segment = dst.duplicate();
+        segment.limit(dst.position());
+        segment.position(segmentStart);
+        gathered[gatheredCount++] = segment;
+        segmentStart = dst.position();
+    }
+
+    @Override
+    public long writeTo(GatheringByteChannel channel) throws IOException {
+        if (gatheredCount == 0) {
+            return channel.write(dst);
+        }
+
+        long written = channel.write(gathered, gatheredIndex, gatheredCount - gatheredIndex);
+        while (gatheredIndex < gatheredCount && !gathered[gatheredIndex].hasRemaining()) {
+            gathered[gatheredIndex++] = null;
+        }
+
+        if (gatheredIndex == gatheredCount) {
+            // everything is written, so the dst can be reused
+            dst.position(dst.limit());
+            gatheredCount = 0;
+            gatheredIndex = 0;
+        }
+        return written;
+    }
+
+    @Override
+    public boolean hasRemaining() {
+        return gatheredCount > 0 || dst.hasRemaining();
+    }
 }
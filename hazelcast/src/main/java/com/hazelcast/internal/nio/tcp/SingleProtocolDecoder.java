@@ -21,6 +21,7 @@ import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.networking.InboundHandler;
 import com.hazelcast.internal.networking.OutboundHandler;
 import com.hazelcast.internal.nio.ConnectionType;
+import com.hazelcast.internal.nio.compression.CompressionDecoder;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.nio.ByteBuffer;
@@ -28,7 +29,9 @@ import java.nio.ByteBuffer;
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
 import static com.hazelcast.internal.nio.Protocols.PROTOCOL_LENGTH;
+import static com.hazelcast.internal.nio.Protocols.toCompressed;
 import static com.hazelcast.internal.util.StringUtil.bytesToString;
+import static com.hazelcast.internal.util.collection.ArrayUtils.append;
 
 public class SingleProtocolDecoder
         extends InboundHandler<ByteBuffer, Void> {
@@ -36,12 +39,36 @@ public class SingleProtocolDecoder
     protected final InboundHandler[] inboundHandlers;
     protected final ProtocolType supportedProtocol;
 
+    /**
+     * compressed is true when the inbound stream following the protocol bytes is compressed
+     */
+    protected boolean compressed;
+
     private final MemberProtocolEncoder encoder;
+    private final ClientProtocolAnswerEncoder answerEncoder;
 
     public SingleProtocolDecoder(ProtocolType supportedProtocol, InboundHandler next) {
         this(supportedProtocol, new InboundHandler[] {next}, null);
     }
 
+    /**
+     * Decodes first 3 incoming bytes, validates against {@code supportedProtocol} and, when
+     * matching, replaces itself in the inbound pipeline with the {@code next InboundHandler}.
+     *
+     * @param supportedProtocol  the {@link ProtocolType} supported by this {@code ProtocolDecoder}
+     * @param next               the {@link InboundHandler} to replace this one in the inbound pipeline
+     *                           upon match of protocol bytes
+     * @param answerEncoder     a {@link ClientProtocolAnswerEncoder} that will be notified if the client
+     *                          asked for compression when matching protocol bytes have been received
+     */
+    public SingleProtocolDecoder(ProtocolType supportedProtocol, InboundHandler next,
+                                 ClientProtocolAnswerEncoder answerEncoder) {
+        this.supportedProtocol = supportedProtocol;
+        this.inboundHandlers = new InboundHandler[] {next};
+        this.encoder = null;
+        this.answerEncoder = answerEncoder;
+    }
+
     /**
      * Decodes first 3 incoming bytes, validates against {@code supportedProtocol} and, when
      * matching, replaces itself in the inbound pipeline with the {@code next InboundHandler}s.
@@ -57,6 +84,7 @@ public class SingleProtocolDecoder
         this.supportedProtocol = supportedProtocol;
         this.inboundHandlers = next;
         this.encoder = encoder;
+        this.answerEncoder = null;
     }
 
     @Override
@@ -77,11 +105,13 @@ public class SingleProtocolDecoder
             verifyProtocol(loadProtocol());
             // initialize the connection
             initConnection();
-            setupNextDecoder();
-
-            if (shouldSignalProtocolLoaded()) {
-                encoder.signalProtocolLoaded();
+            // the encoder decides if the stream following the protocol bytes is compressed
+            if (encoder != null) {
+                compressed = encoder.signalProtocolLoaded(compressed);
+            } else if (answerEncoder != null) {
+                compressed = answerEncoder.signalProtocolLoaded(compressed);
             }
+            setupNextDecoder();
 
             return CLEAN;
         } finally {
@@ -91,11 +121,19 @@ public class SingleProtocolDecoder
 
     protected void setupNextDecoder() {
         // replace this handler with the next one
-        channel.inboundPipeline().replace(this, inboundHandlers);
+        if (compressed) {
+            channel.inboundPipeline().replace(this,
+                    append(new InboundHandler[] {new CompressionDecoder()}, inboundHandlers));
+        } else {
+            channel.inboundPipeline().replace(this, inboundHandlers);
+        }
     }
 
     protected void verifyProtocol(String incomingProtocol) {
-        if (!incomingProtocol.equals(supportedProtocol.getDescriptor())) {
+        String descriptor = supportedProtocol.getDescriptor();
+        // the compression can only be negotiated when there is an encoder to answer
+        compressed = (encoder != null || answerEncoder != null) && incomingProtocol.equals(toCompressed(descriptor));
+        if (!compressed && !incomingProtocol.equals(descriptor)) {
             throw new IllegalStateException("Unsupported protocol exchange detected, "
                     + "expected protocol: " + supportedProtocol.name());
         }
@@ -113,8 +151,4 @@ public class SingleProtocolDecoder
             connection.setConnectionType(ConnectionType.MEMBER);
         }
     }
-
-    private boolean shouldSignalProtocolLoaded() {
-        return !channel.isClientMode() && (encoder != null);
-    }
 }
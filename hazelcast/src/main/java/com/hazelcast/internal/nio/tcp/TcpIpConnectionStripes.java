@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.nio.tcp;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.internal.nio.Packet;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.readIntB;
+import static com.hazelcast.internal.nio.Bits.readLongB;
+import static com.hazelcast.internal.nio.Bits.writeIntB;
+import static com.hazelcast.internal.nio.Bits.writeLongB;
+import static com.hazelcast.internal.nio.Packet.FLAG_BIND_STRIPE_FENCE;
+import static com.hazelcast.internal.nio.Packet.FLAG_BIND_STRIPE_FENCE_ACK;
+import static com.hazelcast.internal.serialization.impl.HeapData.HEAP_DATA_OVERHEAD;
+
+/**
+ * The connections striped to a member. The primary connection is the one
+ * registered for the member in the {@link TcpIpEndpointManager}, the other
+ * stripes are opened by this member once the primary connection is
+ * registered.
+ * <p>
+ * The packets of a partition are always sent over the same stripe, so their
+ * order is preserved. Until a stripe is connected, the packets of its
+ * partitions are sent over the primary connection. Since the member reads the
+ * primary connection and the stripe on different threads, the packets sent
+ * over the stripe could be processed before the ones sent over the primary
+ * connection before them. So once the stripe is connected, its packets are
+ * held back and a fence is sent over the primary connection. The member
+ * acknowledges the fence once it has read it, so after it has dispatched the
+ * packets sent before the fence, and only then the held packets are sent
+ * over the stripe.
+ * <p>
+ * If a stripe is closed while its packets are held back, nothing has been
+ * sent over it yet, so the held packets are sent over the primary connection
+ * until the stripe is reconnected. If an active stripe is closed, the member
+ * may still process the packets sent over it, so its packets can't go over
+ * another connection in order. Then the primary connection and the other
+ * stripes are closed as well and the failure is handled like the failure of
+ * an unstriped connection: as with any closed connection, the packets sent
+ * over it before may be lost or processed after the ones sent over the new
+ * connections.
+ *
+ * @see com.hazelcast.spi.properties.ClusterProperty#MEMBER_CONNECTION_STRIPE_COUNT
+ */
+final class TcpIpConnectionStripes {
+
+    enum StripeState {
+        // the packets of the stripe are sent over the primary connection
+        DETACHED,
+        // the packets of the stripe are held back until the fence sent over the primary connection is acknowledged
+        FENCING,
+        // the packets of the stripe are sent over the stripe
+        ACTIVE
+    }
+
+    private static final int FENCE_STRIPE_OFFSET = HEAP_DATA_OVERHEAD;
+    private static final int FENCE_ID_OFFSET = FENCE_STRIPE_OFFSET + INT_SIZE_IN_BYTES;
+    private static final int FENCE_LENGTH = FENCE_ID_OFFSET + LONG_SIZE_IN_BYTES;
+
+    private final TcpIpConnection primary;
+    private final Address endpoint;
+    // the writers take the read lock unless the stripe is active, a state
+    // change takes the write lock, so no packet is written to the connection
+    // the stripe is switched from while it is switched
+    private final ReadWriteLock switchLock = new ReentrantReadWriteLock();
+    // index 0 is the primary connection; guarded by the lock
+    private final TcpIpConnection[] stripes;
+    private final StripeState[] states;
+    // the fence each fencing stripe waits for, so an outdated acknowledgement is ignored
+    private final long[] fenceIds;
+    private long lastFenceId;
+    private boolean closed;
+    private final Queue<Packet>[] heldPackets;
+    // the stripes written to without the lock; null if the stripe isn't active
+    private final AtomicReferenceArray<TcpIpConnection> activeStripes;
+
+    @SuppressWarnings("unchecked")
+    TcpIpConnectionStripes(TcpIpConnection primary, int stripeCount) {
+        this.primary = primary;
+        this.endpoint = primary.getEndPoint();
+        this.stripes = new TcpIpConnection[stripeCount];
+        this.stripes[0] = primary;
+        this.states = new StripeState[stripeCount];
+        this.fenceIds = new long[stripeCount];
+        this.heldPackets = new Queue[stripeCount];
+        this.activeStripes = new AtomicReferenceArray<>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            states[i] = StripeState.DETACHED;
+            heldPackets[i] = new ConcurrentLinkedQueue<>();
+        }
+        // the packets of the first stripe always go over the primary connection
+        states[0] = StripeState.ACTIVE;
+        activeStripes.set(0, primary);
+    }
+
+    TcpIpConnection primary() {
+        return primary;
+    }
+
+    Address endpoint() {
+        return endpoint;
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Checks if the packets of every stripe are sent over the stripe.
+     */
+    boolean isActive() {
+        for (int i = 0; i < stripes.length; i++) {
+            if (activeStripes.get(i) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the connection the packets of the given partition are sent
+     * over once they are no longer held back.
+     */
+    TcpIpConnection select(int partitionId) {
+        int index = stripeIndex(partitionId);
+        Lock lock = switchLock.readLock();
+        lock.lock();
+        try {
+            return states[index] == StripeState.DETACHED ? primary : stripes[index];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the packet to the stripe of its partition.
+     *
+     * @return {@code false} if the packet could not be written since the
+     * connection is closed
+     */
+    boolean write(Packet packet) {
+        int index = stripeIndex(packet.getPartitionId());
+        TcpIpConnection activeStripe = activeStripes.get(index);
+        if (activeStripe != null && activeStripe.write(packet)) {
+            // an active stripe is never switched, so no lock is needed
+            return true;
+        }
+
+        Lock lock = switchLock.readLock();
+        lock.lock();
+        try {
+            switch (states[index]) {
+                case ACTIVE:
+                    // a closed active stripe isn't replaced, the connection stripes are closed instead
+                    return stripes[index].write(packet);
+                case FENCING:
+                    heldPackets[index].offer(packet);
+                    return true;
+                default:
+                    return primary.write(packet);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int stripeIndex(int partitionId) {
+        return partitionId % stripes.length;
+    }
+
+    /**
+     * Holds back the packets of the connected stripe and sends a fence over
+     * the primary connection. The stripe is activated once the fence is
+     * acknowledged.
+     *
+     * @return {@code false} if the stripes are closed already, so the
+     * connection should be closed as well
+     */
+    boolean stripeConnected(int index, TcpIpConnection connection) {
+        Lock lock = switchLock.writeLock();
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            stripes[index] = connection;
+            states[index] = StripeState.FENCING;
+            fenceIds[index] = ++lastFenceId;
+            // if the primary connection is closed, the stripes are closed as well
+            primary.write(newFence(index, fenceIds[index]));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the held packets of the stripe whose fence is acknowledged to it
+     * and sends the next packets over it.
+     *
+     * @param ack the acknowledgement of the fence received over the primary
+     *            connection
+     * @return {@code true} if the stripe was activated
+     */
+    boolean fenceAcknowledged(Packet ack) {
+        byte[] payload = ack.toByteArray();
+        int index = readIntB(payload, FENCE_STRIPE_OFFSET);
+        long fenceId = readLongB(payload, FENCE_ID_OFFSET);
+        Lock lock = switchLock.writeLock();
+        lock.lock();
+        try {
+            if (closed || index <= 0 || index >= stripes.length || states[index] != StripeState.FENCING
+                    || fenceIds[index] != fenceId || !stripes[index].isAlive()) {
+                // the stripe was closed while it was fenced, it is detached once the closed stripe is handled
+                return false;
+            }
+            TcpIpConnection connection = stripes[index];
+            for (Packet packet; (packet = heldPackets[index].poll()) != null; ) {
+                connection.write(packet);
+            }
+            states[index] = StripeState.ACTIVE;
+            activeStripes.set(index, connection);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends the packets of the closed stripe over the primary connection
+     * again if nothing was sent over the stripe yet.
+     *
+     * @return the index of the stripe if it was fenced, so it can be
+     * reconnected; 0 if it was active, so the connection stripes have to be
+     * closed; or -1 if the connection isn't a stripe anymore or the stripes
+     * are closed
+     */
+    int stripeClosed(TcpIpConnection connection) {
+        Lock lock = switchLock.writeLock();
+        lock.lock();
+        try {
+            if (closed) {
+                return -1;
+            }
+            for (int i = 1; i < stripes.length; i++) {
+                if (stripes[i] != connection) {
+                    continue;
+                }
+                switch (states[i]) {
+                    case ACTIVE:
+                        return 0;
+                    case FENCING:
+                        // the held packets were sent after the fence, so after the ones sent over the primary connection
+                        for (Packet packet; (packet = heldPackets[i].poll()) != null; ) {
+                            primary.write(packet);
+                        }
+                        states[i] = StripeState.DETACHED;
+                        return i;
+                    default:
+                        return -1;
+                }
+            }
+            return -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the stripes other than the primary connection.
+     *
+     * @return {@code true} if the stripes were closed by this call
+     */
+    boolean close(String reason) {
+        TcpIpConnection[] connections;
+        Lock lock = switchLock.writeLock();
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            for (int i = 1; i < stripes.length; i++) {
+                states[i] = StripeState.DETACHED;
+                activeStripes.set(i, null);
+                heldPackets[i].clear();
+            }
+            connections = stripes.clone();
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 1; i < connections.length; i++) {
+            if (connections[i] != null) {
+                connections[i].close(reason, null);
+            }
+        }
+        return true;
+    }
+
+    boolean isClosed() {
+        Lock lock = switchLock.readLock();
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TcpIpConnectionStripes{endpoint=" + endpoint + ", stripeCount=" + stripes.length
+                + ", active=" + isActive() + ", closed=" + isClosed() + '}';
+    }
+
+    /**
+     * Creates the fence sent over the primary connection once the given
+     * stripe is connected.
+     */
+    static Packet newFence(int index, long fenceId) {
+        byte[] payload = new byte[FENCE_LENGTH];
+        writeIntB(payload, FENCE_STRIPE_OFFSET, index);
+        writeLongB(payload, FENCE_ID_OFFSET, fenceId);
+        return new Packet(payload).setPacketType(Packet.Type.BIND).raiseFlags(FLAG_BIND_STRIPE_FENCE);
+    }
+
+    /**
+     * Creates the acknowledgement of the given fence, sent back by the member
+     * the fence was sent to once it has read it.
+     */
+    static Packet newFenceAck(Packet fence) {
+        return new Packet(fence.toByteArray()).setPacketType(Packet.Type.BIND)
+                .raiseFlags(FLAG_BIND_STRIPE_FENCE | FLAG_BIND_STRIPE_FENCE_ACK);
+    }
+}
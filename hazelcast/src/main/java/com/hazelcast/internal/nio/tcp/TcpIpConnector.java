@@ -64,7 +64,11 @@ class TcpIpConnector {
 
     void asyncConnect(Address address, boolean silent) {
         ioService.shouldConnectTo(address);
-        ioService.executeAsync(new ConnectTask(address, silent));
+        ioService.executeAsync(new ConnectTask(address, silent, null, 0));
+    }
+
+    void asyncConnectStripe(TcpIpConnectionStripes stripes, int stripeIndex) {
+        ioService.executeAsync(new ConnectTask(stripes.endpoint(), true, stripes, stripeIndex));
     }
 
     private boolean useAnyOutboundPort() {
@@ -89,10 +93,15 @@ class TcpIpConnector {
     private final class ConnectTask implements Runnable {
         private final Address address;
         private final boolean silent;
+        // not null if an additional stripe to a connected member is opened
+        private final TcpIpConnectionStripes stripes;
+        private final int stripeIndex;
 
-        ConnectTask(Address address, boolean silent) {
+        ConnectTask(Address address, boolean silent, TcpIpConnectionStripes stripes, int stripeIndex) {
             this.address = address;
             this.silent = silent;
+            this.stripes = stripes;
+            this.stripeIndex = stripeIndex;
         }
 
         @Override
@@ -130,7 +139,11 @@ class TcpIpConnector {
                 }
             } catch (Throwable e) {
                 logger.finest(e);
-                endpointManager.failedConnection(address, e, silent);
+                if (stripes != null) {
+                    endpointManager.failedStripe(stripes, stripeIndex, e);
+                } else {
+                    endpointManager.failedConnection(address, e, silent);
+                }
             }
         }
 
@@ -187,6 +200,9 @@ class TcpIpConnector {
                     connection = endpointManager.newConnection(channel, address);
                     BindRequest request = new BindRequest(logger, ioService, connection, address, true);
                     request.send();
+                    if (stripes != null) {
+                        endpointManager.stripeConnected(stripes, stripeIndex, connection);
+                    }
                 } catch (Exception e) {
                     closeConnection(connection, e);
                     closeSocket(socketChannel);
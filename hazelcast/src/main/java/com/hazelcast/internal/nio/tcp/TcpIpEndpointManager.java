@@ -31,6 +31,7 @@ import com.hazelcast.internal.networking.Networking;
 import com.hazelcast.internal.nio.Connection;
 import com.hazelcast.internal.nio.ConnectionLifecycleListener;
 import com.hazelcast.internal.nio.ConnectionListener;
+import com.hazelcast.internal.nio.ConnectionType;
 import com.hazelcast.internal.nio.EndpointManager;
 import com.hazelcast.internal.nio.IOService;
 import com.hazelcast.internal.nio.NetworkingService;
@@ -53,6 +54,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -64,6 +66,8 @@ import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.internal.nio.IOUtil.close;
 import static com.hazelcast.internal.nio.IOUtil.closeResource;
 import static com.hazelcast.internal.nio.IOUtil.setChannelOptions;
+import static com.hazelcast.internal.nio.Packet.FLAG_BIND_STRIPE_FENCE;
+import static com.hazelcast.internal.nio.Packet.FLAG_BIND_STRIPE_FENCE_ACK;
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
 import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
 import static java.util.Collections.newSetFromMap;
@@ -76,6 +80,7 @@ public class TcpIpEndpointManager
 
     private static final int RETRY_NUMBER = 5;
     private static final long DELAY_FACTOR = 100L;
+    private static final long STRIPE_RECONNECT_DELAY_SECONDS = 5;
 
     @Probe(name = "inProgressCount")
     final Set<Address> connectionsInProgress = newSetFromMap(new ConcurrentHashMap<>());
@@ -86,6 +91,9 @@ public class TcpIpEndpointManager
     @Probe(name = "activeCount", level = MANDATORY)
     final Set<TcpIpConnection> activeConnections = newSetFromMap(new ConcurrentHashMap<>());
 
+    @Probe(name = "stripedCount")
+    final Set<TcpIpConnectionStripes> connectionStripes = newSetFromMap(new ConcurrentHashMap<>());
+
     private final ILogger logger;
     private final IOService ioService;
     private final EndpointConfig endpointConfig;
@@ -95,6 +103,7 @@ public class TcpIpEndpointManager
     private final TcpIpConnector connector;
     private final BindHandler bindHandler;
     private final NetworkStatsImpl networkStats;
+    private final int connectionStripeCount;
 
     @Probe(name = "connectionListenerCount")
     private final Set<ConnectionListener> connectionListeners = new CopyOnWriteArraySet<>();
@@ -138,6 +147,11 @@ public class TcpIpEndpointManager
         } else {
             networkStats = new NetworkStatsImpl();
         }
+
+        // only the member connections are striped
+        boolean memberEndpoint = endpointQualifier == null || EndpointQualifier.MEMBER.equals(endpointQualifier);
+        this.connectionStripeCount = properties != null && memberEndpoint
+                ? Math.max(1, properties.getInteger(ClusterProperty.MEMBER_CONNECTION_STRIPE_COUNT)) : 1;
     }
 
     public NetworkingService getNetworkingService() {
@@ -163,8 +177,15 @@ public class TcpIpEndpointManager
     }
 
     @Override
-    public synchronized void accept(Packet packet) {
-        bindHandler.process(packet);
+    public void accept(Packet packet) {
+        if (packet.isFlagRaised(FLAG_BIND_STRIPE_FENCE)) {
+            // handled by the thread reading the connection, in order with the packets read before
+            acceptStripeFence(packet);
+            return;
+        }
+        synchronized (this) {
+            bindHandler.process(packet);
+        }
     }
 
     @Override
@@ -213,6 +234,7 @@ public class TcpIpEndpointManager
                 connection.setErrorHandler(connectionMonitor);
             }
             connectionsMap.put(remoteEndPoint, connection);
+            connectStripes(connection);
 
             ioService.getEventService().executeEventCallback(new StripedRunnable() {
                 @Override
@@ -262,6 +284,7 @@ public class TcpIpEndpointManager
             close(conn, "EndpointManager is stopping");
         }
         acceptedChannels.clear();
+        connectionStripes.clear();
         connectionsInProgress.clear();
         connectionsMap.clear();
         monitors.clear();
@@ -280,7 +303,7 @@ public class TcpIpEndpointManager
             return false;
         }
 
-        return connection.write(packet);
+        return write(packet, connection);
     }
 
     @Override
@@ -361,9 +384,9 @@ public class TcpIpEndpointManager
     }
 
     private boolean send(Packet packet, Address target, SendTask sendTask) {
-        Connection connection = getConnection(target);
+        TcpIpConnection connection = getConnection(target);
         if (connection != null) {
-            return connection.write(packet);
+            return write(packet, connection);
         }
 
         if (sendTask == null) {
@@ -388,6 +411,131 @@ public class TcpIpEndpointManager
         return false;
     }
 
+    /**
+     * Writes the packet to the stripe of its partition if the given
+     * connection is the primary connection of connection stripes.
+     */
+    private boolean write(Packet packet, TcpIpConnection connection) {
+        int partitionId = packet.getPartitionId();
+        if (connectionStripeCount == 1 || partitionId < 0) {
+            return connection.write(packet);
+        }
+        TcpIpConnectionStripes stripes = (TcpIpConnectionStripes) connection.getChannel().attributeMap()
+                .get(TcpIpConnectionStripes.class);
+        return stripes != null && stripes.primary() == connection ? stripes.write(packet) : connection.write(packet);
+    }
+
+    /**
+     * Opens the additional stripes to the member the given connection is
+     * registered for, if the member connections are striped.
+     */
+    @SuppressWarnings("unchecked")
+    private void connectStripes(TcpIpConnection primary) {
+        if (connectionStripeCount == 1 || !ConnectionType.MEMBER.equals(primary.getConnectionType())
+                || !primary.isAlive() || !networkingService.isLive()) {
+            return;
+        }
+
+        TcpIpConnectionStripes stripes = new TcpIpConnectionStripes(primary, connectionStripeCount);
+        ConcurrentMap attributes = primary.getChannel().attributeMap();
+        if (attributes.putIfAbsent(TcpIpConnectionStripes.class, stripes) != null) {
+            return;
+        }
+        attributes.put(Channel.STRIPE_GROUP_ATTRIBUTE, stripes.endpoint());
+        connectionStripes.add(stripes);
+        for (int i = 1; i < connectionStripeCount; i++) {
+            connector.asyncConnectStripe(stripes, i);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void stripeConnected(TcpIpConnectionStripes stripes, int stripeIndex, TcpIpConnection connection) {
+        ConcurrentMap attributes = connection.getChannel().attributeMap();
+        attributes.put(TcpIpConnectionStripes.class, stripes);
+        attributes.put(Channel.STRIPE_GROUP_ATTRIBUTE, stripes.endpoint());
+        if (!stripes.stripeConnected(stripeIndex, connection)) {
+            connection.close("Connection stripes to " + stripes.endpoint() + " are closed", null);
+        }
+    }
+
+    /**
+     * Acknowledges a stripe fence read from a connection, or activates the
+     * stripe whose fence is acknowledged. The packets read before the fence
+     * have been dispatched already, so the packets sent over the stripe
+     * after the acknowledgement can't overtake them.
+     */
+    private void acceptStripeFence(Packet packet) {
+        TcpIpConnection connection = (TcpIpConnection) packet.getConn();
+        if (!packet.isFlagRaised(FLAG_BIND_STRIPE_FENCE_ACK)) {
+            connection.write(TcpIpConnectionStripes.newFenceAck(packet));
+            return;
+        }
+        TcpIpConnectionStripes stripes = (TcpIpConnectionStripes) connection.getChannel().attributeMap()
+                .get(TcpIpConnectionStripes.class);
+        if (stripes != null && stripes.primary() == connection && stripes.fenceAcknowledged(packet)
+                && stripes.isActive() && logger.isFineEnabled()) {
+            logger.fine("Connection to " + stripes.endpoint() + " is striped over "
+                    + stripes.stripeCount() + " connections");
+        }
+    }
+
+    void failedStripe(TcpIpConnectionStripes stripes, int stripeIndex, Throwable t) {
+        if (logger.isFineEnabled()) {
+            logger.fine("Could not connect stripe " + stripeIndex + " to " + stripes.endpoint() + ": " + t);
+        }
+        reconnectStripe(stripes, stripeIndex);
+    }
+
+    /**
+     * Handles a closed connection of connection stripes. It is offloaded,
+     * since the connection can be closed by a writer in the middle of
+     * writing a packet to the stripes.
+     */
+    private void stripeConnectionClosed(TcpIpConnectionStripes stripes, TcpIpConnection connection) {
+        try {
+            ioService.executeAsync(() -> {
+                if (connection == stripes.primary()) {
+                    closeStripes(stripes, connection + " is closed");
+                    return;
+                }
+                int stripeIndex = stripes.stripeClosed(connection);
+                if (stripeIndex == 0) {
+                    // the packets sent over the stripe can't be followed in order over another connection
+                    stripes.primary().close("Connection stripe " + connection + " is closed", null);
+                } else if (stripeIndex > 0) {
+                    // nothing was sent over the stripe, so the primary connection is used until it is reconnected
+                    reconnectStripe(stripes, stripeIndex);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the member is shutting down, its connections are closed anyway
+            logger.finest("Handling the closed " + connection + " is rejected", e);
+        }
+    }
+
+    private void reconnectStripe(TcpIpConnectionStripes stripes, int stripeIndex) {
+        if (stripes.isClosed() || !stripes.primary().isAlive() || !networkingService.isLive()) {
+            return;
+        }
+        try {
+            networkingService.scheduleDeferred(() -> connector.asyncConnectStripe(stripes, stripeIndex),
+                    STRIPE_RECONNECT_DELAY_SECONDS, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.finest("Reconnecting stripe " + stripeIndex + " to " + stripes.endpoint() + " is rejected", e);
+        }
+    }
+
+    private void closeStripes(TcpIpConnectionStripes stripes, String reason) {
+        if (!stripes.close(reason)) {
+            return;
+        }
+        connectionStripes.remove(stripes);
+        stripes.primary().getChannel().attributeMap().remove(TcpIpConnectionStripes.class, stripes);
+        if (logger.isFineEnabled()) {
+            logger.fine("Closed connection stripes to " + stripes.endpoint() + ". Reason: " + reason);
+        }
+    }
+
     @Override
     public String toString() {
         return "TcpIpEndpointManager{" + "endpointQualifier=" + endpointQualifier + ", connectionsMap=" + connectionsMap + '}';
@@ -465,6 +613,12 @@ public class TcpIpEndpointManager
 
             activeConnections.remove(connection);
 
+            TcpIpConnectionStripes stripes = (TcpIpConnectionStripes) connection.getChannel().attributeMap()
+                    .get(TcpIpConnectionStripes.class);
+            if (stripes != null) {
+                stripeConnectionClosed(stripes, connection);
+            }
+
             if (networkStats != null) {
                 // Note: this call must happen after activeConnections.remove
                 networkStats.onConnectionClose(connection);
@@ -493,6 +647,10 @@ public class TcpIpEndpointManager
         private final MwCounter bytesReceivedOnClosed = newMwCounter();
         private final AtomicLong bytesSentLastCalc = new AtomicLong();
         private final MwCounter bytesSentOnClosed = newMwCounter();
+        private final AtomicLong framesSentLastCalc = new AtomicLong();
+        private final MwCounter framesSentOnClosed = newMwCounter();
+        private final AtomicLong socketWritesLastCalc = new AtomicLong();
+        private final MwCounter socketWritesOnClosed = newMwCounter();
 
         @Override
         public long getBytesReceived() {
@@ -504,21 +662,41 @@ public class TcpIpEndpointManager
             return bytesSentLastCalc.get();
         }
 
+        @Override
+        public long getFramesSent() {
+            return framesSentLastCalc.get();
+        }
+
+        @Override
+        public long getSocketWrites() {
+            return socketWritesLastCalc.get();
+        }
+
         void refresh() {
             MutableLong totalReceived = MutableLong.valueOf(bytesReceivedOnClosed.get());
             MutableLong totalSent = MutableLong.valueOf(bytesSentOnClosed.get());
+            MutableLong totalFramesSent = MutableLong.valueOf(framesSentOnClosed.get());
+            MutableLong totalSocketWrites = MutableLong.valueOf(socketWritesOnClosed.get());
             for (TcpIpConnection conn : activeConnections) {
-                totalReceived.value += conn.getChannel().bytesRead();
-                totalSent.value += conn.getChannel().bytesWritten();
+                Channel channel = conn.getChannel();
+                totalReceived.value += channel.bytesRead();
+                totalSent.value += channel.bytesWritten();
+                totalFramesSent.value += channel.framesWritten();
+                totalSocketWrites.value += channel.socketWrites();
             }
             // counters must be monotonically increasing
             bytesReceivedLastCalc.updateAndGet((v) -> Math.max(v, totalReceived.value));
             bytesSentLastCalc.updateAndGet((v) -> Math.max(v, totalSent.value));
+            framesSentLastCalc.updateAndGet((v) -> Math.max(v, totalFramesSent.value));
+            socketWritesLastCalc.updateAndGet((v) -> Math.max(v, totalSocketWrites.value));
         }
 
         void onConnectionClose(TcpIpConnection connection) {
-            bytesReceivedOnClosed.inc(connection.getChannel().bytesRead());
-            bytesSentOnClosed.inc(connection.getChannel().bytesWritten());
+            Channel channel = connection.getChannel();
+            bytesReceivedOnClosed.inc(channel.bytesRead());
+            bytesSentOnClosed.inc(channel.bytesWritten());
+            framesSentOnClosed.inc(channel.framesWritten());
+            socketWritesOnClosed.inc(channel.socketWrites());
         }
 
     }
@@ -317,14 +317,20 @@ public final class TcpIpNetworkingService implements NetworkingService<TcpIpConn
         private final ConcurrentMap<EndpointQualifier, EndpointManager<TcpIpConnection>> endpointManagers;
         private final EnumMap<ProtocolType, AtomicLong> bytesReceivedPerProtocol;
         private final EnumMap<ProtocolType, AtomicLong> bytesSentPerProtocol;
+        private final EnumMap<ProtocolType, AtomicLong> framesSentPerProtocol;
+        private final EnumMap<ProtocolType, AtomicLong> socketWritesPerProtocol;
 
         RefreshNetworkStatsTask(ConcurrentMap<EndpointQualifier, EndpointManager<TcpIpConnection>> endpointManagers) {
             this.endpointManagers = endpointManagers;
             bytesReceivedPerProtocol = new EnumMap<>(ProtocolType.class);
             bytesSentPerProtocol = new EnumMap<>(ProtocolType.class);
+            framesSentPerProtocol = new EnumMap<>(ProtocolType.class);
+            socketWritesPerProtocol = new EnumMap<>(ProtocolType.class);
             for (ProtocolType type : ProtocolType.valuesAsSet()) {
                 bytesReceivedPerProtocol.put(type, new AtomicLong());
                 bytesSentPerProtocol.put(type, new AtomicLong());
+                framesSentPerProtocol.put(type, new AtomicLong());
+                socketWritesPerProtocol.put(type, new AtomicLong());
             }
         }
 
@@ -334,6 +340,10 @@ public final class TcpIpNetworkingService implements NetworkingService<TcpIpConn
                         (LongProbeFunction<RefreshNetworkStatsTask>) source -> bytesReceivedPerProtocol.get(type).get());
                 metricsRegistry.registerStaticProbe(this, "tcp.bytesSend." + type.name(), ProbeLevel.INFO,
                         (LongProbeFunction<RefreshNetworkStatsTask>) source -> bytesSentPerProtocol.get(type).get());
+                metricsRegistry.registerStaticProbe(this, "tcp.framesSent." + type.name(), ProbeLevel.INFO,
+                        (LongProbeFunction<RefreshNetworkStatsTask>) source -> framesSentPerProtocol.get(type).get());
+                metricsRegistry.registerStaticProbe(this, "tcp.socketWrites." + type.name(), ProbeLevel.INFO,
+                        (LongProbeFunction<RefreshNetworkStatsTask>) source -> socketWritesPerProtocol.get(type).get());
             }
         }
 
@@ -342,6 +352,8 @@ public final class TcpIpNetworkingService implements NetworkingService<TcpIpConn
             for (ProtocolType type : ProtocolType.valuesAsSet()) {
                 long bytesReceived = 0;
                 long bytesSent = 0;
+                long framesSent = 0;
+                long socketWrites = 0;
 
                 for (EndpointManager endpointManager : endpointManagers.values()) {
                     TcpIpEndpointManager tcpIpEndpointManager = (TcpIpEndpointManager) endpointManager;
@@ -350,11 +362,15 @@ public final class TcpIpNetworkingService implements NetworkingService<TcpIpConn
                     if (type == tcpIpEndpointManager.getEndpointQualifier().getType()) {
                         bytesReceived += tcpIpEndpointManager.getNetworkStats().getBytesReceived();
                         bytesSent += tcpIpEndpointManager.getNetworkStats().getBytesSent();
+                        framesSent += tcpIpEndpointManager.getNetworkStats().getFramesSent();
+                        socketWrites += tcpIpEndpointManager.getNetworkStats().getSocketWrites();
                     }
                 }
 
                 bytesReceivedPerProtocol.get(type).lazySet(bytesReceived);
                 bytesSentPerProtocol.get(type).lazySet(bytesSent);
+                framesSentPerProtocol.get(type).lazySet(framesSent);
+                socketWritesPerProtocol.get(type).lazySet(socketWrites);
             }
         }
 
@@ -20,6 +20,7 @@ import com.hazelcast.internal.networking.Channel;
 import com.hazelcast.internal.networking.ChannelInitializer;
 import com.hazelcast.internal.networking.ChannelOptions;
 import com.hazelcast.internal.nio.IOService;
+import com.hazelcast.internal.nio.compression.CompressionNegotiation;
 import com.hazelcast.spi.properties.HazelcastProperties;
 
 import static com.hazelcast.internal.networking.ChannelOption.DIRECT_BUF;
@@ -30,6 +31,7 @@ import static com.hazelcast.internal.networking.ChannelOption.SO_SNDBUF;
 import static com.hazelcast.internal.networking.ChannelOption.TCP_NODELAY;
 import static com.hazelcast.internal.nio.IOService.KILO_BYTE;
 import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_BUFFER_DIRECT;
+import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_COMPRESSION_ENABLED;
 import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_KEEP_ALIVE;
 import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_LINGER_SECONDS;
 import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_NO_DELAY;
@@ -46,10 +48,13 @@ public class UnifiedChannelInitializer
 
     private final IOService ioService;
     private final HazelcastProperties props;
+    private final CompressionNegotiation compressionNegotiation;
 
     public UnifiedChannelInitializer(IOService ioService) {
         this.props = ioService.properties();
         this.ioService = ioService;
+        this.compressionNegotiation = new CompressionNegotiation(props.getBoolean(SOCKET_COMPRESSION_ENABLED),
+                ioService.getLoggingService().getLogger(UnifiedChannelInitializer.class));
     }
 
     @Override
@@ -62,7 +67,8 @@ public class UnifiedChannelInitializer
                 .setOption(SO_RCVBUF, props.getInteger(SOCKET_RECEIVE_BUFFER_SIZE) * KILO_BYTE)
                 .setOption(SO_LINGER, props.getSeconds(SOCKET_LINGER_SECONDS));
 
-        UnifiedProtocolEncoder encoder = new UnifiedProtocolEncoder(ioService);
+        boolean askCompression = channel.isClientMode() && compressionNegotiation.shouldAsk(channel);
+        UnifiedProtocolEncoder encoder = new UnifiedProtocolEncoder(ioService, askCompression);
         UnifiedProtocolDecoder decoder = new UnifiedProtocolDecoder(ioService, encoder);
 
         channel.outboundPipeline().addLast(encoder);
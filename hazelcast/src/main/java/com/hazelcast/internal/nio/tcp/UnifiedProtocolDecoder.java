@@ -32,6 +32,7 @@ import com.hazelcast.internal.nio.ascii.MemcacheTextDecoder;
 import com.hazelcast.internal.nio.ascii.RestApiTextDecoder;
 import com.hazelcast.internal.nio.ascii.TextDecoder;
 import com.hazelcast.internal.nio.ascii.TextEncoder;
+import com.hazelcast.internal.nio.compression.CompressionDecoder;
 import com.hazelcast.spi.properties.HazelcastProperties;
 
 import java.nio.ByteBuffer;
@@ -44,12 +45,15 @@ import static com.hazelcast.internal.nio.IOService.KILO_BYTE;
 import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
 import static com.hazelcast.internal.nio.IOUtil.newByteBuffer;
 import static com.hazelcast.internal.nio.Protocols.CLIENT_BINARY;
+import static com.hazelcast.internal.nio.Protocols.CLIENT_BINARY_COMPRESSED;
 import static com.hazelcast.internal.nio.Protocols.CLUSTER;
+import static com.hazelcast.internal.nio.Protocols.CLUSTER_COMPRESSED;
 import static com.hazelcast.internal.nio.Protocols.PROTOCOL_LENGTH;
 import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_CLIENT_RECEIVE_BUFFER_SIZE;
 import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_RECEIVE_BUFFER_SIZE;
 import static com.hazelcast.internal.util.StringUtil.bytesToString;
 import static com.hazelcast.internal.util.StringUtil.stringToBytes;
+import static com.hazelcast.internal.util.collection.ArrayUtils.append;
 
 /**
  * A {@link InboundHandler} that reads the protocol bytes
@@ -95,16 +99,17 @@ public class UnifiedProtocolDecoder
                 .level(Level.DEBUG)
                 .addParameter("protocol", protocol)
                 .log();
-            if (CLUSTER.equals(protocol)) {
-                initChannelForCluster();
-            } else if (CLIENT_BINARY.equals(protocol)) {
-                initChannelForClient();
+            if (CLUSTER.equals(protocol) || CLUSTER_COMPRESSED.equals(protocol)) {
+                initChannelForCluster(signalProtocol(protocol));
+            } else if (CLIENT_BINARY.equals(protocol) || CLIENT_BINARY_COMPRESSED.equals(protocol)) {
+                initChannelForClient(signalProtocol(protocol));
             } else if (RestApiTextDecoder.TEXT_PARSERS.isCommandPrefix(protocol)) {
                 RestApiConfig restApiConfig = ioService.getRestApiConfig();
                 if (!restApiConfig.isEnabledAndNotEmpty()) {
                     throw new IllegalStateException("REST API is not enabled.");
                 }
                 initChannelForText(protocol, true);
+                signalProtocol(protocol);
             } else if (MemcacheTextDecoder.TEXT_PARSERS.isCommandPrefix(protocol)) {
                 MemcacheProtocolConfig memcacheProtocolConfig = ioService.getMemcacheProtocolConfig();
                 if (! memcacheProtocolConfig.isEnabled()) {
@@ -112,20 +117,32 @@ public class UnifiedProtocolDecoder
                 }
                 // text doesn't have a protocol; anything that isn't cluster/client protocol will be interpreted as txt.
                 initChannelForText(protocol, false);
+                signalProtocol(protocol);
             } else {
                 throw new IllegalStateException("Unknown protocol: " + protocol);
             }
 
-            if (!channel.isClientMode()) {
-                protocolEncoder.signalProtocolEstablished(protocol);
-            }
-
             return CLEAN;
         } finally {
             compactOrClear(src);
         }
     }
 
+    /**
+     * Signals the protocol encoder that the inbound protocol is known.
+     *
+     * @return {@code true} if the stream following the protocol bytes is compressed.
+     */
+    private boolean signalProtocol(String protocol) {
+        if (channel.isClientMode()) {
+            // the protocol is the answer of the server side of a member connection
+            boolean compressed = CLUSTER_COMPRESSED.equals(protocol);
+            protocolEncoder.signalProtocolAnswered(compressed);
+            return compressed;
+        }
+        return protocolEncoder.signalProtocolEstablished(protocol);
+    }
+
     private String loadProtocol() {
         byte[] protocolBytes = new byte[PROTOCOL_LENGTH];
         src.get(protocolBytes);
@@ -136,23 +153,32 @@ public class UnifiedProtocolDecoder
         return bytesToString(protocolBytes);
     }
 
-    private void initChannelForCluster() {
+    private void initChannelForCluster(boolean compressed) {
         channel.options()
                 .setOption(SO_SNDBUF, props.getInteger(SOCKET_RECEIVE_BUFFER_SIZE) * KILO_BYTE);
 
         TcpIpConnection connection = (TcpIpConnection) channel.attributeMap().get(TcpIpConnection.class);
         connection.setConnectionType(ConnectionType.MEMBER);
-        channel.inboundPipeline().replace(this, ioService.createInboundHandlers(EndpointQualifier.MEMBER, connection));
+        InboundHandler[] handlers = ioService.createInboundHandlers(EndpointQualifier.MEMBER, connection);
+        if (compressed) {
+            handlers = append(new InboundHandler[]{new CompressionDecoder()}, handlers);
+        }
+        channel.inboundPipeline().replace(this, handlers);
     }
 
-    private void initChannelForClient() {
+    private void initChannelForClient(boolean compressed) {
         channel.options()
                 .setOption(SO_RCVBUF, clientRcvBuf())
                 // clients dont support direct buffers
                 .setOption(DIRECT_BUF, false);
 
         TcpIpConnection connection = (TcpIpConnection) channel.attributeMap().get(TcpIpConnection.class);
-        channel.inboundPipeline().replace(this, new ClientMessageDecoder(connection, ioService.getClientEngine(), props));
+        ClientMessageDecoder decoder = new ClientMessageDecoder(connection, ioService.getClientEngine(), props);
+        if (compressed) {
+            channel.inboundPipeline().replace(this, new CompressionDecoder(), decoder);
+        } else {
+            channel.inboundPipeline().replace(this, decoder);
+        }
     }
 
     private void initChannelForText(String protocol, boolean restApi) {
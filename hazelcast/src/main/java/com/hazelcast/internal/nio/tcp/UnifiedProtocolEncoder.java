@@ -22,6 +22,8 @@ import com.hazelcast.internal.networking.OutboundHandler;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.nio.IOService;
 import com.hazelcast.internal.nio.ascii.TextEncoder;
+import com.hazelcast.internal.nio.compression.CompressionEncoder;
+import com.hazelcast.internal.nio.compression.CompressionNegotiation;
 import com.hazelcast.spi.properties.HazelcastProperties;
 
 import java.nio.ByteBuffer;
@@ -32,12 +34,17 @@ import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
 import static com.hazelcast.internal.nio.IOService.KILO_BYTE;
 import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
 import static com.hazelcast.internal.nio.Protocols.CLIENT_BINARY;
+import static com.hazelcast.internal.nio.Protocols.CLIENT_BINARY_COMPRESSED;
 import static com.hazelcast.internal.nio.Protocols.CLUSTER;
+import static com.hazelcast.internal.nio.Protocols.CLUSTER_COMPRESSED;
 import static com.hazelcast.internal.nio.Protocols.PROTOCOL_LENGTH;
 import static com.hazelcast.internal.nio.ascii.TextEncoder.TEXT_ENCODER;
 import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_CLIENT_SEND_BUFFER_SIZE;
+import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_COMPRESSION_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_COMPRESSION_THRESHOLD;
 import static com.hazelcast.spi.properties.ClusterProperty.SOCKET_SEND_BUFFER_SIZE;
 import static com.hazelcast.internal.util.StringUtil.stringToBytes;
+import static com.hazelcast.internal.util.collection.ArrayUtils.append;
 
 /**
  * The ProtocolEncoder is responsible for writing the protocol and once the protocol
@@ -46,19 +53,36 @@ import static com.hazelcast.internal.util.StringUtil.stringToBytes;
  * The ProtocolEncoder and the 'client' side of a member connection, will always
  * write the cluster protocol immediately. The ProtocolEncoder on the 'server' side
  * of the connection will wait till it has received the protocol and then will only
- * send the protocol if the client side was a member.
+ * send the protocol if the client side was a member or asked for the compression.
+ *
+ * When the 'client' side asks for the compression, it waits for the protocol of the
+ * 'server' side, which answers with the compressed protocol if its configuration
+ * enables the compression and with the plain protocol otherwise.
  */
 public class UnifiedProtocolEncoder
         extends OutboundHandler<Void, ByteBuffer> {
 
     private final IOService ioService;
     private final HazelcastProperties props;
+    private final boolean askCompression;
+    // written before the inboundProtocol on the server side and before the answered on the client side
+    private boolean compress;
     private volatile String inboundProtocol;
-    private boolean clusterProtocolBuffered;
+    private volatile boolean answered;
+    private boolean protocolBuffered;
 
     public UnifiedProtocolEncoder(IOService ioService) {
+        this(ioService, false);
+    }
+
+    /**
+     * @param ioService      the IOService
+     * @param askCompression if the channel in client mode should ask the server side for the compression
+     */
+    public UnifiedProtocolEncoder(IOService ioService, boolean askCompression) {
         this.ioService = ioService;
         this.props = ioService.properties();
+        this.askCompression = askCompression;
     }
 
     @Override
@@ -67,7 +91,7 @@ public class UnifiedProtocolEncoder
 
         if (channel.isClientMode()) {
             // from the clientSide of a connection, we always send the cluster protocol to a fellow member.
-            inboundProtocol = CLUSTER;
+            inboundProtocol = askCompression ? CLUSTER_COMPRESSED : CLUSTER;
         }
     }
 
@@ -76,11 +100,37 @@ public class UnifiedProtocolEncoder
      * made by the ProtocolDecoder as soon as it knows the inbound protocol.
      *
      * @param inboundProtocol
+     * @return {@code true} if the streams of the connection get compressed,
+     * i.e. the peer asked for it and the configuration enables it.
      */
-    void signalProtocolEstablished(String inboundProtocol) {
+    boolean signalProtocolEstablished(String inboundProtocol) {
         assert !channel.isClientMode() : "Signal protocol should only be made on channel in serverMode";
+        compress = (CLUSTER_COMPRESSED.equals(inboundProtocol) || CLIENT_BINARY_COMPRESSED.equals(inboundProtocol))
+                && props.getBoolean(SOCKET_COMPRESSION_ENABLED);
         this.inboundProtocol = inboundProtocol;
         channel.outboundPipeline().wakeup();
+        return compress;
+    }
+
+    /**
+     * Signals the ProtocolEncoder on the client side of a connection that the
+     * protocol of the server side has been received.
+     *
+     * @param compressed if the server side answered with the compressed protocol.
+     * @throws IllegalStateException if the server side answered with the
+     *                               compression the client side didn't ask for.
+     */
+    void signalProtocolAnswered(boolean compressed) {
+        assert channel.isClientMode() : "Signal answer should only be made on channel in clientMode";
+        if (compressed && !askCompression) {
+            throw new IllegalStateException("Compression wasn't asked for");
+        }
+        if (askCompression) {
+            compress = compressed;
+            CompressionNegotiation.answered(channel);
+            answered = true;
+            channel.outboundPipeline().wakeup();
+        }
     }
 
     @Override
@@ -93,12 +143,13 @@ public class UnifiedProtocolEncoder
                 return CLEAN;
             }
 
-            if (CLUSTER.equals(inboundProtocol)) {
+            if (CLUSTER.equals(inboundProtocol) || CLUSTER_COMPRESSED.equals(inboundProtocol)) {
                 // in case of a member, the cluster protocol needs to be send first before initializing the channel.
-
-                if (!clusterProtocolBuffered) {
-                    clusterProtocolBuffered = true;
-                    dst.put(stringToBytes(CLUSTER));
+                // the server side answers the compression request of the client side with its protocol.
+                String protocol = channel.isClientMode() ? inboundProtocol : (compress ? CLUSTER_COMPRESSED : CLUSTER);
+                if (!protocolBuffered) {
+                    protocolBuffered = true;
+                    dst.put(stringToBytes(protocol));
                     // Return false because ProtocolEncoder is not ready yet; but first we need to flush protocol
                     return DIRTY;
                 }
@@ -108,7 +159,25 @@ public class UnifiedProtocolEncoder
                     return DIRTY;
                 }
 
+                if (askCompression && !answered) {
+                    // deal with spurious calls; it isn't known yet if the packets get compressed.
+                    return CLEAN;
+                }
+
                 initChannelForCluster();
+            } else if (CLIENT_BINARY_COMPRESSED.equals(inboundProtocol)) {
+                // in case of a client asking for the compression, the member answers it with the client protocol
+                if (!protocolBuffered) {
+                    protocolBuffered = true;
+                    dst.put(stringToBytes(compress ? CLIENT_BINARY_COMPRESSED : CLIENT_BINARY));
+                    return DIRTY;
+                }
+
+                if (!isProtocolBufferDrained()) {
+                    return DIRTY;
+                }
+
+                initChannelForClient();
             } else if (CLIENT_BINARY.equals(inboundProtocol)) {
                 // in case of a client, the member will not send the member protocol
                 initChannelForClient();
@@ -141,6 +210,9 @@ public class UnifiedProtocolEncoder
 
         TcpIpConnection connection = (TcpIpConnection) channel.attributeMap().get(TcpIpConnection.class);
         OutboundHandler[] handlers = ioService.createOutboundHandlers(EndpointQualifier.MEMBER, connection);
+        if (compress) {
+            handlers = append(handlers, new OutboundHandler[]{newCompressionEncoder()});
+        }
         channel.outboundPipeline().replace(this, handlers);
     }
 
@@ -148,7 +220,15 @@ public class UnifiedProtocolEncoder
         channel.options()
                 .setOption(SO_SNDBUF, clientSndBuf());
 
-        channel.outboundPipeline().replace(this, new ClientMessageEncoder());
+        if (compress) {
+            channel.outboundPipeline().replace(this, new ClientMessageEncoder(), newCompressionEncoder());
+        } else {
+            channel.outboundPipeline().replace(this, new ClientMessageEncoder());
+        }
+    }
+
+    private CompressionEncoder newCompressionEncoder() {
+        return new CompressionEncoder(props.getInteger(SOCKET_COMPRESSION_THRESHOLD));
     }
 
     private void initChannelForText() {
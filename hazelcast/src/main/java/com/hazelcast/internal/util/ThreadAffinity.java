@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.util;
+
+import com.hazelcast.internal.nio.ClassLoaderUtil;
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.logging.ILogger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import static com.hazelcast.internal.util.OsHelper.isLinux;
+
+/**
+ * The CPUs the threads of a thread pool are pinned to.
+ * <p>
+ * The CPUs are configured as a comma separated list of CPUs, CPU ranges
+ * and CPU groups, e.g. {@code 0,2-3,[4-7]}. Every CPU of a list or a range
+ * is assigned to a single thread while all CPUs of a group between square
+ * brackets are shared by a single thread. So {@code 0,2-3,[4-7]} pins the
+ * first thread to CPU 0, the second one to CPU 2, the third one to CPU 3
+ * and the fourth one to CPUs 4 to 7. If the pool has more threads than CPU
+ * sets, the CPU sets are assigned round robin.
+ * <p>
+ * A thread pins itself by calling {@link #pinCurrentThread(BitSet, ILogger)}
+ * when it starts. The default {@link Pinner} doesn't need any native code:
+ * it resolves the native id of the thread through {@code /proc/thread-self}
+ * and calls {@code taskset}, so it works on Linux only. A different pinner
+ * can be configured by the {@value #PINNER_PROPERTY} system property.
+ */
+public final class ThreadAffinity {
+
+    /**
+     * The thread affinity that doesn't pin any thread.
+     */
+    public static final ThreadAffinity DISABLED = new ThreadAffinity(Collections.emptyList());
+
+    /**
+     * The system property to configure the class name of the {@link Pinner}.
+     */
+    public static final String PINNER_PROPERTY = "hazelcast.thread.affinity.pinner";
+
+    private static final Pinner PINNER = newPinner();
+
+    private final List<BitSet> cpuSets;
+
+    private ThreadAffinity(List<BitSet> cpuSets) {
+        this.cpuSets = cpuSets;
+    }
+
+    /**
+     * Creates the thread affinity for the given CPU list.
+     *
+     * @param cpuList the CPU list or {@code null}
+     * @return the thread affinity, {@link #DISABLED} if the CPU list is
+     * {@code null} or empty.
+     * @throws IllegalArgumentException if the CPU list is malformed.
+     */
+    public static ThreadAffinity newThreadAffinity(String cpuList) {
+        if (cpuList == null || cpuList.trim().isEmpty()) {
+            return DISABLED;
+        }
+
+        List<BitSet> cpuSets = new ArrayList<>();
+        int index = 0;
+        while (index < cpuList.length()) {
+            while (index < cpuList.length() - 1 && Character.isWhitespace(cpuList.charAt(index))) {
+                index++;
+            }
+
+            int end;
+            if (cpuList.charAt(index) == '[') {
+                end = cpuList.indexOf(']', index);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated CPU group in CPU list '" + cpuList + "'");
+                }
+                BitSet group = new BitSet();
+                for (String range : cpuList.substring(index + 1, end).split(",")) {
+                    parseRange(cpuList, range, group);
+                }
+                cpuSets.add(group);
+
+                end++;
+                while (end < cpuList.length() && Character.isWhitespace(cpuList.charAt(end))) {
+                    end++;
+                }
+                if (end < cpuList.length() && cpuList.charAt(end) != ',') {
+                    throw new IllegalArgumentException("Malformed CPU list '" + cpuList + "'");
+                }
+            } else {
+                end = cpuList.indexOf(',', index);
+                end = end < 0 ? cpuList.length() : end;
+                BitSet range = new BitSet();
+                parseRange(cpuList, cpuList.substring(index, end), range);
+                for (int cpu = range.nextSetBit(0); cpu >= 0; cpu = range.nextSetBit(cpu + 1)) {
+                    BitSet cpuSet = new BitSet();
+                    cpuSet.set(cpu);
+                    cpuSets.add(cpuSet);
+                }
+            }
+            // skip the comma
+            index = end + 1;
+        }
+        return new ThreadAffinity(cpuSets);
+    }
+
+    private static void parseRange(String cpuList, String item, BitSet into) {
+        String range = item.trim();
+        try {
+            int separator = range.indexOf('-');
+            int from = Integer.parseInt((separator < 0 ? range : range.substring(0, separator)).trim());
+            int to = separator < 0 ? from : Integer.parseInt(range.substring(separator + 1).trim());
+            if (from < 0 || to < from) {
+                throw new IllegalArgumentException("Invalid CPU range '" + range + "' in CPU list '" + cpuList + "'");
+            }
+            into.set(from, to + 1);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid CPU range '" + range + "' in CPU list '" + cpuList + "'", e);
+        }
+    }
+
+    /**
+     * @return {@code true} if threads are pinned, {@code false} otherwise.
+     */
+    public boolean isEnabled() {
+        return !cpuSets.isEmpty();
+    }
+
+    /**
+     * @return the number of CPU sets the threads are assigned to.
+     */
+    public int getCpuSetCount() {
+        return cpuSets.size();
+    }
+
+    /**
+     * Returns the CPUs the thread with the given index in the thread pool
+     * is pinned to.
+     *
+     * @param threadIndex the index of the thread in the thread pool
+     * @return the CPUs or {@code null} if the thread affinity is disabled.
+     */
+    public BitSet getCpus(int threadIndex) {
+        if (cpuSets.isEmpty()) {
+            return null;
+        }
+        return (BitSet) cpuSets.get(threadIndex % cpuSets.size()).clone();
+    }
+
+    /**
+     * Pins the current thread to the given CPUs. A failure to pin the thread
+     * is logged and otherwise ignored: the thread keeps running unpinned.
+     *
+     * @param cpus   the CPUs or {@code null} if the thread isn't pinned
+     * @param logger the logger to report the outcome to
+     */
+    public static void pinCurrentThread(BitSet cpus, ILogger logger) {
+        if (cpus == null) {
+            return;
+        }
+
+        String threadName = Thread.currentThread().getName();
+        try {
+            PINNER.pin(cpus);
+            if (logger.isFineEnabled()) {
+                logger.fine(threadName + " pinned to CPUs " + toCpuList(cpus));
+            }
+        } catch (Exception e) {
+            logger.warning("Failed to pin " + threadName + " to CPUs " + toCpuList(cpus) + ": " + e.getMessage());
+        }
+    }
+
+    static String toCpuList(BitSet cpus) {
+        StringBuilder sb = new StringBuilder();
+        for (int cpu = cpus.nextSetBit(0); cpu >= 0; cpu = cpus.nextSetBit(cpu + 1)) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(cpu);
+        }
+        return sb.toString();
+    }
+
+    private static Pinner newPinner() {
+        String className = System.getProperty(PINNER_PROPERTY);
+        if (className == null) {
+            return new TasksetPinner();
+        }
+        try {
+            return ClassLoaderUtil.newInstance(ThreadAffinity.class.getClassLoader(), className);
+        } catch (Exception e) {
+            throw ExceptionUtil.rethrow(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadAffinity{cpuSets=" + cpuSets + '}';
+    }
+
+    /**
+     * Pins the calling thread to a set of CPUs.
+     * <p>
+     * Implementations need a public no-arg constructor.
+     */
+    public interface Pinner {
+
+        /**
+         * Pins the calling thread to the given CPUs.
+         *
+         * @param cpus the CPUs
+         * @throws Exception if the thread couldn't be pinned
+         */
+        void pin(BitSet cpus) throws Exception;
+    }
+
+    /**
+     * Pins the calling thread by {@code taskset -p -c <cpus> <tid>} where the
+     * native thread id is read from the {@code /proc/thread-self} link.
+     */
+    static final class TasksetPinner implements Pinner {
+
+        @Override
+        public void pin(BitSet cpus) throws Exception {
+            if (!isLinux()) {
+                throw new UnsupportedOperationException("Thread affinity is supported on Linux only");
+            }
+
+            // /proc/thread-self links to /proc/<pid>/task/<tid>
+            String tid = Files.readSymbolicLink(Paths.get("/proc/thread-self")).getFileName().toString();
+            Process process = new ProcessBuilder("taskset", "-p", "-c", toCpuList(cpus), tid)
+                    .redirectErrorStream(true)
+                    .start();
+            String output = readFully(process.getInputStream());
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException("taskset exited with " + exitCode + ": " + output.trim());
+            }
+        }
+
+        private static String readFully(InputStream in) throws IOException {
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[256];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+                return new String(out.toByteArray(), StandardCharsets.UTF_8);
+            } finally {
+                IOUtil.closeResource(in);
+            }
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static java.util.concurrent.locks.LockSupport.park;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static java.util.concurrent.locks.LockSupport.unpark;
+
+/**
+ * Bounded multi producer single consumer queue backed by a {@link
+ * ManyToOneConcurrentArrayQueue} ring buffer. Unlike the {@link MPSCQueue},
+ * offering an item doesn't allocate and the consumer doesn't need to swap
+ * stacks, which makes this queue a better fit for the consumers facing a
+ * constant stream of items from many producers.
+ * <p>
+ * Like the {@link MPSCQueue}, this queue has a configurable {@link
+ * IdleStrategy}: if there is nothing to take, the consumer idles using the
+ * strategy. Without a strategy the consumer blocks until an item is offered.
+ * <p>
+ * When the ring buffer is full, the producers back off for a bounded time
+ * to let the consumer make room for the item. If there is still no room,
+ * the item is added to an unbounded overflow queue, so a producer never
+ * waits for a consumer which is itself blocked offering to the queue of
+ * that producer. Until the overflow queue is drained, the items are added
+ * to it without waiting, so the queue is neither bounded nor free of
+ * allocations in the meantime. The consumer doesn't wait for the room at all, the items
+ * it offers to a full ring buffer go straight to the overflow queue. Once
+ * the consumer has taken the items offered to the ring buffer before an
+ * overflowed item, it alternates between the ring buffer and the overflow
+ * queue, so neither of them starves. The items offered by a single
+ * producer are always taken in the order they were offered.
+ *
+ * @param <E> the type of elements held in this collection
+ */
+public final class MPSCArrayQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    static final long MAX_PRODUCER_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    static final long MAX_PRODUCER_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ManyToOneConcurrentArrayQueue<E> ringBuffer;
+    private final IdleStrategy idleStrategy;
+    private final AtomicBoolean blocked = new AtomicBoolean();
+
+    private volatile Thread consumerThread;
+
+    // the size is incremented before an item is added and decremented
+    // after it is removed, so it never undercounts the overflowed items
+    private final ConcurrentLinkedQueue<OverflowItem<E>> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger overflowSize = new AtomicInteger();
+
+    // accessed by the consumer thread only
+    private boolean overflowTurn;
+
+    /**
+     * Creates a new {@link MPSCArrayQueue} with the provided capacity and
+     * {@link IdleStrategy}.
+     *
+     * @param capacity     the capacity of the ring buffer, rounded up to the
+     *                     next power of two.
+     * @param idleStrategy the idleStrategy. If null, the consumer will block.
+     */
+    public MPSCArrayQueue(int capacity, IdleStrategy idleStrategy) {
+        this.ringBuffer = new ManyToOneConcurrentArrayQueue<>(capacity);
+        this.idleStrategy = idleStrategy;
+    }
+
+    /**
+     * Sets the consumer thread.
+     * <p>
+     * The consumer thread is needed for blocking, so that an offering thread
+     * knows which thread to wake up. There can only be a single consumer
+     * thread and this method should be called before the queue is used.
+     *
+     * @param consumerThread the consumer thread.
+     * @throws NullPointerException when consumerThread null.
+     */
+    public void setConsumerThread(Thread consumerThread) {
+        this.consumerThread = checkNotNull(consumerThread, "consumerThread can't be null");
+    }
+
+    /**
+     * @return the capacity of the ring buffer.
+     */
+    public int capacity() {
+        return ringBuffer.capacity();
+    }
+
+    /**
+     * {@inheritDoc}.
+     * <p>
+     * Never fails: if the ring buffer is full, the producer backs off for
+     * at most {@link #MAX_PRODUCER_WAIT_NANOS} and then adds the item to the
+     * overflow queue. While the overflow queue is not empty, the item is
+     * added to it right away.
+     */
+    @Override
+    public boolean offer(E item) {
+        checkNotNull(item, "item can't be null");
+
+        // while there are overflowed items, the ring buffer is bypassed to
+        // keep the order of the items offered by the same thread
+        if (overflowSize.get() != 0
+                || (!ringBuffer.offer(item) && (Thread.currentThread() == consumerThread || !awaitRoom(item)))) {
+            overflowSize.incrementAndGet();
+            // the items offered to the ring buffer before go first
+            overflow.add(new OverflowItem<>(item, ringBuffer.addedCount()));
+        }
+
+        if (blocked.get() && blocked.compareAndSet(true, false)) {
+            unpark(consumerThread);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until the item fits into the ring buffer. Gives up once the
+     * wait times out or another producer overflows, since the items
+     * offered after an overflowed item can't go into the ring buffer.
+     */
+    private boolean awaitRoom(E item) {
+        long deadline = System.nanoTime() + MAX_PRODUCER_WAIT_NANOS;
+        long backoffNanos = 1;
+        do {
+            if (backoffNanos == 1) {
+                Thread.yield();
+            } else {
+                parkNanos(backoffNanos);
+            }
+            backoffNanos = Math.min(backoffNanos << 1, MAX_PRODUCER_BACKOFF_NANOS);
+            if (overflowSize.get() != 0) {
+                return false;
+            }
+            if (ringBuffer.offer(item)) {
+                return true;
+            }
+        } while (System.nanoTime() - deadline < 0);
+        return false;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        long iteration = 0;
+        for (; ; ) {
+            E item = poll();
+            if (item != null) {
+                return item;
+            }
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            if (idleStrategy != null) {
+                idleStrategy.idle(iteration++);
+                continue;
+            }
+
+            // Announce the blocking before checking once more, so an item
+            // offered after the check unparks the consumer. The producers
+            // claim a slot before publishing the item into it, so it's the
+            // claimed slots which have to be checked here.
+            blocked.set(true);
+            if (size() == 0) {
+                park(this);
+            }
+            blocked.set(false);
+        }
+    }
+
+    @Override
+    public E poll() {
+        if (overflowSize.get() == 0) {
+            return ringBuffer.poll();
+        }
+
+        OverflowItem<E> overflowed = overflow.peek();
+        if (overflowed == null || ringBuffer.removedCount() < overflowed.mark) {
+            return ringBuffer.poll();
+        }
+
+        overflowTurn = !overflowTurn;
+        E item = overflowTurn ? null : ringBuffer.poll();
+        if (item == null) {
+            overflow.poll();
+            overflowSize.decrementAndGet();
+            item = overflowed.item;
+        }
+        return item;
+    }
+
+    @Override
+    public E peek() {
+        E item = ringBuffer.peek();
+        if (item != null || overflowSize.get() == 0) {
+            return item;
+        }
+        OverflowItem<E> overflowed = overflow.peek();
+        return overflowed == null ? null : overflowed.item;
+    }
+
+    /**
+     * {@inheritDoc}.
+     * <p>
+     * Best effort implementation.
+     */
+    @Override
+    public int size() {
+        return ringBuffer.size() + overflowSize.get();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}.
+     * <p>
+     * Should be called by the consumer thread only.
+     */
+    @Override
+    public void clear() {
+        ringBuffer.clear();
+        while (overflow.poll() != null) {
+            overflowSize.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void put(E e) {
+        offer(e);
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) {
+        return offer(e);
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * {@inheritDoc}.
+     * <p>
+     * The remaining capacity of the ring buffer, more items may always be
+     * offered to the overflow queue.
+     */
+    @Override
+    public int remainingCapacity() {
+        return ringBuffer.remainingCapacity();
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        throw new UnsupportedOperationException();
+    }
+
+    private static final class OverflowItem<E> {
+        final E item;
+        // the number of items added to the ring buffer before this item
+        final long mark;
+
+        OverflowItem(E item, long mark) {
+            this.item = item;
+            this.mark = mark;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import com.hazelcast.spi.properties.ClusterProperty;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -459,6 +460,90 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, BaseMap<K, V> {
      */
     void removeAll(@Nonnull Predicate<K, V> predicate);
 
+    /**
+     * Removes the entries with the given keys from this map and returns
+     * the removed values.
+     * <p>
+     * The keys are grouped by their partitions and the entries are removed
+     * on the partition threads with a single invocation per member instead
+     * of an invocation per key. Like the entry processors, the removal
+     * doesn't go through the {@link MapInterceptor}s registered on the map.
+     *
+     * <p><b>Warning:</b>
+     * <p>
+     * The returned map is <b>NOT</b> backed by the original map,
+     * so changes to the original map are <b>NOT</b> reflected in the
+     * returned map.
+     *
+     * <p><b>Interactions with the map store</b>
+     * <p>
+     * If no value is found in memory for a key, {@link MapLoader#load(Object)}
+     * is invoked to load the value from the map store backing the map.
+     * <p>
+     * If write-through persistence mode is configured, before a value is
+     * removed from the memory, {@link MapStore#delete(Object)} is called to
+     * remove the value from the map store. Exceptions thrown by delete fail
+     * the operation and are propagated to the caller.
+     * <p>
+     * If write-behind persistence mode is configured with write-coalescing
+     * turned off, {@link com.hazelcast.map.ReachedMaxSizeException} may be
+     * thrown if the write-behind queue has reached its per-node maximum
+     * capacity.
+     *
+     * @param keys the keys of the entries to remove
+     * @return the removed values, keyed by the keys of the entries which
+     * were present in this map
+     * @throws NullPointerException if the specified keys set is null or
+     *                              contains a null key
+     * @see #deleteAll(Set)
+     * @since 4.0
+     */
+    default Map<K, V> removeAllKeys(@Nonnull Set<K> keys) {
+        // the map proxies override this to remove the entries in batches
+        Map<K, V> removed = new HashMap<>();
+        for (K key : keys) {
+            V oldValue = remove(key);
+            if (oldValue != null) {
+                removed.put(key, oldValue);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the entries with the given keys from this map.
+     * <p>
+     * Unlike {@link #removeAllKeys(Set)}, this method doesn't return the
+     * removed values, so they don't have to be transferred to the caller.
+     * The keys are grouped by their partitions and the entries are removed
+     * on the partition threads with a single invocation per member instead
+     * of an invocation per key. Like the entry processors, the removal
+     * doesn't go through the {@link MapInterceptor}s registered on the map.
+     *
+     * <p><b>Interactions with the map store</b>
+     * <p>
+     * If write-through persistence mode is configured, before a value is
+     * removed from the memory, {@link MapStore#delete(Object)} is called to
+     * remove the value from the map store. Exceptions thrown by delete fail
+     * the operation and are propagated to the caller.
+     * <p>
+     * If write-behind persistence mode is configured with write-coalescing
+     * turned off, {@link com.hazelcast.map.ReachedMaxSizeException} may be
+     * thrown if the write-behind queue has reached its per-node maximum
+     * capacity.
+     *
+     * @param keys the keys of the entries to remove
+     * @throws NullPointerException if the specified keys set is null or
+     *                              contains a null key
+     * @since 4.0
+     */
+    default void deleteAll(@Nonnull Set<K> keys) {
+        // the map proxies override this to remove the entries in batches
+        for (K key : keys) {
+            delete(key);
+        }
+    }
+
     /**
      * Removes the mapping for the key from this map if it is present.
      * <p>
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Removes the processed entries like the {@link EntryRemovingProcessor},
+ * but returns the removed values in their serialized form.
+ */
+public class EntryRemovingReturningProcessor implements EntryProcessor, IdentifiedDataSerializable {
+
+    public static final EntryRemovingReturningProcessor ENTRY_REMOVING_RETURNING_PROCESSOR =
+            new EntryRemovingReturningProcessor();
+
+    public EntryRemovingReturningProcessor() {
+    }
+
+    @Override
+    public Object process(Map.Entry entry) {
+        LazyMapEntry mapEntry = (LazyMapEntry) entry;
+        if (mapEntry.hasNullValue()) {
+            return null;
+        }
+        Object oldValue = mapEntry.getValueData();
+        mapEntry.remove();
+        return oldValue;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MapDataSerializerHook.ENTRY_REMOVING_RETURNING_PROCESSOR;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+    }
+}
@@ -18,6 +18,7 @@ package com.hazelcast.map.impl;
 
 import com.hazelcast.config.CacheDeserializedValues;
 import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionConfig;
 import com.hazelcast.config.EventJournalConfig;
 import com.hazelcast.config.IndexConfig;
 import com.hazelcast.config.InvalidConfigurationException;
@@ -27,6 +28,7 @@ import com.hazelcast.config.WanReplicationConfig;
 import com.hazelcast.config.WanReplicationRef;
 import com.hazelcast.config.WanSyncConfig;
 import com.hazelcast.spi.eviction.EvictionPolicyComparator;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLfuEvictionPolicyComparator;
 import com.hazelcast.internal.nio.ClassLoaderUtil;
 import com.hazelcast.internal.partition.IPartitionService;
 import com.hazelcast.internal.serialization.InternalSerializationService;
@@ -43,7 +45,9 @@ import com.hazelcast.map.impl.eviction.EvictorImpl;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.nearcache.invalidation.InvalidationListener;
 import com.hazelcast.map.impl.query.QueryEntryFactory;
+import com.hazelcast.map.impl.record.CompactRecordFactory;
 import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.NativeRecordFactory;
 import com.hazelcast.map.impl.record.ObjectRecordFactory;
 import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.nio.serialization.Data;
@@ -63,11 +67,14 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static com.hazelcast.config.ConsistencyCheckStrategy.MERKLE_TREES;
+import static com.hazelcast.config.InMemoryFormat.BINARY;
 import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.config.InMemoryFormat.OBJECT;
 import static com.hazelcast.internal.eviction.EvictionPolicyEvaluatorProvider.getEvictionPolicyComparator;
 import static com.hazelcast.map.impl.eviction.Evictor.NULL_EVICTOR;
 import static com.hazelcast.map.impl.mapstore.MapStoreContextFactory.createMapStoreContext;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_COMPACT_RECORD_STORAGE_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_COLUMNAR_SCAN_ENABLED;
 import static com.hazelcast.spi.properties.ClusterProperty.MAP_EVICTION_BATCH_SIZE;
 import static java.lang.System.getProperty;
 
@@ -95,6 +102,8 @@ public class MapContainer {
     protected final Function<Object, Data> toDataFunction = new ObjectToData();
     protected final InterceptorRegistry interceptorRegistry = new InterceptorRegistry();
     protected final ConstructorFunction<Void, RecordFactory> recordFactoryConstructor;
+    protected final boolean compactRecordStorage;
+    protected final boolean columnarScan;
     /**
      * Holds number of registered {@link InvalidationListener} from clients.
      */
@@ -105,6 +114,7 @@ public class MapContainer {
 
     protected volatile MapConfig mapConfig;
     private volatile Evictor evictor;
+    private volatile TinyLfuEvictionPolicyComparator tinyLfu;
 
     private boolean persistWanReplicatedData;
 
@@ -123,6 +133,10 @@ public class MapContainer {
         this.partitioningStrategy = createPartitioningStrategy();
         this.splitBrainProtectionName = mapConfig.getSplitBrainProtectionName();
         this.serializationService = ((InternalSerializationService) nodeEngine.getSerializationService());
+        this.compactRecordStorage = mapConfig.getInMemoryFormat() == BINARY
+                && nodeEngine.getProperties().getBoolean(MAP_COMPACT_RECORD_STORAGE_ENABLED);
+        this.columnarScan = !isPartitionThreadConfined()
+                && nodeEngine.getProperties().getBoolean(QUERY_COLUMNAR_SCAN_ENABLED);
         this.recordFactoryConstructor = createRecordFactoryConstructor(serializationService);
         this.objectNamespace = MapService.getObjectNamespace(name);
         this.extractors = Extractors.newBuilder(serializationService)
@@ -161,11 +175,32 @@ public class MapContainer {
         EvictionPolicyComparator evictionPolicyComparator
                 = getEvictionPolicyComparator(mapConfig.getEvictionConfig(), nodeEngine.getConfigClassLoader());
 
+        if (evictionPolicyComparator instanceof TinyLfuEvictionPolicyComparator) {
+            TinyLfuEvictionPolicyComparator tinyLfu = (TinyLfuEvictionPolicyComparator) evictionPolicyComparator;
+            tinyLfu.setMaximumSize(maximumEntryCount(mapConfig.getEvictionConfig(),
+                    nodeEngine.getPartitionService().getPartitionCount()));
+            this.tinyLfu = tinyLfu;
+        } else {
+            this.tinyLfu = null;
+        }
+
         evictor = evictionPolicyComparator != null
                 ? newEvictor(evictionPolicyComparator, nodeEngine.getProperties().getInteger(MAP_EVICTION_BATCH_SIZE),
                 nodeEngine.getPartitionService()) : NULL_EVICTOR;
     }
 
+    private static long maximumEntryCount(EvictionConfig evictionConfig, int partitionCount) {
+        switch (evictionConfig.getMaxSizePolicy()) {
+            case PER_NODE:
+                return evictionConfig.getSize();
+            case PER_PARTITION:
+                return (long) evictionConfig.getSize() * partitionCount;
+            default:
+                // the entry count is unknown for the memory based policies, the sketch grows with the entries
+                return Long.MAX_VALUE;
+        }
+    }
+
     // this method is overridden
     protected Evictor newEvictor(EvictionPolicyComparator evictionPolicyComparator,
                                  int evictionBatchSize, IPartitionService partitionService) {
@@ -176,7 +211,32 @@ public class MapContainer {
 
     public boolean shouldUseGlobalIndex() {
         // for non-native memory populate a single global index
-        return !mapConfig.getInMemoryFormat().equals(NATIVE);
+        return !isPartitionThreadConfined();
+    }
+
+    /**
+     * @return {@code true} if the records of this map use the compact record
+     * storage, see {@link com.hazelcast.spi.properties.ClusterProperty#MAP_COMPACT_RECORD_STORAGE_ENABLED}
+     */
+    public boolean isCompactRecordStorage() {
+        return compactRecordStorage;
+    }
+
+    /**
+     * @return {@code true} if the partitions of this map keep the columnar
+     * shadow copies for the full scans, see {@link com.hazelcast.spi.properties.ClusterProperty#QUERY_COLUMNAR_SCAN_ENABLED}
+     */
+    public boolean isColumnarScanEnabled() {
+        return columnarScan;
+    }
+
+    /**
+     * @return {@code true} if the record stores of this map can only be
+     * accessed from partition threads, {@code false} if they can also be read
+     * concurrently by query threads
+     */
+    public boolean isPartitionThreadConfined() {
+        return mapConfig.getInMemoryFormat() == NATIVE || compactRecordStorage;
     }
 
     protected static MemoryInfoAccessor getMemoryInfoAccessor() {
@@ -202,9 +262,14 @@ public class MapContainer {
         return notUsedArg -> {
             switch (mapConfig.getInMemoryFormat()) {
                 case BINARY:
+                    if (compactRecordStorage) {
+                        return new CompactRecordFactory(serializationService, partitioningStrategy);
+                    }
                     return new DataRecordFactory(mapConfig, serializationService, partitioningStrategy);
                 case OBJECT:
                     return new ObjectRecordFactory(mapConfig, serializationService);
+                case NATIVE:
+                    return new NativeRecordFactory(serializationService, partitioningStrategy);
                 default:
                     throw new IllegalArgumentException("Invalid storage format: " + mapConfig.getInMemoryFormat());
             }
@@ -364,6 +429,14 @@ public class MapContainer {
         return evictor;
     }
 
+    /**
+     * @return the comparator tracking the access frequencies of the keys if
+     * the eviction policy of this map is TinyLFU, otherwise {@code null}
+     */
+    public TinyLfuEvictionPolicyComparator getTinyLfu() {
+        return tinyLfu;
+    }
+
     // only used for testing purposes
     public void setEvictor(Evictor evictor) {
         this.evictor = evictor;
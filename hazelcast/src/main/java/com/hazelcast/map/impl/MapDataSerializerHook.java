@@ -310,8 +310,9 @@ public final class MapDataSerializerHook implements DataSerializerHook {
     public static final int PUT_TRANSIENT_WITH_EXPIRY = 145;
     public static final int PUT_IF_ABSENT_WITH_EXPIRY = 146;
     public static final int PUT_TRANSIENT_BACKUP = 147;
+    public static final int ENTRY_REMOVING_RETURNING_PROCESSOR = 148;
 
-    private static final int LEN = PUT_TRANSIENT_BACKUP + 1;
+    private static final int LEN = ENTRY_REMOVING_RETURNING_PROCESSOR + 1;
 
     @Override
     public int getFactoryId() {
@@ -467,6 +468,8 @@ public final class MapDataSerializerHook implements DataSerializerHook {
         constructors[PUT_TRANSIENT_WITH_EXPIRY] = arg -> new PutTransientWithExpiryOperation();
         constructors[PUT_IF_ABSENT_WITH_EXPIRY] = arg -> new PutIfAbsentWithExpiryOperation();
         constructors[PUT_TRANSIENT_BACKUP] = arg -> new PutTransientBackupOperation();
+        constructors[ENTRY_REMOVING_RETURNING_PROCESSOR] =
+                arg -> EntryRemovingReturningProcessor.ENTRY_REMOVING_RETURNING_PROCESSOR;
 
         return new ArrayDataSerializableFactory(constructors);
     }
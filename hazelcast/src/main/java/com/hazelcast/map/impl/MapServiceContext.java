@@ -21,6 +21,7 @@ import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.PartitioningStrategyConfig;
 import com.hazelcast.internal.eviction.ExpirationManager;
+import com.hazelcast.internal.memory.impl.UnsafeMemoryManager;
 import com.hazelcast.internal.util.collection.PartitionIdSet;
 import com.hazelcast.internal.util.comparators.ValueComparator;
 import com.hazelcast.map.impl.event.MapEventPublisher;
@@ -164,6 +165,17 @@ public interface MapServiceContext extends MapServiceContextInterceptorSupport,
 
     IndexProvider getIndexProvider(MapConfig mapConfig);
 
+    /**
+     * Returns the memory manager used by record stores of maps with
+     * {@link com.hazelcast.config.InMemoryFormat#NATIVE NATIVE} in-memory-format.
+     * The memory manager is created on first use and is bounded by the
+     * size configured in {@link com.hazelcast.config.NativeMemoryConfig}.
+     *
+     * @return the native memory manager
+     * @throws IllegalStateException if native memory is not enabled
+     */
+    UnsafeMemoryManager getNativeMemoryManager();
+
     Extractors getExtractors(String mapName);
 
     void incrementOperationStats(long startTime, LocalMapStatsImpl localMapStats, String mapName, Operation operation);
@@ -20,7 +20,9 @@ import com.hazelcast.cluster.ClusterState;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.PartitioningStrategyConfig;
+import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.internal.eviction.ExpirationManager;
+import com.hazelcast.internal.memory.impl.UnsafeMemoryManager;
 import com.hazelcast.internal.serialization.DataType;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.SerializationService;
@@ -107,6 +109,7 @@ import static com.hazelcast.query.impl.predicates.QueryOptimizerFactory.newOptim
 import static com.hazelcast.spi.impl.executionservice.ExecutionService.QUERY_EXECUTOR;
 import static com.hazelcast.spi.impl.operationservice.Operation.GENERIC_PARTITION_ID;
 import static com.hazelcast.spi.properties.ClusterProperty.AGGREGATION_ACCUMULATION_PARALLEL_EVALUATION;
+import static com.hazelcast.spi.properties.ClusterProperty.INDEX_BPLUS_TREE_ENABLED;
 import static com.hazelcast.spi.properties.ClusterProperty.INDEX_COPY_BEHAVIOR;
 import static com.hazelcast.spi.properties.ClusterProperty.OPERATION_CALL_TIMEOUT_MILLIS;
 import static com.hazelcast.spi.properties.ClusterProperty.QUERY_PREDICATE_PARALLEL_EVALUATION;
@@ -141,12 +144,14 @@ class MapServiceContextImpl implements MapServiceContext {
     private final PartitioningStrategyFactory partitioningStrategyFactory;
     private final NodeWideUsedCapacityCounter nodeWideUsedCapacityCounter;
     private final ConstructorFunction<String, MapContainer> mapConstructor;
-    private final IndexProvider indexProvider = new DefaultIndexProvider();
+    private final IndexProvider indexProvider;
     private final ContextMutexFactory contextMutexFactory = new ContextMutexFactory();
     private final AtomicReference<PartitionIdSet> ownedPartitions = new AtomicReference<>();
     private final ConcurrentMap<String, MapContainer> mapContainers = new ConcurrentHashMap<>();
+    private final Object nativeMemoryManagerMutex = new Object();
 
     private MapService mapService;
+    private volatile UnsafeMemoryManager nativeMemoryManager;
 
     @SuppressWarnings("checkstyle:executablestatementcount")
     MapServiceContextImpl(NodeEngine nodeEngine) {
@@ -162,6 +167,7 @@ class MapServiceContextImpl implements MapServiceContext {
         this.mapEventPublisher = createMapEventPublisherSupport();
         this.eventJournal = createEventJournal();
         this.queryOptimizer = newOptimizer(nodeEngine.getProperties());
+        this.indexProvider = new DefaultIndexProvider(nodeEngine.getProperties().getBoolean(INDEX_BPLUS_TREE_ENABLED));
         this.resultProcessorRegistry = createResultProcessorRegistry(serializationService);
         this.partitionScanRunner = createPartitionScanRunner();
         this.queryEngine = createMapQueryEngine();
@@ -444,6 +450,17 @@ class MapServiceContextImpl implements MapServiceContext {
         mapNearCacheManager.shutdown();
         mapContainers.clear();
         expirationManager.onShutdown();
+        eventJournal.shutdown();
+        disposeNativeMemoryManager();
+    }
+
+    private void disposeNativeMemoryManager() {
+        synchronized (nativeMemoryManagerMutex) {
+            if (nativeMemoryManager != null) {
+                nativeMemoryManager.dispose();
+                nativeMemoryManager = null;
+            }
+        }
     }
 
     @Override
@@ -762,6 +779,24 @@ class MapServiceContextImpl implements MapServiceContext {
         return indexProvider;
     }
 
+    @Override
+    public UnsafeMemoryManager getNativeMemoryManager() {
+        UnsafeMemoryManager memoryManager = nativeMemoryManager;
+        if (memoryManager != null) {
+            return memoryManager;
+        }
+        synchronized (nativeMemoryManagerMutex) {
+            if (nativeMemoryManager == null) {
+                NativeMemoryConfig nativeMemoryConfig = nodeEngine.getConfig().getNativeMemoryConfig();
+                if (!nativeMemoryConfig.isEnabled()) {
+                    throw new IllegalStateException("Native memory must be enabled to use NATIVE in-memory-format");
+                }
+                nativeMemoryManager = new UnsafeMemoryManager(nativeMemoryConfig.getSize().bytes());
+            }
+            return nativeMemoryManager;
+        }
+    }
+
     @Override
     public Extractors getExtractors(String mapName) {
         MapContainer mapContainer = getMapContainer(mapName);
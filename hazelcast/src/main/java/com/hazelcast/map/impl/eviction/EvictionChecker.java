@@ -54,6 +54,7 @@ public class EvictionChecker {
     private final ClusterService clusterService;
     private final PartitionContainer[] containers;
     private final MemoryInfoAccessor memoryInfoAccessor;
+    private final MapServiceContext mapServiceContext;
     private final MapNearCacheManager mapNearCacheManager;
     private final AtomicBoolean misconfiguredPerNodeMaxSizeWarningLogged;
 
@@ -68,6 +69,7 @@ public class EvictionChecker {
         this.partitionCount = nodeEngine.getPartitionService().getPartitionCount();
         this.mapNearCacheManager = mapServiceContext.getMapNearCacheManager();
         this.memoryInfoAccessor = givenMemoryInfoAccessor;
+        this.mapServiceContext = mapServiceContext;
 
         if (logger.isFinestEnabled()) {
             logger.finest("Used memoryInfoAccessor=" + this.memoryInfoAccessor.getClass().getCanonicalName());
@@ -101,6 +103,16 @@ public class EvictionChecker {
                 return (usedHeapInBytes(mapName) * ONE_HUNDRED / Math.max(maxMemoryInBytes(), 1)) > maxConfiguredSize;
             case FREE_HEAP_PERCENTAGE:
                 return (availableMemoryInBytes() * ONE_HUNDRED / Math.max(maxMemoryInBytes(), 1)) < maxConfiguredSize;
+            case USED_NATIVE_MEMORY_SIZE:
+                return usedNativeMemoryInBytes(mapName) > MEGABYTES.toBytes(maxConfiguredSize);
+            case USED_NATIVE_MEMORY_PERCENTAGE:
+                return (usedNativeMemoryInBytes(mapName) * ONE_HUNDRED / Math.max(maxNativeMemoryInBytes(), 1))
+                        > maxConfiguredSize;
+            case FREE_NATIVE_MEMORY_SIZE:
+                return freeNativeMemoryInBytes() < MEGABYTES.toBytes(maxConfiguredSize);
+            case FREE_NATIVE_MEMORY_PERCENTAGE:
+                return (freeNativeMemoryInBytes() * ONE_HUNDRED / Math.max(maxNativeMemoryInBytes(), 1))
+                        < maxConfiguredSize;
             default:
                 throw new IllegalArgumentException("Not an appropriate max size policy [" + maximumSizePolicy + ']');
         }
@@ -142,7 +154,7 @@ public class EvictionChecker {
     private long usedHeapInBytes(String mapName) {
         long usedHeapInBytes = 0L;
         for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
-            usedHeapInBytes += getRecordStoreHeapCost(mapName, containers[partitionId]);
+            usedHeapInBytes += getRecordStoreEntryCost(mapName, containers[partitionId]);
         }
 
         NearCache nearCache = mapNearCacheManager.getNearCache(mapName);
@@ -154,7 +166,23 @@ public class EvictionChecker {
         return usedHeapInBytes;
     }
 
-    private long getRecordStoreHeapCost(String mapName, PartitionContainer container) {
+    private long usedNativeMemoryInBytes(String mapName) {
+        long usedNativeMemoryInBytes = 0L;
+        for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            usedNativeMemoryInBytes += getRecordStoreEntryCost(mapName, containers[partitionId]);
+        }
+        return usedNativeMemoryInBytes;
+    }
+
+    private long maxNativeMemoryInBytes() {
+        return mapServiceContext.getNativeMemoryManager().getMaxMemory();
+    }
+
+    private long freeNativeMemoryInBytes() {
+        return mapServiceContext.getNativeMemoryManager().getFreeMemory();
+    }
+
+    private long getRecordStoreEntryCost(String mapName, PartitionContainer container) {
         RecordStore existingRecordStore = container.getExistingRecordStore(mapName);
         if (existingRecordStore == null) {
             return 0L;
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.iterator;
+
+import com.hazelcast.map.IMap;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * Iterator for iterating the result of a query over all the partitions of a
+ * map. The partitions are queried one after another, each one by a
+ * partition query iterator which fetches the results in batches, so only a
+ * single batch of the results is held by the caller and no member ever
+ * materializes the result for all its partitions at once. The next batch is
+ * fetched only once the previous one is consumed by the caller.
+ * <p>
+ * The {@link Iterator#remove()} method is not supported and will throw an
+ * {@link UnsupportedOperationException}.
+ * <p>
+ * <b>NOTE</b>
+ * Iterating the map should be done only when the {@link IMap} is not being
+ * mutated and the cluster is stable (there are no migrations or membership changes).
+ * In other cases, the iterator may not return some entries or may return an entry twice.
+ *
+ * @param <R> the type of the query results
+ * @see AbstractMapQueryPartitionIterator
+ */
+public class MapQueryIterator<R> implements Iterator<R> {
+
+    private final int partitionCount;
+    private final IntFunction<Iterator<R>> partitionIteratorFactory;
+
+    private int partitionId = -1;
+    private Iterator<R> partitionIterator;
+
+    /**
+     * @param partitionCount           the number of the partitions to query
+     * @param partitionIteratorFactory the factory creating the query
+     *                                 iterator for the given partition
+     */
+    public MapQueryIterator(int partitionCount, IntFunction<Iterator<R>> partitionIteratorFactory) {
+        this.partitionCount = partitionCount;
+        this.partitionIteratorFactory = partitionIteratorFactory;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (partitionIterator == null || !partitionIterator.hasNext()) {
+            if (partitionId + 1 >= partitionCount) {
+                return false;
+            }
+            partitionIterator = partitionIteratorFactory.apply(++partitionId);
+        }
+        return true;
+    }
+
+    @Override
+    public R next() {
+        if (hasNext()) {
+            return partitionIterator.next();
+        }
+        throw new NoSuchElementException();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Removing when iterating map with query is not supported");
+    }
+
+}
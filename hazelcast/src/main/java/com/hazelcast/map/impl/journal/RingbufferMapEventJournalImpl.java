@@ -20,9 +20,11 @@ import com.hazelcast.config.EventJournalConfig;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.RingbufferConfig;
 import com.hazelcast.core.EntryEventType;
+import com.hazelcast.internal.journal.MappedEventJournalStore;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.internal.serialization.DataType;
@@ -53,11 +55,13 @@ public class RingbufferMapEventJournalImpl implements MapEventJournal {
     private final NodeEngineImpl nodeEngine;
     private final MapServiceContext mapServiceContext;
     private final ILogger logger;
+    private final MappedEventJournalStore mappedStore;
 
     public RingbufferMapEventJournalImpl(NodeEngine engine, MapServiceContext mapServiceContext) {
         this.nodeEngine = (NodeEngineImpl) engine;
         this.mapServiceContext = mapServiceContext;
         this.logger = this.nodeEngine.getLogger(RingbufferMapEventJournalImpl.class);
+        this.mappedStore = MappedEventJournalStore.create(engine, MapService.SERVICE_NAME);
     }
 
     @Override
@@ -97,7 +101,8 @@ public class RingbufferMapEventJournalImpl implements MapEventJournal {
 
     @Override
     public long oldestSequence(ObjectNamespace namespace, int partitionId) {
-        return getRingbufferOrFail(namespace, partitionId).headSequence();
+        long headSequence = getRingbufferOrFail(namespace, partitionId).headSequence();
+        return mappedStore == null ? headSequence : mappedStore.oldestSequence(namespace, partitionId, headSequence);
     }
 
     @Override
@@ -117,16 +122,30 @@ public class RingbufferMapEventJournalImpl implements MapEventJournal {
             return;
         }
         service.destroyContainer(partitionId, namespace);
+        if (mappedStore != null) {
+            mappedStore.destroy(namespace, partitionId);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (mappedStore != null) {
+            mappedStore.shutdown();
+        }
     }
 
     @Override
     public void isAvailableOrNextSequence(ObjectNamespace namespace, int partitionId, long sequence) {
-        getRingbufferOrFail(namespace, partitionId).checkBlockableReadSequence(sequence);
+        RingbufferContainer<InternalEventJournalMapEvent, Object> ringbuffer = getRingbufferOrFail(namespace, partitionId);
+        if (!isMapped(namespace, partitionId, ringbuffer, sequence)) {
+            ringbuffer.checkBlockableReadSequence(sequence);
+        }
     }
 
     @Override
     public boolean isNextAvailableSequence(ObjectNamespace namespace, int partitionId, long sequence) {
-        return getRingbufferOrFail(namespace, partitionId).shouldWait(sequence);
+        RingbufferContainer<InternalEventJournalMapEvent, Object> ringbuffer = getRingbufferOrFail(namespace, partitionId);
+        return !isMapped(namespace, partitionId, ringbuffer, sequence) && ringbuffer.shouldWait(sequence);
     }
 
     @Override
@@ -137,12 +156,31 @@ public class RingbufferMapEventJournalImpl implements MapEventJournal {
     @Override
     public <T> long readMany(ObjectNamespace namespace, int partitionId, long beginSequence,
                              ReadResultSetImpl<InternalEventJournalMapEvent, T> resultSet) {
-        return getRingbufferOrFail(namespace, partitionId).readMany(beginSequence, resultSet);
+        RingbufferContainer<InternalEventJournalMapEvent, Object> ringbuffer = getRingbufferOrFail(namespace, partitionId);
+        long sequence = beginSequence;
+        if (isMapped(namespace, partitionId, ringbuffer, sequence)) {
+            sequence = mappedStore.readMany(namespace, partitionId, sequence, ringbuffer.headSequence(), resultSet);
+            if (resultSet.isMaxSizeReached() || sequence > ringbuffer.tailSequence()) {
+                return sequence;
+            }
+        }
+        return ringbuffer.readMany(sequence, resultSet);
+    }
+
+    /**
+     * @return {@code true} if the sequence was overwritten in the ringbuffer
+     * but is still readable from the memory-mapped journal segments
+     */
+    private boolean isMapped(ObjectNamespace namespace, int partitionId, RingbufferContainer<?, ?> ringbuffer, long sequence) {
+        return mappedStore != null && mappedStore.contains(namespace, partitionId, sequence, ringbuffer.headSequence());
     }
 
     @Override
     public void cleanup(ObjectNamespace namespace, int partitionId) {
         getRingbufferOrFail(namespace, partitionId).cleanup();
+        if (mappedStore != null) {
+            mappedStore.cleanup(namespace, partitionId);
+        }
     }
 
     @Override
@@ -181,7 +219,10 @@ public class RingbufferMapEventJournalImpl implements MapEventJournal {
         }
         InternalEventJournalMapEvent event
                 = new InternalEventJournalMapEvent(toData(key), toData(newValue), toData(oldValue), eventType.getType());
-        eventContainer.add(event);
+        long sequence = eventContainer.add(event);
+        if (mappedStore != null) {
+            mappedStore.append(namespace, partitionId, sequence, event);
+        }
         getOperationParker().unpark(eventContainer);
     }
 
@@ -43,7 +43,6 @@ import com.hazelcast.wan.impl.CallerProvenance;
 import java.util.List;
 import java.util.logging.Level;
 
-import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.internal.util.CollectionUtil.isEmpty;
 import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
 import static com.hazelcast.internal.util.ToHeapDataConverter.toHeapData;
@@ -158,9 +157,9 @@ public abstract class MapOperation extends AbstractNamedOperation
             return;
         }
 
-        assert mapContainer.getMapConfig().getInMemoryFormat() != NATIVE
+        assert !mapContainer.isPartitionThreadConfined()
                 || getPartitionId() != GENERIC_PARTITION_ID
-                : "Native memory backed map operations are not allowed to run on GENERIC_PARTITION_ID";
+                : "Native memory or compact storage backed map operations are not allowed to run on GENERIC_PARTITION_ID";
     }
 
     ILogger logger() {
@@ -32,6 +32,7 @@ import com.hazelcast.map.QueryCache;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.SimpleEntryView;
 import com.hazelcast.map.impl.iterator.MapPartitionIterator;
+import com.hazelcast.map.impl.iterator.MapQueryIterator;
 import com.hazelcast.map.impl.iterator.MapQueryPartitionIterator;
 import com.hazelcast.map.impl.journal.MapEventJournalReadOperation;
 import com.hazelcast.map.impl.journal.MapEventJournalSubscribeOperation;
@@ -47,6 +48,7 @@ import com.hazelcast.map.listener.MapListener;
 import com.hazelcast.map.listener.MapPartitionLostListener;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.projection.Projection;
+import com.hazelcast.projection.Projections;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.Predicates;
@@ -79,6 +81,8 @@ import static com.hazelcast.internal.util.Preconditions.checkPositive;
 import static com.hazelcast.internal.util.Preconditions.checkTrue;
 import static com.hazelcast.internal.util.SetUtil.createHashSet;
 import static com.hazelcast.internal.util.TimeUtil.timeInMsOrTimeIfNullUnit;
+import static com.hazelcast.map.impl.EntryRemovingProcessor.ENTRY_REMOVING_PROCESSOR;
+import static com.hazelcast.map.impl.EntryRemovingReturningProcessor.ENTRY_REMOVING_RETURNING_PROCESSOR;
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
 import static com.hazelcast.map.impl.query.QueryResultUtils.transformToSet;
 import static com.hazelcast.map.impl.querycache.subscriber.QueryCacheRequest.newQueryCacheRequest;
@@ -274,6 +278,24 @@ public class MapProxyImpl<K, V> extends MapProxySupport<K, V> implements EventJo
         removeAllInternal(predicate);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<K, V> removeAllKeys(@Nonnull Set<K> keys) {
+        checkNotNull(keys, NULL_KEYS_ARE_NOT_ALLOWED);
+        checkNoNullInside(keys, NULL_KEY_IS_NOT_ALLOWED);
+
+        return (Map<K, V>) executeOnKeys(keys, ENTRY_REMOVING_RETURNING_PROCESSOR);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void deleteAll(@Nonnull Set<K> keys) {
+        checkNotNull(keys, NULL_KEYS_ARE_NOT_ALLOWED);
+        checkNoNullInside(keys, NULL_KEY_IS_NOT_ALLOWED);
+
+        executeOnKeys(keys, ENTRY_REMOVING_PROCESSOR);
+    }
+
     @Override
     public void delete(@Nonnull Object key) {
         checkNotNull(key, NULL_KEY_IS_NOT_ALLOWED);
@@ -900,9 +922,7 @@ public class MapProxyImpl<K, V> extends MapProxySupport<K, V> implements EventJo
     public <R> Iterator<R> iterator(int fetchSize, int partitionId,
                                     Projection<? super Map.Entry<K, V>, R> projection,
                                     Predicate<K, V> predicate) {
-        if (predicate instanceof PagingPredicate) {
-            throw new IllegalArgumentException("Paging predicate is not allowed when iterating map by query");
-        }
+        checkNotPagingPredicate(predicate, "iterator");
         checkNotNull(projection, NULL_PROJECTION_IS_NOT_ALLOWED);
         checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
         // HazelcastInstanceAware handled by cloning
@@ -911,6 +931,61 @@ public class MapProxyImpl<K, V> extends MapProxySupport<K, V> implements EventJo
         return new MapQueryPartitionIterator<>(this, fetchSize, partitionId, predicate, projection);
     }
 
+    /**
+     * Returns an iterator for iterating the result of the projection on all the entries of the map which
+     * satisfy the {@code predicate}.
+     * <p>
+     * Unlike {@link #entrySet(Predicate)} and {@link #project(Projection, Predicate)}, the results are streamed:
+     * the partitions are queried one after another and the results of a partition are fetched in batches, the
+     * next batch is fetched only once the previous one is consumed. Neither the caller nor the members ever
+     * hold more than a single batch of the results, so the iteration is not subject to the query result size
+     * limit and it's suitable for the queries matching large portions of the map.
+     * <p>
+     * You may control the size of the batch by changing the {@code fetchSize} parameter.
+     * A too small {@code fetchSize} can affect performance since more data will have to be sent to and from the partition owner.
+     * A too high {@code fetchSize} means that more data will be sent which can block other operations from being sent,
+     * including internal operations.
+     * Predicates of type {@link PagingPredicate} are not supported.
+     * <p>
+     * <b>NOTE</b>
+     * Iterating the map should be done only when the {@link IMap} is not being
+     * mutated and the cluster is stable (there are no migrations or membership changes).
+     * In other cases, the iterator may not return some entries or may return an entry twice.
+     *
+     * @param fetchSize  the size of the batches which will be sent when iterating the data
+     * @param projection the projection to apply before returning the value. {@code null} value is not allowed
+     * @param predicate  the predicate which the entries must match. {@code null} value is not allowed
+     * @param <R>        the return type
+     * @return the iterator for the projected entries
+     * @throws IllegalArgumentException if the predicate is of type {@link PagingPredicate}
+     */
+    public <R> Iterator<R> iterator(int fetchSize,
+                                    Projection<? super Map.Entry<K, V>, R> projection,
+                                    Predicate<K, V> predicate) {
+        checkNotPagingPredicate(predicate, "iterator");
+        checkNotNull(projection, NULL_PROJECTION_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        // HazelcastInstanceAware handled by cloning
+        Projection<? super Map.Entry<K, V>, R> clonedProjection =
+                serializationService.toObject(serializationService.toData(projection));
+        handleHazelcastInstanceAwareParams(predicate);
+        return new MapQueryIterator<>(partitionService.getPartitionCount(),
+                partitionId -> new MapQueryPartitionIterator<>(this, fetchSize, partitionId, predicate, clonedProjection));
+    }
+
+    /**
+     * Returns an iterator for iterating all the entries of the map which satisfy the {@code predicate}, the
+     * results are streamed in batches of {@code fetchSize}, see {@link #iterator(int, Projection, Predicate)}.
+     *
+     * @param fetchSize the size of the batches which will be sent when iterating the data
+     * @param predicate the predicate which the entries must match. {@code null} value is not allowed
+     * @return the iterator for the matching entries
+     * @throws IllegalArgumentException if the predicate is of type {@link PagingPredicate}
+     */
+    public Iterator<Entry<K, V>> iterator(int fetchSize, Predicate<K, V> predicate) {
+        return iterator(fetchSize, Projections.identity(), predicate);
+    }
+
     @Override
     public CompletionStage<EventJournalInitialSubscriberState> subscribeToEventJournal(int partitionId) {
         final MapEventJournalSubscribeOperation op = new MapEventJournalSubscribeOperation(name);
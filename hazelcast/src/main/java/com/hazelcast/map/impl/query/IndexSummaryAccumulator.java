@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.impl.AbstractAggregator;
+import com.hazelcast.aggregation.impl.CountAggregator;
+import com.hazelcast.aggregation.impl.LongSumAggregator;
+import com.hazelcast.aggregation.impl.MaxAggregator;
+import com.hazelcast.aggregation.impl.MinAggregator;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.IndexSummary;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.InternalIndex;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.predicates.RangePredicate;
+import com.hazelcast.query.impl.predicates.SqlPredicate;
+import com.hazelcast.query.impl.predicates.TruePredicate;
+
+import static com.hazelcast.query.impl.IndexUtils.canonicalizeAttribute;
+
+/**
+ * Accumulates the aggregations of the entries satisfying a range predicate
+ * on a sorted indexed attribute from the {@link IndexSummary summaries} of
+ * the index, without visiting the entries.
+ * <p>
+ * Supports {@link CountAggregator counting} the entries and {@link
+ * LongSumAggregator summing}, {@link MinAggregator minimizing} and {@link
+ * MaxAggregator maximizing} the attribute the predicate is on. Minimizing
+ * and maximizing are also supported for the {@link TruePredicate}, since
+ * the entries having {@code null} attribute values are ignored by these
+ * aggregators.
+ */
+final class IndexSummaryAccumulator {
+
+    private IndexSummaryAccumulator() {
+    }
+
+    /**
+     * Accumulates the entries satisfying the given predicate into the given
+     * aggregator using the summaries of the given indexes.
+     *
+     * @return {@code true} if the entries were accumulated, {@code false} if
+     * the aggregation can't be answered from the summaries and the aggregator
+     * is left intact.
+     */
+    @SuppressWarnings({"checkstyle:npathcomplexity", "checkstyle:cyclomaticcomplexity"})
+    static boolean accumulate(Aggregator aggregator, Predicate predicate, Indexes indexes) {
+        boolean count = aggregator instanceof CountAggregator;
+        boolean longSum = aggregator instanceof LongSumAggregator;
+        boolean min = aggregator instanceof MinAggregator;
+        boolean max = aggregator instanceof MaxAggregator;
+        if (!count && !longSum && !min && !max) {
+            return false;
+        }
+        String attributePath = ((AbstractAggregator) aggregator).getAttributePath();
+        String attribute = attributePath == null ? null : canonicalizeAttribute(attributePath);
+
+        if (predicate instanceof SqlPredicate) {
+            predicate = ((SqlPredicate) predicate).getPredicate();
+        }
+        Comparable from = null;
+        boolean fromInclusive = false;
+        Comparable to = null;
+        boolean toInclusive = false;
+        if (predicate instanceof RangePredicate) {
+            RangePredicate rangePredicate = (RangePredicate) predicate;
+            from = rangePredicate.getFrom();
+            fromInclusive = rangePredicate.isFromInclusive();
+            to = rangePredicate.getTo();
+            toInclusive = rangePredicate.isToInclusive();
+            if (from == null && to == null) {
+                // an equality to null
+                return false;
+            }
+            if (attribute == null && count) {
+                // counting the entries, not the values of the attribute
+                attribute = rangePredicate.getAttribute();
+            } else if (!rangePredicate.getAttribute().equals(attribute)) {
+                return false;
+            }
+        } else if (!(predicate instanceof TruePredicate) || !(min || max) || attribute == null) {
+            return false;
+        }
+
+        InternalIndex index = indexes.matchIndex(attribute, QueryContext.IndexMatchHint.PREFER_ORDERED);
+        if (index == null || !index.isOrdered()) {
+            return false;
+        }
+        IndexSummary summary = index.summarize(from, fromInclusive, to, toInclusive);
+        if (summary == null) {
+            return false;
+        }
+
+        if (count) {
+            ((CountAggregator) aggregator).accumulateCount(summary.getCount());
+        } else if (longSum) {
+            if (!summary.hasLongSum()) {
+                // the aggregator fails on such values, let it do so
+                return false;
+            }
+            ((LongSumAggregator) aggregator).accumulateSum(summary.getLongSum());
+        } else if (min) {
+            if (summary.getMin() != null) {
+                ((MinAggregator) aggregator).accumulateExtracted(null, summary.getMin());
+            }
+        } else if (summary.getMax() != null) {
+            ((MaxAggregator) aggregator).accumulateExtracted(null, summary.getMax());
+        }
+        return true;
+    }
+
+}
@@ -29,6 +29,8 @@ import com.hazelcast.map.impl.StoreAdapter;
 import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.Records;
+import com.hazelcast.map.impl.recordstore.ColumnarMutationObserver;
+import com.hazelcast.map.impl.recordstore.DefaultRecordStore;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.map.impl.recordstore.RecordStoreAdapter;
 import com.hazelcast.nio.serialization.Data;
@@ -36,7 +38,10 @@ import com.hazelcast.query.Predicate;
 import com.hazelcast.query.impl.Metadata;
 import com.hazelcast.query.impl.QueryableEntriesSegment;
 import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.query.impl.columnar.ColumnarStore;
 import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.predicates.ColumnarPredicateCompiler;
+import com.hazelcast.query.impl.predicates.ColumnarPredicateCompiler.CompiledPredicate;
 import com.hazelcast.query.impl.predicates.PagingPredicateImpl;
 import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.impl.operationservice.OperationService;
@@ -82,6 +87,10 @@ public class PartitionScanRunner {
         PartitionContainer partitionContainer = mapServiceContext.getPartitionContainer(partitionId);
         MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
         RecordStore recordStore = partitionContainer.getRecordStore(mapName);
+        if (pagingPredicate == null && runColumnarScan(mapName, mapContainer, recordStore, predicate, partitionId, result)) {
+            return;
+        }
+
         Iterator<Record> iterator = recordStore.loadAwareIterator(getNow(), false);
         Map.Entry<Integer, Map.Entry> nearestAnchorEntry =
                 pagingPredicate == null ? null : pagingPredicate.getNearestAnchorEntry();
@@ -115,6 +124,62 @@ public class PartitionScanRunner {
         result.orderAndLimit(pagingPredicate, nearestAnchorEntry);
     }
 
+    /**
+     * Runs the scan over the columnar shadow copy of the partition if the map
+     * keeps one and the predicate can be evaluated over its columns.
+     *
+     * @return {@code true} if the scan was run, {@code false} if the regular
+     * full scan should be run instead.
+     */
+    private boolean runColumnarScan(String mapName, MapContainer mapContainer, RecordStore recordStore, Predicate predicate,
+                                    int partitionId, Result result) {
+        if (!mapContainer.isColumnarScanEnabled() || !(recordStore instanceof DefaultRecordStore)) {
+            return false;
+        }
+        ColumnarMutationObserver columnarObserver = ((DefaultRecordStore) recordStore).getColumnarObserver();
+        if (columnarObserver == null) {
+            return false;
+        }
+
+        // the columns are populated from the storage, make sure it's loaded
+        recordStore.checkIfLoaded();
+        ColumnarStore<Record> columnarStore = columnarObserver.getColumnarStore();
+        CompiledPredicate compiledPredicate = ColumnarPredicateCompiler.compile(predicate, columnarStore);
+        if (compiledPredicate == null) {
+            return false;
+        }
+
+        ColumnarStore.Selection<Record> selection = columnarStore.select(compiledPredicate.getFilter());
+        // recheck the whole predicate if the selection raced with a mutation
+        Predicate residual = selection.isConcurrentlyModified() ? predicate : compiledPredicate.getResidual();
+        long now = getNow();
+        boolean useCachedValues = isUseCachedDeserializedValuesEnabled(mapContainer, partitionId);
+        Extractors extractors = mapServiceContext.getExtractors(mapName);
+        StoreAdapter storeAdapter = new RecordStoreAdapter(recordStore);
+        for (Record record : selection.getEntries()) {
+            if (recordStore.isExpired(record, now, false)) {
+                continue;
+            }
+            Data key = (Data) toData(record.getKey());
+            Object value = toData(
+                    useCachedValues ? Records.getValueOrCachedValue(record, serializationService) : record.getValue());
+            if (value == null) {
+                continue;
+            }
+
+            LazyMapEntry queryEntry = new LazyMapEntry();
+            queryEntry.init(serializationService, key, value, extractors);
+            queryEntry.setMetadata(getMetadataFromRecord(recordStore, record));
+            queryEntry.setRecord(record);
+            queryEntry.setStoreAdapter(storeAdapter);
+            if (residual == null || residual.apply(queryEntry)) {
+                result.add(queryEntry);
+            }
+        }
+        result.orderAndLimit(null, null);
+        return true;
+    }
+
     // overridden in ee
     protected Metadata getMetadataFromRecord(RecordStore recordStore, Record record) {
         return record.getMetadata();
@@ -16,7 +16,6 @@
 
 package com.hazelcast.map.impl.query;
 
-import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.core.MemberLeftException;
 import com.hazelcast.internal.partition.IPartition;
 import com.hazelcast.map.impl.MapContainer;
@@ -63,9 +62,8 @@ public class QueryOperation extends AbstractNamedOperation implements ReadonlyOp
         this.query = query;
     }
 
-    private InMemoryFormat getMapInMemoryFormat() {
-        MapContainer mapContainer = getMapServiceContext().getMapContainer(name);
-        return mapContainer.getMapConfig().getInMemoryFormat();
+    private MapContainer getMapContainer() {
+        return getMapServiceContext().getMapContainer(name);
     }
 
     private MapServiceContext getMapServiceContext() {
@@ -83,22 +81,18 @@ public class QueryOperation extends AbstractNamedOperation implements ReadonlyOp
     private CallStatus callInternal() {
         QueryRunner queryRunner = getMapServiceContext().getMapQueryRunner(getName());
 
-        switch (getMapInMemoryFormat()) {
-            case BINARY:
-            case OBJECT:
-                result = queryRunner.runIndexOrPartitionScanQueryOnOwnedPartitions(query);
-                return DONE_RESPONSE;
-            case NATIVE:
-                BitSet localPartitions = localPartitions();
-                if (localPartitions.cardinality() == 0) {
-                    // important to deal with situation of not having any partitions
-                    result = queryRunner.populateEmptyResult(query, Collections.emptyList());
-                    return DONE_RESPONSE;
-                } else {
-                    return new OffloadedImpl(queryRunner, localPartitions);
-                }
-            default:
-                throw new IllegalArgumentException("Unsupported in memory format");
+        if (!getMapContainer().isPartitionThreadConfined()) {
+            result = queryRunner.runIndexOrPartitionScanQueryOnOwnedPartitions(query);
+            return DONE_RESPONSE;
+        }
+
+        BitSet localPartitions = localPartitions();
+        if (localPartitions.cardinality() == 0) {
+            // important to deal with situation of not having any partitions
+            result = queryRunner.populateEmptyResult(query, Collections.emptyList());
+            return DONE_RESPONSE;
+        } else {
+            return new OffloadedImpl(queryRunner, localPartitions);
         }
     }
 
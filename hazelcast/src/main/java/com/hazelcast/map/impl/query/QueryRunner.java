@@ -113,10 +113,16 @@ public class QueryRunner {
         // first we optimize the query
         Predicate predicate = queryOptimizer.optimize(query.getPredicate(), indexes);
 
+        // aggregations over ranges of indexed attributes may be answered by the index summaries alone
+        Result result = runAggregationUsingIndexSummariesSafely(query, predicate, mapContainer, migrationStamp,
+                initialPartitions);
+        if (result != null) {
+            return result;
+        }
+
         // then we try to run using an index, but if that doesn't work, we'll try a full table scan
         Collection<QueryableEntry> entries = runUsingGlobalIndexSafely(predicate, mapContainer, migrationStamp);
 
-        Result result;
         if (entries == null) {
             result = runUsingPartitionScanSafely(query, predicate, initialPartitions, migrationStamp);
             if (result == null) {
@@ -160,10 +166,15 @@ public class QueryRunner {
         // first we optimize the query
         Predicate predicate = queryOptimizer.optimize(query.getPredicate(), indexes);
 
+        Result result = runAggregationUsingIndexSummariesSafely(query, predicate, mapContainer, migrationStamp,
+                initialPartitions);
+        if (result != null) {
+            return result;
+        }
+
         // then we try to run using an index
         Collection<QueryableEntry> entries = runUsingGlobalIndexSafely(predicate, mapContainer, migrationStamp);
 
-        Result result;
         if (entries == null) {
             // failed with index query because of ongoing migrations
             result = populateEmptyResult(query, initialPartitions);
@@ -254,6 +265,37 @@ public class QueryRunner {
         return null;
     }
 
+    /**
+     * Performs the aggregation of the given query using the summaries of the
+     * global indexes, see {@link IndexSummaryAccumulator}.
+     *
+     * @return the result of the aggregation or {@code null} if the query is
+     * not an aggregation, it can't be answered by the index summaries or a
+     * partition migration is detected.
+     */
+    protected Result runAggregationUsingIndexSummariesSafely(Query query, Predicate predicate, MapContainer mapContainer,
+                                                             int migrationStamp, PartitionIdSet partitions) {
+        if (query.getAggregator() == null || !validateMigrationStamp(migrationStamp)) {
+            return null;
+        }
+
+        Indexes indexes = mapContainer.getIndexes();
+        if (indexes == null || !indexes.isGlobal()) {
+            return null;
+        }
+
+        AggregationResult result = (AggregationResult) populateEmptyResult(query, partitions);
+        if (!IndexSummaryAccumulator.accumulate(result.getAggregator(), predicate, indexes)) {
+            return null;
+        }
+
+        if (validateMigrationStamp(migrationStamp)) {
+            result.completeConstruction(partitions);
+            return result;
+        }
+        return null;
+    }
+
     protected Result runUsingPartitionScanSafely(Query query, Predicate predicate, PartitionIdSet partitions,
                                                  int migrationStamp) {
 
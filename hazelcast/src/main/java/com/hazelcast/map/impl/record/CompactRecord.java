@@ -0,0 +1,432 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.impl.Metadata;
+
+import static com.hazelcast.map.impl.record.CompactRecordTable.CREATION_TIME;
+import static com.hazelcast.map.impl.record.CompactRecordTable.EXPIRATION_TIME;
+import static com.hazelcast.map.impl.record.CompactRecordTable.HITS;
+import static com.hazelcast.map.impl.record.CompactRecordTable.LAST_ACCESS_TIME;
+import static com.hazelcast.map.impl.record.CompactRecordTable.LAST_STORED_TIME;
+import static com.hazelcast.map.impl.record.CompactRecordTable.LAST_UPDATE_TIME;
+import static com.hazelcast.map.impl.record.CompactRecordTable.MAX_IDLE;
+import static com.hazelcast.map.impl.record.CompactRecordTable.TTL;
+import static com.hazelcast.map.impl.record.RecordReaderWriter.DATA_RECORD_WITH_STATS_READER_WRITER;
+
+/**
+ * A {@link Record} whose key, value and metadata live in a
+ * {@link CompactRecordTable}.
+ * <p>
+ * Like {@link NativeRecord}, a compact record is either <em>detached</em> or
+ * <em>attached</em>. A detached record is created by {@link CompactRecordFactory}
+ * and keeps its state in an on-heap {@link DataRecordWithStats} until it is put
+ * into a compact storage, which copies the state into the table and
+ * {@link #attach attaches} the record to the allocated entry. From that point
+ * on the same instance acts as a <i>Flyweight</i> over the table entry.
+ * <p>
+ * The record does not support value caching.
+ * <p>
+ * Not thread-safe, can only be used from the partition thread which owns the
+ * table.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public class CompactRecord implements Record<Data> {
+
+    private static final int DETACHED = -1;
+
+    private CompactRecordTable table;
+    private int id = DETACHED;
+    private Record<Data> onHeapRecord;
+    private Data key;
+
+    CompactRecord(Record<Data> onHeapRecord) {
+        this.onHeapRecord = onHeapRecord;
+        this.key = onHeapRecord.getKey();
+    }
+
+    public CompactRecord(CompactRecordTable table, int id) {
+        attach(table, id);
+    }
+
+    /**
+     * Binds this record to the given table entry. All subsequent reads and
+     * writes go to the table.
+     */
+    public void attach(CompactRecordTable table, int id) {
+        assert id >= 0;
+        this.table = table;
+        this.id = id;
+        this.onHeapRecord = null;
+    }
+
+    public boolean isAttached() {
+        return id != DETACHED;
+    }
+
+    /**
+     * @return the id of the table entry or {@code -1} if detached
+     */
+    public int id() {
+        return id;
+    }
+
+    /**
+     * Copies the metadata of the given record into the table entry with the
+     * given id.
+     */
+    public static void writeMetadata(CompactRecordTable table, int id, Record from) {
+        CompactRecord to = new CompactRecord(table, id);
+        if (from instanceof CompactRecord || from instanceof NativeRecord || from instanceof AbstractRecordWithStats) {
+            to.setVersion(from.getVersion());
+            to.setHits(from.getHits());
+            to.setRawTtl(from.getRawTtl());
+            to.setRawMaxIdle(from.getRawMaxIdle());
+            to.setRawCreationTime(from.getRawCreationTime());
+            to.setRawLastAccessTime(from.getRawLastAccessTime());
+            to.setRawLastUpdateTime(from.getRawLastUpdateTime());
+            to.setRawLastStoredTime(from.getRawLastStoredTime());
+            to.setRawExpirationTime(from.getRawExpirationTime());
+        } else {
+            to.setRawLastStoredTime(UNSET);
+            to.setRawExpirationTime(UNSET);
+            Records.copyMetadataFrom(from, to);
+        }
+        to.setMetadata(from.getMetadata());
+    }
+
+    @Override
+    public Data getKey() {
+        if (key == null && isAttached()) {
+            key = new HeapData(table.getKey(id));
+        }
+        return key;
+    }
+
+    @Override
+    public void setKey(Data key) {
+        if (isAttached()) {
+            // the key of an attached record is immutable
+            assert key == null || key.equals(getKey()) : "Attempted to change the key of an attached compact record";
+            return;
+        }
+        this.key = key;
+        onHeapRecord.setKey(key);
+    }
+
+    @Override
+    public Data getValue() {
+        if (!isAttached()) {
+            return onHeapRecord.getValue();
+        }
+        byte[] value = table.getValue(id);
+        return value == null ? null : new HeapData(value);
+    }
+
+    @Override
+    public void setValue(Data value) {
+        if (isAttached()) {
+            table.setValue(id, value == null ? null : value.toByteArray());
+        } else {
+            onHeapRecord.setValue(value);
+        }
+    }
+
+    @Override
+    public long getCost() {
+        return isAttached() ? table.getCost(id) : onHeapRecord.getCost();
+    }
+
+    @Override
+    public long getVersion() {
+        return isAttached() ? table.getVersion(id) : onHeapRecord.getVersion();
+    }
+
+    @Override
+    public void setVersion(long version) {
+        if (isAttached()) {
+            table.setVersion(id, version);
+        } else {
+            onHeapRecord.setVersion(version);
+        }
+    }
+
+    @Override
+    public Object getCachedValueUnsafe() {
+        return NOT_CACHED;
+    }
+
+    @Override
+    public boolean casCachedValue(Object expectedValue, Object newValue) {
+        return true;
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return recomputeWithBaseTime(getRawLastAccessTime());
+    }
+
+    @Override
+    public void setLastAccessTime(long lastAccessTime) {
+        setRawLastAccessTime(stripBaseTime(lastAccessTime));
+    }
+
+    @Override
+    public long getLastUpdateTime() {
+        return recomputeWithBaseTime(getRawLastUpdateTime());
+    }
+
+    @Override
+    public void setLastUpdateTime(long lastUpdateTime) {
+        setRawLastUpdateTime(stripBaseTime(lastUpdateTime));
+    }
+
+    @Override
+    public long getCreationTime() {
+        return recomputeWithBaseTime(getRawCreationTime());
+    }
+
+    @Override
+    public void setCreationTime(long creationTime) {
+        setRawCreationTime(stripBaseTime(creationTime));
+    }
+
+    @Override
+    public int getHits() {
+        return isAttached() ? table.getInt(id, HITS) : onHeapRecord.getHits();
+    }
+
+    @Override
+    public void setHits(int hits) {
+        if (isAttached()) {
+            table.setInt(id, HITS, hits);
+        } else {
+            onHeapRecord.setHits(hits);
+        }
+    }
+
+    @Override
+    public long getExpirationTime() {
+        int expirationTime = getRawExpirationTime();
+        if (expirationTime == UNSET) {
+            return 0L;
+        }
+
+        if (expirationTime == Integer.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+
+        return recomputeWithBaseTime(expirationTime);
+    }
+
+    @Override
+    public void setExpirationTime(long expirationTime) {
+        setRawExpirationTime(expirationTime == Long.MAX_VALUE
+                ? Integer.MAX_VALUE
+                : stripBaseTime(expirationTime));
+    }
+
+    @Override
+    public long getLastStoredTime() {
+        int lastStoredTime = getRawLastStoredTime();
+        if (lastStoredTime == UNSET) {
+            return 0L;
+        }
+
+        return recomputeWithBaseTime(lastStoredTime);
+    }
+
+    @Override
+    public void setLastStoredTime(long lastStoredTime) {
+        setRawLastStoredTime(stripBaseTime(lastStoredTime));
+    }
+
+    @Override
+    public long getSequence() {
+        return UNSET;
+    }
+
+    @Override
+    public void setSequence(long sequence) {
+    }
+
+    @Override
+    public void setMetadata(Metadata metadata) {
+        if (isAttached()) {
+            table.setMetadata(id, metadata);
+        } else {
+            onHeapRecord.setMetadata(metadata);
+        }
+    }
+
+    @Override
+    public Metadata getMetadata() {
+        return isAttached() ? table.getMetadata(id) : onHeapRecord.getMetadata();
+    }
+
+    @Override
+    public RecordReaderWriter getMatchingRecordReaderWriter() {
+        return DATA_RECORD_WITH_STATS_READER_WRITER;
+    }
+
+    @Override
+    public int getRawTtl() {
+        return getInt(TTL);
+    }
+
+    @Override
+    public int getRawMaxIdle() {
+        return getInt(MAX_IDLE);
+    }
+
+    @Override
+    public int getRawCreationTime() {
+        return getInt(CREATION_TIME);
+    }
+
+    @Override
+    public int getRawLastAccessTime() {
+        return getInt(LAST_ACCESS_TIME);
+    }
+
+    @Override
+    public int getRawLastUpdateTime() {
+        return getInt(LAST_UPDATE_TIME);
+    }
+
+    @Override
+    public void setRawTtl(int ttl) {
+        setInt(TTL, ttl);
+    }
+
+    @Override
+    public void setRawMaxIdle(int maxIdle) {
+        setInt(MAX_IDLE, maxIdle);
+    }
+
+    @Override
+    public void setRawCreationTime(int creationTime) {
+        setInt(CREATION_TIME, creationTime);
+    }
+
+    @Override
+    public void setRawLastAccessTime(int lastAccessTime) {
+        setInt(LAST_ACCESS_TIME, lastAccessTime);
+    }
+
+    @Override
+    public void setRawLastUpdateTime(int lastUpdateTime) {
+        setInt(LAST_UPDATE_TIME, lastUpdateTime);
+    }
+
+    @Override
+    public int getRawLastStoredTime() {
+        return getInt(LAST_STORED_TIME);
+    }
+
+    @Override
+    public void setRawLastStoredTime(int time) {
+        setInt(LAST_STORED_TIME, time);
+    }
+
+    @Override
+    public int getRawExpirationTime() {
+        return getInt(EXPIRATION_TIME);
+    }
+
+    @Override
+    public void setRawExpirationTime(int time) {
+        setInt(EXPIRATION_TIME, time);
+    }
+
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    private int getInt(int field) {
+        if (isAttached()) {
+            return table.getInt(id, field);
+        }
+        switch (field) {
+            case TTL:
+                return onHeapRecord.getRawTtl();
+            case MAX_IDLE:
+                return onHeapRecord.getRawMaxIdle();
+            case CREATION_TIME:
+                return onHeapRecord.getRawCreationTime();
+            case LAST_ACCESS_TIME:
+                return onHeapRecord.getRawLastAccessTime();
+            case LAST_UPDATE_TIME:
+                return onHeapRecord.getRawLastUpdateTime();
+            case LAST_STORED_TIME:
+                return onHeapRecord.getRawLastStoredTime();
+            case EXPIRATION_TIME:
+                return onHeapRecord.getRawExpirationTime();
+            default:
+                throw new IllegalArgumentException("Unknown field: " + field);
+        }
+    }
+
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    private void setInt(int field, int value) {
+        if (isAttached()) {
+            table.setInt(id, field, value);
+            return;
+        }
+        switch (field) {
+            case TTL:
+                onHeapRecord.setRawTtl(value);
+                break;
+            case MAX_IDLE:
+                onHeapRecord.setRawMaxIdle(value);
+                break;
+            case CREATION_TIME:
+                onHeapRecord.setRawCreationTime(value);
+                break;
+            case LAST_ACCESS_TIME:
+                onHeapRecord.setRawLastAccessTime(value);
+                break;
+            case LAST_UPDATE_TIME:
+                onHeapRecord.setRawLastUpdateTime(value);
+                break;
+            case LAST_STORED_TIME:
+                onHeapRecord.setRawLastStoredTime(value);
+                break;
+            case EXPIRATION_TIME:
+                onHeapRecord.setRawExpirationTime(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown field: " + field);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompactRecord{"
+                + "id=" + id
+                + ", key=" + getKey()
+                + ", version=" + getVersion()
+                + ", hits=" + getHits()
+                + ", ttl=" + getRawTtl()
+                + ", maxIdle=" + getRawMaxIdle()
+                + ", creationTime=" + getRawCreationTime()
+                + ", lastAccessTime=" + getRawLastAccessTime()
+                + ", lastUpdateTime=" + getRawLastUpdateTime()
+                + ", lastStoredTime=" + getRawLastStoredTime()
+                + ", expirationTime=" + getRawExpirationTime()
+                + '}';
+    }
+}
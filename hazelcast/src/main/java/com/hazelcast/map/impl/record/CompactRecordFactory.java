@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.partition.PartitioningStrategy;
+
+/**
+ * Creates detached {@link CompactRecord}s. The records are moved into a
+ * {@link CompactRecordTable} when they are put into a compact storage.
+ */
+public class CompactRecordFactory implements RecordFactory<Data> {
+
+    private final SerializationService serializationService;
+    private final PartitioningStrategy partitionStrategy;
+
+    public CompactRecordFactory(SerializationService serializationService,
+                                PartitioningStrategy partitionStrategy) {
+        this.serializationService = serializationService;
+        this.partitionStrategy = partitionStrategy;
+    }
+
+    @Override
+    public Record<Data> newRecord(Data key, Object value) {
+        assert value != null : "value can not be null";
+
+        Data valueData = serializationService.toData(value, partitionStrategy);
+        DataRecordWithStats onHeapRecord = new DataRecordWithStats(valueData);
+        onHeapRecord.setKey(key);
+        return new CompactRecord(onHeapRecord);
+    }
+}
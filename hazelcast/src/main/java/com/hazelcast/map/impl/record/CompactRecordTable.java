@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.query.impl.Metadata;
+
+import java.util.Arrays;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.internal.util.JVMUtil.REFERENCE_COST_IN_BYTES;
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
+
+/**
+ * Keeps keys, values and metadata of map entries in a handful of primitive
+ * and {@code byte[]} arrays instead of one record object per entry.
+ * <p>
+ * Each entry is identified by an {@code int} id, which is an index into the
+ * arrays of this table and stays stable for the lifetime of the entry. Ids of
+ * released entries are reused by later allocations. Keys and values are kept
+ * as the serialized payloads of their {@link com.hazelcast.nio.serialization.Data
+ * Data} without the wrapping object, and the int-sized metadata fields of an
+ * entry are kept next to each other in a single {@code int[]}:
+ * <pre>
+ * +-------------------+--------+
+ * | ttl               | int    |
+ * | max idle          | int    |
+ * | creation time     | int    |
+ * | last access time  | int    |
+ * | last update time  | int    |
+ * | hits              | int    |
+ * | last stored time  | int    |
+ * | expiration time   | int    |
+ * | key hash          | int    |
+ * +-------------------+--------+
+ * </pre>
+ * JSON {@link Metadata} is rare, so its array is only allocated when the
+ * first entry gets metadata.
+ * <p>
+ * Not thread-safe, can only be used from the partition thread which owns the
+ * table.
+ *
+ * @see CompactRecord
+ */
+public final class CompactRecordTable {
+
+    static final int TTL = 0;
+    static final int MAX_IDLE = 1;
+    static final int CREATION_TIME = 2;
+    static final int LAST_ACCESS_TIME = 3;
+    static final int LAST_UPDATE_TIME = 4;
+    static final int HITS = 5;
+    static final int LAST_STORED_TIME = 6;
+    static final int EXPIRATION_TIME = 7;
+    static final int KEY_HASH = 8;
+    static final int INT_FIELD_COUNT = 9;
+
+    /**
+     * Heap cost of the metadata of a single entry, not including the key and
+     * value payloads.
+     */
+    public static final int ENTRY_COST_IN_BYTES = 2 * REFERENCE_COST_IN_BYTES
+            + LONG_SIZE_IN_BYTES + INT_FIELD_COUNT * INT_SIZE_IN_BYTES;
+
+    private static final int ARRAY_HEADER_SIZE_IN_BYTES = 16;
+
+    private final int initialCapacity;
+
+    private byte[][] keys;
+    private byte[][] values;
+    private long[] versions;
+    private int[] ints;
+    private Metadata[] metadata;
+
+    private int[] freeIds;
+    private int freeIdCount;
+    private int nextId;
+
+    public CompactRecordTable(int initialCapacity) {
+        checkPositive(initialCapacity, "initialCapacity should be positive");
+        this.initialCapacity = initialCapacity;
+        allocateArrays(initialCapacity);
+    }
+
+    /**
+     * Allocates a new entry for the given key.
+     *
+     * @param key     the serialized key payload
+     * @param keyHash the hash of the key
+     * @return the id of the new entry
+     */
+    public int allocate(byte[] key, int keyHash) {
+        int id;
+        if (freeIdCount > 0) {
+            id = freeIds[--freeIdCount];
+        } else {
+            if (nextId == keys.length) {
+                grow();
+            }
+            id = nextId++;
+        }
+        keys[id] = key;
+        ints[id * INT_FIELD_COUNT + KEY_HASH] = keyHash;
+        return id;
+    }
+
+    /**
+     * Releases the entry with the given id, its id may be returned by
+     * subsequent {@link #allocate} calls.
+     */
+    public void release(int id) {
+        keys[id] = null;
+        values[id] = null;
+        versions[id] = 0;
+        Arrays.fill(ints, id * INT_FIELD_COUNT, (id + 1) * INT_FIELD_COUNT, 0);
+        if (metadata != null) {
+            metadata[id] = null;
+        }
+        if (freeIdCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIds.length << 1);
+        }
+        freeIds[freeIdCount++] = id;
+    }
+
+    /**
+     * Releases all entries and shrinks the table back to its initial capacity.
+     */
+    public void clear() {
+        allocateArrays(initialCapacity);
+    }
+
+    /**
+     * @return the number of entries the table can hold without growing
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    public byte[] getKey(int id) {
+        return keys[id];
+    }
+
+    public int getKeyHash(int id) {
+        return ints[id * INT_FIELD_COUNT + KEY_HASH];
+    }
+
+    public byte[] getValue(int id) {
+        return values[id];
+    }
+
+    public void setValue(int id, byte[] value) {
+        values[id] = value;
+    }
+
+    long getVersion(int id) {
+        return versions[id];
+    }
+
+    void setVersion(int id, long version) {
+        versions[id] = version;
+    }
+
+    int getInt(int id, int field) {
+        return ints[id * INT_FIELD_COUNT + field];
+    }
+
+    void setInt(int id, int field, int value) {
+        ints[id * INT_FIELD_COUNT + field] = value;
+    }
+
+    Metadata getMetadata(int id) {
+        return metadata == null ? null : metadata[id];
+    }
+
+    void setMetadata(int id, Metadata value) {
+        if (metadata == null) {
+            if (value == null) {
+                return;
+            }
+            metadata = new Metadata[keys.length];
+        }
+        metadata[id] = value;
+    }
+
+    /**
+     * @return the heap cost of the entry with the given id, including its key
+     * and value payloads
+     */
+    public long getCost(int id) {
+        return ENTRY_COST_IN_BYTES + payloadCost(keys[id]) + payloadCost(values[id]);
+    }
+
+    /**
+     * @return the heap cost of the given key or value payload
+     */
+    public static long payloadCost(byte[] payload) {
+        return payload == null ? 0 : ARRAY_HEADER_SIZE_IN_BYTES + payload.length;
+    }
+
+    private void grow() {
+        int newCapacity = keys.length << 1;
+        keys = Arrays.copyOf(keys, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+        versions = Arrays.copyOf(versions, newCapacity);
+        ints = Arrays.copyOf(ints, newCapacity * INT_FIELD_COUNT);
+        if (metadata != null) {
+            metadata = Arrays.copyOf(metadata, newCapacity);
+        }
+    }
+
+    private void allocateArrays(int capacity) {
+        keys = new byte[capacity][];
+        values = new byte[capacity][];
+        versions = new long[capacity];
+        ints = new int[capacity * INT_FIELD_COUNT];
+        metadata = null;
+        freeIds = new int[Math.max(1, capacity >> 2)];
+        freeIdCount = 0;
+        nextId = 0;
+    }
+}
@@ -0,0 +1,516 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.impl.Metadata;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.map.impl.record.RecordReaderWriter.DATA_RECORD_WITH_STATS_READER_WRITER;
+
+/**
+ * A {@link Record} whose key, value and metadata live in native memory.
+ * <p>
+ * A native record is either <em>detached</em> or <em>attached</em>. A
+ * detached record is created by {@link NativeRecordFactory} and keeps its
+ * state in an on-heap {@link DataRecordWithStats} until it is put into a
+ * native storage. The storage then copies the state into a native entry
+ * block and {@link #attach attaches} the record to it. From that point on
+ * the same instance acts as a <i>Flyweight</i> over the entry block, so
+ * callers which still hold the reference observe and mutate the native
+ * state.
+ * <p>
+ * Layout of the entry block:
+ * <pre>
+ * +-----------------------+---------+-------------------------------------+
+ * | version               | long    | offset 0                            |
+ * | value address         | long    | offset 8, block of value-size bytes |
+ * | key hash              | int     | offset 16                           |
+ * | key size              | int     | offset 20                           |
+ * | value size            | int     | offset 24                           |
+ * | ttl                   | int     | offset 28                           |
+ * | max idle              | int     | offset 32                           |
+ * | creation time         | int     | offset 36                           |
+ * | last access time      | int     | offset 40                           |
+ * | last update time      | int     | offset 44                           |
+ * | hits                  | int     | offset 48                           |
+ * | last stored time      | int     | offset 52                           |
+ * | expiration time       | int     | offset 56                           |
+ * | key bytes             | byte[]  | offset 64                           |
+ * +-----------------------+---------+-------------------------------------+
+ * </pre>
+ * The value is kept in a separate block so that the entry block address
+ * stays stable when the value is replaced.
+ * <p>
+ * Keys and values returned by this record are on-heap copies. The record
+ * does not support value caching and JSON metadata.
+ * <p>
+ * Not thread-safe, can only be used from the partition thread which owns
+ * the storage.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public class NativeRecord implements Record<Data> {
+
+    public static final int VERSION_OFFSET = 0;
+    public static final int VALUE_ADDRESS_OFFSET = 8;
+    public static final int KEY_HASH_OFFSET = 16;
+    public static final int KEY_SIZE_OFFSET = 20;
+    public static final int VALUE_SIZE_OFFSET = 24;
+    public static final int TTL_OFFSET = 28;
+    public static final int MAX_IDLE_OFFSET = 32;
+    public static final int CREATION_TIME_OFFSET = 36;
+    public static final int LAST_ACCESS_TIME_OFFSET = 40;
+    public static final int LAST_UPDATE_TIME_OFFSET = 44;
+    public static final int HITS_OFFSET = 48;
+    public static final int LAST_STORED_TIME_OFFSET = 52;
+    public static final int EXPIRATION_TIME_OFFSET = 56;
+    public static final int KEY_OFFSET = 64;
+
+    private MemoryAccessor mem;
+    private long address = NULL_ADDRESS;
+    private Record<Data> onHeapRecord;
+    private Data key;
+
+    NativeRecord(Record<Data> onHeapRecord) {
+        this.onHeapRecord = onHeapRecord;
+        this.key = onHeapRecord.getKey();
+    }
+
+    public NativeRecord(MemoryManager memoryManager, long address) {
+        attach(memoryManager, address);
+    }
+
+    /**
+     * Binds this record to the given native entry block. All subsequent reads
+     * and writes go to native memory.
+     */
+    public void attach(MemoryManager memoryManager, long address) {
+        assert address != NULL_ADDRESS;
+        this.mem = memoryManager.getAccessor();
+        this.address = address;
+        this.onHeapRecord = null;
+    }
+
+    public boolean isAttached() {
+        return address != NULL_ADDRESS;
+    }
+
+    /**
+     * @return the address of the native entry block or {@link MemoryAllocator#NULL_ADDRESS} if detached
+     */
+    public long address() {
+        return address;
+    }
+
+    public int getKeySize() {
+        return isAttached() ? mem.getInt(address + KEY_SIZE_OFFSET) : key.totalSize();
+    }
+
+    public int getValueSize() {
+        if (isAttached()) {
+            return mem.getInt(address + VALUE_SIZE_OFFSET);
+        }
+        Data value = onHeapRecord.getValue();
+        return value == null ? 0 : value.totalSize();
+    }
+
+    /**
+     * @return the size of the native entry block, not including the value block
+     */
+    public static long entryBlockSize(int keySize) {
+        return KEY_OFFSET + keySize;
+    }
+
+    @Override
+    public Data getKey() {
+        if (key == null && isAttached()) {
+            int keySize = mem.getInt(address + KEY_SIZE_OFFSET);
+            byte[] bytes = new byte[keySize];
+            mem.copyToByteArray(address + KEY_OFFSET, bytes, 0, keySize);
+            key = new HeapData(bytes);
+        }
+        return key;
+    }
+
+    @Override
+    public void setKey(Data key) {
+        if (isAttached()) {
+            // the key of an attached record is immutable
+            assert key == null || key.equals(getKey()) : "Attempted to change the key of an attached native record";
+            return;
+        }
+        this.key = key;
+        onHeapRecord.setKey(key);
+    }
+
+    @Override
+    public Data getValue() {
+        if (!isAttached()) {
+            return onHeapRecord.getValue();
+        }
+        long valueAddress = mem.getLong(address + VALUE_ADDRESS_OFFSET);
+        if (valueAddress == NULL_ADDRESS) {
+            return null;
+        }
+        int valueSize = mem.getInt(address + VALUE_SIZE_OFFSET);
+        byte[] bytes = new byte[valueSize];
+        mem.copyToByteArray(valueAddress, bytes, 0, valueSize);
+        return new HeapData(bytes);
+    }
+
+    /**
+     * Sets the value of a detached record. The value of an attached record
+     * is replaced by its storage, which defers freeing the replaced value
+     * block until no reader can still be copying it, see
+     * {@link com.hazelcast.map.impl.recordstore.NativeStorage#updateRecordValue}.
+     *
+     * @throws UnsupportedOperationException if the record is attached
+     */
+    @Override
+    public void setValue(Data value) {
+        if (isAttached()) {
+            throw new UnsupportedOperationException("The value of an attached native record is replaced by its storage");
+        }
+        onHeapRecord.setValue(value);
+    }
+
+    /**
+     * Allocates a value block for the given value and links it from the entry block at {@code entryAddress}.
+     */
+    public static void writeValue(MemoryAccessor mem, MemoryAllocator malloc, long entryAddress, Data value) {
+        int valueSize = value == null ? 0 : value.totalSize();
+        long valueAddress = NULL_ADDRESS;
+        if (valueSize > 0) {
+            valueAddress = malloc.allocate(valueSize);
+            mem.copyFromByteArray(value.toByteArray(), 0, valueAddress, valueSize);
+        }
+        mem.putLong(entryAddress + VALUE_ADDRESS_OFFSET, valueAddress);
+        mem.putInt(entryAddress + VALUE_SIZE_OFFSET, valueSize);
+    }
+
+    /**
+     * Copies the metadata of the given record into the native entry block.
+     */
+    public static void writeMetadata(MemoryAccessor mem, long entryAddress, Record from) {
+        NativeRecord to = new NativeRecord(mem, entryAddress);
+        if (from instanceof NativeRecord || from instanceof AbstractRecordWithStats) {
+            to.setVersion(from.getVersion());
+            to.setHits(from.getHits());
+            to.setRawTtl(from.getRawTtl());
+            to.setRawMaxIdle(from.getRawMaxIdle());
+            to.setRawCreationTime(from.getRawCreationTime());
+            to.setRawLastAccessTime(from.getRawLastAccessTime());
+            to.setRawLastUpdateTime(from.getRawLastUpdateTime());
+            to.setRawLastStoredTime(from.getRawLastStoredTime());
+            to.setRawExpirationTime(from.getRawExpirationTime());
+        } else {
+            to.setRawLastStoredTime(UNSET);
+            to.setRawExpirationTime(UNSET);
+            Records.copyMetadataFrom(from, to);
+        }
+    }
+
+    private NativeRecord(MemoryAccessor mem, long address) {
+        this.mem = mem;
+        this.address = address;
+    }
+
+    @Override
+    public long getCost() {
+        if (!isAttached()) {
+            return onHeapRecord.getCost();
+        }
+        return entryBlockSize(mem.getInt(address + KEY_SIZE_OFFSET)) + mem.getInt(address + VALUE_SIZE_OFFSET);
+    }
+
+    @Override
+    public long getVersion() {
+        return isAttached() ? mem.getLong(address + VERSION_OFFSET) : onHeapRecord.getVersion();
+    }
+
+    @Override
+    public void setVersion(long version) {
+        if (isAttached()) {
+            mem.putLong(address + VERSION_OFFSET, version);
+        } else {
+            onHeapRecord.setVersion(version);
+        }
+    }
+
+    @Override
+    public Object getCachedValueUnsafe() {
+        return NOT_CACHED;
+    }
+
+    @Override
+    public boolean casCachedValue(Object expectedValue, Object newValue) {
+        return true;
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return recomputeWithBaseTime(getRawLastAccessTime());
+    }
+
+    @Override
+    public void setLastAccessTime(long lastAccessTime) {
+        setRawLastAccessTime(stripBaseTime(lastAccessTime));
+    }
+
+    @Override
+    public long getLastUpdateTime() {
+        return recomputeWithBaseTime(getRawLastUpdateTime());
+    }
+
+    @Override
+    public void setLastUpdateTime(long lastUpdateTime) {
+        setRawLastUpdateTime(stripBaseTime(lastUpdateTime));
+    }
+
+    @Override
+    public long getCreationTime() {
+        return recomputeWithBaseTime(getRawCreationTime());
+    }
+
+    @Override
+    public void setCreationTime(long creationTime) {
+        setRawCreationTime(stripBaseTime(creationTime));
+    }
+
+    @Override
+    public int getHits() {
+        return isAttached() ? mem.getInt(address + HITS_OFFSET) : onHeapRecord.getHits();
+    }
+
+    @Override
+    public void setHits(int hits) {
+        if (isAttached()) {
+            mem.putInt(address + HITS_OFFSET, hits);
+        } else {
+            onHeapRecord.setHits(hits);
+        }
+    }
+
+    @Override
+    public long getExpirationTime() {
+        int expirationTime = getRawExpirationTime();
+        if (expirationTime == UNSET) {
+            return 0L;
+        }
+
+        if (expirationTime == Integer.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+
+        return recomputeWithBaseTime(expirationTime);
+    }
+
+    @Override
+    public void setExpirationTime(long expirationTime) {
+        setRawExpirationTime(expirationTime == Long.MAX_VALUE
+                ? Integer.MAX_VALUE
+                : stripBaseTime(expirationTime));
+    }
+
+    @Override
+    public long getLastStoredTime() {
+        int lastStoredTime = getRawLastStoredTime();
+        if (lastStoredTime == UNSET) {
+            return 0L;
+        }
+
+        return recomputeWithBaseTime(lastStoredTime);
+    }
+
+    @Override
+    public void setLastStoredTime(long lastStoredTime) {
+        setRawLastStoredTime(stripBaseTime(lastStoredTime));
+    }
+
+    @Override
+    public long getSequence() {
+        return UNSET;
+    }
+
+    @Override
+    public void setSequence(long sequence) {
+    }
+
+    @Override
+    public void setMetadata(Metadata metadata) {
+        // JSON metadata is not kept for native records
+    }
+
+    @Override
+    public Metadata getMetadata() {
+        return null;
+    }
+
+    @Override
+    public RecordReaderWriter getMatchingRecordReaderWriter() {
+        return DATA_RECORD_WITH_STATS_READER_WRITER;
+    }
+
+    @Override
+    public int getRawTtl() {
+        return getInt(TTL_OFFSET);
+    }
+
+    @Override
+    public int getRawMaxIdle() {
+        return getInt(MAX_IDLE_OFFSET);
+    }
+
+    @Override
+    public int getRawCreationTime() {
+        return getInt(CREATION_TIME_OFFSET);
+    }
+
+    @Override
+    public int getRawLastAccessTime() {
+        return getInt(LAST_ACCESS_TIME_OFFSET);
+    }
+
+    @Override
+    public int getRawLastUpdateTime() {
+        return getInt(LAST_UPDATE_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawTtl(int ttl) {
+        putInt(TTL_OFFSET, ttl);
+    }
+
+    @Override
+    public void setRawMaxIdle(int maxIdle) {
+        putInt(MAX_IDLE_OFFSET, maxIdle);
+    }
+
+    @Override
+    public void setRawCreationTime(int creationTime) {
+        putInt(CREATION_TIME_OFFSET, creationTime);
+    }
+
+    @Override
+    public void setRawLastAccessTime(int lastAccessTime) {
+        putInt(LAST_ACCESS_TIME_OFFSET, lastAccessTime);
+    }
+
+    @Override
+    public void setRawLastUpdateTime(int lastUpdateTime) {
+        putInt(LAST_UPDATE_TIME_OFFSET, lastUpdateTime);
+    }
+
+    @Override
+    public int getRawLastStoredTime() {
+        return getInt(LAST_STORED_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawLastStoredTime(int time) {
+        putInt(LAST_STORED_TIME_OFFSET, time);
+    }
+
+    @Override
+    public int getRawExpirationTime() {
+        return getInt(EXPIRATION_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawExpirationTime(int time) {
+        putInt(EXPIRATION_TIME_OFFSET, time);
+    }
+
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    private int getInt(int offset) {
+        if (isAttached()) {
+            return mem.getInt(address + offset);
+        }
+        switch (offset) {
+            case TTL_OFFSET:
+                return onHeapRecord.getRawTtl();
+            case MAX_IDLE_OFFSET:
+                return onHeapRecord.getRawMaxIdle();
+            case CREATION_TIME_OFFSET:
+                return onHeapRecord.getRawCreationTime();
+            case LAST_ACCESS_TIME_OFFSET:
+                return onHeapRecord.getRawLastAccessTime();
+            case LAST_UPDATE_TIME_OFFSET:
+                return onHeapRecord.getRawLastUpdateTime();
+            case LAST_STORED_TIME_OFFSET:
+                return onHeapRecord.getRawLastStoredTime();
+            case EXPIRATION_TIME_OFFSET:
+                return onHeapRecord.getRawExpirationTime();
+            default:
+                throw new IllegalArgumentException("Unknown offset: " + offset);
+        }
+    }
+
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    private void putInt(int offset, int value) {
+        if (isAttached()) {
+            mem.putInt(address + offset, value);
+            return;
+        }
+        switch (offset) {
+            case TTL_OFFSET:
+                onHeapRecord.setRawTtl(value);
+                break;
+            case MAX_IDLE_OFFSET:
+                onHeapRecord.setRawMaxIdle(value);
+                break;
+            case CREATION_TIME_OFFSET:
+                onHeapRecord.setRawCreationTime(value);
+                break;
+            case LAST_ACCESS_TIME_OFFSET:
+                onHeapRecord.setRawLastAccessTime(value);
+                break;
+            case LAST_UPDATE_TIME_OFFSET:
+                onHeapRecord.setRawLastUpdateTime(value);
+                break;
+            case LAST_STORED_TIME_OFFSET:
+                onHeapRecord.setRawLastStoredTime(value);
+                break;
+            case EXPIRATION_TIME_OFFSET:
+                onHeapRecord.setRawExpirationTime(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown offset: " + offset);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NativeRecord{"
+                + "address=" + address
+                + ", key=" + getKey()
+                + ", version=" + getVersion()
+                + ", hits=" + getHits()
+                + ", ttl=" + getRawTtl()
+                + ", maxIdle=" + getRawMaxIdle()
+                + ", creationTime=" + getRawCreationTime()
+                + ", lastAccessTime=" + getRawLastAccessTime()
+                + ", lastUpdateTime=" + getRawLastUpdateTime()
+                + ", lastStoredTime=" + getRawLastStoredTime()
+                + ", expirationTime=" + getRawExpirationTime()
+                + '}';
+    }
+}
@@ -21,6 +21,7 @@ import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.EntryView;
 import com.hazelcast.internal.eviction.ClearExpiredRecordsTask;
 import com.hazelcast.internal.eviction.ExpiredKey;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLfuEvictionPolicyComparator;
 import com.hazelcast.internal.nearcache.impl.invalidation.InvalidationQueue;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.event.MapEventPublisher;
@@ -337,6 +338,10 @@ public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
 
     @Override
     public void accessRecord(Record record, long now) {
+        TinyLfuEvictionPolicyComparator tinyLfu = mapContainer.getTinyLfu();
+        if (tinyLfu != null) {
+            tinyLfu.recordAccess(record.getKey());
+        }
         record.onAccess(now);
         updateStatsOnGet(now);
         setExpirationTime(record);
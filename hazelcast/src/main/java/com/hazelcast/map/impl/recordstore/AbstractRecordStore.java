@@ -20,6 +20,7 @@ import com.hazelcast.config.EventJournalConfig;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MetadataPolicy;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLfuEvictionPolicyComparator;
 import com.hazelcast.internal.locksupport.LockStore;
 import com.hazelcast.internal.locksupport.LockSupportService;
 import com.hazelcast.internal.monitor.LocalRecordStoreStats;
@@ -45,6 +46,7 @@ import com.hazelcast.wan.impl.CallerProvenance;
 import javax.annotation.Nonnull;
 import java.util.UUID;
 
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.setExpirationTimes;
 
 /**
@@ -67,6 +69,7 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
 
     protected Storage<Data, Record> storage;
     protected IndexingMutationObserver<Record> indexingObserver;
+    protected ColumnarMutationObserver columnarObserver;
 
     protected AbstractRecordStore(MapContainer mapContainer, int partitionId) {
         this.name = mapContainer.getName();
@@ -99,14 +102,21 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
                     mapContainer, partitionId));
         }
 
-        // Add observer for json metadata
-        if (mapContainer.getMapConfig().getMetadataPolicy() == MetadataPolicy.CREATE_ON_UPDATE) {
+        // Add observer for json metadata, native records do not keep metadata
+        if (mapContainer.getMapConfig().getMetadataPolicy() == MetadataPolicy.CREATE_ON_UPDATE
+                && inMemoryFormat != NATIVE) {
             addJsonMetadataMutationObserver();
         }
 
         // Add observer for indexing
         indexingObserver = new IndexingMutationObserver<>(serializationService, this);
         mutationObserver.add(indexingObserver);
+
+        // Add observer for the columnar full scans
+        if (mapContainer.isColumnarScanEnabled()) {
+            columnarObserver = new ColumnarMutationObserver(serializationService, this);
+            mutationObserver.add(columnarObserver);
+        }
     }
 
     // Overridden in EE.
@@ -119,6 +129,14 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
         return indexingObserver;
     }
 
+    /**
+     * @return the observer keeping the columnar shadow copy of the records
+     * or {@code null} if the columnar scans are not enabled for the map
+     */
+    public ColumnarMutationObserver getColumnarObserver() {
+        return columnarObserver;
+    }
+
     @Override
     public InMemoryFormat getInMemoryFormat() {
         return inMemoryFormat;
@@ -151,6 +169,14 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
         record.setCreationTime(now);
         record.setLastUpdateTime(now);
 
+        TinyLfuEvictionPolicyComparator tinyLfu = mapContainer.getTinyLfu();
+        if (tinyLfu != null) {
+            // the sketch is shared by the partitions of the map, which hold about the same number of entries
+            int partitionCount = mapServiceContext.getNodeEngine().getPartitionService().getPartitionCount();
+            tinyLfu.ensureCapacity((long) storage.size() * partitionCount);
+            tinyLfu.recordAccess(key);
+        }
+
         setExpirationTimes(ttlMillis, maxIdle, record, mapContainer.getMapConfig(), true);
         updateStatsOnPut(false, now);
         return record;
@@ -165,6 +191,12 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
     }
 
     public Storage createStorage(RecordFactory recordFactory, InMemoryFormat memoryFormat) {
+        if (memoryFormat == NATIVE) {
+            return new NativeStorage(mapServiceContext.getNativeMemoryManager(), serializationService);
+        }
+        if (mapContainer.isCompactRecordStorage()) {
+            return new CompactStorage(serializationService);
+        }
         return new StorageImpl(memoryFormat, serializationService);
     }
 
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.impl.Extractable;
+import com.hazelcast.query.impl.columnar.ColumnarStore;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationexecutor.impl.OperationExecutorImpl;
+import com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread;
+import com.hazelcast.spi.impl.operationservice.impl.OperationServiceImpl;
+
+import javax.annotation.Nonnull;
+
+import static com.hazelcast.map.impl.record.Records.getValueOrCachedValue;
+
+/**
+ * Keeps the {@link ColumnarStore columnar shadow copy} of the records of a
+ * record store up to date.
+ * <p>
+ * The backup records are tracked as well, so the columns are ready to be
+ * queried once a backup replica is promoted.
+ * <p>
+ * The records are modified on the partition thread, so that's the thread
+ * the first column is created on.
+ */
+public class ColumnarMutationObserver implements MutationObserver<Record>, ColumnarStore.Source<Record> {
+
+    private final Storage<Data, Record> storage;
+    private final MapContainer mapContainer;
+    private final SerializationService ss;
+    private final ColumnarStore<Record> columnarStore;
+    private final OperationServiceImpl operationService;
+    private final int partitionId;
+    private final int partitionThreadId;
+
+    public ColumnarMutationObserver(SerializationService ss, RecordStore recordStore) {
+        this.storage = recordStore.getStorage();
+        this.mapContainer = recordStore.getMapContainer();
+        this.ss = ss;
+        this.columnarStore = new ColumnarStore<>(this);
+        this.operationService = (OperationServiceImpl) mapContainer.getMapServiceContext().getNodeEngine().getOperationService();
+        this.partitionId = recordStore.getPartitionId();
+        OperationExecutorImpl operationExecutor = (OperationExecutorImpl) operationService.getOperationExecutor();
+        this.partitionThreadId = operationExecutor.toPartitionThreadIndex(partitionId);
+    }
+
+    public ColumnarStore<Record> getColumnarStore() {
+        return columnarStore;
+    }
+
+    @Override
+    public void onPutRecord(@Nonnull Data key, @Nonnull Record record, Object oldValue, boolean backup) {
+        columnarStore.put(record);
+    }
+
+    @Override
+    public void onReplicationPutRecord(@Nonnull Data key, @Nonnull Record record, boolean populateIndex) {
+        columnarStore.put(record);
+    }
+
+    @Override
+    public void onUpdateRecord(@Nonnull Data key, @Nonnull Record record, Object oldValue, Object newValue, boolean backup) {
+        columnarStore.put(record);
+    }
+
+    @Override
+    public void onRemoveRecord(@Nonnull Data key, Record record) {
+        columnarStore.remove(key);
+    }
+
+    @Override
+    public void onEvictRecord(@Nonnull Data key, @Nonnull Record record) {
+        columnarStore.remove(key);
+    }
+
+    @Override
+    public void onLoadRecord(@Nonnull Data key, @Nonnull Record record, boolean backup) {
+        columnarStore.put(record);
+    }
+
+    @Override
+    public void onReset() {
+        columnarStore.clear();
+    }
+
+    @Override
+    public void onClear() {
+        columnarStore.clear();
+    }
+
+    @Override
+    public void onDestroy(boolean isDuringShutdown, boolean internal) {
+        columnarStore.clear();
+    }
+
+    @Override
+    public Iterable<Record> entries() {
+        return storage.values();
+    }
+
+    @Override
+    public Data keyOf(Record record) {
+        return record.getKey();
+    }
+
+    @Override
+    public Extractable toExtractable(Record record) {
+        return mapContainer.newQueryEntry(record.getKey(), getValueOrCachedValue(record, ss));
+    }
+
+    @Override
+    public boolean isOwnerThread() {
+        Thread currentThread = Thread.currentThread();
+        return currentThread instanceof PartitionOperationThread
+                && ((PartitionOperationThread) currentThread).getThreadId() == partitionThreadId;
+    }
+
+    @Override
+    public void executeOnOwnerThread(Runnable task) {
+        operationService.execute(new PartitionSpecificRunnable() {
+            @Override
+            public int getPartitionId() {
+                return partitionId;
+            }
+
+            @Override
+            public void run() {
+                task.run();
+            }
+        });
+    }
+
+}
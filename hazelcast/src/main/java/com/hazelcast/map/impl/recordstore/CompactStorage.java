@@ -0,0 +1,480 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.internal.util.ThreadLocalRandomProvider;
+import com.hazelcast.map.impl.EntryCostEstimator;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.CompactRecord;
+import com.hazelcast.map.impl.record.CompactRecordTable;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static com.hazelcast.internal.util.HashUtil.fastIntMix;
+import static com.hazelcast.internal.util.QuickMath.nextPowerOfTwo;
+import static com.hazelcast.map.impl.record.CompactRecordTable.payloadCost;
+
+/**
+ * {@link Storage} implementation which keeps entries of a {@link
+ * com.hazelcast.config.InMemoryFormat#BINARY BINARY} map in a {@link
+ * CompactRecordTable} instead of one record object and one hash map node per
+ * entry.
+ * <p>
+ * Entries are indexed by an open-addressing hash table backed by an {@code
+ * int[]}, each slot of which holds the table id of an entry plus one, so that
+ * zero denotes an empty slot. The key hashes are kept by the table. Removed
+ * slots are marked with a tombstone so that iteration order is stable under
+ * removals. Tombstones are purged when the index is rehashed.
+ * <p>
+ * Records returned from this storage are flyweights over table entries. Ids
+ * of removed entries are not released immediately, they are released on
+ * {@link #disposeDeferredBlocks()}, which is called after each map operation,
+ * so records obtained during an operation stay readable until the operation
+ * completes.
+ * <p>
+ * Not thread-safe, all methods except {@link #size()} and the cost estimator
+ * accessors must be called from the partition thread which owns the storage.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public class CompactStorage implements Storage<Data, Record> {
+
+    static final int DEFAULT_INITIAL_CAPACITY = 256;
+
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int INITIAL_DEFERRED_IDS_CAPACITY = 16;
+
+    private final CompactRecordTable table = new CompactRecordTable(DEFAULT_INITIAL_CAPACITY);
+    private final SerializationService serializationService;
+
+    private int[] slots;
+    private int tombstoneCount;
+    private volatile int size;
+
+    private int[] deferredIds = new int[INITIAL_DEFERRED_IDS_CAPACITY];
+    private int deferredIdsLength;
+
+    // not final for testing purposes.
+    private EntryCostEstimator entryCostEstimator = new CompactEntryCostEstimator();
+
+    public CompactStorage(SerializationService serializationService) {
+        this.serializationService = serializationService;
+        this.slots = new int[nextPowerOfTwo(DEFAULT_INITIAL_CAPACITY)];
+    }
+
+    @Override
+    public void put(Data key, Record record) {
+        int hash = key.hashCode();
+        int index = findSlot(key, hash);
+        int existingId = index < 0 ? -1 : idAt(index);
+        if (record instanceof CompactRecord && existingId >= 0
+                && ((CompactRecord) record).id() == existingId) {
+            // record is already stored under this key
+            return;
+        }
+
+        int id = newEntry(key, hash, record);
+        if (record instanceof CompactRecord && !((CompactRecord) record).isAttached()) {
+            ((CompactRecord) record).attach(table, id);
+        }
+        updateCostEstimate(table.getCost(id));
+
+        if (existingId >= 0) {
+            slots[index] = id + 1;
+            updateCostEstimate(-table.getCost(existingId));
+            deferRelease(existingId);
+            return;
+        }
+
+        if (size + tombstoneCount + 1 > slots.length * LOAD_FACTOR) {
+            rehash(size + 1 > slots.length * LOAD_FACTOR / 2 ? slots.length << 1 : slots.length);
+        }
+        insert(id, hash);
+        size++;
+    }
+
+    @Override
+    public void updateRecordValue(Data key, Record record, Object value) {
+        Data dataValue = serializationService.toData(value);
+        if (!(record instanceof CompactRecord) || !((CompactRecord) record).isAttached()) {
+            record.setValue(dataValue);
+            return;
+        }
+
+        int id = ((CompactRecord) record).id();
+        updateCostEstimate(-payloadCost(table.getValue(id)));
+        record.setValue(dataValue);
+        updateCostEstimate(payloadCost(table.getValue(id)));
+    }
+
+    @Override
+    public Record get(Data key) {
+        int index = findSlot(key, key.hashCode());
+        return index < 0 ? null : new CompactRecord(table, idAt(index));
+    }
+
+    @Override
+    public Record getIfSameKey(Data key) {
+        return get(key);
+    }
+
+    @Override
+    public void removeRecord(Record record) {
+        if (record == null) {
+            return;
+        }
+
+        Data key = record.getKey();
+        int index = findSlot(key, key.hashCode());
+        if (index < 0) {
+            return;
+        }
+        removeAt(index);
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return findSlot(key, key.hashCode()) >= 0;
+    }
+
+    @Override
+    public Collection<Record> values() {
+        return new AbstractCollection<Record>() {
+            @Override
+            public Iterator<Record> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Record> mutationTolerantIterator() {
+        return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear(boolean isDuringShutdown) {
+        table.clear();
+        slots = new int[nextPowerOfTwo(DEFAULT_INITIAL_CAPACITY)];
+        deferredIdsLength = 0;
+        size = 0;
+        tombstoneCount = 0;
+        entryCostEstimator.reset();
+    }
+
+    @Override
+    public void destroy(boolean isDuringShutdown) {
+        clear(isDuringShutdown);
+    }
+
+    @Override
+    public EntryCostEstimator getEntryCostEstimator() {
+        return entryCostEstimator;
+    }
+
+    @Override
+    public void setEntryCostEstimator(EntryCostEstimator entryCostEstimator) {
+        this.entryCostEstimator = entryCostEstimator;
+    }
+
+    @Override
+    public void disposeDeferredBlocks() {
+        for (int i = 0; i < deferredIdsLength; i++) {
+            table.release(deferredIds[i]);
+        }
+        deferredIdsLength = 0;
+        if (deferredIds.length > INITIAL_DEFERRED_IDS_CAPACITY) {
+            deferredIds = new int[INITIAL_DEFERRED_IDS_CAPACITY];
+        }
+    }
+
+    @Override
+    public Iterable<EntryView> getRandomSamples(int sampleCount) {
+        if (sampleCount < 0) {
+            throw new IllegalArgumentException("Sample count cannot be a negative value.");
+        }
+        if (sampleCount == 0 || size == 0) {
+            return Collections.emptyList();
+        }
+
+        List<EntryView> samples = new ArrayList<>(sampleCount);
+        int mask = slots.length - 1;
+        int index = ThreadLocalRandomProvider.get().nextInt(slots.length);
+        for (int visited = 0; visited < slots.length && samples.size() < sampleCount; visited++) {
+            if (isLive(slots[index])) {
+                samples.add(new LazyEvictableEntryView<>(new CompactRecord(table, idAt(index)), serializationService));
+            }
+            index = (index + 1) & mask;
+        }
+        return samples;
+    }
+
+    @Override
+    public MapKeysWithCursor fetchKeys(int tableIndex, int size) {
+        List<Data> keys = new ArrayList<>(size);
+        int nextTableIndex = startIndexForFetch(tableIndex);
+        while (nextTableIndex >= 0 && keys.size() < size) {
+            int slot = slots[nextTableIndex--];
+            if (isLive(slot)) {
+                keys.add(new HeapData(table.getKey(slot - 1)));
+            }
+        }
+        return new MapKeysWithCursor(keys, nextTableIndex);
+    }
+
+    @Override
+    public MapEntriesWithCursor fetchEntries(int tableIndex, int size, SerializationService serializationService) {
+        List<Map.Entry<Data, Data>> entries = new ArrayList<>(size);
+        int nextTableIndex = startIndexForFetch(tableIndex);
+        while (nextTableIndex >= 0 && entries.size() < size) {
+            int slot = slots[nextTableIndex--];
+            if (isLive(slot)) {
+                CompactRecord record = new CompactRecord(table, slot - 1);
+                entries.add(new AbstractMap.SimpleEntry<>(record.getKey(), record.getValue()));
+            }
+        }
+        return new MapEntriesWithCursor(entries, nextTableIndex);
+    }
+
+    @Override
+    public Record extractRecordFrom(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getRecord();
+    }
+
+    /**
+     * @return the number of slots in the index, used for testing
+     */
+    int capacity() {
+        return slots.length;
+    }
+
+    private int startIndexForFetch(int tableIndex) {
+        return tableIndex >= 0 && tableIndex < slots.length ? tableIndex : slots.length - 1;
+    }
+
+    private int newEntry(Data key, int hash, Record record) {
+        int id = table.allocate(key.toByteArray(), hash);
+        CompactRecord.writeMetadata(table, id, record);
+        Data value = serializationService.toData(record.getValue());
+        table.setValue(id, value == null ? null : value.toByteArray());
+        return id;
+    }
+
+    private int findSlot(Data key, int hash) {
+        int mask = slots.length - 1;
+        int index = fastIntMix(hash) & mask;
+        for (int probes = 0; probes < slots.length; probes++) {
+            int slot = slots[index];
+            if (slot == EMPTY) {
+                return -1;
+            }
+            if (slot != TOMBSTONE
+                    && table.getKeyHash(slot - 1) == hash
+                    && Arrays.equals(table.getKey(slot - 1), key.toByteArray())) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(int id, int hash) {
+        int mask = slots.length - 1;
+        int index = fastIntMix(hash) & mask;
+        for (; ; ) {
+            int slot = slots[index];
+            if (slot == EMPTY || slot == TOMBSTONE) {
+                if (slot == TOMBSTONE) {
+                    tombstoneCount--;
+                }
+                slots[index] = id + 1;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void removeAt(int index) {
+        int id = idAt(index);
+        int nextIndex = (index + 1) & (slots.length - 1);
+        if (slots[nextIndex] == EMPTY) {
+            // no probe sequence continues through this slot
+            slots[index] = EMPTY;
+        } else {
+            slots[index] = TOMBSTONE;
+            tombstoneCount++;
+        }
+        size--;
+        updateCostEstimate(-table.getCost(id));
+        deferRelease(id);
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldSlots = slots;
+        slots = new int[nextPowerOfTwo(newCapacity)];
+        tombstoneCount = 0;
+        for (int slot : oldSlots) {
+            if (isLive(slot)) {
+                insert(slot - 1, table.getKeyHash(slot - 1));
+            }
+        }
+    }
+
+    private int idAt(int index) {
+        return slots[index] - 1;
+    }
+
+    private static boolean isLive(int slot) {
+        return slot != EMPTY && slot != TOMBSTONE;
+    }
+
+    private void deferRelease(int id) {
+        if (deferredIdsLength == deferredIds.length) {
+            deferredIds = Arrays.copyOf(deferredIds, deferredIds.length << 1);
+        }
+        deferredIds[deferredIdsLength++] = id;
+    }
+
+    private void updateCostEstimate(long entrySize) {
+        entryCostEstimator.adjustEstimateBy(entrySize);
+    }
+
+    /**
+     * Iterates over the live slots of the index. The index is re-read on
+     * every step, so the iterator stays safe to use when the index is
+     * rehashed, at the cost of possibly missing or repeating entries in that
+     * case.
+     */
+    private final class EntryIterator implements Iterator<Record> {
+
+        private int nextIndex = -1;
+        private int index;
+        private CompactRecord lastReturned;
+
+        @Override
+        public boolean hasNext() {
+            return advance() >= 0;
+        }
+
+        @Override
+        public Record next() {
+            int current = advance();
+            if (current < 0) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = new CompactRecord(table, idAt(current));
+            index = current + 1;
+            nextIndex = -1;
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            Data key = lastReturned.getKey();
+            int slot = findSlot(key, key.hashCode());
+            // the record may have already been removed from the storage
+            if (slot >= 0 && idAt(slot) == lastReturned.id()) {
+                removeAt(slot);
+            }
+            lastReturned = null;
+        }
+
+        private int advance() {
+            if (nextIndex >= 0 && nextIndex < slots.length && isLive(slots[nextIndex])) {
+                return nextIndex;
+            }
+            while (index < slots.length) {
+                if (isLive(slots[index])) {
+                    nextIndex = index;
+                    return index;
+                }
+                index++;
+            }
+            nextIndex = -1;
+            return -1;
+        }
+    }
+
+    /**
+     * Keeps track of the heap used by the entries of this storage.
+     */
+    private static class CompactEntryCostEstimator implements EntryCostEstimator<Data, Record> {
+
+        private volatile long estimate;
+
+        @Override
+        public long getEstimate() {
+            return estimate;
+        }
+
+        @Override
+        @SuppressWarnings("NonAtomicOperationOnVolatileField")
+        public void adjustEstimateBy(long adjustment) {
+            estimate += adjustment;
+        }
+
+        @Override
+        public long calculateValueCost(Record record) {
+            Data value = (Data) record.getValue();
+            return value == null ? 0 : payloadCost(value.toByteArray());
+        }
+
+        @Override
+        public long calculateEntryCost(Data key, Record record) {
+            return record.getCost();
+        }
+
+        @Override
+        public void reset() {
+            estimate = 0;
+        }
+    }
+}
@@ -0,0 +1,581 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.util.ThreadLocalRandomProvider;
+import com.hazelcast.map.impl.EntryCostEstimator;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.NativeRecord;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.util.HashUtil.fastIntMix;
+import static com.hazelcast.internal.util.QuickMath.nextPowerOfTwo;
+import static com.hazelcast.map.impl.record.NativeRecord.KEY_HASH_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecord.KEY_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecord.KEY_SIZE_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecord.VALUE_ADDRESS_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecord.VALUE_SIZE_OFFSET;
+import static com.hazelcast.map.impl.record.NativeRecord.entryBlockSize;
+
+/**
+ * {@link Storage} implementation which keeps keys, values and record
+ * metadata in native memory, used for {@link com.hazelcast.config.InMemoryFormat#NATIVE
+ * NATIVE} in-memory-format.
+ * <p>
+ * Entries are indexed by an open-addressing hash table which lives in native
+ * memory as well. Each slot of the table holds the address of a {@link NativeRecord}
+ * entry block and the hash of its key. Removed slots are marked with a
+ * tombstone so that iteration order is stable under removals, which keeps
+ * {@link #mutationTolerantIterator()} and the {@link #values()} view usable
+ * while records are being removed. Tombstones are purged when the table is
+ * rehashed.
+ * <p>
+ * Records returned from this storage are flyweights over the native entry
+ * blocks. Blocks of removed records and replaced value blocks are not freed
+ * immediately, they are released on {@link #disposeDeferredBlocks()}, which is called after each
+ * map operation, so records obtained during an operation stay readable until
+ * the operation completes.
+ * <p>
+ * Not thread-safe, all methods except {@link #size()} and the cost estimator
+ * accessors must be called from the partition thread which owns the storage.
+ */
+@SuppressWarnings({"checkstyle:methodcount", "checkstyle:classfanoutcomplexity"})
+public class NativeStorage implements Storage<Data, Record> {
+
+    static final int DEFAULT_INITIAL_CAPACITY = 256;
+
+    private static final int SLOT_SIZE = 16;
+    private static final int SLOT_HASH_OFFSET = 8;
+    private static final long TOMBSTONE = 1L;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int INITIAL_DEFERRED_BLOCKS_CAPACITY = 16;
+
+    private final MemoryManager memoryManager;
+    private final MemoryAccessor mem;
+    private final MemoryAllocator malloc;
+    private final SerializationService serializationService;
+
+    private long tableAddress = NULL_ADDRESS;
+    private int capacity;
+    private int tombstoneCount;
+    private volatile int size;
+
+    // pairs of (address, size) of blocks waiting to be freed
+    private long[] deferredBlocks = new long[INITIAL_DEFERRED_BLOCKS_CAPACITY];
+    private int deferredBlocksLength;
+
+    // not final for testing purposes.
+    private EntryCostEstimator entryCostEstimator = new NativeEntryCostEstimator();
+
+    public NativeStorage(MemoryManager memoryManager, SerializationService serializationService) {
+        this.memoryManager = memoryManager;
+        this.mem = memoryManager.getAccessor();
+        this.malloc = memoryManager.getAllocator();
+        this.serializationService = serializationService;
+        allocateTable(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    @Override
+    public void put(Data key, Record record) {
+        int hash = key.hashCode();
+        int index = findSlot(key, hash);
+        long existingAddress = index < 0 ? NULL_ADDRESS : entryAt(index);
+        if (record instanceof NativeRecord && existingAddress != NULL_ADDRESS
+                && ((NativeRecord) record).address() == existingAddress) {
+            // record is already stored under this key
+            return;
+        }
+
+        long entryAddress = newEntry(key, hash, record);
+        if (record instanceof NativeRecord && !((NativeRecord) record).isAttached()) {
+            ((NativeRecord) record).attach(memoryManager, entryAddress);
+        }
+        updateCostEstimate(entryCost(entryAddress));
+
+        if (existingAddress != NULL_ADDRESS) {
+            mem.putLong(slotAddress(index), entryAddress);
+            updateCostEstimate(-entryCost(existingAddress));
+            deferFreeEntry(existingAddress);
+            return;
+        }
+
+        if (size + tombstoneCount + 1 > capacity * LOAD_FACTOR) {
+            rehash(size + 1 > capacity * LOAD_FACTOR / 2 ? capacity << 1 : capacity);
+        }
+        insert(entryAddress, hash);
+        size++;
+    }
+
+    @Override
+    public void updateRecordValue(Data key, Record record, Object value) {
+        Data dataValue = serializationService.toData(value);
+        if (!(record instanceof NativeRecord) || !((NativeRecord) record).isAttached()) {
+            record.setValue(dataValue);
+            return;
+        }
+
+        // the replaced value block is freed with the blocks of the removed
+        // records, records handed out earlier may still be copying it
+        long entryAddress = ((NativeRecord) record).address();
+        long oldValueAddress = mem.getLong(entryAddress + VALUE_ADDRESS_OFFSET);
+        int oldValueSize = mem.getInt(entryAddress + VALUE_SIZE_OFFSET);
+        NativeRecord.writeValue(mem, malloc, entryAddress, dataValue);
+        if (oldValueAddress != NULL_ADDRESS) {
+            deferFree(oldValueAddress, oldValueSize);
+        }
+        updateCostEstimate(mem.getInt(entryAddress + VALUE_SIZE_OFFSET) - oldValueSize);
+    }
+
+    @Override
+    public Record get(Data key) {
+        int index = findSlot(key, key.hashCode());
+        return index < 0 ? null : new NativeRecord(memoryManager, entryAt(index));
+    }
+
+    @Override
+    public Record getIfSameKey(Data key) {
+        return get(key);
+    }
+
+    @Override
+    public void removeRecord(Record record) {
+        if (record == null) {
+            return;
+        }
+
+        Data key = record.getKey();
+        int index = findSlot(key, key.hashCode());
+        if (index < 0) {
+            return;
+        }
+        removeAt(index);
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return findSlot(key, key.hashCode()) >= 0;
+    }
+
+    @Override
+    public Collection<Record> values() {
+        return new AbstractCollection<Record>() {
+            @Override
+            public Iterator<Record> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Record> mutationTolerantIterator() {
+        return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear(boolean isDuringShutdown) {
+        if (tableAddress != NULL_ADDRESS) {
+            for (int index = 0; index < capacity; index++) {
+                long entryAddress = entryAt(index);
+                if (isLive(entryAddress)) {
+                    freeEntry(entryAddress);
+                }
+            }
+            mem.setMemory(tableAddress, (long) capacity * SLOT_SIZE, (byte) 0);
+        }
+        disposeDeferredBlocks();
+        size = 0;
+        tombstoneCount = 0;
+        entryCostEstimator.reset();
+    }
+
+    @Override
+    public void destroy(boolean isDuringShutdown) {
+        clear(isDuringShutdown);
+        if (tableAddress != NULL_ADDRESS) {
+            malloc.free(tableAddress, (long) capacity * SLOT_SIZE);
+            tableAddress = NULL_ADDRESS;
+            capacity = 0;
+        }
+    }
+
+    @Override
+    public EntryCostEstimator getEntryCostEstimator() {
+        return entryCostEstimator;
+    }
+
+    @Override
+    public void setEntryCostEstimator(EntryCostEstimator entryCostEstimator) {
+        this.entryCostEstimator = entryCostEstimator;
+    }
+
+    @Override
+    public void disposeDeferredBlocks() {
+        for (int i = 0; i < deferredBlocksLength; i += 2) {
+            malloc.free(deferredBlocks[i], deferredBlocks[i + 1]);
+        }
+        deferredBlocksLength = 0;
+        if (deferredBlocks.length > INITIAL_DEFERRED_BLOCKS_CAPACITY) {
+            deferredBlocks = new long[INITIAL_DEFERRED_BLOCKS_CAPACITY];
+        }
+    }
+
+    @Override
+    public Iterable<EntryView> getRandomSamples(int sampleCount) {
+        if (sampleCount < 0) {
+            throw new IllegalArgumentException("Sample count cannot be a negative value.");
+        }
+        if (sampleCount == 0 || size == 0) {
+            return Collections.emptyList();
+        }
+
+        List<EntryView> samples = new ArrayList<>(sampleCount);
+        int mask = capacity - 1;
+        int index = ThreadLocalRandomProvider.get().nextInt(capacity);
+        for (int visited = 0; visited < capacity && samples.size() < sampleCount; visited++) {
+            long entryAddress = entryAt(index);
+            if (isLive(entryAddress)) {
+                samples.add(new LazyEvictableEntryView<>(new NativeRecord(memoryManager, entryAddress),
+                        serializationService));
+            }
+            index = (index + 1) & mask;
+        }
+        return samples;
+    }
+
+    @Override
+    public MapKeysWithCursor fetchKeys(int tableIndex, int size) {
+        List<Data> keys = new ArrayList<>(size);
+        int nextTableIndex = startIndexForFetch(tableIndex);
+        while (nextTableIndex >= 0 && keys.size() < size) {
+            long entryAddress = entryAt(nextTableIndex--);
+            if (isLive(entryAddress)) {
+                keys.add(new NativeRecord(memoryManager, entryAddress).getKey());
+            }
+        }
+        return new MapKeysWithCursor(keys, nextTableIndex);
+    }
+
+    @Override
+    public MapEntriesWithCursor fetchEntries(int tableIndex, int size, SerializationService serializationService) {
+        List<Map.Entry<Data, Data>> entries = new ArrayList<>(size);
+        int nextTableIndex = startIndexForFetch(tableIndex);
+        while (nextTableIndex >= 0 && entries.size() < size) {
+            long entryAddress = entryAt(nextTableIndex--);
+            if (isLive(entryAddress)) {
+                NativeRecord record = new NativeRecord(memoryManager, entryAddress);
+                entries.add(new AbstractMap.SimpleEntry<>(record.getKey(), record.getValue()));
+            }
+        }
+        return new MapEntriesWithCursor(entries, nextTableIndex);
+    }
+
+    @Override
+    public Record extractRecordFrom(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getRecord();
+    }
+
+    /**
+     * @return the number of slots in the hash table, used for testing
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    private int startIndexForFetch(int tableIndex) {
+        return tableIndex >= 0 && tableIndex < capacity ? tableIndex : capacity - 1;
+    }
+
+    private long newEntry(Data key, int hash, Record record) {
+        int keySize = key.totalSize();
+        long entryAddress = malloc.allocate(entryBlockSize(keySize));
+        try {
+            mem.putInt(entryAddress + KEY_HASH_OFFSET, hash);
+            mem.putInt(entryAddress + KEY_SIZE_OFFSET, keySize);
+            mem.copyFromByteArray(key.toByteArray(), 0, entryAddress + KEY_OFFSET, keySize);
+            NativeRecord.writeMetadata(mem, entryAddress, record);
+            NativeRecord.writeValue(mem, malloc, entryAddress, serializationService.toData(record.getValue()));
+        } catch (Throwable t) {
+            malloc.free(entryAddress, entryBlockSize(keySize));
+            throw t;
+        }
+        return entryAddress;
+    }
+
+    private int findSlot(Data key, int hash) {
+        if (tableAddress == NULL_ADDRESS) {
+            return -1;
+        }
+        int mask = capacity - 1;
+        int index = fastIntMix(hash) & mask;
+        for (int probes = 0; probes < capacity; probes++) {
+            long slotAddress = slotAddress(index);
+            long entryAddress = mem.getLong(slotAddress);
+            if (entryAddress == NULL_ADDRESS) {
+                return -1;
+            }
+            if (entryAddress != TOMBSTONE
+                    && mem.getInt(slotAddress + SLOT_HASH_OFFSET) == hash
+                    && keyEquals(entryAddress, key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(long entryAddress, Data key) {
+        int keySize = key.totalSize();
+        if (mem.getInt(entryAddress + KEY_SIZE_OFFSET) != keySize) {
+            return false;
+        }
+        byte[] keyBytes = key.toByteArray();
+        long keyAddress = entryAddress + KEY_OFFSET;
+        for (int i = keySize - 1; i >= 0; i--) {
+            if (mem.getByte(keyAddress + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insert(long entryAddress, int hash) {
+        int mask = capacity - 1;
+        int index = fastIntMix(hash) & mask;
+        for (; ; ) {
+            long slotAddress = slotAddress(index);
+            long existing = mem.getLong(slotAddress);
+            if (existing == NULL_ADDRESS || existing == TOMBSTONE) {
+                if (existing == TOMBSTONE) {
+                    tombstoneCount--;
+                }
+                mem.putLong(slotAddress, entryAddress);
+                mem.putInt(slotAddress + SLOT_HASH_OFFSET, hash);
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void removeAt(int index) {
+        long slotAddress = slotAddress(index);
+        long entryAddress = mem.getLong(slotAddress);
+        int nextIndex = (index + 1) & (capacity - 1);
+        if (entryAt(nextIndex) == NULL_ADDRESS) {
+            // no probe sequence continues through this slot
+            mem.putLong(slotAddress, NULL_ADDRESS);
+        } else {
+            mem.putLong(slotAddress, TOMBSTONE);
+            tombstoneCount++;
+        }
+        mem.putInt(slotAddress + SLOT_HASH_OFFSET, 0);
+        size--;
+        updateCostEstimate(-entryCost(entryAddress));
+        deferFreeEntry(entryAddress);
+    }
+
+    private void rehash(int newCapacity) {
+        long oldTableAddress = tableAddress;
+        int oldCapacity = capacity;
+        allocateTable(newCapacity);
+        for (int index = 0; index < oldCapacity; index++) {
+            long slotAddress = oldTableAddress + (long) index * SLOT_SIZE;
+            long entryAddress = mem.getLong(slotAddress);
+            if (isLive(entryAddress)) {
+                insert(entryAddress, mem.getInt(slotAddress + SLOT_HASH_OFFSET));
+            }
+        }
+        malloc.free(oldTableAddress, (long) oldCapacity * SLOT_SIZE);
+    }
+
+    private void allocateTable(int newCapacity) {
+        int tableCapacity = nextPowerOfTwo(newCapacity);
+        tableAddress = malloc.allocate((long) tableCapacity * SLOT_SIZE);
+        capacity = tableCapacity;
+        tombstoneCount = 0;
+    }
+
+    private long slotAddress(int index) {
+        return tableAddress + (long) index * SLOT_SIZE;
+    }
+
+    private long entryAt(int index) {
+        return mem.getLong(slotAddress(index));
+    }
+
+    private static boolean isLive(long entryAddress) {
+        return entryAddress != NULL_ADDRESS && entryAddress != TOMBSTONE;
+    }
+
+    private long entryCost(long entryAddress) {
+        return entryBlockSize(mem.getInt(entryAddress + KEY_SIZE_OFFSET)) + mem.getInt(entryAddress + VALUE_SIZE_OFFSET);
+    }
+
+    private void deferFreeEntry(long entryAddress) {
+        long valueAddress = mem.getLong(entryAddress + VALUE_ADDRESS_OFFSET);
+        if (valueAddress != NULL_ADDRESS) {
+            deferFree(valueAddress, mem.getInt(entryAddress + VALUE_SIZE_OFFSET));
+        }
+        deferFree(entryAddress, entryBlockSize(mem.getInt(entryAddress + KEY_SIZE_OFFSET)));
+    }
+
+    private void deferFree(long address, long size) {
+        if (deferredBlocksLength == deferredBlocks.length) {
+            deferredBlocks = Arrays.copyOf(deferredBlocks, deferredBlocks.length << 1);
+        }
+        deferredBlocks[deferredBlocksLength++] = address;
+        deferredBlocks[deferredBlocksLength++] = size;
+    }
+
+    private void freeEntry(long entryAddress) {
+        long valueAddress = mem.getLong(entryAddress + VALUE_ADDRESS_OFFSET);
+        if (valueAddress != NULL_ADDRESS) {
+            malloc.free(valueAddress, mem.getInt(entryAddress + VALUE_SIZE_OFFSET));
+        }
+        malloc.free(entryAddress, entryBlockSize(mem.getInt(entryAddress + KEY_SIZE_OFFSET)));
+    }
+
+    private void updateCostEstimate(long entrySize) {
+        entryCostEstimator.adjustEstimateBy(entrySize);
+    }
+
+    /**
+     * Iterates over the live slots of the table. The table address and
+     * capacity are re-read on every step, so the iterator stays safe to use
+     * when the table is rehashed, at the cost of possibly missing or
+     * repeating entries in that case.
+     */
+    private final class EntryIterator implements Iterator<Record> {
+
+        private int nextIndex = -1;
+        private int index;
+        private NativeRecord lastReturned;
+
+        @Override
+        public boolean hasNext() {
+            return advance() >= 0;
+        }
+
+        @Override
+        public Record next() {
+            int current = advance();
+            if (current < 0) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = new NativeRecord(memoryManager, entryAt(current));
+            index = current + 1;
+            nextIndex = -1;
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            Data key = lastReturned.getKey();
+            int slot = findSlot(key, key.hashCode());
+            // the record may have already been removed from the storage
+            if (slot >= 0 && entryAt(slot) == lastReturned.address()) {
+                removeAt(slot);
+            }
+            lastReturned = null;
+        }
+
+        private int advance() {
+            if (nextIndex >= 0 && nextIndex < capacity && isLive(entryAt(nextIndex))) {
+                return nextIndex;
+            }
+            while (index < capacity) {
+                if (isLive(entryAt(index))) {
+                    nextIndex = index;
+                    return index;
+                }
+                index++;
+            }
+            nextIndex = -1;
+            return -1;
+        }
+    }
+
+    /**
+     * Keeps track of the native memory used by the entries of this storage.
+     */
+    private static class NativeEntryCostEstimator implements EntryCostEstimator<Data, Record> {
+
+        private volatile long estimate;
+
+        @Override
+        public long getEstimate() {
+            return estimate;
+        }
+
+        @Override
+        @SuppressWarnings("NonAtomicOperationOnVolatileField")
+        public void adjustEstimateBy(long adjustment) {
+            estimate += adjustment;
+        }
+
+        @Override
+        public long calculateValueCost(Record record) {
+            return record instanceof NativeRecord ? ((NativeRecord) record).getValueSize() : 0;
+        }
+
+        @Override
+        public long calculateEntryCost(Data key, Record record) {
+            return record.getCost();
+        }
+
+        @Override
+        public void reset() {
+            estimate = 0;
+        }
+    }
+}
@@ -26,6 +26,8 @@ import com.hazelcast.internal.monitor.impl.PerIndexStats;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.impl.bitmap.EntryOrdinals;
+import com.hazelcast.query.impl.bitmap.SparseBitSet;
 import com.hazelcast.query.impl.getters.Extractors;
 import com.hazelcast.query.impl.getters.MultiResult;
 import com.hazelcast.query.impl.predicates.PredicateDataSerializerHook;
@@ -54,6 +56,11 @@ public abstract class AbstractIndex implements InternalIndex {
     protected final Extractors extractors;
     protected final IndexStore indexStore;
     protected final IndexCopyBehavior copyBehavior;
+    /**
+     * The entry ordinals shared by the bitmap indexes, {@code null} if not
+     * provided.
+     */
+    protected final EntryOrdinals entryOrdinals;
 
     private final String[] components;
     private final IndexConfig config;
@@ -67,7 +74,6 @@ public abstract class AbstractIndex implements InternalIndex {
 
     private volatile TypeConverter converter;
 
-    @SuppressFBWarnings("EI_EXPOSE_REP2")
     public AbstractIndex(
         IndexConfig config,
         InternalSerializationService ss,
@@ -75,6 +81,19 @@ public abstract class AbstractIndex implements InternalIndex {
         IndexCopyBehavior copyBehavior,
         PerIndexStats stats,
         StoreAdapter partitionStoreAdapter
+    ) {
+        this(config, ss, extractors, copyBehavior, stats, partitionStoreAdapter, null);
+    }
+
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    public AbstractIndex(
+        IndexConfig config,
+        InternalSerializationService ss,
+        Extractors extractors,
+        IndexCopyBehavior copyBehavior,
+        PerIndexStats stats,
+        StoreAdapter partitionStoreAdapter,
+        EntryOrdinals entryOrdinals
     ) {
         this.config = config;
         this.components = IndexUtils.getComponents(config);
@@ -83,6 +102,7 @@ public abstract class AbstractIndex implements InternalIndex {
         this.extractors = extractors;
         this.copyBehavior = copyBehavior;
         this.partitionStoreAdapter = partitionStoreAdapter;
+        this.entryOrdinals = entryOrdinals;
         this.indexStore = createIndexStore(ordered, stats);
         this.stats = stats;
     }
@@ -221,6 +241,62 @@ public abstract class AbstractIndex implements InternalIndex {
         return result;
     }
 
+    @Override
+    public EntryOrdinals getEntryOrdinals() {
+        return indexStore instanceof BitmapIndexStore ? ((BitmapIndexStore) indexStore).getEntryOrdinals() : null;
+    }
+
+    @Override
+    public SparseBitSet getBitmap(Comparable[] values) {
+        if (!(indexStore instanceof BitmapIndexStore)) {
+            return InternalIndex.super.getBitmap(values);
+        }
+
+        if (converter == null || values.length == 0) {
+            return new SparseBitSet();
+        }
+
+        Set<Comparable> convertedValues = createHashSet(values.length);
+        for (Comparable value : values) {
+            Comparable converted = convert(value);
+            convertedValues.add(canonicalizeQueryArgumentScalar(converted));
+        }
+        return ((BitmapIndexStore) indexStore).getBitmap(convertedValues);
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(SparseBitSet bitmap) {
+        if (!(indexStore instanceof BitmapIndexStore)) {
+            return InternalIndex.super.getRecords(bitmap);
+        }
+
+        long timestamp = stats.makeTimestamp();
+        Set<QueryableEntry> result = ((BitmapIndexStore) indexStore).getRecords(bitmap);
+        stats.onIndexHit(timestamp, result.size());
+        return result;
+    }
+
+    @Override
+    public IndexSummary summarize(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        if (!(indexStore instanceof BPlusTreeIndexStore) || components.length != 1) {
+            return InternalIndex.super.summarize(from, fromInclusive, to, toInclusive);
+        }
+
+        long timestamp = stats.makeTimestamp();
+
+        if (converter == null) {
+            stats.onIndexHit(timestamp, 0);
+            return IndexSummary.EMPTY;
+        }
+
+        IndexSummary summary = ((BPlusTreeIndexStore) indexStore).summarize(from == null ? null : convert(from),
+                fromInclusive, to == null ? null : convert(to), toInclusive);
+        if (summary != null) {
+            stats.onIndexHit(timestamp, summary.getCount());
+        }
+        return summary;
+    }
+
     @Override
     public void clear() {
         indexStore.clear();
@@ -245,7 +321,12 @@ public abstract class AbstractIndex implements InternalIndex {
 
     private Object extractAttributeValue(Data key, Object value) {
         if (components.length == 1) {
-            return QueryableEntry.extractAttributeValue(extractors, ss, components[0], key, value, null);
+            Object extractedValue = QueryableEntry.extractAttributeValue(extractors, ss, components[0], key, value, null);
+            if (extractedValue instanceof MultiResult && config.getType() == IndexType.BITMAP) {
+                throw new IllegalStateException(
+                        "Collection/array attributes are not supported by bitmap indexes: " + components[0]);
+            }
+            return extractedValue;
         } else {
             Comparable[] valueComponents = new Comparable[components.length];
             for (int i = 0; i < components.length; ++i) {
@@ -0,0 +1,688 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import static com.hazelcast.internal.util.Preconditions.checkTrue;
+
+/**
+ * A sorted map backed by a B+tree.
+ * <p>
+ * The entries are kept in sorted key and value arrays of fixed-capacity
+ * leaf pages and the leaves are linked to each other in key order, so
+ * a range scan is a binary search for the first key followed by a walk
+ * over contiguous arrays instead of a pointer chase per entry.
+ * <p>
+ * Underfull leaves are not merged with their siblings, a leaf is unlinked
+ * from the tree only when it becomes empty. This keeps removals cheap and
+ * makes the tree shrink back when the removed keys are clustered, which is
+ * the usual case for index values.
+ * <p>
+ * Every entry carries a {@code long} weight and every node keeps the total
+ * weight of its subtree along with the total of the weights multiplied by
+ * the measures of the keys, so the weight and the weighted sum of any key
+ * range are computed in a single descent per range bound without visiting
+ * the entries in the range.
+ * <p>
+ * Not thread-safe. The tree never forms cycles and never moves an entry
+ * to a node on a different level, so a reader racing with a writer always
+ * terminates, though it may observe inconsistent state or fail with a
+ * runtime exception; see {@link BPlusTreeIndexStore} for how such readers
+ * are validated.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+final class BPlusTree<K, V> {
+
+    static final int DEFAULT_NODE_CAPACITY = 64;
+
+    private static final int MIN_NODE_CAPACITY = 3;
+    private static final int INITIAL_PATH_LENGTH = 8;
+
+    private final Comparator<? super K> comparator;
+    private final ToLongFunction<? super K> measure;
+    private final int nodeCapacity;
+
+    private Node root;
+    private Leaf head;
+    private int height;
+    private int size;
+
+    // the inner nodes and child slots visited by the last descent of a writer
+    private Inner[] path = new Inner[INITIAL_PATH_LENGTH];
+    private int[] pathSlots = new int[INITIAL_PATH_LENGTH];
+
+    BPlusTree(Comparator<? super K> comparator) {
+        this(comparator, key -> 0L, DEFAULT_NODE_CAPACITY);
+    }
+
+    BPlusTree(Comparator<? super K> comparator, int nodeCapacity) {
+        this(comparator, key -> 0L, nodeCapacity);
+    }
+
+    /**
+     * @param comparator   the comparator of the keys
+     * @param measure      the measure of the keys the weights are multiplied
+     *                     by in the weighted sums
+     * @param nodeCapacity the maximum number of keys in a node
+     */
+    BPlusTree(Comparator<? super K> comparator, ToLongFunction<? super K> measure, int nodeCapacity) {
+        checkTrue(nodeCapacity >= MIN_NODE_CAPACITY, "nodeCapacity should be at least " + MIN_NODE_CAPACITY);
+        this.comparator = comparator;
+        this.measure = measure;
+        this.nodeCapacity = nodeCapacity;
+        clear();
+    }
+
+    /**
+     * @return the number of entries in this tree
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of inner levels of this tree, {@code 0} if the
+     * root is a leaf
+     */
+    int height() {
+        return height;
+    }
+
+    /**
+     * @return the value associated with the given key or {@code null} if
+     * there is no such value
+     */
+    @SuppressWarnings("unchecked")
+    V get(K key) {
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[childSlot(search(inner, key))];
+        }
+        Leaf leaf = (Leaf) node;
+        int index = search(leaf, key);
+        return index >= 0 ? (V) leaf.values[index] : null;
+    }
+
+    /**
+     * Associates the given value with the given key.
+     * <p>
+     * A new key starts with zero weight, the weight of an existing key is
+     * retained.
+     *
+     * @return the value previously associated with the key or {@code null}
+     * if there was no such value
+     */
+    @SuppressWarnings("unchecked")
+    V put(K key, V value) {
+        int depth = descend(key);
+        Leaf leaf = (Leaf) (depth == 0 ? root : path[depth - 1].children[pathSlots[depth - 1]]);
+
+        int index = search(leaf, key);
+        if (index >= 0) {
+            V oldValue = (V) leaf.values[index];
+            leaf.values[index] = value;
+            return oldValue;
+        }
+
+        index = -index - 1;
+        leaf.insert(index, key, value);
+        ++size;
+        if (leaf.size > nodeCapacity) {
+            // An append to the last leaf is most likely a part of an
+            // ascending sequence of keys, keep the left leaf full then.
+            boolean append = index == nodeCapacity && leaf.next == null;
+            splitLeaf(leaf, append ? nodeCapacity : leaf.size >>> 1, depth);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the value associated with the given key.
+     *
+     * @return the removed value or {@code null} if there was no value
+     * associated with the key
+     */
+    @SuppressWarnings("unchecked")
+    V remove(K key) {
+        int depth = descend(key);
+        Leaf leaf = (Leaf) (depth == 0 ? root : path[depth - 1].children[pathSlots[depth - 1]]);
+
+        int index = search(leaf, key);
+        if (index < 0) {
+            return null;
+        }
+
+        V oldValue = (V) leaf.values[index];
+        long weight = leaf.weights[index];
+        if (weight != 0) {
+            adjust(leaf, depth, -weight, -weight * measure.applyAsLong((K) leaf.keys[index]));
+        }
+        leaf.delete(index);
+        --size;
+        if (leaf.size == 0 && depth > 0) {
+            unlink(leaf);
+            removeChild(depth - 1);
+        }
+        return oldValue;
+    }
+
+    /**
+     * Adds the given delta to the weight of the given key.
+     *
+     * @throws IllegalArgumentException if the key is not in this tree
+     */
+    @SuppressWarnings("unchecked")
+    void addWeight(K key, long delta) {
+        int depth = descend(key);
+        Leaf leaf = (Leaf) (depth == 0 ? root : path[depth - 1].children[pathSlots[depth - 1]]);
+
+        int index = search(leaf, key);
+        if (index < 0) {
+            throw new IllegalArgumentException("No such key: " + key);
+        }
+        leaf.weights[index] += delta;
+        adjust(leaf, depth, delta, delta * measure.applyAsLong((K) leaf.keys[index]));
+    }
+
+    /**
+     * @return the total weight of the keys in the given range
+     * @see #forEachInRange for the description of the range bounds
+     */
+    long weight(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        return total(to, toInclusive, false) - (from == null ? 0 : below(from, !fromInclusive, false));
+    }
+
+    /**
+     * @return the total of the weights multiplied by the measures of the keys
+     * in the given range
+     * @see #forEachInRange for the description of the range bounds
+     */
+    long weightedSum(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        return total(to, toInclusive, true) - (from == null ? 0 : below(from, !fromInclusive, true));
+    }
+
+    /**
+     * @param from      the lower bound or {@code null} if there is no bound
+     * @param inclusive {@code true} if the bound is inclusive
+     * @return the least key above the given lower bound or {@code null} if
+     * there is no such key
+     */
+    @SuppressWarnings("unchecked")
+    K ceilingKey(K from, boolean inclusive) {
+        Leaf leaf;
+        int index;
+        if (from == null) {
+            leaf = head;
+            index = 0;
+        } else {
+            leaf = leafOf(from);
+            index = search(leaf, from);
+            if (index >= 0) {
+                index = inclusive ? index : index + 1;
+            } else {
+                index = -index - 1;
+            }
+            if (index == leaf.size) {
+                // only the root leaf may be empty, the next leaves never are
+                leaf = leaf.next;
+                index = 0;
+            }
+        }
+        return leaf != null && index < leaf.size ? (K) leaf.keys[index] : null;
+    }
+
+    /**
+     * @param to        the upper bound or {@code null} if there is no bound
+     * @param inclusive {@code true} if the bound is inclusive
+     * @return the greatest key below the given upper bound or {@code null}
+     * if there is no such key
+     */
+    @SuppressWarnings("unchecked")
+    K floorKey(K to, boolean inclusive) {
+        Leaf leaf;
+        int index;
+        if (to == null) {
+            Node node = root;
+            while (node instanceof Inner) {
+                Inner inner = (Inner) node;
+                node = inner.children[inner.size];
+            }
+            leaf = (Leaf) node;
+            index = leaf.size - 1;
+        } else {
+            leaf = leafOf(to);
+            index = search(leaf, to);
+            if (index >= 0) {
+                index = inclusive ? index : index - 1;
+            } else {
+                index = -index - 2;
+            }
+            if (index < 0) {
+                leaf = leaf.prev;
+                index = leaf == null ? -1 : leaf.size - 1;
+            }
+        }
+        return index >= 0 ? (K) leaf.keys[index] : null;
+    }
+
+    /**
+     * Removes all the entries from this tree.
+     */
+    void clear() {
+        Leaf leaf = new Leaf(nodeCapacity);
+        root = leaf;
+        head = leaf;
+        height = 0;
+        size = 0;
+    }
+
+    /**
+     * Passes the values of the keys in the given range to the given consumer
+     * in the ascending order of the keys.
+     *
+     * @param from          the lower bound of the range or {@code null} if
+     *                      the range has no lower bound
+     * @param fromInclusive {@code true} if the lower bound is inclusive
+     * @param to            the upper bound of the range or {@code null} if
+     *                      the range has no upper bound
+     * @param toInclusive   {@code true} if the upper bound is inclusive
+     * @param consumer      the consumer of the values
+     */
+    @SuppressWarnings("unchecked")
+    void forEachInRange(K from, boolean fromInclusive, K to, boolean toInclusive, Consumer<? super V> consumer) {
+        Leaf leaf;
+        int index;
+        if (from == null) {
+            leaf = head;
+            index = 0;
+        } else {
+            Node node = root;
+            while (node instanceof Inner) {
+                Inner inner = (Inner) node;
+                node = inner.children[childSlot(search(inner, from))];
+            }
+            leaf = (Leaf) node;
+            index = search(leaf, from);
+            if (index >= 0) {
+                index = fromInclusive ? index : index + 1;
+            } else {
+                index = -index - 1;
+            }
+        }
+
+        while (leaf != null) {
+            Object[] keys = leaf.keys;
+            Object[] values = leaf.values;
+            int leafSize = leaf.size;
+            if (index < leafSize) {
+                if (to == null || isBelow((K) keys[leafSize - 1], to, toInclusive)) {
+                    // the whole remainder of the leaf is in the range
+                    for (; index < leafSize; ++index) {
+                        consumer.accept((V) values[index]);
+                    }
+                } else {
+                    for (; index < leafSize; ++index) {
+                        if (!isBelow((K) keys[index], to, toInclusive)) {
+                            return;
+                        }
+                        consumer.accept((V) values[index]);
+                    }
+                    return;
+                }
+            }
+            leaf = leaf.next;
+            index = 0;
+        }
+    }
+
+    private long total(K to, boolean toInclusive, boolean weighted) {
+        if (to == null) {
+            return weighted ? root.weightedSum : root.weight;
+        }
+        return below(to, toInclusive, weighted);
+    }
+
+    /**
+     * Sums the weights or the weighted sums of the keys below the given bound
+     * by adding up the totals of the subtrees to the left of the descent
+     * path.
+     */
+    @SuppressWarnings("unchecked")
+    private long below(K bound, boolean inclusive, boolean weighted) {
+        long total = 0;
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int slot = childSlot(search(inner, bound));
+            Node[] children = inner.children;
+            for (int i = 0; i < slot; ++i) {
+                total += weighted ? children[i].weightedSum : children[i].weight;
+            }
+            node = children[slot];
+        }
+
+        Leaf leaf = (Leaf) node;
+        int index = search(leaf, bound);
+        int end = index >= 0 ? (inclusive ? index + 1 : index) : -index - 1;
+        Object[] keys = leaf.keys;
+        long[] weights = leaf.weights;
+        for (int i = 0; i < end; ++i) {
+            total += weighted ? weights[i] * measure.applyAsLong((K) keys[i]) : weights[i];
+        }
+        return total;
+    }
+
+    private Leaf leafOf(K key) {
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[childSlot(search(inner, key))];
+        }
+        return (Leaf) node;
+    }
+
+    /**
+     * Adds the given deltas to the totals of the given leaf and of the inner
+     * nodes on the path to it recorded by the last {@link #descend}.
+     */
+    private void adjust(Leaf leaf, int depth, long weightDelta, long weightedSumDelta) {
+        leaf.weight += weightDelta;
+        leaf.weightedSum += weightedSumDelta;
+        for (int level = 0; level < depth; ++level) {
+            path[level].weight += weightDelta;
+            path[level].weightedSum += weightedSumDelta;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void recomputeTotals(Leaf leaf) {
+        long weight = 0;
+        long weightedSum = 0;
+        for (int i = 0; i < leaf.size; ++i) {
+            weight += leaf.weights[i];
+            weightedSum += leaf.weights[i] * measure.applyAsLong((K) leaf.keys[i]);
+        }
+        leaf.weight = weight;
+        leaf.weightedSum = weightedSum;
+    }
+
+    private static void recomputeTotals(Inner inner) {
+        long weight = 0;
+        long weightedSum = 0;
+        for (int i = 0; i <= inner.size; ++i) {
+            weight += inner.children[i].weight;
+            weightedSum += inner.children[i].weightedSum;
+        }
+        inner.weight = weight;
+        inner.weightedSum = weightedSum;
+    }
+
+    private boolean isBelow(K key, K to, boolean toInclusive) {
+        int order = comparator.compare(key, to);
+        return order < 0 || order == 0 && toInclusive;
+    }
+
+    /**
+     * Descends from the root to the leaf which holds or should hold the given
+     * key recording the visited inner nodes into the path.
+     *
+     * @return the number of the visited inner nodes
+     */
+    private int descend(K key) {
+        Node node = root;
+        int depth = 0;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int slot = childSlot(search(inner, key));
+            path[depth] = inner;
+            pathSlots[depth] = slot;
+            ++depth;
+            node = inner.children[slot];
+        }
+        return depth;
+    }
+
+    private void splitLeaf(Leaf leaf, int leftSize, int depth) {
+        Leaf right = new Leaf(nodeCapacity);
+        int rightSize = leaf.size - leftSize;
+        System.arraycopy(leaf.keys, leftSize, right.keys, 0, rightSize);
+        System.arraycopy(leaf.values, leftSize, right.values, 0, rightSize);
+        System.arraycopy(leaf.weights, leftSize, right.weights, 0, rightSize);
+        right.size = rightSize;
+
+        Arrays.fill(leaf.keys, leftSize, leaf.size, null);
+        Arrays.fill(leaf.values, leftSize, leaf.size, null);
+        Arrays.fill(leaf.weights, leftSize, leaf.size, 0);
+        leaf.size = leftSize;
+        // the totals of the parent are not affected, the entries stay below it
+        recomputeTotals(leaf);
+        recomputeTotals(right);
+
+        right.prev = leaf;
+        right.next = leaf.next;
+        if (leaf.next != null) {
+            leaf.next.prev = right;
+        }
+        leaf.next = right;
+
+        insertIntoParent(leaf, right.keys[0], right, depth);
+    }
+
+    private void splitInner(Inner inner, int depth) {
+        Inner right = new Inner(nodeCapacity);
+        int middle = inner.size >>> 1;
+        Object separator = inner.keys[middle];
+        int rightSize = inner.size - middle - 1;
+        System.arraycopy(inner.keys, middle + 1, right.keys, 0, rightSize);
+        System.arraycopy(inner.children, middle + 1, right.children, 0, rightSize + 1);
+        right.size = rightSize;
+
+        Arrays.fill(inner.keys, middle, inner.size, null);
+        Arrays.fill(inner.children, middle + 1, inner.size + 1, null);
+        inner.size = middle;
+        recomputeTotals(inner);
+        recomputeTotals(right);
+
+        insertIntoParent(inner, separator, right, depth);
+    }
+
+    private void insertIntoParent(Node left, Object separator, Node right, int depth) {
+        if (depth == 0) {
+            Inner newRoot = new Inner(nodeCapacity);
+            newRoot.keys[0] = separator;
+            newRoot.children[0] = left;
+            newRoot.children[1] = right;
+            newRoot.size = 1;
+            recomputeTotals(newRoot);
+            root = newRoot;
+            ++height;
+            if (height == path.length) {
+                path = Arrays.copyOf(path, height << 1);
+                pathSlots = Arrays.copyOf(pathSlots, height << 1);
+            }
+            return;
+        }
+
+        Inner parent = path[depth - 1];
+        parent.insert(pathSlots[depth - 1], separator, right);
+        if (parent.size > nodeCapacity) {
+            splitInner(parent, depth - 1);
+        }
+    }
+
+    private void removeChild(int level) {
+        Inner parent = path[level];
+        if (parent.size == 0) {
+            // the removed child was the only child of the parent
+            if (level == 0) {
+                clear();
+            } else {
+                removeChild(level - 1);
+            }
+            return;
+        }
+
+        parent.delete(pathSlots[level]);
+        if (level == 0) {
+            while (root instanceof Inner && ((Inner) root).size == 0) {
+                root = ((Inner) root).children[0];
+                --height;
+            }
+        }
+    }
+
+    private void unlink(Leaf leaf) {
+        if (leaf.prev == null) {
+            head = leaf.next;
+        } else {
+            leaf.prev.next = leaf.next;
+        }
+        if (leaf.next != null) {
+            leaf.next.prev = leaf.prev;
+        }
+        // the next link is kept for the readers which are still on the leaf
+        leaf.prev = null;
+    }
+
+    /**
+     * @return the index of the given key in the given node, if the node
+     * contains the key; otherwise {@code -(insertion point) - 1}
+     */
+    @SuppressWarnings("unchecked")
+    private int search(Node node, Object key) {
+        Object[] keys = node.keys;
+        int low = 0;
+        int high = node.size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int order = comparator.compare((K) keys[middle], (K) key);
+            if (order < 0) {
+                low = middle + 1;
+            } else if (order > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Converts the result of a {@link #search} in an inner node to the slot
+     * of the child which covers the searched key: the child at the slot
+     * {@code i} covers the keys in {@code [keys[i - 1], keys[i])}.
+     */
+    private static int childSlot(int searchResult) {
+        return searchResult >= 0 ? searchResult + 1 : -searchResult - 1;
+    }
+
+    private abstract static class Node {
+
+        // one spare slot to hold an overflowing key until the node is split
+        final Object[] keys;
+        int size;
+        // the totals of the subtree rooted at this node
+        long weight;
+        long weightedSum;
+
+        Node(int capacity) {
+            this.keys = new Object[capacity + 1];
+        }
+
+    }
+
+    private static final class Leaf extends Node {
+
+        final Object[] values;
+        final long[] weights;
+        Leaf prev;
+        Leaf next;
+
+        Leaf(int capacity) {
+            super(capacity);
+            this.values = new Object[capacity + 1];
+            this.weights = new long[capacity + 1];
+        }
+
+        void insert(int index, Object key, Object value) {
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            System.arraycopy(weights, index, weights, index + 1, size - index);
+            keys[index] = key;
+            values[index] = value;
+            weights[index] = 0;
+            ++size;
+        }
+
+        void delete(int index) {
+            int tail = size - index - 1;
+            System.arraycopy(keys, index + 1, keys, index, tail);
+            System.arraycopy(values, index + 1, values, index, tail);
+            System.arraycopy(weights, index + 1, weights, index, tail);
+            --size;
+            keys[size] = null;
+            values[size] = null;
+            weights[size] = 0;
+        }
+
+    }
+
+    private static final class Inner extends Node {
+
+        // the child at the slot i covers the keys in [keys[i - 1], keys[i])
+        final Node[] children;
+
+        Inner(int capacity) {
+            super(capacity);
+            this.children = new Node[capacity + 2];
+        }
+
+        /**
+         * Inserts the given separator key and the child covering the keys
+         * starting from it right after the child at the given slot.
+         */
+        void insert(int slot, Object key, Node child) {
+            System.arraycopy(keys, slot, keys, slot + 1, size - slot);
+            System.arraycopy(children, slot + 1, children, slot + 2, size - slot);
+            keys[slot] = key;
+            children[slot + 1] = child;
+            ++size;
+        }
+
+        /**
+         * Deletes the child at the given slot along with the separator key
+         * bounding it.
+         */
+        void delete(int slot) {
+            int keyIndex = slot == 0 ? 0 : slot - 1;
+            System.arraycopy(keys, keyIndex + 1, keys, keyIndex, size - keyIndex - 1);
+            System.arraycopy(children, slot + 1, children, slot, size - slot);
+            keys[size - 1] = null;
+            children[size] = null;
+            --size;
+        }
+
+    }
+
+}
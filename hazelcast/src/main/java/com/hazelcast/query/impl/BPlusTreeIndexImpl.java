@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.internal.monitor.impl.PerIndexStats;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.query.impl.bitmap.EntryOrdinals;
+import com.hazelcast.query.impl.getters.Extractors;
+
+/**
+ * Provides implementation of on-heap indexes which keep the sorted indexes
+ * in a {@link BPlusTreeIndexStore}.
+ */
+public class BPlusTreeIndexImpl extends IndexImpl {
+
+    public BPlusTreeIndexImpl(
+        IndexConfig config,
+        InternalSerializationService ss,
+        Extractors extractors,
+        IndexCopyBehavior copyBehavior,
+        PerIndexStats stats,
+        EntryOrdinals entryOrdinals
+    ) {
+        super(config, ss, extractors, copyBehavior, stats, entryOrdinals);
+    }
+
+    @Override
+    protected IndexStore createIndexStore(boolean ordered, PerIndexStats stats) {
+        return ordered ? new BPlusTreeIndexStore(copyBehavior) : super.createIndexStore(ordered, stats);
+    }
+
+}
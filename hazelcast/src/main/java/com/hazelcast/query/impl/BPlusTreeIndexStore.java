@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static java.util.Collections.emptySet;
+
+/**
+ * Store indexes rankly in a {@link BPlusTree}.
+ * <p>
+ * Compared to the {@link OrderedIndexStore}, the distinct values are kept in
+ * the contiguous arrays of the tree leaves, so range queries walk memory
+ * sequentially instead of following a skip list node per value.
+ * <p>
+ * The writers are serialized by the lock of the {@link BaseIndexStore} and
+ * additionally take the write lock of a {@link StampedLock} while they modify
+ * the tree. The readers do not lock at all: they traverse the tree under an
+ * optimistic stamp and validate it once the result is built. Only if a writer
+ * interfered, the read is repeated under the read lock of the stamped lock.
+ * <p>
+ * Every distinct value is weighted in the tree by the number of the entries
+ * having it, so the number of the entries in a range of values and the sum
+ * of the values are {@link #summarize summarized} from the totals of the
+ * tree nodes without visiting the entries.
+ */
+public class BPlusTreeIndexStore extends BaseIndexStore {
+
+    private final StampedLock latch = new StampedLock();
+
+    private final BPlusTree<Comparable, Map<Data, QueryableEntry>> recordMap =
+            new BPlusTree<Comparable, Map<Data, QueryableEntry>>(Comparables.COMPARATOR,
+                    value -> value instanceof Number ? ((Number) value).longValue() : 0L, BPlusTree.DEFAULT_NODE_CAPACITY);
+
+    private final IndexFunctor<Comparable, QueryableEntry> addFunctor;
+    private final IndexFunctor<Comparable, Data> removeFunctor;
+
+    private volatile Map<Data, QueryableEntry> recordsWithNullValue;
+
+    // the number of the indexed non-null values which are not representable
+    // as long values exactly, guarded by the latch
+    private long nonIntegralValueCount;
+
+    public BPlusTreeIndexStore(IndexCopyBehavior copyOn) {
+        super(copyOn);
+        assert copyOn != null;
+        if (copyOn == IndexCopyBehavior.COPY_ON_WRITE) {
+            addFunctor = new CopyOnWriteAddFunctor();
+            removeFunctor = new CopyOnWriteRemoveFunctor();
+            recordsWithNullValue = Collections.emptyMap();
+        } else {
+            addFunctor = new AddFunctor();
+            removeFunctor = new RemoveFunctor();
+            recordsWithNullValue = new ConcurrentHashMap<Data, QueryableEntry>();
+        }
+    }
+
+    @Override
+    Object insertInternal(Comparable value, QueryableEntry record) {
+        long stamp = latch.writeLock();
+        try {
+            markIndexStoreExpirableIfNecessary(record);
+            Object oldValue = addFunctor.invoke(value, record);
+            if (oldValue == null && !isIntegral(value)) {
+                ++nonIntegralValueCount;
+            }
+            return oldValue;
+        } finally {
+            latch.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    Object removeInternal(Comparable value, Data recordKey) {
+        long stamp = latch.writeLock();
+        try {
+            Object oldValue = removeFunctor.invoke(value, recordKey);
+            if (oldValue != null && !isIntegral(value)) {
+                --nonIntegralValueCount;
+            }
+            return oldValue;
+        } finally {
+            latch.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Comparable canonicalizeQueryArgumentScalar(Comparable value) {
+        // We still need to canonicalize query arguments for ordered indexes to
+        // support InPredicate queries.
+        return Comparables.canonicalizeForHashLookup(value);
+    }
+
+    @Override
+    public Comparable canonicalizeScalarForStorage(Comparable value) {
+        // Returning the original value since ordered indexes are not supporting
+        // hash lookups on their stored values, so there is no need in providing
+        // canonical representations.
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            long stamp = latch.writeLock();
+            try {
+                recordsWithNullValue.clear();
+                recordMap.clear();
+                nonIntegralValueCount = 0;
+            } finally {
+                latch.unlockWrite(stamp);
+            }
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        if (value == NULL) {
+            return read(() -> toSingleResultSet(recordsWithNullValue));
+        } else {
+            return read(() -> toSingleResultSet(recordMap.get(value)));
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        return read(() -> {
+            MultiResultSet results = createMultiResultSet();
+            for (Comparable value : values) {
+                Map<Data, QueryableEntry> records;
+                if (value == NULL) {
+                    records = recordsWithNullValue;
+                } else {
+                    records = recordMap.get(value);
+                }
+                if (records != null) {
+                    copyToMultiResultSet(results, records);
+                }
+            }
+            return results;
+        });
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparison comparison, Comparable searchedValue) {
+        switch (comparison) {
+            case LESS:
+                return read(() -> scan(null, false, searchedValue, false));
+            case LESS_OR_EQUAL:
+                return read(() -> scan(null, false, searchedValue, true));
+            case GREATER:
+                return read(() -> scan(searchedValue, false, null, false));
+            case GREATER_OR_EQUAL:
+                return read(() -> scan(searchedValue, true, null, false));
+            default:
+                throw new IllegalArgumentException("Unrecognized comparison: " + comparison);
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        int order = Comparables.compare(from, to);
+        if (order == 0) {
+            if (!fromInclusive || !toInclusive) {
+                return emptySet();
+            }
+            return read(() -> toSingleResultSet(recordMap.get(from)));
+        } else if (order > 0) {
+            return emptySet();
+        }
+        return read(() -> scan(from, fromInclusive, to, toInclusive));
+    }
+
+    /**
+     * Summarizes the entries having the indexed value in the given range.
+     *
+     * @param from          the lower bound of the range or {@code null} if
+     *                      the range has no lower bound
+     * @param fromInclusive {@code true} if the lower bound is inclusive
+     * @param to            the upper bound of the range or {@code null} if
+     *                      the range has no upper bound
+     * @param toInclusive   {@code true} if the upper bound is inclusive
+     * @return the summary of the range or {@code null} if the entries can't
+     * be summarized exactly: if some entries were indexed under multiple
+     * values or may be expired
+     */
+    public IndexSummary summarize(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        if (hasMultiResults() || isExpirable()) {
+            return null;
+        }
+        if (from != null && to != null) {
+            int order = Comparables.compare(from, to);
+            if (order > 0 || order == 0 && (!fromInclusive || !toInclusive)) {
+                return IndexSummary.EMPTY;
+            }
+        }
+
+        return read(() -> {
+            long count = recordMap.weight(from, fromInclusive, to, toInclusive);
+            if (count == 0) {
+                return IndexSummary.EMPTY;
+            }
+            long longSum = recordMap.weightedSum(from, fromInclusive, to, toInclusive);
+            return new IndexSummary(count, longSum, nonIntegralValueCount == 0, recordMap.ceilingKey(from, fromInclusive),
+                    recordMap.floorKey(to, toInclusive));
+        });
+    }
+
+    private static boolean isIntegral(Comparable value) {
+        return value == NULL || Numbers.isLongRepresentable(value.getClass());
+    }
+
+    private Set<QueryableEntry> scan(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        MultiResultSet results = createMultiResultSet();
+        recordMap.forEachInRange(from, fromInclusive, to, toInclusive, records -> copyToMultiResultSet(results, records));
+        return results;
+    }
+
+    /**
+     * Runs the given reader optimistically and validates its result, falls
+     * back to running it under the read lock if a writer interfered.
+     * <p>
+     * An optimistic reader may observe the tree in the middle of a
+     * modification and fail, the failure is propagated only if it's not
+     * caused by a concurrent writer.
+     */
+    private <R> R read(Supplier<R> reader) {
+        long stamp = latch.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R result = reader.get();
+                if (latch.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (latch.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+
+        stamp = latch.readLock();
+        try {
+            return reader.get();
+        } finally {
+            latch.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds entry to the given index map without copying it.
+     * Needs to be invoked in a thread-safe way.
+     *
+     * @see IndexCopyBehavior
+     */
+    private class AddFunctor implements IndexFunctor<Comparable, QueryableEntry> {
+
+        @Override
+        public Object invoke(Comparable value, QueryableEntry entry) {
+            if (value == NULL) {
+                return recordsWithNullValue.put(entry.getKeyData(), entry);
+            } else {
+                Map<Data, QueryableEntry> records = recordMap.get(value);
+                if (records == null) {
+                    records = new ConcurrentHashMap<Data, QueryableEntry>(1, LOAD_FACTOR, 1);
+                    recordMap.put(value, records);
+                }
+                Object oldValue = records.put(entry.getKeyData(), entry);
+                if (oldValue == null) {
+                    recordMap.addWeight(value, 1);
+                }
+                return oldValue;
+            }
+        }
+
+    }
+
+    /**
+     * Adds entry to the given index map copying it to secure exclusive access.
+     * Needs to be invoked in a thread-safe way.
+     *
+     * @see IndexCopyBehavior
+     */
+    private class CopyOnWriteAddFunctor implements IndexFunctor<Comparable, QueryableEntry> {
+
+        @Override
+        public Object invoke(Comparable value, QueryableEntry entry) {
+            Object oldValue;
+            if (value == NULL) {
+                HashMap<Data, QueryableEntry> copy = new HashMap<Data, QueryableEntry>(recordsWithNullValue);
+                oldValue = copy.put(entry.getKeyData(), entry);
+                recordsWithNullValue = copy;
+            } else {
+                Map<Data, QueryableEntry> records = recordMap.get(value);
+                if (records == null) {
+                    records = Collections.emptyMap();
+                }
+
+                records = new HashMap<Data, QueryableEntry>(records);
+                oldValue = records.put(entry.getKeyData(), entry);
+
+                recordMap.put(value, records);
+                if (oldValue == null) {
+                    recordMap.addWeight(value, 1);
+                }
+            }
+            return oldValue;
+        }
+
+    }
+
+    /**
+     * Removes entry from the given index map without copying it.
+     * Needs to be invoked in a thread-safe way.
+     *
+     * @see IndexCopyBehavior
+     */
+    private class RemoveFunctor implements IndexFunctor<Comparable, Data> {
+
+        @Override
+        public Object invoke(Comparable value, Data indexKey) {
+            Object oldValue;
+            if (value == NULL) {
+                oldValue = recordsWithNullValue.remove(indexKey);
+            } else {
+                Map<Data, QueryableEntry> records = recordMap.get(value);
+                if (records != null) {
+                    oldValue = records.remove(indexKey);
+                    if (records.size() == 0) {
+                        recordMap.remove(value);
+                    } else if (oldValue != null) {
+                        recordMap.addWeight(value, -1);
+                    }
+                } else {
+                    oldValue = null;
+                }
+            }
+
+            return oldValue;
+        }
+
+    }
+
+    /**
+     * Removes entry from the given index map copying it to secure exclusive access.
+     * Needs to be invoked in a thread-safe way.
+     *
+     * @see IndexCopyBehavior
+     */
+    private class CopyOnWriteRemoveFunctor implements IndexFunctor<Comparable, Data> {
+
+        @Override
+        public Object invoke(Comparable value, Data indexKey) {
+            Object oldValue;
+            if (value == NULL) {
+                HashMap<Data, QueryableEntry> copy = new HashMap<Data, QueryableEntry>(recordsWithNullValue);
+                oldValue = copy.remove(indexKey);
+                recordsWithNullValue = copy;
+            } else {
+                Map<Data, QueryableEntry> records = recordMap.get(value);
+                if (records != null) {
+                    records = new HashMap<Data, QueryableEntry>(records);
+                    oldValue = records.remove(indexKey);
+
+                    if (records.isEmpty()) {
+                        recordMap.remove(value);
+                    } else {
+                        recordMap.put(value, records);
+                        if (oldValue != null) {
+                            recordMap.addWeight(value, -1);
+                        }
+                    }
+                } else {
+                    oldValue = null;
+                }
+            }
+
+            return oldValue;
+        }
+
+    }
+
+}
@@ -139,6 +139,14 @@ public abstract class BaseIndexStore implements IndexStore {
         return new SingleResultSet(resultCopyFunctor.invoke(records));
     }
 
+    /**
+     * Wraps the given records into a result set without copying them, the
+     * records are expected to be exclusively owned by the caller.
+     */
+    final Set<QueryableEntry> toOwnedSingleResultSet(Map<Data, QueryableEntry> records) {
+        return new SingleResultSet(isExpirable() ? new ExpirationAwareHashMapDelegate(records) : records);
+    }
+
     @Override
     public final void insert(Object value, QueryableEntry record, IndexOperationStats operationStats) {
         takeWriteLock();
@@ -254,6 +262,14 @@ public abstract class BaseIndexStore implements IndexStore {
         return isIndexStoreExpirable;
     }
 
+    /**
+     * @return {@code true} if some entries were indexed under multiple values
+     * extracted from a single attribute, {@code false} otherwise
+     */
+    boolean hasMultiResults() {
+        return multiResultHasToDetectDuplicates;
+    }
+
     interface CopyFunctor<A, B> {
 
         Map<A, B> invoke(Map<A, B> map);
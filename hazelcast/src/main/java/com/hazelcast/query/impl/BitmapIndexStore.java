@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.impl.bitmap.EntryOrdinals;
+import com.hazelcast.query.impl.bitmap.SparseBitSet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+/**
+ * Store indexes as compressed bitmaps of the entry ordinals, a bitmap per
+ * distinct attribute value.
+ * <p>
+ * Designed for the attributes having a low number of distinct values: the
+ * bitmaps of the indexes sharing the same {@link EntryOrdinals} may be
+ * combined by the AND, OR and NOT predicates before any entry is touched.
+ * <p>
+ * All the bitmaps and the ordinals are guarded by the monitor of the shared
+ * {@link EntryOrdinals}, the lock of the {@link BaseIndexStore} is only used
+ * to serialize the writers of this store. The readers never take the latter,
+ * so they may read the bitmaps of several stores under the monitor without
+ * deadlocking with the writers.
+ */
+public class BitmapIndexStore extends BaseIndexStore {
+
+    private final EntryOrdinals ordinals;
+
+    private final Map<Comparable, SparseBitSet> bitmaps = new HashMap<>();
+    private final SparseBitSet indexed = new SparseBitSet();
+
+    public BitmapIndexStore(IndexCopyBehavior copyOn, EntryOrdinals ordinals) {
+        // the results are always resolved into fresh maps, the copy behavior
+        // doesn't matter
+        super(copyOn);
+        this.ordinals = ordinals;
+    }
+
+    /**
+     * @return the entry ordinals the bitmaps of this store are expressed in.
+     */
+    public EntryOrdinals getEntryOrdinals() {
+        return ordinals;
+    }
+
+    @Override
+    Object insertInternal(Comparable value, QueryableEntry record) {
+        markIndexStoreExpirableIfNecessary(record);
+        synchronized (ordinals) {
+            int ordinal = ordinals.acquire(record);
+            if (!indexed.add(ordinal)) {
+                // already indexed under some value, keep a single reference
+                ordinals.release(ordinal);
+            }
+            SparseBitSet bitmap = bitmaps.get(value);
+            if (bitmap == null) {
+                bitmap = new SparseBitSet();
+                bitmaps.put(value, bitmap);
+            }
+            return bitmap.add(ordinal) ? null : record;
+        }
+    }
+
+    @Override
+    Object removeInternal(Comparable value, Data recordKey) {
+        synchronized (ordinals) {
+            int ordinal = ordinals.ordinalOf(recordKey);
+            if (ordinal < 0) {
+                return null;
+            }
+            SparseBitSet bitmap = bitmaps.get(value);
+            if (bitmap == null || !bitmap.remove(ordinal)) {
+                return null;
+            }
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(value);
+            }
+            QueryableEntry record = ordinals.entryAt(ordinal);
+            if (indexed.remove(ordinal)) {
+                ordinals.release(ordinal);
+            }
+            return record;
+        }
+    }
+
+    @Override
+    public Comparable canonicalizeQueryArgumentScalar(Comparable value) {
+        // Using a storage representation for arguments here to save on
+        // conversions later.
+        return canonicalizeScalarForStorage(value);
+    }
+
+    @Override
+    Comparable canonicalizeScalarForStorage(Comparable value) {
+        return UnorderedIndexStore.canonicalizeScalarForHashing(value);
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            synchronized (ordinals) {
+                PrimitiveIterator.OfInt iterator = indexed.iterator();
+                while (iterator.hasNext()) {
+                    ordinals.release(iterator.nextInt());
+                }
+                indexed.clear();
+                bitmaps.clear();
+            }
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    /**
+     * Obtains the bitmap of the entries having the indexed attribute value
+     * equal to one of the given canonicalized values.
+     * <p>
+     * Should be invoked while holding the monitor of the {@link
+     * #getEntryOrdinals entry ordinals} to combine the bitmap with the
+     * bitmaps of other stores consistently.
+     *
+     * @param values the values to obtain the entries for.
+     * @return the obtained bitmap owned by the caller.
+     */
+    public SparseBitSet getBitmap(Set<Comparable> values) {
+        synchronized (ordinals) {
+            SparseBitSet result = new SparseBitSet();
+            for (Comparable value : values) {
+                SparseBitSet bitmap = bitmaps.get(value);
+                if (bitmap != null) {
+                    result.or(bitmap);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Resolves the entries of the given bitmap.
+     * <p>
+     * Should be invoked while holding the monitor of the {@link
+     * #getEntryOrdinals entry ordinals} the bitmap was obtained under.
+     *
+     * @param bitmap the bitmap to resolve the entries of.
+     * @return the resolved entries.
+     */
+    public Set<QueryableEntry> getRecords(SparseBitSet bitmap) {
+        synchronized (ordinals) {
+            return toOwnedSingleResultSet(ordinals.resolve(bitmap));
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        synchronized (ordinals) {
+            SparseBitSet bitmap = bitmaps.get(canonicalize(value));
+            if (bitmap == null) {
+                return toOwnedSingleResultSet(new HashMap<>());
+            }
+            return toOwnedSingleResultSet(ordinals.resolve(bitmap));
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        synchronized (ordinals) {
+            // values are already canonicalized by the associated index
+            return toOwnedSingleResultSet(ordinals.resolve(getBitmap(values)));
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparison comparison, Comparable value) {
+        synchronized (ordinals) {
+            SparseBitSet result = new SparseBitSet();
+            for (Map.Entry<Comparable, SparseBitSet> bitmapEntry : bitmaps.entrySet()) {
+                Comparable indexedValue = bitmapEntry.getKey();
+                if (indexedValue == AbstractIndex.NULL) {
+                    continue;
+                }
+                int order = Comparables.compare(value, indexedValue);
+                boolean valid;
+                switch (comparison) {
+                    case LESS:
+                        valid = order > 0;
+                        break;
+                    case LESS_OR_EQUAL:
+                        valid = order >= 0;
+                        break;
+                    case GREATER:
+                        valid = order < 0;
+                        break;
+                    case GREATER_OR_EQUAL:
+                        valid = order <= 0;
+                        break;
+                    default:
+                        throw new IllegalStateException("Unrecognized comparison: " + comparison);
+                }
+                if (valid) {
+                    result.or(bitmapEntry.getValue());
+                }
+            }
+            return toOwnedSingleResultSet(ordinals.resolve(result));
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        synchronized (ordinals) {
+            SparseBitSet result = new SparseBitSet();
+            int order = Comparables.compare(from, to);
+            if (order == 0) {
+                SparseBitSet bitmap = bitmaps.get(canonicalize(from));
+                if (fromInclusive && toInclusive && bitmap != null) {
+                    result.or(bitmap);
+                }
+            } else if (order < 0) {
+                int fromBound = fromInclusive ? 0 : +1;
+                int toBound = toInclusive ? 0 : -1;
+                for (Map.Entry<Comparable, SparseBitSet> bitmapEntry : bitmaps.entrySet()) {
+                    Comparable value = bitmapEntry.getKey();
+                    if (value != AbstractIndex.NULL && Comparables.compare(value, from) >= fromBound
+                            && Comparables.compare(value, to) <= toBound) {
+                        result.or(bitmapEntry.getValue());
+                    }
+                }
+            }
+            return toOwnedSingleResultSet(ordinals.resolve(result));
+        }
+    }
+
+    private Comparable canonicalize(Comparable value) {
+        return canonicalizeScalarForStorage(value);
+    }
+
+}
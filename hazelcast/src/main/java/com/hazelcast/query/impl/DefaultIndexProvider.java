@@ -20,12 +20,29 @@ import com.hazelcast.config.IndexConfig;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.map.impl.StoreAdapter;
 import com.hazelcast.internal.monitor.impl.PerIndexStats;
+import com.hazelcast.query.impl.bitmap.EntryOrdinals;
 import com.hazelcast.query.impl.getters.Extractors;
 
 /**
  * Provides on-heap indexes.
  */
 public class DefaultIndexProvider implements IndexProvider {
+
+    private final boolean bPlusTreeOrderedIndexes;
+
+    public DefaultIndexProvider() {
+        this(false);
+    }
+
+    /**
+     * @param bPlusTreeOrderedIndexes {@code true} to keep the sorted indexes
+     *                                in B+trees, {@code false} to keep them in
+     *                                skip lists
+     */
+    public DefaultIndexProvider(boolean bPlusTreeOrderedIndexes) {
+        this.bPlusTreeOrderedIndexes = bPlusTreeOrderedIndexes;
+    }
+
     @Override
     public InternalIndex createIndex(
         IndexConfig config,
@@ -33,9 +50,13 @@ public class DefaultIndexProvider implements IndexProvider {
         InternalSerializationService ss,
         IndexCopyBehavior copyBehavior,
         PerIndexStats stats,
-        StoreAdapter partitionStoreAdapter
+        StoreAdapter partitionStoreAdapter,
+        EntryOrdinals entryOrdinals
     ) {
-        return new IndexImpl(config, ss, extractors, copyBehavior, stats);
+        if (bPlusTreeOrderedIndexes) {
+            return new BPlusTreeIndexImpl(config, ss, extractors, copyBehavior, stats, entryOrdinals);
+        }
+        return new IndexImpl(config, ss, extractors, copyBehavior, stats, entryOrdinals);
     }
 
 }
@@ -20,6 +20,8 @@ import com.hazelcast.config.IndexConfig;
 import com.hazelcast.core.TypeConverter;
 import com.hazelcast.internal.monitor.impl.PerIndexStats;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.impl.bitmap.EntryOrdinals;
+import com.hazelcast.query.impl.bitmap.SparseBitSet;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -188,6 +190,23 @@ public class GlobalQueryContextWithStats extends QueryContext {
             return delegate.getPerIndexStats();
         }
 
+        @Override
+        public EntryOrdinals getEntryOrdinals() {
+            return delegate.getEntryOrdinals();
+        }
+
+        @Override
+        public SparseBitSet getBitmap(Comparable[] values) {
+            return delegate.getBitmap(values);
+        }
+
+        @Override
+        public Set<QueryableEntry> getRecords(SparseBitSet bitmap) {
+            Set<QueryableEntry> result = delegate.getRecords(bitmap);
+            hasQueries = true;
+            return result;
+        }
+
     }
 
 }
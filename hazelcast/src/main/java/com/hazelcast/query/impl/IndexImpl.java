@@ -17,8 +17,10 @@
 package com.hazelcast.query.impl;
 
 import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.monitor.impl.PerIndexStats;
+import com.hazelcast.query.impl.bitmap.EntryOrdinals;
 import com.hazelcast.query.impl.getters.Extractors;
 
 import java.util.Set;
@@ -40,11 +42,29 @@ public class IndexImpl extends AbstractIndex {
         IndexCopyBehavior copyBehavior,
         PerIndexStats stats
     ) {
-        super(config, ss, extractors, copyBehavior, stats, null);
+        this(config, ss, extractors, copyBehavior, stats, null);
+    }
+
+    /**
+     * @param entryOrdinals the entry ordinals shared by the bitmap indexes,
+     *                      if {@code null} a bitmap index uses its own
+     */
+    public IndexImpl(
+        IndexConfig config,
+        InternalSerializationService ss,
+        Extractors extractors,
+        IndexCopyBehavior copyBehavior,
+        PerIndexStats stats,
+        EntryOrdinals entryOrdinals
+    ) {
+        super(config, ss, extractors, copyBehavior, stats, null, entryOrdinals);
     }
 
     @Override
     protected IndexStore createIndexStore(boolean ordered, PerIndexStats stats) {
+        if (getConfig().getType() == IndexType.BITMAP) {
+            return new BitmapIndexStore(copyBehavior, entryOrdinals == null ? new EntryOrdinals() : entryOrdinals);
+        }
         return ordered ? new OrderedIndexStore(copyBehavior) : new UnorderedIndexStore(copyBehavior);
     }
 
@@ -20,6 +20,7 @@ import com.hazelcast.config.IndexConfig;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.map.impl.StoreAdapter;
 import com.hazelcast.internal.monitor.impl.PerIndexStats;
+import com.hazelcast.query.impl.bitmap.EntryOrdinals;
 import com.hazelcast.query.impl.getters.Extractors;
 
 /**
@@ -40,6 +41,8 @@ public interface IndexProvider {
      * @param copyBehavior the desired index copy behaviour.
      * @param stats        the index stats instance to report the statistics to.
      * @param storeAdapter the reference to the store adapter. {@code null} if the index is global.
+     * @param entryOrdinals the entry ordinals to share among the bitmap
+     *                      indexes of the same {@link Indexes} instance.
      * @return the created index instance.
      */
     InternalIndex createIndex(
@@ -48,6 +51,7 @@ public interface IndexProvider {
         InternalSerializationService ss,
         IndexCopyBehavior copyBehavior,
         PerIndexStats stats,
-        StoreAdapter storeAdapter
+        StoreAdapter storeAdapter,
+        EntryOrdinals entryOrdinals
     );
 }
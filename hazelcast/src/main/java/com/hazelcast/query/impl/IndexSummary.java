@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+/**
+ * Summary of the entries having the indexed attribute value in some range:
+ * the number of the entries along with the sum and the bounds of their
+ * attribute values.
+ */
+public final class IndexSummary {
+
+    /**
+     * The summary of an empty range.
+     */
+    public static final IndexSummary EMPTY = new IndexSummary(0, 0, true, null, null);
+
+    private final long count;
+    private final long longSum;
+    private final boolean hasLongSum;
+    private final Comparable min;
+    private final Comparable max;
+
+    public IndexSummary(long count, long longSum, boolean hasLongSum, Comparable min, Comparable max) {
+        this.count = count;
+        this.longSum = longSum;
+        this.hasLongSum = hasLongSum;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @return the number of the entries in the range
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the attribute values of the entries in the range,
+     * meaningful only if {@link #hasLongSum()} is {@code true}
+     */
+    public long getLongSum() {
+        return longSum;
+    }
+
+    /**
+     * @return {@code true} if all the attribute values are represented as
+     * long values exactly, so their sum is available, {@code false}
+     * otherwise
+     */
+    public boolean hasLongSum() {
+        return hasLongSum;
+    }
+
+    /**
+     * @return the least attribute value in the range or {@code null} if the
+     * range is empty
+     */
+    public Comparable getMin() {
+        return min;
+    }
+
+    /**
+     * @return the greatest attribute value in the range or {@code null} if
+     * the range is empty
+     */
+    public Comparable getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexSummary{count=" + count + ", longSum=" + (hasLongSum ? longSum : "n/a") + ", min=" + min + ", max="
+                + max + '}';
+    }
+
+}
@@ -70,6 +70,10 @@ public final class IndexUtils {
                 + " attributes: " + config);
         }
 
+        if (config.getType() == IndexType.BITMAP && originalAttributeNames.size() > 1) {
+            throw new IllegalArgumentException("Bitmap index cannot have more than one attribute: " + config);
+        }
+
         List<String> normalizedAttributeNames = new ArrayList<>(originalAttributeNames.size());
 
         for (String originalAttributeName : originalAttributeNames) {
@@ -302,6 +306,8 @@ public final class IndexUtils {
             return IndexType.SORTED;
         } else if (typeStr.equals(IndexType.HASH.name().toLowerCase())) {
             return IndexType.HASH;
+        } else if (typeStr.equals(IndexType.BITMAP.name().toLowerCase())) {
+            return IndexType.BITMAP;
         } else {
             throw new IllegalArgumentException("Unsupported index type: " + typeStr);
         }
@@ -330,6 +336,8 @@ public final class IndexUtils {
             type = IndexType.SORTED;
         } else if (typeStr.equals(IndexType.HASH.name().toLowerCase())) {
             type = IndexType.HASH;
+        } else if (typeStr.equals(IndexType.BITMAP.name().toLowerCase())) {
+            type = IndexType.BITMAP;
         } else {
             throw new IllegalArgumentException("Unsupported index type: " + typeStr);
         }
@@ -355,6 +363,9 @@ public final class IndexUtils {
             case HASH:
                 return "hash";
 
+            case BITMAP:
+                return "bitmap";
+
             default:
                 throw new IllegalArgumentException("Unsupported index type: " + type);
         }
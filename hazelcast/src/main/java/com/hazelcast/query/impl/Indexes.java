@@ -27,6 +27,7 @@ import com.hazelcast.internal.monitor.impl.IndexesStats;
 import com.hazelcast.internal.monitor.impl.PartitionIndexesStats;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.bitmap.EntryOrdinals;
 import com.hazelcast.query.impl.getters.Extractors;
 import com.hazelcast.query.impl.predicates.IndexAwarePredicate;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -60,6 +61,7 @@ public class Indexes {
     private final AttributeIndexRegistry attributeIndexRegistry = new AttributeIndexRegistry();
     private final ConverterCache converterCache = new ConverterCache(this);
     private final Map<String, IndexConfig> definitions = new ConcurrentHashMap<>();
+    private final EntryOrdinals entryOrdinals = new EntryOrdinals();
 
     private volatile InternalIndex[] indexes = EMPTY_INDEXES;
     private volatile InternalIndex[] compositeIndexes = EMPTY_INDEXES;
@@ -127,7 +129,8 @@ public class Indexes {
             serializationService,
             indexCopyBehavior,
             stats.createPerIndexStats(indexConfig.getType() == IndexType.SORTED, usesCachedQueryableEntries),
-            partitionStoreAdapter
+            partitionStoreAdapter,
+            entryOrdinals
         );
 
         indexesByName.put(name, index);
@@ -210,6 +213,9 @@ public class Indexes {
         for (InternalIndex index : indexesSnapshot) {
             index.destroy();
         }
+        synchronized (entryOrdinals) {
+            entryOrdinals.clear();
+        }
     }
 
     /**
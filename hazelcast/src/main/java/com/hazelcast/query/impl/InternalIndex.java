@@ -16,7 +16,12 @@
 
 package com.hazelcast.query.impl;
 
+import com.hazelcast.config.IndexType;
 import com.hazelcast.internal.monitor.impl.PerIndexStats;
+import com.hazelcast.query.impl.bitmap.EntryOrdinals;
+import com.hazelcast.query.impl.bitmap.SparseBitSet;
+
+import java.util.Set;
 
 /**
  * Provides the private index API.
@@ -60,4 +65,67 @@ public interface InternalIndex extends Index {
      */
     PerIndexStats getPerIndexStats();
 
+    /**
+     * Returns the entry ordinals the bitmaps of this index are expressed in,
+     * {@code null} if this index is not a bitmap index.
+     * <p>
+     * The bitmaps of the indexes sharing the same entry ordinals may be
+     * combined while holding the monitor of the entry ordinals.
+     *
+     * @see IndexType#BITMAP
+     */
+    default EntryOrdinals getEntryOrdinals() {
+        return null;
+    }
+
+    /**
+     * Obtains the bitmap of the entries that have indexed attribute value
+     * equal to one of the given values.
+     * <p>
+     * Supported only by the bitmap indexes.
+     *
+     * @param values the values to obtain the entries for.
+     * @return the obtained bitmap owned by the caller.
+     * @see #getEntryOrdinals()
+     */
+    default SparseBitSet getBitmap(Comparable[] values) {
+        throw new UnsupportedOperationException("Not a bitmap index: " + getName());
+    }
+
+    /**
+     * Resolves the entries of the given bitmap obtained from this index or
+     * from another index sharing the same entry ordinals.
+     * <p>
+     * Supported only by the bitmap indexes.
+     *
+     * @param bitmap the bitmap to resolve the entries of.
+     * @return the resolved entries.
+     * @see #getEntryOrdinals()
+     */
+    default Set<QueryableEntry> getRecords(SparseBitSet bitmap) {
+        throw new UnsupportedOperationException("Not a bitmap index: " + getName());
+    }
+
+    /**
+     * Summarizes the entries that have indexed attribute value in the given
+     * range without visiting the entries.
+     * <p>
+     * Supported only by the sorted indexes backed by a {@link
+     * BPlusTreeIndexStore}.
+     *
+     * @param from          the beginning of the range or {@code null} if the
+     *                      range has no lower bound.
+     * @param fromInclusive {@code true} if the beginning of the range is
+     *                      inclusive, {@code false} otherwise.
+     * @param to            the end of the range or {@code null} if the range
+     *                      has no upper bound.
+     * @param toInclusive   {@code true} if the end of the range is inclusive,
+     *                      {@code false} otherwise.
+     * @return the summary of the range or {@code null} if this index can't
+     * summarize its entries.
+     */
+    default IndexSummary summarize(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        return null;
+    }
+
 }
@@ -314,8 +314,20 @@ public final class Numbers {
         return lhs < rhs ? -1 : (lhs == rhs ? 0 : +1);
     }
 
+    /**
+     * Compares the provided long and double values.
+     * <p>
+     * The method fully avoids magnitude and precision losses while performing
+     * the comparison, the ordering of the double values is the one defined by
+     * {@link Double#compare}.
+     *
+     * @param l the left-hand side long value.
+     * @param d the right-hand side double value.
+     * @return a negative integer, zero, or a positive integer as the long
+     * value is less than, equal to, or greater than the double value.
+     */
     @SuppressWarnings("checkstyle:magicnumber")
-    private static int compareLongWithDouble(long l, double d) {
+    public static int compareLongWithDouble(long l, double d) {
         if (d > -0x1p53 && d < +0x1p53) {
             // Whole numbers in this range are exactly representable as doubles.
             // After casting the given long value to a double, it either falls
@@ -72,6 +72,14 @@ public class UnorderedIndexStore extends BaseIndexStore {
 
     @Override
     public Comparable canonicalizeScalarForStorage(Comparable value) {
+        return canonicalizeScalarForHashing(value);
+    }
+
+    /**
+     * Canonicalizes the given value into a compact representation suitable
+     * for the hash-based storage of mixed-type numeric values.
+     */
+    static Comparable canonicalizeScalarForHashing(Comparable value) {
         // Assuming on-heap overhead of 12 bytes for the object header and
         // allocation granularity by modulo 8, there is no point in trying to
         // represent a value in less than 4 bytes.
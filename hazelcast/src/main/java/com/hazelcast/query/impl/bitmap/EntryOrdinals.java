@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.bitmap;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+
+/**
+ * Assigns dense {@code int} ordinals to the entries indexed by the bitmap
+ * indexes of a single {@link com.hazelcast.query.impl.Indexes Indexes}
+ * instance, so the bitmaps of different indexes are expressed in the same
+ * ordinals and may be combined directly.
+ * <p>
+ * An ordinal is reference counted: every bitmap index referencing an entry
+ * holds a reference to its ordinal. Once the last reference is released,
+ * the ordinal is recycled for another entry.
+ * <p>
+ * Not thread-safe by itself: the bitmap indexes synchronize on the instance
+ * while they are modifying or reading their bitmaps, so a reader holding the
+ * monitor observes the bitmaps of all the indexes and the ordinals in a
+ * consistent state.
+ */
+public final class EntryOrdinals {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<Data, Integer> ordinals = new HashMap<>();
+    private final SparseBitSet universe = new SparseBitSet();
+
+    private QueryableEntry[] entries = new QueryableEntry[INITIAL_CAPACITY];
+    private int[] referenceCounts = new int[INITIAL_CAPACITY];
+    private int[] freeOrdinals = new int[INITIAL_CAPACITY];
+    private int freeOrdinalCount;
+    private int nextOrdinal;
+
+    /**
+     * Acquires a reference to the ordinal of the given entry, assigning a
+     * new ordinal to the entry if it has none.
+     * <p>
+     * The given entry replaces the entry previously known for the ordinal.
+     *
+     * @return the ordinal of the entry
+     */
+    public int acquire(QueryableEntry entry) {
+        Data key = entry.getKeyData();
+        Integer existing = ordinals.get(key);
+        int ordinal;
+        if (existing == null) {
+            ordinal = freeOrdinalCount > 0 ? freeOrdinals[--freeOrdinalCount] : newOrdinal();
+            ordinals.put(key, ordinal);
+            universe.add(ordinal);
+        } else {
+            ordinal = existing;
+        }
+        entries[ordinal] = entry;
+        ++referenceCounts[ordinal];
+        return ordinal;
+    }
+
+    /**
+     * Releases a reference to the given ordinal previously acquired by
+     * {@link #acquire}.
+     */
+    public void release(int ordinal) {
+        assert referenceCounts[ordinal] > 0;
+        if (--referenceCounts[ordinal] > 0) {
+            return;
+        }
+
+        ordinals.remove(entries[ordinal].getKeyData());
+        universe.remove(ordinal);
+        entries[ordinal] = null;
+        if (freeOrdinalCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeOrdinalCount << 1);
+        }
+        freeOrdinals[freeOrdinalCount++] = ordinal;
+    }
+
+    /**
+     * @return the ordinal of the entry with the given key or {@code -1} if
+     * the entry has no ordinal
+     */
+    public int ordinalOf(Data key) {
+        Integer ordinal = ordinals.get(key);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * @return the entry known for the given ordinal or {@code null} if the
+     * ordinal is not assigned
+     */
+    public QueryableEntry entryAt(int ordinal) {
+        return ordinal < nextOrdinal ? entries[ordinal] : null;
+    }
+
+    /**
+     * Resolves the entries of the given ordinals.
+     *
+     * @return the entries keyed by their keys
+     */
+    public Map<Data, QueryableEntry> resolve(SparseBitSet bitmap) {
+        Map<Data, QueryableEntry> records = new HashMap<>();
+        PrimitiveIterator.OfInt iterator = bitmap.iterator();
+        while (iterator.hasNext()) {
+            QueryableEntry entry = entryAt(iterator.nextInt());
+            if (entry != null) {
+                records.put(entry.getKeyData(), entry);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * @return a copy of the set of the currently assigned ordinals
+     */
+    public SparseBitSet universe() {
+        return universe.copy();
+    }
+
+    /**
+     * @return the number of the entries having an ordinal assigned
+     */
+    public int size() {
+        return ordinals.size();
+    }
+
+    /**
+     * Forgets all the assigned ordinals.
+     */
+    public void clear() {
+        ordinals.clear();
+        universe.clear();
+        entries = new QueryableEntry[INITIAL_CAPACITY];
+        referenceCounts = new int[INITIAL_CAPACITY];
+        freeOrdinals = new int[INITIAL_CAPACITY];
+        freeOrdinalCount = 0;
+        nextOrdinal = 0;
+    }
+
+    private int newOrdinal() {
+        if (nextOrdinal == entries.length) {
+            entries = Arrays.copyOf(entries, nextOrdinal << 1);
+            referenceCounts = Arrays.copyOf(referenceCounts, nextOrdinal << 1);
+        }
+        return nextOrdinal++;
+    }
+
+}
@@ -0,0 +1,651 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.bitmap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import static com.hazelcast.internal.util.Preconditions.checkNotNegative;
+
+/**
+ * A compressed set of non-negative {@code int}s.
+ * <p>
+ * The members are partitioned into chunks of 2<sup>16</sup> by their high 16
+ * bits, like in roaring bitmaps. Each chunk keeps the low 16 bits of its
+ * members either in a sorted {@code char[]}, while the chunk is sparse, or in
+ * a plain 2<sup>16</sup>-bit bitmap, once it holds more than {@value
+ * #ARRAY_CHUNK_MAX_CARDINALITY} members. So a set of dense ordinals costs
+ * about a bit per member and a sparse set about two bytes per member, and the
+ * set operations are word-wise operations on the bitmap chunks and merges of
+ * the sorted array chunks.
+ * <p>
+ * Not thread-safe.
+ */
+public final class SparseBitSet {
+
+    static final int ARRAY_CHUNK_MAX_CARDINALITY = 4096;
+
+    private static final int CHUNK_BITS = 16;
+    private static final int LOW_MASK = 0xFFFF;
+    private static final int BITMAP_CHUNK_WORDS = (1 << CHUNK_BITS) / Long.SIZE;
+    private static final int INITIAL_CHUNK_COUNT = 4;
+
+    private int[] keys;
+    private Chunk[] chunks;
+    private int chunkCount;
+
+    public SparseBitSet() {
+        this.keys = new int[INITIAL_CHUNK_COUNT];
+        this.chunks = new Chunk[INITIAL_CHUNK_COUNT];
+    }
+
+    private SparseBitSet(int[] keys, Chunk[] chunks, int chunkCount) {
+        this.keys = keys;
+        this.chunks = chunks;
+        this.chunkCount = chunkCount;
+    }
+
+    /**
+     * Adds the given member to this set.
+     *
+     * @return {@code true} if the member was not in this set
+     */
+    public boolean add(int member) {
+        checkNotNegative(member, "member should be non-negative");
+        int key = member >>> CHUNK_BITS;
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, key, new ArrayChunk());
+        }
+        Chunk chunk = chunks[index];
+        int cardinality = chunk.cardinality;
+        chunks[index] = chunk.add((char) (member & LOW_MASK));
+        return chunks[index].cardinality != cardinality;
+    }
+
+    /**
+     * Removes the given member from this set.
+     *
+     * @return {@code true} if the member was in this set
+     */
+    public boolean remove(int member) {
+        if (member < 0) {
+            return false;
+        }
+        int index = indexOf(member >>> CHUNK_BITS);
+        if (index < 0) {
+            return false;
+        }
+        Chunk chunk = chunks[index];
+        int cardinality = chunk.cardinality;
+        chunk = chunk.remove((char) (member & LOW_MASK));
+        if (chunk.cardinality == 0) {
+            removeChunk(index);
+        } else {
+            chunks[index] = chunk;
+        }
+        return chunk.cardinality != cardinality;
+    }
+
+    /**
+     * @return {@code true} if the given member is in this set
+     */
+    public boolean contains(int member) {
+        if (member < 0) {
+            return false;
+        }
+        int index = indexOf(member >>> CHUNK_BITS);
+        return index >= 0 && chunks[index].contains((char) (member & LOW_MASK));
+    }
+
+    /**
+     * @return the number of members in this set
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < chunkCount; ++i) {
+            cardinality += chunks[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return chunkCount == 0;
+    }
+
+    /**
+     * Removes all the members from this set.
+     */
+    public void clear() {
+        keys = new int[INITIAL_CHUNK_COUNT];
+        chunks = new Chunk[INITIAL_CHUNK_COUNT];
+        chunkCount = 0;
+    }
+
+    /**
+     * @return a copy of this set sharing no state with it
+     */
+    public SparseBitSet copy() {
+        int capacity = Math.max(INITIAL_CHUNK_COUNT, chunkCount);
+        Chunk[] chunksCopy = new Chunk[capacity];
+        for (int i = 0; i < chunkCount; ++i) {
+            chunksCopy[i] = chunks[i].copy();
+        }
+        return new SparseBitSet(Arrays.copyOf(keys, capacity), chunksCopy, chunkCount);
+    }
+
+    /**
+     * Retains only the members which are also in the given set.
+     */
+    public void and(SparseBitSet other) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount && j < other.chunkCount) {
+            int key = keys[i];
+            int otherKey = other.keys[j];
+            if (key < otherKey) {
+                ++i;
+            } else if (key > otherKey) {
+                ++j;
+            } else {
+                Chunk chunk = chunks[i].and(other.chunks[j]);
+                if (chunk.cardinality > 0) {
+                    keys[count] = key;
+                    chunks[count] = chunk;
+                    ++count;
+                }
+                ++i;
+                ++j;
+            }
+        }
+        Arrays.fill(chunks, count, chunkCount, null);
+        chunkCount = count;
+    }
+
+    /**
+     * Adds all the members of the given set to this set.
+     */
+    public void or(SparseBitSet other) {
+        int[] newKeys = new int[Math.max(INITIAL_CHUNK_COUNT, chunkCount + other.chunkCount)];
+        Chunk[] newChunks = new Chunk[newKeys.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount || j < other.chunkCount) {
+            int key = i < chunkCount ? keys[i] : Integer.MAX_VALUE;
+            int otherKey = j < other.chunkCount ? other.keys[j] : Integer.MAX_VALUE;
+            if (key < otherKey) {
+                newKeys[count] = key;
+                newChunks[count] = chunks[i++];
+            } else if (key > otherKey) {
+                newKeys[count] = otherKey;
+                newChunks[count] = other.chunks[j++].copy();
+            } else {
+                newKeys[count] = key;
+                newChunks[count] = chunks[i++].or(other.chunks[j++]);
+            }
+            ++count;
+        }
+        keys = newKeys;
+        chunks = newChunks;
+        chunkCount = count;
+    }
+
+    /**
+     * Removes all the members of the given set from this set.
+     */
+    public void andNot(SparseBitSet other) {
+        int count = 0;
+        int j = 0;
+        for (int i = 0; i < chunkCount; ++i) {
+            int key = keys[i];
+            while (j < other.chunkCount && other.keys[j] < key) {
+                ++j;
+            }
+            Chunk chunk = chunks[i];
+            if (j < other.chunkCount && other.keys[j] == key) {
+                chunk = chunk.andNot(other.chunks[j]);
+            }
+            if (chunk.cardinality > 0) {
+                keys[count] = key;
+                chunks[count] = chunk;
+                ++count;
+            }
+        }
+        Arrays.fill(chunks, count, chunkCount, null);
+        chunkCount = count;
+    }
+
+    /**
+     * @return an iterator over the members of this set in ascending order;
+     * the iterator does not support modifications of this set during the
+     * iteration
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new MemberIterator();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("SparseBitSet{");
+        PrimitiveIterator.OfInt iterator = iterator();
+        while (iterator.hasNext()) {
+            builder.append(iterator.nextInt());
+            if (iterator.hasNext()) {
+                builder.append(", ");
+            }
+        }
+        return builder.append('}').toString();
+    }
+
+    private int indexOf(int key) {
+        return Arrays.binarySearch(keys, 0, chunkCount, key);
+    }
+
+    private void insertChunk(int index, int key, Chunk chunk) {
+        if (chunkCount == keys.length) {
+            keys = Arrays.copyOf(keys, chunkCount << 1);
+            chunks = Arrays.copyOf(chunks, chunkCount << 1);
+        }
+        System.arraycopy(keys, index, keys, index + 1, chunkCount - index);
+        System.arraycopy(chunks, index, chunks, index + 1, chunkCount - index);
+        keys[index] = key;
+        chunks[index] = chunk;
+        ++chunkCount;
+    }
+
+    private void removeChunk(int index) {
+        System.arraycopy(keys, index + 1, keys, index, chunkCount - index - 1);
+        System.arraycopy(chunks, index + 1, chunks, index, chunkCount - index - 1);
+        --chunkCount;
+        chunks[chunkCount] = null;
+    }
+
+    /**
+     * Holds the low 16 bits of the members sharing the same high 16 bits.
+     * <p>
+     * The mutating methods return the chunk holding the result, which may
+     * be a new chunk of the other kind.
+     */
+    private abstract static class Chunk {
+
+        int cardinality;
+
+        abstract Chunk add(char value);
+
+        abstract Chunk remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract Chunk copy();
+
+        abstract Chunk and(Chunk other);
+
+        abstract Chunk or(Chunk other);
+
+        abstract Chunk andNot(Chunk other);
+
+        /**
+         * @return the position of the next member starting from the given
+         * position or {@code -1} if there are no more members
+         */
+        abstract int next(int position);
+
+        /**
+         * @return the member at the given position as returned by
+         * {@link #next}
+         */
+        abstract int valueAt(int position);
+
+    }
+
+    private static final class ArrayChunk extends Chunk {
+
+        private static final int INITIAL_CAPACITY = 4;
+
+        char[] values;
+
+        ArrayChunk() {
+            this.values = new char[INITIAL_CAPACITY];
+        }
+
+        ArrayChunk(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Chunk add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_CHUNK_MAX_CARDINALITY) {
+                return toBitmapChunk().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality << 1, ARRAY_CHUNK_MAX_CARDINALITY));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            ++cardinality;
+            return this;
+        }
+
+        @Override
+        Chunk remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                --cardinality;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Chunk copy() {
+            return new ArrayChunk(Arrays.copyOf(values, Math.max(cardinality, INITIAL_CAPACITY)), cardinality);
+        }
+
+        @Override
+        Chunk and(Chunk other) {
+            int count = 0;
+            if (other instanceof ArrayChunk) {
+                ArrayChunk array = (ArrayChunk) other;
+                int j = 0;
+                for (int i = 0; i < cardinality && j < array.cardinality; ) {
+                    char value = values[i];
+                    char otherValue = array.values[j];
+                    if (value < otherValue) {
+                        ++i;
+                    } else if (value > otherValue) {
+                        ++j;
+                    } else {
+                        values[count++] = value;
+                        ++i;
+                        ++j;
+                    }
+                }
+            } else {
+                BitmapChunk bitmap = (BitmapChunk) other;
+                for (int i = 0; i < cardinality; ++i) {
+                    if (bitmap.contains(values[i])) {
+                        values[count++] = values[i];
+                    }
+                }
+            }
+            cardinality = count;
+            return this;
+        }
+
+        @Override
+        Chunk or(Chunk other) {
+            if (other instanceof BitmapChunk) {
+                return other.copy().or(this);
+            }
+            ArrayChunk array = (ArrayChunk) other;
+            char[] merged = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < array.cardinality) {
+                char value = values[i];
+                char otherValue = array.values[j];
+                if (value < otherValue) {
+                    merged[count++] = value;
+                    ++i;
+                } else if (value > otherValue) {
+                    merged[count++] = otherValue;
+                    ++j;
+                } else {
+                    merged[count++] = value;
+                    ++i;
+                    ++j;
+                }
+            }
+            while (i < cardinality) {
+                merged[count++] = values[i++];
+            }
+            while (j < array.cardinality) {
+                merged[count++] = array.values[j++];
+            }
+            ArrayChunk result = new ArrayChunk(merged, count);
+            return count > ARRAY_CHUNK_MAX_CARDINALITY ? result.toBitmapChunk() : result;
+        }
+
+        @Override
+        Chunk andNot(Chunk other) {
+            int count = 0;
+            for (int i = 0; i < cardinality; ++i) {
+                if (!other.contains(values[i])) {
+                    values[count++] = values[i];
+                }
+            }
+            cardinality = count;
+            return this;
+        }
+
+        @Override
+        int next(int position) {
+            return position < cardinality ? position : -1;
+        }
+
+        @Override
+        int valueAt(int position) {
+            return values[position];
+        }
+
+        BitmapChunk toBitmapChunk() {
+            BitmapChunk bitmap = new BitmapChunk();
+            for (int i = 0; i < cardinality; ++i) {
+                char value = values[i];
+                bitmap.words[value >>> 6] |= 1L << value;
+            }
+            bitmap.cardinality = cardinality;
+            return bitmap;
+        }
+
+    }
+
+    private static final class BitmapChunk extends Chunk {
+
+        final long[] words;
+
+        BitmapChunk() {
+            this.words = new long[BITMAP_CHUNK_WORDS];
+        }
+
+        BitmapChunk(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Chunk add(char value) {
+            long word = words[value >>> 6];
+            long newWord = word | 1L << value;
+            if (newWord != word) {
+                words[value >>> 6] = newWord;
+                ++cardinality;
+            }
+            return this;
+        }
+
+        @Override
+        Chunk remove(char value) {
+            long word = words[value >>> 6];
+            long newWord = word & ~(1L << value);
+            if (newWord != word) {
+                words[value >>> 6] = newWord;
+                --cardinality;
+            }
+            return cardinality <= ARRAY_CHUNK_MAX_CARDINALITY / 2 ? toArrayChunk() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & 1L << value) != 0;
+        }
+
+        @Override
+        Chunk copy() {
+            return new BitmapChunk(words.clone(), cardinality);
+        }
+
+        @Override
+        Chunk and(Chunk other) {
+            if (other instanceof ArrayChunk) {
+                return other.copy().and(this);
+            }
+            long[] otherWords = ((BitmapChunk) other).words;
+            int count = 0;
+            for (int i = 0; i < BITMAP_CHUNK_WORDS; ++i) {
+                words[i] &= otherWords[i];
+                count += Long.bitCount(words[i]);
+            }
+            cardinality = count;
+            return count <= ARRAY_CHUNK_MAX_CARDINALITY ? toArrayChunk() : this;
+        }
+
+        @Override
+        Chunk or(Chunk other) {
+            if (other instanceof ArrayChunk) {
+                ArrayChunk array = (ArrayChunk) other;
+                for (int i = 0; i < array.cardinality; ++i) {
+                    add(array.values[i]);
+                }
+                return this;
+            }
+            long[] otherWords = ((BitmapChunk) other).words;
+            int count = 0;
+            for (int i = 0; i < BITMAP_CHUNK_WORDS; ++i) {
+                words[i] |= otherWords[i];
+                count += Long.bitCount(words[i]);
+            }
+            cardinality = count;
+            return this;
+        }
+
+        @Override
+        Chunk andNot(Chunk other) {
+            if (other instanceof ArrayChunk) {
+                ArrayChunk array = (ArrayChunk) other;
+                for (int i = 0; i < array.cardinality; ++i) {
+                    char value = array.values[i];
+                    long word = words[value >>> 6];
+                    long newWord = word & ~(1L << value);
+                    if (newWord != word) {
+                        words[value >>> 6] = newWord;
+                        --cardinality;
+                    }
+                }
+            } else {
+                long[] otherWords = ((BitmapChunk) other).words;
+                int count = 0;
+                for (int i = 0; i < BITMAP_CHUNK_WORDS; ++i) {
+                    words[i] &= ~otherWords[i];
+                    count += Long.bitCount(words[i]);
+                }
+                cardinality = count;
+            }
+            return cardinality <= ARRAY_CHUNK_MAX_CARDINALITY ? toArrayChunk() : this;
+        }
+
+        @Override
+        int next(int position) {
+            int wordIndex = position >>> 6;
+            if (wordIndex >= BITMAP_CHUNK_WORDS) {
+                return -1;
+            }
+            long word = words[wordIndex] & -1L << position;
+            while (word == 0) {
+                if (++wordIndex == BITMAP_CHUNK_WORDS) {
+                    return -1;
+                }
+                word = words[wordIndex];
+            }
+            return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        int valueAt(int position) {
+            return position;
+        }
+
+        ArrayChunk toArrayChunk() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int count = 0;
+            for (int i = 0; i < BITMAP_CHUNK_WORDS; ++i) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayChunk(values, count);
+        }
+
+    }
+
+    private final class MemberIterator implements PrimitiveIterator.OfInt {
+
+        private int chunkIndex;
+        private int position = -1;
+
+        MemberIterator() {
+            advance(0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position >= 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (position < 0) {
+                throw new NoSuchElementException();
+            }
+            int member = keys[chunkIndex] << CHUNK_BITS | chunks[chunkIndex].valueAt(position);
+            advance(position + 1);
+            return member;
+        }
+
+        private void advance(int from) {
+            while (chunkIndex < chunkCount) {
+                position = chunks[chunkIndex].next(from);
+                if (position >= 0) {
+                    return;
+                }
+                ++chunkIndex;
+                from = 0;
+            }
+            position = -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.columnar;
+
+import com.hazelcast.query.impl.AttributeType;
+
+import java.util.Arrays;
+
+/**
+ * Holds the values of a single numeric attribute for the rows of a {@link
+ * ColumnarStore} as primitive {@code long} values.
+ * <p>
+ * The integral values ({@code long}, {@code int}, {@code short} and {@code
+ * byte}) are stored as is. The floating point values ({@code double} and
+ * {@code float}) are stored as their {@link #toSortableLong sortable} bits,
+ * so the ordering of the stored values is the one of {@link Double#compare}
+ * and the ranges of them may be checked by the plain {@code long}
+ * comparisons.
+ * <p>
+ * A column is typed by the first non-null value stored into it. Once a value
+ * of another type, or a value which is not a number at all, is observed, the
+ * column becomes {@link #isUnsupported unsupported} and it's no longer
+ * maintained.
+ * <p>
+ * The column is written by a single thread holding the monitor of the owning
+ * store, the readers access the arrays without any locking: they may observe
+ * the arrays replaced by the larger ones while reading, so they should never
+ * read past the lengths of the arrays they obtained.
+ */
+public final class Column {
+
+    private final String attribute;
+
+    private long[] values;
+    private long[] nulls;
+    private AttributeType type;
+    private boolean unsupported;
+
+    Column(String attribute, int capacity) {
+        this.attribute = attribute;
+        this.values = new long[capacity];
+        this.nulls = new long[ColumnarStore.wordCount(capacity)];
+    }
+
+    /**
+     * @return the name of the attribute of this column.
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * @return the type of the values of this column or {@code null} if no
+     * non-null value was observed yet.
+     */
+    public AttributeType getType() {
+        return type;
+    }
+
+    /**
+     * @return {@code true} if the values of this column are stored as the
+     * sortable bits of {@code double} values, {@code false} if they are
+     * stored as {@code long} values.
+     */
+    public boolean isFloatingPoint() {
+        return isFloatingPoint(type);
+    }
+
+    /**
+     * @return {@code true} if an unsupported value was observed by this
+     * column, {@code false} otherwise.
+     */
+    public boolean isUnsupported() {
+        return unsupported;
+    }
+
+    /**
+     * @return the array of the values of this column indexed by the rows.
+     */
+    public long[] values() {
+        return values;
+    }
+
+    /**
+     * @return the bitmap of the rows having {@code null} values, a bit per
+     * row.
+     */
+    public long[] nulls() {
+        return nulls;
+    }
+
+    /**
+     * Converts the given {@code double} value to a {@code long} value having
+     * the same ordering as {@link Double#compare} defines for the {@code
+     * double} values. The conversion is reversible, see {@link
+     * #fromSortableLong}.
+     */
+    public static long toSortableLong(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ (bits >> (Long.SIZE - 1) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Reverses the conversion done by {@link #toSortableLong}.
+     */
+    public static double fromSortableLong(long value) {
+        return Double.longBitsToDouble(value ^ (value >> (Long.SIZE - 1) & Long.MAX_VALUE));
+    }
+
+    /**
+     * @return the type of the given value if the value is a number which
+     * may be stored by a column, {@code null} otherwise.
+     */
+    public static AttributeType numericTypeOf(Object value) {
+        Class clazz = value.getClass();
+        if (clazz == Long.class) {
+            return AttributeType.LONG;
+        } else if (clazz == Integer.class) {
+            return AttributeType.INTEGER;
+        } else if (clazz == Short.class) {
+            return AttributeType.SHORT;
+        } else if (clazz == Byte.class) {
+            return AttributeType.BYTE;
+        } else if (clazz == Double.class) {
+            return AttributeType.DOUBLE;
+        } else if (clazz == Float.class) {
+            return AttributeType.FLOAT;
+        } else {
+            return null;
+        }
+    }
+
+    static boolean isFloatingPoint(AttributeType type) {
+        return type == AttributeType.DOUBLE || type == AttributeType.FLOAT;
+    }
+
+    /**
+     * Stores the given attribute value for the given row.
+     *
+     * @return {@code false} if the value can't be represented by this column,
+     * {@code true} otherwise.
+     */
+    boolean set(int row, Object value) {
+        if (value == null) {
+            nulls[row >>> ColumnarStore.WORD_SHIFT] |= 1L << row;
+            return true;
+        }
+
+        AttributeType valueType = numericTypeOf(value);
+        if (valueType == null || type != null && type != valueType) {
+            markUnsupported();
+            return false;
+        }
+        type = valueType;
+
+        Number number = (Number) value;
+        values[row] = isFloatingPoint(valueType) ? toSortableLong(number.doubleValue()) : number.longValue();
+        nulls[row >>> ColumnarStore.WORD_SHIFT] &= ~(1L << row);
+        return true;
+    }
+
+    void markUnsupported() {
+        unsupported = true;
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, capacity);
+            nulls = Arrays.copyOf(nulls, ColumnarStore.wordCount(capacity));
+        }
+    }
+
+}
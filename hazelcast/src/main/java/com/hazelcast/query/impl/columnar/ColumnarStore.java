@@ -0,0 +1,402 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.columnar;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.impl.Extractable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Columnar shadow representation of the entries of a single map partition.
+ * <p>
+ * Every entry is assigned a row, and every attribute referenced by the
+ * full-scan queries gets a {@link Column} holding the values of the attribute
+ * for all the rows in a primitive array. The simple predicates over such
+ * attributes are evaluated by the {@link RowFilter row filters} in tight
+ * loops over the columns producing the bitmaps of the matching rows, only the
+ * entries of the matching rows are touched afterwards.
+ * <p>
+ * The columns are created lazily, on the first query referencing the
+ * attribute, by extracting the attribute value of every entry of the
+ * partition. After that, the columns are kept up to date by the writer.
+ * The first column is filled from the {@link Source#entries() source
+ * entries}, which is consistent with the modifications only on the thread
+ * doing them, so it's always created on that thread: a query running on
+ * another thread requests the column and falls back to the regular full
+ * scan until the column is created. Once the store tracks the entries, the
+ * further columns are filled from its own rows.
+ * <p>
+ * All the modifications are done while holding the monitor of the store,
+ * there is a single writer at a time: the partition thread or a query thread
+ * creating a new column. The readers don't lock, they read the state visible
+ * after the last completed modification and detect the modifications racing
+ * with them by the {@link #modCount} stamp.
+ *
+ * @param <E> the type of the entries
+ */
+public final class ColumnarStore<E> {
+
+    static final int WORD_SHIFT = 6;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_COLUMNS = 16;
+
+    private final Source<E> source;
+
+    private final Map<Data, Integer> rowsByKey = new HashMap<>();
+    private final Set<String> unsupportedAttributes = new HashSet<>();
+    private final Set<String> requestedAttributes = new HashSet<>();
+
+    private volatile Map<String, Column> columns = Collections.emptyMap();
+    private volatile boolean tracking;
+    private volatile int modCount;
+
+    private Object[] entries = new Object[INITIAL_CAPACITY];
+    private long[] live = new long[wordCount(INITIAL_CAPACITY)];
+    private int[] freeRows = new int[INITIAL_CAPACITY];
+    private int freeRowCount;
+    private int rowCount;
+
+    public ColumnarStore(Source<E> source) {
+        this.source = source;
+    }
+
+    /**
+     * Provides the entries and their attribute values to the store.
+     *
+     * @param <E> the type of the entries
+     */
+    public interface Source<E> {
+
+        /**
+         * @return the current entries to populate the rows from while
+         * creating the first column.
+         */
+        Iterable<E> entries();
+
+        /**
+         * @return the key of the given entry.
+         */
+        Data keyOf(E entry);
+
+        /**
+         * @return the extractable view of the given entry to read the
+         * attribute values of the entry from.
+         */
+        Extractable toExtractable(E entry);
+
+        /**
+         * @return {@code true} if the current thread is the thread modifying
+         * the entries, {@code false} otherwise.
+         */
+        boolean isOwnerThread();
+
+        /**
+         * Runs the given task asynchronously on the thread modifying the
+         * entries.
+         */
+        void executeOnOwnerThread(Runnable task);
+
+    }
+
+    /**
+     * @return {@code true} if the store tracks the entries, i.e. it has
+     * created its first column, {@code false} otherwise.
+     */
+    public boolean isActive() {
+        return tracking;
+    }
+
+    /**
+     * Inserts the given entry or updates its row if the store already has a
+     * row for the key of the entry.
+     */
+    public void put(E entry) {
+        if (!tracking) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!tracking) {
+                return;
+            }
+            putInternal(entry, columns.values());
+            ++modCount;
+        }
+    }
+
+    /**
+     * Removes the row of the entry with the given key, if any.
+     */
+    public void remove(Data key) {
+        if (!tracking) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!tracking) {
+                return;
+            }
+            Integer row = rowsByKey.remove(key);
+            if (row == null) {
+                return;
+            }
+            entries[row] = null;
+            live[row >>> WORD_SHIFT] &= ~(1L << row);
+            if (freeRowCount == freeRows.length) {
+                freeRows = Arrays.copyOf(freeRows, freeRowCount << 1);
+            }
+            freeRows[freeRowCount++] = row;
+            ++modCount;
+        }
+    }
+
+    /**
+     * Removes all the rows and all the columns, the columns are recreated
+     * by the next queries referencing them.
+     */
+    public synchronized void clear() {
+        columns = Collections.emptyMap();
+        tracking = false;
+        unsupportedAttributes.clear();
+        rowsByKey.clear();
+        entries = new Object[INITIAL_CAPACITY];
+        live = new long[wordCount(INITIAL_CAPACITY)];
+        freeRows = new int[INITIAL_CAPACITY];
+        freeRowCount = 0;
+        rowCount = 0;
+        ++modCount;
+    }
+
+    /**
+     * Obtains the column of the given attribute, creating it if necessary.
+     * <p>
+     * If the store has no columns yet and the current thread is not the
+     * thread modifying the entries, the column is created asynchronously on
+     * that thread and {@code null} is returned.
+     *
+     * @return the column or {@code null} if the attribute values can't be
+     * represented by a column, the column limit is reached or the column is
+     * not created yet.
+     */
+    public Column getOrCreateColumn(String attribute) {
+        Column column = columns.get(attribute);
+        if (column != null) {
+            return column.isUnsupported() ? null : column;
+        }
+
+        synchronized (this) {
+            column = columns.get(attribute);
+            if (column != null) {
+                return column.isUnsupported() ? null : column;
+            }
+            if (unsupportedAttributes.contains(attribute) || columns.size() == MAX_COLUMNS) {
+                return null;
+            }
+            if (!tracking && !source.isOwnerThread()) {
+                requestColumn(attribute);
+                return null;
+            }
+
+            column = new Column(attribute, entries.length);
+            boolean firstColumn = !tracking;
+            if (firstColumn) {
+                // the store was inactive, populate the rows along the way
+                tracking = true;
+                for (E entry : source.entries()) {
+                    putInternal(entry, Collections.singleton(column));
+                }
+            } else {
+                for (int row = 0; row < rowCount; ++row) {
+                    if (entries[row] != null) {
+                        @SuppressWarnings("unchecked")
+                        E entry = (E) entries[row];
+                        setValue(column, row, source.toExtractable(entry));
+                    }
+                }
+            }
+            if (column.isUnsupported()) {
+                unsupportedAttributes.add(attribute);
+                if (firstColumn) {
+                    tracking = false;
+                    rowsByKey.clear();
+                    Arrays.fill(entries, null);
+                    Arrays.fill(live, 0);
+                    freeRowCount = 0;
+                    rowCount = 0;
+                }
+                return null;
+            }
+
+            Map<String, Column> newColumns = new HashMap<>(columns);
+            newColumns.put(attribute, column);
+            columns = newColumns;
+            ++modCount;
+            return column;
+        }
+    }
+
+    /**
+     * Selects the entries of the rows matching the given filter.
+     * <p>
+     * The selection reflects the state of the store as of the start of the
+     * selection, the modifications racing with the selection are reported
+     * by {@link Selection#isConcurrentlyModified}.
+     */
+    public Selection<E> select(RowFilter filter) {
+        int stamp = modCount;
+        int rowCount = this.rowCount;
+        Object[] entries = this.entries;
+        long[] live = this.live;
+
+        long[] rows = filter.evaluate(rowCount, live);
+        List<E> selected = new ArrayList<>();
+        int wordCount = Math.min(rows.length, live.length);
+        for (int word = 0; word < wordCount; ++word) {
+            long bits = rows[word] & live[word];
+            while (bits != 0) {
+                int row = (word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (row < entries.length) {
+                    @SuppressWarnings("unchecked")
+                    E entry = (E) entries[row];
+                    if (entry != null) {
+                        selected.add(entry);
+                    }
+                }
+            }
+        }
+        return new Selection<>(selected, stamp != modCount);
+    }
+
+    private void requestColumn(String attribute) {
+        if (!requestedAttributes.add(attribute)) {
+            return;
+        }
+        source.executeOnOwnerThread(() -> {
+            try {
+                getOrCreateColumn(attribute);
+            } finally {
+                synchronized (this) {
+                    requestedAttributes.remove(attribute);
+                }
+            }
+        });
+    }
+
+    static int wordCount(int bitCount) {
+        return (bitCount + Long.SIZE - 1) >>> WORD_SHIFT;
+    }
+
+    private void putInternal(E entry, Iterable<Column> columns) {
+        Data key = source.keyOf(entry);
+        Integer existing = rowsByKey.get(key);
+        int row;
+        if (existing == null) {
+            row = freeRowCount > 0 ? freeRows[--freeRowCount] : newRow();
+            rowsByKey.put(key, row);
+        } else {
+            row = existing;
+        }
+
+        Extractable extractable = source.toExtractable(entry);
+        for (Column column : columns) {
+            setValue(column, row, extractable);
+        }
+        entries[row] = entry;
+        live[row >>> WORD_SHIFT] |= 1L << row;
+    }
+
+    private void setValue(Column column, int row, Extractable extractable) {
+        if (column.isUnsupported()) {
+            return;
+        }
+
+        column.ensureCapacity(entries.length);
+        boolean supported;
+        try {
+            supported = column.set(row, extractable.getAttributeValue(column.getAttribute()));
+        } catch (RuntimeException e) {
+            // let the regular full scan report the failure
+            column.markUnsupported();
+            supported = false;
+        }
+
+        if (!supported && columns.containsKey(column.getAttribute())) {
+            // stop maintaining the column, the queries fall back to the
+            // regular full scan for the attribute from now on
+            Map<String, Column> newColumns = new HashMap<>(columns);
+            newColumns.remove(column.getAttribute());
+            unsupportedAttributes.add(column.getAttribute());
+            columns = newColumns;
+        }
+    }
+
+    private int newRow() {
+        if (rowCount == entries.length) {
+            int capacity = rowCount << 1;
+            entries = Arrays.copyOf(entries, capacity);
+            live = Arrays.copyOf(live, wordCount(capacity));
+            for (Column column : columns.values()) {
+                column.ensureCapacity(capacity);
+            }
+        }
+        return rowCount++;
+    }
+
+    /**
+     * The entries selected by {@link #select}.
+     *
+     * @param <E> the type of the entries
+     */
+    public static final class Selection<E> {
+
+        private final List<E> entries;
+        private final boolean concurrentlyModified;
+
+        Selection(List<E> entries, boolean concurrentlyModified) {
+            this.entries = entries;
+            this.concurrentlyModified = concurrentlyModified;
+        }
+
+        /**
+         * @return the selected entries.
+         */
+        public List<E> getEntries() {
+            return entries;
+        }
+
+        /**
+         * @return {@code true} if the store was modified while selecting, so
+         * the selected entries should be rechecked against the original
+         * predicate, {@code false} otherwise.
+         */
+        public boolean isConcurrentlyModified() {
+            return concurrentlyModified;
+        }
+
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.columnar;
+
+/**
+ * Selects the rows of a {@link ColumnarStore}.
+ *
+ * @see RowFilters
+ */
+public interface RowFilter {
+
+    /**
+     * Evaluates this filter over the rows of a store.
+     *
+     * @param rowCount the number of the rows to evaluate the filter for.
+     * @param live     the bitmap of the rows occupied by the entries, the
+     *                 bits of the free rows are cleared.
+     * @return the bitmap of the matching rows, at least {@code rowCount} bits
+     * long. The bits of the free rows may be set, they are to be ignored by
+     * the caller.
+     */
+    long[] evaluate(int rowCount, long[] live);
+
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.columnar;
+
+import com.hazelcast.query.impl.Comparables;
+import com.hazelcast.query.impl.Numbers;
+
+import java.util.Arrays;
+
+import static com.hazelcast.query.impl.columnar.ColumnarStore.WORD_SHIFT;
+import static com.hazelcast.query.impl.columnar.ColumnarStore.wordCount;
+
+/**
+ * Provides the {@link RowFilter row filters} evaluating the comparisons of
+ * the column values and the logical combinations of them.
+ * <p>
+ * The given values to compare against are expected to be already converted
+ * to the type of the column by the caller, following the rules of the
+ * predicates the filters are created for: the filters only reproduce the
+ * {@link Comparables#compare} and {@link Comparables#equal} logic for the
+ * numbers and never see the {@code null} values. The column rows having
+ * {@code null} values never match the comparisons.
+ */
+public final class RowFilters {
+
+    private static final RowFilter NONE = (rowCount, live) -> new long[wordCount(rowCount)];
+
+    private RowFilters() {
+    }
+
+    /**
+     * @return the filter matching no rows.
+     */
+    public static RowFilter none() {
+        return NONE;
+    }
+
+    /**
+     * Creates a filter matching the rows having the column values in the
+     * given range.
+     *
+     * @param column        the column to filter on.
+     * @param from          the lower bound or {@code null} if the range is
+     *                      left-unbounded.
+     * @param fromInclusive {@code true} if the range is left-closed.
+     * @param to            the upper bound or {@code null} if the range is
+     *                      right-unbounded.
+     * @param toInclusive   {@code true} if the range is right-closed.
+     * @return the created filter.
+     */
+    public static RowFilter range(Column column, Number from, boolean fromInclusive, Number to, boolean toInclusive) {
+        boolean floatingPoint = column.isFloatingPoint();
+        if ((from == null || isFloatingPoint(from) == floatingPoint) && (to == null || isFloatingPoint(to) == floatingPoint)) {
+            // the bounds are expressed in the same domain as the column values
+            long lower = Long.MIN_VALUE;
+            if (from != null) {
+                lower = toColumnValue(from, floatingPoint);
+                if (!fromInclusive) {
+                    if (lower == Long.MAX_VALUE) {
+                        return NONE;
+                    }
+                    ++lower;
+                }
+            }
+            long upper = Long.MAX_VALUE;
+            if (to != null) {
+                upper = toColumnValue(to, floatingPoint);
+                if (!toInclusive) {
+                    if (upper == Long.MIN_VALUE) {
+                        return NONE;
+                    }
+                    --upper;
+                }
+            }
+            return lower > upper ? NONE : new LongRangeFilter(column, lower, upper);
+        }
+        return new MixedRangeFilter(column, from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * Creates a filter matching the rows having the column values equal to
+     * one of the given values. The equality is the one of the hash lookups
+     * done on the {@link Comparables#canonicalizeForHashLookup canonicalized}
+     * values.
+     *
+     * @param column the column to filter on.
+     * @param values the values to match.
+     * @return the created filter.
+     */
+    public static RowFilter in(Column column, Number[] values) {
+        long[] longKeys = new long[values.length];
+        int longKeyCount = 0;
+        long[] doubleKeys = new long[values.length];
+        int doubleKeyCount = 0;
+        for (Number value : values) {
+            Comparable canonical = Comparables.canonicalizeForHashLookup((Comparable) value);
+            if (canonical instanceof Long) {
+                longKeys[longKeyCount++] = (Long) canonical;
+            } else {
+                doubleKeys[doubleKeyCount++] = Double.doubleToLongBits(((Number) canonical).doubleValue());
+            }
+        }
+        longKeys = Arrays.copyOf(longKeys, longKeyCount);
+        doubleKeys = Arrays.copyOf(doubleKeys, doubleKeyCount);
+        Arrays.sort(longKeys);
+        Arrays.sort(doubleKeys);
+        return new InFilter(column, longKeys, doubleKeys);
+    }
+
+    /**
+     * @return the filter matching the rows matched by all the given filters.
+     */
+    public static RowFilter and(RowFilter... filters) {
+        return (rowCount, live) -> {
+            long[] result = filters[0].evaluate(rowCount, live);
+            for (int i = 1; i < filters.length; ++i) {
+                long[] rows = filters[i].evaluate(rowCount, live);
+                for (int word = 0; word < result.length; ++word) {
+                    result[word] &= rows[word];
+                }
+            }
+            return result;
+        };
+    }
+
+    /**
+     * @return the filter matching the rows matched by any of the given
+     * filters.
+     */
+    public static RowFilter or(RowFilter... filters) {
+        return (rowCount, live) -> {
+            long[] result = filters[0].evaluate(rowCount, live);
+            for (int i = 1; i < filters.length; ++i) {
+                long[] rows = filters[i].evaluate(rowCount, live);
+                for (int word = 0; word < result.length; ++word) {
+                    result[word] |= rows[word];
+                }
+            }
+            return result;
+        };
+    }
+
+    /**
+     * @return the filter matching the live rows not matched by the given
+     * filter, including the rows having {@code null} column values.
+     */
+    public static RowFilter not(RowFilter filter) {
+        return (rowCount, live) -> {
+            long[] result = filter.evaluate(rowCount, live);
+            for (int word = 0; word < result.length; ++word) {
+                result[word] = word < live.length ? ~result[word] & live[word] : 0;
+            }
+            return result;
+        };
+    }
+
+    private static boolean isFloatingPoint(Number number) {
+        return number instanceof Double || number instanceof Float;
+    }
+
+    private static long toColumnValue(Number number, boolean floatingPoint) {
+        return floatingPoint ? Column.toSortableLong(number.doubleValue()) : number.longValue();
+    }
+
+    private static long nonNulls(long[] nulls, int word) {
+        return word < nulls.length ? ~nulls[word] : -1L;
+    }
+
+    /**
+     * Checks the column values against the range bounds expressed in the
+     * column domain: the plain long values or the sortable bits of the
+     * double values.
+     */
+    private static final class LongRangeFilter implements RowFilter {
+
+        private final Column column;
+        private final long lower;
+        private final long upper;
+
+        LongRangeFilter(Column column, long lower, long upper) {
+            this.column = column;
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        @Override
+        public long[] evaluate(int rowCount, long[] live) {
+            long[] values = column.values();
+            long[] nulls = column.nulls();
+            long lower = this.lower;
+            long upper = this.upper;
+
+            long[] result = new long[wordCount(rowCount)];
+            int count = Math.min(rowCount, values.length);
+            for (int word = 0, base = 0; base < count; ++word, base += Long.SIZE) {
+                int end = Math.min(base + Long.SIZE, count);
+                long bits = 0;
+                for (int row = base; row < end; ++row) {
+                    long value = values[row];
+                    bits |= (value >= lower && value <= upper ? 1L : 0L) << row;
+                }
+                result[word] = bits & nonNulls(nulls, word);
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * Checks the integral column values against the floating point bounds or
+     * the floating point column values against the integral bounds.
+     */
+    private static final class MixedRangeFilter implements RowFilter {
+
+        private final Column column;
+        private final Number from;
+        private final int fromOrder;
+        private final Number to;
+        private final int toOrder;
+
+        MixedRangeFilter(Column column, Number from, boolean fromInclusive, Number to, boolean toInclusive) {
+            this.column = column;
+            this.from = from;
+            this.fromOrder = fromInclusive ? 0 : 1;
+            this.to = to;
+            this.toOrder = toInclusive ? 0 : -1;
+        }
+
+        @Override
+        public long[] evaluate(int rowCount, long[] live) {
+            long[] values = column.values();
+            long[] nulls = column.nulls();
+            boolean floatingPoint = column.isFloatingPoint();
+
+            long[] result = new long[wordCount(rowCount)];
+            int count = Math.min(rowCount, values.length);
+            for (int row = 0; row < count; ++row) {
+                long value = values[row];
+                if ((from == null || compare(value, floatingPoint, from) >= fromOrder)
+                        && (to == null || compare(value, floatingPoint, to) <= toOrder)) {
+                    result[row >>> WORD_SHIFT] |= 1L << row;
+                }
+            }
+            for (int word = 0; word < result.length; ++word) {
+                result[word] &= nonNulls(nulls, word);
+            }
+            return result;
+        }
+
+        private static int compare(long value, boolean floatingPoint, Number bound) {
+            if (floatingPoint) {
+                double doubleValue = Column.fromSortableLong(value);
+                if (isFloatingPoint(bound)) {
+                    return Double.compare(doubleValue, bound.doubleValue());
+                }
+                return -Integer.signum(Numbers.compareLongWithDouble(bound.longValue(), doubleValue));
+            } else {
+                if (isFloatingPoint(bound)) {
+                    return Numbers.compareLongWithDouble(value, bound.doubleValue());
+                }
+                return Long.compare(value, bound.longValue());
+            }
+        }
+
+    }
+
+    /**
+     * Checks the canonicalized column values against the sets of the
+     * canonicalized long and double values.
+     */
+    private static final class InFilter implements RowFilter {
+
+        private final Column column;
+        private final long[] longKeys;
+        private final long[] doubleKeys;
+
+        InFilter(Column column, long[] longKeys, long[] doubleKeys) {
+            this.column = column;
+            this.longKeys = longKeys;
+            this.doubleKeys = doubleKeys;
+        }
+
+        @Override
+        public long[] evaluate(int rowCount, long[] live) {
+            long[] values = column.values();
+            long[] nulls = column.nulls();
+            boolean floatingPoint = column.isFloatingPoint();
+
+            long[] result = new long[wordCount(rowCount)];
+            int count = Math.min(rowCount, values.length);
+            for (int row = 0; row < count; ++row) {
+                long value = values[row];
+                boolean matches;
+                if (floatingPoint) {
+                    double doubleValue = Column.fromSortableLong(value);
+                    long longValue = (long) doubleValue;
+                    if (Numbers.equalDoubles(doubleValue, (double) longValue)) {
+                        matches = Arrays.binarySearch(longKeys, longValue) >= 0;
+                    } else {
+                        matches = Arrays.binarySearch(doubleKeys, Double.doubleToLongBits(doubleValue)) >= 0;
+                    }
+                } else {
+                    matches = Arrays.binarySearch(longKeys, value) >= 0;
+                }
+                if (matches) {
+                    result[row >>> WORD_SHIFT] |= 1L << row;
+                }
+            }
+            for (int word = 0; word < result.length; ++word) {
+                result[word] &= nonNulls(nulls, word);
+            }
+            return result;
+        }
+
+    }
+
+}
@@ -48,7 +48,7 @@ public abstract class AbstractPredicate<K, V> implements Predicate<K, V>, Identi
 
     String attributeName;
 
-    private transient volatile AttributeType attributeType;
+    transient volatile AttributeType attributeType;
 
     protected AbstractPredicate() {
     }
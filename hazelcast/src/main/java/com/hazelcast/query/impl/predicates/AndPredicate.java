@@ -68,11 +68,23 @@ public final class AndPredicate
 
     @Override
     public Set<QueryableEntry> filter(QueryContext queryContext) {
+        if (BitmapIndexEvaluator.canEvaluate(this, queryContext)) {
+            return BitmapIndexEvaluator.evaluate(this, queryContext);
+        }
+
         Set<QueryableEntry> smallestResultSet = null;
         List<Set<QueryableEntry>> otherResultSets = null;
         List<Predicate> unindexedPredicates = null;
 
+        AndPredicate bitmapIndexedPredicate = combineBitmapIndexedPredicates(queryContext);
+        if (bitmapIndexedPredicate != null) {
+            smallestResultSet = BitmapIndexEvaluator.evaluate(bitmapIndexedPredicate, queryContext);
+        }
+
         for (Predicate predicate : predicates) {
+            if (bitmapIndexedPredicate != null && containsIdentical(bitmapIndexedPredicate.predicates, predicate)) {
+                continue;
+            }
             if (isIndexedPredicate(predicate, queryContext)) {
                 Set<QueryableEntry> currentResultSet = ((IndexAwarePredicate) predicate).filter(queryContext);
                 if (smallestResultSet == null) {
@@ -97,6 +109,41 @@ public final class AndPredicate
         return new AndResultSet(smallestResultSet, otherResultSets, unindexedPredicates);
     }
 
+    /**
+     * Combines the sub-predicates which can be evaluated on the bitmap
+     * indexes into a single AND predicate, so they are evaluated as a bitmap
+     * intersection instead of intersecting their result sets.
+     *
+     * @return the combined predicate or {@code null} if there are less than
+     * two sub-predicates to combine.
+     */
+    private AndPredicate combineBitmapIndexedPredicates(QueryContext queryContext) {
+        List<Predicate> bitmapIndexed = null;
+        for (Predicate predicate : predicates) {
+            if (BitmapIndexEvaluator.canEvaluate(predicate, queryContext)) {
+                bitmapIndexed = initOrGetListOf(bitmapIndexed);
+                bitmapIndexed.add(predicate);
+            }
+        }
+        if (bitmapIndexed == null || bitmapIndexed.size() < 2) {
+            return null;
+        }
+
+        AndPredicate combined = new AndPredicate(bitmapIndexed.toArray(new Predicate[0]));
+        // the sub-predicates may be matched by the indexes not sharing the
+        // same entry ordinals
+        return BitmapIndexEvaluator.canEvaluate(combined, queryContext) ? combined : null;
+    }
+
+    private static boolean containsIdentical(Predicate[] predicates, Predicate predicate) {
+        for (Predicate candidate : predicates) {
+            if (candidate == predicate) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static boolean isIndexedPredicate(Predicate predicate, QueryContext queryContext) {
         return predicate instanceof IndexAwarePredicate && ((IndexAwarePredicate) predicate).isIndexed(queryContext);
     }
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.InternalIndex;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.query.impl.bitmap.EntryOrdinals;
+import com.hazelcast.query.impl.bitmap.SparseBitSet;
+
+import java.util.Set;
+
+/**
+ * Evaluates the predicate trees over the bitmap indexed attributes as
+ * operations on the bitmaps of the indexes: equality and IN predicates are
+ * answered by the bitmaps of the indexes, AND, OR and NOT predicates are
+ * answered by intersecting, merging and subtracting the bitmaps. The entries
+ * are resolved only once the final bitmap is known.
+ * <p>
+ * A tree is evaluable only if all its leaves are matched by bitmap indexes
+ * sharing the same {@link EntryOrdinals}.
+ */
+final class BitmapIndexEvaluator {
+
+    private BitmapIndexEvaluator() {
+    }
+
+    /**
+     * @return {@code true} if the given predicate can be evaluated on the
+     * bitmap indexes available in the given query context, {@code false}
+     * otherwise.
+     */
+    static boolean canEvaluate(Predicate predicate, QueryContext queryContext) {
+        return matchIndex(predicate, queryContext) != null;
+    }
+
+    /**
+     * Evaluates the given predicate on the bitmap indexes available in the
+     * given query context.
+     *
+     * @return the entries satisfying the predicate or {@code null} if the
+     * predicate can't be evaluated on the bitmap indexes.
+     */
+    static Set<QueryableEntry> evaluate(Predicate predicate, QueryContext queryContext) {
+        InternalIndex index = matchIndex(predicate, queryContext);
+        if (index == null) {
+            return null;
+        }
+
+        EntryOrdinals ordinals = index.getEntryOrdinals();
+        synchronized (ordinals) {
+            SparseBitSet bitmap = evaluate(predicate, queryContext, ordinals);
+            return index.getRecords(bitmap);
+        }
+    }
+
+    @SuppressWarnings("checkstyle:npathcomplexity")
+    private static InternalIndex matchIndex(Predicate predicate, QueryContext queryContext) {
+        if (predicate instanceof EqualPredicate || predicate instanceof InPredicate
+                || predicate instanceof NotEqualPredicate) {
+            Index index = queryContext.matchIndex(((AbstractPredicate) predicate).attributeName,
+                    QueryContext.IndexMatchHint.PREFER_UNORDERED);
+            if (index instanceof InternalIndex && ((InternalIndex) index).getEntryOrdinals() != null) {
+                return (InternalIndex) index;
+            }
+            return null;
+        } else if (predicate instanceof NotPredicate) {
+            return matchIndex(((NotPredicate) predicate).predicate, queryContext);
+        }
+
+        Predicate[] predicates;
+        if (predicate instanceof AndPredicate) {
+            predicates = ((AndPredicate) predicate).predicates;
+        } else if (predicate instanceof OrPredicate) {
+            predicates = ((OrPredicate) predicate).predicates;
+        } else {
+            return null;
+        }
+
+        InternalIndex matched = null;
+        for (Predicate subPredicate : predicates) {
+            InternalIndex index = matchIndex(subPredicate, queryContext);
+            if (index == null || matched != null && index.getEntryOrdinals() != matched.getEntryOrdinals()) {
+                return null;
+            }
+            if (matched == null) {
+                matched = index;
+            }
+        }
+        return matched;
+    }
+
+    private static SparseBitSet evaluate(Predicate predicate, QueryContext queryContext, EntryOrdinals ordinals) {
+        if (predicate instanceof EqualPredicate) {
+            EqualPredicate equalPredicate = (EqualPredicate) predicate;
+            return index(equalPredicate, queryContext).getBitmap(new Comparable[]{equalPredicate.value});
+        } else if (predicate instanceof InPredicate) {
+            InPredicate inPredicate = (InPredicate) predicate;
+            return index(inPredicate, queryContext).getBitmap(inPredicate.values);
+        } else if (predicate instanceof NotEqualPredicate) {
+            NotEqualPredicate notEqualPredicate = (NotEqualPredicate) predicate;
+            SparseBitSet result = ordinals.universe();
+            result.andNot(index(notEqualPredicate, queryContext).getBitmap(new Comparable[]{notEqualPredicate.value}));
+            return result;
+        } else if (predicate instanceof NotPredicate) {
+            SparseBitSet result = ordinals.universe();
+            result.andNot(evaluate(((NotPredicate) predicate).predicate, queryContext, ordinals));
+            return result;
+        } else if (predicate instanceof AndPredicate) {
+            Predicate[] predicates = ((AndPredicate) predicate).predicates;
+            SparseBitSet result = evaluate(predicates[0], queryContext, ordinals);
+            for (int i = 1; i < predicates.length && !result.isEmpty(); ++i) {
+                result.and(evaluate(predicates[i], queryContext, ordinals));
+            }
+            return result;
+        } else {
+            assert predicate instanceof OrPredicate;
+            Predicate[] predicates = ((OrPredicate) predicate).predicates;
+            SparseBitSet result = evaluate(predicates[0], queryContext, ordinals);
+            for (int i = 1; i < predicates.length; ++i) {
+                result.or(evaluate(predicates[i], queryContext, ordinals));
+            }
+            return result;
+        }
+    }
+
+    private static InternalIndex index(AbstractPredicate predicate, QueryContext queryContext) {
+        return (InternalIndex) queryContext.matchIndex(predicate.attributeName, QueryContext.IndexMatchHint.PREFER_UNORDERED);
+    }
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.AttributeType;
+import com.hazelcast.query.impl.columnar.Column;
+import com.hazelcast.query.impl.columnar.ColumnarStore;
+import com.hazelcast.query.impl.columnar.RowFilter;
+import com.hazelcast.query.impl.columnar.RowFilters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.query.impl.predicates.PredicateUtils.isNull;
+
+/**
+ * Compiles the predicates of the full partition scans into the {@link
+ * RowFilter row filters} over the columns of a {@link ColumnarStore}.
+ * <p>
+ * The equal, not-equal, range and IN predicates over the numeric attributes
+ * and the AND, OR and NOT combinations of them are compiled. The literals of
+ * the predicates are converted to the types of the columns exactly as the
+ * predicates convert them while being applied to the entries, so the
+ * filters select the same entries the predicates would.
+ * <p>
+ * The conjuncts of a top-level AND predicate which can't be compiled are
+ * returned as a residual predicate to be applied to the selected entries.
+ */
+public final class ColumnarPredicateCompiler {
+
+    private ColumnarPredicateCompiler() {
+    }
+
+    /**
+     * Compiles the given predicate for the given store, creating the
+     * columns for the referenced attributes if necessary.
+     *
+     * @return the compiled predicate or {@code null} if the predicate can't
+     * be compiled.
+     */
+    public static CompiledPredicate compile(Predicate predicate, ColumnarStore<?> store) {
+        if (predicate instanceof SqlPredicate) {
+            predicate = ((SqlPredicate) predicate).getPredicate();
+        }
+
+        if (!(predicate instanceof AndPredicate)) {
+            RowFilter filter = compileFilter(predicate, store);
+            return filter == null ? null : new CompiledPredicate(filter, null);
+        }
+
+        List<RowFilter> filters = new ArrayList<>();
+        List<Predicate> residuals = new ArrayList<>();
+        for (Predicate subPredicate : ((AndPredicate) predicate).predicates) {
+            RowFilter filter = compileFilter(subPredicate, store);
+            if (filter == null) {
+                residuals.add(subPredicate);
+            } else {
+                filters.add(filter);
+            }
+        }
+        if (filters.isEmpty()) {
+            return null;
+        }
+
+        RowFilter filter = filters.size() == 1 ? filters.get(0) : RowFilters.and(filters.toArray(new RowFilter[0]));
+        Predicate residual;
+        if (residuals.isEmpty()) {
+            residual = null;
+        } else if (residuals.size() == 1) {
+            residual = residuals.get(0);
+        } else {
+            residual = new AndPredicate(residuals.toArray(new Predicate[0]));
+        }
+        return new CompiledPredicate(filter, residual);
+    }
+
+    @SuppressWarnings({"checkstyle:npathcomplexity", "checkstyle:cyclomaticcomplexity", "checkstyle:returncount"})
+    private static RowFilter compileFilter(Predicate predicate, ColumnarStore<?> store) {
+        if (predicate instanceof EqualPredicate) {
+            EqualPredicate equalPredicate = (EqualPredicate) predicate;
+            if (isNull(equalPredicate.value)) {
+                return null;
+            }
+            return compileRange(equalPredicate, store, equalPredicate.value, true, equalPredicate.value, true);
+        } else if (predicate instanceof NotEqualPredicate) {
+            NotEqualPredicate notEqualPredicate = (NotEqualPredicate) predicate;
+            if (isNull(notEqualPredicate.value)) {
+                return null;
+            }
+            RowFilter filter = compileRange(notEqualPredicate, store, notEqualPredicate.value, true, notEqualPredicate.value,
+                    true);
+            return filter == null ? null : RowFilters.not(filter);
+        } else if (predicate instanceof GreaterLessPredicate || predicate instanceof BetweenPredicate
+                || predicate instanceof BoundedRangePredicate) {
+            RangePredicate rangePredicate = (RangePredicate) predicate;
+            if (rangePredicate.getFrom() == null && rangePredicate.getTo() == null) {
+                return null;
+            }
+            return compileRange((AbstractPredicate) predicate, store, rangePredicate.getFrom(),
+                    rangePredicate.isFromInclusive(), rangePredicate.getTo(), rangePredicate.isToInclusive());
+        } else if (predicate instanceof InPredicate) {
+            return compileIn((InPredicate) predicate, store);
+        } else if (predicate instanceof NotPredicate) {
+            RowFilter filter = compileFilter(((NotPredicate) predicate).predicate, store);
+            return filter == null ? null : RowFilters.not(filter);
+        }
+
+        Predicate[] predicates;
+        if (predicate instanceof AndPredicate) {
+            predicates = ((AndPredicate) predicate).predicates;
+        } else if (predicate instanceof OrPredicate) {
+            predicates = ((OrPredicate) predicate).predicates;
+        } else {
+            return null;
+        }
+        RowFilter[] filters = new RowFilter[predicates.length];
+        for (int i = 0; i < predicates.length; ++i) {
+            filters[i] = compileFilter(predicates[i], store);
+            if (filters[i] == null) {
+                return null;
+            }
+        }
+        return predicate instanceof AndPredicate ? RowFilters.and(filters) : RowFilters.or(filters);
+    }
+
+    private static RowFilter compileRange(AbstractPredicate predicate, ColumnarStore<?> store, Comparable from,
+                                          boolean fromInclusive, Comparable to, boolean toInclusive) {
+        if (from != null && isNull(from) || to != null && isNull(to)) {
+            return null;
+        }
+        Column column = store.getOrCreateColumn(predicate.attributeName);
+        if (column == null) {
+            return null;
+        }
+        if (column.getType() == null) {
+            // only nulls seen so far, they never match the comparisons
+            return RowFilters.none();
+        }
+
+        Number convertedFrom = null;
+        if (from != null) {
+            convertedFrom = convert(predicate, column, from);
+            if (convertedFrom == null) {
+                return null;
+            }
+        }
+        Number convertedTo = null;
+        if (to != null) {
+            convertedTo = convert(predicate, column, to);
+            if (convertedTo == null) {
+                return null;
+            }
+        }
+        return RowFilters.range(column, convertedFrom, fromInclusive, convertedTo, toInclusive);
+    }
+
+    private static RowFilter compileIn(InPredicate predicate, ColumnarStore<?> store) {
+        Comparable[] values = predicate.values;
+        for (Comparable value : values) {
+            if (isNull(value)) {
+                return null;
+            }
+        }
+        Column column = store.getOrCreateColumn(predicate.attributeName);
+        if (column == null) {
+            return null;
+        }
+        if (column.getType() == null) {
+            return RowFilters.none();
+        }
+
+        Number[] convertedValues = new Number[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            convertedValues[i] = convert(predicate, column, values[i]);
+            if (convertedValues[i] == null) {
+                return null;
+            }
+        }
+        return RowFilters.in(column, convertedValues);
+    }
+
+    /**
+     * Converts the given literal to the type of the given column as {@link
+     * AbstractPredicate#convert} does.
+     *
+     * @return the converted literal or {@code null} if the literal can't be
+     * converted to a number.
+     */
+    private static Number convert(AbstractPredicate predicate, Column column, Comparable value) {
+        AttributeType type = column.getType();
+        AttributeType predicateType = predicate.attributeType;
+        if (predicateType != null && predicateType != type) {
+            // the predicate already converts to another type
+            return null;
+        }
+
+        Comparable converted;
+        if (Column.numericTypeOf(value) == type) {
+            converted = value;
+        } else {
+            try {
+                converted = type.getConverter().convert(value);
+            } catch (RuntimeException e) {
+                // let the regular full scan report the failure
+                return null;
+            }
+        }
+        return converted != null && Column.numericTypeOf(converted) != null ? (Number) converted : null;
+    }
+
+    /**
+     * The predicate compiled by {@link #compile}.
+     */
+    public static final class CompiledPredicate {
+
+        private final RowFilter filter;
+        private final Predicate residual;
+
+        CompiledPredicate(RowFilter filter, Predicate residual) {
+            this.filter = filter;
+            this.residual = residual;
+        }
+
+        /**
+         * @return the row filter selecting the entries matching the compiled
+         * part of the predicate.
+         */
+        public RowFilter getFilter() {
+            return filter;
+        }
+
+        /**
+         * @return the part of the predicate to apply to the selected entries
+         * or {@code null} if the whole predicate is compiled.
+         */
+        public Predicate getResidual() {
+            return residual;
+        }
+
+    }
+
+}
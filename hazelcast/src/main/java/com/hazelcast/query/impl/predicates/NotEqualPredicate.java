@@ -21,10 +21,13 @@ import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.internal.serialization.BinaryInterface;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.impl.Comparables;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.QueryableEntry;
 
 import java.io.IOException;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import static com.hazelcast.query.impl.predicates.PredicateUtils.isNull;
 
@@ -32,7 +35,7 @@ import static com.hazelcast.query.impl.predicates.PredicateUtils.isNull;
  * Not Equal Predicate
  */
 @BinaryInterface
-public class NotEqualPredicate extends AbstractPredicate implements NegatablePredicate {
+public class NotEqualPredicate extends AbstractPredicate implements NegatablePredicate, IndexAwarePredicate {
 
     private static final long serialVersionUID = 1L;
 
@@ -52,6 +55,17 @@ public class NotEqualPredicate extends AbstractPredicate implements NegatablePre
         return !super.apply(mapEntry);
     }
 
+    @Override
+    public Set<QueryableEntry> filter(QueryContext queryContext) {
+        return BitmapIndexEvaluator.evaluate(this, queryContext);
+    }
+
+    @Override
+    public boolean isIndexed(QueryContext queryContext) {
+        // only the bitmap indexes know the entries not having a value
+        return BitmapIndexEvaluator.canEvaluate(this, queryContext);
+    }
+
     protected boolean applyForSingleAttributeValue(Comparable attributeValue) {
         // XXX: The code below performs equality check, instead of inequality.
         // The result of this check is negated in NotEqualPredicate.apply method.
@@ -22,9 +22,12 @@ import com.hazelcast.internal.serialization.BinaryInterface;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.QueryableEntry;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.Set;
 
 import static com.hazelcast.internal.serialization.impl.FactoryIdHelper.PREDICATE_DS_FACTORY_ID;
 
@@ -33,7 +36,7 @@ import static com.hazelcast.internal.serialization.impl.FactoryIdHelper.PREDICAT
  */
 @BinaryInterface
 public final class NotPredicate
-        implements Predicate, VisitablePredicate, NegatablePredicate, IdentifiedDataSerializable {
+        implements IndexAwarePredicate, VisitablePredicate, NegatablePredicate, IdentifiedDataSerializable {
 
     private static final long serialVersionUID = 1L;
 
@@ -51,6 +54,17 @@ public final class NotPredicate
         return !predicate.apply(mapEntry);
     }
 
+    @Override
+    public Set<QueryableEntry> filter(QueryContext queryContext) {
+        return BitmapIndexEvaluator.evaluate(this, queryContext);
+    }
+
+    @Override
+    public boolean isIndexed(QueryContext queryContext) {
+        // only the bitmap indexes know the entries not satisfying a predicate
+        return BitmapIndexEvaluator.canEvaluate(this, queryContext);
+    }
+
     @Override
     public void writeData(ObjectDataOutput out) throws IOException {
         out.writeObject(predicate);
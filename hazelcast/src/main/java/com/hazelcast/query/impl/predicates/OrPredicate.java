@@ -56,6 +56,10 @@ public final class OrPredicate
 
     @Override
     public Set<QueryableEntry> filter(QueryContext queryContext) {
+        if (BitmapIndexEvaluator.canEvaluate(this, queryContext)) {
+            return BitmapIndexEvaluator.evaluate(this, queryContext);
+        }
+
         List<Set<QueryableEntry>> indexedResults = new LinkedList<Set<QueryableEntry>>();
         for (Predicate predicate : predicates) {
             if (predicate instanceof IndexAwarePredicate) {
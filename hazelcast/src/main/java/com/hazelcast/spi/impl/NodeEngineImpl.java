@@ -39,6 +39,7 @@ import com.hazelcast.internal.metrics.metricsets.RuntimeMetricSet;
 import com.hazelcast.internal.metrics.metricsets.StatisticsAwareMetricsSet;
 import com.hazelcast.internal.metrics.metricsets.ThreadMetricSet;
 import com.hazelcast.internal.nio.Packet;
+import com.hazelcast.internal.nio.PacketPayloadPool;
 import com.hazelcast.internal.partition.InternalPartitionService;
 import com.hazelcast.internal.partition.MigrationInfo;
 import com.hazelcast.internal.serialization.SerializationService;
@@ -87,6 +88,9 @@ import static com.hazelcast.internal.util.EmptyStatement.ignore;
 import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
 import static com.hazelcast.spi.properties.ClusterProperty.BACKPRESSURE_ENABLED;
 import static com.hazelcast.spi.properties.ClusterProperty.CONCURRENT_WINDOW_MS;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_INBOUND_PAYLOAD_POOL_CAPACITY;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_INBOUND_PAYLOAD_POOL_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_INBOUND_PAYLOAD_POOL_LEAK_DETECTION;
 import static java.lang.System.currentTimeMillis;
 
 /**
@@ -120,6 +124,7 @@ public class NodeEngineImpl implements NodeEngine {
     private final Diagnostics diagnostics;
     private final SplitBrainMergePolicyProvider splitBrainMergePolicyProvider;
     private final ConcurrencyDetection concurrencyDetection;
+    private final PacketPayloadPool packetPayloadPool;
 
     @SuppressWarnings("checkstyle:executablestatementcount")
     public NodeEngineImpl(Node node) {
@@ -127,6 +132,7 @@ public class NodeEngineImpl implements NodeEngine {
         try {
             this.serializationService = node.getSerializationService();
             this.concurrencyDetection = newConcurrencyDetection();
+            this.packetPayloadPool = newPacketPayloadPool();
             this.loggingService = node.loggingService;
             this.logger = node.getLogger(NodeEngine.class.getName());
             this.metricsRegistry = newMetricRegistry(node);
@@ -181,6 +187,15 @@ public class NodeEngineImpl implements NodeEngine {
         }
     }
 
+    private PacketPayloadPool newPacketPayloadPool() {
+        HazelcastProperties properties = node.getProperties();
+        return new PacketPayloadPool(
+                properties.getBoolean(IO_INBOUND_PAYLOAD_POOL_ENABLED),
+                properties.getInteger(IO_INBOUND_PAYLOAD_POOL_CAPACITY),
+                properties.getBoolean(IO_INBOUND_PAYLOAD_POOL_LEAK_DETECTION),
+                node.getLogger(PacketPayloadPool.class));
+    }
+
     private MetricsRegistryImpl newMetricRegistry(Node node) {
         return new MetricsRegistryImpl(getHazelcastInstance().getName(), node.getLogger(MetricsRegistry.class),
                 memberMetricsLevel(node.getProperties()));
@@ -222,6 +237,7 @@ public class NodeEngineImpl implements NodeEngine {
         }
 
         metricsRegistry.registerStaticMetrics(node.getNodeExtension().getMemoryStats(), "memory");
+        metricsRegistry.registerStaticMetrics(packetPayloadPool, "tcp.payloadPool");
         metricsRegistry.provideMetrics(operationService, proxyService, eventService, operationParker);
 
         serviceManager.start();
@@ -241,6 +257,10 @@ public class NodeEngineImpl implements NodeEngine {
         return packetDispatcher;
     }
 
+    public PacketPayloadPool getPacketPayloadPool() {
+        return packetPayloadPool;
+    }
+
     public Diagnostics getDiagnostics() {
         return diagnostics;
     }
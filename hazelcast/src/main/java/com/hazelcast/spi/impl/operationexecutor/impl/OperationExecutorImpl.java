@@ -20,6 +20,8 @@ import com.hazelcast.instance.impl.NodeExtension;
 import com.hazelcast.internal.metrics.StaticMetricsProvider;
 import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.ThreadAffinity;
+import com.hazelcast.internal.util.concurrent.MPSCArrayQueue;
 import com.hazelcast.internal.util.concurrent.MPSCQueue;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.LoggingService;
@@ -41,16 +43,19 @@ import com.hazelcast.internal.util.concurrent.IdleStrategy;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.util.BitSet;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.spi.impl.operationservice.impl.InboundResponseHandlerSupplier.getIdleStrategy;
 import static com.hazelcast.spi.properties.ClusterProperty.GENERIC_OPERATION_THREAD_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.GENERIC_OPERATION_WORK_STEALING_ENABLED;
 import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
 import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_OPERATION_THREAD_COUNT;
 import static com.hazelcast.spi.properties.ClusterProperty.PRIORITY_GENERIC_OPERATION_THREAD_COUNT;
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static com.hazelcast.internal.util.ThreadAffinity.newThreadAffinity;
 import static com.hazelcast.internal.util.ThreadUtil.createThreadPoolName;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -79,6 +84,12 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 public final class OperationExecutorImpl implements OperationExecutor, StaticMetricsProvider {
     private static final HazelcastProperty IDLE_STRATEGY
             = new HazelcastProperty("hazelcast.operation.partitionthread.idlestrategy", "block");
+    // the capacity of the ring buffer backed queues of the partition threads; 0 for the unbounded linked queues
+    private static final HazelcastProperty QUEUE_CAPACITY
+            = new HazelcastProperty("hazelcast.operation.partitionthread.queue.capacity", 0);
+    // the CPUs the partition threads are pinned to, see ThreadAffinity for the syntax
+    private static final HazelcastProperty THREAD_AFFINITY
+            = new HazelcastProperty("hazelcast.operation.partitionthread.affinity");
     private static final int TERMINATION_TIMEOUT_SECONDS = 3;
 
     private final ILogger logger;
@@ -87,8 +98,7 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
     private final PartitionOperationThread[] partitionThreads;
     private final OperationRunner[] partitionOperationRunners;
 
-    private final OperationQueue genericQueue
-            = new OperationQueueImpl(new LinkedBlockingQueue<Object>(), new LinkedBlockingQueue<Object>());
+    private final OperationQueue genericQueue;
 
     // all operations that are not specific for a partition will be executed here, e.g. heartbeat or map.size()
     private final GenericOperationThread[] genericThreads;
@@ -115,6 +125,7 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
 
         this.priorityThreadCount = properties.getInteger(PRIORITY_GENERIC_OPERATION_THREAD_COUNT);
         this.genericOperationRunners = initGenericOperationRunners(properties, runnerFactory);
+        this.genericQueue = initGenericQueue(properties);
         this.genericThreads = initGenericThreads(hzName, nodeExtension, configClassLoader);
     }
 
@@ -137,25 +148,42 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
         return operationRunners;
     }
 
+    private OperationQueue initGenericQueue(HazelcastProperties properties) {
+        int normalThreadCount = genericOperationRunners.length - priorityThreadCount;
+        if (properties.getBoolean(GENERIC_OPERATION_WORK_STEALING_ENABLED) && normalThreadCount > 0) {
+            return new WorkStealingOperationQueue(normalThreadCount);
+        }
+        return new OperationQueueImpl(new LinkedBlockingQueue<Object>(), new LinkedBlockingQueue<Object>());
+    }
+
     private PartitionOperationThread[] initPartitionThreads(HazelcastProperties properties, String hzName,
                                                             NodeExtension nodeExtension, ClassLoader configClassLoader) {
 
         int threadCount = properties.getInteger(PARTITION_OPERATION_THREAD_COUNT);
 
         IdleStrategy idleStrategy = getIdleStrategy(properties, IDLE_STRATEGY);
+        int queueCapacity = properties.getInteger(QUEUE_CAPACITY);
+        ThreadAffinity threadAffinity = newThreadAffinity(properties.getString(THREAD_AFFINITY));
         PartitionOperationThread[] threads = new PartitionOperationThread[threadCount];
         for (int threadId = 0; threadId < threads.length; threadId++) {
             String threadName = createThreadPoolName(hzName, "partition-operation") + threadId;
             // the normalQueue will be a blocking queue. We don't want to idle, because there are many operation threads.
-            MPSCQueue<Object> normalQueue = new MPSCQueue<Object>(idleStrategy);
+            BlockingQueue<Object> normalQueue = queueCapacity > 0
+                    ? new MPSCArrayQueue<Object>(queueCapacity, idleStrategy)
+                    : new MPSCQueue<Object>(idleStrategy);
 
             OperationQueue operationQueue = new OperationQueueImpl(normalQueue, new ConcurrentLinkedQueue<Object>());
 
             PartitionOperationThread partitionThread = new PartitionOperationThread(threadName, threadId, operationQueue, logger,
                     nodeExtension, partitionOperationRunners, configClassLoader);
+            partitionThread.setThreadAffinity(threadAffinity.getCpus(threadId));
 
             threads[threadId] = partitionThread;
-            normalQueue.setConsumerThread(partitionThread);
+            if (normalQueue instanceof MPSCArrayQueue) {
+                ((MPSCArrayQueue<Object>) normalQueue).setConsumerThread(partitionThread);
+            } else {
+                ((MPSCQueue<Object>) normalQueue).setConsumerThread(partitionThread);
+            }
         }
 
         // we need to assign the PartitionOperationThreads to all OperationRunners they own
@@ -187,8 +215,19 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
             String threadName = createThreadPoolName(hzName, baseName) + threadId;
             OperationRunner operationRunner = genericOperationRunners[threadIndex];
 
+            // with work stealing, every normal generic thread consumes through its own view of the generic queue
+            WorkStealingOperationQueue.Consumer consumer = null;
+            OperationQueue queue = genericQueue;
+            if (!priority && genericQueue instanceof WorkStealingOperationQueue) {
+                consumer = ((WorkStealingOperationQueue) genericQueue).consumer(threadIndex - priorityThreadCount);
+                queue = consumer;
+            }
+
             GenericOperationThread operationThread = new GenericOperationThread(
-                    threadName, threadIndex, genericQueue, logger, nodeExtension, operationRunner, priority, configClassLoader);
+                    threadName, threadIndex, queue, logger, nodeExtension, operationRunner, priority, configClassLoader);
+            if (consumer != null) {
+                consumer.setConsumerThread(operationThread);
+            }
 
             threads[threadIndex] = operationThread;
             operationRunner.setCurrentThread(operationThread);
@@ -212,6 +251,7 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
         registry.provideMetrics(adHocOperationRunner);
         registry.provideMetrics((Object[]) genericOperationRunners);
         registry.provideMetrics((Object[]) partitionOperationRunners);
+        registry.provideMetrics(genericQueue);
     }
 
     @SuppressFBWarnings("EI_EXPOSE_REP")
@@ -498,7 +538,8 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
     @Override
     public void start() {
         logger.info("Starting " + partitionThreads.length + " partition threads and "
-                + genericThreads.length + " generic threads (" + priorityThreadCount + " dedicated for priority tasks)");
+                + genericThreads.length + " generic threads (" + priorityThreadCount + " dedicated for priority tasks"
+                + (genericQueue instanceof WorkStealingOperationQueue ? ", work stealing enabled" : "") + ")");
         startAll(partitionThreads);
         startAll(genericThreads);
     }
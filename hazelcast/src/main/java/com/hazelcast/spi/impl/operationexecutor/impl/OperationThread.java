@@ -29,10 +29,15 @@ import com.hazelcast.spi.impl.PartitionSpecificRunnable;
 import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
 import com.hazelcast.spi.impl.operationservice.Operation;
 
+import java.util.BitSet;
 import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.instance.impl.OutOfMemoryErrorDispatcher.inspectOutOfMemoryError;
+import static com.hazelcast.internal.metrics.ProbeUnit.MS;
+import static com.hazelcast.internal.metrics.ProbeUnit.PERCENT;
+import static com.hazelcast.internal.util.ThreadAffinity.pinCurrentThread;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * The OperationThread is responsible for processing operations, packets
@@ -46,6 +51,8 @@ import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
  */
 public abstract class OperationThread extends HazelcastManagedThread implements StaticMetricsProvider {
 
+    private static final double PERCENTAGE = 100d;
+
     final int threadId;
     final OperationQueue queue;
     // This field wil only be accessed by the thread itself when doing 'self'
@@ -68,6 +75,12 @@ public abstract class OperationThread extends HazelcastManagedThread implements
     private final SwCounter errorCount = newSwCounter();
     @Probe
     private final SwCounter completedOperationBatchCount = newSwCounter();
+    private final SwCounter busyTimeNanos = newSwCounter();
+
+    private volatile long startNanos;
+
+    // the CPUs this thread pins itself to, null if the thread isn't pinned
+    private BitSet threadAffinity;
 
     private final boolean priority;
     private final NodeExtension nodeExtension;
@@ -94,11 +107,22 @@ public abstract class OperationThread extends HazelcastManagedThread implements
         return threadId;
     }
 
+    /**
+     * Sets the CPUs this thread pins itself to when it starts.
+     *
+     * @param threadAffinity the CPUs or {@code null} if the thread isn't pinned
+     */
+    void setThreadAffinity(BitSet threadAffinity) {
+        this.threadAffinity = threadAffinity;
+    }
+
     public abstract OperationRunner operationRunner(int partitionId);
 
     @Override
     public final void run() {
         nodeExtension.onThreadStart(this);
+        pinCurrentThread(threadAffinity, logger);
+        startNanos = System.nanoTime();
         try {
             while (!shutdown) {
                 Object task;
@@ -108,7 +132,9 @@ public abstract class OperationThread extends HazelcastManagedThread implements
                     continue;
                 }
 
+                long taskStartNanos = System.nanoTime();
                 process(task);
+                busyTimeNanos.inc(System.nanoTime() - taskStartNanos);
             }
         } catch (Throwable t) {
             inspectOutOfMemoryError(t);
@@ -186,6 +212,25 @@ public abstract class OperationThread extends HazelcastManagedThread implements
         }
     }
 
+    @Probe(unit = MS)
+    private long busyTime() {
+        return NANOSECONDS.toMillis(busyTimeNanos.get());
+    }
+
+    /**
+     * Returns the percentage of the time since the start of this thread it
+     * spent processing the tasks, the rest was spent waiting for them.
+     */
+    @Probe(unit = PERCENT)
+    private double utilization() {
+        long startNanos = this.startNanos;
+        if (startNanos == 0) {
+            return 0;
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return elapsedNanos <= 0 ? 0 : Math.min(PERCENTAGE, PERCENTAGE * busyTimeNanos.get() / elapsedNanos);
+    }
+
     @Override
     public void provideStaticMetrics(MetricsRegistry registry) {
         MetricDescriptor descriptor = registry
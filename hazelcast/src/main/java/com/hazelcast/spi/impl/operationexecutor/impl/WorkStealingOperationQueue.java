@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.internal.metrics.MetricDescriptor;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.metrics.StaticMetricsProvider;
+import com.hazelcast.internal.util.counters.SwCounter;
+
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+
+/**
+ * The {@link OperationQueue} shared by the generic operation threads when
+ * work stealing is enabled.
+ * <p>
+ * Instead of a single blocking queue all the generic threads contend on,
+ * every non-priority generic thread consumes through its own {@link
+ * #consumer consumer} owning a lock-free deque. A task added by a generic
+ * thread goes to the deque of that thread, a task added by any other thread
+ * goes to the deque of an idle consumer if there is one, or to the deque of
+ * a random consumer otherwise. A consumer which runs out of its own tasks
+ * steals the oldest tasks of the other consumers before it parks, so the
+ * tasks piling up behind a long running operation are picked up by the
+ * other threads.
+ * <p>
+ * The priority tasks are kept in a shared queue. They are taken by the
+ * priority generic threads directly from this queue and checked by the
+ * consumers before their deques, like the {@link OperationQueueImpl} does.
+ * <p>
+ * The ordering between the normal tasks is FIFO per deque only.
+ */
+public final class WorkStealingOperationQueue implements OperationQueue, StaticMetricsProvider {
+
+    private final BlockingQueue<Object> priorityQueue = new LinkedBlockingQueue<>();
+    private final Consumer[] consumers;
+    private final Queue<Consumer> idleConsumers = new ConcurrentLinkedQueue<>();
+
+    public WorkStealingOperationQueue(int consumerCount) {
+        checkPositive(consumerCount, "consumerCount should be positive");
+        this.consumers = new Consumer[consumerCount];
+        for (int i = 0; i < consumerCount; i++) {
+            consumers[i] = new Consumer();
+        }
+    }
+
+    /**
+     * Returns the consumer with the given index.
+     * <p>
+     * Each consumer should be used by a single generic thread which is set
+     * as its {@link Consumer#setConsumerThread consumer thread} before the
+     * first task is added to this queue.
+     */
+    public Consumer consumer(int index) {
+        return consumers[index];
+    }
+
+    @Override
+    public void add(Object task, boolean priority) {
+        checkNotNull(task, "task can't be null");
+
+        if (priority) {
+            priorityQueue.add(task);
+        } else {
+            Consumer target = ownConsumer();
+            if (target == null) {
+                target = pollIdleConsumer();
+                if (target != null) {
+                    target.deque.addLast(task);
+                    LockSupport.unpark(target.thread);
+                    return;
+                }
+                target = consumers[ThreadLocalRandom.current().nextInt(consumers.length)];
+            }
+            target.deque.addLast(task);
+        }
+
+        // the owner of the deque may be busy, let an idle consumer steal the task
+        Consumer idle = pollIdleConsumer();
+        if (idle != null) {
+            LockSupport.unpark(idle.thread);
+        }
+    }
+
+    /**
+     * Takes a priority task, blocking until one is available. Only the
+     * priority tasks may be taken from this queue directly, the normal tasks
+     * are taken through the {@link #consumer consumers}.
+     */
+    @Override
+    public Object take(boolean priorityOnly) throws InterruptedException {
+        if (!priorityOnly) {
+            throw new UnsupportedOperationException("Normal tasks are taken through the consumers");
+        }
+        return priorityQueue.take();
+    }
+
+    @Override
+    public int normalSize() {
+        int size = 0;
+        for (Consumer consumer : consumers) {
+            size += consumer.deque.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int prioritySize() {
+        return priorityQueue.size();
+    }
+
+    @Override
+    public int size() {
+        return normalSize() + prioritySize();
+    }
+
+    @Override
+    public void provideStaticMetrics(MetricsRegistry registry) {
+        for (Consumer consumer : consumers) {
+            if (consumer.thread == null) {
+                continue;
+            }
+            MetricDescriptor descriptor = registry
+                    .newMetricDescriptor()
+                    .withPrefix("operation.thread")
+                    .withDiscriminator("thread", consumer.thread.getName());
+            registry.registerStaticMetrics(descriptor, consumer);
+        }
+    }
+
+    private Consumer ownConsumer() {
+        Thread currentThread = Thread.currentThread();
+        if (currentThread instanceof GenericOperationThread) {
+            OperationQueue queue = ((GenericOperationThread) currentThread).queue;
+            if (queue instanceof Consumer && ((Consumer) queue).owner() == this) {
+                return (Consumer) queue;
+            }
+        }
+        return null;
+    }
+
+    private Consumer pollIdleConsumer() {
+        for (; ; ) {
+            Consumer consumer = idleConsumers.poll();
+            if (consumer == null || consumer.idle.compareAndSet(true, false)) {
+                return consumer;
+            }
+            // a stale entry of a consumer which found a task on its own
+        }
+    }
+
+    /**
+     * The view of the {@link WorkStealingOperationQueue} used by a single
+     * generic thread: its own deque plus the shared priority queue and the
+     * deques of the other consumers to steal from.
+     */
+    public final class Consumer implements OperationQueue {
+
+        @Probe
+        private final SwCounter stolenCount = newSwCounter();
+        @Probe
+        private final SwCounter parkCount = newSwCounter();
+
+        private final ConcurrentLinkedDeque<Object> deque = new ConcurrentLinkedDeque<>();
+        private final AtomicBoolean idle = new AtomicBoolean();
+        private volatile Thread thread;
+
+        private Consumer() {
+        }
+
+        public void setConsumerThread(Thread thread) {
+            this.thread = checkNotNull(thread, "thread can't be null");
+        }
+
+        WorkStealingOperationQueue owner() {
+            return WorkStealingOperationQueue.this;
+        }
+
+        @Override
+        public void add(Object task, boolean priority) {
+            WorkStealingOperationQueue.this.add(task, priority);
+        }
+
+        /**
+         * Takes a task from the priority queue, the own deque of this
+         * consumer or from the deques of the other consumers, in that order.
+         * Parks if there are no tasks at all until a task is added.
+         * <p>
+         * Should only be called by the consumer thread.
+         */
+        @Override
+        public Object take(boolean priorityOnly) throws InterruptedException {
+            if (priorityOnly) {
+                return priorityQueue.take();
+            }
+
+            for (; ; ) {
+                Object task = poll();
+                if (task != null) {
+                    return task;
+                }
+
+                // Announce the idleness before checking the queues once more,
+                // so a task added after the check wakes up this consumer.
+                idle.set(true);
+                idleConsumers.add(this);
+                task = poll();
+                if (task != null) {
+                    cancelIdle();
+                    return task;
+                }
+
+                parkCount.inc();
+                while (idle.get()) {
+                    LockSupport.park(this);
+                    if (Thread.interrupted()) {
+                        cancelIdle();
+                        throw new InterruptedException();
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int normalSize() {
+            return deque.size();
+        }
+
+        @Override
+        public int prioritySize() {
+            return priorityQueue.size();
+        }
+
+        @Override
+        public int size() {
+            return normalSize() + prioritySize();
+        }
+
+        @Probe(name = "localQueueSize")
+        private int localQueueSize() {
+            return deque.size();
+        }
+
+        private Object poll() {
+            Object task = priorityQueue.poll();
+            if (task != null) {
+                return task;
+            }
+
+            task = deque.pollFirst();
+            if (task != null) {
+                return task;
+            }
+
+            // start at a random victim, so the thieves don't pile up on the same deque
+            int start = ThreadLocalRandom.current().nextInt(consumers.length);
+            for (int i = 0; i < consumers.length; i++) {
+                Consumer victim = consumers[(start + i) % consumers.length];
+                if (victim == this) {
+                    continue;
+                }
+                task = victim.deque.pollFirst();
+                if (task != null) {
+                    stolenCount.inc();
+                    return task;
+                }
+            }
+            return null;
+        }
+
+        private void cancelIdle() {
+            if (idle.compareAndSet(true, false)) {
+                idleConsumers.remove(this);
+            }
+        }
+
+    }
+
+}
@@ -440,6 +440,8 @@ class OperationRunnerImpl extends OperationRunner implements StaticMetricsProvid
             if (publishCurrentTask) {
                 currentTask = null;
             }
+            // the operation has been deserialized, so a pooled payload can be reused
+            packet.release();
         }
     }
 
@@ -45,6 +45,7 @@ import java.util.Map;
 import java.util.function.Function;
 
 import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -97,6 +98,23 @@ public final class ClusterProperty {
     public static final HazelcastProperty PRIORITY_GENERIC_OPERATION_THREAD_COUNT
             = new HazelcastProperty("hazelcast.operation.priority.generic.thread.count", 1);
 
+    /**
+     * Enables work stealing between the generic operation threads.
+     * <p>
+     * By default all the generic operation threads take their tasks from a
+     * single shared queue. With work stealing enabled, every generic thread
+     * has a deque of its own and the idle threads steal the tasks from the
+     * deques of the busy ones. This reduces the contention on the queue when
+     * there are many generic threads and many small generic operations.
+     * <p>
+     * The partition operations are not affected: they are always executed
+     * by the partition thread owning the partition.
+     * <p>
+     * The default is false.
+     */
+    public static final HazelcastProperty GENERIC_OPERATION_WORK_STEALING_ENABLED
+            = new HazelcastProperty("hazelcast.operation.generic.workstealing.enabled", false);
+
     /**
      * The number of threads that process responses.
      * <p>
@@ -278,6 +296,26 @@ public final class ClusterProperty {
     public static final HazelcastProperty IO_OUTPUT_THREAD_COUNT
             = new HazelcastProperty("hazelcast.io.output.thread.count", IO_THREAD_COUNT);
 
+    /**
+     * The CPUs the socket input threads are pinned to, e.g. {@code 0,2-3,[4-7]}.
+     * See {@link com.hazelcast.internal.util.ThreadAffinity ThreadAffinity} for
+     * the syntax. Combined with the {@code selectnow} selector mode this
+     * dedicates cores to the busy spinning input threads.
+     * <p>
+     * By default the input threads are not pinned.
+     */
+    public static final HazelcastProperty IO_INPUT_THREAD_AFFINITY
+            = new HazelcastProperty("hazelcast.io.input.thread.affinity");
+
+    /**
+     * The CPUs the socket output threads are pinned to, see
+     * {@link #IO_INPUT_THREAD_AFFINITY}.
+     * <p>
+     * By default the output threads are not pinned.
+     */
+    public static final HazelcastProperty IO_OUTPUT_THREAD_AFFINITY
+            = new HazelcastProperty("hazelcast.io.output.thread.affinity");
+
     /**
      * Optimization that allows sending of packets over the network to be done on the calling thread if the
      * conditions are right. This can reduce latency and increase performance for low threaded environments.
@@ -287,6 +325,70 @@ public final class ClusterProperty {
     public static final HazelcastProperty IO_WRITE_THROUGH_ENABLED
             = new HazelcastProperty("hazelcast.io.write.through", true);
 
+    /**
+     * The time in microseconds an output thread waits for more packets to be
+     * queued on a connection before writing the pending bytes to the socket.
+     * Packets arriving within this window share the same socket write, which
+     * reduces the number of system calls under a high rate of small packets at
+     * the cost of a slightly higher latency. The output thread doesn't block
+     * during the window; it keeps serving its other connections. When it has
+     * nothing else to do, it waits on its selector for the whole milliseconds
+     * of the window and polls the selector without blocking for the rest of it,
+     * so windows shorter than a millisecond keep the output thread busy.
+     *
+     * The default is 0, which disables the write coalescing.
+     */
+    public static final HazelcastProperty IO_WRITE_COALESCING_WINDOW_MICROS
+            = new HazelcastProperty("hazelcast.io.write.coalescing.window.micros", 0, MICROSECONDS);
+
+    /**
+     * The maximum number of packets sharing a socket write when the
+     * {@link #IO_WRITE_COALESCING_WINDOW_MICROS write coalescing} is enabled.
+     * Once a write carries this many packets, the pending bytes are written
+     * without waiting for the rest of the window.
+     */
+    public static final HazelcastProperty IO_WRITE_COALESCING_MAX_FRAMES
+            = new HazelcastProperty("hazelcast.io.write.coalescing.max.frames", 64);
+
+    /**
+     * The packet size in bytes from which the payload of a packet is written to
+     * the socket directly from the packet with a gathering write, instead of
+     * being copied into the send buffer first. Large packets, such as the ones
+     * carrying big map values or migration data, skip a copy this way.
+     *
+     * The default is -1, which disables the gathering writes.
+     */
+    public static final HazelcastProperty IO_WRITE_GATHERING_THRESHOLD
+            = new HazelcastProperty("hazelcast.io.write.gathering.threshold", -1);
+
+    /**
+     * Enables the pooling of the payloads of the inbound operation packets.
+     * Instead of allocating a new byte array for every inbound operation, the
+     * payload is taken from a pool and returned to the pool once the operation
+     * has been deserialized. This reduces the allocation rate on members
+     * receiving many operations of similar sizes. The pool exposes its
+     * allocation and reuse counts as {@code tcp.payloadPool} metrics, which are
+     * also collected when the pooling is disabled.
+     */
+    public static final HazelcastProperty IO_INBOUND_PAYLOAD_POOL_ENABLED
+            = new HazelcastProperty("hazelcast.io.inbound.payload.pool.enabled", false);
+
+    /**
+     * The maximum number of bytes held by the inbound payload pool. Payloads
+     * released while the pool is full are left to the garbage collector.
+     */
+    public static final HazelcastProperty IO_INBOUND_PAYLOAD_POOL_CAPACITY
+            = new HazelcastProperty("hazelcast.io.inbound.payload.pool.capacity", 64 * 1024 * 1024);
+
+    /**
+     * Enables the leak detection of the inbound payload pool: pooled packets
+     * that are garbage collected without being released are logged and counted
+     * in the {@code tcp.payloadPool.leakCount} metric. Meant for debugging
+     * since it tracks every pooled packet.
+     */
+    public static final HazelcastProperty IO_INBOUND_PAYLOAD_POOL_LEAK_DETECTION
+            = new HazelcastProperty("hazelcast.io.inbound.payload.pool.leak.detection", false);
+
     /**
      * Property needed for concurrency detection so that write through can be done correctly.
      * This property sets the window the concurrency detection will signalling
@@ -431,6 +533,47 @@ public final class ClusterProperty {
     public static final HazelcastProperty SOCKET_CLIENT_BUFFER_DIRECT
             = new HazelcastProperty("hazelcast.socket.client.buffer.direct", false);
 
+    /**
+     * The number of connections this member opens to every other member.
+     * The packets of a partition are always sent over the same connection,
+     * so their order is preserved, while the packets of different partitions
+     * are spread over the connections and processed by different I/O threads.
+     * The packets not bound to a partition use the first connection. If one
+     * of the connections fails, all of them are closed and opened again, as a
+     * single connection would be.
+     * <p>
+     * Members striping the connections can talk to the members that don't.
+     * Increase it when the traffic between a pair of members is limited by a
+     * single I/O thread; it makes sense only together with multiple I/O
+     * threads. The default is 1, no striping.
+     */
+    public static final HazelcastProperty MEMBER_CONNECTION_STRIPE_COUNT
+            = new HazelcastProperty("hazelcast.member.connection.stripe.count", 1);
+
+    /**
+     * If the connections of this member should compress the streams in both
+     * directions. The compression is negotiated when a connection is
+     * established: the opening member or Java client asks for it with the
+     * protocol bytes and the accepting member answers, agreeing only if this
+     * property is enabled on its side as well. Otherwise, the connection
+     * isn't compressed, so the members and the clients with a different
+     * setting can still talk to each other.
+     * <p>
+     * A member of an older version, which doesn't answer the compression
+     * request, closes the connection; the connections opened to it don't ask
+     * for the compression for a while then.
+     */
+    public static final HazelcastProperty SOCKET_COMPRESSION_ENABLED
+            = new HazelcastProperty("hazelcast.socket.compression.enabled", false);
+
+    /**
+     * The minimum number of bytes a batch of the outbound packets needs to
+     * have to get compressed on a compressed connection. The smaller batches
+     * are sent as they are since they don't pay off the compression cost.
+     */
+    public static final HazelcastProperty SOCKET_COMPRESSION_THRESHOLD
+            = new HazelcastProperty("hazelcast.socket.compression.threshold", 1024);
+
     public static final HazelcastProperty SOCKET_LINGER_SECONDS
             = new HazelcastProperty("hazelcast.socket.linger.seconds", -1, SECONDS);
     public static final HazelcastProperty SOCKET_CONNECT_TIMEOUT_SECONDS
@@ -560,6 +703,21 @@ public final class ClusterProperty {
     public static final HazelcastProperty MAP_EVICTION_BATCH_SIZE
             = new HazelcastProperty("hazelcast.map.eviction.batch.size", 1);
 
+    /**
+     * Enables the compact record storage for IMaps with {@code BINARY}
+     * in-memory-format. The compact storage keeps keys, values and record
+     * metadata in flat arrays instead of one record object and one hash
+     * map node per entry, which considerably lowers the per-entry heap
+     * overhead for maps with many small entries. In exchange, the records
+     * of such maps can only be accessed from partition threads, so their
+     * queries are run on partition threads and their indexes are kept per
+     * partition, like for {@code NATIVE} maps.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty MAP_COMPACT_RECORD_STORAGE_ENABLED
+            = new HazelcastProperty("hazelcast.map.compact.record.storage.enabled", false);
+
     /**
      * XML and system property for setting the hot restart required free space.
      * By default, hot restart requires at least 15% free HD space.
@@ -784,6 +942,27 @@ public final class ClusterProperty {
     public static final HazelcastProperty QUERY_PREDICATE_PARALLEL_EVALUATION
             = new HazelcastProperty("hazelcast.query.predicate.parallel.evaluation", false);
 
+    /**
+     * Keeps a columnar shadow copy of the numeric attributes referenced by
+     * the full-scan queries for every partition of {@code BINARY} and {@code
+     * OBJECT} maps. The equal, not-equal, range and IN predicates over such
+     * attributes, and the AND, OR and NOT combinations of them, are then
+     * evaluated in tight loops over primitive arrays instead of extracting
+     * the attribute from every entry, only the matching entries are touched.
+     * <p>
+     * A column is created by the first query referencing the attribute and
+     * it's updated on every following mutation of the partition, so the
+     * feature trades some write throughput and memory for faster scans. The
+     * first column of a partition is created on its partition thread, the
+     * queries use the regular full scan on the partition until it's ready.
+     * The queries which can't be evaluated on the columns, and the paging
+     * queries, use the regular full scan.
+     * <p>
+     * The default is false.
+     */
+    public static final HazelcastProperty QUERY_COLUMNAR_SCAN_ENABLED
+            = new HazelcastProperty("hazelcast.query.columnar.scan.enabled", false);
+
     /**
      * Run aggregation accumulation for multiple entries in parallel.
      * <p>
@@ -898,6 +1077,62 @@ public final class ClusterProperty {
     public static final HazelcastProperty INDEX_COPY_BEHAVIOR
             = new HazelcastProperty("hazelcast.index.copy.behavior", IndexCopyBehavior.COPY_ON_READ.toString());
 
+    /**
+     * Keeps the values of sorted indexes in B+trees instead of skip lists.
+     * The leaves of a B+tree hold many values in contiguous arrays, so range
+     * queries and composite index prefix scans walk memory sequentially, and
+     * the index reads do not block on the index lock unless they race with
+     * an index update.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty INDEX_BPLUS_TREE_ENABLED
+            = new HazelcastProperty("hazelcast.index.bplustree.enabled", false);
+
+    /**
+     * The directory under which the map and cache event journals keep their
+     * events in memory-mapped, append-only segment files. When set, every
+     * journal event is also appended to the segments of its partition and
+     * the events which were overwritten in the in-memory ringbuffer are still
+     * readable from the segments, until removed by the retention limits
+     * {@link #EVENT_JOURNAL_MAPPED_RETENTION_SECONDS} and
+     * {@link #EVENT_JOURNAL_MAPPED_MAX_SIZE_MB}. The segments don't survive
+     * member restarts and don't migrate with the partitions.
+     * <p>
+     * Default: empty, the journals are kept only in memory
+     */
+    public static final HazelcastProperty EVENT_JOURNAL_MAPPED_DIRECTORY
+            = new HazelcastProperty("hazelcast.event.journal.mapped.directory", "");
+
+    /**
+     * The size of a single memory-mapped event journal segment file, in
+     * megabytes. An event larger than the segment is kept only in memory.
+     * <p>
+     * Default: 4
+     */
+    public static final HazelcastProperty EVENT_JOURNAL_MAPPED_SEGMENT_SIZE_MB
+            = new HazelcastProperty("hazelcast.event.journal.mapped.segment.size.mb", 4);
+
+    /**
+     * The time after which the events of a memory-mapped event journal
+     * segment are removed. A segment is removed as a whole once its newest
+     * event is older than the retention time. 0 means no time limit.
+     * <p>
+     * Default: 0
+     */
+    public static final HazelcastProperty EVENT_JOURNAL_MAPPED_RETENTION_SECONDS
+            = new HazelcastProperty("hazelcast.event.journal.mapped.retention.seconds", 0, SECONDS);
+
+    /**
+     * The maximum size of the memory-mapped segments of a single event
+     * journal partition, in megabytes. The oldest segments are removed
+     * once the limit is exceeded.
+     * <p>
+     * Default: 64
+     */
+    public static final HazelcastProperty EVENT_JOURNAL_MAPPED_MAX_SIZE_MB
+            = new HazelcastProperty("hazelcast.event.journal.mapped.max.size.mb", 64);
+
     /**
      * Forces the JCache provider, which can have values client or server, to force the provider type.
      * If not provided, the provider will be client or server, whichever is found on the classpath first respectively.
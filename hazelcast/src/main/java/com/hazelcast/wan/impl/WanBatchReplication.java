@@ -0,0 +1,700 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.wan.impl;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.config.AbstractWanPublisherConfig;
+import com.hazelcast.config.InvalidConfigurationException;
+import com.hazelcast.config.WanAcknowledgeType;
+import com.hazelcast.config.WanBatchReplicationPublisherConfig;
+import com.hazelcast.config.WanQueueFullBehavior;
+import com.hazelcast.config.WanReplicationConfig;
+import com.hazelcast.instance.impl.Node;
+import com.hazelcast.internal.metrics.DynamicMetricsProvider;
+import com.hazelcast.internal.metrics.MetricDescriptor;
+import com.hazelcast.internal.metrics.MetricsCollectionContext;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.monitor.LocalWanPublisherStats;
+import com.hazelcast.internal.monitor.impl.LocalWanPublisherStatsImpl;
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.internal.partition.InternalPartitionService;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.util.AddressUtil;
+import com.hazelcast.internal.util.AddressUtil.AddressHolder;
+import com.hazelcast.internal.util.Clock;
+import com.hazelcast.internal.util.TriTuple;
+import com.hazelcast.internal.util.concurrent.BackoffIdleStrategy;
+import com.hazelcast.internal.util.concurrent.IdleStrategy;
+import com.hazelcast.internal.util.counters.MwCounter;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.spi.impl.operationservice.OperationService;
+import com.hazelcast.wan.DistributedServiceWanEventCounters;
+import com.hazelcast.wan.WanPublisherState;
+import com.hazelcast.wan.WanReplicationEvent;
+import com.hazelcast.wan.WanReplicationQueueFullException;
+
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+import static com.hazelcast.config.NetworkConfig.DEFAULT_PORT;
+import static com.hazelcast.config.WanQueueFullBehavior.DISCARD_AFTER_MUTATION;
+import static com.hazelcast.config.WanQueueFullBehavior.THROW_EXCEPTION_ONLY_IF_REPLICATION_ACTIVE;
+import static com.hazelcast.internal.util.ThreadUtil.createThreadName;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+import static com.hazelcast.wan.WanPublisherState.PAUSED;
+import static com.hazelcast.wan.WanPublisherState.REPLICATING;
+import static com.hazelcast.wan.WanPublisherState.STOPPED;
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.Integer.parseInt;
+
+/**
+ * Open source implementation of the WAN publisher configured with
+ * {@link WanBatchReplicationPublisherConfig}.
+ * <p>
+ * WAN events are put into per-partition queues of this member. A sender
+ * thread assigns each partition to one of the configured target endpoints
+ * and drains the queues into batches of at most
+ * {@link WanBatchReplicationPublisherConfig#getBatchSize()} events. A batch
+ * is sent when enough events are queued for its target endpoint or when
+ * {@link WanBatchReplicationPublisherConfig#getBatchMaxDelayMillis()} passes
+ * since the previous batch sent to it. If key-based coalescing is enabled
+ * via {@link WanBatchReplicationPublisherConfig#isSnapshotEnabled()}, only
+ * the latest event of a key is kept in a batch. Batches are serialized and
+ * compressed before they are sent with a {@link WanPutBatchOperation}.
+ * <p>
+ * Multiple batches can be in flight to a target endpoint, but a partition
+ * is included in a new batch only after its previous batch is acknowledged.
+ * Events of a failed batch are sent again in the next batch of their
+ * partition, so the events of a partition are replicated in order. With
+ * {@link WanAcknowledgeType#ACK_ON_RECEIPT}, the target member keeps this
+ * order by applying the events of a partition on a single thread.
+ * <p>
+ * The queued events are neither backed up nor migrated. If a member
+ * leaves the cluster, the events that have not been replicated yet are
+ * lost.
+ */
+@SuppressWarnings({"checkstyle:methodcount", "checkstyle:classfanoutcomplexity", "checkstyle:classdataabstractioncoupling"})
+public class WanBatchReplication implements InternalWanReplicationPublisher<Object>, DynamicMetricsProvider {
+
+    /**
+     * Publisher property to enable / disable compression of the WAN event
+     * batches. Compression is enabled by default.
+     *
+     * @see AbstractWanPublisherConfig#getProperties()
+     */
+    public static final String COMPRESSION_ENABLED = "compression.enabled";
+
+    /**
+     * Publisher property to set the maximum number of unacknowledged
+     * batches sent to a single target endpoint.
+     *
+     * @see AbstractWanPublisherConfig#getProperties()
+     */
+    public static final String MAX_IN_FLIGHT_BATCHES_PER_ENDPOINT = "max.in.flight.batches.per.endpoint";
+
+    /**
+     * Default maximum number of unacknowledged batches sent to a single
+     * target endpoint.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_BATCHES_PER_ENDPOINT = 4;
+
+    private static final long FAILED_ENDPOINT_BACKOFF_MILLIS = 1000;
+
+    private final Node node;
+    private final ILogger logger;
+    private final AtomicInteger outboundQueueSize = new AtomicInteger();
+    private final AtomicInteger inFlightBatchCount = new AtomicInteger();
+    private final LocalWanPublisherStatsImpl stats = new LocalWanPublisherStatsImpl();
+
+    @Probe
+    private final MwCounter sentBatchCount = newMwCounter();
+    @Probe
+    private final MwCounter sentEventCount = newMwCounter();
+    @Probe
+    private final MwCounter failedBatchCount = newMwCounter();
+    @Probe
+    private final MwCounter coalescedEventCount = newMwCounter();
+    @Probe
+    private final MwCounter droppedEventCount = newMwCounter();
+    @Probe
+    private final MwCounter sentBytes = newMwCounter();
+    @Probe
+    private final MwCounter uncompressedBytes = newMwCounter();
+    @Probe
+    private volatile long lastBatchSize;
+    @Probe
+    private volatile long replicationLagMillis;
+
+    private String wanReplicationName;
+    private String wanPublisherId;
+    private String targetClusterName;
+    private int batchSize;
+    private long batchMaxDelayMillis;
+    private long responseTimeoutMillis;
+    private WanAcknowledgeType acknowledgeType;
+    private int queueCapacity;
+    private WanQueueFullBehavior queueFullBehavior;
+    private boolean coalescingEnabled;
+    private boolean compressionEnabled;
+    private int maxInFlightBatchesPerEndpoint;
+    private int maxInFlightBatches;
+    private long idleMinParkNs;
+    private long idleMaxParkNs;
+    private PartitionEventQueue[] partitionQueues;
+    private TargetEndpoint[] endpoints;
+    private Thread senderThread;
+    private volatile WanPublisherState state;
+    private volatile boolean running;
+
+    public WanBatchReplication(Node node) {
+        this.node = node;
+        this.logger = node.getLogger(getClass());
+    }
+
+    @Override
+    public void init(WanReplicationConfig wanReplicationConfig, AbstractWanPublisherConfig publisherConfig) {
+        WanBatchReplicationPublisherConfig config = (WanBatchReplicationPublisherConfig) publisherConfig;
+        this.wanReplicationName = wanReplicationConfig.getName();
+        this.wanPublisherId = WanReplicationServiceImpl.getWanPublisherId(config);
+        this.targetClusterName = config.getClusterName();
+        this.batchSize = config.getBatchSize();
+        this.batchMaxDelayMillis = config.getBatchMaxDelayMillis();
+        this.responseTimeoutMillis = config.getResponseTimeoutMillis();
+        this.acknowledgeType = config.getAcknowledgeType();
+        this.queueCapacity = config.getQueueCapacity();
+        this.queueFullBehavior = config.getQueueFullBehavior();
+        this.coalescingEnabled = config.isSnapshotEnabled();
+        this.idleMinParkNs = config.getIdleMinParkNs();
+        this.idleMaxParkNs = config.getIdleMaxParkNs();
+        this.state = config.getInitialPublisherState();
+
+        Map<String, Comparable> properties = config.getProperties();
+        Comparable compression = properties.get(COMPRESSION_ENABLED);
+        this.compressionEnabled = compression == null || parseBoolean(compression.toString());
+        Comparable maxInFlightPerEndpoint = properties.get(MAX_IN_FLIGHT_BATCHES_PER_ENDPOINT);
+        this.maxInFlightBatchesPerEndpoint = maxInFlightPerEndpoint != null
+                ? parseInt(maxInFlightPerEndpoint.toString()) : DEFAULT_MAX_IN_FLIGHT_BATCHES_PER_ENDPOINT;
+        // values less than 2 mean that the concurrency is bounded only per target endpoint
+        this.maxInFlightBatches = config.getMaxConcurrentInvocations() > 1
+                ? config.getMaxConcurrentInvocations() : Integer.MAX_VALUE;
+
+        this.endpoints = createTargetEndpoints(config);
+        int partitionCount = node.getPartitionService().getPartitionCount();
+        this.partitionQueues = new PartitionEventQueue[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitionQueues[i] = new PartitionEventQueue(i);
+        }
+
+        node.getNodeEngine().getMetricsRegistry().registerDynamicMetricsProvider(this);
+
+        this.running = true;
+        this.senderThread = new Thread(this::runSender,
+                createThreadName(node.hazelcastInstance.getName(), "wan-batch-" + wanReplicationName + "-" + wanPublisherId));
+        senderThread.setDaemon(true);
+        senderThread.start();
+    }
+
+    private TargetEndpoint[] createTargetEndpoints(WanBatchReplicationPublisherConfig config) {
+        List<TargetEndpoint> targetEndpoints = new ArrayList<>();
+        for (String endpoint : config.getTargetEndpoints().split(",")) {
+            endpoint = endpoint.trim();
+            if (endpoint.isEmpty() || targetEndpoints.size() == config.getMaxTargetEndpoints()) {
+                continue;
+            }
+
+            AddressHolder addressHolder = AddressUtil.getAddressHolder(endpoint, DEFAULT_PORT);
+            try {
+                targetEndpoints.add(new TargetEndpoint(new Address(addressHolder.getAddress(), addressHolder.getPort())));
+            } catch (UnknownHostException e) {
+                throw new InvalidConfigurationException("Invalid WAN target endpoint: " + endpoint + " for publisher "
+                        + wanPublisherId + " of WAN replication " + wanReplicationName);
+            }
+        }
+
+        if (targetEndpoints.isEmpty()) {
+            throw new InvalidConfigurationException("Target endpoints must be configured for publisher " + wanPublisherId
+                    + " of WAN replication " + wanReplicationName + ". Discovery of target endpoints is not supported.");
+        }
+
+        return targetEndpoints.toArray(new TargetEndpoint[0]);
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        node.getNodeEngine().getMetricsRegistry().deregisterDynamicMetricsProvider(this);
+        if (senderThread != null) {
+            LockSupport.unpark(senderThread);
+        }
+    }
+
+    @Override
+    public void doPrepublicationChecks() {
+        if (queueFullBehavior == DISCARD_AFTER_MUTATION
+                || (queueFullBehavior == THROW_EXCEPTION_ONLY_IF_REPLICATION_ACTIVE && state != REPLICATING)) {
+            return;
+        }
+
+        if (outboundQueueSize.get() >= queueCapacity) {
+            throw new WanReplicationQueueFullException("WAN replication queue of publisher " + wanPublisherId
+                    + " of WAN replication " + wanReplicationName + " is full. Queue capacity: " + queueCapacity);
+        }
+    }
+
+    @Override
+    public void publishReplicationEvent(WanReplicationEvent event) {
+        InternalWanReplicationEvent wanEvent = (InternalWanReplicationEvent) event;
+        if (state == STOPPED || !reserveQueueSlot()) {
+            droppedEventCount.inc();
+            getSentEventCounters(wanEvent.getServiceName()).incrementDropped(wanEvent.getObjectName());
+            return;
+        }
+
+        int partitionId = node.getPartitionService().getPartitionId(wanEvent.getKey());
+        partitionQueues[partitionId].offer(new QueuedEvent(wanEvent, Clock.currentTimeMillis()));
+    }
+
+    @Override
+    public void publishReplicationEventBackup(WanReplicationEvent event) {
+        // queued events are not backed up
+    }
+
+    @Override
+    public void republishReplicationEvent(WanReplicationEvent event) {
+        publishReplicationEvent(event);
+    }
+
+    private boolean reserveQueueSlot() {
+        for (;;) {
+            int size = outboundQueueSize.get();
+            if (size >= queueCapacity) {
+                return false;
+            }
+            if (outboundQueueSize.compareAndSet(size, size + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void pause() {
+        state = PAUSED;
+    }
+
+    @Override
+    public void stop() {
+        state = STOPPED;
+    }
+
+    @Override
+    public void resume() {
+        state = REPLICATING;
+        LockSupport.unpark(senderThread);
+    }
+
+    @Override
+    public LocalWanPublisherStats getStats() {
+        stats.setState(state);
+        stats.setOutboundQueueSize(outboundQueueSize.get());
+        stats.setSentMapEventCounter(getSentEventCounters(MapService.SERVICE_NAME).getEventCounterMap());
+        return stats;
+    }
+
+    @Probe(name = "outboundQueueSize")
+    public int getOutboundQueueSize() {
+        return outboundQueueSize.get();
+    }
+
+    @Probe(name = "inFlightBatchCount")
+    public int getInFlightBatchCount() {
+        return inFlightBatchCount.get();
+    }
+
+    @Override
+    public void provideDynamicMetrics(MetricDescriptor descriptor, MetricsCollectionContext context) {
+        MetricDescriptor publisherDescriptor = descriptor
+                .copy()
+                .withPrefix("wan")
+                .withDiscriminator("replication", wanReplicationName)
+                .withTag("publisherId", wanPublisherId);
+        context.collect(publisherDescriptor, this);
+    }
+
+    public long getSentBatchCount() {
+        return sentBatchCount.get();
+    }
+
+    public long getSentEventCount() {
+        return sentEventCount.get();
+    }
+
+    public long getCoalescedEventCount() {
+        return coalescedEventCount.get();
+    }
+
+    public long getDroppedEventCount() {
+        return droppedEventCount.get();
+    }
+
+    public long getReplicationLagMillis() {
+        return replicationLagMillis;
+    }
+
+    @Override
+    public int removeWanEvents() {
+        int removed = 0;
+        for (PartitionEventQueue queue : partitionQueues) {
+            removed += queue.removeIf(event -> true, Integer.MAX_VALUE);
+        }
+        return removed;
+    }
+
+    @Override
+    public int removeWanEvents(int partitionId, String serviceName, String objectName, int count) {
+        return partitionQueues[partitionId].removeIf(event -> serviceName.equals(event.getServiceName())
+                && objectName.equals(event.getObjectName()), count);
+    }
+
+    @Override
+    public void destroyMapData(String mapName) {
+        for (PartitionEventQueue queue : partitionQueues) {
+            queue.removeIf(event -> MapService.SERVICE_NAME.equals(event.getServiceName())
+                    && mapName.equals(event.getObjectName()), Integer.MAX_VALUE);
+        }
+    }
+
+    private DistributedServiceWanEventCounters getSentEventCounters(String serviceName) {
+        return node.getNodeEngine().getWanReplicationService()
+                   .getSentEventCounters(wanReplicationName, wanPublisherId, serviceName);
+    }
+
+    private void runSender() {
+        IdleStrategy idleStrategy = new BackoffIdleStrategy(0, 0, idleMinParkNs, idleMaxParkNs);
+        long idleCount = 0;
+        while (running) {
+            try {
+                if (state == REPLICATING && sendBatches()) {
+                    idleCount = 0;
+                } else {
+                    idleStrategy.idle(idleCount++);
+                }
+            } catch (Throwable t) {
+                logger.severe("Error while sending WAN event batches of publisher " + wanPublisherId, t);
+                idleStrategy.idle(idleCount++);
+            }
+        }
+    }
+
+    /**
+     * Sends the batches that are ready to the target endpoints which have
+     * room for another in-flight batch.
+     *
+     * @return true if any batch is sent
+     */
+    private boolean sendBatches() {
+        long now = Clock.currentTimeMillis();
+        boolean sent = false;
+        for (TargetEndpoint endpoint : endpoints) {
+            while (endpoint.inFlightBatchCount.get() < maxInFlightBatchesPerEndpoint
+                    && inFlightBatchCount.get() < maxInFlightBatches) {
+                Batch batch = drainBatch(endpoint, now);
+                if (batch == null) {
+                    break;
+                }
+
+                send(endpoint, batch, now);
+                sent = true;
+            }
+        }
+
+        return sent;
+    }
+
+    /**
+     * Returns the target endpoint of the given partition. If the endpoint
+     * has failed recently, another available endpoint is returned.
+     */
+    private TargetEndpoint getTargetEndpoint(int partitionId, long now) {
+        int index = partitionId % endpoints.length;
+        for (int i = 0; i < endpoints.length; i++) {
+            TargetEndpoint endpoint = endpoints[(index + i) % endpoints.length];
+            if (endpoint.isAvailable(now)) {
+                return endpoint;
+            }
+        }
+
+        return null;
+    }
+
+    private Batch drainBatch(TargetEndpoint endpoint, long now) {
+        int pendingEventCount = 0;
+        for (PartitionEventQueue queue : partitionQueues) {
+            if (!queue.inFlight && queue.size() > 0 && getTargetEndpoint(queue.partitionId, now) == endpoint) {
+                pendingEventCount += queue.size();
+            }
+        }
+
+        if (pendingEventCount == 0
+                || (pendingEventCount < batchSize && now - endpoint.lastBatchTimeMillis < batchMaxDelayMillis)) {
+            return null;
+        }
+
+        Batch batch = new Batch();
+        int partitionCount = partitionQueues.length;
+        for (int i = 0; i < partitionCount && batch.eventCount < batchSize; i++) {
+            // start from a different partition each time to not starve the others
+            PartitionEventQueue queue = partitionQueues[(endpoint.nextPartitionId + i) % partitionCount];
+            if (queue.inFlight || queue.size() == 0 || getTargetEndpoint(queue.partitionId, now) != endpoint) {
+                continue;
+            }
+
+            int remaining = batchSize - batch.eventCount;
+            if (batch.eventCount > 0 && queue.unacknowledged.size() > remaining) {
+                // the events of a failed batch are always sent together
+                continue;
+            }
+
+            batch.add(queue, drain(queue, remaining));
+        }
+
+        endpoint.nextPartitionId = (endpoint.nextPartitionId + 1) % partitionCount;
+        return batch.eventCount > 0 ? batch : null;
+    }
+
+    private List<QueuedEvent> drain(PartitionEventQueue queue, int maxEventCount) {
+        List<QueuedEvent> events = new ArrayList<>(queue.unacknowledged);
+        QueuedEvent event;
+        while (events.size() < maxEventCount && (event = queue.poll()) != null) {
+            events.add(event);
+        }
+
+        if (coalescingEnabled) {
+            events = coalesce(events);
+        }
+
+        queue.unacknowledged = events;
+        queue.inFlight = true;
+        return events;
+    }
+
+    /**
+     * Keeps only the latest event of each key, in the order of their latest
+     * events.
+     */
+    private List<QueuedEvent> coalesce(List<QueuedEvent> events) {
+        if (events.size() < 2) {
+            return events;
+        }
+
+        Map<Object, QueuedEvent> latestEvents = new LinkedHashMap<>();
+        for (QueuedEvent event : events) {
+            InternalWanReplicationEvent wanEvent = event.event;
+            Object key = TriTuple.of(wanEvent.getServiceName(), wanEvent.getObjectName(), wanEvent.getKey());
+            QueuedEvent previous = latestEvents.remove(key);
+            if (previous != null) {
+                // the lag of the latest event is measured from its oldest coalesced event
+                event.enqueueTimeMillis = Math.min(event.enqueueTimeMillis, previous.enqueueTimeMillis);
+            }
+            latestEvents.put(key, event);
+        }
+
+        int coalesced = events.size() - latestEvents.size();
+        if (coalesced == 0) {
+            return events;
+        }
+
+        coalescedEventCount.inc(coalesced);
+        outboundQueueSize.addAndGet(-coalesced);
+        return new ArrayList<>(latestEvents.values());
+    }
+
+    private void send(TargetEndpoint endpoint, Batch batch, long now) {
+        endpoint.lastBatchTimeMillis = now;
+        endpoint.inFlightBatchCount.incrementAndGet();
+        inFlightBatchCount.incrementAndGet();
+        try {
+            InternalSerializationService serializationService = node.getSerializationService();
+            byte[] bytes = serializationService.toData(new WanEventBatch(batch.wanEvents())).toByteArray();
+            uncompressedBytes.inc(bytes.length);
+            if (compressionEnabled) {
+                bytes = IOUtil.compress(bytes);
+            }
+            sentBytes.inc(bytes.length);
+
+            WanPutBatchOperation operation = new WanPutBatchOperation(targetClusterName, acknowledgeType,
+                    compressionEnabled, bytes);
+            OperationService operationService = node.getNodeEngine().getOperationService();
+            operationService.createInvocationBuilder(WanReplicationService.SERVICE_NAME, operation, endpoint.address)
+                            .setTryCount(1)
+                            .setCallTimeout(responseTimeoutMillis)
+                            .invoke()
+                            .whenComplete((response, t) -> onBatchCompleted(endpoint, batch, t));
+        } catch (Throwable t) {
+            onBatchCompleted(endpoint, batch, t);
+        }
+    }
+
+    private void onBatchCompleted(TargetEndpoint endpoint, Batch batch, Throwable failure) {
+        long now = Clock.currentTimeMillis();
+        if (failure == null) {
+            long oldestEnqueueTimeMillis = now;
+            for (List<QueuedEvent> events : batch.events) {
+                for (QueuedEvent event : events) {
+                    event.event.incrementEventCount(getSentEventCounters(event.event.getServiceName()));
+                    stats.incrementPublishedEventCount(now - event.enqueueTimeMillis);
+                    oldestEnqueueTimeMillis = Math.min(oldestEnqueueTimeMillis, event.enqueueTimeMillis);
+                }
+            }
+
+            for (PartitionEventQueue queue : batch.queues) {
+                queue.unacknowledged = Collections.emptyList();
+            }
+
+            outboundQueueSize.addAndGet(-batch.eventCount);
+            sentBatchCount.inc();
+            sentEventCount.inc(batch.eventCount);
+            lastBatchSize = batch.eventCount;
+            replicationLagMillis = now - oldestEnqueueTimeMillis;
+            stats.setConnected(true);
+        } else {
+            // the events will be sent again in the next batch of their partitions
+            failedBatchCount.inc();
+            endpoint.retryTimeMillis = now + FAILED_ENDPOINT_BACKOFF_MILLIS;
+            stats.setConnected(false);
+            logger.warning("Could not send WAN event batch of publisher " + wanPublisherId + " to " + endpoint.address
+                    + ". Cause: " + failure);
+        }
+
+        for (PartitionEventQueue queue : batch.queues) {
+            queue.inFlight = false;
+        }
+        endpoint.inFlightBatchCount.decrementAndGet();
+        inFlightBatchCount.decrementAndGet();
+    }
+
+    private static final class QueuedEvent {
+        final InternalWanReplicationEvent event;
+        long enqueueTimeMillis;
+
+        QueuedEvent(InternalWanReplicationEvent event, long enqueueTimeMillis) {
+            this.event = event;
+            this.enqueueTimeMillis = enqueueTimeMillis;
+        }
+    }
+
+    /**
+     * WAN events of a partition. Events are offered by the partition thread
+     * and polled by the sender thread. The events of the last batch are kept
+     * until the batch is acknowledged, so that they are sent again if the
+     * batch fails.
+     */
+    private final class PartitionEventQueue {
+        final int partitionId;
+        final Queue<QueuedEvent> events = new ConcurrentLinkedQueue<>();
+        final AtomicInteger eventCount = new AtomicInteger();
+        // written by the sender thread before a batch is sent, and by the
+        // response thread before inFlight is cleared
+        List<QueuedEvent> unacknowledged = Collections.emptyList();
+        volatile boolean inFlight;
+
+        PartitionEventQueue(int partitionId) {
+            this.partitionId = partitionId;
+        }
+
+        void offer(QueuedEvent event) {
+            events.offer(event);
+            eventCount.incrementAndGet();
+        }
+
+        QueuedEvent poll() {
+            QueuedEvent event = events.poll();
+            if (event != null) {
+                eventCount.decrementAndGet();
+            }
+            return event;
+        }
+
+        int size() {
+            return eventCount.get() + unacknowledged.size();
+        }
+
+        int removeIf(Predicate<InternalWanReplicationEvent> predicate, int maxCount) {
+            int removed = 0;
+            Iterator<QueuedEvent> it = events.iterator();
+            while (removed < maxCount && it.hasNext()) {
+                if (predicate.test(it.next().event)) {
+                    it.remove();
+                    eventCount.decrementAndGet();
+                    removed++;
+                }
+            }
+
+            outboundQueueSize.addAndGet(-removed);
+            return removed;
+        }
+    }
+
+    private static final class TargetEndpoint {
+        final Address address;
+        final AtomicInteger inFlightBatchCount = new AtomicInteger();
+        // accessed only by the sender thread
+        long lastBatchTimeMillis;
+        int nextPartitionId;
+        volatile long retryTimeMillis;
+
+        TargetEndpoint(Address address) {
+            this.address = address;
+        }
+
+        boolean isAvailable(long now) {
+            return retryTimeMillis <= now;
+        }
+    }
+
+    private static final class Batch {
+        final List<PartitionEventQueue> queues = new ArrayList<>();
+        final List<List<QueuedEvent>> events = new ArrayList<>();
+        int eventCount;
+
+        void add(PartitionEventQueue queue, List<QueuedEvent> partitionEvents) {
+            queues.add(queue);
+            events.add(partitionEvents);
+            eventCount += partitionEvents.size();
+        }
+
+        List<InternalWanReplicationEvent> wanEvents() {
+            List<InternalWanReplicationEvent> wanEvents = new ArrayList<>(eventCount);
+            for (List<QueuedEvent> partitionEvents : events) {
+                for (QueuedEvent event : partitionEvents) {
+                    wanEvents.add(event.event);
+                }
+            }
+            return wanEvents;
+        }
+    }
+}
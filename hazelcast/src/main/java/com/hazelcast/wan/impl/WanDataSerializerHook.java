@@ -36,6 +36,8 @@ public class WanDataSerializerHook implements DataSerializerHook {
     public static final int MAP_REPLICATION_UPDATE = 0;
     public static final int MAP_REPLICATION_REMOVE = 1;
     public static final int WAN_MAP_ENTRY_VIEW = 2;
+    public static final int WAN_EVENT_BATCH = 3;
+    public static final int WAN_PUT_BATCH_OPERATION = 4;
 
     @Override
     public int getFactoryId() {
@@ -52,6 +54,10 @@ public class WanDataSerializerHook implements DataSerializerHook {
                     return new MapReplicationRemove();
                 case WAN_MAP_ENTRY_VIEW:
                     return new WanMapEntryView<>();
+                case WAN_EVENT_BATCH:
+                    return new WanEventBatch();
+                case WAN_PUT_BATCH_OPERATION:
+                    return new WanPutBatchOperation();
                 default:
                     throw new IllegalArgumentException("Unknown type-id: " + typeId);
             }
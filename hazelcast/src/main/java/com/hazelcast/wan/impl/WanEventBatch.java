@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.wan.impl;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Container for the WAN replication events sent to a target cluster
+ * member in a single {@link WanPutBatchOperation}.
+ */
+public class WanEventBatch implements IdentifiedDataSerializable {
+
+    private List<InternalWanReplicationEvent> events;
+
+    public WanEventBatch() {
+    }
+
+    public WanEventBatch(List<InternalWanReplicationEvent> events) {
+        this.events = events;
+    }
+
+    public List<InternalWanReplicationEvent> getEvents() {
+        return events;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(events.size());
+        for (InternalWanReplicationEvent event : events) {
+            out.writeObject(event);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            InternalWanReplicationEvent event = in.readObject();
+            events.add(event);
+        }
+    }
+
+    @Override
+    public int getFactoryId() {
+        return WanDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return WanDataSerializerHook.WAN_EVENT_BATCH;
+    }
+}
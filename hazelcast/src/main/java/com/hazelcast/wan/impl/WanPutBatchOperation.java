@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.wan.impl;
+
+import com.hazelcast.config.WanAcknowledgeType;
+import com.hazelcast.internal.cluster.impl.operations.WanReplicationOperation;
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.internal.partition.IPartitionService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.internal.services.ReplicationSupportingService;
+import com.hazelcast.internal.util.executor.StripedExecutor;
+import com.hazelcast.internal.util.executor.StripedRunnable;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.operationservice.CallStatus;
+import com.hazelcast.spi.impl.operationservice.Offload;
+import com.hazelcast.spi.impl.operationservice.Operation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.config.WanAcknowledgeType.ACK_ON_RECEIPT;
+
+/**
+ * Sent by {@link WanBatchReplication} to a member of the target cluster
+ * to apply a batch of WAN replication events. The events are applied in
+ * the order of the batch via the {@link ReplicationSupportingService} of
+ * their services on an executor thread, since applying an event waits for
+ * the partition operation it creates.
+ * <p>
+ * With {@link WanAcknowledgeType#ACK_ON_RECEIPT}, the events are grouped
+ * by partition and handed over to the event applier of the
+ * {@link WanReplicationServiceImpl} before the response is sent. The events
+ * of a partition are applied by a single thread in the order they were
+ * received, so the next batch of the same partition, which is sent only
+ * after this one is acknowledged, is applied after this one.
+ */
+public class WanPutBatchOperation extends Operation implements WanReplicationOperation, IdentifiedDataSerializable {
+
+    static final String EXECUTOR_NAME = "hz:wan";
+
+    private String clusterName;
+    private WanAcknowledgeType acknowledgeType;
+    private boolean compressed;
+    private byte[] payload;
+
+    public WanPutBatchOperation() {
+    }
+
+    /**
+     * @param clusterName     name of the target cluster
+     * @param acknowledgeType when the target member acknowledges the batch
+     * @param compressed      if the payload is compressed with {@link IOUtil#compress(byte[])}
+     * @param payload         serialized {@link WanEventBatch}
+     */
+    public WanPutBatchOperation(String clusterName, WanAcknowledgeType acknowledgeType, boolean compressed, byte[] payload) {
+        this.clusterName = clusterName;
+        this.acknowledgeType = acknowledgeType;
+        this.compressed = compressed;
+        this.payload = payload;
+    }
+
+    @Override
+    public CallStatus call() throws Exception {
+        String localClusterName = getNodeEngine().getConfig().getClusterName();
+        if (!localClusterName.equals(clusterName)) {
+            throw new IllegalStateException("WAN event batch is sent to cluster: " + clusterName
+                    + " but received by cluster: " + localClusterName);
+        }
+
+        return new OffloadImpl();
+    }
+
+    private final class OffloadImpl extends Offload {
+        private OffloadImpl() {
+            super(WanPutBatchOperation.this);
+        }
+
+        @Override
+        public void start() {
+            executionService.execute(EXECUTOR_NAME, WanPutBatchOperation.this::applyEvents);
+        }
+    }
+
+    private void applyEvents() {
+        try {
+            NodeEngine nodeEngine = getNodeEngine();
+            byte[] bytes = compressed ? IOUtil.decompress(payload) : payload;
+            WanEventBatch batch = nodeEngine.getSerializationService().toObject(new HeapData(bytes));
+            if (acknowledgeType == ACK_ON_RECEIPT) {
+                dispatchEvents(batch.getEvents());
+            } else {
+                applyEvents(batch.getEvents());
+            }
+            sendResponse(Boolean.TRUE);
+        } catch (Throwable t) {
+            sendResponse(t);
+        }
+    }
+
+    private void dispatchEvents(List<InternalWanReplicationEvent> events) {
+        NodeEngine nodeEngine = getNodeEngine();
+        IPartitionService partitionService = nodeEngine.getPartitionService();
+        Map<Integer, List<InternalWanReplicationEvent>> eventsPerPartition = new LinkedHashMap<>();
+        for (InternalWanReplicationEvent event : events) {
+            eventsPerPartition.computeIfAbsent(partitionService.getPartitionId(event.getKey()), k -> new ArrayList<>())
+                              .add(event);
+        }
+
+        // a rejected batch is retried by the source cluster as a whole,
+        // the partitions dispatched before the rejection apply it again in order
+        StripedExecutor eventApplier = ((WanReplicationServiceImpl) nodeEngine.getWanReplicationService()).getEventApplier();
+        for (Map.Entry<Integer, List<InternalWanReplicationEvent>> entry : eventsPerPartition.entrySet()) {
+            eventApplier.execute(new PartitionEventsTask(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private void applyEvents(List<InternalWanReplicationEvent> events) {
+        NodeEngine nodeEngine = getNodeEngine();
+        for (InternalWanReplicationEvent event : events) {
+            ReplicationSupportingService service = nodeEngine.getService(event.getServiceName());
+            service.onReplicationEvent(event, acknowledgeType);
+        }
+    }
+
+    private final class PartitionEventsTask implements StripedRunnable {
+        private final int partitionId;
+        private final List<InternalWanReplicationEvent> events;
+
+        private PartitionEventsTask(int partitionId, List<InternalWanReplicationEvent> events) {
+            this.partitionId = partitionId;
+            this.events = events;
+        }
+
+        @Override
+        public void run() {
+            try {
+                applyEvents(events);
+            } catch (Throwable t) {
+                getLogger().warning("Could not apply WAN events of partition " + partitionId, t);
+            }
+        }
+
+        @Override
+        public int getKey() {
+            return partitionId;
+        }
+    }
+
+    @Override
+    public String getServiceName() {
+        return WanReplicationService.SERVICE_NAME;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeUTF(clusterName);
+        out.writeInt(acknowledgeType.getId());
+        out.writeBoolean(compressed);
+        out.writeByteArray(payload);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        clusterName = in.readUTF();
+        acknowledgeType = WanAcknowledgeType.getById(in.readInt());
+        compressed = in.readBoolean();
+        payload = in.readByteArray();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return WanDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return WanDataSerializerHook.WAN_PUT_BATCH_OPERATION;
+    }
+}
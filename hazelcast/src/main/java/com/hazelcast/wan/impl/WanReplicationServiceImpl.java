@@ -28,6 +28,8 @@ import com.hazelcast.internal.management.events.WanSyncIgnoredEvent;
 import com.hazelcast.internal.monitor.LocalWanStats;
 import com.hazelcast.internal.monitor.WanSyncState;
 import com.hazelcast.internal.util.ConstructorFunction;
+import com.hazelcast.internal.util.RuntimeAvailableProcessors;
+import com.hazelcast.internal.util.executor.StripedExecutor;
 import com.hazelcast.version.Version;
 import com.hazelcast.wan.DistributedServiceWanEventCounters;
 import com.hazelcast.wan.WanReplicationPublisher;
@@ -39,20 +41,27 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
 
 import static com.hazelcast.internal.nio.ClassLoaderUtil.getOrCreate;
 import static com.hazelcast.internal.util.ConcurrencyUtil.getOrPutSynchronized;
 import static com.hazelcast.internal.util.MapUtil.createConcurrentHashMap;
 import static com.hazelcast.internal.util.MapUtil.createHashMap;
 import static com.hazelcast.internal.util.StringUtil.isNullOrEmptyAfterTrim;
+import static com.hazelcast.internal.util.ThreadUtil.createThreadName;
 
 /**
  * Open source implementation of the {@link WanReplicationService}
  */
 public class WanReplicationServiceImpl implements WanReplicationService {
 
+    private static final int EVENT_APPLIER_QUEUE_CAPACITY = 100000;
+
     private final Node node;
 
+    /** Applies the received WAN events of a partition in the order they are received */
+    private final StripedExecutor eventApplier;
+
     /** WAN event counters for all services and only received events */
     private final WanEventCounters receivedWanEventCounters = new WanEventCounters();
 
@@ -69,18 +78,24 @@ public class WanReplicationServiceImpl implements WanReplicationService {
                     if (wanReplicationConfig == null) {
                         return null;
                     }
-                    List<WanBatchReplicationPublisherConfig> batchPublisherConfigs
-                            = wanReplicationConfig.getBatchPublisherConfigs();
-                    if (!batchPublisherConfigs.isEmpty()) {
-                        throw new InvalidConfigurationException("Built-in batching WAN replication implementation "
-                                + "is only available in Hazelcast enterprise edition.");
-                    }
                     return new DelegatingWanReplicationScheme(name, createPublishers(wanReplicationConfig));
                 }
             };
 
     public WanReplicationServiceImpl(Node node) {
         this.node = node;
+        this.eventApplier = new StripedExecutor(node.getLogger(WanReplicationServiceImpl.class),
+                createThreadName(node.hazelcastInstance.getName(), "wan-applier"),
+                RuntimeAvailableProcessors.get(), EVENT_APPLIER_QUEUE_CAPACITY, true);
+    }
+
+    /**
+     * Returns the executor which applies the WAN events received with
+     * {@link com.hazelcast.config.WanAcknowledgeType#ACK_ON_RECEIPT}.
+     * Tasks with the same partition ID as their key run in submission order.
+     */
+    StripedExecutor getEventApplier() {
+        return eventApplier;
     }
 
     @Override
@@ -89,8 +104,9 @@ public class WanReplicationServiceImpl implements WanReplicationService {
     }
 
     private ConcurrentMap<String, WanReplicationPublisher> createPublishers(WanReplicationConfig wanConfig) {
+        List<WanBatchReplicationPublisherConfig> batchPublisherConfigs = wanConfig.getBatchPublisherConfigs();
         List<CustomWanPublisherConfig> customPublisherConfigs = wanConfig.getCustomPublisherConfigs();
-        int publisherCount = customPublisherConfigs.size();
+        int publisherCount = batchPublisherConfigs.size() + customPublisherConfigs.size();
 
         if (publisherCount == 0) {
             return createConcurrentHashMap(1);
@@ -99,7 +115,7 @@ public class WanReplicationServiceImpl implements WanReplicationService {
         ConcurrentMap<String, WanReplicationPublisher> publishers = createConcurrentHashMap(publisherCount);
         Map<String, AbstractWanPublisherConfig> publisherConfigs = createHashMap(publisherCount);
 
-        customPublisherConfigs.forEach(
+        Stream.concat(batchPublisherConfigs.stream(), customPublisherConfigs.stream()).forEach(
                 publisherConfig -> {
                     String publisherId = getWanPublisherId(publisherConfig);
                     if (publishers.containsKey(publisherId)) {
@@ -107,7 +123,9 @@ public class WanReplicationServiceImpl implements WanReplicationService {
                                 "Detected duplicate publisher ID '" + publisherId + "' for a single WAN replication config");
                     }
 
-                    WanReplicationPublisher publisher = createPublisher(publisherConfig);
+                    WanReplicationPublisher publisher = publisherConfig instanceof WanBatchReplicationPublisherConfig
+                            ? new WanBatchReplication(node)
+                            : createPublisher(publisherConfig);
                     publishers.put(publisherId, publisher);
                     publisherConfigs.put(publisherId, publisherConfig);
                 });
@@ -178,6 +196,7 @@ public class WanReplicationServiceImpl implements WanReplicationService {
             }
             wanReplications.clear();
         }
+        eventApplier.shutdown();
     }
 
     @Override
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl.connection.nio;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.properties.ClientProperty;
+import com.hazelcast.client.test.ClientTestSupport;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.networking.Channel;
+import com.hazelcast.map.IMap;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class ClientWriteBatchingTest extends ClientTestSupport {
+
+    private static final int ENTRY_COUNT = 2000;
+    private static final int LATENCY_ROUND_TRIPS = 500;
+
+    @After
+    public void tearDown() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testAsyncRequests_areBatched() throws Exception {
+        Hazelcast.newHazelcastInstance();
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.setProperty(ClientProperty.IO_WRITE_BATCHING_DELAY_MICROS.getName(), "1000");
+        clientConfig.setProperty(ClientProperty.IO_WRITE_BATCHING_MAX_SIZE.getName(), "32");
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        IMap<Integer, Integer> map = client.getMap("map");
+        List<CompletionStage<Void>> sets = new ArrayList<>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            sets.add(map.setAsync(i, i));
+        }
+        for (CompletionStage<Void> set : sets) {
+            set.toCompletableFuture().get();
+        }
+        List<CompletionStage<Integer>> gets = new ArrayList<>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            gets.add(map.getAsync(i));
+        }
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(i, (int) gets.get(i).toCompletableFuture().get());
+        }
+
+        Collection<ClientConnection> connections = getHazelcastClientInstanceImpl(client)
+                .getConnectionManager().getActiveConnections();
+        assertFalse(connections.isEmpty());
+        for (ClientConnection connection : connections) {
+            Channel channel = connection.getChannel();
+            assertTrue(channel.socketWrites() > 0);
+            assertTrue(channel.socketWrites() < channel.framesWritten());
+        }
+    }
+
+    @Test
+    public void testBatchesOnSameOutputThread_doNotWaitForEachOther() throws Exception {
+        HazelcastInstance member1 = Hazelcast.newHazelcastInstance();
+        HazelcastInstance member2 = Hazelcast.newHazelcastInstance();
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.setProperty(ClientProperty.IO_WRITE_BATCHING_DELAY_MICROS.getName(), "1000000");
+        clientConfig.setProperty(ClientProperty.IO_OUTPUT_THREAD_COUNT.getName(), "1");
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+        makeSureConnectedToServers(client, 2);
+
+        IMap<String, Integer> map = client.getMap("map");
+        String key1 = generateKeyOwnedBy(member1);
+        String key2 = generateKeyOwnedBy(member2);
+        map.set(key1, 1);
+        map.set(key2, 2);
+
+        // both connections are served by the single output thread; the
+        // batch of one connection must not hold up the batch of the other.
+        long startMillis = System.currentTimeMillis();
+        CompletionStage<Integer> get1 = map.getAsync(key1);
+        CompletionStage<Integer> get2 = map.getAsync(key2);
+        assertEquals(1, (int) get1.toCompletableFuture().get());
+        assertEquals(2, (int) get2.toCompletableFuture().get());
+        long elapsedMillis = System.currentTimeMillis() - startMillis;
+        assertTrue("elapsed: " + elapsedMillis, elapsedMillis < 1800);
+    }
+
+    @Test
+    public void testMicrosDelay_doesNotAddMillis() {
+        Hazelcast.newHazelcastInstance();
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.setProperty(ClientProperty.IO_WRITE_BATCHING_DELAY_MICROS.getName(), "20");
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        IMap<Integer, Integer> map = client.getMap("map");
+        map.set(1, 1);
+        for (int i = 0; i < LATENCY_ROUND_TRIPS; i++) {
+            map.get(1);
+        }
+
+        // every get waits for the batching delay on its own; with the delay
+        // rounded up to a millisecond the round trips would take at least that
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < LATENCY_ROUND_TRIPS; i++) {
+            assertEquals(1, (int) map.get(1));
+        }
+        long averageMicros = NANOSECONDS.toMicros(System.nanoTime() - startNanos) / LATENCY_ROUND_TRIPS;
+        assertTrue("average round trip micros: " + averageMicros, averageMicros < 1000);
+    }
+}
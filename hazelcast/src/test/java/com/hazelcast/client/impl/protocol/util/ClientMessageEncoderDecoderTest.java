@@ -19,6 +19,8 @@ package com.hazelcast.client.impl.protocol.util;
 import com.hazelcast.client.impl.MemberImpl;
 import com.hazelcast.client.impl.protocol.ClientMessage;
 import com.hazelcast.client.impl.protocol.ClientMessage.Frame;
+import com.hazelcast.client.impl.protocol.ClientMessageReader;
+import com.hazelcast.client.impl.protocol.ClientMessageWriter;
 import com.hazelcast.client.impl.protocol.codec.ClientAuthenticationCodec;
 import com.hazelcast.client.impl.protocol.codec.MapAddEntryListenerCodec;
 import com.hazelcast.client.impl.protocol.codec.MapPutCodec;
@@ -40,8 +42,11 @@ import org.junit.runner.RunWith;
 import javax.annotation.Nullable;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
@@ -51,6 +56,8 @@ import static com.hazelcast.client.impl.protocol.ClientMessage.UNFRAGMENTED_MESS
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -294,6 +301,56 @@ public class ClientMessageEncoderDecoderTest extends HazelcastTestSupport {
         assertEquals(1, eventHandler.numberOfAffectedEntries);
     }
 
+    @Test
+    public void testMultipleMessages_decodedByReusedReader() {
+        List<ClientMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            messages.add(MapPutCodec.encodeRequest("map-" + i, randomData(), randomData(), i, 10));
+        }
+        // a nullable response adds a frame without content
+        messages.add(MapPutCodec.encodeResponse(null));
+        Iterator<ClientMessage> iterator = messages.iterator();
+
+        ClientMessageEncoder encoder = new ClientMessageEncoder();
+        encoder.src(() -> iterator.hasNext() ? iterator.next() : null);
+        ByteBuffer buffer = ByteBuffer.allocate(2000);
+        buffer.flip();
+        encoder.dst(buffer);
+        assertEquals(CLEAN, encoder.onWrite());
+
+        List<ClientMessage> resultingMessages = new ArrayList<>();
+        ClientMessageDecoder decoder = new ClientMessageDecoder(null, resultingMessages::add, null);
+        decoder.setNormalPacketsRead(SwCounter.newSwCounter());
+        buffer.position(buffer.limit());
+        decoder.src(buffer);
+        decoder.onRead();
+
+        assertEquals(messages.size(), resultingMessages.size());
+        for (int i = 0; i < 3; i++) {
+            MapPutCodec.RequestParameters parameters = MapPutCodec.decodeRequest(resultingMessages.get(i));
+            assertEquals("map-" + i, parameters.name);
+            assertEquals(i, parameters.threadId);
+            assertEquals(messages.get(i).getFrameLength(), resultingMessages.get(i).getFrameLength());
+        }
+        assertNull(MapPutCodec.decodeResponse(resultingMessages.get(3)).response);
+    }
+
+    @Test
+    public void testReaderReset_resetsUntrustedMessageLength() {
+        ClientMessage message = MapPutCodec.encodeRequest("map", randomData(), randomData(), 1, 10);
+        ByteBuffer buffer = ByteBuffer.allocate(1000);
+        new ClientMessageWriter().writeTo(buffer, message);
+        new ClientMessageWriter().writeTo(buffer, message);
+        buffer.flip();
+
+        // each message fits in the limit, both together don't
+        ClientMessageReader reader = new ClientMessageReader(message.getFrameLength() + 1);
+        assertTrue(reader.readFrom(buffer, false));
+        reader.reset();
+        assertTrue(reader.readFrom(buffer, false));
+        assertEquals(message.getFrameLength(), reader.getClientMessage().getFrameLength());
+    }
+
     private HeapData randomData() {
         Random random = new Random();
         byte[] key = new byte[100];
@@ -30,10 +30,12 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -199,6 +201,28 @@ public abstract class AbstractMapQueryPartitionIteratorTest extends HazelcastTes
         }
     }
 
+    @Test
+    public void test_crossPartitionIterator_with_predicate() {
+        final ClientMapProxy<Integer, Integer> map = getMapProxy();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+
+        Predicate<Integer, Integer> predicate = Predicates.lessThan("this", 500);
+        Set<Entry<Integer, Integer>> entries = new HashSet<>(collectAll(map.iterator(7, predicate)));
+        assertEquals(map.entrySet(predicate), entries);
+
+        Collection<Integer> values = collectAll(map.iterator(7, Projections.singleAttribute("this"), predicate));
+        assertEquals(new HashSet<>(map.values(predicate)), new HashSet<>(values));
+        assertEquals(500, values.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_crossPartitionIterator_with_pagingPredicate_throws_exception() {
+        final ClientMapProxy<String, String> proxy = getMapProxy();
+        proxy.iterator(10, Predicates.pagingPredicate(10));
+    }
+
     protected ClientConfig getClientConfig() {
         return new ClientConfig();
     }
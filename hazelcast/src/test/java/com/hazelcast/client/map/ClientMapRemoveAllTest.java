@@ -33,7 +33,9 @@ import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 
@@ -111,6 +113,43 @@ public class ClientMapRemoveAllTest extends HazelcastTestSupport {
         assertEquals(500, map.size());
     }
 
+    @Test
+    public void removeAllKeys_returnsRemovedValues() {
+        IMap<Integer, Integer> map = client.getMap("test");
+        for (int i = 0; i < MAP_SIZE; i++) {
+            map.put(i, i);
+        }
+
+        Set<Integer> keys = new HashSet<>();
+        for (int i = 0; i < MAP_SIZE + 100; i += 2) {
+            keys.add(i);
+        }
+        Map<Integer, Integer> removed = map.removeAllKeys(keys);
+
+        assertEquals(MAP_SIZE / 2, removed.size());
+        for (int i = 0; i < MAP_SIZE; i += 2) {
+            assertEquals(Integer.valueOf(i), removed.get(i));
+        }
+        assertEquals(MAP_SIZE / 2, map.size());
+    }
+
+    @Test
+    public void deleteAll_removesEntries() {
+        IMap<Integer, Integer> map = client.getMap("test");
+        for (int i = 0; i < MAP_SIZE; i++) {
+            map.put(i, i);
+        }
+
+        Set<Integer> keys = new HashSet<>();
+        for (int i = 100; i < MAP_SIZE; i++) {
+            keys.add(i);
+        }
+        map.deleteAll(keys);
+
+        assertEquals(100, map.size());
+        assertEquals(Integer.valueOf(99), map.get(99));
+    }
+
     private static final class OddFinderPredicate implements Predicate<Integer, Integer> {
 
         @Override
@@ -118,4 +157,25 @@ public class ClientMapRemoveAllTest extends HazelcastTestSupport {
             return mapEntry.getKey() % 2 != 0;
         }
     }
+
+    @Test
+    public void deleteAll_whenKeysContainNull() {
+        expectedException.expect(NullPointerException.class);
+        expectedException.expectMessage("Null key is not allowed!");
+
+        IMap<Integer, Integer> map = client.getMap("test");
+        Set<Integer> keys = new HashSet<>();
+        keys.add(1);
+        keys.add(null);
+        map.deleteAll(keys);
+    }
+
+    @Test
+    public void removeAllKeys_whenKeysNull() {
+        expectedException.expect(NullPointerException.class);
+        expectedException.expectMessage("Null keys collection is not allowed!");
+
+        IMap<Integer, Integer> map = client.getMap("test");
+        map.removeAllKeys(null);
+    }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.map.impl.nearcache;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.map.IMap;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.internal.nearcache.NearCacheTestUtils.createNearCacheConfig;
+
+/**
+ * Basic Near Cache tests for {@link IMap} on Hazelcast clients with the
+ * {@link InMemoryFormat#NATIVE} in-memory-format.
+ */
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ClientMapNativeNearCacheBasicTest extends ClientMapNearCacheBasicTest {
+
+    @Before
+    @Override
+    public void setUp() {
+        nearCacheConfig = createNearCacheConfig(InMemoryFormat.NATIVE, true);
+    }
+
+    @Override
+    protected ClientConfig getClientConfig() {
+        ClientConfig clientConfig = super.getClientConfig();
+        clientConfig.getNativeMemoryConfig().setEnabled(true);
+        return clientConfig;
+    }
+}
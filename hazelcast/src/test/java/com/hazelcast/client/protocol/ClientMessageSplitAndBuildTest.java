@@ -18,9 +18,11 @@ package com.hazelcast.client.protocol;
 
 import com.hazelcast.client.impl.protocol.ClientMessage;
 import com.hazelcast.client.impl.protocol.codec.ClientAuthenticationCodec;
+import com.hazelcast.client.impl.protocol.codec.MapPutCodec;
 import com.hazelcast.client.impl.protocol.util.ClientMessageDecoder;
 import com.hazelcast.client.impl.protocol.util.ClientMessageEncoder;
 import com.hazelcast.internal.networking.HandlerStatus;
+import com.hazelcast.internal.serialization.impl.HeapData;
 import com.hazelcast.internal.util.UuidUtil;
 import com.hazelcast.internal.util.counters.SwCounter;
 import com.hazelcast.test.HazelcastParallelClassRunner;
@@ -41,6 +43,7 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.hazelcast.client.impl.protocol.ClientMessage.SIZE_OF_FRAME_LENGTH_AND_FLAGS;
 import static com.hazelcast.client.impl.protocol.util.ClientMessageSplitter.getFragments;
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static com.hazelcast.test.HazelcastTestSupport.generateRandomString;
@@ -150,6 +153,52 @@ public class ClientMessageSplitAndBuildTest {
         assertMessageEquals(clientMessage2, actualMessage2);
     }
 
+    @Test
+    public void splitAndBuild_whenReadInChunksSmallerThanFrameHeader() {
+        // the last frame of a put request has content, the message must not wait for more bytes after it
+        ClientMessage putMessage = MapPutCodec.encodeRequest("map", new HeapData(new byte[20]),
+                new HeapData(new byte[30]), 1, 1);
+        Queue<ClientMessage> outputQueue = new ConcurrentLinkedQueue<>();
+        Iterator<ClientMessage> iterator = getFragments(128, clientMessage2).iterator();
+        for (ClientMessage fragment : getFragments(128, clientMessage1)) {
+            outputQueue.offer(fragment);
+            outputQueue.offer(iterator.next());
+        }
+        outputQueue.addAll(getFragments(100000, putMessage));
+
+        ClientMessageEncoder encoder = new ClientMessageEncoder();
+        encoder.src(outputQueue::poll);
+
+        ByteBuffer buffer = ByteBuffer.allocate(100000);
+        buffer.flip();
+        encoder.dst(buffer);
+
+        HandlerStatus result = encoder.onWrite();
+
+        Assert.assertEquals(CLEAN, result);
+
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        for (int chunkLength = 1; chunkLength <= SIZE_OF_FRAME_LENGTH_AND_FLAGS; chunkLength++) {
+            Queue<ClientMessage> inputQueue = new ConcurrentLinkedQueue<>();
+            ClientMessageDecoder decoder = new ClientMessageDecoder(null, inputQueue::offer, null);
+            decoder.setNormalPacketsRead(SwCounter.newSwCounter());
+
+            // the same reader of the decoder reads all the messages, chunk by chunk
+            ByteBuffer src = ByteBuffer.allocate(bytes.length);
+            decoder.src(src);
+            for (int offset = 0; offset < bytes.length; offset += chunkLength) {
+                src.put(bytes, offset, Math.min(chunkLength, bytes.length - offset));
+                decoder.onRead();
+            }
+
+            assertEquals(3, inputQueue.size());
+            assertMessageEquals(clientMessage1, inputQueue.poll());
+            assertMessageEquals(clientMessage2, inputQueue.poll());
+            assertMessageEquals(putMessage, inputQueue.poll());
+        }
+    }
+
     @Test
     public void splitAndBuild_whenMessageIsAlreadySmallerThanFrameSize() {
         Queue<ClientMessage> outputQueue = new ConcurrentLinkedQueue<>();
@@ -567,6 +567,9 @@ public class ConfigCompatibilityChecker {
                             && r1.getMaxMissedLeaderHeartbeatCount() == r2.getMaxMissedLeaderHeartbeatCount()
                             && r1.getCommitIndexAdvanceCountToSnapshot() == r2.getCommitIndexAdvanceCountToSnapshot()
                             && r1.getAppendRequestBackoffTimeoutInMillis() == r2.getAppendRequestBackoffTimeoutInMillis()
+                            && r1.getAppendRequestMaxInFlightCount() == r2.getAppendRequestMaxInFlightCount()
+                            && r1.isLeaderLeaseEnabled() == r2.isLeaderLeaseEnabled()
+                            && r1.getLeaderLeaseClockDriftToleranceInMillis() == r2.getLeaderLeaseClockDriftToleranceInMillis()
                             && r1.getUncommittedEntryCountToRejectNewAppends() == r2.getUncommittedEntryCountToRejectNewAppends());
 
             if (!raftAlgorithmConfigEqual) {
@@ -1435,7 +1435,10 @@ public class ConfigXmlGeneratorTest {
                 .setAppendRequestMaxEntryCount(25)
                 .setAppendRequestMaxEntryCount(250)
                 .setUncommittedEntryCountToRejectNewAppends(75)
-                .setAppendRequestBackoffTimeoutInMillis(50);
+                .setAppendRequestBackoffTimeoutInMillis(50)
+                .setAppendRequestMaxInFlightCount(8)
+                .setLeaderLeaseEnabled(true)
+                .setLeaderLeaseClockDriftToleranceInMillis(250);
 
         config.getCPSubsystemConfig()
                 .addSemaphoreConfig(new SemaphoreConfig("sem1", true, 1))
@@ -2405,6 +2405,11 @@ public class XMLConfigBuilderTest extends AbstractConfigBuilderTest {
                 + "                   <attribute>age</attribute>\n"
                 + "               </attributes>\n"
                 + "           </index>\n"
+                + "           <index type=\"BITMAP\">\n"
+                + "               <attributes>\n"
+                + "                   <attribute>gender</attribute>\n"
+                + "               </attributes>\n"
+                + "           </index>\n"
                 + "       </indexes>"
                 + "   </map>"
                 + HAZELCAST_END_TAG;
@@ -2415,6 +2420,8 @@ public class XMLConfigBuilderTest extends AbstractConfigBuilderTest {
         assertFalse(mapConfig.getIndexConfigs().isEmpty());
         assertIndexEqual("name", false, mapConfig.getIndexConfigs().get(0));
         assertIndexEqual("age", true, mapConfig.getIndexConfigs().get(1));
+        assertIndexEqual("gender", false, mapConfig.getIndexConfigs().get(2));
+        assertEquals(IndexType.BITMAP, mapConfig.getIndexConfigs().get(2).getType());
     }
 
     private static void assertIndexEqual(String expectedAttribute, boolean expectedOrdered, IndexConfig indexConfig) {
@@ -3101,6 +3108,9 @@ public class XMLConfigBuilderTest extends AbstractConfigBuilderTest {
                 + "    <commit-index-advance-count-to-snapshot>250</commit-index-advance-count-to-snapshot>\n"
                 + "    <uncommitted-entry-count-to-reject-new-appends>75</uncommitted-entry-count-to-reject-new-appends>\n"
                 + "    <append-request-backoff-timeout-in-millis>50</append-request-backoff-timeout-in-millis>\n"
+                + "    <append-request-max-in-flight-count>8</append-request-max-in-flight-count>\n"
+                + "    <leader-lease-enabled>true</leader-lease-enabled>\n"
+                + "    <leader-lease-clock-drift-tolerance-in-millis>250</leader-lease-clock-drift-tolerance-in-millis>\n"
                 + "  </raft-algorithm>\n"
                 + "  <semaphores>\n"
                 + "    <semaphore>\n"
@@ -3145,6 +3155,9 @@ public class XMLConfigBuilderTest extends AbstractConfigBuilderTest {
         assertEquals(250, raftAlgorithmConfig.getCommitIndexAdvanceCountToSnapshot());
         assertEquals(75, raftAlgorithmConfig.getUncommittedEntryCountToRejectNewAppends());
         assertEquals(50, raftAlgorithmConfig.getAppendRequestBackoffTimeoutInMillis());
+        assertEquals(8, raftAlgorithmConfig.getAppendRequestMaxInFlightCount());
+        assertTrue(raftAlgorithmConfig.isLeaderLeaseEnabled());
+        assertEquals(250, raftAlgorithmConfig.getLeaderLeaseClockDriftToleranceInMillis());
         SemaphoreConfig semaphoreConfig1 = cpSubsystemConfig.findSemaphoreConfig("sem1");
         SemaphoreConfig semaphoreConfig2 = cpSubsystemConfig.findSemaphoreConfig("sem2");
         assertNotNull(semaphoreConfig1);
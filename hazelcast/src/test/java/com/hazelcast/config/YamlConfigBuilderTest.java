@@ -2431,7 +2431,10 @@ public class YamlConfigBuilderTest extends AbstractConfigBuilderTest {
                 + "          attributes:\n"
                 + "            - \"name\"\n"
                 + "        - attributes:\n"
-                + "          - \"age\"\n";
+                + "          - \"age\"\n"
+                + "        - type: BITMAP\n"
+                + "          attributes:\n"
+                + "            - \"gender\"\n";
 
         Config config = buildConfig(yaml);
         MapConfig mapConfig = config.getMapConfig("people");
@@ -2439,6 +2442,8 @@ public class YamlConfigBuilderTest extends AbstractConfigBuilderTest {
         assertFalse(mapConfig.getIndexConfigs().isEmpty());
         assertIndexEqual("name", false, mapConfig.getIndexConfigs().get(0));
         assertIndexEqual("age", true, mapConfig.getIndexConfigs().get(1));
+        assertIndexEqual("gender", false, mapConfig.getIndexConfigs().get(2));
+        assertEquals(IndexType.BITMAP, mapConfig.getIndexConfigs().get(2).getType());
     }
 
     @Override
@@ -3382,6 +3387,9 @@ public class YamlConfigBuilderTest extends AbstractConfigBuilderTest {
                 + "      commit-index-advance-count-to-snapshot: 250\n"
                 + "      uncommitted-entry-count-to-reject-new-appends: 75\n"
                 + "      append-request-backoff-timeout-in-millis: 50\n"
+                + "      append-request-max-in-flight-count: 8\n"
+                + "      leader-lease-enabled: true\n"
+                + "      leader-lease-clock-drift-tolerance-in-millis: 250\n"
                 + "    semaphores:\n"
                 + "      sem1:\n"
                 + "        jdk-compatible: true\n"
@@ -3413,6 +3421,9 @@ public class YamlConfigBuilderTest extends AbstractConfigBuilderTest {
         assertEquals(250, raftAlgorithmConfig.getCommitIndexAdvanceCountToSnapshot());
         assertEquals(75, raftAlgorithmConfig.getUncommittedEntryCountToRejectNewAppends());
         assertEquals(50, raftAlgorithmConfig.getAppendRequestBackoffTimeoutInMillis());
+        assertEquals(8, raftAlgorithmConfig.getAppendRequestMaxInFlightCount());
+        assertTrue(raftAlgorithmConfig.isLeaderLeaseEnabled());
+        assertEquals(250, raftAlgorithmConfig.getLeaderLeaseClockDriftToleranceInMillis());
         SemaphoreConfig semaphoreConfig1 = cpSubsystemConfig.findSemaphoreConfig("sem1");
         SemaphoreConfig semaphoreConfig2 = cpSubsystemConfig.findSemaphoreConfig("sem2");
         assertNotNull(semaphoreConfig1);
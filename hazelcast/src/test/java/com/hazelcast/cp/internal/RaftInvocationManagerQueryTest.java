@@ -30,9 +30,11 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import static com.hazelcast.cp.internal.raft.QueryPolicy.ANY_LOCAL;
+import static com.hazelcast.cp.internal.raft.QueryPolicy.ANY_READ_INDEX;
 import static com.hazelcast.cp.internal.raft.QueryPolicy.LEADER_LOCAL;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -100,6 +102,47 @@ public class RaftInvocationManagerQueryTest extends HazelcastRaftTestSupport {
         });
     }
 
+    @Test
+    public void when_queryReadIndexFromFollower_onStableCluster_thenReadLatestValueEventually() throws Exception {
+        int nodeCount = 3;
+        instances = newInstances(nodeCount);
+
+        RaftInvocationManager invocationService = getRaftInvocationManager(instances[0]);
+        CPGroupId groupId = invocationService.createRaftGroup("test", nodeCount).get();
+
+        String value = "value";
+        invocationService.invoke(groupId, new RaftTestApplyOp(value)).get();
+
+        HazelcastInstance follower = getRandomFollowerInstance(instances, groupId);
+        assertTrueEventually(() -> {
+            Future<Object> future = getRaftInvocationManager(follower).query(groupId, new RaftTestQueryOp(), ANY_READ_INDEX);
+            assertEquals(value, future.get());
+        });
+    }
+
+    @Test
+    public void when_queryReadIndexFromNonGroupMember_thenReadLatestValueFromLeader() throws Exception {
+        int cpNodeCount = 4;
+        int groupSize = 3;
+        instances = newInstances(cpNodeCount, groupSize, 0);
+
+        RaftInvocationManager invocationService = getRaftInvocationManager(instances[0]);
+        CPGroupId groupId = invocationService.createRaftGroup("test", groupSize).get();
+
+        String value = "value";
+        invocationService.invoke(groupId, new RaftTestApplyOp(value)).get();
+
+        for (HazelcastInstance instance : instances) {
+            if (getRaftService(instance).getRaftNode(groupId) == null) {
+                Future<Object> future = getRaftInvocationManager(instance).query(groupId, new RaftTestQueryOp(), ANY_READ_INDEX);
+                assertEquals(value, future.get());
+                return;
+            }
+        }
+
+        fail("No instance found outside of " + groupId);
+    }
+
     @Test
     public void when_queryLocalFromFollower_withLeaderLocalPolicy_thenFail() throws Exception {
         int nodeCount = 3;
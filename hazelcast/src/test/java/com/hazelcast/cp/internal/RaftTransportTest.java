@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.cp.CPGroupId;
+import com.hazelcast.cp.internal.operation.integration.AppendRequestOp;
+import com.hazelcast.cp.internal.operation.integration.AsyncRaftOp;
+import com.hazelcast.cp.internal.operation.integration.RaftMessageBatchOp;
+import com.hazelcast.cp.internal.raft.impl.RaftNodeImpl;
+import com.hazelcast.cp.internal.raft.impl.dto.AppendRequest;
+import com.hazelcast.cp.internal.raft.impl.log.LogEntry;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.impl.operationservice.OperationService;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static com.hazelcast.cp.internal.RaftGroupMembershipManager.LEADERSHIP_BALANCE_TASK_PERIOD;
+import static com.hazelcast.cp.internal.RaftTransport.RAFT_MESSAGE_BATCHING_ENABLED;
+import static com.hazelcast.cp.internal.RaftTransport.RAFT_MESSAGE_BATCHING_TICK_MILLIS;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getTerm;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class RaftTransportTest extends HazelcastRaftTestSupport {
+
+    private OperationService operationService;
+    private Address target;
+
+    @Before
+    public void setup() throws UnknownHostException {
+        operationService = mock(OperationService.class);
+        target = new Address("127.0.0.1", 5701);
+    }
+
+    @Test
+    public void when_heartbeatsSent_then_theyAreBatchedOnTick() {
+        RaftTransport transport = newTransport(true);
+
+        transport.sendHeartbeat(newAppendRequestOp(1, 0), target);
+        transport.sendHeartbeat(newAppendRequestOp(2, 0), target);
+        transport.sendHeartbeat(newAppendRequestOp(3, 0), target);
+
+        verify(operationService, never()).send(any(Operation.class), any(Address.class));
+
+        transport.flush();
+
+        Operation sent = captureSentOperation();
+        assertTrue(sent instanceof RaftMessageBatchOp);
+        assertEquals(3, transport.sentMessageCount());
+        assertEquals(1, transport.sentPacketCount());
+        assertEquals(1, transport.sentBatchCount());
+    }
+
+    @Test
+    public void when_appendRequestSent_then_pendingHeartbeatsArePiggybacked() {
+        RaftTransport transport = newTransport(true);
+
+        transport.sendHeartbeat(newAppendRequestOp(1, 0), target);
+        transport.sendHeartbeat(newAppendRequestOp(2, 0), target);
+        transport.send(newAppendRequestOp(1, 1), target);
+
+        Operation sent = captureSentOperation();
+        assertTrue(sent instanceof RaftMessageBatchOp);
+        // the heartbeat of group 1 is suppressed by its append request
+        assertEquals(2, transport.sentMessageCount());
+        assertEquals(1, transport.suppressedHeartbeatCount());
+    }
+
+    @Test
+    public void when_heartbeatHasHigherCommitIndexThanAppendRequest_then_heartbeatIsSent() {
+        RaftTransport transport = newTransport(true);
+
+        transport.sendHeartbeat(newAppendRequestOp(1, 1, 5, 0), target);
+        transport.send(newAppendRequestOp(1, 1, 4, 1), target);
+
+        assertTrue(captureSentOperation() instanceof RaftMessageBatchOp);
+        assertEquals(2, transport.sentMessageCount());
+        assertEquals(0, transport.suppressedHeartbeatCount());
+    }
+
+    @Test
+    public void when_heartbeatHasHigherTermThanAppendRequest_then_heartbeatIsSent() {
+        RaftTransport transport = newTransport(true);
+
+        transport.sendHeartbeat(newAppendRequestOp(1, 2, 0, 0), target);
+        transport.send(newAppendRequestOp(1, 1, 0, 1), target);
+
+        assertTrue(captureSentOperation() instanceof RaftMessageBatchOp);
+        assertEquals(2, transport.sentMessageCount());
+        assertEquals(0, transport.suppressedHeartbeatCount());
+    }
+
+    @Test
+    public void when_multipleHeartbeatsOfGroupSent_then_onlyLatestIsSent() {
+        RaftTransport transport = newTransport(true);
+
+        transport.sendHeartbeat(newAppendRequestOp(1, 0), target);
+        AsyncRaftOp heartbeat = newAppendRequestOp(1, 0);
+        transport.sendHeartbeat(heartbeat, target);
+        transport.flush();
+
+        assertSame(heartbeat, captureSentOperation());
+        assertEquals(1, transport.sentMessageCount());
+        assertEquals(0, transport.sentBatchCount());
+        assertEquals(1, transport.suppressedHeartbeatCount());
+    }
+
+    @Test
+    public void when_batchingDisabled_then_heartbeatsAreSentImmediately() {
+        RaftTransport transport = newTransport(false);
+
+        AsyncRaftOp heartbeat = newAppendRequestOp(1, 0);
+        transport.sendHeartbeat(heartbeat, target);
+
+        verify(operationService).send(heartbeat, target);
+    }
+
+    @Test
+    public void when_manyGroupsIdle_then_leadersAreStable() throws Exception {
+        int groupCount = 10;
+        HazelcastInstance[] instances = newInstances(3);
+
+        RaftInvocationManager invocationManager = getRaftInvocationManager(instances[0]);
+        Map<CPGroupId, Integer> terms = new HashMap<>();
+        for (int i = 0; i < groupCount; i++) {
+            CPGroupId groupId = invocationManager.createRaftGroup("group" + i).get();
+            terms.put(groupId, getTerm(waitAllForLeaderElection(instances, groupId)));
+        }
+
+        // heartbeats wait for the tick, which is longer than the heartbeat period
+        assertTrueAllTheTime(() -> {
+            for (Map.Entry<CPGroupId, Integer> e : terms.entrySet()) {
+                RaftNodeImpl leader = getLeaderNode(instances, e.getKey());
+                assertEquals((int) e.getValue(), getTerm(leader));
+            }
+        }, 10);
+
+        long messageCount = 0;
+        for (HazelcastInstance instance : instances) {
+            messageCount += getRaftService(instance).getTransport().sentMessageCount();
+        }
+        assertTrue(messageCount > 0);
+    }
+
+    @Override
+    protected Config createConfig(int cpNodeCount, int groupSize) {
+        Config config = super.createConfig(cpNodeCount, groupSize);
+        // heartbeats are sent more frequently than the tick
+        config.getCPSubsystemConfig().getRaftAlgorithmConfig().setLeaderHeartbeatPeriodInMillis(500);
+        config.setProperty(RAFT_MESSAGE_BATCHING_TICK_MILLIS.getName(), "1000");
+        // leadership rebalancing would change the terms
+        config.setProperty(LEADERSHIP_BALANCE_TASK_PERIOD.getName(), String.valueOf(Integer.MAX_VALUE));
+        return config;
+    }
+
+    private RaftTransport newTransport(boolean batchingEnabled) {
+        Properties properties = new Properties();
+        properties.setProperty(RAFT_MESSAGE_BATCHING_ENABLED.getName(), String.valueOf(batchingEnabled));
+        return new RaftTransport(operationService, new HazelcastProperties(properties));
+    }
+
+    private static AsyncRaftOp newAppendRequestOp(long groupIndex, int entryCount) {
+        return newAppendRequestOp(groupIndex, 1, 0, entryCount);
+    }
+
+    private static AsyncRaftOp newAppendRequestOp(long groupIndex, int term, long commitIndex, int entryCount) {
+        LogEntry[] entries = new LogEntry[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            entries[i] = new LogEntry(term, i + 1, null);
+        }
+        AppendRequest request = new AppendRequest(null, term, 0, 0, commitIndex, entries, 0, System.nanoTime());
+        return new AppendRequestOp(new RaftGroupId("group" + groupIndex, 0, groupIndex), request);
+    }
+
+    private Operation captureSentOperation() {
+        ArgumentCaptor<Operation> captor = ArgumentCaptor.forClass(Operation.class);
+        verify(operationService, times(1)).send(captor.capture(), eq(target));
+        List<Operation> sent = captor.getAllValues();
+        return sent.get(0);
+    }
+}
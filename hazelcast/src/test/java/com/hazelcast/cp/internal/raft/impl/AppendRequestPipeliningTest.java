@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl;
+
+import com.hazelcast.config.cp.RaftAlgorithmConfig;
+import com.hazelcast.cp.internal.raft.impl.dataservice.ApplyRaftRunnable;
+import com.hazelcast.cp.internal.raft.impl.dataservice.RaftDataService;
+import com.hazelcast.cp.internal.raft.impl.dto.AppendRequest;
+import com.hazelcast.cp.internal.raft.impl.dto.AppendSuccessResponse;
+import com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup;
+import com.hazelcast.spi.impl.InternalCompletableFuture;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getAckedAppendRequestCount;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getCommitIndex;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getInFlightAppendRequestCount;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getLastLogOrSnapshotEntry;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getMatchIndex;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getNextIndex;
+import static com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup.LocalRaftGroupBuilder.newGroup;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class AppendRequestPipeliningTest extends HazelcastTestSupport {
+
+    private LocalRaftGroup group;
+
+    @After
+    public void destroy() {
+        if (group != null) {
+            group.destroy();
+        }
+    }
+
+    @Test
+    public void when_followerDoesNotAcknowledge_then_leaderPipelinesUpToMaxInFlightCount() throws Exception {
+        int maxInFlightCount = 3;
+        RaftAlgorithmConfig config = new RaftAlgorithmConfig().setAppendRequestMaxInFlightCount(maxInFlightCount)
+                                                              .setAppendRequestBackoffTimeoutInMillis(60000);
+        group = newGroup(3, config);
+        group.start();
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        RaftNodeImpl follower = group.getNodesExcept(leader.getLocalMember())[0];
+        leader.replicate(new ApplyRaftRunnable("val")).get();
+        assertTrueEventually(() -> assertEquals(1, getMatchIndex(leader, follower.getLocalMember())));
+
+        group.dropMessagesToMember(follower.getLocalMember(), leader.getLocalMember(), AppendSuccessResponse.class);
+        for (int i = 0; i < 10; i++) {
+            leader.replicate(new ApplyRaftRunnable("val" + i)).get();
+        }
+
+        assertTrueEventually(() -> {
+            assertEquals(maxInFlightCount, getInFlightAppendRequestCount(leader, follower.getLocalMember()));
+            long nextIndex = getNextIndex(leader, follower.getLocalMember());
+            assertTrue(nextIndex > 2);
+            assertEquals(nextIndex - 1, getLastLogOrSnapshotEntry(follower).index());
+        });
+        assertEquals(1, getMatchIndex(leader, follower.getLocalMember()));
+    }
+
+    @Test
+    public void when_pipelinedAppendRequestsAreLost_then_followerCatchesUp() throws Exception {
+        RaftAlgorithmConfig config = new RaftAlgorithmConfig().setAppendRequestMaxInFlightCount(4);
+        group = newGroup(3, config);
+        group.start();
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        RaftNodeImpl follower = group.getNodesExcept(leader.getLocalMember())[0];
+        leader.replicate(new ApplyRaftRunnable("val")).get();
+        assertTrueEventually(() -> assertEquals(1, getMatchIndex(leader, follower.getLocalMember())));
+
+        group.dropMessagesToMember(leader.getLocalMember(), follower.getLocalMember(), AppendRequest.class);
+        int entryCount = 20;
+        for (int i = 0; i < entryCount; i++) {
+            leader.replicate(new ApplyRaftRunnable("val" + i)).get();
+        }
+        assertEquals(1, getCommitIndex(follower));
+
+        group.allowMessagesToMember(leader.getLocalMember(), follower.getLocalMember(), AppendRequest.class);
+
+        assertTrueEventually(() -> {
+            assertEquals(entryCount + 1, getCommitIndex(follower));
+            assertEquals(entryCount + 1, getMatchIndex(leader, follower.getLocalMember()));
+            assertEquals(0, getInFlightAppendRequestCount(leader, follower.getLocalMember()));
+        });
+    }
+
+    @Test
+    public void when_entriesAreReplicatedConcurrently_then_theyAreCommittedInOrderOnAllNodes() throws Exception {
+        group = newGroup(3, new RaftAlgorithmConfig().setAppendRequestMaxEntryCount(5));
+        group.start();
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+
+        int entryCount = 100;
+        List<InternalCompletableFuture> futures = new ArrayList<>();
+        for (int i = 0; i < entryCount; i++) {
+            futures.add(leader.replicate(new ApplyRaftRunnable("val" + i)));
+        }
+        for (InternalCompletableFuture future : futures) {
+            future.get();
+        }
+
+        assertTrueEventually(() -> {
+            for (RaftNodeImpl node : group.getNodes()) {
+                assertEquals(entryCount, getCommitIndex(node));
+                RaftDataService service = group.getService(node);
+                Object[] values = service.valuesArray();
+                assertEquals(entryCount, values.length);
+                for (int i = 0; i < entryCount; i++) {
+                    assertEquals("val" + i, values[i]);
+                }
+            }
+        });
+        for (RaftNodeImpl follower : group.getNodesExcept(leader.getLocalMember())) {
+            assertTrue(getAckedAppendRequestCount(leader, follower.getLocalMember()) > 0);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl;
+
+import com.hazelcast.config.cp.RaftAlgorithmConfig;
+import com.hazelcast.cp.internal.raft.impl.dataservice.ApplyRaftRunnable;
+import com.hazelcast.cp.internal.raft.impl.dataservice.RaftDataService;
+import com.hazelcast.cp.internal.raft.impl.dto.PreVoteRequest;
+import com.hazelcast.cp.internal.raft.impl.persistence.FileRaftStateLoader;
+import com.hazelcast.cp.internal.raft.impl.persistence.FileRaftStateStore;
+import com.hazelcast.cp.internal.raft.impl.persistence.RaftStateStore;
+import com.hazelcast.cp.internal.raft.impl.persistence.RestoredRaftState;
+import com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup;
+import com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup.LocalRaftGroupBuilder;
+import com.hazelcast.cp.internal.raft.impl.testing.TestRaftEndpoint;
+import com.hazelcast.function.BiFunctionEx;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getCommitIndex;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getSnapshotEntry;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getTerm;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class FilePersistenceTest extends HazelcastTestSupport {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private final List<FileRaftStateStore> stores = new CopyOnWriteArrayList<>();
+
+    private LocalRaftGroup group;
+
+    @After
+    public void destroy() throws IOException {
+        if (group != null) {
+            group.destroy();
+        }
+        for (FileRaftStateStore store : stores) {
+            store.close();
+        }
+    }
+
+    @Test
+    public void when_leaderIsRestarted_then_itRestoresItsRaftStateFromFilesAndBecomesLeader() throws Exception {
+        group = new LocalRaftGroupBuilder(3).setRaftStateStoreFactory(fileStoreFactory())
+                                            .setAppendNopEntryOnLeaderElection(true)
+                                            .build();
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        int count = 10;
+        for (int i = 0; i < count; i++) {
+            leader.replicate(new ApplyRaftRunnable("val" + i)).get();
+        }
+
+        assertLeaderRestoresFromFiles(leader, count);
+    }
+
+    @Test
+    public void when_leaderIsRestarted_then_itRestoresItsRaftStateFromSnapshotFileAndBecomesLeader() throws Exception {
+        int committedEntryCountToSnapshot = 50;
+        RaftAlgorithmConfig config = new RaftAlgorithmConfig()
+                .setCommitIndexAdvanceCountToSnapshot(committedEntryCountToSnapshot);
+        group = new LocalRaftGroupBuilder(3, config).setRaftStateStoreFactory(fileStoreFactory())
+                                                    .setAppendNopEntryOnLeaderElection(true)
+                                                    .build();
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        int count = committedEntryCountToSnapshot + 10;
+        for (int i = 0; i < count; i++) {
+            leader.replicate(new ApplyRaftRunnable("val" + i)).get();
+        }
+        assertTrue(getSnapshotEntry(leader).index() > 0);
+
+        assertLeaderRestoresFromFiles(leader, count);
+    }
+
+    private void assertLeaderRestoresFromFiles(RaftNodeImpl leader, int count) throws IOException {
+        int term = getTerm(leader);
+        long commitIndex = getCommitIndex(leader);
+        RaftEndpoint terminatedEndpoint = leader.getLocalMember();
+
+        // Block voting between followers
+        // to avoid a leader election before leader restarts.
+        for (RaftEndpoint endpoint : group.getFollowerEndpoints()) {
+            group.dropMessagesToAll(endpoint, PreVoteRequest.class);
+        }
+
+        group.terminateNode(terminatedEndpoint);
+
+        FileRaftStateLoader loader = new FileRaftStateLoader(directoryOf(terminatedEndpoint), serializationService);
+        RestoredRaftState restoredState = loader.load();
+        assertEquals(terminatedEndpoint, restoredState.localEndpoint());
+        assertEquals(term, restoredState.term());
+
+        FileRaftStateStore stateStore = new FileRaftStateStore(directoryOf(terminatedEndpoint), serializationService,
+                loader.logFileStructure());
+        stores.add(stateStore);
+        RaftNodeImpl restartedNode = group.createNewRaftNode(restoredState, stateStore);
+
+        RaftNodeImpl newLeader = group.waitUntilLeaderElected();
+        assertSame(restartedNode, newLeader);
+
+        assertTrueEventually(() -> {
+            assertTrue(getTerm(restartedNode) > term);
+            assertEquals(commitIndex + 1, getCommitIndex(restartedNode));
+            RaftDataService service = group.getService(restartedNode);
+            Object[] values = service.valuesArray();
+            assertThat(values, arrayWithSize(count));
+            for (int i = 0; i < count; i++) {
+                assertEquals("val" + i, values[i]);
+            }
+        });
+    }
+
+    private BiFunctionEx<RaftEndpoint, RaftAlgorithmConfig, RaftStateStore> fileStoreFactory() {
+        return (endpoint, config) -> {
+            FileRaftStateStore store = new FileRaftStateStore(directoryOf(endpoint), serializationService, null);
+            stores.add(store);
+            return store;
+        };
+    }
+
+    private File directoryOf(RaftEndpoint endpoint) {
+        return new File(folder.getRoot(), ((TestRaftEndpoint) endpoint).getUuid().toString());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl;
+
+import com.hazelcast.config.cp.RaftAlgorithmConfig;
+import com.hazelcast.cp.internal.raft.impl.dataservice.ApplyRaftRunnable;
+import com.hazelcast.cp.internal.raft.impl.dataservice.QueryRaftRunnable;
+import com.hazelcast.cp.internal.raft.impl.dto.AppendRequest;
+import com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup;
+import com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup.LocalRaftGroupBuilder;
+import com.hazelcast.spi.impl.InternalCompletableFuture;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.cp.internal.raft.QueryPolicy.LINEARIZABLE;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getLeaderQueryRound;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.receivedAppendEntriesRecently;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class LeaderLeaseQueryTest extends HazelcastTestSupport {
+
+    private LocalRaftGroup group;
+
+    @After
+    public void destroy() {
+        if (group != null) {
+            group.destroy();
+        }
+    }
+
+    @Test(timeout = 300_000)
+    public void when_leaderLeaseIsValid_then_linearizableQueryRunsWithoutQueryRound() throws Exception {
+        group = newGroup(5000);
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        leader.replicate(new ApplyRaftRunnable("value1")).get();
+
+        Object o = leader.query(new QueryRaftRunnable(), LINEARIZABLE).get();
+
+        assertEquals("value1", o);
+        assertEquals(0, getLeaderQueryRound(leader));
+    }
+
+    @Test(timeout = 300_000)
+    public void when_linearizableQueriesAreIssuedContinuously_then_leaderLeaseIsRenewed() throws Exception {
+        group = newGroup(2000);
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        leader.replicate(new ApplyRaftRunnable("value1")).get();
+
+        // the lease duration is 1.5 seconds
+        long deadline = System.currentTimeMillis() + SECONDS.toMillis(4);
+        while (System.currentTimeMillis() < deadline) {
+            assertEquals("value1", leader.query(new QueryRaftRunnable(), LINEARIZABLE).get());
+            sleepMillis(50);
+        }
+
+        assertEquals(0, getLeaderQueryRound(leader));
+    }
+
+    @Test(timeout = 300_000)
+    public void when_leaderLeaseExpires_then_linearizableQueryWaitsForQueryRound() throws Exception {
+        group = newGroup(2000);
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        leader.replicate(new ApplyRaftRunnable("value1")).get();
+
+        group.dropMessagesToAll(leader.getLocalMember(), AppendRequest.class);
+
+        // the lease duration is 1.5 seconds
+        sleepAtLeastSeconds(2);
+
+        InternalCompletableFuture queryFuture = leader.query(new QueryRaftRunnable(), LINEARIZABLE);
+
+        assertTrueAllTheTime(() -> assertFalse(queryFuture.isDone()), 3);
+        assertEquals(1, getLeaderQueryRound(leader));
+
+        group.allowMessagesToAll(leader.getLocalMember(), AppendRequest.class);
+
+        assertEquals("value1", queryFuture.get());
+    }
+
+    @Test(timeout = 300_000)
+    public void when_followerStopsReceivingAppendRequests_then_leaderStickinessEnds() throws Exception {
+        group = newGroup(2000);
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        leader.replicate(new ApplyRaftRunnable("value1")).get();
+        RaftNodeImpl follower = group.getAnyFollowerNode();
+
+        assertTrue(receivedAppendEntriesRecently(follower));
+
+        group.dropMessagesToMember(leader.getLocalMember(), follower.getLocalMember(), AppendRequest.class);
+
+        assertTrueEventually(() -> assertFalse(receivedAppendEntriesRecently(follower)));
+    }
+
+    private LocalRaftGroup newGroup(long leaderElectionTimeoutInMillis) {
+        RaftAlgorithmConfig config = new RaftAlgorithmConfig()
+                .setLeaderElectionTimeoutInMillis(leaderElectionTimeoutInMillis)
+                .setLeaderLeaseEnabled(true)
+                .setLeaderLeaseClockDriftToleranceInMillis(500);
+        return new LocalRaftGroupBuilder(5, config).setAppendNopEntryOnLeaderElection(true).build();
+    }
+}
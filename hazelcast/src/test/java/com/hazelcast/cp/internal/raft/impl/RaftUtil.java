@@ -96,6 +96,33 @@ public class RaftUtil {
         return readRaftState(leader, task);
     }
 
+    public static long getNextIndex(RaftNodeImpl leader, RaftEndpoint follower) {
+        Callable<Long> task = () -> {
+            LeaderState leaderState = leader.state().leaderState();
+            return leaderState.getFollowerState(follower).nextIndex();
+        };
+
+        return readRaftState(leader, task);
+    }
+
+    public static int getInFlightAppendRequestCount(RaftNodeImpl leader, RaftEndpoint follower) {
+        Callable<Integer> task = () -> {
+            LeaderState leaderState = leader.state().leaderState();
+            return leaderState.getFollowerState(follower).inFlightAppendRequestCount();
+        };
+
+        return readRaftState(leader, task);
+    }
+
+    public static long getAckedAppendRequestCount(RaftNodeImpl leader, RaftEndpoint follower) {
+        Callable<Long> task = () -> {
+            LeaderState leaderState = leader.state().leaderState();
+            return leaderState.getFollowerState(follower).ackedAppendRequestCount();
+        };
+
+        return readRaftState(leader, task);
+    }
+
     public static long getLeaderQueryRound(RaftNodeImpl leader) {
         Callable<Long> task = () -> {
             LeaderState leaderState = leader.state().leaderState();
@@ -106,6 +133,18 @@ public class RaftUtil {
         return readRaftState(leader, task);
     }
 
+    public static long getReadIndex(RaftNodeImpl node) {
+        Callable<Long> task = () -> node.state().readIndexState().readIndex();
+
+        return readRaftState(node, task);
+    }
+
+    public static boolean receivedAppendEntriesRecently(RaftNodeImpl node) {
+        Callable<Boolean> task = node::receivedAppendEntriesRecently;
+
+        return readRaftState(node, task);
+    }
+
     public static RaftNodeStatus getStatus(RaftNodeImpl node) {
         Callable<RaftNodeStatus> task = node::getStatus;
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl;
+
+import com.hazelcast.config.cp.RaftAlgorithmConfig;
+import com.hazelcast.cp.exception.NotLeaderException;
+import com.hazelcast.cp.internal.raft.impl.dataservice.ApplyRaftRunnable;
+import com.hazelcast.cp.internal.raft.impl.dataservice.QueryRaftRunnable;
+import com.hazelcast.cp.internal.raft.impl.dto.AppendRequest;
+import com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup;
+import com.hazelcast.cp.internal.raft.impl.testing.LocalRaftGroup.LocalRaftGroupBuilder;
+import com.hazelcast.spi.impl.InternalCompletableFuture;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.cp.internal.raft.QueryPolicy.ANY_READ_INDEX;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getCommitIndex;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getLeaderMember;
+import static com.hazelcast.cp.internal.raft.impl.RaftUtil.getReadIndex;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ReadIndexQueryTest extends HazelcastTestSupport {
+
+    private LocalRaftGroup group;
+
+    @After
+    public void destroy() {
+        if (group != null) {
+            group.destroy();
+        }
+    }
+
+    @Test(timeout = 300_000)
+    public void when_readIndexQueryIssuedOnLeader_then_itReadsLastState() throws Exception {
+        group = newGroup(new RaftAlgorithmConfig());
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        leader.replicate(new ApplyRaftRunnable("value1")).get();
+
+        Object o = leader.query(new QueryRaftRunnable(), ANY_READ_INDEX).get();
+
+        assertEquals("value1", o);
+    }
+
+    @Test(timeout = 300_000)
+    public void when_readIndexQueryIssuedOnFollower_then_itReadsValueCommittedBeforeLeaderAppendRequest() throws Exception {
+        group = newGroup(new RaftAlgorithmConfig());
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        RaftNodeImpl follower = group.getNodesExcept(leader.getLocalMember())[0];
+        leader.replicate(new ApplyRaftRunnable("value1")).get();
+        long commitIndex = getCommitIndex(leader);
+
+        assertTrueEventually(() -> assertTrue(getReadIndex(follower) >= commitIndex));
+
+        Object o = follower.query(new QueryRaftRunnable(), ANY_READ_INDEX).get();
+
+        assertEquals("value1", o);
+    }
+
+    @Test(timeout = 300_000)
+    public void when_followerHasNotAppliedReadIndex_then_readIndexQueryWaitsUntilApplied() throws Exception {
+        group = newGroup(new RaftAlgorithmConfig());
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        RaftNodeImpl follower = group.getNodesExcept(leader.getLocalMember())[0];
+        leader.replicate(new ApplyRaftRunnable("value1")).get();
+
+        group.dropMessagesToMember(leader.getLocalMember(), follower.getLocalMember(), AppendRequest.class);
+
+        leader.replicate(new ApplyRaftRunnable("value2")).get();
+        long commitIndex = getCommitIndex(leader);
+
+        // the follower learns the commit index of the leader before it receives the committed entries
+        follower.execute(() -> follower.state().readIndexState().readIndex(commitIndex));
+
+        InternalCompletableFuture queryFuture = follower.query(new QueryRaftRunnable(), ANY_READ_INDEX);
+
+        assertTrueAllTheTime(() -> assertFalse(queryFuture.isDone()), 3);
+
+        group.allowMessagesToMember(leader.getLocalMember(), follower.getLocalMember(), AppendRequest.class);
+
+        assertEquals("value2", queryFuture.get());
+    }
+
+    @Test(timeout = 300_000)
+    public void when_followerDoesNotKnowLeader_then_readIndexQueryFails() throws Exception {
+        group = newGroup(new RaftAlgorithmConfig().setLeaderHeartbeatPeriodInMillis(1000));
+        group.start();
+
+        RaftNodeImpl leader = group.waitUntilLeaderElected();
+        RaftNodeImpl follower = group.getNodesExcept(leader.getLocalMember())[0];
+        leader.replicate(new ApplyRaftRunnable("value1")).get();
+
+        group.split(follower.getLocalMember());
+
+        assertTrueEventually(() -> assertNull(getLeaderMember(follower)));
+
+        try {
+            follower.query(new QueryRaftRunnable(), ANY_READ_INDEX).joinInternal();
+            fail();
+        } catch (NotLeaderException ignored) {
+        }
+    }
+
+    private LocalRaftGroup newGroup(RaftAlgorithmConfig config) {
+        return new LocalRaftGroupBuilder(5, config).setAppendNopEntryOnLeaderElection(true).build();
+    }
+}
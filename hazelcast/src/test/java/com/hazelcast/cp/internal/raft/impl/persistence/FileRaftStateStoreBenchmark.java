@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import com.hazelcast.cp.internal.raft.impl.log.LogEntry;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.internal.util.ExceptionUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures the throughput of {@link FileRaftStateStore} when multiple
+ * threads append and flush concurrently, for different group commit
+ * windows. Each thread waits for its own entry to become durable before
+ * appending the next one, as a Raft leader does before acknowledging.
+ */
+public final class FileRaftStateStoreBenchmark {
+
+    private static final int THREAD_COUNT = 8;
+    private static final int ENTRIES_PER_THREAD = 2000;
+    private static final int PAYLOAD_SIZE = 256;
+    private static final long[] GROUP_COMMIT_WINDOWS_MICROS = {0, 100, 500, 2000};
+
+    private FileRaftStateStoreBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        byte[] payload = new byte[PAYLOAD_SIZE];
+        for (long windowMicros : GROUP_COMMIT_WINDOWS_MICROS) {
+            File directory = Files.createTempDirectory("raft-store-benchmark").toFile();
+            FileRaftStateStore store = new FileRaftStateStore(directory, serializationService, null,
+                    FileRaftStateStore.DEFAULT_MAX_SEGMENT_SIZE, MICROSECONDS.toNanos(windowMicros));
+            store.open();
+            try {
+                long elapsedNanos = run(store, payload);
+                long entries = (long) THREAD_COUNT * ENTRIES_PER_THREAD;
+                System.out.printf("group commit window: %5d us, entries/sec: %10.0f%n", windowMicros,
+                        entries * (double) SECONDS.toNanos(1) / elapsedNanos);
+            } finally {
+                store.close();
+                for (File file : directory.listFiles()) {
+                    Files.delete(file.toPath());
+                }
+                Files.delete(directory.toPath());
+            }
+        }
+    }
+
+    private static long run(FileRaftStateStore store, byte[] payload) throws InterruptedException {
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch doneLatch = new CountDownLatch(THREAD_COUNT);
+        long[] index = new long[1];
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            new Thread(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < ENTRIES_PER_THREAD; j++) {
+                        synchronized (index) {
+                            store.persistEntry(new LogEntry(1, ++index[0], payload));
+                        }
+                        store.flushLogs();
+                    }
+                } catch (IOException | InterruptedException e) {
+                    throw ExceptionUtil.rethrow(e);
+                } finally {
+                    doneLatch.countDown();
+                }
+            }).start();
+        }
+        long start = System.nanoTime();
+        startLatch.countDown();
+        doneLatch.await();
+        return System.nanoTime() - start;
+    }
+}
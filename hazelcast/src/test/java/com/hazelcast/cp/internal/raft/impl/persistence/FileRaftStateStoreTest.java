@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.persistence;
+
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.log.LogEntry;
+import com.hazelcast.cp.internal.raft.impl.log.SnapshotEntry;
+import com.hazelcast.cp.internal.raft.impl.testing.TestRaftEndpoint;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.SEGMENT_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.SEGMENT_SUFFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.SNAPSHOT_PREFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.SNAPSHOT_SUFFIX;
+import static com.hazelcast.cp.internal.raft.impl.persistence.RaftLogFiles.listFiles;
+import static com.hazelcast.test.HazelcastTestSupport.spawn;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class FileRaftStateStoreTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final RaftEndpoint localEndpoint = new TestRaftEndpoint(UUID.randomUUID(), 1);
+    private final List<RaftEndpoint> members = Arrays.asList(localEndpoint,
+            new TestRaftEndpoint(UUID.randomUUID(), 2), new TestRaftEndpoint(UUID.randomUUID(), 3));
+
+    private InternalSerializationService serializationService;
+    private File directory;
+    private FileRaftStateStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        directory = new File(folder.getRoot(), "group");
+        store = newStore(null);
+        store.open();
+        store.persistInitialMembers(localEndpoint, members);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    public void testRestore_termAndMembers() throws IOException {
+        store.persistTerm(3, members.get(1));
+        store.persistTerm(4, null);
+
+        RestoredRaftState state = load();
+        assertEquals(localEndpoint, state.localEndpoint());
+        assertEquals(members, state.initialMembers());
+        assertEquals(4, state.term());
+        assertNull(state.votedFor());
+        assertNull(state.snapshot());
+        assertEquals(0, state.entries().length);
+    }
+
+    @Test
+    public void testRestore_entriesAcrossSegments() throws IOException {
+        persistEntries(1, 100);
+
+        assertTrue(segmentCount() > 1);
+        assertEntries(load().entries(), 1, 100);
+    }
+
+    @Test
+    public void testRestore_withoutFlush_restoresFlushedEntries() throws IOException {
+        persistEntries(1, 10);
+        store.persistEntry(entry(11));
+
+        // the write buffer is not written to the file before the flush
+        assertEntries(load().entries(), 1, 10);
+    }
+
+    @Test
+    public void testDeleteEntriesFrom_withinSegment() throws IOException {
+        persistEntries(1, 100);
+        store.deleteEntriesFrom(98);
+        persistEntries(98, 105);
+
+        assertEntries(load().entries(), 1, 105);
+    }
+
+    @Test
+    public void testDeleteEntriesFrom_acrossSegments() throws IOException {
+        persistEntries(1, 100);
+        int segmentCount = segmentCount();
+        store.deleteEntriesFrom(60);
+        assertTrue(segmentCount() < segmentCount);
+
+        assertEntries(load().entries(), 1, 59);
+        persistEntries(60, 70);
+        assertEntries(load().entries(), 1, 70);
+    }
+
+    @Test
+    public void testSnapshot_deletesCoveredSegmentsAndOlderSnapshots() throws IOException {
+        persistEntries(1, 100);
+        int segmentCount = segmentCount();
+        store.persistSnapshot(snapshot(50));
+        store.persistSnapshot(snapshot(90));
+        store.flushLogs();
+
+        assertTrue(segmentCount() < segmentCount);
+        assertEquals(1, listFiles(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).size());
+        RestoredRaftState state = load();
+        assertEquals(90, state.snapshot().index());
+        assertEquals(members, new ArrayList<>(state.snapshot().groupMembers()));
+        assertEntries(state.entries(), 91, 100);
+    }
+
+    @Test
+    public void testSnapshot_installedAheadOfLog() throws IOException {
+        persistEntries(1, 10);
+        store.persistSnapshot(snapshot(500));
+        persistEntries(501, 510);
+
+        RestoredRaftState state = load();
+        assertEquals(500, state.snapshot().index());
+        assertEntries(state.entries(), 501, 510);
+        assertEquals(1, segmentCount());
+    }
+
+    @Test
+    public void testRestore_ignoresTornTail() throws IOException {
+        persistEntries(1, 10);
+        List<File> segments = listFiles(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        File last = segments.get(segments.size() - 1);
+        try (RandomAccessFile file = new RandomAccessFile(last, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        assertEntries(load().entries(), 1, 9);
+    }
+
+    @Test
+    public void testReopen_withRestoredStructure_resumesAppending() throws IOException {
+        persistEntries(1, 30);
+        store.close();
+
+        FileRaftStateLoader loader = new FileRaftStateLoader(directory, serializationService);
+        assertEntries(loader.load().entries(), 1, 30);
+        store = newStore(loader.logFileStructure());
+        store.open();
+        persistEntries(31, 40);
+        store.deleteEntriesFrom(38);
+        persistEntries(38, 45);
+
+        assertEntries(load().entries(), 1, 45);
+    }
+
+    @Test
+    public void testReopen_withoutStructure_truncatesTornTail() throws IOException {
+        persistEntries(1, 10);
+        store.close();
+        List<File> segments = listFiles(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        File last = segments.get(segments.size() - 1);
+        try (RandomAccessFile file = new RandomAccessFile(last, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        store = newStore(null);
+        store.open();
+        persistEntries(10, 20);
+
+        assertEntries(load().entries(), 1, 20);
+    }
+
+    @Test
+    public void testConcurrentFlushes_areGroupCommitted() throws Exception {
+        store.close();
+        store = new FileRaftStateStore(directory, serializationService, null, SEGMENT_SIZE * 64, 100_000);
+        store.open();
+        int threadCount = 4;
+        int entriesPerThread = 200;
+        AtomicLong index = new AtomicLong();
+        List<Future> futures = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            futures.add(spawn(() -> {
+                for (int j = 0; j < entriesPerThread; j++) {
+                    synchronized (index) {
+                        store.persistEntry(entry(index.incrementAndGet()));
+                    }
+                    store.flushLogs();
+                }
+                return null;
+            }));
+        }
+        for (Future future : futures) {
+            future.get();
+        }
+
+        assertEntries(load().entries(), 1, threadCount * entriesPerThread);
+    }
+
+    private FileRaftStateStore newStore(LogFileStructure structure) {
+        return new FileRaftStateStore(directory, serializationService, structure, SEGMENT_SIZE, 0);
+    }
+
+    private RestoredRaftState load() throws IOException {
+        return new FileRaftStateLoader(directory, serializationService).load();
+    }
+
+    private void persistEntries(long from, long to) throws IOException {
+        for (long index = from; index <= to; index++) {
+            store.persistEntry(entry(index));
+        }
+        store.flushLogs();
+    }
+
+    private int segmentCount() {
+        return listFiles(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX).size();
+    }
+
+    private static LogEntry entry(long index) {
+        return new LogEntry(1, index, "operation-" + index);
+    }
+
+    private SnapshotEntry snapshot(long index) {
+        return new SnapshotEntry(1, index, "snapshot-" + index, 0, members);
+    }
+
+    private static void assertEntries(LogEntry[] entries, long from, long to) {
+        assertEquals(to - from + 1, entries.length);
+        for (int i = 0; i < entries.length; i++) {
+            assertEquals(from + i, entries[i].index());
+            assertEquals("operation-" + (from + i), entries[i].operation());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cp.internal.raft.impl.state;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class FollowerStateTest {
+
+    private final FollowerState state = new FollowerState(10, 11);
+
+    @Test
+    public void test_appendRequestSent_advancesNextIndex() {
+        state.appendRequestSent(11, 15);
+        state.appendRequestSent(16, 20);
+
+        assertEquals(21, state.nextIndex());
+        assertEquals(10, state.matchIndex());
+        assertEquals(2, state.inFlightAppendRequestCount());
+        assertEquals(10, state.inFlightEntryCount());
+    }
+
+    @Test
+    public void test_completeInFlightAppendRequests_completesCoveredRequestsOnly() {
+        state.appendRequestSent(11, 15);
+        state.appendRequestSent(16, 20);
+        state.appendRequestSent(21, 25);
+
+        state.completeInFlightAppendRequests(17);
+
+        assertEquals(2, state.inFlightAppendRequestCount());
+        assertEquals(10, state.inFlightEntryCount());
+        assertEquals(1, state.ackedAppendRequestCount());
+
+        state.completeInFlightAppendRequests(25);
+
+        assertEquals(0, state.inFlightAppendRequestCount());
+        assertEquals(0, state.inFlightEntryCount());
+        assertEquals(3, state.ackedAppendRequestCount());
+        assertTrue(state.totalAppendLatencyNanos() >= 0);
+        assertEquals(26, state.nextIndex());
+    }
+
+    @Test
+    public void test_resetInFlightAppendRequests_movesNextIndexBackToMatchIndex() {
+        state.appendRequestSent(11, 15);
+        state.appendRequestSent(16, 20);
+        state.matchIndex(15);
+        state.completeInFlightAppendRequests(15);
+
+        state.resetInFlightAppendRequests();
+
+        assertEquals(0, state.inFlightAppendRequestCount());
+        assertEquals(0, state.inFlightEntryCount());
+        assertEquals(16, state.nextIndex());
+    }
+
+    @Test
+    public void test_getAndResetMaxAppendLatency() {
+        state.appendRequestSent(11, 15);
+        state.completeInFlightAppendRequests(15);
+
+        assertTrue(state.getAndResetMaxAppendLatencyNanos() >= 0);
+        assertEquals(0, state.getAndResetMaxAppendLatencyNanos());
+    }
+
+    @Test
+    public void test_leaseAckAge_whenNoAppendRequestAcked() {
+        assertEquals(Long.MAX_VALUE, state.leaseAckAgeNanos(100));
+    }
+
+    @Test
+    public void test_leaseAckReceived_keepsLatestRequestTimestamp() {
+        state.leaseAckReceived(50);
+        state.leaseAckReceived(30);
+
+        assertEquals(50, state.leaseAckAgeNanos(100));
+
+        state.leaseAckReceived(80);
+
+        assertEquals(20, state.leaseAckAgeNanos(100));
+    }
+}
@@ -28,6 +28,7 @@ import org.junit.runner.RunWith;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
@@ -109,4 +110,23 @@ public class LeaderStateTest {
         }
     }
 
+    @Test
+    public void test_leaseAge() {
+        int majority = 3;
+        assertEquals(Long.MAX_VALUE, state.leaseAgeNanos(majority, 100));
+
+        Iterator<RaftEndpoint> iterator = remoteEndpoints.iterator();
+        state.getFollowerState(iterator.next()).leaseAckReceived(70);
+
+        assertEquals(Long.MAX_VALUE, state.leaseAgeNanos(majority, 100));
+
+        state.getFollowerState(iterator.next()).leaseAckReceived(90);
+
+        assertEquals(30, state.leaseAgeNanos(majority, 100));
+
+        state.getFollowerState(iterator.next()).leaseAckReceived(95);
+
+        assertEquals(10, state.leaseAgeNanos(majority, 100));
+    }
+
 }
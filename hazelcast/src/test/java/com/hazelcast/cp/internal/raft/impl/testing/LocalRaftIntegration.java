@@ -237,6 +237,11 @@ public class LocalRaftIntegration implements RaftIntegration {
         return true;
     }
 
+    @Override
+    public boolean sendHeartbeat(AppendRequest request, RaftEndpoint target) {
+        return send(request, target);
+    }
+
     @Override
     public boolean send(AppendSuccessResponse response, RaftEndpoint target) {
         assertNotEquals(localEndpoint, target);
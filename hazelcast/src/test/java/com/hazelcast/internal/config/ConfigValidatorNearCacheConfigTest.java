@@ -18,6 +18,7 @@ package com.hazelcast.internal.config;
 
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.InvalidConfigurationException;
+import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
@@ -51,13 +52,18 @@ public class ConfigValidatorNearCacheConfigTest extends HazelcastTestSupport {
     }
 
     /**
-     * Not supported in open source version, so test is expected to throw exception.
+     * Native memory is not enabled, so test is expected to throw exception.
      */
     @Test(expected = InvalidConfigurationException.class)
     public void checkNearCacheConfig_NATIVE() {
         checkNearCacheConfig(MAP_NAME, getNearCacheConfig(NATIVE), null, false);
     }
 
+    @Test
+    public void checkNearCacheConfig_NATIVE_withNativeMemoryEnabled() {
+        checkNearCacheConfig(MAP_NAME, getNearCacheConfig(NATIVE), new NativeMemoryConfig().setEnabled(true), false);
+    }
+
     /**
      * Not supported client configuration, so test is expected to throw exception.
      */
@@ -84,13 +84,19 @@ public class ConfigValidatorTest extends HazelcastTestSupport {
     }
 
     /**
-     * Not supported in open source version, so test is expected to throw exception.
+     * Native memory is not enabled, so test is expected to throw exception.
      */
     @Test(expected = InvalidConfigurationException.class)
     public void checkMapConfig_NATIVE() {
         checkMapConfig(getMapConfig(NATIVE), nativeMemoryConfig, splitBrainMergePolicyProvider, properties);
     }
 
+    @Test
+    public void checkMapConfig_NATIVE_withNativeMemoryEnabled() {
+        nativeMemoryConfig.setEnabled(true);
+        checkMapConfig(getMapConfig(NATIVE), nativeMemoryConfig, splitBrainMergePolicyProvider, properties);
+    }
+
     private MapConfig getMapConfig(InMemoryFormat inMemoryFormat) {
         return new MapConfig()
                 .setInMemoryFormat(inMemoryFormat);
@@ -119,31 +125,26 @@ public class ConfigValidatorTest extends HazelcastTestSupport {
     }
 
     @Test
-    public void checkNearCacheNativeMemoryConfig_shouldNotNeedNativeMemoryConfig_BINARY_onOS() {
-        checkNearCacheNativeMemoryConfig(BINARY, null, false);
-    }
-
-    @Test
-    public void checkNearCacheNativeMemoryConfig_shouldNotNeedNativeMemoryConfig_BINARY_onEE() {
-        checkNearCacheNativeMemoryConfig(BINARY, null, true);
+    public void checkNearCacheNativeMemoryConfig_shouldNotNeedNativeMemoryConfig_BINARY() {
+        checkNearCacheNativeMemoryConfig(BINARY, null);
     }
 
     @Test
-    public void checkNearCacheNativeMemoryConfig_shouldNotThrowExceptionWithoutNativeMemoryConfig_NATIVE_onOS() {
-        checkNearCacheNativeMemoryConfig(NATIVE, null, false);
-    }
-
-    @Test
-    public void checkNearCacheNativeMemoryConfig_shouldNotThrowExceptionWithNativeMemoryConfig_NATIVE_onEE() {
+    public void checkNearCacheNativeMemoryConfig_shouldNotThrowExceptionWithNativeMemoryConfig_NATIVE() {
         NativeMemoryConfig nativeMemoryConfig = new NativeMemoryConfig()
                 .setEnabled(true);
 
-        checkNearCacheNativeMemoryConfig(NATIVE, nativeMemoryConfig, true);
+        checkNearCacheNativeMemoryConfig(NATIVE, nativeMemoryConfig);
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void checkNearCacheNativeMemoryConfig_shouldThrowExceptionWithoutNativeMemoryConfig_NATIVE() {
+        checkNearCacheNativeMemoryConfig(NATIVE, null);
     }
 
     @Test(expected = InvalidConfigurationException.class)
-    public void checkNearCacheNativeMemoryConfig_shouldThrowExceptionWithoutNativeMemoryConfig_NATIVE_onEE() {
-        checkNearCacheNativeMemoryConfig(NATIVE, null, true);
+    public void checkNearCacheNativeMemoryConfig_shouldThrowExceptionWithDisabledNativeMemoryConfig_NATIVE() {
+        checkNearCacheNativeMemoryConfig(NATIVE, new NativeMemoryConfig());
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.sketch;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.internal.eviction.impl.sketch.FrequencySketch.MAX_FREQUENCY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class FrequencySketchTest {
+
+    @Test
+    public void testCapacity_isPowerOfTwoWithinBounds() {
+        assertEquals(FrequencySketch.MIN_CAPACITY, new FrequencySketch(0).capacity());
+        assertEquals(1024, new FrequencySketch(1000).capacity());
+        assertEquals(FrequencySketch.MAX_CAPACITY, new FrequencySketch(Long.MAX_VALUE).capacity());
+    }
+
+    @Test
+    public void testIncrement() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        assertEquals(0, sketch.frequency(42));
+
+        for (int i = 1; i <= 5; i++) {
+            sketch.increment(42);
+            assertEquals(i, sketch.frequency(42));
+        }
+    }
+
+    @Test
+    public void testIncrement_saturates() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        for (int i = 0; i < 2 * MAX_FREQUENCY; i++) {
+            sketch.increment(42);
+        }
+
+        assertEquals(MAX_FREQUENCY, sketch.frequency(42));
+    }
+
+    @Test
+    public void testFrequentKeys_standOut() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        for (int round = 0; round < 10; round++) {
+            for (int hot = 0; hot < 100; hot++) {
+                sketch.increment(hot);
+            }
+        }
+        for (int cold = 100; cold < 1000; cold++) {
+            sketch.increment(cold);
+        }
+
+        for (int hot = 0; hot < 100; hot++) {
+            assertEquals(10, sketch.frequency(hot));
+        }
+        int overestimated = 0;
+        for (int cold = 100; cold < 1000; cold++) {
+            if (sketch.frequency(cold) > 1) {
+                overestimated++;
+            }
+        }
+        assertTrue("overestimated: " + overestimated, overestimated < 50);
+    }
+
+    @Test
+    public void testAging_halvesTheCounters() {
+        FrequencySketch sketch = new FrequencySketch(0);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment(42);
+        }
+
+        // the sample size is ten times the capacity
+        int sampleSize = 10 * sketch.capacity();
+        for (int i = 0; i < sampleSize; i++) {
+            sketch.increment(i + 1000);
+        }
+
+        // at least halved, while the collisions with the other keys may only add to it
+        int frequency = sketch.frequency(42);
+        assertTrue("frequency: " + frequency, frequency >= 4 && frequency < 8);
+    }
+
+    @Test
+    public void testClear() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        sketch.increment(42);
+        sketch.clear();
+
+        assertEquals(0, sketch.frequency(42));
+    }
+
+    @Test
+    public void testGrow_keepsFrequencies() {
+        FrequencySketch sketch = new FrequencySketch(0);
+        for (int key = 0; key < 50; key++) {
+            for (int i = 0; i < key % MAX_FREQUENCY; i++) {
+                sketch.increment(key);
+            }
+        }
+
+        FrequencySketch grown = sketch.grow(1000);
+
+        assertEquals(1024, grown.capacity());
+        for (int key = 0; key < 50; key++) {
+            assertEquals(sketch.frequency(key), grown.frequency(key));
+        }
+    }
+
+    @Test
+    public void testGrow_whenLargeEnough() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+
+        assertSame(sketch, sketch.grow(1000));
+        assertSame(sketch, sketch.grow(10));
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.journal;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.ringbuffer.impl.ReadResultSetImpl;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MappedJournalLogTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private InternalSerializationService serializationService;
+    private File directory;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        directory = new File(folder.getRoot(), "journal");
+    }
+
+    @Test
+    public void testAppendAndRead_acrossSegments() {
+        MappedJournalLog log = new MappedJournalLog(directory, serializationService, SEGMENT_SIZE, 0, Long.MAX_VALUE);
+        append(log, 0, 100);
+        assertTrue(log.segmentCount() > 1);
+        assertEquals(log.segmentCount(), directory.list().length);
+
+        assertEquals(0, log.oldestSequence(90, System.currentTimeMillis()));
+        ReadResultSetImpl<String, String> resultSet = resultSet(1000);
+        assertEquals(90, log.readMany(0, 90, resultSet, System.currentTimeMillis()));
+        assertEquals(90, resultSet.size());
+        for (int i = 0; i < 90; i++) {
+            assertEquals(i, resultSet.getSequence(i));
+            assertEquals("event-" + i, resultSet.get(i));
+        }
+    }
+
+    @Test
+    public void testReadMany_stopsAtMaxSize() {
+        MappedJournalLog log = new MappedJournalLog(directory, serializationService, SEGMENT_SIZE, 0, Long.MAX_VALUE);
+        append(log, 10, 50);
+
+        ReadResultSetImpl<String, String> resultSet = resultSet(5);
+        assertEquals(25, log.readMany(20, 50, resultSet, System.currentTimeMillis()));
+        assertEquals("event-20", resultSet.get(0));
+        assertEquals("event-24", resultSet.get(4));
+    }
+
+    @Test
+    public void testMaxSize_deletesOldestSegments() {
+        MappedJournalLog log = new MappedJournalLog(directory, serializationService, SEGMENT_SIZE, 0, 2 * SEGMENT_SIZE);
+        append(log, 0, 200);
+        assertEquals(2, log.segmentCount());
+        assertEquals(2, directory.list().length);
+
+        long oldest = log.oldestSequence(200, System.currentTimeMillis());
+        assertTrue(oldest > 0 && oldest < 200);
+        ReadResultSetImpl<String, String> resultSet = resultSet(1000);
+        assertEquals(200, log.readMany(oldest, 200, resultSet, System.currentTimeMillis()));
+        assertEquals("event-" + oldest, resultSet.get(0));
+    }
+
+    @Test
+    public void testRetention_deletesExpiredSegments() {
+        MappedJournalLog log = new MappedJournalLog(directory, serializationService, SEGMENT_SIZE, 1000, Long.MAX_VALUE);
+        for (int i = 0; i < 100; i++) {
+            log.append(i, serializationService.toData("event-" + i), i);
+        }
+        int segmentCount = log.segmentCount();
+        assertTrue(segmentCount > 1);
+
+        log.retain(100_000);
+        // the newest segment is always kept
+        assertEquals(1, log.segmentCount());
+        assertTrue(log.oldestSequence(100, 100_000) > 0);
+    }
+
+    @Test
+    public void testRead_deletesExpiredSegments() {
+        MappedJournalLog log = new MappedJournalLog(directory, serializationService, SEGMENT_SIZE, 1000, Long.MAX_VALUE);
+        for (int i = 0; i < 100; i++) {
+            log.append(i, serializationService.toData("event-" + i), i);
+        }
+        assertTrue(log.segmentCount() > 1);
+
+        ReadResultSetImpl<String, String> resultSet = resultSet(1000);
+        long next = log.readMany(0, 100, resultSet, 100_000);
+        // the expired segments are not read but deleted
+        assertEquals(1, log.segmentCount());
+        assertEquals(0, resultSet.size());
+        assertEquals(0, next);
+        assertTrue(log.oldestSequence(100, 100_000) > 0);
+    }
+
+    @Test
+    public void testAppend_whenNotContiguous_thenDiscardsSegments() {
+        MappedJournalLog log = new MappedJournalLog(directory, serializationService, SEGMENT_SIZE, 0, Long.MAX_VALUE);
+        append(log, 0, 50);
+        append(log, 70, 75);
+
+        assertEquals(1, log.segmentCount());
+        assertEquals(70, log.oldestSequence(73, System.currentTimeMillis()));
+        // the segments end before the head sequence
+        assertEquals(90, log.oldestSequence(90, System.currentTimeMillis()));
+    }
+
+    @Test
+    public void testDestroy() {
+        MappedJournalLog log = new MappedJournalLog(directory, serializationService, SEGMENT_SIZE, 0, Long.MAX_VALUE);
+        append(log, 0, 100);
+        log.destroy();
+
+        assertEquals(0, log.segmentCount());
+        assertFalse(directory.exists());
+        assertEquals(100, log.oldestSequence(100, System.currentTimeMillis()));
+    }
+
+    private void append(MappedJournalLog log, long from, long to) {
+        for (long sequence = from; sequence < to; sequence++) {
+            log.append(sequence, serializationService.toData("event-" + sequence), System.currentTimeMillis());
+        }
+    }
+
+    private ReadResultSetImpl<String, String> resultSet(int maxSize) {
+        return new ReadResultSetImpl<>(0, maxSize, serializationService, null);
+    }
+}
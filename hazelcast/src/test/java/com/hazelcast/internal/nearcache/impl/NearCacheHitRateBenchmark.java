@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl;
+
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.nearcache.impl.store.NearCacheObjectRecordStore;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Replays synthetic access traces against Near Cache record stores with
+ * different eviction policies and reports their hit rates.
+ * <p>
+ * The keys are read the way the Near Cache reads them: a miss is followed
+ * by an admission check, an eviction and a put. Two traces are replayed:
+ * <ul>
+ * <li>ZIPFIAN: keys drawn from a Zipfian distribution over the key space,</li>
+ * <li>ZIPFIAN_WITH_SCANS: the same, interleaved with scans reading a range
+ * of keys outside of the Zipfian key space once, like a batch job would.</li>
+ * </ul>
+ * The hit rate is reported for the Zipfian reads only, so that the two
+ * traces are comparable. Arguments: Near Cache size, key space size and the
+ * number of Zipfian reads.
+ */
+public final class NearCacheHitRateBenchmark {
+
+    private static final int DEFAULT_CACHE_SIZE = 1000;
+    private static final int DEFAULT_KEY_SPACE = 100000;
+    private static final int DEFAULT_READ_COUNT = 2000000;
+    private static final double ZIPF_EXPONENT = 0.9;
+    private static final int SCAN_INTERVAL = 20000;
+    private static final int SCAN_LENGTH = 10000;
+    private static final int SCAN_STEP = 4;
+
+    private final SerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+    private NearCacheHitRateBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int cacheSize = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CACHE_SIZE;
+        int keySpace = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_KEY_SPACE;
+        int readCount = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_READ_COUNT;
+
+        NearCacheHitRateBenchmark benchmark = new NearCacheHitRateBenchmark();
+        EvictionPolicy[] policies = {EvictionPolicy.LRU, EvictionPolicy.LFU, EvictionPolicy.RANDOM, EvictionPolicy.TINY_LFU};
+
+        System.out.printf("cache size %d, key space %d, %d reads, zipf exponent %.2f%n",
+                cacheSize, keySpace, readCount, ZIPF_EXPONENT);
+        System.out.printf("%-12s %12s %20s%n", "policy", "ZIPFIAN", "ZIPFIAN_WITH_SCANS");
+        for (EvictionPolicy policy : policies) {
+            double zipfian = benchmark.replay(policy, cacheSize, keySpace, readCount, false);
+            double withScans = benchmark.replay(policy, cacheSize, keySpace, readCount, true);
+            System.out.printf("%-12s %11.2f%% %19.2f%%%n", policy, zipfian, withScans);
+        }
+    }
+
+    /**
+     * @return the hit rate of the Zipfian reads in percents
+     */
+    private double replay(EvictionPolicy policy, int cacheSize, int keySpace, int readCount, boolean scans) {
+        NearCacheObjectRecordStore<Integer, Integer> store = createStore(policy, cacheSize);
+        ZipfianGenerator generator = new ZipfianGenerator(keySpace, ZIPF_EXPONENT, new Random(42));
+        int nextScanKey = keySpace;
+
+        long hits = 0;
+        for (int i = 0; i < readCount; i++) {
+            if (read(store, generator.next())) {
+                hits++;
+            }
+            if (scans && i % SCAN_INTERVAL == SCAN_INTERVAL - 1) {
+                // interleave the scan with the regular reads, like a concurrent batch job
+                for (int j = 0; j < SCAN_LENGTH; j++) {
+                    read(store, nextScanKey++);
+                    if (j % SCAN_STEP == 0) {
+                        if (read(store, generator.next())) {
+                            hits++;
+                        }
+                        i++;
+                    }
+                }
+            }
+        }
+        store.destroy();
+        return 100.0 * hits / readCount;
+    }
+
+    private static boolean read(NearCacheObjectRecordStore<Integer, Integer> store, int key) {
+        if (store.get(key) != null) {
+            return true;
+        }
+        if (store.admit(key)) {
+            store.doEviction(false);
+            store.put(key, null, key, null);
+        }
+        return false;
+    }
+
+    private NearCacheObjectRecordStore<Integer, Integer> createStore(EvictionPolicy policy, int cacheSize) {
+        NearCacheConfig config = new NearCacheConfig("benchmark");
+        config.getEvictionConfig()
+              .setEvictionPolicy(policy)
+              .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+              .setSize(cacheSize);
+        NearCacheObjectRecordStore<Integer, Integer> store
+                = new NearCacheObjectRecordStore<>("benchmark", config, ss, null);
+        store.initialize();
+        return store;
+    }
+
+    /**
+     * Draws the ranks 0..n-1 with the probability of rank k proportional to
+     * 1/(k+1)^exponent, by a binary search over the cumulative distribution.
+     * The ranks are scrambled so that the popular keys are not adjacent.
+     */
+    private static final class ZipfianGenerator {
+
+        private final double[] cumulative;
+        private final int[] keys;
+        private final Random random;
+
+        ZipfianGenerator(int n, double exponent, Random random) {
+            this.random = random;
+            this.cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+
+            this.keys = new int[n];
+            for (int k = 0; k < n; k++) {
+                keys[k] = k;
+            }
+            for (int k = n - 1; k > 0; k--) {
+                int j = random.nextInt(k + 1);
+                int key = keys[k];
+                keys[k] = keys[j];
+                keys[j] = key;
+            }
+        }
+
+        int next() {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            rank = rank >= 0 ? rank : Math.min(-rank - 1, cumulative.length - 1);
+            return keys[rank];
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.store;
+
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.memory.impl.UnsafeMemoryManager;
+import com.hazelcast.internal.nearcache.impl.record.NearCacheNativeRecord;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hazelcast.internal.nearcache.NearCache.CACHED_AS_NULL;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.NOT_RESERVED;
+import static com.hazelcast.memory.MemoryUnit.MEGABYTES;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class NearCacheNativeRecordStoreTest extends HazelcastTestSupport {
+
+    private static final int VALUE_SIZE = 1024;
+
+    private SerializationService serializationService;
+    private UnsafeMemoryManager memoryManager;
+    private NearCacheNativeRecordStore<Data, byte[]> store;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        memoryManager = new UnsafeMemoryManager(MEGABYTES.toBytes(16));
+    }
+
+    @After
+    public void tearDown() {
+        if (store != null) {
+            store.destroy();
+        }
+        assertEquals(0, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void testPutAndGet() {
+        store = createStore(newConfig());
+
+        for (int i = 0; i < 100; i++) {
+            store.put(key(i), null, value(i), null);
+        }
+
+        assertEquals(100, store.size());
+        for (int i = 0; i < 100; i++) {
+            assertArrayEquals(value(i), store.get(key(i)));
+        }
+        assertEquals(store.getUsedNativeMemory(), memoryManager.getUsedMemory());
+        assertTrue(store.getUsedNativeMemory() >= 100 * VALUE_SIZE);
+        assertEquals(100, store.getNearCacheStats().getHits());
+    }
+
+    @Test
+    public void testRecord_keepsNoValueOnHeap() {
+        store = createStore(newConfig());
+        store.put(key(1), null, value(1), null);
+
+        NearCacheNativeRecord record = store.getRecord(key(1));
+        // every read is a fresh copy of the native value
+        assertNotSame(record.getValue(), record.getValue());
+        assertEquals(record.getValue(), serializationService.toData(value(1)));
+    }
+
+    @Test
+    public void testNullValue_isCachedAsNull() {
+        store = createStore(newConfig());
+        store.put(key(1), null, null, null);
+
+        assertSame(CACHED_AS_NULL, store.get(key(1)));
+        assertEquals(0, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void testInvalidate_freesNativeMemory() {
+        store = createStore(newConfig());
+        store.put(key(1), null, value(1), null);
+        NearCacheNativeRecord record = store.getRecord(key(1));
+
+        store.invalidate(key(1));
+
+        assertNull(store.get(key(1)));
+        assertTrue(record.isDisposed());
+        assertNull(record.getValue());
+        assertEquals(0, store.getUsedNativeMemory());
+        assertEquals(0, memoryManager.getUsedMemory());
+        assertEquals(0, store.getNearCacheStats().getOwnedEntryCount());
+    }
+
+    @Test
+    public void testPut_replacingRecord_freesOldValue() {
+        store = createStore(newConfig());
+        store.put(key(1), null, value(1), null);
+        long usedMemory = store.getUsedNativeMemory();
+
+        store.put(key(1), null, value(2), null);
+
+        assertArrayEquals(value(2), store.get(key(1)));
+        assertEquals(usedMemory, store.getUsedNativeMemory());
+        assertEquals(1, store.getNearCacheStats().getOwnedEntryCount());
+    }
+
+    @Test
+    public void testClear_freesNativeMemory() {
+        store = createStore(newConfig());
+        for (int i = 0; i < 100; i++) {
+            store.put(key(i), null, value(i), null);
+        }
+
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertEquals(0, memoryManager.getUsedMemory());
+        assertEquals(0, store.getNearCacheStats().getOwnedEntryMemoryCost());
+        assertEquals(100, store.getNearCacheStats().getInvalidations());
+    }
+
+    @Test
+    public void testReservation_publishesValueToNativeMemory() {
+        store = createStore(newConfig());
+        Data keyData = key(1);
+
+        long reservationId = store.tryReserveForUpdate(keyData, keyData);
+        assertNotEquals(NOT_RESERVED, reservationId);
+        assertNull(store.get(keyData));
+        assertEquals(0, memoryManager.getUsedMemory());
+
+        assertArrayEquals(value(1), store.tryPublishReserved(keyData, value(1), reservationId, true));
+        assertArrayEquals(value(1), store.get(keyData));
+        assertTrue(memoryManager.getUsedMemory() > VALUE_SIZE);
+    }
+
+    @Test
+    public void testEviction_withUsedNativeMemorySizePolicy() {
+        NearCacheConfig config = newConfig();
+        config.getEvictionConfig()
+              .setMaxSizePolicy(MaxSizePolicy.USED_NATIVE_MEMORY_SIZE)
+              .setSize(1);
+        store = createStore(config);
+
+        for (int i = 0; i < 4 * 1024; i++) {
+            store.doEviction(false);
+            store.put(key(i), null, value(i), null);
+        }
+
+        assertTrue(store.getUsedNativeMemory() <= MEGABYTES.toBytes(1) + 2 * VALUE_SIZE);
+        assertTrue(store.getNearCacheStats().getEvictions() > 0);
+    }
+
+    @Test
+    public void testNativeOutOfMemory_evictsToMakeRoom() {
+        memoryManager = new UnsafeMemoryManager(64 * VALUE_SIZE);
+        store = createStore(newConfig());
+
+        for (int i = 0; i < 1000; i++) {
+            store.put(key(i), null, value(i), null);
+            assertArrayEquals(value(i), store.get(key(i)));
+        }
+
+        assertTrue(store.size() < 64);
+        assertTrue(store.getNearCacheStats().getEvictions() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedMaxSizePolicy() {
+        NearCacheConfig config = newConfig();
+        config.getEvictionConfig().setMaxSizePolicy(MaxSizePolicy.PER_NODE);
+        createStore(config);
+    }
+
+    @Test
+    public void testConcurrentReadsAndInvalidations() throws Exception {
+        store = createStore(newConfig());
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread[] readers = new Thread[3];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                Random random = new Random();
+                try {
+                    while (!stop.get()) {
+                        int i = random.nextInt(16);
+                        byte[] value = store.get(key(i));
+                        if (value != null) {
+                            assertArrayEquals(value(i), value);
+                        }
+                    }
+                } catch (Throwable t1) {
+                    failure.compareAndSet(null, t1);
+                }
+            });
+            readers[t].start();
+        }
+
+        Random random = new Random();
+        long deadline = System.currentTimeMillis() + 1000;
+        while (System.currentTimeMillis() < deadline) {
+            int i = random.nextInt(16);
+            if (random.nextBoolean()) {
+                store.put(key(i), null, value(i), null);
+            } else {
+                store.invalidate(key(i));
+            }
+        }
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        store.clear();
+        assertEquals(0, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void testDispose_isIdempotent() {
+        store = createStore(newConfig());
+        store.put(key(1), null, value(1), null);
+        NearCacheNativeRecord record = store.getRecord(key(1));
+
+        record.dispose();
+        record.dispose();
+
+        assertTrue(record.isDisposed());
+        assertEquals(0, store.getUsedNativeMemory());
+        store.clear();
+        assertEquals(0, store.getUsedNativeMemory());
+    }
+
+    private NearCacheNativeRecordStore<Data, byte[]> createStore(NearCacheConfig config) {
+        NearCacheNativeRecordStore<Data, byte[]> store = new NearCacheNativeRecordStore<>("name", config, memoryManager,
+                serializationService, getClass().getClassLoader());
+        store.initialize();
+        return store;
+    }
+
+    private static NearCacheConfig newConfig() {
+        NearCacheConfig config = new NearCacheConfig("name")
+                .setInMemoryFormat(InMemoryFormat.NATIVE)
+                .setInvalidateOnChange(false);
+        config.getEvictionConfig()
+              .setEvictionPolicy(EvictionPolicy.LRU)
+              .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+              .setSize(10000);
+        return config;
+    }
+
+    private Data key(int i) {
+        return serializationService.toData(i);
+    }
+
+    private static byte[] value(int i) {
+        byte[] value = new byte[VALUE_SIZE];
+        Arrays.fill(value, (byte) i);
+        return value;
+    }
+}
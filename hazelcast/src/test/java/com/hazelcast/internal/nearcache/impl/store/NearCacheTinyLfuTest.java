@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.store;
+
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.monitor.impl.NearCacheStatsImpl;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class NearCacheTinyLfuTest {
+
+    private static final int MAX_SIZE = 100;
+
+    @Test
+    public void testScan_doesNotFlushFrequentKeys() {
+        NearCacheObjectRecordStore<Integer, String> store = createStore(EvictionPolicy.TINY_LFU);
+        for (int round = 0; round < 5; round++) {
+            for (int hot = 0; hot < MAX_SIZE / 2; hot++) {
+                read(store, hot);
+            }
+        }
+
+        // the hot keys keep being read while the cold ones are scanned
+        for (int cold = MAX_SIZE; cold < 100 * MAX_SIZE; cold++) {
+            read(store, cold);
+            read(store, cold % (MAX_SIZE / 2));
+        }
+
+        for (int hot = 0; hot < MAX_SIZE / 2; hot++) {
+            assertNotNull("hot key " + hot + " was evicted", store.getRecord(hot));
+        }
+        assertTrue(store.size() <= MAX_SIZE);
+        assertTrue(((NearCacheStatsImpl) store.getNearCacheStats()).getAdmissionRejections() > 0);
+    }
+
+    @Test
+    public void testNewKey_isAdmittedOnceFrequentEnough() {
+        NearCacheObjectRecordStore<Integer, String> store = createStore(EvictionPolicy.TINY_LFU);
+        for (int round = 0; round < 2; round++) {
+            for (int key = 0; key < MAX_SIZE; key++) {
+                read(store, key);
+            }
+        }
+        assertEquals(MAX_SIZE, store.size());
+
+        int newKey = 10 * MAX_SIZE;
+        int reads = 0;
+        while (store.getRecord(newKey) == null) {
+            read(store, newKey);
+            assertTrue("the new key was never admitted", ++reads < 10);
+        }
+        assertEquals(MAX_SIZE, store.size());
+    }
+
+    @Test
+    public void testAdmit_whenNotFull() {
+        NearCacheObjectRecordStore<Integer, String> store = createStore(EvictionPolicy.TINY_LFU);
+
+        assertTrue(store.admit(1));
+        assertNull(store.get(1));
+    }
+
+    @Test
+    public void testAdmit_withOtherPolicies() {
+        NearCacheObjectRecordStore<Integer, String> store = createStore(EvictionPolicy.LFU);
+        for (int key = 0; key < 2 * MAX_SIZE; key++) {
+            read(store, key);
+        }
+
+        assertTrue(store.admit(3 * MAX_SIZE));
+    }
+
+    /**
+     * Reads the key the way the Near Cache does, caching it on a miss.
+     */
+    private static void read(NearCacheObjectRecordStore<Integer, String> store, int key) {
+        if (store.get(key) == null && store.admit(key)) {
+            store.doEviction(false);
+            store.put(key, null, "value-" + key, null);
+        }
+    }
+
+    private static NearCacheObjectRecordStore<Integer, String> createStore(EvictionPolicy evictionPolicy) {
+        NearCacheConfig config = new NearCacheConfig("test");
+        config.getEvictionConfig()
+              .setEvictionPolicy(evictionPolicy)
+              .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+              .setSize(MAX_SIZE);
+        NearCacheObjectRecordStore<Integer, String> store = new NearCacheObjectRecordStore<>("test", config,
+                new DefaultSerializationServiceBuilder().build(), null);
+        store.initialize();
+        return store;
+    }
+}
@@ -128,6 +128,16 @@ public class AbstractChannelTest {
         public long bytesWritten() {
             return 0;
         }
+
+        @Override
+        public long framesWritten() {
+            return 0;
+        }
+
+        @Override
+        public long socketWrites() {
+            return 0;
+        }
     }
 
     private static class TestChannelCloseListener implements ChannelCloseListener {
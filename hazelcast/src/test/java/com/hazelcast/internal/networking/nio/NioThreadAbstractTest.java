@@ -16,6 +16,9 @@
 
 package com.hazelcast.internal.networking.nio;
 
+import com.hazelcast.internal.metrics.DoubleGauge;
+import com.hazelcast.internal.metrics.LongGauge;
+import com.hazelcast.internal.metrics.impl.MetricsRegistryImpl;
 import com.hazelcast.internal.networking.Channel;
 import com.hazelcast.internal.networking.ChannelErrorHandler;
 import com.hazelcast.logging.ILogger;
@@ -35,11 +38,16 @@ import java.nio.channels.spi.SelectorProvider;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static com.hazelcast.internal.metrics.ProbeLevel.INFO;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isA;
@@ -174,6 +182,105 @@ public abstract class NioThreadAbstractTest extends HazelcastTestSupport {
         verify(errorHandler).onError((Channel) isNull(), any(OutOfMemoryError.class));
     }
 
+    @Test
+    public void whenIdleAndBusy_thenUtilizationReported() {
+        startThread();
+        MetricsRegistryImpl metricsRegistry = new MetricsRegistryImpl(logger, INFO);
+        metricsRegistry.registerStaticMetrics(thread, "nio");
+        final LongGauge busyTime = metricsRegistry.newLongGauge("nio.busyTime");
+        final DoubleGauge utilization = metricsRegistry.newDoubleGauge("nio.utilization");
+
+        // blocking on the selector or spinning without work is idle time
+        sleepMillis(500);
+        assertTrue("utilization: " + utilization.read(), utilization.read() < 50);
+
+        thread.addTaskAndWakeup(new Runnable() {
+            @Override
+            public void run() {
+                sleepMillis(1000);
+            }
+        });
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertTrue("busyTime: " + busyTime.read(), busyTime.read() >= 1000);
+            }
+        });
+        double value = utilization.read();
+        assertTrue("utilization: " + value, value > 0 && value <= 100);
+        assertStillRunning();
+    }
+
+    @Test
+    public void whenDelayedTask_thenRunAfterDeadline_andOtherTasksNotBlocked() {
+        startThread();
+        final long delayNanos = TimeUnit.MILLISECONDS.toNanos(1000);
+        final AtomicLong deadlineNanos = new AtomicLong();
+        final AtomicLong delayedTaskRunNanos = new AtomicLong();
+        thread.addTaskAndWakeup(new Runnable() {
+            @Override
+            public void run() {
+                deadlineNanos.set(System.nanoTime() + delayNanos);
+                thread.addDelayedTask(new Runnable() {
+                    @Override
+                    public void run() {
+                        delayedTaskRunNanos.set(System.nanoTime());
+                    }
+                }, deadlineNanos.get());
+            }
+        });
+
+        // while the delayed task waits, the thread keeps running the other tasks and selection keys
+        final CountDownLatch otherTaskRun = new CountDownLatch(1);
+        thread.addTaskAndWakeup(new Runnable() {
+            @Override
+            public void run() {
+                otherTaskRun.countDown();
+            }
+        });
+        assertOpenEventually(otherTaskRun);
+        assertStillRunning();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertNotEquals(0, delayedTaskRunNanos.get());
+            }
+        });
+        assertTrue(delayedTaskRunNanos.get() - deadlineNanos.get() >= 0);
+    }
+
+    @Test
+    public void whenDelayedTaskDueInMicros_thenNotRoundedUpToMillis() {
+        startThread();
+        final int taskCount = 200;
+        final long delayNanos = TimeUnit.MICROSECONDS.toNanos(50);
+        final CountDownLatch tasksRun = new CountDownLatch(taskCount);
+        final long startNanos = System.nanoTime();
+        thread.addTaskAndWakeup(new Runnable() {
+            @Override
+            public void run() {
+                // each task adds the next one, so the delays add up
+                thread.addDelayedTask(new Runnable() {
+                    @Override
+                    public void run() {
+                        tasksRun.countDown();
+                        if (tasksRun.getCount() > 0) {
+                            thread.addDelayedTask(this, System.nanoTime() + delayNanos);
+                        }
+                    }
+                }, System.nanoTime() + delayNanos);
+            }
+        });
+
+        assertOpenEventually(tasksRun);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        // a delay rounded up to a millisecond would take at least taskCount millis
+        assertTrue("elapsed millis: " + elapsedMillis, elapsedMillis < taskCount / 2);
+        assertStillRunning();
+    }
+
     @Test
     public void testToString() {
         startThread();
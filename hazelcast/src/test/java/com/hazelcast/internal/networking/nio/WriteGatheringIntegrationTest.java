@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.networking.Channel;
+import com.hazelcast.internal.nio.tcp.TcpIpConnection;
+import com.hazelcast.map.IMap;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class WriteGatheringIntegrationTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 200;
+    private static final int LATENCY_ROUND_TRIPS = 500;
+
+    @After
+    public void tearDown() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testGathering() {
+        testRoundTrip(config(1024, 0));
+    }
+
+    @Test
+    public void testGathering_withCoalescing() {
+        testRoundTrip(config(1024, 100));
+    }
+
+    @Test
+    public void testCoalescing() {
+        testRoundTrip(config(-1, 100));
+    }
+
+    @Test
+    public void testCoalescing_withMaxFrames() {
+        Config config = config(-1, 1000);
+        config.setProperty(ClusterProperty.IO_WRITE_COALESCING_MAX_FRAMES.getName(), "4");
+        testRoundTrip(config);
+    }
+
+    @Test
+    public void testCoalescing_withMicrosWindow_doesNotAddMillis() {
+        Config config = config(-1, 20);
+        // the output threads coalesce the writes, the write through threads don't
+        config.setProperty(ClusterProperty.IO_WRITE_THROUGH_ENABLED.getName(), "false");
+        HazelcastInstance hz1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance hz2 = Hazelcast.newHazelcastInstance(config);
+        assertClusterSizeEventually(2, hz1, hz2);
+
+        IMap<String, Integer> map = hz1.getMap("map");
+        String key = generateKeyOwnedBy(hz2);
+        map.set(key, 1);
+        for (int i = 0; i < LATENCY_ROUND_TRIPS; i++) {
+            map.get(key);
+        }
+
+        // each round trip flushes the request and the response, a window
+        // rounded up to a millisecond would add at least 2 millis to it
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < LATENCY_ROUND_TRIPS; i++) {
+            map.get(key);
+        }
+        long averageMicros = NANOSECONDS.toMicros(System.nanoTime() - startNanos) / LATENCY_ROUND_TRIPS;
+        assertTrue("average round trip micros: " + averageMicros, averageMicros < 1000);
+    }
+
+    private void testRoundTrip(Config config) {
+        HazelcastInstance hz1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance hz2 = Hazelcast.newHazelcastInstance(config);
+        assertClusterSizeEventually(2, hz1, hz2);
+
+        IMap<Integer, byte[]> map1 = hz1.getMap("map");
+        IMap<Integer, byte[]> map2 = hz2.getMap("map");
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            // mix of values below and above the gathering threshold
+            map1.set(i, value(i, i % 2 == 0 ? 100 : 100000));
+        }
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertArrayEquals(value(i, i % 2 == 0 ? 100 : 100000), map2.get(i));
+        }
+
+        for (HazelcastInstance hz : Arrays.asList(hz1, hz2)) {
+            Collection<TcpIpConnection> connections = getNode(hz).getNetworkingService()
+                    .getAggregateEndpointManager().getActiveConnections();
+            assertFalse(connections.isEmpty());
+            for (TcpIpConnection connection : connections) {
+                Channel channel = connection.getChannel();
+                assertTrue(channel.framesWritten() > 0);
+                assertTrue(channel.socketWrites() > 0);
+            }
+        }
+    }
+
+    private static byte[] value(int i, int length) {
+        byte[] value = new byte[length];
+        Arrays.fill(value, (byte) i);
+        return value;
+    }
+
+    private static Config config(int gatheringThreshold, int coalescingWindowMicros) {
+        Config config = smallInstanceConfig();
+        config.setProperty(ClusterProperty.IO_WRITE_GATHERING_THRESHOLD.getName(), String.valueOf(gatheringThreshold));
+        config.setProperty(ClusterProperty.IO_WRITE_COALESCING_WINDOW_MICROS.getName(),
+                String.valueOf(coalescingWindowMicros));
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        return config;
+    }
+}
@@ -38,6 +38,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -113,4 +114,31 @@ public class LoadMigrationStrategyTest extends HazelcastTestSupport {
         MigratablePipeline pipelineToMigrate = strategy.findPipelineToMigrate(imbalance);
         assertEquals(pipeline3, pipelineToMigrate);
     }
+
+    @Test
+    public void testFindPipelineToMigrate_skipsStripeSiblingOfDstOwner() {
+        NioThread srcOwner = mock(NioThread.class);
+        NioThread dstOwner = mock(NioThread.class);
+        imbalance.srcOwner = srcOwner;
+        imbalance.dstOwner = dstOwner;
+
+        imbalance.minimumLoad = 100;
+        MigratablePipeline pipeline1 = mock(MigratablePipeline.class);
+        when(pipeline1.stripeGroup()).thenReturn("member1");
+        loadCounter.set(pipeline1, 100L);
+        ownerToPipelines.put(dstOwner, singleton(pipeline1));
+
+        imbalance.maximumLoad = 500;
+        MigratablePipeline pipeline2 = mock(MigratablePipeline.class);
+        MigratablePipeline pipeline3 = mock(MigratablePipeline.class);
+        when(pipeline2.stripeGroup()).thenReturn("member1");
+        when(pipeline3.stripeGroup()).thenReturn("member2");
+        loadCounter.set(pipeline2, 300L);
+        loadCounter.set(pipeline3, 100L);
+        ownerToPipelines.put(srcOwner, setOf(pipeline2, pipeline3));
+
+        // pipeline2 is the busiest but its stripe sibling is already owned by the dstOwner
+        MigratablePipeline pipelineToMigrate = strategy.findPipelineToMigrate(imbalance);
+        assertEquals(pipeline3, pipelineToMigrate);
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.nio;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class PacketPayloadPoolIntegrationTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    @After
+    public void tearDown() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testPayloadsReused() {
+        Config config = smallInstanceConfig();
+        config.setProperty(ClusterProperty.IO_INBOUND_PAYLOAD_POOL_ENABLED.getName(), "true");
+        config.setProperty(ClusterProperty.IO_INBOUND_PAYLOAD_POOL_LEAK_DETECTION.getName(), "true");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        HazelcastInstance hz1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance hz2 = Hazelcast.newHazelcastInstance(config);
+        assertClusterSizeEventually(2, hz1, hz2);
+
+        IMap<Integer, Integer> map = hz1.getMap("map");
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.set(i, i);
+        }
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(i, (int) map.get(i));
+        }
+
+        for (HazelcastInstance hz : new HazelcastInstance[]{hz1, hz2}) {
+            PacketPayloadPool pool = getNodeEngineImpl(hz).getPacketPayloadPool();
+            // the operations and the backups of the map come in a few sizes
+            assertTrue("reusedCount: " + pool.reusedCount(), pool.reusedCount() > 0);
+            pool.detectLeaks();
+            assertEquals(0, pool.leakCount());
+        }
+        assertEquals(ENTRY_COUNT, hz2.getMap("map").size());
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.nio;
+
+import com.hazelcast.logging.Logger;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+
+import static com.hazelcast.internal.nio.Packet.FLAG_OP_RESPONSE;
+import static com.hazelcast.internal.nio.PacketPayloadPool.MAX_POOLED_PAYLOAD_SIZE;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class PacketPayloadPoolTest extends HazelcastTestSupport {
+
+    private static final char OPERATION_FLAGS = (char) Packet.Type.OPERATION.headerEncoding;
+
+    @Test
+    public void testRelease_thenPayloadReused() {
+        PacketPayloadPool pool = newPool(true, 1024, false);
+
+        Packet packet = newPacket(pool, 100, OPERATION_FLAGS);
+        byte[] payload = packet.toByteArray();
+        assertTrue(packet.isPooled());
+        packet.release();
+        assertNull(packet.toByteArray());
+        assertEquals(100, pool.pooledBytes());
+
+        assertSame(payload, pool.acquire(100, OPERATION_FLAGS));
+        assertEquals(0, pool.pooledBytes());
+        assertEquals(1, pool.allocatedCount());
+        assertEquals(1, pool.reusedCount());
+    }
+
+    @Test
+    public void testAcquire_whenDifferentSize_thenAllocated() {
+        PacketPayloadPool pool = newPool(true, 1024, false);
+        newPacket(pool, 100, OPERATION_FLAGS).release();
+
+        assertEquals(101, pool.acquire(101, OPERATION_FLAGS).length);
+        assertEquals(2, pool.allocatedCount());
+        assertEquals(0, pool.reusedCount());
+    }
+
+    @Test
+    public void testRelease_whenPoolFull_thenDiscarded() {
+        PacketPayloadPool pool = newPool(true, 150, false);
+        Packet packet1 = newPacket(pool, 100, OPERATION_FLAGS);
+        Packet packet2 = newPacket(pool, 100, OPERATION_FLAGS);
+
+        packet1.release();
+        packet2.release();
+
+        assertEquals(100, pool.pooledBytes());
+        assertEquals(1, pool.discardedCount());
+    }
+
+    @Test
+    public void testNotPooled_whenDisabled() {
+        PacketPayloadPool pool = newPool(false, 1024, false);
+        Packet packet = newPacket(pool, 100, OPERATION_FLAGS);
+
+        assertFalse(packet.isPooled());
+        packet.release();
+        assertNotNull(packet.toByteArray());
+        // the allocations are counted anyway
+        assertEquals(1, pool.allocatedCount());
+    }
+
+    @Test
+    public void testNotPooled_whenResponse() {
+        PacketPayloadPool pool = newPool(true, 1024, false);
+
+        assertFalse(newPacket(pool, 100, (char) (OPERATION_FLAGS | FLAG_OP_RESPONSE)).isPooled());
+    }
+
+    @Test
+    public void testNotPooled_whenEvent() {
+        PacketPayloadPool pool = newPool(true, 1024, false);
+
+        assertFalse(newPacket(pool, 100, (char) Packet.Type.EVENT.headerEncoding).isPooled());
+    }
+
+    @Test
+    public void testNotPooled_whenTooLarge() {
+        PacketPayloadPool pool = newPool(true, Integer.MAX_VALUE, false);
+
+        assertFalse(newPacket(pool, MAX_POOLED_PAYLOAD_SIZE + 1, OPERATION_FLAGS).isPooled());
+    }
+
+    @Test
+    public void testRetain_thenReleasedByLastRelease() {
+        PacketPayloadPool pool = newPool(true, 1024, false);
+        Packet packet = newPacket(pool, 100, OPERATION_FLAGS).retain();
+
+        packet.release();
+        assertNotNull(packet.toByteArray());
+        packet.release();
+        assertNull(packet.toByteArray());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRelease_whenAlreadyReleased() {
+        PacketPayloadPool pool = newPool(true, 1024, false);
+        Packet packet = newPacket(pool, 100, OPERATION_FLAGS);
+
+        packet.release();
+        packet.release();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRetain_whenAlreadyReleased() {
+        PacketPayloadPool pool = newPool(true, 1024, false);
+        Packet packet = newPacket(pool, 100, OPERATION_FLAGS);
+
+        packet.release();
+        packet.retain();
+    }
+
+    @Test
+    public void testLeakDetection() {
+        final PacketPayloadPool pool = newPool(true, 1024, true);
+        newPacket(pool, 100, OPERATION_FLAGS).release();
+        newPacket(pool, 100, OPERATION_FLAGS);
+
+        assertTrueEventually(() -> {
+            System.gc();
+            pool.detectLeaks();
+            assertEquals(1, pool.leakCount());
+        });
+    }
+
+    @Test
+    public void testPacketIOHelper_readsPooledPacket() {
+        PacketPayloadPool pool = newPool(true, 1024, false);
+        Packet original = new Packet(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, 5)
+                .setPacketType(Packet.Type.OPERATION);
+        ByteBuffer buffer = ByteBuffer.allocate(100);
+        assertTrue(new PacketIOHelper().writeTo(original, buffer));
+        buffer.flip();
+
+        Packet clone = new PacketIOHelper(pool).readFrom(buffer);
+
+        assertTrue(clone.isPooled());
+        assertEquals(original, clone);
+        assertArrayEquals(original.toByteArray(), clone.toByteArray());
+    }
+
+    private static Packet newPacket(PacketPayloadPool pool, int size, char flags) {
+        return pool.newPacket(pool.acquire(size, flags), 1, flags);
+    }
+
+    private static PacketPayloadPool newPool(boolean enabled, long capacity, boolean leakDetection) {
+        return new PacketPayloadPool(enabled, capacity, leakDetection, Logger.getLogger(PacketPayloadPool.class));
+    }
+}
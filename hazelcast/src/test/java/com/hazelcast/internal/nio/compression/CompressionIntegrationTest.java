@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.nio.compression;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.impl.clientside.HazelcastClientProxy;
+import com.hazelcast.client.properties.ClientProperty;
+import com.hazelcast.cluster.Address;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.ServerSocketEndpointConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.metrics.MetricDescriptor;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.internal.metrics.impl.CapturingCollector;
+import com.hazelcast.internal.nio.EndpointManager;
+import com.hazelcast.map.IMap;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.hazelcast.instance.EndpointQualifier.MEMBER;
+import static com.hazelcast.internal.nio.Protocols.CLIENT_BINARY;
+import static com.hazelcast.internal.nio.Protocols.CLIENT_BINARY_COMPRESSED;
+import static com.hazelcast.internal.nio.Protocols.CLUSTER;
+import static com.hazelcast.internal.nio.Protocols.CLUSTER_COMPRESSED;
+import static com.hazelcast.internal.nio.Protocols.PROTOCOL_LENGTH;
+import static com.hazelcast.internal.util.EmptyStatement.ignore;
+import static com.hazelcast.internal.util.StringUtil.bytesToString;
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class CompressionIntegrationTest extends HazelcastTestSupport {
+
+    private static final int MEMBER_PORT = 11000;
+    private static final int CLIENT_PORT = MEMBER_PORT + 1;
+    private static final int ENTRY_COUNT = 100;
+
+    private static final String OUT = "tcp.connection.out.compression";
+    private static final String IN = "tcp.connection.in.compression";
+
+    @After
+    public void tearDown() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testMembersCompress() {
+        HazelcastInstance hz1 = Hazelcast.newHazelcastInstance(memberConfig(true));
+        HazelcastInstance hz2 = Hazelcast.newHazelcastInstance(memberConfig(true));
+        assertClusterSizeEventually(2, hz1, hz2);
+
+        fillAndVerify(hz1.getMap("map"), hz2.getMap("map"));
+
+        for (HazelcastInstance hz : new HazelcastInstance[]{hz1, hz2}) {
+            MetricsRegistry registry = getNodeEngineImpl(hz).getMetricsRegistry();
+            long bytesIn = sum(registry, OUT, "bytesIn");
+            assertTrue(bytesIn > 0);
+            assertTrue(sum(registry, OUT, "bytesOut") < bytesIn);
+            assertTrue(sum(registry, OUT, "compressedBlocks") > 0);
+            assertTrue(sum(registry, IN, "bytesOut") > sum(registry, IN, "bytesIn"));
+        }
+    }
+
+    @Test
+    public void testMembersDoNotCompress_whenAcceptingMemberDisablesCompression() {
+        HazelcastInstance hz1 = Hazelcast.newHazelcastInstance(memberConfig(false));
+        HazelcastInstance hz2 = Hazelcast.newHazelcastInstance(memberConfig(true));
+        assertClusterSizeEventually(2, hz1, hz2);
+
+        fillAndVerify(hz1.getMap("map"), hz2.getMap("map"));
+        fillAndVerify(hz2.getMap("map2"), hz1.getMap("map2"));
+
+        for (HazelcastInstance hz : new HazelcastInstance[]{hz1, hz2}) {
+            MetricsRegistry registry = getNodeEngineImpl(hz).getMetricsRegistry();
+            assertEquals(0, sum(registry, OUT, "bytesIn"));
+            assertEquals(0, sum(registry, IN, "bytesIn"));
+        }
+    }
+
+    @Test
+    public void testMemberFallsBackToPlainProtocol_whenPeerDoesNotAnswer() throws Exception {
+        HazelcastInstance hz = Hazelcast.newHazelcastInstance(memberConfig(true));
+
+        try (OldVersionPeer peer = new OldVersionPeer(CLUSTER)) {
+            Address address = new Address("127.0.0.1", peer.getPort());
+            EndpointManager endpointManager = getNode(hz).getNetworkingService().getEndpointManager(MEMBER);
+            assertTrueEventually(() -> {
+                endpointManager.getOrConnect(address);
+                assertEquals(asList(CLUSTER_COMPRESSED, CLUSTER), peer.receivedProtocols());
+            });
+        }
+    }
+
+    @Test
+    public void testClientCompresses() {
+        HazelcastInstance hz = Hazelcast.newHazelcastInstance(memberConfig(true));
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig(true, null));
+
+        fillAndVerify(client.getMap("map"), hz.getMap("map"));
+        fillAndVerify(hz.getMap("map2"), client.getMap("map2"));
+
+        assertClientConnectionCompressed(hz, client);
+    }
+
+    @Test
+    public void testClientDoesNotCompress_whenMemberDisablesCompression() {
+        HazelcastInstance hz = Hazelcast.newHazelcastInstance(memberConfig(false));
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig(true, null));
+
+        fillAndVerify(client.getMap("map"), hz.getMap("map"));
+        fillAndVerify(hz.getMap("map2"), client.getMap("map2"));
+
+        MetricsRegistry clientRegistry = ((HazelcastClientProxy) client).client.getMetricsRegistry();
+        assertEquals(0, sum(clientRegistry, OUT, "bytesIn"));
+        assertEquals(0, sum(clientRegistry, IN, "bytesIn"));
+        MetricsRegistry memberRegistry = getNodeEngineImpl(hz).getMetricsRegistry();
+        assertEquals(0, sum(memberRegistry, OUT, "bytesIn"));
+        assertEquals(0, sum(memberRegistry, IN, "bytesIn"));
+    }
+
+    @Test
+    public void testClientFallsBackToPlainProtocol_whenMemberDoesNotAnswer() throws Exception {
+        try (OldVersionPeer peer = new OldVersionPeer(CLIENT_BINARY)) {
+            ClientConfig config = clientConfig(true, "127.0.0.1:" + peer.getPort());
+            config.getConnectionStrategyConfig().getConnectionRetryConfig()
+                  .setInitialBackoffMillis(100)
+                  .setMaxBackoffMillis(100)
+                  .setClusterConnectTimeoutMillis(10000);
+            spawn(() -> HazelcastClient.newHazelcastClient(config));
+
+            assertTrueEventually(() -> assertEquals(asList(CLIENT_BINARY_COMPRESSED, CLIENT_BINARY), peer.receivedProtocols()));
+        }
+    }
+
+    @Test
+    public void testClientCompresses_withAdvancedNetwork() {
+        HazelcastInstance hz = Hazelcast.newHazelcastInstance(advancedMemberConfig());
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig(true, "127.0.0.1:" + CLIENT_PORT));
+
+        fillAndVerify(client.getMap("map"), hz.getMap("map"));
+        fillAndVerify(hz.getMap("map2"), client.getMap("map2"));
+
+        assertClientConnectionCompressed(hz, client);
+    }
+
+    @Test
+    public void testClientDoesNotCompress_withAdvancedNetwork() {
+        HazelcastInstance hz = Hazelcast.newHazelcastInstance(advancedMemberConfig());
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig(false, "127.0.0.1:" + CLIENT_PORT));
+
+        fillAndVerify(client.getMap("map"), hz.getMap("map"));
+        fillAndVerify(hz.getMap("map2"), client.getMap("map2"));
+
+        MetricsRegistry registry = getNodeEngineImpl(hz).getMetricsRegistry();
+        assertEquals(0, sum(registry, OUT, "bytesIn"));
+        assertEquals(0, sum(registry, IN, "bytesIn"));
+    }
+
+    private static void assertClientConnectionCompressed(HazelcastInstance hz, HazelcastInstance client) {
+        MetricsRegistry clientRegistry = ((HazelcastClientProxy) client).client.getMetricsRegistry();
+        long bytesIn = sum(clientRegistry, OUT, "bytesIn");
+        assertTrue(bytesIn > 0);
+        assertTrue(sum(clientRegistry, OUT, "bytesOut") < bytesIn);
+        assertTrue(sum(clientRegistry, IN, "bytesOut") > sum(clientRegistry, IN, "bytesIn"));
+
+        MetricsRegistry memberRegistry = getNodeEngineImpl(hz).getMetricsRegistry();
+        assertTrue(sum(memberRegistry, OUT, "compressedBlocks") > 0);
+        assertTrue(sum(memberRegistry, IN, "bytesIn") > 0);
+    }
+
+    private static void fillAndVerify(IMap<Integer, String> source, IMap<Integer, String> target) {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            source.set(i, value(i));
+        }
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(value(i), target.get(i));
+        }
+    }
+
+    private static String value(int i) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int k = 0; k < 200; k++) {
+            sb.append("{\"id\":").append(i).append(",\"index\":").append(k).append(",\"name\":\"compressible\"},");
+        }
+        return sb.append(']').toString();
+    }
+
+    private static long sum(MetricsRegistry registry, String prefix, String metric) {
+        CapturingCollector collector = new CapturingCollector();
+        registry.collect(collector);
+        long sum = 0;
+        for (Map.Entry<MetricDescriptor, CapturingCollector.Capture> entry : collector.captures().entrySet()) {
+            MetricDescriptor descriptor = entry.getKey();
+            if (prefix.equals(descriptor.prefix()) && metric.equals(descriptor.metric())) {
+                sum += entry.getValue().singleCapturedValue().longValue();
+            }
+        }
+        return sum;
+    }
+
+    private static Config memberConfig(boolean compression) {
+        Config config = smallInstanceConfig();
+        config.setProperty(ClusterProperty.SOCKET_COMPRESSION_ENABLED.getName(), String.valueOf(compression));
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        return config;
+    }
+
+    private static Config advancedMemberConfig() {
+        Config config = smallInstanceConfig();
+        config.setProperty(ClusterProperty.SOCKET_COMPRESSION_ENABLED.getName(), "true");
+        config.getAdvancedNetworkConfig().setEnabled(true)
+              .setMemberEndpointConfig(serverSocketConfig(MEMBER_PORT))
+              .setClientEndpointConfig(serverSocketConfig(CLIENT_PORT));
+        JoinConfig join = config.getAdvancedNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1:" + MEMBER_PORT);
+        return config;
+    }
+
+    private static ServerSocketEndpointConfig serverSocketConfig(int port) {
+        ServerSocketEndpointConfig config = new ServerSocketEndpointConfig();
+        config.setPort(port);
+        config.getInterfaces().addInterface("127.0.0.1");
+        return config;
+    }
+
+    private static ClientConfig clientConfig(boolean compression, String address) {
+        ClientConfig config = new ClientConfig();
+        config.setProperty(ClientProperty.IO_COMPRESSION_ENABLED.getName(), String.valueOf(compression));
+        config.getNetworkConfig().addAddress(address != null ? address : "127.0.0.1");
+        return config;
+    }
+
+    /**
+     * Accepts connections like a peer of an older version: closes the
+     * connections sending protocol bytes other than the given ones.
+     */
+    private static class OldVersionPeer implements AutoCloseable {
+
+        private final String protocol;
+        private final ServerSocket serverSocket;
+        private final List<String> receivedProtocols = new CopyOnWriteArrayList<>();
+        private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+        private final Thread acceptor;
+
+        OldVersionPeer(String protocol) throws IOException {
+            this.protocol = protocol;
+            this.serverSocket = new ServerSocket(0, 10, InetAddress.getByName("127.0.0.1"));
+            this.acceptor = new Thread(this::accept, "old-version-peer");
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        List<String> receivedProtocols() {
+            return new ArrayList<>(receivedProtocols);
+        }
+
+        private void accept() {
+            try {
+                while (!serverSocket.isClosed()) {
+                    Socket socket = serverSocket.accept();
+                    sockets.add(socket);
+                    byte[] protocolBytes = new byte[PROTOCOL_LENGTH];
+                    new DataInputStream(socket.getInputStream()).readFully(protocolBytes);
+                    String received = bytesToString(protocolBytes);
+                    receivedProtocols.add(received);
+                    if (!protocol.equals(received)) {
+                        socket.close();
+                    }
+                }
+            } catch (IOException ignored) {
+                ignore(ignored);
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            serverSocket.close();
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            acceptor.join();
+        }
+    }
+}
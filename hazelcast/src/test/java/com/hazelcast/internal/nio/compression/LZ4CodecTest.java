@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.nio.compression;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class LZ4CodecTest {
+
+    private final LZ4Codec codec = new LZ4Codec();
+    private final Random random = new Random(42);
+
+    @Test
+    public void testEmpty() {
+        assertRoundTrip(new byte[0]);
+    }
+
+    @Test
+    public void testShorterThanMinimumMatch() {
+        assertRoundTrip(new byte[]{1, 2, 3});
+        assertRoundTrip(new byte[]{1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1});
+    }
+
+    @Test
+    public void testRepetitive_isCompressed() {
+        byte[] bytes = new byte[CompressionEncoder.MAX_BLOCK_LENGTH];
+        byte[] pattern = "{\"name\":\"hazelcast\",\"value\":42},".getBytes();
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = pattern[i % pattern.length];
+        }
+
+        int compressedLength = assertRoundTrip(bytes);
+        assertTrue("compressed length " + compressedLength, compressedLength < bytes.length / 10);
+    }
+
+    @Test
+    public void testLongRuns() {
+        // exercises the extended literal and match lengths
+        byte[] bytes = new byte[10000];
+        random.nextBytes(bytes);
+        Arrays.fill(bytes, 1000, 5000, (byte) 7);
+        assertRoundTrip(bytes);
+    }
+
+    @Test
+    public void testRandom_isNotCompressed() {
+        byte[] bytes = new byte[CompressionEncoder.MAX_BLOCK_LENGTH];
+        random.nextBytes(bytes);
+
+        int compressedLength = assertRoundTrip(bytes);
+        assertTrue(compressedLength <= LZ4Codec.maxCompressedLength(bytes.length));
+    }
+
+    @Test
+    public void testMixed_randomLengths() {
+        for (int round = 0; round < 200; round++) {
+            byte[] bytes = new byte[random.nextInt(5000)];
+            int alphabet = 1 + random.nextInt(8);
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) random.nextInt(alphabet);
+            }
+            assertRoundTrip(bytes);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDecompress_whenMalformed() {
+        byte[] bytes = new byte[1000];
+        Arrays.fill(bytes, (byte) 3);
+        byte[] compressed = new byte[LZ4Codec.maxCompressedLength(bytes.length)];
+        int compressedLength = codec.compress(bytes, 0, bytes.length, compressed, 0);
+
+        LZ4Codec.decompress(compressed, 0, compressedLength, new byte[bytes.length / 2], 0, bytes.length / 2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDecompress_whenOffsetOutOfRange() {
+        // a single literal followed by a match referring before the start of the output
+        byte[] compressed = {0x10, 1, 5, 0, 0x00};
+        LZ4Codec.decompress(compressed, 0, compressed.length, new byte[100], 0, 100);
+    }
+
+    private int assertRoundTrip(byte[] bytes) {
+        int offset = 3;
+        byte[] compressed = new byte[offset + LZ4Codec.maxCompressedLength(bytes.length)];
+        int compressedLength = codec.compress(bytes, 0, bytes.length, compressed, offset);
+
+        byte[] decompressed = new byte[bytes.length];
+        int length = LZ4Codec.decompress(compressed, offset, compressedLength, decompressed, 0, decompressed.length);
+        assertEquals(bytes.length, length);
+        assertArrayEquals(bytes, decompressed);
+        return compressedLength;
+    }
+}
@@ -30,7 +30,9 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
 import java.util.Queue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Supplier;
@@ -38,6 +40,9 @@ import java.util.function.Supplier;
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -90,6 +95,160 @@ public class PacketEncoderTest extends HazelcastTestSupport {
         assertEquals(DIRTY, result);
     }
 
+    @Test
+    public void whenGatheringDisabled_thenPayloadCopied() throws Exception {
+        encoder = new PacketEncoder(100);
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        dst.flip();
+        PacketSupplier src = new PacketSupplier();
+        Packet packet = new Packet(new byte[500]);
+        src.queue.add(packet);
+        encoder.dst(dst);
+        encoder.src(src);
+
+        assertEquals(CLEAN, encoder.onWrite());
+
+        // the payload is in the dst
+        assertEquals(packet.getFrameLength(), dst.remaining());
+        TestChannel channel = new TestChannel(Integer.MAX_VALUE);
+        encoder.writeTo(channel);
+        assertEquals(packet, readPacket(channel.bytes()));
+    }
+
+    @Test
+    public void whenGatheringEnabled_thenLargePayloadsNotCopied() throws Exception {
+        encoder = new PacketEncoder(100);
+        encoder.setGatheringEnabled(true);
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        dst.flip();
+        PacketSupplier src = new PacketSupplier();
+        Packet small1 = new Packet(serializationService.toBytes("small1"));
+        Packet large1 = new Packet(serializationService.toBytes(new byte[5000]));
+        Packet small2 = new Packet(serializationService.toBytes("small2"));
+        Packet large2 = new Packet(serializationService.toBytes(new byte[3000]));
+        src.queue.add(small1);
+        src.queue.add(large1);
+        src.queue.add(small2);
+        src.queue.add(large2);
+        encoder.dst(dst);
+        encoder.src(src);
+
+        assertEquals(CLEAN, encoder.onWrite());
+        assertTrue(encoder.hasRemaining());
+        // only the headers of the large packets are in the dst
+        assertEquals(small1.getFrameLength() + small2.getFrameLength() + 2 * PacketIOHelper.HEADER_SIZE, dst.remaining());
+
+        TestChannel channel = new TestChannel(Integer.MAX_VALUE);
+        long written = encoder.writeTo(channel);
+
+        assertEquals(small1.getFrameLength() + large1.getFrameLength() + small2.getFrameLength() + large2.getFrameLength(),
+                written);
+        assertFalse(encoder.hasRemaining());
+        ByteBuffer bytes = channel.bytes();
+        assertEquals(small1, readPacket(bytes));
+        assertEquals(large1, readPacket(bytes));
+        assertEquals(small2, readPacket(bytes));
+        assertEquals(large2, readPacket(bytes));
+        assertFalse(bytes.hasRemaining());
+    }
+
+    @Test
+    public void whenGatheredBytesPartiallyWritten_thenNotOverwritten() throws Exception {
+        encoder = new PacketEncoder(100);
+        encoder.setGatheringEnabled(true);
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        dst.flip();
+        PacketSupplier src = new PacketSupplier();
+        Packet large1 = new Packet(serializationService.toBytes(new byte[5000]));
+        Packet large2 = new Packet(serializationService.toBytes(new byte[4000]));
+        Packet small = new Packet(serializationService.toBytes("small"));
+        src.queue.add(large1);
+        encoder.dst(dst);
+        encoder.src(src);
+        assertEquals(CLEAN, encoder.onWrite());
+
+        TestChannel channel = new TestChannel(1000);
+        encoder.writeTo(channel);
+        assertTrue(encoder.hasRemaining());
+
+        // new packets have to wait until the gathered bytes are written
+        src.queue.add(large2);
+        src.queue.add(small);
+        assertEquals(DIRTY, encoder.onWrite());
+        assertEquals(2, src.queue.size());
+
+        while (encoder.hasRemaining()) {
+            encoder.writeTo(channel);
+        }
+        assertEquals(CLEAN, encoder.onWrite());
+        while (encoder.hasRemaining()) {
+            encoder.writeTo(channel);
+        }
+
+        ByteBuffer bytes = channel.bytes();
+        assertEquals(large1, readPacket(bytes));
+        assertEquals(large2, readPacket(bytes));
+        assertEquals(small, readPacket(bytes));
+        assertNull(readPacket(bytes));
+    }
+
+    private static Packet readPacket(ByteBuffer src) {
+        return new PacketIOHelper().readFrom(src);
+    }
+
+    /**
+     * Collects the written bytes, writing at most the given number of
+     * bytes with a single write.
+     */
+    static class TestChannel implements GatheringByteChannel {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final int maxBytesPerWrite;
+
+        TestChannel(int maxBytesPerWrite) {
+            this.maxBytesPerWrite = maxBytesPerWrite;
+        }
+
+        ByteBuffer bytes() {
+            return ByteBuffer.wrap(out.toByteArray());
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            long written = 0;
+            for (int i = offset; i < offset + length && written < maxBytesPerWrite; i++) {
+                written += write(srcs[i], (int) (maxBytesPerWrite - written));
+            }
+            return written;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            return write(src, maxBytesPerWrite);
+        }
+
+        private int write(ByteBuffer src, int max) {
+            int count = Math.min(max, src.remaining());
+            for (int i = 0; i < count; i++) {
+                out.write(src.get());
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
     static class PacketSupplier implements Supplier<Packet> {
         Queue<Packet> queue = new LinkedBlockingQueue<Packet>();
 
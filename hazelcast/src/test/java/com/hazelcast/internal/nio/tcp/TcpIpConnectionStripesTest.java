@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nio.tcp;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.internal.networking.OutboundFrame;
+import com.hazelcast.internal.nio.Packet;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Packet.FLAG_BIND_STRIPE_FENCE;
+import static com.hazelcast.internal.serialization.impl.HeapData.HEAP_DATA_OVERHEAD;
+import static java.util.Collections.synchronizedList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * The receiving member is modelled by queues of the packets in flight over
+ * each connection. Like a member, the test reads them in any order across
+ * the connections and acknowledges a fence once it has read it.
+ */
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class TcpIpConnectionStripesTest extends HazelcastTestSupport {
+
+    private static final int STRIPE_COUNT = 4;
+    private static final int PARTITION_ID = 1;
+    private static final int PARTITION_COUNT = 8;
+    private static final int PACKET_COUNT = 100000;
+
+    // the packets in the order they were processed by the receiver
+    private final List<Packet> received = synchronizedList(new ArrayList<>());
+    private final Queue<OutboundFrame> primaryInFlight = new ConcurrentLinkedQueue<>();
+    private final Queue<OutboundFrame> stripesInFlight = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private TcpIpConnection primary;
+    private TcpIpConnectionStripes stripes;
+
+    @Before
+    public void setup() throws Exception {
+        primary = mock(TcpIpConnection.class, withSettings().stubOnly());
+        when(primary.getEndPoint()).thenReturn(new Address("127.0.0.1", 5701));
+        when(primary.write(any())).thenAnswer(invocation -> primaryInFlight.add(invocation.getArgument(0)));
+        stripes = new TcpIpConnectionStripes(primary, STRIPE_COUNT);
+    }
+
+    @Test
+    public void testPacketsSentOverPrimary_untilStripeConnected() {
+        List<Packet> packets = writePackets(3);
+
+        assertSame(primary, stripes.select(PARTITION_ID));
+        assertFalse(stripes.isActive());
+        readPrimary();
+        assertEquals(packets, received);
+    }
+
+    @Test
+    public void testPacketsHeldBack_untilFenceAcknowledged() {
+        List<Packet> packets = writePackets(3);
+        TcpIpConnection stripe = stripe(new AtomicBoolean(true));
+        assertTrue(stripes.stripeConnected(PARTITION_ID, stripe));
+        packets.addAll(writePackets(3));
+
+        // nothing is sent over the stripe until the receiver has read the packets sent over the primary before
+        readStripes();
+        assertEquals(0, received.size());
+        assertSame(stripe, stripes.select(PARTITION_ID));
+
+        readPrimary();
+        assertEquals(packets.subList(0, 3), received);
+        packets.addAll(writePackets(3));
+        readStripes();
+        assertEquals(packets, received);
+        assertTrue(primaryInFlight.isEmpty());
+    }
+
+    @Test
+    public void testHeldPacketsSentOverPrimary_whenStripeClosedWhileFenced() {
+        List<Packet> packets = writePackets(3);
+        TcpIpConnection stripe = stripe(new AtomicBoolean(false));
+        stripes.stripeConnected(PARTITION_ID, stripe);
+        packets.addAll(writePackets(3));
+
+        assertEquals(PARTITION_ID, stripes.stripeClosed(stripe));
+        packets.addAll(writePackets(3));
+        // the acknowledgement of the fence of the closed stripe is ignored
+        readPrimary();
+
+        assertSame(primary, stripes.select(PARTITION_ID));
+        assertEquals(packets, received);
+    }
+
+    @Test
+    public void testOutdatedFenceAcknowledgementIgnored() {
+        TcpIpConnection closed = stripe(new AtomicBoolean(false));
+        stripes.stripeConnected(PARTITION_ID, closed);
+        Packet outdatedFence = (Packet) primaryInFlight.poll();
+        stripes.stripeClosed(closed);
+        TcpIpConnection reconnected = stripe(new AtomicBoolean(true));
+        stripes.stripeConnected(PARTITION_ID, reconnected);
+
+        assertFalse(stripes.fenceAcknowledged(TcpIpConnectionStripes.newFenceAck(outdatedFence)));
+        List<Packet> packets = writePackets(3);
+        readStripes();
+        assertEquals(0, received.size());
+
+        readPrimary();
+        readStripes();
+        assertSame(reconnected, stripes.select(PARTITION_ID));
+        assertEquals(packets, received);
+    }
+
+    @Test
+    public void testActiveStripeClosed() {
+        AtomicBoolean alive = new AtomicBoolean(true);
+        TcpIpConnection stripe = stripe(alive);
+        stripes.stripeConnected(PARTITION_ID, stripe);
+        readPrimary();
+
+        // the packets can't fall back to the primary connection, the receiver may still process the ones sent before
+        alive.set(false);
+        assertFalse(stripes.write(newPacket(PARTITION_ID)));
+        assertEquals(0, stripes.stripeClosed(stripe));
+        assertTrue(primaryInFlight.isEmpty());
+    }
+
+    @Test
+    public void testStripeConnected_whenClosed() {
+        stripes.close("test");
+
+        assertFalse(stripes.stripeConnected(PARTITION_ID, stripe(new AtomicBoolean(true))));
+        assertTrue(primaryInFlight.isEmpty());
+        assertSame(primary, stripes.select(PARTITION_ID));
+    }
+
+    @Test
+    public void testPartitionOrder_acrossStripeSwitch_underLoad() throws Exception {
+        Map<Integer, List<Packet>> sent = new ConcurrentHashMap<>();
+        Future writer = spawn(() -> {
+            for (int i = 0; i < PACKET_COUNT; i++) {
+                Packet packet = newPacket(i % PARTITION_COUNT);
+                sent.computeIfAbsent(packet.getPartitionId(), k -> new ArrayList<>()).add(packet);
+                assertTrue(stripes.write(packet));
+            }
+        });
+        // the receiver reads the primary connection and the stripes on different threads
+        Object primaryReadLock = new Object();
+        AtomicBoolean stop = new AtomicBoolean();
+        Future primaryReader = spawn(() -> {
+            while (!stop.get()) {
+                synchronized (primaryReadLock) {
+                    readPrimary();
+                }
+                Thread.yield();
+            }
+        });
+        Future stripeReader = spawn(() -> {
+            while (!stop.get()) {
+                readStripes();
+                Thread.yield();
+            }
+        });
+
+        for (int index = 1; index < STRIPE_COUNT; index++) {
+            sleepMillis(1);
+            // a stripe closed while it is fenced
+            TcpIpConnection closed = stripe(new AtomicBoolean(false));
+            synchronized (primaryReadLock) {
+                stripes.stripeConnected(index, closed);
+                assertEquals(index, stripes.stripeClosed(closed));
+            }
+            sleepMillis(1);
+            synchronized (primaryReadLock) {
+                // the receiver lags behind on the primary connection while the writer goes on
+                stripes.stripeConnected(index, stripe(new AtomicBoolean(true)));
+                sleepMillis(5);
+            }
+        }
+        writer.get();
+        assertTrueEventually(() -> {
+            assertTrue(stripes.isActive());
+            assertEquals(PACKET_COUNT, received.size());
+        });
+        stop.set(true);
+        primaryReader.get();
+        stripeReader.get();
+
+        for (int partitionId = 0; partitionId < PARTITION_COUNT; partitionId++) {
+            List<Packet> partitionReceived = new ArrayList<>();
+            for (Packet packet : received) {
+                if (packet.getPartitionId() == partitionId) {
+                    partitionReceived.add(packet);
+                }
+            }
+            assertEquals("partition " + partitionId, sent.get(partitionId), partitionReceived);
+        }
+    }
+
+    private TcpIpConnection stripe(AtomicBoolean alive) {
+        TcpIpConnection stripe = mock(TcpIpConnection.class, withSettings().stubOnly());
+        when(stripe.isAlive()).thenAnswer(invocation -> alive.get());
+        when(stripe.write(any())).thenAnswer(invocation -> alive.get() && stripesInFlight.add(invocation.getArgument(0)));
+        return stripe;
+    }
+
+    private List<Packet> writePackets(int count) {
+        List<Packet> packets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Packet packet = newPacket(PARTITION_ID);
+            packets.add(packet);
+            assertTrue(stripes.write(packet));
+        }
+        return packets;
+    }
+
+    // the packets are equal if their payloads are, so each one gets a unique payload
+    private Packet newPacket(int partitionId) {
+        return new Packet(ByteBuffer.allocate(HEAP_DATA_OVERHEAD + INT_SIZE_IN_BYTES)
+                .putInt(HEAP_DATA_OVERHEAD, sequence.incrementAndGet()).array(), partitionId);
+    }
+
+    private void readPrimary() {
+        for (OutboundFrame frame; (frame = primaryInFlight.poll()) != null; ) {
+            Packet packet = (Packet) frame;
+            if (packet.isFlagRaised(FLAG_BIND_STRIPE_FENCE)) {
+                // the packets read before are processed, so the fence is acknowledged
+                stripes.fenceAcknowledged(TcpIpConnectionStripes.newFenceAck(packet));
+            } else {
+                received.add(packet);
+            }
+        }
+    }
+
+    private void readStripes() {
+        for (OutboundFrame frame; (frame = stripesInFlight.poll()) != null; ) {
+            received.add((Packet) frame);
+        }
+    }
+}
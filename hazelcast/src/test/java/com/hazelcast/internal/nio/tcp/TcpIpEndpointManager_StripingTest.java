@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.nio.tcp;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.instance.EndpointQualifier;
+import com.hazelcast.internal.networking.Channel;
+import com.hazelcast.internal.nio.EndpointManager;
+import com.hazelcast.map.IMap;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class TcpIpEndpointManager_StripingTest extends HazelcastTestSupport {
+
+    private static final int STRIPE_COUNT = 3;
+    private static final int ENTRY_COUNT = 1000;
+
+    @After
+    public void tearDown() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testPartitionsSpreadOverStripes() {
+        HazelcastInstance hz1 = Hazelcast.newHazelcastInstance(config(STRIPE_COUNT));
+        HazelcastInstance hz2 = Hazelcast.newHazelcastInstance(config(STRIPE_COUNT));
+        assertClusterSizeEventually(2, hz1, hz2);
+
+        TcpIpConnectionStripes stripes1 = assertStripedEventually(hz1, hz2);
+        TcpIpConnectionStripes stripes2 = assertStripedEventually(hz2, hz1);
+
+        fillAndVerify(hz1.getMap("map"), hz2.getMap("map"));
+        fillAndVerify(hz2.getMap("map2"), hz1.getMap("map2"));
+
+        for (TcpIpConnectionStripes stripes : new TcpIpConnectionStripes[]{stripes1, stripes2}) {
+            for (int partitionId = 0; partitionId < STRIPE_COUNT; partitionId++) {
+                Channel channel = stripes.select(partitionId).getChannel();
+                assertTrue(channel.framesWritten() > 0);
+                assertSame(stripes.endpoint(), channel.attributeMap().get(Channel.STRIPE_GROUP_ATTRIBUTE));
+            }
+            // the same partition always goes over the same stripe
+            assertSame(stripes.select(1), stripes.select(1 + STRIPE_COUNT));
+            assertNotSame(stripes.select(1), stripes.select(2));
+        }
+    }
+
+    @Test
+    public void testConnectionsReopened_whenActiveStripeClosed() {
+        HazelcastInstance hz1 = Hazelcast.newHazelcastInstance(config(STRIPE_COUNT));
+        HazelcastInstance hz2 = Hazelcast.newHazelcastInstance(config(STRIPE_COUNT));
+        assertClusterSizeEventually(2, hz1, hz2);
+
+        TcpIpConnectionStripes stripes = assertStripedEventually(hz1, hz2);
+        stripes.select(1).close("test", null);
+
+        // the packets of the stripe can't go over another connection in order, so the primary connection is closed too
+        assertTrueEventually(() -> {
+            assertFalse(stripes.primary().isAlive());
+            assertTrue(stripes.isClosed());
+        });
+        fillAndVerify(hz1.getMap("map"), hz2.getMap("map"));
+
+        TcpIpConnectionStripes reopened = assertStripedEventually(hz1, hz2);
+        assertNotSame(stripes, reopened);
+        fillAndVerify(hz1.getMap("map2"), hz2.getMap("map2"));
+    }
+
+    @Test
+    public void testStripingMember_withNonStripingMember() {
+        HazelcastInstance hz1 = Hazelcast.newHazelcastInstance(config(STRIPE_COUNT));
+        HazelcastInstance hz2 = Hazelcast.newHazelcastInstance(config(1));
+        assertClusterSizeEventually(2, hz1, hz2);
+
+        assertStripedEventually(hz1, hz2);
+        fillAndVerify(hz1.getMap("map"), hz2.getMap("map"));
+        fillAndVerify(hz2.getMap("map2"), hz1.getMap("map2"));
+    }
+
+    private static TcpIpConnectionStripes assertStripedEventually(HazelcastInstance hz, HazelcastInstance remote) {
+        EndpointManager endpointManager = getNode(hz).getNetworkingService().getEndpointManager(EndpointQualifier.MEMBER);
+        Address remoteAddress = getAddress(remote);
+        TcpIpConnectionStripes[] result = new TcpIpConnectionStripes[1];
+        assertTrueEventually(() -> {
+            TcpIpConnection connection = (TcpIpConnection) endpointManager.getConnection(remoteAddress);
+            assertTrue(connection != null);
+            TcpIpConnectionStripes stripes = (TcpIpConnectionStripes) connection.getChannel().attributeMap()
+                    .get(TcpIpConnectionStripes.class);
+            assertTrue(stripes != null && stripes.isActive());
+            result[0] = stripes;
+        });
+        return result[0];
+    }
+
+    private static void fillAndVerify(IMap<Integer, Integer> source, IMap<Integer, Integer> target) {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            source.set(i, i);
+        }
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(i, (int) target.get(i));
+        }
+    }
+
+    private static Config config(int stripeCount) {
+        Config config = smallInstanceConfig();
+        config.setProperty(ClusterProperty.MEMBER_CONNECTION_STRIPE_COUNT.getName(), String.valueOf(stripeCount));
+        config.setProperty(ClusterProperty.IO_THREAD_COUNT.getName(), "3");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        return config;
+    }
+}
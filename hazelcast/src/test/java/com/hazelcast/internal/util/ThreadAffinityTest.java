@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.util;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hazelcast.internal.util.OsHelper.isLinux;
+import static com.hazelcast.internal.util.ThreadAffinity.DISABLED;
+import static com.hazelcast.internal.util.ThreadAffinity.newThreadAffinity;
+import static com.hazelcast.internal.util.ThreadAffinity.toCpuList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ThreadAffinityTest {
+
+    @Test
+    public void testDisabled() {
+        assertSame(DISABLED, newThreadAffinity(null));
+        assertSame(DISABLED, newThreadAffinity(" "));
+        assertFalse(DISABLED.isEnabled());
+        assertNull(DISABLED.getCpus(0));
+    }
+
+    @Test
+    public void testCpusAndRanges() {
+        ThreadAffinity affinity = newThreadAffinity("0, 2-4,7");
+
+        assertTrue(affinity.isEnabled());
+        assertEquals(5, affinity.getCpuSetCount());
+        assertEquals("0", toCpuList(affinity.getCpus(0)));
+        assertEquals("2", toCpuList(affinity.getCpus(1)));
+        assertEquals("3", toCpuList(affinity.getCpus(2)));
+        assertEquals("4", toCpuList(affinity.getCpus(3)));
+        assertEquals("7", toCpuList(affinity.getCpus(4)));
+        // more threads than CPU sets
+        assertEquals("0", toCpuList(affinity.getCpus(5)));
+    }
+
+    @Test
+    public void testGroups() {
+        ThreadAffinity affinity = newThreadAffinity("[0-1,3], 4,[5]");
+
+        assertEquals(3, affinity.getCpuSetCount());
+        assertEquals("0,1,3", toCpuList(affinity.getCpus(0)));
+        assertEquals("4", toCpuList(affinity.getCpus(1)));
+        assertEquals("5", toCpuList(affinity.getCpus(2)));
+    }
+
+    @Test
+    public void testGetCpus_returnsCopy() {
+        ThreadAffinity affinity = newThreadAffinity("1");
+        affinity.getCpus(0).set(2);
+
+        assertEquals("1", toCpuList(affinity.getCpus(0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCpu() {
+        newThreadAffinity("1,a");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        newThreadAffinity("3-1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnterminatedGroup() {
+        newThreadAffinity("[1-3");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedGroup() {
+        newThreadAffinity("[1-3]4");
+    }
+
+    @Test
+    public void testPinCurrentThread() throws Exception {
+        assumeTrue(isLinux() && new File("/proc/thread-self").exists());
+        assumeTrue(new File("/usr/bin/taskset").exists() || new File("/bin/taskset").exists());
+
+        final BitSet cpus = new BitSet();
+        cpus.set(0);
+        final ILogger logger = Logger.getLogger(ThreadAffinityTest.class);
+        final AtomicReference<String> allowedCpus = new AtomicReference<String>();
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                ThreadAffinity.pinCurrentThread(cpus, logger);
+                try {
+                    List<String> status = Files.readAllLines(Paths.get("/proc/thread-self/status"));
+                    for (String line : status) {
+                        if (line.startsWith("Cpus_allowed_list:")) {
+                            allowedCpus.set(line.substring("Cpus_allowed_list:".length()).trim());
+                        }
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        thread.start();
+        thread.join();
+
+        assertEquals("0", allowedCpus.get());
+    }
+}
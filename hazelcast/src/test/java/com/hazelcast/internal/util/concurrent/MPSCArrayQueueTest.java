@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.util.concurrent;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MPSCArrayQueueTest extends HazelcastTestSupport {
+
+    @Test(expected = NullPointerException.class)
+    public void setConsumerThread_whenNull() {
+        new MPSCArrayQueue<String>(16, null).setConsumerThread(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void offer_whenNull() {
+        new MPSCArrayQueue<String>(16, null).offer(null);
+    }
+
+    @Test
+    public void offerAndPoll() {
+        MPSCArrayQueue<String> queue = new MPSCArrayQueue<String>(16, null);
+        queue.setConsumerThread(Thread.currentThread());
+        assertNull(queue.poll());
+
+        queue.offer("1");
+        queue.offer("2");
+
+        assertEquals(2, queue.size());
+        assertEquals("1", queue.peek());
+        assertEquals("1", queue.poll());
+        assertEquals("2", queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void offer_whenFullAndConsumer_thenOverflows() {
+        MPSCArrayQueue<Integer> queue = new MPSCArrayQueue<Integer>(4, null);
+        queue.setConsumerThread(Thread.currentThread());
+
+        for (int i = 0; i < 10; i++) {
+            queue.offer(i);
+        }
+
+        assertEquals(4, queue.capacity());
+        assertEquals(10, queue.size());
+        assertEquals(0, queue.remainingCapacity());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void offer_whenFullAndProducer_thenWaitsForRoom() throws Exception {
+        final MPSCArrayQueue<Integer> queue = new MPSCArrayQueue<Integer>(4, null);
+        queue.setConsumerThread(Thread.currentThread());
+
+        Future future = spawn(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 100; i++) {
+                    queue.offer(i);
+                }
+            }
+        });
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), queue.take());
+        }
+        future.get();
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void offer_whenFullAndProducer_thenOverflowsAfterBoundedWait() throws Exception {
+        final MPSCArrayQueue<Integer> queue = new MPSCArrayQueue<Integer>(4, null);
+        queue.setConsumerThread(Thread.currentThread());
+
+        // the consumer doesn't take anything until the producer is done
+        Future future = spawn(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 10; i++) {
+                    queue.offer(i);
+                }
+            }
+        });
+        future.get();
+
+        assertEquals(10, queue.size());
+        queue.offer(10);
+        for (int i = 0; i <= 10; i++) {
+            assertEquals(Integer.valueOf(i), queue.take());
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void offer_whenOverflowNotEmpty_thenProducerDoesNotWait() throws Exception {
+        final MPSCArrayQueue<Integer> queue = new MPSCArrayQueue<Integer>(4, null);
+        queue.setConsumerThread(Thread.currentThread());
+        final int offerCount = 1000;
+
+        // the fifth item overflows after the bounded wait, the rest go
+        // straight to the overflow queue although the ring buffer gets room
+        Future<Long> future = spawn(() -> {
+            for (int i = 0; i < 5; i++) {
+                queue.offer(i);
+            }
+            // the consumer is idle in the meantime
+            assertEquals(Integer.valueOf(0), queue.poll());
+
+            long start = System.nanoTime();
+            for (int i = 5; i < offerCount; i++) {
+                queue.offer(i);
+            }
+            return System.nanoTime() - start;
+        });
+
+        long elapsedNanos = future.get();
+        assertTrue("Offering " + offerCount + " items took " + elapsedNanos + " ns",
+                elapsedNanos < offerCount * MPSCArrayQueue.MAX_PRODUCER_WAIT_NANOS / 4);
+        assertEquals(1, queue.remainingCapacity());
+        for (int i = 1; i < offerCount; i++) {
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void take_whenEmpty_thenBlocksUntilOffered() throws Exception {
+        assertTakeUnblocked(null);
+    }
+
+    @Test
+    public void take_whenEmptyAndIdleStrategy_thenIdlesUntilOffered() throws Exception {
+        assertTakeUnblocked(new BackoffIdleStrategy(10, 10, 1, 1000));
+    }
+
+    private void assertTakeUnblocked(IdleStrategy idleStrategy) throws Exception {
+        final MPSCArrayQueue<String> queue = new MPSCArrayQueue<String>(16, idleStrategy);
+        final AtomicReference<Object> taken = new AtomicReference<Object>();
+        final CountDownLatch started = new CountDownLatch(1);
+        Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    taken.set(queue.take());
+                } catch (InterruptedException e) {
+                    taken.set(e);
+                }
+            }
+        };
+        queue.setConsumerThread(consumer);
+        consumer.start();
+        started.await();
+        sleepMillis(100);
+
+        queue.offer("item");
+
+        assertJoinable(consumer);
+        assertSame("item", taken.get());
+    }
+
+    @Test
+    public void take_whenInterrupted() throws Exception {
+        final MPSCArrayQueue<String> queue = new MPSCArrayQueue<String>(16, null);
+        final AtomicReference<Object> taken = new AtomicReference<Object>();
+        Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    taken.set(queue.take());
+                } catch (InterruptedException e) {
+                    taken.set(e);
+                }
+            }
+        };
+        queue.setConsumerThread(consumer);
+        consumer.start();
+        sleepMillis(100);
+
+        consumer.interrupt();
+
+        assertJoinable(consumer);
+        assertInstanceOf(InterruptedException.class, taken.get());
+    }
+
+    @Test
+    public void manyProducers_keepTheOrderPerProducer() throws Exception {
+        final MPSCArrayQueue<long[]> queue = new MPSCArrayQueue<long[]>(64, null);
+        queue.setConsumerThread(Thread.currentThread());
+        final int producerCount = 8;
+        final int itemCount = 20000;
+
+        for (int producer = 0; producer < producerCount; producer++) {
+            final int producerId = producer;
+            spawn(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < itemCount; i++) {
+                        queue.offer(new long[]{producerId, i});
+                    }
+                }
+            });
+        }
+
+        long[] expected = new long[producerCount];
+        for (int i = 0; i < producerCount * itemCount; i++) {
+            long[] item = queue.take();
+            assertEquals(expected[(int) item[0]]++, item[1]);
+        }
+        assertNull(queue.poll());
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.config.InMemoryFormat.BINARY;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_COMPACT_RECORD_STORAGE_ENABLED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class CompactRecordStorageMapTest extends HazelcastTestSupport {
+
+    private static final String MAP_NAME = "compactMap";
+
+    @Test
+    public void testBasicOperations() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, String> map = instance.getMap(MAP_NAME);
+
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, "value" + i);
+        }
+        map.set(1, "updated");
+        map.remove(2);
+        map.delete(3);
+
+        assertEquals(998, map.size());
+        assertEquals("updated", map.get(1));
+        assertNull(map.get(2));
+        assertFalse(map.containsKey(3));
+        assertTrue(map.containsValue("value999"));
+        assertEquals(998, map.keySet().size());
+        assertEquals(998, map.entrySet().size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testEntryProcessor() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+
+        map.executeOnEntries(entry -> {
+            entry.setValue(entry.getValue() + 1);
+            return null;
+        });
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 1, (int) map.get(i));
+        }
+    }
+
+    @Test
+    public void testQueryWithIndex() {
+        Config config = getConfig();
+        config.getMapConfig(MAP_NAME).addIndexConfig(new IndexConfig(IndexType.SORTED, "age"));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Person> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, new Person(i));
+        }
+
+        Collection<Person> result = map.values(Predicates.greaterEqual("age", 90));
+
+        assertEquals(10, result.size());
+    }
+
+    @Test
+    public void testEviction_withPerPartitionSize() {
+        Config config = getConfig();
+        EvictionConfig evictionConfig = config.getMapConfig(MAP_NAME).getEvictionConfig();
+        evictionConfig.setEvictionPolicy(EvictionPolicy.LRU)
+                .setMaxSizePolicy(MaxSizePolicy.PER_PARTITION)
+                .setSize(10);
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+
+        for (int i = 0; i < 10000; i++) {
+            map.put(i, i);
+        }
+
+        int partitionCount = getPartitionService(instance).getPartitionCount();
+        assertTrue(map.size() <= 10 * partitionCount);
+    }
+
+    @Test
+    public void testExpiration() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i, 1, TimeUnit.SECONDS);
+        }
+        map.put(100, 100);
+
+        sleepAtLeastSeconds(1);
+
+        for (int i = 0; i < 100; i++) {
+            assertNull(map.get(i));
+        }
+        assertEquals(100, (int) map.get(100));
+    }
+
+    @Test
+    public void testDataSurvivesMemberShutdown() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        Config config = getConfig();
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        IMap<Integer, String> map = instance1.getMap(MAP_NAME);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, "value" + i);
+        }
+
+        instance1.shutdown();
+
+        IMap<Integer, String> map2 = instance2.getMap(MAP_NAME);
+        assertEquals(1000, map2.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("value" + i, map2.get(i));
+        }
+    }
+
+    @Override
+    protected Config getConfig() {
+        Config config = smallInstanceConfig();
+        config.setProperty(MAP_COMPACT_RECORD_STORAGE_ENABLED.getName(), "true");
+        config.addMapConfig(new MapConfig(MAP_NAME).setInMemoryFormat(BINARY));
+        return config;
+    }
+
+    public static class Person implements Serializable {
+
+        private int age;
+
+        public Person(int age) {
+            this.age = age;
+        }
+
+        public int getAge() {
+            return age;
+        }
+    }
+}
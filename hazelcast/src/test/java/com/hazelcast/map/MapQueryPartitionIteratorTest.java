@@ -33,10 +33,12 @@ import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import static com.hazelcast.query.Predicates.and;
 import static com.hazelcast.query.Predicates.greaterEqual;
@@ -191,6 +193,32 @@ public class MapQueryPartitionIteratorTest extends HazelcastTestSupport {
         assertFalse(result.isEmpty());
     }
 
+    @Test
+    public void test_crossPartitionIterator_with_predicate() {
+        MapProxyImpl<Integer, Integer> map = (MapProxyImpl<Integer, Integer>) instance.<Integer, Integer>getMap(randomMapName());
+        for (int i = 0; i < 1000; ++i) {
+            map.put(i, i);
+        }
+
+        Predicate<Integer, Integer> predicate = Predicates.lessThan("this", 500);
+        Set<Entry<Integer, Integer>> entries = new HashSet<>(collectAll(map.iterator(7, predicate)));
+        assertEquals(map.entrySet(predicate), entries);
+
+        Collection<Integer> values = collectAll(map.iterator(7, Projections.singleAttribute("this"), predicate));
+        assertEquals(new HashSet<>(map.values(predicate)), new HashSet<>(values));
+        assertEquals(500, values.size());
+    }
+
+    @Test
+    public void test_crossPartitionIterator_on_emptyMap() {
+        assertFalse(proxy.iterator(10, Predicates.alwaysTrue()).hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_crossPartitionIterator_with_pagingPredicate_throws_exception() {
+        proxy.iterator(10, Predicates.pagingPredicate(10));
+    }
+
     private void fillMap(IMap<String, String> map, int partitionId, int count, String value) {
         for (int i = 0; i < count; i++) {
             String key = generateKeyForPartition(instance, partitionId);
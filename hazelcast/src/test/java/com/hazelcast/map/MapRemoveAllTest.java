@@ -31,9 +31,12 @@ import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -143,6 +146,84 @@ public class MapRemoveAllTest extends HazelcastTestSupport {
                 expirationTime, map.getEntryView(1).getExpirationTime());
     }
 
+    @Test
+    public void removeAllKeys_returnsRemovedValues() {
+        IMap<Integer, Integer> map = member.getMap("test");
+        for (int i = 0; i < MAP_SIZE; i++) {
+            map.put(i, i);
+        }
+
+        Set<Integer> keys = new HashSet<>();
+        for (int i = 0; i < MAP_SIZE + 100; i += 2) {
+            keys.add(i);
+        }
+        Map<Integer, Integer> removed = map.removeAllKeys(keys);
+
+        assertEquals(MAP_SIZE / 2, removed.size());
+        for (int i = 0; i < MAP_SIZE; i += 2) {
+            assertEquals(Integer.valueOf(i), removed.get(i));
+        }
+        assertEquals(MAP_SIZE / 2, map.size());
+        assertNull(map.get(0));
+        assertEquals(Integer.valueOf(1), map.get(1));
+    }
+
+    @Test
+    public void deleteAll_removesEntriesFromOwnerAndBackup() {
+        String mapName = "test";
+        IMap<Integer, Integer> map = member.getMap(mapName);
+        for (int i = 0; i < MAP_SIZE; i++) {
+            map.put(i, i);
+        }
+
+        Set<Integer> keys = new HashSet<>();
+        for (int i = 100; i < MAP_SIZE; i++) {
+            keys.add(i);
+        }
+        map.deleteAll(keys);
+
+        waitAllForSafeState(instances);
+
+        long totalOwnedEntryCount = 0;
+        long totalBackupEntryCount = 0;
+        for (HazelcastInstance instance : instances) {
+            LocalMapStats localMapStats = instance.getMap(mapName).getLocalMapStats();
+            totalOwnedEntryCount += localMapStats.getOwnedEntryCount();
+            totalBackupEntryCount += localMapStats.getBackupEntryCount();
+        }
+        assertEquals(100, totalOwnedEntryCount);
+        assertEquals(100, totalBackupEntryCount);
+    }
+
+    @Test
+    public void deleteAll_whenKeysNull() {
+        expectedException.expect(NullPointerException.class);
+
+        IMap<Integer, Integer> map = member.getMap("test");
+        map.deleteAll(null);
+    }
+
+    @Test
+    public void deleteAll_whenKeysContainNull() {
+        expectedException.expect(NullPointerException.class);
+        expectedException.expectMessage("Null key is not allowed!");
+
+        IMap<Integer, Integer> map = member.getMap("test");
+        Set<Integer> keys = new HashSet<>();
+        keys.add(1);
+        keys.add(null);
+        map.deleteAll(keys);
+    }
+
+    @Test
+    public void removeAllKeys_whenKeysNull() {
+        expectedException.expect(NullPointerException.class);
+        expectedException.expectMessage("Null keys collection is not allowed!");
+
+        IMap<Integer, Integer> map = member.getMap("test");
+        map.removeAllKeys(null);
+    }
+
     private static final class OddFinderPredicate implements Predicate<Integer, Integer> {
         @Override
         public boolean apply(Map.Entry<Integer, Integer> mapEntry) {
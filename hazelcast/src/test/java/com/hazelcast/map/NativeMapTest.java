@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.memory.MemorySize;
+import com.hazelcast.memory.MemoryUnit;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class NativeMapTest extends HazelcastTestSupport {
+
+    private static final String MAP_NAME = "nativeMap";
+
+    @Test
+    public void testBasicOperations() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, String> map = instance.getMap(MAP_NAME);
+
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, "value" + i);
+        }
+        map.set(1, "updated");
+        map.remove(2);
+        map.delete(3);
+
+        assertEquals(998, map.size());
+        assertEquals("updated", map.get(1));
+        assertNull(map.get(2));
+        assertFalse(map.containsKey(3));
+        assertTrue(map.containsValue("value999"));
+        assertEquals(998, map.keySet().size());
+        assertEquals(998, map.entrySet().size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testEntryProcessor() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, Integer> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+
+        map.executeOnEntries(entry -> {
+            entry.setValue(entry.getValue() + 1);
+            return null;
+        });
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 1, (int) map.get(i));
+        }
+    }
+
+    @Test
+    public void testQueryWithIndex() {
+        Config config = getConfig();
+        config.getMapConfig(MAP_NAME).addIndexConfig(new IndexConfig(IndexType.SORTED, "age"));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Person> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, new Person(i));
+        }
+
+        Collection<Person> result = map.values(Predicates.greaterEqual("age", 90));
+
+        assertEquals(10, result.size());
+    }
+
+    @Test
+    public void testEviction_withUsedNativeMemorySize() {
+        Config config = getConfig();
+        EvictionConfig evictionConfig = config.getMapConfig(MAP_NAME).getEvictionConfig();
+        evictionConfig.setEvictionPolicy(EvictionPolicy.LRU)
+                .setMaxSizePolicy(MaxSizePolicy.USED_NATIVE_MEMORY_SIZE)
+                .setSize(1);
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, byte[]> map = instance.getMap(MAP_NAME);
+
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, new byte[4096]);
+        }
+
+        assertTrue(map.size() < 1000);
+    }
+
+    @Test
+    public void testDataSurvivesMemberShutdown() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        Config config = getConfig();
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        IMap<Integer, String> map = instance1.getMap(MAP_NAME);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, "value" + i);
+        }
+
+        instance1.shutdown();
+
+        IMap<Integer, String> map2 = instance2.getMap(MAP_NAME);
+        assertEquals(1000, map2.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("value" + i, map2.get(i));
+        }
+    }
+
+    @Test
+    public void testNativeMemoryReleased_whenMapDestroyed() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, String> map = instance.getMap(MAP_NAME);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, "value" + i);
+        }
+        MapServiceContext mapServiceContext = getNodeEngineImpl(instance)
+                .<MapService>getService(MapService.SERVICE_NAME).getMapServiceContext();
+        assertTrue(mapServiceContext.getNativeMemoryManager().getUsedMemory() > 0);
+
+        map.destroy();
+
+        assertTrueEventually(() -> assertEquals(0, mapServiceContext.getNativeMemoryManager().getUsedMemory()));
+    }
+
+    @Override
+    protected Config getConfig() {
+        Config config = smallInstanceConfig();
+        config.getNativeMemoryConfig()
+                .setEnabled(true)
+                .setSize(new MemorySize(32, MemoryUnit.MEGABYTES));
+        config.addMapConfig(new MapConfig(MAP_NAME).setInMemoryFormat(NATIVE));
+        return config;
+    }
+
+    public static class Person implements Serializable {
+
+        private int age;
+
+        public Person(int age) {
+            this.age = age;
+        }
+
+        public int getAge() {
+            return age;
+        }
+    }
+}
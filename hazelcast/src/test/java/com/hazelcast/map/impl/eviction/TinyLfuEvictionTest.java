@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.eviction;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLfuEvictionPolicyComparator;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.config.MaxSizePolicy.PER_NODE;
+import static com.hazelcast.config.MaxSizePolicy.PER_PARTITION;
+import static com.hazelcast.internal.util.QuickMath.nextPowerOfTwo;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class TinyLfuEvictionTest extends HazelcastTestSupport {
+
+    private static final int MAX_SIZE = 200;
+
+    @Test
+    public void testFrequentlyReadEntries_surviveEviction() {
+        Config config = getConfig();
+        config.setProperty(PARTITION_COUNT.getName(), "1");
+        config.getMapConfig("default")
+              .getEvictionConfig()
+              .setEvictionPolicy(EvictionPolicy.TINY_LFU)
+              .setMaxSizePolicy(PER_PARTITION)
+              .setSize(MAX_SIZE);
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap("default");
+
+        int hotKeyCount = MAX_SIZE / 4;
+        for (int key = 0; key < hotKeyCount; key++) {
+            map.set(key, key);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int key = 0; key < hotKeyCount; key++) {
+                map.get(key);
+            }
+        }
+
+        for (int key = MAX_SIZE; key < 10 * MAX_SIZE; key++) {
+            map.set(key, key);
+        }
+
+        assertTrue("size: " + map.size(), map.size() <= MAX_SIZE);
+        for (int key = 0; key < hotKeyCount; key++) {
+            assertTrue("hot key " + key + " was evicted", map.containsKey(key));
+        }
+    }
+
+    @Test
+    public void testSketchGrowsWithEntries_upToMaxSize() {
+        Config config = getConfig();
+        config.setProperty(PARTITION_COUNT.getName(), "1");
+        config.getMapConfig("bounded")
+              .getEvictionConfig()
+              .setEvictionPolicy(EvictionPolicy.TINY_LFU)
+              .setMaxSizePolicy(PER_PARTITION)
+              .setSize(MAX_SIZE);
+        config.getMapConfig("unbounded")
+              .getEvictionConfig()
+              .setEvictionPolicy(EvictionPolicy.TINY_LFU)
+              .setMaxSizePolicy(PER_NODE);
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> bounded = instance.getMap("bounded");
+        IMap<Integer, Integer> unbounded = instance.getMap("unbounded");
+        for (int key = 0; key < 10 * MAX_SIZE; key++) {
+            bounded.set(key, key);
+            unbounded.set(key, key);
+        }
+
+        // the sketch of a map without a size limit is sized by its entries, not by the limit
+        assertEquals(nextPowerOfTwo(MAX_SIZE), tinyLfu(instance, "bounded").capacity());
+        assertEquals(nextPowerOfTwo(10 * MAX_SIZE), tinyLfu(instance, "unbounded").capacity());
+    }
+
+    private static TinyLfuEvictionPolicyComparator tinyLfu(HazelcastInstance instance, String mapName) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        return mapService.getMapServiceContext().getMapContainer(mapName).getTinyLfu();
+    }
+}
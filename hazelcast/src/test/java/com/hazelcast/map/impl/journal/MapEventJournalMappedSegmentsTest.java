@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.journal;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.journal.EventJournalInitialSubscriberState;
+import com.hazelcast.map.EventJournalMapEvent;
+import com.hazelcast.map.IMap;
+import com.hazelcast.ringbuffer.ReadResultSet;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MapEventJournalMappedSegmentsTest extends HazelcastTestSupport {
+
+    private static final String MAP_NAME = "mappy";
+    private static final String BYTES_MAP_NAME = "bytes";
+    private static final int CAPACITY = 10;
+    private static final int EVENT_COUNT = 500;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Integer> map;
+    private EventJournalMapDataStructureAdapter<Integer, Integer> adapter;
+
+    @Before
+    public void setUp() {
+        Config config = smallInstanceConfig()
+                .setProperty(ClusterProperty.PARTITION_COUNT.getName(), "1")
+                .setProperty(ClusterProperty.EVENT_JOURNAL_MAPPED_DIRECTORY.getName(), folder.getRoot().getPath())
+                .setProperty(ClusterProperty.EVENT_JOURNAL_MAPPED_SEGMENT_SIZE_MB.getName(), "1")
+                .setProperty(ClusterProperty.EVENT_JOURNAL_MAPPED_RETENTION_SECONDS.getName(), "3");
+        config.getMapConfig(MAP_NAME).getEventJournalConfig().setEnabled(true).setCapacity(CAPACITY);
+        config.getMapConfig(BYTES_MAP_NAME).getEventJournalConfig().setEnabled(true).setCapacity(CAPACITY);
+        instance = createHazelcastInstance(config);
+        map = instance.getMap(MAP_NAME);
+        adapter = new EventJournalMapDataStructureAdapter<>(map);
+    }
+
+    @Test
+    public void testRead_olderThanRingbufferCapacity() throws Exception {
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            map.put(i % 7, i);
+        }
+
+        EventJournalInitialSubscriberState state = adapter.subscribeToEventJournal(0).toCompletableFuture().get();
+        assertEquals(0, state.getOldestSequence());
+        assertEquals(EVENT_COUNT - 1, state.getNewestSequence());
+
+        long sequence = 0;
+        int value = 0;
+        while (sequence < EVENT_COUNT) {
+            ReadResultSet<EventJournalMapEvent<Integer, Integer>> resultSet = adapter.<EventJournalMapEvent<Integer, Integer>>
+                    readFromEventJournal(sequence, 1, 100, 0, null, null).toCompletableFuture().get();
+            for (int i = 0; i < resultSet.size(); i++) {
+                assertEquals(sequence + i, resultSet.getSequence(i));
+                assertEquals(value % 7, (int) resultSet.get(i).getKey());
+                assertEquals(value, (int) resultSet.get(i).getNewValue());
+                value++;
+            }
+            sequence = resultSet.getNextSequenceToReadFrom();
+        }
+        assertEquals(EVENT_COUNT, value);
+    }
+
+    @Test
+    public void testDestroy_deletesSegments() {
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            map.put(i, i);
+        }
+        assertTrue(containsSegment(folder.getRoot()));
+
+        map.destroy();
+        assertFalse(containsSegment(folder.getRoot()));
+    }
+
+    @Test
+    public void testRetention_deletesExpiredSegments_withoutAppendsOrReads() {
+        IMap<Integer, byte[]> bytes = instance.getMap(BYTES_MAP_NAME);
+        for (int i = 0; i < 30; i++) {
+            bytes.put(i, new byte[100_000]);
+        }
+        assertTrue(segmentCount(folder.getRoot()) > 1);
+
+        // the newest segment is always kept
+        assertTrueEventually(() -> assertEquals(1, segmentCount(folder.getRoot())), 30);
+    }
+
+    private static boolean containsSegment(File file) {
+        return segmentCount(file) > 0;
+    }
+
+    private static int segmentCount(File file) {
+        File[] files = file.listFiles();
+        if (files == null) {
+            return file.getName().endsWith(".journal") ? 1 : 0;
+        }
+        int count = 0;
+        for (File child : files) {
+            count += segmentCount(child);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.recordstore.DefaultRecordStore;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelParametersRunnerFactory;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.between;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.in;
+import static com.hazelcast.query.Predicates.lessEqual;
+import static com.hazelcast.query.Predicates.lessThan;
+import static com.hazelcast.query.Predicates.not;
+import static com.hazelcast.query.Predicates.notEqual;
+import static com.hazelcast.query.Predicates.or;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_COLUMNAR_SCAN_ENABLED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+@Parameterized.UseParametersRunnerFactory(HazelcastParallelParametersRunnerFactory.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ColumnarScanTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 3000;
+
+    @Parameterized.Parameter
+    public InMemoryFormat inMemoryFormat;
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Item> map;
+
+    @Parameterized.Parameters(name = "format:{0}")
+    public static Collection<Object[]> parameters() {
+        return Arrays.asList(new Object[][]{{InMemoryFormat.BINARY}, {InMemoryFormat.OBJECT}});
+    }
+
+    @Before
+    public void before() {
+        Config config = smallInstanceConfig();
+        config.setProperty(QUERY_COLUMNAR_SCAN_ENABLED.getName(), "true");
+        config.getMapConfig("items").setInMemoryFormat(inMemoryFormat);
+        instance = createHazelcastInstance(config);
+        map = instance.getMap("items");
+
+        Random random = new Random(42);
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            map.set(i, randomItem(random));
+        }
+    }
+
+    @Test
+    public void testComparisons() {
+        assertQuery(equal("count", 5));
+        assertQuery(equal("count", 5L));
+        assertQuery(equal("count", 5.0));
+        assertQuery(equal("count", "5"));
+        assertQuery(notEqual("count", 5));
+        assertQuery(greaterThan("count", 95));
+        assertQuery(greaterEqual("count", 95.5));
+        assertQuery(lessThan("count", -0.0));
+        assertQuery(lessEqual("count", 3.5));
+        assertQuery(between("count", 10, 20));
+        assertQuery(in("count", 1, 2L, 3.0, 4.5, "5"));
+
+        assertQuery(greaterThan("amount", Long.MAX_VALUE - 10));
+        assertQuery(lessThan("amount", 0x1p62));
+        assertQuery(in("amount", Long.MAX_VALUE, Long.MIN_VALUE, 0));
+
+        assertQuery(equal("price", 0.0));
+        assertQuery(equal("price", -0.0));
+        assertQuery(equal("price", Double.NaN));
+        assertQuery(greaterThan("price", 50));
+        assertQuery(greaterEqual("price", Double.NEGATIVE_INFINITY));
+        assertQuery(between("price", -0.0, 10.5));
+        assertQuery(in("price", 0.0, 1, Double.NaN, Double.POSITIVE_INFINITY));
+
+        assertQuery(equal("rank", 3));
+        assertQuery(notEqual("rank", 3));
+        assertQuery(lessThan("rank", 5));
+
+        assertQuery(greaterThan("ratio", 0.5f));
+        assertQuery(lessEqual("ratio", 0.25));
+        assertTrueEventually(() -> assertTrue(hasActiveColumnarStore()));
+    }
+
+    @Test
+    public void testLogicalCombinations() {
+        assertQuery(and(greaterThan("count", 20), lessThan("price", 30)));
+        assertQuery(or(equal("count", 7), between("price", 20, 25)));
+        assertQuery(not(or(equal("rank", 2), greaterThan("count", 50))));
+        assertQuery(and(notEqual("rank", 1), or(in("count", 1, 2, 3), not(lessThan("ratio", 0.75f)))));
+        assertQuery(Predicates.sql("count > 10 and price < 50.5"));
+    }
+
+    @Test
+    public void testResidualPredicates() {
+        // the name attribute is not numeric, it's applied to the selected entries
+        assertQuery(and(greaterThan("count", 20), equal("name", "name-3")));
+        assertQuery(and(greaterThan("count", 20), Predicates.like("name", "name-1%")));
+        // can't be evaluated on the columns at all
+        assertQuery(or(greaterThan("count", 20), equal("name", "name-3")));
+        assertQuery(equal("name", "name-3"));
+    }
+
+    @Test
+    public void testMutations() {
+        assertQuery(greaterThan("count", 50));
+        // the first columns are created on the partition threads
+        assertTrueEventually(() -> assertTrue(hasActiveColumnarStore()));
+
+        Random random = new Random(43);
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            int key = random.nextInt(ENTRY_COUNT * 2);
+            switch (random.nextInt(4)) {
+                case 0:
+                    map.delete(key);
+                    break;
+                case 1:
+                    map.evict(key);
+                    break;
+                default:
+                    map.set(key, randomItem(random));
+            }
+        }
+        assertQuery(greaterThan("count", 50));
+        assertQuery(and(lessEqual("price", 40), notEqual("rank", 3)));
+
+        map.clear();
+        assertQuery(greaterThan("count", 50));
+        map.set(1, new Item(60, 1, 1.0, null, 1.0f, "name"));
+        assertQuery(greaterThan("count", 50));
+        assertQuery(equal("rank", 3));
+    }
+
+    @Test
+    public void testFirstScan_concurrentWithMutations() throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        Future<?> mutations = spawn(() -> {
+            Random random = new Random(43);
+            while (!stop.get()) {
+                int key = random.nextInt(ENTRY_COUNT * 2);
+                if (random.nextInt(3) == 0) {
+                    map.delete(key);
+                } else {
+                    map.set(key, randomItem(random));
+                }
+            }
+        });
+        for (int i = 0; i < 20; ++i) {
+            map.keySet(greaterThan("count", 50));
+        }
+        stop.set(true);
+        mutations.get();
+
+        assertTrueEventually(() -> assertTrue(hasActiveColumnarStore()));
+        assertQuery(greaterThan("count", 50));
+        assertQuery(and(lessEqual("price", 40), notEqual("rank", 3)));
+    }
+
+    @Test
+    public void testMixedAttributeTypes_fallBackToRegularScan() {
+        assertQuery(greaterThan("count", 50));
+        map.set(ENTRY_COUNT + 1, new LongCountItem(60, 1, 1.0, null, 1.0f, "name"));
+        assertQuery(greaterThan("count", 50));
+        assertQuery(equal("count", 60));
+    }
+
+    private boolean hasActiveColumnarStore() {
+        MapServiceContext mapServiceContext = ((MapService) getNodeEngineImpl(instance)
+                .getService(MapService.SERVICE_NAME)).getMapServiceContext();
+        int partitionCount = getNodeEngineImpl(instance).getPartitionService().getPartitionCount();
+        for (int partitionId = 0; partitionId < partitionCount; ++partitionId) {
+            RecordStore recordStore = mapServiceContext.getPartitionContainer(partitionId).getExistingRecordStore("items");
+            if (recordStore != null
+                    && ((DefaultRecordStore) recordStore).getColumnarObserver().getColumnarStore().isActive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertQuery(Predicate predicate) {
+        Set<Integer> actual = map.keySet(predicate);
+        // paging queries always use the regular full scan
+        Set<Integer> expected = map.keySet(Predicates.pagingPredicate(predicate, Integer.MAX_VALUE));
+        assertEquals(predicate.toString(), expected, actual);
+    }
+
+    private static Item randomItem(Random random) {
+        double price;
+        switch (random.nextInt(20)) {
+            case 0:
+                price = Double.NaN;
+                break;
+            case 1:
+                price = -0.0;
+                break;
+            case 2:
+                price = 0.0;
+                break;
+            case 3:
+                price = Double.POSITIVE_INFINITY;
+                break;
+            default:
+                price = random.nextInt(200) / 2.0;
+        }
+        long amount;
+        switch (random.nextInt(10)) {
+            case 0:
+                amount = Long.MAX_VALUE - random.nextInt(20);
+                break;
+            case 1:
+                amount = Long.MIN_VALUE;
+                break;
+            default:
+                amount = random.nextLong();
+        }
+        Integer rank = random.nextInt(4) == 0 ? null : random.nextInt(6);
+        return new Item(random.nextInt(100) - 5, amount, price, rank, random.nextFloat(), "name-" + random.nextInt(30));
+    }
+
+    public static class Item implements Serializable {
+
+        private final int count;
+        private final long amount;
+        private final double price;
+        private final Integer rank;
+        private final float ratio;
+        private final String name;
+
+        Item(int count, long amount, double price, Integer rank, float ratio, String name) {
+            this.count = count;
+            this.amount = amount;
+            this.price = price;
+            this.rank = rank;
+            this.ratio = ratio;
+            this.name = name;
+        }
+
+        public Object getCount() {
+            return count;
+        }
+
+        public long getAmount() {
+            return amount;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public Integer getRank() {
+            return rank;
+        }
+
+        public float getRatio() {
+            return ratio;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+    }
+
+    public static class LongCountItem extends Item {
+
+        LongCountItem(int count, long amount, double price, Integer rank, float ratio, String name) {
+            super(count, amount, price, rank, ratio, name);
+        }
+
+        @Override
+        public Object getCount() {
+            return ((Integer) super.getCount()).longValue();
+        }
+
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.Random;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.between;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.lessEqual;
+import static com.hazelcast.query.Predicates.lessThan;
+import static com.hazelcast.spi.properties.ClusterProperty.INDEX_BPLUS_TREE_ENABLED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class IndexSummaryAggregationTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 3000;
+
+    private IMap<Integer, Person> map;
+    private IMap<Integer, Person> unindexedMap;
+    private Indexes indexes;
+
+    @Before
+    public void before() {
+        Config config = smallInstanceConfig().setProperty(INDEX_BPLUS_TREE_ENABLED.getName(), "true");
+        config.getMapConfig("persons").addIndexConfig(new IndexConfig(IndexType.SORTED, "age"));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        map = instance.getMap("persons");
+        unindexedMap = instance.getMap("unindexed");
+
+        MapServiceContext mapServiceContext = ((MapService) getNodeEngineImpl(instance)
+                .getService(MapService.SERVICE_NAME)).getMapServiceContext();
+        indexes = mapServiceContext.getMapContainer("persons").getIndexes();
+
+        Random random = new Random(42);
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            put(i, new Person(random.nextInt(100), random.nextInt(1000)));
+        }
+    }
+
+    @Test
+    public void testAggregations_matchFullScan() {
+        assertAggregations(between("age", 20, 40));
+        assertAggregations(greaterThan("age", 90));
+        assertAggregations(lessEqual("age", 5));
+        assertAggregations(equal("age", 50));
+        assertAggregations(and(greaterEqual("age", 10), lessThan("age", 30)));
+        assertAggregations(Predicates.sql("age > 30 AND age <= 60"));
+        // empty ranges
+        assertAggregations(between("age", 40, 20));
+        assertAggregations(greaterThan("age", 1000));
+    }
+
+    @Test
+    public void testAggregations_matchFullScan_afterUpdatesAndRemovals() {
+        Random random = new Random(43);
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            int key = random.nextInt(ENTRY_COUNT * 2);
+            if (random.nextInt(3) == 0) {
+                map.delete(key);
+                unindexedMap.delete(key);
+            } else {
+                put(key, new Person(random.nextInt(100), random.nextInt(1000)));
+            }
+        }
+
+        assertAggregations(between("age", 20, 40));
+        assertAggregations(lessThan("age", 50));
+
+        map.clear();
+        unindexedMap.clear();
+        assertAggregations(between("age", 20, 40));
+    }
+
+    @Test
+    public void testMinMax_withoutPredicate() {
+        assertEquals(unindexedMap.aggregate(Aggregators.integerMin("age")), map.aggregate(Aggregators.integerMin("age")));
+        assertEquals(unindexedMap.aggregate(Aggregators.integerMax("age")), map.aggregate(Aggregators.integerMax("age")));
+    }
+
+    @Test
+    public void testAccumulate_answersFromSummaries() {
+        Predicate predicate = between("age", 20, 40);
+        assertTrue(IndexSummaryAccumulator.accumulate(Aggregators.count(), predicate, indexes));
+        assertTrue(IndexSummaryAccumulator.accumulate(Aggregators.count("age"), predicate, indexes));
+        assertTrue(IndexSummaryAccumulator.accumulate(Aggregators.longSum("age"), predicate, indexes));
+        assertTrue(IndexSummaryAccumulator.accumulate(Aggregators.integerMin("age"), predicate, indexes));
+        assertTrue(IndexSummaryAccumulator.accumulate(Aggregators.integerMax("age"), Predicates.alwaysTrue(), indexes));
+
+        // other aggregators, attributes and predicates need the entries
+        assertFalse(IndexSummaryAccumulator.accumulate(Aggregators.doubleSum("age"), predicate, indexes));
+        assertFalse(IndexSummaryAccumulator.accumulate(Aggregators.longSum("salary"), predicate, indexes));
+        assertFalse(IndexSummaryAccumulator.accumulate(Aggregators.count("salary"), predicate, indexes));
+        assertFalse(IndexSummaryAccumulator.accumulate(Aggregators.count(), Predicates.alwaysTrue(), indexes));
+        assertFalse(IndexSummaryAccumulator.accumulate(Aggregators.count(), equal("age", null), indexes));
+        assertFalse(IndexSummaryAccumulator.accumulate(Aggregators.count(), between("salary", 20, 40), indexes));
+    }
+
+    @Test
+    public void testAccumulate_emptyRange() {
+        Aggregator<Object, Integer> min = Aggregators.integerMin("age");
+        assertTrue(IndexSummaryAccumulator.accumulate(min, greaterThan("age", 1000), indexes));
+        assertNull(min.aggregate());
+    }
+
+    private void put(int key, Person person) {
+        map.set(key, person);
+        unindexedMap.set(key, person);
+    }
+
+    private void assertAggregations(Predicate<Integer, Person> predicate) {
+        assertAggregation(Aggregators.count(), predicate);
+        assertAggregation(Aggregators.count("age"), predicate);
+        assertAggregation(Aggregators.longSum("age"), predicate);
+        assertAggregation(Aggregators.integerMin("age"), predicate);
+        assertAggregation(Aggregators.integerMax("age"), predicate);
+        assertAggregation(Aggregators.longSum("salary"), predicate);
+    }
+
+    private <R> void assertAggregation(Aggregator<Object, R> aggregator, Predicate<Integer, Person> predicate) {
+        assertEquals(predicate.toString(), unindexedMap.aggregate(aggregator, predicate), map.aggregate(aggregator, predicate));
+    }
+
+    public static class Person implements Serializable {
+
+        private final int age;
+        private final long salary;
+
+        Person(int age, long salary) {
+            this.age = age;
+            this.salary = salary;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public long getSalary() {
+            return salary;
+        }
+
+    }
+
+}
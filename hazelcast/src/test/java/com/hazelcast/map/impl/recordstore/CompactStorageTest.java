@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.CompactRecord;
+import com.hazelcast.map.impl.record.CompactRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class CompactStorageTest {
+
+    private SerializationService ss;
+    private CompactRecordFactory recordFactory;
+    private CompactStorage storage;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        recordFactory = new CompactRecordFactory(ss, null);
+        storage = new CompactStorage(ss);
+    }
+
+    @After
+    public void tearDown() {
+        storage.destroy(false);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        Data key = ss.toData("key");
+        Record record = recordFactory.newRecord(key, "value");
+        record.setVersion(3);
+        record.setHits(7);
+        record.setTtl(5000);
+
+        storage.put(key, record);
+
+        Record stored = storage.get(ss.toData("key"));
+        assertEquals(key, stored.getKey());
+        assertEquals("value", ss.toObject(stored.getValue()));
+        assertEquals(3, stored.getVersion());
+        assertEquals(7, stored.getHits());
+        assertEquals(5000, stored.getTtl());
+        assertEquals(1, storage.size());
+        assertTrue(storage.containsKey(key));
+    }
+
+    @Test
+    public void testPut_attachesDetachedRecord() {
+        Data key = ss.toData("key");
+        CompactRecord record = (CompactRecord) recordFactory.newRecord(key, "value");
+        assertFalse(record.isAttached());
+
+        storage.put(key, record);
+        record.setVersion(42);
+
+        assertTrue(record.isAttached());
+        assertEquals(42, storage.get(key).getVersion());
+    }
+
+    @Test
+    public void testPut_replacesExistingEntry() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord(key, "value1"));
+        storage.put(key, recordFactory.newRecord(key, "value2"));
+        storage.disposeDeferredBlocks();
+
+        assertEquals(1, storage.size());
+        assertEquals("value2", ss.toObject(storage.get(key).getValue()));
+    }
+
+    @Test
+    public void testUpdateRecordValue() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord(key, "value"));
+        long costBefore = storage.getEntryCostEstimator().getEstimate();
+
+        Record record = storage.get(key);
+        storage.updateRecordValue(key, record, "a much longer value than before");
+
+        assertEquals("a much longer value than before", ss.toObject(storage.get(key).getValue()));
+        assertTrue(storage.getEntryCostEstimator().getEstimate() > costBefore);
+    }
+
+    @Test
+    public void testRemoveRecord() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord(key, "value"));
+
+        Record record = storage.get(key);
+        storage.removeRecord(record);
+
+        // removed record stays readable until its id is released
+        assertEquals("value", ss.toObject(record.getValue()));
+        storage.disposeDeferredBlocks();
+
+        assertNull(storage.get(key));
+        assertEquals(0, storage.size());
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+    }
+
+    @Test
+    public void testManyEntries_survivesRehashing() {
+        int entryCount = 10 * CompactStorage.DEFAULT_INITIAL_CAPACITY;
+        for (int i = 0; i < entryCount; i++) {
+            Data key = ss.toData(i);
+            storage.put(key, recordFactory.newRecord(key, "value" + i));
+        }
+        for (int i = 0; i < entryCount; i += 2) {
+            storage.removeRecord(storage.get(ss.toData(i)));
+        }
+        storage.disposeDeferredBlocks();
+
+        assertEquals(entryCount / 2, storage.size());
+        for (int i = 0; i < entryCount; i++) {
+            Record record = storage.get(ss.toData(i));
+            if (i % 2 == 0) {
+                assertNull(record);
+            } else {
+                assertEquals("value" + i, ss.toObject(record.getValue()));
+            }
+        }
+    }
+
+    @Test
+    public void testValuesIterator_removeAll() {
+        int entryCount = 1000;
+        putEntries(entryCount);
+
+        Iterator<Record> iterator = storage.values().iterator();
+        int iterated = 0;
+        while (iterator.hasNext()) {
+            Record record = iterator.next();
+            storage.removeRecord(record);
+            iterator.remove();
+            iterated++;
+        }
+        storage.disposeDeferredBlocks();
+
+        assertEquals(entryCount, iterated);
+        assertTrue(storage.isEmpty());
+    }
+
+    @Test
+    public void testFetchKeys_returnsAllKeysWithCursor() {
+        int entryCount = 1000;
+        putEntries(entryCount);
+
+        Set<Object> keys = new HashSet<>();
+        int tableIndex = Integer.MAX_VALUE;
+        do {
+            MapKeysWithCursor keysWithCursor = storage.fetchKeys(tableIndex, 100);
+            for (Data key : keysWithCursor.getBatch()) {
+                keys.add(ss.toObject(key));
+            }
+            tableIndex = keysWithCursor.getNextTableIndexToReadFrom();
+        } while (tableIndex >= 0);
+
+        assertEquals(entryCount, keys.size());
+    }
+
+    @Test
+    public void testFetchEntries_returnsAllEntriesWithCursor() {
+        int entryCount = 1000;
+        putEntries(entryCount);
+
+        int fetched = 0;
+        int tableIndex = Integer.MAX_VALUE;
+        do {
+            MapEntriesWithCursor entriesWithCursor = storage.fetchEntries(tableIndex, 100, ss);
+            for (Map.Entry<Data, Data> entry : entriesWithCursor.getBatch()) {
+                assertEquals("value" + ss.toObject(entry.getKey()), ss.toObject(entry.getValue()));
+                fetched++;
+            }
+            tableIndex = entriesWithCursor.getNextTableIndexToReadFrom();
+        } while (tableIndex >= 0);
+
+        assertEquals(entryCount, fetched);
+    }
+
+    @Test
+    public void testGetRandomSamples() {
+        putEntries(100);
+
+        int sampleCount = 0;
+        for (EntryView entryView : storage.getRandomSamples(15)) {
+            Record record = storage.extractRecordFrom(entryView);
+            assertTrue(storage.containsKey(record.getKey()));
+            sampleCount++;
+        }
+
+        assertEquals(15, sampleCount);
+    }
+
+    @Test
+    public void testClear() {
+        putEntries(1000);
+
+        storage.clear(false);
+
+        assertEquals(0, storage.size());
+        assertNull(storage.get(ss.toData(1)));
+        assertEquals(CompactStorage.DEFAULT_INITIAL_CAPACITY, storage.capacity());
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+    }
+
+    @Test
+    public void testRemovedIdsAreReused_afterDisposingDeferredBlocks() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord(key, "value"));
+        int id = ((CompactRecord) storage.get(key)).id();
+        storage.removeRecord(storage.get(key));
+
+        Data otherKey = ss.toData("otherKey");
+        storage.put(otherKey, recordFactory.newRecord(otherKey, "value"));
+        assertNotEquals(id, ((CompactRecord) storage.get(otherKey)).id());
+
+        storage.disposeDeferredBlocks();
+        Data anotherKey = ss.toData("anotherKey");
+        storage.put(anotherKey, recordFactory.newRecord(anotherKey, "value"));
+        assertEquals(id, ((CompactRecord) storage.get(anotherKey)).id());
+    }
+
+    private void putEntries(int entryCount) {
+        for (int i = 0; i < entryCount; i++) {
+            Data key = ss.toData(i);
+            storage.put(key, recordFactory.newRecord(key, "value" + i));
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.memory.impl.UnsafeMemoryManager;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.NativeRecord;
+import com.hazelcast.map.impl.record.NativeRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.memory.MemoryUnit.MEGABYTES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class NativeStorageTest {
+
+    private SerializationService ss;
+    private UnsafeMemoryManager memoryManager;
+    private NativeRecordFactory recordFactory;
+    private NativeStorage storage;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        memoryManager = new UnsafeMemoryManager(MEGABYTES.toBytes(64));
+        recordFactory = new NativeRecordFactory(ss, null);
+        storage = new NativeStorage(memoryManager, ss);
+    }
+
+    @After
+    public void tearDown() {
+        storage.destroy(false);
+        assertEquals(0, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void testPutAndGet() {
+        Data key = ss.toData("key");
+        Record record = recordFactory.newRecord(key, "value");
+        record.setVersion(3);
+        record.setHits(7);
+        record.setTtl(5000);
+
+        storage.put(key, record);
+
+        Record stored = storage.get(ss.toData("key"));
+        assertEquals(key, stored.getKey());
+        assertEquals("value", ss.toObject(stored.getValue()));
+        assertEquals(3, stored.getVersion());
+        assertEquals(7, stored.getHits());
+        assertEquals(5000, stored.getTtl());
+        assertEquals(1, storage.size());
+        assertTrue(storage.containsKey(key));
+    }
+
+    @Test
+    public void testPut_attachesDetachedRecord() {
+        Data key = ss.toData("key");
+        NativeRecord record = (NativeRecord) recordFactory.newRecord(key, "value");
+        assertFalse(record.isAttached());
+
+        storage.put(key, record);
+        record.setVersion(42);
+
+        assertTrue(record.isAttached());
+        assertEquals(42, storage.get(key).getVersion());
+    }
+
+    @Test
+    public void testPut_replacesExistingEntry() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord(key, "value1"));
+        storage.put(key, recordFactory.newRecord(key, "value2"));
+        storage.disposeDeferredBlocks();
+
+        assertEquals(1, storage.size());
+        assertEquals("value2", ss.toObject(storage.get(key).getValue()));
+    }
+
+    @Test
+    public void testUpdateRecordValue() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord(key, "value"));
+        long costBefore = storage.getEntryCostEstimator().getEstimate();
+
+        Record record = storage.get(key);
+        storage.updateRecordValue(key, record, "a much longer value than before");
+
+        assertEquals("a much longer value than before", ss.toObject(storage.get(key).getValue()));
+        assertTrue(storage.getEntryCostEstimator().getEstimate() > costBefore);
+    }
+
+    @Test
+    public void testUpdateRecordValue_defersFreeingReplacedValue() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord(key, "value"));
+        long usedBefore = memoryManager.getUsedMemory();
+        int oldValueSize = ss.toData("value").totalSize();
+        int newValueSize = ss.toData("new value").totalSize();
+
+        storage.updateRecordValue(key, storage.get(key), "new value");
+
+        // the replaced value block stays allocated until deferred blocks are disposed
+        assertEquals(usedBefore + newValueSize, memoryManager.getUsedMemory());
+        storage.disposeDeferredBlocks();
+        assertEquals(usedBefore + newValueSize - oldValueSize, memoryManager.getUsedMemory());
+        assertEquals("new value", ss.toObject(storage.get(key).getValue()));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSetValue_whenAttached_thenFails() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord(key, "value"));
+
+        storage.get(key).setValue(ss.toData("new value"));
+    }
+
+    @Test
+    public void testRemoveRecord() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord(key, "value"));
+
+        Record record = storage.get(key);
+        storage.removeRecord(record);
+
+        // removed record stays readable until deferred blocks are disposed
+        assertEquals("value", ss.toObject(record.getValue()));
+        storage.disposeDeferredBlocks();
+
+        assertNull(storage.get(key));
+        assertEquals(0, storage.size());
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+    }
+
+    @Test
+    public void testManyEntries_survivesRehashing() {
+        int entryCount = 10 * NativeStorage.DEFAULT_INITIAL_CAPACITY;
+        for (int i = 0; i < entryCount; i++) {
+            Data key = ss.toData(i);
+            storage.put(key, recordFactory.newRecord(key, "value" + i));
+        }
+        for (int i = 0; i < entryCount; i += 2) {
+            storage.removeRecord(storage.get(ss.toData(i)));
+        }
+        storage.disposeDeferredBlocks();
+
+        assertEquals(entryCount / 2, storage.size());
+        for (int i = 0; i < entryCount; i++) {
+            Record record = storage.get(ss.toData(i));
+            if (i % 2 == 0) {
+                assertNull(record);
+            } else {
+                assertEquals("value" + i, ss.toObject(record.getValue()));
+            }
+        }
+    }
+
+    @Test
+    public void testValuesIterator_removeAll() {
+        int entryCount = 1000;
+        putEntries(entryCount);
+
+        Iterator<Record> iterator = storage.values().iterator();
+        int iterated = 0;
+        while (iterator.hasNext()) {
+            Record record = iterator.next();
+            storage.removeRecord(record);
+            iterator.remove();
+            iterated++;
+        }
+        storage.disposeDeferredBlocks();
+
+        assertEquals(entryCount, iterated);
+        assertTrue(storage.isEmpty());
+    }
+
+    @Test
+    public void testFetchKeys_returnsAllKeysWithCursor() {
+        int entryCount = 1000;
+        putEntries(entryCount);
+
+        Set<Object> keys = new HashSet<>();
+        int tableIndex = Integer.MAX_VALUE;
+        do {
+            MapKeysWithCursor keysWithCursor = storage.fetchKeys(tableIndex, 100);
+            for (Data key : keysWithCursor.getBatch()) {
+                keys.add(ss.toObject(key));
+            }
+            tableIndex = keysWithCursor.getNextTableIndexToReadFrom();
+        } while (tableIndex >= 0);
+
+        assertEquals(entryCount, keys.size());
+    }
+
+    @Test
+    public void testFetchEntries_returnsAllEntriesWithCursor() {
+        int entryCount = 1000;
+        putEntries(entryCount);
+
+        int fetched = 0;
+        int tableIndex = Integer.MAX_VALUE;
+        do {
+            MapEntriesWithCursor entriesWithCursor = storage.fetchEntries(tableIndex, 100, ss);
+            for (Map.Entry<Data, Data> entry : entriesWithCursor.getBatch()) {
+                assertEquals("value" + ss.toObject(entry.getKey()), ss.toObject(entry.getValue()));
+                fetched++;
+            }
+            tableIndex = entriesWithCursor.getNextTableIndexToReadFrom();
+        } while (tableIndex >= 0);
+
+        assertEquals(entryCount, fetched);
+    }
+
+    @Test
+    public void testGetRandomSamples() {
+        putEntries(100);
+
+        int sampleCount = 0;
+        for (EntryView entryView : storage.getRandomSamples(15)) {
+            Record record = storage.extractRecordFrom(entryView);
+            assertTrue(storage.containsKey(record.getKey()));
+            sampleCount++;
+        }
+
+        assertEquals(15, sampleCount);
+    }
+
+    @Test
+    public void testClear_releasesNativeMemory() {
+        putEntries(1000);
+        long tableSize = 16L * storage.capacity();
+
+        storage.clear(false);
+
+        assertEquals(0, storage.size());
+        assertEquals(tableSize, memoryManager.getUsedMemory());
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+    }
+
+    @Test(expected = NativeOutOfMemoryError.class)
+    public void testPut_whenNativeMemoryExhausted() {
+        UnsafeMemoryManager smallMemoryManager = new UnsafeMemoryManager(8 * 1024);
+        NativeStorage smallStorage = new NativeStorage(smallMemoryManager, ss);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                Data key = ss.toData(i);
+                smallStorage.put(key, recordFactory.newRecord(key, "value" + i));
+            }
+        } finally {
+            smallStorage.destroy(false);
+            assertEquals(0, smallMemoryManager.getUsedMemory());
+        }
+    }
+
+    private void putEntries(int entryCount) {
+        for (int i = 0; i < entryCount; i++) {
+            Data key = ss.toData(i);
+            storage.put(key, recordFactory.newRecord(key, "value" + i));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.CacheDeserializedValues;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.record.CompactRecordFactory;
+import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.ObjectRecordFactory;
+import com.hazelcast.map.impl.record.RecordFactory;
+import com.hazelcast.nio.serialization.Data;
+
+import static com.hazelcast.internal.util.JVMUtil.usedMemory;
+
+/**
+ * Measures the retained heap per entry of the {@link Storage} and
+ * {@link com.hazelcast.map.impl.record.Record} variants used by on-heap maps.
+ * <p>
+ * Each variant is filled with the same small entries ({@code Integer} keys
+ * and {@code Long} values) and the used heap is sampled after forcing GC
+ * before and after filling. The figures include the cost of the keys and
+ * values, so the difference between two variants is the difference of their
+ * per-entry overhead. Run with a fixed heap size, e.g. {@code -Xms4G -Xmx4G},
+ * to keep the heap from resizing during the measurement.
+ */
+public final class RecordStorageMemoryCostBenchmark {
+
+    private static final int DEFAULT_ENTRY_COUNT = 1000000;
+    private static final int GC_ROUNDS = 5;
+
+    private final SerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+    private RecordStorageMemoryCostBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int entryCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ENTRY_COUNT;
+        RecordStorageMemoryCostBenchmark benchmark = new RecordStorageMemoryCostBenchmark();
+        for (Variant variant : Variant.values()) {
+            // warm up so that class loading does not distort the first measurement
+            benchmark.measure(variant, entryCount / 10);
+        }
+
+        System.out.printf("%-24s %16s %16s%n", "variant", "heap bytes/entry", "estimate/entry");
+        for (Variant variant : Variant.values()) {
+            long[] result = benchmark.measure(variant, entryCount);
+            System.out.printf("%-24s %16.1f %16.1f%n", variant,
+                    (double) result[0] / entryCount, (double) result[1] / entryCount);
+        }
+    }
+
+    /**
+     * @return the retained heap and the owned entry cost estimate of a storage
+     * filled with the given number of entries
+     */
+    private long[] measure(Variant variant, int entryCount) throws InterruptedException {
+        RecordFactory recordFactory = variant.newRecordFactory(ss);
+        long before = usedHeapAfterGc();
+
+        Storage storage = variant.newStorage(ss);
+        for (int i = 0; i < entryCount; i++) {
+            Data key = ss.toData(i);
+            storage.put(key, recordFactory.newRecord(key, (long) i));
+        }
+
+        long after = usedHeapAfterGc();
+        long estimate = storage.getEntryCostEstimator().getEstimate();
+        if (storage.size() != entryCount) {
+            throw new AssertionError("Expected " + entryCount + " entries but found " + storage.size());
+        }
+        storage.destroy(false);
+        return new long[]{after - before, estimate};
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return usedMemory(runtime);
+    }
+
+    private enum Variant {
+        DATA_RECORD(InMemoryFormat.BINARY, false),
+        DATA_RECORD_WITH_STATS(InMemoryFormat.BINARY, true),
+        OBJECT_RECORD(InMemoryFormat.OBJECT, false),
+        OBJECT_RECORD_WITH_STATS(InMemoryFormat.OBJECT, true),
+        COMPACT_RECORD(InMemoryFormat.BINARY, true) {
+            @Override
+            RecordFactory newRecordFactory(SerializationService ss) {
+                return new CompactRecordFactory(ss, null);
+            }
+
+            @Override
+            Storage newStorage(SerializationService ss) {
+                return new CompactStorage(ss);
+            }
+        };
+
+        private final MapConfig mapConfig;
+
+        Variant(InMemoryFormat inMemoryFormat, boolean statisticsEnabled) {
+            this.mapConfig = new MapConfig()
+                    .setInMemoryFormat(inMemoryFormat)
+                    .setStatisticsEnabled(statisticsEnabled)
+                    .setCacheDeserializedValues(CacheDeserializedValues.NEVER);
+        }
+
+        RecordFactory newRecordFactory(SerializationService ss) {
+            return mapConfig.getInMemoryFormat() == InMemoryFormat.OBJECT
+                    ? new ObjectRecordFactory(mapConfig, ss)
+                    : new DataRecordFactory(mapConfig, ss, null);
+        }
+
+        Storage newStorage(SerializationService ss) {
+            return new StorageImpl(mapConfig.getInMemoryFormat(), ss);
+        }
+    }
+}
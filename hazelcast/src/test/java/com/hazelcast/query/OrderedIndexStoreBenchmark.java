@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.CompositeIndexesBenchmark.Pojo;
+import com.hazelcast.query.impl.BPlusTreeIndexStore;
+import com.hazelcast.query.impl.Comparison;
+import com.hazelcast.query.impl.IndexCopyBehavior;
+import com.hazelcast.query.impl.IndexStore;
+import com.hazelcast.query.impl.OrderedIndexStore;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.spi.properties.ClusterProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.internal.monitor.impl.IndexOperationStats.EMPTY;
+
+/**
+ * Compares the skip list based {@link OrderedIndexStore} with the
+ * {@link BPlusTreeIndexStore} on the sorted index scenarios of the
+ * {@link CompositeIndexesBenchmark}, using a distinct attribute value per
+ * entry, and on plain index store range scans. Both stores are compared
+ * with the default {@code COPY_ON_READ} index copy behavior.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, warmups = 0)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class OrderedIndexStoreBenchmark {
+
+    private static final int ENTRY_COUNT = 100000;
+    private static final int RANGE_WIDTH = 1000;
+
+    @Param({"false", "true"})
+    public boolean bPlusTree;
+
+    private IMap<Integer, Pojo> map;
+    private IndexStore store;
+    private int from;
+
+    @Setup
+    public void setup() {
+        Config config = new Config();
+        config.setProperty(ClusterProperty.INDEX_BPLUS_TREE_ENABLED.getName(), Boolean.toString(bPlusTree));
+        MapConfig mapConfig = config.getMapConfig("map");
+        mapConfig.addIndexConfig(new IndexConfig(IndexType.HASH, "f5"));
+        mapConfig.addIndexConfig(new IndexConfig(IndexType.SORTED, "f6"));
+        mapConfig.addIndexConfig(new IndexConfig(IndexType.SORTED, "f7", "f8"));
+
+        this.map = Hazelcast.newHazelcastInstance(config).getMap("map");
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            this.map.put(i, new Pojo(0, i, 0, i, 0, i, 0, i));
+        }
+
+        InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+        Extractors extractors = Extractors.newBuilder(ss).build();
+        this.store = bPlusTree
+                ? new BPlusTreeIndexStore(IndexCopyBehavior.COPY_ON_READ)
+                : new OrderedIndexStore(IndexCopyBehavior.COPY_ON_READ);
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            this.store.insert(i, new QueryEntry(ss, ss.toData(i), i, extractors), EMPTY);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Benchmark
+    public Collection<Pojo> benchmarkRegularRangeQuery() {
+        return map.values(Predicates.sql("f5 = 0 and f6 < " + RANGE_WIDTH));
+    }
+
+    @Benchmark
+    public Collection<Pojo> benchmarkRegularBetweenQuery() {
+        return map.values(Predicates.between("f6", ENTRY_COUNT / 2, ENTRY_COUNT / 2 + RANGE_WIDTH));
+    }
+
+    @Benchmark
+    public Collection<Pojo> benchmarkCompositeRangeQuery() {
+        return map.values(Predicates.sql("f7 = 0 and f8 < " + RANGE_WIDTH));
+    }
+
+    @Benchmark
+    public Collection<Pojo> benchmarkSortedPointQuery() {
+        return map.values(Predicates.equal("f6", ENTRY_COUNT / 2));
+    }
+
+    @Benchmark
+    public void benchmarkStoreRangeScan(Blackhole blackhole) {
+        from = from + RANGE_WIDTH < ENTRY_COUNT ? from + RANGE_WIDTH : 0;
+        Set<?> records = store.getRecords(from, true, from + RANGE_WIDTH, false);
+        for (Object record : records) {
+            blackhole.consume(record);
+        }
+    }
+
+    @Benchmark
+    public void benchmarkStoreTailScan(Blackhole blackhole) {
+        Set<?> records = store.getRecords(Comparison.GREATER, ENTRY_COUNT - RANGE_WIDTH);
+        for (Object record : records) {
+            blackhole.consume(record);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(OrderedIndexStoreBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
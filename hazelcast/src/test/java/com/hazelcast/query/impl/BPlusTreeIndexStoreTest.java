@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.getters.MultiResult;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelParametersRunnerFactory;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hazelcast.internal.monitor.impl.IndexOperationStats.EMPTY;
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+@Parameterized.UseParametersRunnerFactory(HazelcastParallelParametersRunnerFactory.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class BPlusTreeIndexStoreTest extends HazelcastTestSupport {
+
+    private static final int VALUE_RANGE = 500;
+
+    @Parameterized.Parameters(name = "copyBehavior: {0}")
+    public static Collection<Object[]> parameters() {
+        return asList(new Object[][]{
+                {IndexCopyBehavior.COPY_ON_READ},
+                {IndexCopyBehavior.COPY_ON_WRITE},
+                {IndexCopyBehavior.NEVER},
+        });
+    }
+
+    @Parameterized.Parameter
+    public IndexCopyBehavior copyBehavior;
+
+    private final InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+    private final Extractors extractors = Extractors.newBuilder(ss).build();
+
+    @Test
+    public void testRandomOperations_matchOrderedIndexStore() {
+        BPlusTreeIndexStore store = new BPlusTreeIndexStore(copyBehavior);
+        OrderedIndexStore expected = new OrderedIndexStore(copyBehavior);
+        Comparable[] values = new Comparable[VALUE_RANGE * 4];
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20000; ++i) {
+            int key = random.nextInt(values.length);
+            Comparable oldValue = values[key];
+            Comparable newValue = random.nextInt(10) == 0 ? NULL : (Comparable) random.nextInt(VALUE_RANGE);
+            QueryableEntry entry = entry(key, newValue);
+            if (oldValue != null && random.nextInt(4) == 0) {
+                store.remove(oldValue, entry.getKeyData(), EMPTY);
+                expected.remove(oldValue, entry.getKeyData(), EMPTY);
+                values[key] = null;
+            } else if (oldValue != null) {
+                store.update(oldValue, newValue, entry, EMPTY);
+                expected.update(oldValue, newValue, entry, EMPTY);
+                values[key] = newValue;
+            } else {
+                store.insert(newValue, entry, EMPTY);
+                expected.insert(newValue, entry, EMPTY);
+                values[key] = newValue;
+            }
+
+            if (i % 100 == 0) {
+                assertSameResults(expected, store, random);
+            }
+        }
+        assertSameResults(expected, store, random);
+
+        store.clear();
+        assertTrue(store.getRecords(Comparison.GREATER_OR_EQUAL, 0).isEmpty());
+        assertTrue(store.getRecords(NULL).isEmpty());
+    }
+
+    @Test
+    public void testCompositeValuePrefixScan() {
+        BPlusTreeIndexStore store = new BPlusTreeIndexStore(copyBehavior);
+        for (int i = 0; i < 1000; ++i) {
+            CompositeValue value = new CompositeValue(new Comparable[]{i % 10, i});
+            store.insert(value, entry(i, value), EMPTY);
+        }
+
+        CompositeValue from = new CompositeValue(new Comparable[]{3, CompositeValue.NEGATIVE_INFINITY});
+        CompositeValue to = new CompositeValue(new Comparable[]{3, 500});
+        Set<Integer> keys = keys(store.getRecords(from, false, to, false));
+
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 3; i < 500; i += 10) {
+            expected.add(i);
+        }
+        assertEquals(expected, keys);
+    }
+
+    @Test
+    public void testConcurrentReadsAndWrites() throws Exception {
+        BPlusTreeIndexStore store = new BPlusTreeIndexStore(copyBehavior);
+        int stableKeys = 100;
+        for (int i = 0; i < stableKeys; ++i) {
+            // odd values are never touched by the writer
+            store.insert(2 * i + 1, entry(i, 2 * i + 1), EMPTY);
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            Random random = new Random();
+            int key = stableKeys;
+            while (!stop.get()) {
+                Comparable value = 2 * random.nextInt(VALUE_RANGE);
+                QueryableEntry entry = entry(key, value);
+                store.insert(value, entry, EMPTY);
+                store.remove(value, entry.getKeyData(), EMPTY);
+                key = key == 10 * stableKeys ? stableKeys : key + 1;
+            }
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                while (!stop.get()) {
+                    Set<QueryableEntry> records = store.getRecords(0, true, 2 * VALUE_RANGE, true);
+                    int stable = 0;
+                    for (QueryableEntry record : records) {
+                        if (((Integer) record.getValue() & 1) == 1) {
+                            ++stable;
+                        }
+                    }
+                    assertEquals(stableKeys, stable);
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+
+        writer.start();
+        reader.start();
+        sleepSeconds(2);
+        stop.set(true);
+        writer.join();
+        reader.join();
+        assertNull(failure.get());
+    }
+
+    @Test
+    public void testSortedIndex_usesBPlusTree_whenEnabled() {
+        Config config = smallInstanceConfig().setProperty(ClusterProperty.INDEX_BPLUS_TREE_ENABLED.getName(), "true");
+        config.getMapConfig("map").addIndexConfig(IndexUtils.createTestIndexConfig(IndexType.SORTED, "this"));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap("map");
+        for (int i = 0; i < 1000; ++i) {
+            map.put(i, i);
+        }
+
+        MapServiceContext mapServiceContext = ((MapService) getNodeEngineImpl(instance)
+                .getService(MapService.SERVICE_NAME)).getMapServiceContext();
+        InternalIndex index = mapServiceContext.getMapContainer("map").getIndexes().getIndexes()[0];
+        assertTrue(index instanceof BPlusTreeIndexImpl);
+
+        assertEquals(100, map.values(Predicates.between("this", 100, 199)).size());
+        assertEquals(10, map.values(Predicates.lessThan("this", 10)).size());
+        assertEquals(1, map.values(Predicates.equal("this", 500)).size());
+    }
+
+    private void assertSameResults(OrderedIndexStore expected, BPlusTreeIndexStore actual, Random random) {
+        int value = random.nextInt(VALUE_RANGE);
+        int to = value + random.nextInt(VALUE_RANGE / 10);
+        for (Comparison comparison : Comparison.values()) {
+            assertEquals(keys(expected.getRecords(comparison, value)), keys(actual.getRecords(comparison, value)));
+        }
+        assertEquals(keys(expected.getRecords(value)), keys(actual.getRecords(value)));
+        assertEquals(keys(expected.getRecords(NULL)), keys(actual.getRecords(NULL)));
+        Set<Comparable> set = new HashSet<>(asList(value, to, NULL));
+        assertEquals(keys(expected.getRecords(set)), keys(actual.getRecords(set)));
+        assertEquals(keys(expected.getRecords(value, true, to, false)), keys(actual.getRecords(value, true, to, false)));
+        assertEquals(keys(expected.getRecords(value, false, to, true)), keys(actual.getRecords(value, false, to, true)));
+
+        assertSummary(expected.getRecords(value, true, to, false), actual.summarize(value, true, to, false));
+        assertSummary(expected.getRecords(value, false, to, true), actual.summarize(value, false, to, true));
+        assertSummary(expected.getRecords(Comparison.GREATER, value), actual.summarize(value, false, null, false));
+        assertSummary(expected.getRecords(Comparison.LESS_OR_EQUAL, to), actual.summarize(null, false, to, true));
+        assertSummary(expected.getRecords(to, true, value, true), actual.summarize(to, true, value, true));
+    }
+
+    @Test
+    public void testSummarize_whenNonIntegralValues() {
+        BPlusTreeIndexStore store = new BPlusTreeIndexStore(copyBehavior);
+        store.insert(1, entry(1, 1), EMPTY);
+        store.insert(2L, entry(2, 2L), EMPTY);
+        assertSummary(store.getRecords(Comparison.GREATER_OR_EQUAL, 0), store.summarize(null, false, null, false));
+
+        store.insert(2.5, entry(3, 2.5), EMPTY);
+        IndexSummary summary = store.summarize(0, true, 10, true);
+        assertEquals(3, summary.getCount());
+        assertFalse(summary.hasLongSum());
+        assertEquals(2.5, summary.getMax());
+
+        store.remove(2.5, entry(3, 2.5).getKeyData(), EMPTY);
+        assertTrue(store.summarize(0, true, 10, true).hasLongSum());
+    }
+
+    @Test
+    public void testSummarize_whenMultiValued() {
+        BPlusTreeIndexStore store = new BPlusTreeIndexStore(copyBehavior);
+        store.insert(1, entry(1, 1), EMPTY);
+        assertEquals(1, store.summarize(null, false, null, false).getCount());
+
+        MultiResult<Integer> multiResult = new MultiResult<>();
+        multiResult.add(2);
+        multiResult.add(2);
+        store.insert(multiResult, entry(2, multiResult), EMPTY);
+        assertNull(store.summarize(null, false, null, false));
+    }
+
+    private static void assertSummary(Set<QueryableEntry> expected, IndexSummary actual) {
+        long sum = 0;
+        Integer min = null;
+        Integer max = null;
+        for (QueryableEntry record : expected) {
+            int value = ((Number) record.getValue()).intValue();
+            sum += value;
+            min = min == null || value < min ? value : min;
+            max = max == null || value > max ? value : max;
+        }
+        assertEquals(expected.size(), actual.getCount());
+        assertTrue(actual.hasLongSum());
+        assertEquals(sum, actual.getLongSum());
+        assertEquals(min, actual.getMin() == null ? null : ((Number) actual.getMin()).intValue());
+        assertEquals(max, actual.getMax() == null ? null : ((Number) actual.getMax()).intValue());
+    }
+
+    private QueryableEntry entry(int key, Object value) {
+        return new QueryEntry(ss, ss.toData(key), value, extractors);
+    }
+
+    private static Set<Integer> keys(Set<QueryableEntry> records) {
+        Set<Integer> keys = new HashSet<>();
+        for (QueryableEntry record : records) {
+            keys.add((Integer) record.getKey());
+        }
+        return keys;
+    }
+
+}
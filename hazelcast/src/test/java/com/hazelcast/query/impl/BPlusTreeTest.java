@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class BPlusTreeTest {
+
+    private static final int NODE_CAPACITY = 4;
+
+    private final BPlusTree<Integer, String> tree = new BPlusTree<>(Comparator.naturalOrder(), NODE_CAPACITY);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenNodeCapacityTooSmall() {
+        new BPlusTree<Integer, String>(Comparator.naturalOrder(), 2);
+    }
+
+    @Test
+    public void testPutGet() {
+        assertNull(tree.put(1, "a"));
+        assertNull(tree.put(2, "b"));
+        assertEquals("a", tree.put(1, "c"));
+
+        assertEquals("c", tree.get(1));
+        assertEquals("b", tree.get(2));
+        assertNull(tree.get(3));
+        assertEquals(2, tree.size());
+    }
+
+    @Test
+    public void testAscendingPuts() {
+        int count = NODE_CAPACITY * NODE_CAPACITY * NODE_CAPACITY;
+        for (int i = 0; i < count; ++i) {
+            tree.put(i, Integer.toString(i));
+        }
+
+        assertEquals(count, tree.size());
+        assertEquals(range(0, count), scan(null, false, null, false));
+    }
+
+    @Test
+    public void testRemove_shrinksTree() {
+        int count = 1000;
+        for (int i = 0; i < count; ++i) {
+            tree.put(i, Integer.toString(i));
+        }
+
+        for (int i = 0; i < count - 1; ++i) {
+            assertEquals(Integer.toString(i), tree.remove(i));
+        }
+        assertNull(tree.remove(0));
+
+        assertEquals(1, tree.size());
+        assertEquals(0, tree.height());
+        assertEquals(range(count - 1, count), scan(null, false, null, false));
+
+        tree.remove(count - 1);
+        assertEquals(0, tree.size());
+        assertEquals(range(0, 0), scan(null, false, null, false));
+    }
+
+    @Test
+    public void testClear() {
+        for (int i = 0; i < 100; ++i) {
+            tree.put(i, Integer.toString(i));
+        }
+
+        tree.clear();
+
+        assertEquals(0, tree.size());
+        assertEquals(0, tree.height());
+        assertNull(tree.get(1));
+        assertEquals(range(0, 0), scan(null, false, null, false));
+    }
+
+    @Test
+    public void testForEachInRange_bounds() {
+        for (int i = 0; i < 100; i += 2) {
+            tree.put(i, Integer.toString(i));
+        }
+
+        assertEquals(evenRange(10, 20), scan(10, true, 20, false));
+        assertEquals(evenRange(12, 21), scan(10, false, 20, true));
+        assertEquals(evenRange(12, 20), scan(11, true, 19, true));
+        assertEquals(evenRange(0, 10), scan(null, false, 10, false));
+        assertEquals(evenRange(90, 100), scan(90, true, null, false));
+        assertEquals(evenRange(0, 0), scan(200, true, null, false));
+        assertEquals(evenRange(0, 0), scan(null, false, -1, true));
+    }
+
+    @Test
+    public void testRandomOperations_matchTreeMap() {
+        Random random = new Random(42);
+        NavigableMap<Integer, String> expected = new TreeMap<>();
+
+        for (int i = 0; i < 100000; ++i) {
+            int key = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), tree.remove(key));
+            } else {
+                String value = Integer.toString(i);
+                assertEquals(expected.put(key, value), tree.put(key, value));
+            }
+
+            if (i % 1000 == 0) {
+                int from = random.nextInt(2000);
+                int to = from + random.nextInt(500);
+                boolean fromInclusive = random.nextBoolean();
+                boolean toInclusive = random.nextBoolean();
+                assertEquals(new ArrayList<>(expected.subMap(from, fromInclusive, to, toInclusive).values()),
+                        scan(from, fromInclusive, to, toInclusive));
+            }
+        }
+
+        assertEquals(expected.size(), tree.size());
+        assertEquals(new ArrayList<>(expected.values()), scan(null, false, null, false));
+        for (int key = 0; key < 2000; ++key) {
+            assertEquals(expected.get(key), tree.get(key));
+        }
+    }
+
+    @Test
+    public void testWeights_matchTreeMap() {
+        BPlusTree<Integer, String> weighted = new BPlusTree<>(Comparator.naturalOrder(), key -> key, NODE_CAPACITY);
+        NavigableMap<Integer, Long> expected = new TreeMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50000; ++i) {
+            int key = random.nextInt(2000) - 500;
+            int operation = random.nextInt(4);
+            if (operation == 0) {
+                expected.remove(key);
+                weighted.remove(key);
+            } else if (operation == 1 && expected.containsKey(key)) {
+                long delta = random.nextInt(10) - 5;
+                expected.merge(key, delta, Long::sum);
+                weighted.addWeight(key, delta);
+            } else {
+                if (weighted.put(key, Integer.toString(key)) == null) {
+                    expected.put(key, 0L);
+                }
+                long delta = random.nextInt(5) + 1;
+                expected.merge(key, delta, Long::sum);
+                weighted.addWeight(key, delta);
+            }
+
+            if (i % 100 == 0) {
+                int from = random.nextInt(2000) - 500;
+                int to = from + random.nextInt(500);
+                boolean fromInclusive = random.nextBoolean();
+                boolean toInclusive = random.nextBoolean();
+                assertWeights(expected.subMap(from, fromInclusive, to, toInclusive), weighted, from, fromInclusive, to,
+                        toInclusive);
+                assertWeights(expected.headMap(to, toInclusive), weighted, null, false, to, toInclusive);
+                assertWeights(expected.tailMap(from, fromInclusive), weighted, from, fromInclusive, null, false);
+                assertEquals(expected.ceilingKey(fromInclusive ? from : from + 1), weighted.ceilingKey(from, fromInclusive));
+                assertEquals(expected.floorKey(toInclusive ? to : to - 1), weighted.floorKey(to, toInclusive));
+            }
+        }
+
+        assertWeights(expected, weighted, null, false, null, false);
+        assertEquals(expected.isEmpty() ? null : expected.firstKey(), weighted.ceilingKey(null, false));
+        assertEquals(expected.isEmpty() ? null : expected.lastKey(), weighted.floorKey(null, false));
+
+        weighted.clear();
+        assertEquals(0, weighted.weight(null, false, null, false));
+        assertNull(weighted.ceilingKey(null, false));
+        assertNull(weighted.floorKey(null, false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddWeight_whenNoSuchKey() {
+        tree.put(1, "a");
+        tree.addWeight(2, 1);
+    }
+
+    private static void assertWeights(Map<Integer, Long> expected, BPlusTree<Integer, String> tree, Integer from,
+                                      boolean fromInclusive, Integer to, boolean toInclusive) {
+        long weight = 0;
+        long weightedSum = 0;
+        for (Map.Entry<Integer, Long> entry : expected.entrySet()) {
+            weight += entry.getValue();
+            weightedSum += entry.getValue() * entry.getKey();
+        }
+        assertEquals(weight, tree.weight(from, fromInclusive, to, toInclusive));
+        assertEquals(weightedSum, tree.weightedSum(from, fromInclusive, to, toInclusive));
+    }
+
+    private List<String> scan(Integer from, boolean fromInclusive, Integer to, boolean toInclusive) {
+        List<String> values = new ArrayList<>();
+        tree.forEachInRange(from, fromInclusive, to, toInclusive, values::add);
+        return values;
+    }
+
+    private static List<String> range(int from, int to) {
+        List<String> values = new ArrayList<>();
+        for (int i = from; i < to; ++i) {
+            values.add(Integer.toString(i));
+        }
+        return values;
+    }
+
+    private static List<String> evenRange(int from, int to) {
+        List<String> values = new ArrayList<>();
+        for (int i = from; i < to; i += 2) {
+            values.add(Integer.toString(i));
+        }
+        return values;
+    }
+
+}
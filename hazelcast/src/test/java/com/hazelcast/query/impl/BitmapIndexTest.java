@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.in;
+import static com.hazelcast.query.Predicates.not;
+import static com.hazelcast.query.Predicates.notEqual;
+import static com.hazelcast.query.Predicates.or;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class BitmapIndexTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 2000;
+
+    private IMap<Integer, Person> map;
+    private IMap<Integer, Person> unindexedMap;
+    private Indexes indexes;
+
+    @Before
+    public void before() {
+        Config config = smallInstanceConfig();
+        config.getMapConfig("persons")
+              .addIndexConfig(new IndexConfig(IndexType.BITMAP, "gender"))
+              .addIndexConfig(new IndexConfig(IndexType.BITMAP, "country"))
+              .addIndexConfig(new IndexConfig(IndexType.BITMAP, "active"))
+              .addIndexConfig(new IndexConfig(IndexType.SORTED, "age"));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        map = instance.getMap("persons");
+        unindexedMap = instance.getMap("unindexed");
+
+        MapServiceContext mapServiceContext = ((MapService) getNodeEngineImpl(instance)
+                .getService(MapService.SERVICE_NAME)).getMapServiceContext();
+        indexes = mapServiceContext.getMapContainer("persons").getIndexes();
+
+        Random random = new Random(42);
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            put(i, randomPerson(random));
+        }
+    }
+
+    @Test
+    public void testBitmapIndexesShareEntryOrdinals() {
+        InternalIndex gender = indexes.getIndex("persons_bitmap_gender");
+        InternalIndex country = indexes.getIndex("persons_bitmap_country");
+        assertNotNull(gender.getEntryOrdinals());
+        assertTrue(gender.getEntryOrdinals() == country.getEntryOrdinals());
+        assertNull(indexes.getIndex("persons_sorted_age").getEntryOrdinals());
+    }
+
+    @Test
+    public void testQueries_matchFullScan() {
+        assertQuery(equal("gender", "F"), true);
+        assertQuery(in("country", 1, 3, 5), true);
+        assertQuery(notEqual("country", 2), true);
+        assertQuery(not(equal("gender", "M")), true);
+        assertQuery(and(equal("gender", "F"), equal("country", 3)), true);
+        assertQuery(and(equal("gender", "F"), notEqual("country", 3), equal("active", true)), true);
+        assertQuery(or(equal("gender", "F"), equal("country", 3)), true);
+        assertQuery(not(or(equal("gender", "F"), and(equal("country", 3), equal("active", false)))), true);
+        assertQuery(or(and(equal("gender", "M"), not(equal("active", true))), in("country", 7, 8)), true);
+        // mixed with the sorted index and with the unindexed attributes
+        assertQuery(and(equal("gender", "F"), equal("country", 3), Predicates.lessThan("age", 40)), true);
+        assertQuery(and(notEqual("gender", "F"), equal("country", 3), equal("name", "name-7")), true);
+        assertQuery(or(equal("gender", "F"), Predicates.greaterEqual("age", 60)), true);
+        assertQuery(or(equal("gender", "F"), equal("name", "name-7")), false);
+        // comparisons answered by the bitmap index alone
+        assertQuery(Predicates.greaterThan("country", 6), true);
+        assertQuery(Predicates.between("country", 2, 4), true);
+    }
+
+    @Test
+    public void testQueries_matchFullScan_afterUpdatesAndRemovals() {
+        Random random = new Random(43);
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            int key = random.nextInt(ENTRY_COUNT * 2);
+            if (random.nextInt(3) == 0) {
+                map.delete(key);
+                unindexedMap.delete(key);
+            } else {
+                put(key, randomPerson(random));
+            }
+        }
+
+        assertQuery(and(equal("gender", "F"), notEqual("country", 3)), true);
+        assertQuery(not(or(equal("gender", "F"), equal("active", true))), true);
+        assertQuery(in("country", 0, 9), true);
+    }
+
+    @Test
+    public void testClear() {
+        map.clear();
+        unindexedMap.clear();
+
+        assertQuery(notEqual("country", 2), true);
+        assertQuery(equal("gender", "F"), true);
+
+        put(1, new Person("F", 2, true, 30));
+        assertQuery(not(equal("country", 3)), true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompositeBitmapIndex_isRejected() {
+        IndexUtils.validateAndNormalize("map", new IndexConfig(IndexType.BITMAP, "gender", "country"));
+    }
+
+    private void put(int key, Person person) {
+        map.set(key, person);
+        unindexedMap.set(key, person);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertQuery(Predicate predicate, boolean indexed) {
+        Set<Integer> expectedKeys = unindexedMap.keySet(predicate);
+        assertEquals(predicate.toString(), expectedKeys, map.keySet(predicate));
+
+        Set<QueryableEntry> result = indexes.query(predicate);
+        if (indexed) {
+            assertNotNull(predicate.toString(), result);
+            Set<Integer> keys = new HashSet<>();
+            for (QueryableEntry entry : result) {
+                keys.add((Integer) entry.getKey());
+            }
+            assertEquals(predicate.toString(), expectedKeys, keys);
+        } else {
+            assertNull(predicate.toString(), result);
+        }
+    }
+
+    private static Person randomPerson(Random random) {
+        return new Person(random.nextBoolean() ? "F" : "M", random.nextInt(10), random.nextBoolean(), random.nextInt(80),
+                "name-" + random.nextInt(20));
+    }
+
+    public static class Person implements Serializable {
+
+        private final String gender;
+        private final int country;
+        private final boolean active;
+        private final int age;
+        private final String name;
+
+        Person(String gender, int country, boolean active, int age) {
+            this(gender, country, active, age, "name");
+        }
+
+        Person(String gender, int country, boolean active, int age, String name) {
+            this.gender = gender;
+            this.country = country;
+            this.active = active;
+            this.age = age;
+            this.name = name;
+        }
+
+        public String getGender() {
+            return gender;
+        }
+
+        public int getCountry() {
+            return country;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+    }
+
+}
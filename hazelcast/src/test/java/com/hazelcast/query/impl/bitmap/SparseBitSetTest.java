@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.bitmap;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.BitSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static com.hazelcast.query.impl.bitmap.SparseBitSet.ARRAY_CHUNK_MAX_CARDINALITY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class SparseBitSetTest {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    @Test
+    public void testAddRemoveContains() {
+        SparseBitSet set = new SparseBitSet();
+        assertTrue(set.isEmpty());
+
+        assertTrue(set.add(5));
+        assertFalse(set.add(5));
+        assertTrue(set.add(CHUNK_SIZE + 5));
+        assertTrue(set.add(Integer.MAX_VALUE));
+
+        assertTrue(set.contains(5));
+        assertTrue(set.contains(CHUNK_SIZE + 5));
+        assertTrue(set.contains(Integer.MAX_VALUE));
+        assertFalse(set.contains(6));
+        assertFalse(set.contains(-1));
+        assertEquals(3, set.cardinality());
+
+        assertTrue(set.remove(CHUNK_SIZE + 5));
+        assertFalse(set.remove(CHUNK_SIZE + 5));
+        assertFalse(set.contains(CHUNK_SIZE + 5));
+        assertEquals(2, set.cardinality());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAdd_whenNegative() {
+        new SparseBitSet().add(-1);
+    }
+
+    @Test
+    public void testDenseChunk_convertsBackAndForth() {
+        SparseBitSet set = new SparseBitSet();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < ARRAY_CHUNK_MAX_CARDINALITY * 3; ++i) {
+            set.add(i * 3);
+            expected.set(i * 3);
+        }
+        assertSame(expected, set);
+
+        for (int i = 0; i < ARRAY_CHUNK_MAX_CARDINALITY * 3; i += 2) {
+            set.remove(i * 3);
+            expected.clear(i * 3);
+        }
+        assertSame(expected, set);
+
+        for (int i = 0; i < ARRAY_CHUNK_MAX_CARDINALITY * 3; ++i) {
+            set.remove(i * 3);
+        }
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void testCopy_isIndependent() {
+        SparseBitSet set = new SparseBitSet();
+        for (int i = 0; i < ARRAY_CHUNK_MAX_CARDINALITY * 2; ++i) {
+            set.add(i);
+        }
+
+        SparseBitSet copy = set.copy();
+        copy.remove(0);
+        copy.add(CHUNK_SIZE * 3);
+
+        assertTrue(set.contains(0));
+        assertFalse(set.contains(CHUNK_SIZE * 3));
+        assertEquals(ARRAY_CHUNK_MAX_CARDINALITY * 2, set.cardinality());
+        assertEquals(ARRAY_CHUNK_MAX_CARDINALITY * 2, copy.cardinality());
+    }
+
+    @Test
+    public void testRandomOperations_matchBitSet() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; ++round) {
+            // mix sparse and dense chunks over a few chunks
+            BitSet expectedLeft = randomBitSet(random);
+            BitSet expectedRight = randomBitSet(random);
+            SparseBitSet left = toSparse(expectedLeft);
+            SparseBitSet right = toSparse(expectedRight);
+            assertSame(expectedLeft, left);
+            assertSame(expectedRight, right);
+
+            SparseBitSet and = left.copy();
+            and.and(right);
+            BitSet expectedAnd = (BitSet) expectedLeft.clone();
+            expectedAnd.and(expectedRight);
+            assertSame(expectedAnd, and);
+
+            SparseBitSet or = left.copy();
+            or.or(right);
+            BitSet expectedOr = (BitSet) expectedLeft.clone();
+            expectedOr.or(expectedRight);
+            assertSame(expectedOr, or);
+
+            SparseBitSet andNot = left.copy();
+            andNot.andNot(right);
+            BitSet expectedAndNot = (BitSet) expectedLeft.clone();
+            expectedAndNot.andNot(expectedRight);
+            assertSame(expectedAndNot, andNot);
+
+            // the operands stay intact
+            assertSame(expectedLeft, left);
+            assertSame(expectedRight, right);
+        }
+    }
+
+    private static BitSet randomBitSet(Random random) {
+        BitSet set = new BitSet();
+        int chunks = 1 + random.nextInt(4);
+        for (int chunk = 0; chunk < chunks; ++chunk) {
+            if (random.nextInt(4) == 0) {
+                continue;
+            }
+            int count = random.nextBoolean() ? random.nextInt(100) : random.nextInt(CHUNK_SIZE);
+            for (int i = 0; i < count; ++i) {
+                set.set(chunk * CHUNK_SIZE + random.nextInt(CHUNK_SIZE));
+            }
+        }
+        return set;
+    }
+
+    private static SparseBitSet toSparse(BitSet bitSet) {
+        SparseBitSet set = new SparseBitSet();
+        for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
+            set.add(i);
+        }
+        return set;
+    }
+
+    private static void assertSame(BitSet expected, SparseBitSet actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        PrimitiveIterator.OfInt iterator = actual.iterator();
+        for (int i = expected.nextSetBit(0); i >= 0; i = expected.nextSetBit(i + 1)) {
+            assertTrue(iterator.hasNext());
+            assertEquals(i, iterator.nextInt());
+            assertTrue(actual.contains(i));
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+}
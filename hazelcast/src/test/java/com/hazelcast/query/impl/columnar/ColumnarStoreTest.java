@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.columnar;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.impl.Extractable;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ColumnarStoreTest extends HazelcastTestSupport {
+
+    private static final int KEY_COUNT = 1000;
+
+    private final InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+    private final ConcurrentMap<Data, TestEntry> entries = new ConcurrentHashMap<>();
+    private final List<Runnable> ownerTasks = new ArrayList<>();
+
+    private volatile Thread ownerThread;
+    private ExecutorService ownerExecutor;
+    private ColumnarStore<TestEntry> store;
+
+    @Before
+    public void setUp() {
+        store = new ColumnarStore<>(new TestSource());
+        for (int i = 0; i < KEY_COUNT; ++i) {
+            entries.put(key(i), new TestEntry(key(i), i));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (ownerExecutor != null) {
+            ownerExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFirstColumn_whenNotOwnerThread_thenCreatedOnOwnerThread() {
+        assertNull(store.getOrCreateColumn("value"));
+        assertNull(store.getOrCreateColumn("value"));
+        assertFalse(store.isActive());
+        // the column is requested only once
+        assertEquals(1, ownerTasks.size());
+
+        ownerThread = Thread.currentThread();
+        ownerTasks.get(0).run();
+        ownerThread = null;
+
+        assertTrue(store.isActive());
+        Column column = store.getOrCreateColumn("value");
+        assertNotNull(column);
+        assertEquals(KEY_COUNT, store.select(RowFilters.range(column, 0, true, null, false)).getEntries().size());
+        // further columns are created from the rows on any thread
+        assertNotNull(store.getOrCreateColumn("doubled"));
+    }
+
+    @Test
+    public void testFirstScan_concurrentWithPutsAndRemoves() throws Exception {
+        ownerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable);
+            ownerThread = thread;
+            return thread;
+        });
+        Random random = new Random(42);
+        Column column = null;
+        for (int round = 0; round < 200; ++round) {
+            long seed = random.nextLong();
+            ownerExecutor.execute(() -> mutate(new Random(seed)));
+            if (column == null) {
+                column = store.getOrCreateColumn("value");
+            } else {
+                store.select(RowFilters.range(column, 0, true, null, false));
+            }
+        }
+        // wait for the pending mutations and column requests
+        ownerExecutor.submit(() -> { }).get();
+
+        column = store.getOrCreateColumn("value");
+        assertNotNull(column);
+        ColumnarStore.Selection<TestEntry> selection = store.select(RowFilters.range(column, 0, true, null, false));
+        assertFalse(selection.isConcurrentlyModified());
+        Map<Data, TestEntry> selected = new HashMap<>();
+        for (TestEntry entry : selection.getEntries()) {
+            assertNull(selected.put(entry.key, entry));
+        }
+        assertEquals(entries.keySet(), selected.keySet());
+        for (TestEntry entry : entries.values()) {
+            assertSame(entry, selected.get(entry.key));
+        }
+    }
+
+    private void mutate(Random random) {
+        for (int i = 0; i < 50; ++i) {
+            Data key = key(random.nextInt(KEY_COUNT * 2));
+            if (random.nextInt(3) == 0) {
+                // the record stores notify the observers before removing the record
+                store.remove(key);
+                entries.remove(key);
+            } else {
+                TestEntry entry = new TestEntry(key, random.nextInt(KEY_COUNT));
+                entries.put(key, entry);
+                store.put(entry);
+            }
+        }
+    }
+
+    private Data key(int key) {
+        return ss.toData(key);
+    }
+
+    private static final class TestEntry {
+
+        private final Data key;
+        private final int value;
+
+        TestEntry(Data key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+
+    }
+
+    private final class TestSource implements ColumnarStore.Source<TestEntry> {
+
+        @Override
+        public Iterable<TestEntry> entries() {
+            // only the owner thread sees the entries consistently with the modifications
+            assertTrue("entries read outside of the owner thread", isOwnerThread());
+            return entries.values();
+        }
+
+        @Override
+        public Data keyOf(TestEntry entry) {
+            return entry.key;
+        }
+
+        @Override
+        public Extractable toExtractable(TestEntry entry) {
+            return attribute -> "doubled".equals(attribute) ? 2 * entry.value : entry.value;
+        }
+
+        @Override
+        public boolean isOwnerThread() {
+            return Thread.currentThread() == ownerThread;
+        }
+
+        @Override
+        public void executeOnOwnerThread(Runnable task) {
+            if (ownerExecutor == null) {
+                ownerTasks.add(task);
+            } else {
+                ownerExecutor.execute(task);
+            }
+        }
+
+    }
+
+}
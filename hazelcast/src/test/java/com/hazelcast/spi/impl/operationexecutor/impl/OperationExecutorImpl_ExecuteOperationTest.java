@@ -24,8 +24,11 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.Assert.assertEquals;
+
 @RunWith(HazelcastSerialClassRunner.class)
 @Category(QuickTest.class)
 public class OperationExecutorImpl_ExecuteOperationTest extends OperationExecutorImpl_AbstractTest {
@@ -59,6 +62,29 @@ public class OperationExecutorImpl_ExecuteOperationTest extends OperationExecuto
         });
     }
 
+    @Test
+    public void whenPartitionSpecific_andRingBufferQueues() {
+        config.setProperty("hazelcast.operation.partitionthread.queue.capacity", "16");
+        initExecutor();
+
+        final AtomicInteger executed = new AtomicInteger();
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(new Operation() {
+                @Override
+                public void run() throws Exception {
+                    executed.incrementAndGet();
+                }
+            }.setPartitionId(i % 10));
+        }
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(1000, executed.get());
+            }
+        });
+    }
+
     @Test
     public void whenGeneric() {
         initExecutor();
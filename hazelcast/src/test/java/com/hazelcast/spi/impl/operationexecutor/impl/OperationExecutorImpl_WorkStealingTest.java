@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.spi.properties.ClusterProperty.GENERIC_OPERATION_THREAD_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.GENERIC_OPERATION_WORK_STEALING_ENABLED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class OperationExecutorImpl_WorkStealingTest extends OperationExecutorImpl_AbstractTest {
+
+    private static final int GENERIC_THREAD_COUNT = 4;
+
+    @Before
+    public void setupWorkStealing() {
+        config.setProperty(GENERIC_OPERATION_WORK_STEALING_ENABLED.getName(), "true");
+        config.setProperty(GENERIC_OPERATION_THREAD_COUNT.getName(), String.valueOf(GENERIC_THREAD_COUNT));
+    }
+
+    @Test
+    public void whenManyGenericOperations_thenAllExecuted() {
+        initExecutor();
+
+        final AtomicInteger executed = new AtomicInteger();
+        final int operationCount = 10000;
+        for (int i = 0; i < operationCount; i++) {
+            executor.execute(new Operation() {
+                @Override
+                public void run() {
+                    executed.incrementAndGet();
+                }
+            }.setPartitionId(-1));
+        }
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertEquals(operationCount, executed.get());
+            }
+        });
+        assertEquals(0, executor.getQueueSize());
+    }
+
+    @Test
+    public void whenGenericThreadBlocked_thenItsTasksAreStolen() throws Exception {
+        initExecutor();
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Set<Thread> executingThreads = ConcurrentHashMap.newKeySet();
+        final AtomicInteger executed = new AtomicInteger();
+        final int operationCount = 100;
+
+        // the operations scheduled by a generic thread go to the deque of that thread
+        executor.execute(new Operation() {
+            @Override
+            public void run() throws Exception {
+                for (int i = 0; i < operationCount; i++) {
+                    executor.execute(new Operation() {
+                        @Override
+                        public void run() {
+                            executingThreads.add(Thread.currentThread());
+                            executed.incrementAndGet();
+                        }
+                    }.setPartitionId(-1));
+                }
+                blocked.countDown();
+                release.await();
+            }
+        }.setPartitionId(-1));
+
+        blocked.await();
+        try {
+            assertTrueEventually(new AssertTask() {
+                @Override
+                public void run() {
+                    assertEquals(operationCount, executed.get());
+                }
+            });
+        } finally {
+            release.countDown();
+        }
+        for (Thread thread : executingThreads) {
+            assertTrue(thread instanceof GenericOperationThread);
+        }
+    }
+
+    @Test
+    public void whenPriorityGenericOperation_thenExecuted() {
+        initExecutor();
+
+        final CountDownLatch executed = new CountDownLatch(1);
+        executor.execute(new UrgentDummyOperation(-1) {
+            @Override
+            public void run() {
+                executed.countDown();
+            }
+        });
+
+        assertOpenEventually(executed);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.internal.util.concurrent.MPSCArrayQueue;
+import com.hazelcast.internal.util.concurrent.MPSCQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Benchmark for the queues of the partition operation threads: many
+ * producers add the tasks to the {@link OperationQueueImpl} of a single
+ * partition thread, which is the benchmark thread taking them.
+ * <p>
+ * Compares the {@link LinkedBlockingQueue}, the linked {@link MPSCQueue}
+ * used by default and the ring buffer backed {@link MPSCArrayQueue} as the
+ * normal queue of the {@link OperationQueueImpl}. The throughput mode gives
+ * the tasks per second, the sample time mode the distribution of the time
+ * per task.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1000, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 1000, timeUnit = MILLISECONDS)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class PartitionOperationQueueBenchmark {
+
+    private static final int TASKS_PER_INVOCATION = 32 * 1024;
+    private static final Object TASK = new Object();
+
+    @Param({"LinkedBlockingQueue", "MPSCQueue", "MPSCArrayQueue"})
+    private String queueType;
+
+    @Param({"32"})
+    private int producerCount;
+
+    @Param({"16384"})
+    private int capacity;
+
+    private OperationQueue queue;
+    private ExecutorService producers;
+    private CyclicBarrier startBarrier;
+
+    @Setup
+    public void setup() {
+        BlockingQueue<Object> normalQueue;
+        if ("LinkedBlockingQueue".equals(queueType)) {
+            normalQueue = new LinkedBlockingQueue<Object>();
+        } else if ("MPSCQueue".equals(queueType)) {
+            MPSCQueue<Object> mpscQueue = new MPSCQueue<Object>(null);
+            mpscQueue.setConsumerThread(Thread.currentThread());
+            normalQueue = mpscQueue;
+        } else {
+            MPSCArrayQueue<Object> arrayQueue = new MPSCArrayQueue<Object>(capacity, null);
+            arrayQueue.setConsumerThread(Thread.currentThread());
+            normalQueue = arrayQueue;
+        }
+        queue = new OperationQueueImpl(normalQueue, new ConcurrentLinkedQueue<Object>());
+
+        producers = Executors.newFixedThreadPool(producerCount);
+        startBarrier = new CyclicBarrier(producerCount);
+    }
+
+    @TearDown
+    public void tearDown() {
+        producers.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS_PER_INVOCATION)
+    public void addAndTake() throws Exception {
+        final int tasksPerProducer = TASKS_PER_INVOCATION / producerCount;
+        for (int i = 0; i < producerCount; i++) {
+            producers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startBarrier.await();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                    for (int k = 0; k < tasksPerProducer; k++) {
+                        queue.add(TASK, false);
+                    }
+                }
+            });
+        }
+
+        for (int i = tasksPerProducer * producerCount; i > 0; i--) {
+            queue.take(false);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PartitionOperationQueueBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class WorkStealingOperationQueueTest extends HazelcastTestSupport {
+
+    private WorkStealingOperationQueue queue;
+
+    @Before
+    public void setup() {
+        queue = new WorkStealingOperationQueue(2);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void add_whenNull() {
+        queue.add(null, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void construct_whenNoConsumers() {
+        new WorkStealingOperationQueue(0);
+    }
+
+    @Test
+    public void add_whenNormal() {
+        queue.add(new Object(), false);
+        queue.add(new Object(), false);
+
+        assertEquals(2, queue.normalSize());
+        assertEquals(0, queue.prioritySize());
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.consumer(0).normalSize() + queue.consumer(1).normalSize());
+    }
+
+    @Test
+    public void add_whenPriority() throws InterruptedException {
+        Object task = new Object();
+        queue.add(task, true);
+
+        assertEquals(0, queue.normalSize());
+        assertEquals(1, queue.prioritySize());
+        assertSame(task, queue.take(true));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void take_whenNormalFromPool() throws InterruptedException {
+        queue.take(false);
+    }
+
+    @Test
+    public void take_whenPriorityTaskPending_thenPriorityTakenFirst() throws InterruptedException {
+        Object normalTask = new Object();
+        Object priorityTask = new Object();
+        queue.add(normalTask, false);
+        queue.add(priorityTask, true);
+
+        WorkStealingOperationQueue.Consumer consumer = queue.consumer(0);
+        assertSame(priorityTask, consumer.take(false));
+        assertSame(normalTask, consumer.take(false));
+    }
+
+    @Test
+    public void take_whenOwnDequeEmpty_thenStealsFromOthers() throws InterruptedException {
+        // the tasks added by a non generic thread are spread over both the deques
+        for (int i = 0; i < 100; i++) {
+            queue.add(i, false);
+        }
+
+        WorkStealingOperationQueue.Consumer consumer = queue.consumer(0);
+        for (int i = 0; i < 100; i++) {
+            consumer.take(false);
+        }
+
+        assertEquals(0, queue.size());
+        assertEquals(0, queue.consumer(1).normalSize());
+    }
+
+    @Test
+    public void take_whenEmpty_thenBlocksUntilTaskAdded() throws Exception {
+        final WorkStealingOperationQueue.Consumer consumer = queue.consumer(0);
+        final AtomicReference<Object> taken = new AtomicReference<Object>();
+        final CountDownLatch started = new CountDownLatch(1);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    taken.set(consumer.take(false));
+                } catch (InterruptedException e) {
+                    taken.set(e);
+                }
+            }
+        };
+        consumer.setConsumerThread(thread);
+        thread.start();
+        started.await();
+        sleepMillis(100);
+
+        Object task = new Object();
+        queue.add(task, false);
+
+        assertJoinable(thread);
+        assertSame(task, taken.get());
+    }
+
+    @Test
+    public void take_whenInterrupted() throws Exception {
+        final WorkStealingOperationQueue.Consumer consumer = queue.consumer(0);
+        final AtomicReference<Object> taken = new AtomicReference<Object>();
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    taken.set(consumer.take(false));
+                } catch (InterruptedException e) {
+                    taken.set(e);
+                }
+            }
+        };
+        consumer.setConsumerThread(thread);
+        thread.start();
+        sleepMillis(100);
+
+        thread.interrupt();
+
+        assertJoinable(thread);
+        assertInstanceOf(InterruptedException.class, taken.get());
+
+        // the interrupted consumer is no longer idle, the task stays queued
+        Object task = new Object();
+        queue.add(task, false);
+        assertEquals(1, queue.normalSize());
+    }
+}
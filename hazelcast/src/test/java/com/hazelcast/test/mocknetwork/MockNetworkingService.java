@@ -348,6 +348,16 @@ class MockNetworkingService
                 return 0;
             }
 
+            @Override
+            public long getFramesSent() {
+                return 0;
+            }
+
+            @Override
+            public long getSocketWrites() {
+                return 0;
+            }
+
         }
     }
 
@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2008-2019, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.wan.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.WanAcknowledgeType;
+import com.hazelcast.config.WanBatchReplicationPublisherConfig;
+import com.hazelcast.config.WanQueueFullBehavior;
+import com.hazelcast.config.WanReplicationConfig;
+import com.hazelcast.config.WanReplicationRef;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.metrics.MetricDescriptor;
+import com.hazelcast.internal.metrics.impl.CapturingCollector;
+import com.hazelcast.map.IMap;
+import com.hazelcast.spi.merge.PassThroughMergePolicy;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import com.hazelcast.wan.WanPublisherState;
+import com.hazelcast.wan.WanReplicationQueueFullException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.wan.impl.WanBatchReplication.COMPRESSION_ENABLED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class WanBatchReplicationTest extends HazelcastTestSupport {
+
+    private static final String WAN_REPLICATION_NAME = "wan";
+    private static final String TARGET_CLUSTER_NAME = "target";
+    private static final String MAP_NAME = "map";
+
+    private TestHazelcastInstanceFactory factory;
+    private HazelcastInstance[] targetCluster;
+
+    @Before
+    public void setUp() {
+        factory = createHazelcastInstanceFactory();
+        targetCluster = new HazelcastInstance[2];
+        Config targetConfig = smallInstanceConfig().setClusterName(TARGET_CLUSTER_NAME);
+        targetCluster[0] = factory.newHazelcastInstance(targetConfig);
+        targetCluster[1] = factory.newHazelcastInstance(targetConfig);
+        assertClusterSizeEventually(2, targetCluster);
+    }
+
+    @After
+    public void tearDown() {
+        factory.terminateAll();
+    }
+
+    @Test
+    public void when_entriesPutAndRemoved_then_replicatedToTargetCluster() {
+        HazelcastInstance[] sourceCluster = newSourceCluster(newPublisherConfig());
+        IMap<Integer, Integer> map = sourceCluster[0].getMap(MAP_NAME);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            map.remove(i);
+        }
+
+        IMap<Integer, Integer> targetMap = targetCluster[0].getMap(MAP_NAME);
+        assertTrueEventually(() -> {
+            assertEquals(900, targetMap.size());
+            for (int i = 100; i < 1000; i++) {
+                assertEquals(i, (int) targetMap.get(i));
+            }
+        });
+        assertTrueEventually(() -> {
+            long sentEventCount = 0;
+            for (HazelcastInstance instance : sourceCluster) {
+                WanBatchReplication publisher = getPublisher(instance);
+                assertEquals(0, publisher.getOutboundQueueSize());
+                sentEventCount += publisher.getSentEventCount();
+            }
+            assertEquals(1100, sentEventCount);
+        });
+    }
+
+    @Test
+    public void when_compressionDisabled_then_replicatedToTargetCluster() {
+        WanBatchReplicationPublisherConfig publisherConfig = newPublisherConfig();
+        publisherConfig.getProperties().put(COMPRESSION_ENABLED, "false");
+        HazelcastInstance[] sourceCluster = newSourceCluster(publisherConfig);
+        IMap<Integer, Integer> map = sourceCluster[0].getMap(MAP_NAME);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+
+        IMap<Integer, Integer> targetMap = targetCluster[0].getMap(MAP_NAME);
+        assertTrueEventually(() -> assertEquals(100, targetMap.size()));
+    }
+
+    @Test
+    public void when_ackOnReceipt_then_replicatedToTargetCluster() {
+        HazelcastInstance[] sourceCluster = newSourceCluster(newPublisherConfig()
+                .setAcknowledgeType(WanAcknowledgeType.ACK_ON_RECEIPT));
+        IMap<Integer, Integer> map = sourceCluster[0].getMap(MAP_NAME);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+
+        IMap<Integer, Integer> targetMap = targetCluster[0].getMap(MAP_NAME);
+        assertTrueEventually(() -> assertEquals(100, targetMap.size()));
+    }
+
+    @Test
+    public void when_ackOnReceiptAndKeysUpdated_then_latestValuesReplicated() {
+        HazelcastInstance[] sourceCluster = newSourceCluster(newPublisherConfig()
+                .setBatchSize(10)
+                .setAcknowledgeType(WanAcknowledgeType.ACK_ON_RECEIPT));
+        IMap<Integer, Integer> map = sourceCluster[0].getMap(MAP_NAME);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i % 10, i);
+        }
+
+        IMap<Integer, Integer> targetMap = targetCluster[0].getMap(MAP_NAME);
+        assertTrueEventually(() -> {
+            for (int key = 0; key < 10; key++) {
+                assertEquals(Integer.valueOf(990 + key), targetMap.get(key));
+            }
+        });
+    }
+
+    @Test
+    public void when_publisherShutdown_then_metricsDeregistered() {
+        HazelcastInstance[] sourceCluster = newSourceCluster(newPublisherConfig());
+        WanBatchReplication publisher = getPublisher(sourceCluster[0]);
+        assertTrue(countPublisherMetrics(sourceCluster[0]) > 0);
+
+        publisher.shutdown();
+
+        assertEquals(0, countPublisherMetrics(sourceCluster[0]));
+    }
+
+    @Test
+    public void when_coalescingEnabled_then_onlyLatestUpdateOfKeyIsSent() {
+        HazelcastInstance[] sourceCluster = newSourceCluster(newPublisherConfig()
+                .setBatchSize(500)
+                .setSnapshotEnabled(true)
+                .setInitialPublisherState(WanPublisherState.PAUSED));
+        IMap<Integer, Integer> map = sourceCluster[0].getMap(MAP_NAME);
+        for (int i = 0; i < 100; i++) {
+            map.put(1, i);
+        }
+
+        for (HazelcastInstance instance : sourceCluster) {
+            getPublisher(instance).resume();
+        }
+
+        IMap<Integer, Integer> targetMap = targetCluster[0].getMap(MAP_NAME);
+        assertTrueEventually(() -> assertEquals(Integer.valueOf(99), targetMap.get(1)));
+        assertTrueEventually(() -> {
+            long sentEventCount = 0;
+            long coalescedEventCount = 0;
+            for (HazelcastInstance instance : sourceCluster) {
+                WanBatchReplication publisher = getPublisher(instance);
+                sentEventCount += publisher.getSentEventCount();
+                coalescedEventCount += publisher.getCoalescedEventCount();
+            }
+            assertEquals(1, sentEventCount);
+            assertEquals(99, coalescedEventCount);
+        });
+    }
+
+    @Test
+    public void when_queueFull_then_eventsAreDropped() {
+        HazelcastInstance[] sourceCluster = newSourceCluster(newPublisherConfig()
+                .setQueueCapacity(10)
+                .setInitialPublisherState(WanPublisherState.PAUSED));
+        IMap<Integer, Integer> map = sourceCluster[0].getMap(MAP_NAME);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+
+        long droppedEventCount = 0;
+        for (HazelcastInstance instance : sourceCluster) {
+            WanBatchReplication publisher = getPublisher(instance);
+            assertEquals(10, publisher.getOutboundQueueSize());
+            droppedEventCount += publisher.getDroppedEventCount();
+        }
+        assertEquals(80, droppedEventCount);
+    }
+
+    @Test(expected = WanReplicationQueueFullException.class)
+    public void when_queueFullWithThrowException_then_mutationFails() {
+        HazelcastInstance[] sourceCluster = newSourceCluster(newPublisherConfig()
+                .setQueueCapacity(10)
+                .setQueueFullBehavior(WanQueueFullBehavior.THROW_EXCEPTION)
+                .setInitialPublisherState(WanPublisherState.PAUSED));
+        IMap<Integer, Integer> map = sourceCluster[0].getMap(MAP_NAME);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+    }
+
+    @Test
+    public void when_targetEndpointUnreachable_then_eventsAreReplicatedAfterRecovery() {
+        WanBatchReplicationPublisherConfig publisherConfig = newPublisherConfig();
+        // the first target endpoint does not exist
+        publisherConfig.setTargetEndpoints("127.0.0.1:6000," + publisherConfig.getTargetEndpoints());
+        HazelcastInstance[] sourceCluster = newSourceCluster(publisherConfig);
+        IMap<Integer, Integer> map = sourceCluster[0].getMap(MAP_NAME);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+
+        IMap<Integer, Integer> targetMap = targetCluster[0].getMap(MAP_NAME);
+        assertTrueEventually(() -> assertEquals(100, targetMap.size()));
+        assertTrueEventually(() -> {
+            for (HazelcastInstance instance : sourceCluster) {
+                assertEquals(0, getPublisher(instance).getOutboundQueueSize());
+                assertTrue(getPublisher(instance).getReplicationLagMillis() >= 0);
+            }
+        });
+    }
+
+    private WanBatchReplicationPublisherConfig newPublisherConfig() {
+        StringBuilder targetEndpoints = new StringBuilder();
+        for (HazelcastInstance instance : targetCluster) {
+            if (targetEndpoints.length() > 0) {
+                targetEndpoints.append(',');
+            }
+            targetEndpoints.append(getAddress(instance).getHost()).append(':').append(getAddress(instance).getPort());
+        }
+
+        return new WanBatchReplicationPublisherConfig()
+                .setClusterName(TARGET_CLUSTER_NAME)
+                .setTargetEndpoints(targetEndpoints.toString())
+                .setBatchSize(50)
+                .setBatchMaxDelayMillis(100)
+                .setResponseTimeoutMillis(5000);
+    }
+
+    private HazelcastInstance[] newSourceCluster(WanBatchReplicationPublisherConfig publisherConfig) {
+        WanReplicationConfig wanReplicationConfig = new WanReplicationConfig()
+                .setName(WAN_REPLICATION_NAME)
+                .addWanBatchReplicationPublisherConfig(publisherConfig);
+        WanReplicationRef wanReplicationRef = new WanReplicationRef()
+                .setName(WAN_REPLICATION_NAME)
+                .setMergePolicy(PassThroughMergePolicy.class.getName());
+        Config config = smallInstanceConfig()
+                .setClusterName("source")
+                .addWanReplicationConfig(wanReplicationConfig);
+        config.getMapConfig(MAP_NAME).setWanReplicationRef(wanReplicationRef);
+
+        HazelcastInstance[] sourceCluster = new HazelcastInstance[2];
+        sourceCluster[0] = factory.newHazelcastInstance(config);
+        sourceCluster[1] = factory.newHazelcastInstance(config);
+        assertClusterSizeEventually(2, sourceCluster);
+        // queued WAN events are not migrated
+        waitAllForSafeState(sourceCluster);
+        return sourceCluster;
+    }
+
+    private static long countPublisherMetrics(HazelcastInstance instance) {
+        CapturingCollector collector = new CapturingCollector();
+        getNodeEngineImpl(instance).getMetricsRegistry().collect(collector);
+        return collector.captures().keySet().stream()
+                        .map(MetricDescriptor::prefix)
+                        .filter("wan"::equals)
+                        .count();
+    }
+
+    private static WanBatchReplication getPublisher(HazelcastInstance instance) {
+        return (WanBatchReplication) getNodeEngineImpl(instance).getWanReplicationService()
+                .getWanReplicationPublishers(WAN_REPLICATION_NAME)
+                .getPublisher(TARGET_CLUSTER_NAME);
+    }
+}
@@ -42,6 +42,14 @@ public class WanDataSerializerHookTest {
         IdentifiedDataSerializable mapRemove = hook.createFactory()
                 .create(WanDataSerializerHook.MAP_REPLICATION_REMOVE);
         assertTrue(mapRemove instanceof MapReplicationRemove);
+
+        IdentifiedDataSerializable eventBatch = hook.createFactory()
+                .create(WanDataSerializerHook.WAN_EVENT_BATCH);
+        assertTrue(eventBatch instanceof WanEventBatch);
+
+        IdentifiedDataSerializable putBatchOperation = hook.createFactory()
+                .create(WanDataSerializerHook.WAN_PUT_BATCH_OPERATION);
+        assertTrue(putBatchOperation instanceof WanPutBatchOperation);
     }
 
     @Test(expected = IllegalArgumentException.class)